@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.jdbc;
+
+import java.sql.SQLException;
+
+import org.apache.arrow.vector.VectorSchemaRoot;
+
+/**
+ * Columnar access to the results of a {@link DremioResultSet}, one Arrow batch
+ * at a time, without going through the column getters row by row.
+ * <p>
+ *   Obtained with {@code resultSet.unwrap(DremioArrowReader.class)}:
+ * </p>
+ * <pre>
+ *   DremioArrowReader reader = resultSet.unwrap(DremioArrowReader.class);
+ *   while (reader.loadNextBatch()) {
+ *     VectorSchemaRoot root = reader.getVectorSchemaRoot();
+ *     ...
+ *   }
+ * </pre>
+ * <p>
+ *   The vectors are the ones the batches are received in, they are not copied.
+ *   They are only valid until the next batch is loaded or the result set is
+ *   closed, and must not be closed by the caller.
+ * </p>
+ */
+public interface DremioArrowReader {
+
+  /**
+   * Loads the next batch of rows, skipping the rows of the current batch that
+   * were not read.  Empty batches are skipped.
+   * <p>
+   *   The result set is then positioned on the last row of the loaded batch,
+   *   so that {@link java.sql.ResultSet#next()} goes on with the next batch.
+   * </p>
+   *
+   * @return  whether a batch was loaded (false after the last batch)
+   * @throws  SQLException  if the result set is closed, or the query failed
+   */
+  boolean loadNextBatch() throws SQLException;
+
+  /**
+   * Gets the root holding the vectors of the current batch.
+   *
+   * @throws  SQLException  if the result set is closed
+   */
+  VectorSchemaRoot getVectorSchemaRoot() throws SQLException;
+}
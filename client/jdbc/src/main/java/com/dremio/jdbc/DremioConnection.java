@@ -214,4 +214,11 @@ public interface DremioConnection extends Connection {
 
   DremioClient getClient();
 
+  /**
+   * Gets statistics on the results received by the result sets of this
+   * connection, like the rate they were received at and the time spent
+   * decoding them.
+   */
+  ResultTransferStats getResultTransferStats();
+
 }
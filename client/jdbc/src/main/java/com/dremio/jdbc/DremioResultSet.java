@@ -38,7 +38,8 @@ public interface DremioResultSet extends ResultSet  {
    * {@inheritDoc}
    * <p>
    *   <strong>Dremio</strong>:
-   *   Accepts {@code DremioResultSet.class}.
+   *   Accepts {@code DremioResultSet.class} and
+   *   {@link DremioArrowReader DremioArrowReader.class}.
    * </p>
    */
   @Override
@@ -48,7 +49,8 @@ public interface DremioResultSet extends ResultSet  {
    * {@inheritDoc}
    * <p>
    *   <strong>Dremio</strong>:
-   *   Returns true for {@code DremioResultSet.class}.
+   *   Returns true for {@code DremioResultSet.class} and
+   *   {@code DremioArrowReader.class}.
    * </p>
    */
   @Override
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.jdbc;
+
+/**
+ * Client-side statistics on the results received by the result sets of a
+ * {@link DremioConnection}, since the connection was opened.
+ */
+public interface ResultTransferStats {
+
+  /**
+   * Gets the number of batches received.
+   */
+  long getBatchCount();
+
+  /**
+   * Gets the number of rows received.
+   */
+  long getRecordCount();
+
+  /**
+   * Gets the number of bytes of the batches received.
+   */
+  long getByteCount();
+
+  /**
+   * Gets the time spent receiving the results of completed queries, from the
+   * first batch to the end of the results, in nanoseconds.
+   */
+  long getTransferNanos();
+
+  /**
+   * Gets the time spent loading the batches received into vectors, in
+   * nanoseconds.
+   */
+  long getDecodeNanos();
+
+  /**
+   * Gets the rate at which the results of completed queries were received, in
+   * bytes per second.
+   */
+  double getBytesPerSecond();
+}
@@ -63,7 +63,7 @@ class DremioAccessorList extends BasicList<Accessor> {
           new TypeConvertingSqlAccessor(
               new BoundCheckingAccessor(vector, SqlAccessorBuilder.getSqlAccessor(vector, defaultTz))
               );
-      accessors[i] = new SqlAccessorWrapper(acc, cursor);
+      accessors[i] = PrimitiveSqlAccessorWrappers.wrap(vector, acc, cursor);
     }
     clearLastColumnIndexedInRow();
   }
@@ -55,6 +55,7 @@ import com.dremio.jdbc.DremioConnection;
 import com.dremio.jdbc.DremioConnectionConfig;
 import com.dremio.jdbc.InvalidParameterSqlException;
 import com.dremio.jdbc.JdbcApiSqlException;
+import com.dremio.jdbc.ResultTransferStats;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 
@@ -75,6 +76,7 @@ class DremioConnectionImpl extends AvaticaConnection
 
   private final DremioClient client;
   private final TimeZone timeZone;
+  private final ResultTransferStatsImpl resultTransferStats = new ResultTransferStatsImpl();
 
   protected DremioConnectionImpl(DriverImpl driver, AvaticaFactory factory,
                                 String url, Properties info) throws SQLException {
@@ -148,6 +150,16 @@ class DremioConnectionImpl extends AvaticaConnection
     return client;
   }
 
+  @Override
+  public ResultTransferStats getResultTransferStats() {
+    return resultTransferStats;
+  }
+
+  // do not make public
+  ResultTransferStatsImpl getResultTransferStatsImpl() {
+    return resultTransferStats;
+  }
+
   @Override
   public void setAutoCommit( boolean autoCommit ) throws SQLException {
     throwIfClosed();
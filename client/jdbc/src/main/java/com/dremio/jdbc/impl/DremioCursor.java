@@ -27,7 +27,11 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.calcite.avatica.AvaticaStatement;
 import org.apache.calcite.avatica.ColumnMetaData;
 import org.apache.calcite.avatica.Meta;
@@ -46,6 +50,7 @@ import com.dremio.exec.proto.UserBitShared.QueryType;
 import com.dremio.exec.proto.UserProtos.PreparedStatement;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.RecordBatchLoader;
+import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.rpc.ConnectionThrottle;
 import com.dremio.jdbc.SchemaChangeListener;
 import com.dremio.jdbc.SqlTimeoutException;
@@ -59,6 +64,8 @@ class DremioCursor implements Cursor {
 
   /** Size of JDBC batch queue (in batches) above which throttling begins. */
   public static final String JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD = "dremio.jdbc.batch_queue_throttling_threshold";
+  /** Size of JDBC batch queue (in bytes) above which throttling begins. */
+  public static final String JDBC_BATCH_QUEUE_THROTTLING_BYTES = "dremio.jdbc.batch_queue_throttling_bytes";
   public static final String IS_CATALOG_NAME = "DREMIO";
   // END_OF_STREAM_MESSAGE gets added to batchQueue to signal the waiting threads
   // that there is no more data in the queue, therefore aborting the operations waiting
@@ -79,6 +86,15 @@ class DremioCursor implements Cursor {
     private final int instanceId;
 
     private final int batchQueueThrottlingThreshold;
+    private final long batchQueueThrottlingBytes;
+
+    /** Bytes of the batches in batchQueue. */
+    private final AtomicLong batchQueueBytes = new AtomicLong();
+
+    private final ResultTransferStatsImpl stats;
+    /** (System.nanoTime() when the first batch was received, 0 before.) */
+    private long firstBatchNanos;
+    private long receivedBytes;
 
     /** (Just for logging.) */
     private volatile QueryId queryId;
@@ -114,14 +130,21 @@ class DremioCursor implements Cursor {
      * ...
      * @param  batchQueueThrottlingThreshold
      *         queue size threshold for throttling server
+     * @param  batchQueueThrottlingBytes
+     *         queue size threshold (in bytes) for throttling server
      * @param  batchQueuePollTimeoutMs
      *         timeout for batchQueue.Poll() in ms
+     * @param  stats
+     *         statistics of the connection to add the received batches to
      */
     @VisibleForTesting
-    ResultsListener( int batchQueueThrottlingThreshold, long batchQueuePollTimeoutMs ) {
+    ResultsListener( int batchQueueThrottlingThreshold, long batchQueueThrottlingBytes,
+                     long batchQueuePollTimeoutMs, ResultTransferStatsImpl stats ) {
       instanceId = INSTANCE_ID_COUNTER.getAndIncrement();
       this.batchQueueThrottlingThreshold = batchQueueThrottlingThreshold;
+      this.batchQueueThrottlingBytes = batchQueueThrottlingBytes;
       this.batchQueuePollTimeoutMs = batchQueuePollTimeoutMs;
+      this.stats = stats;
       logger.debug( "[#{}] Query listener created.", instanceId );
     }
 
@@ -129,9 +152,30 @@ class DremioCursor implements Cursor {
      * ...
      * @param  batchQueueThrottlingThreshold
      *         queue size threshold for throttling server
+     * @param  batchQueuePollTimeoutMs
+     *         timeout for batchQueue.Poll() in ms
+     */
+    @VisibleForTesting
+    ResultsListener( int batchQueueThrottlingThreshold, long batchQueuePollTimeoutMs ) {
+      this(batchQueueThrottlingThreshold, Long.MAX_VALUE, batchQueuePollTimeoutMs, new ResultTransferStatsImpl());
+    }
+
+    /**
+     * ...
+     * @param  batchQueueThrottlingThreshold
+     *         queue size threshold for throttling server
+     * @param  batchQueueThrottlingBytes
+     *         queue size threshold (in bytes) for throttling server
+     * @param  stats
+     *         statistics of the connection to add the received batches to
      */
-    ResultsListener( int batchQueueThrottlingThreshold ) {
-      this(batchQueueThrottlingThreshold, 50);
+    ResultsListener( int batchQueueThrottlingThreshold, long batchQueueThrottlingBytes,
+                     ResultTransferStatsImpl stats ) {
+      this(batchQueueThrottlingThreshold, batchQueueThrottlingBytes, 50, stats);
+    }
+
+    private static long getByteCount(QueryDataBatch batch) {
+      return batch.getData() == null ? 0 : batch.getData().capacity();
     }
 
     /**
@@ -208,14 +252,25 @@ class DremioCursor implements Cursor {
         return;
       }
 
+      final long bytes = getByteCount(result);
+      if (firstBatchNanos == 0) {
+        firstBatchNanos = System.nanoTime();
+      }
+      receivedBytes += bytes;
+      stats.addBatch(result.getHeader().getRowCount(), bytes);
+
       // We're active; let's add to the queue.
+      final long queuedBytes = batchQueueBytes.addAndGet(bytes);
       batchQueue.add(result);
 
-      // Throttle server if queue size has exceed threshold.
-      if (batchQueue.size() > batchQueueThrottlingThreshold ) {
+      // Throttle server if queue size has exceed threshold, in batches or in
+      // bytes (so that large batches don't take batchQueueThrottlingThreshold
+      // times their size in memory).
+      if (batchQueue.size() > batchQueueThrottlingThreshold
+          || queuedBytes > batchQueueThrottlingBytes ) {
         if ( startThrottlingIfNot( throttle ) ) {
-          logger.debug( "[#{}] Throttling started at queue size {}.",
-                        instanceId, batchQueue.size() );
+          logger.debug( "[#{}] Throttling started at queue size {} ({} bytes).",
+                        instanceId, batchQueue.size(), queuedBytes );
         }
       }
 
@@ -225,6 +280,9 @@ class DremioCursor implements Cursor {
     @Override
     public void queryCompleted(QueryState state) {
       logger.debug( "[#{}] Received query completion: {}.", instanceId, state );
+      if (firstBatchNanos != 0 && state == QueryState.COMPLETED) {
+        stats.addTransfer(receivedBytes, System.nanoTime() - firstBatchNanos);
+      }
       completed = true;
       // Add an END_OF_STREAM_MESSAGE batch to the queue to signify no more data.
       batchQueue.add(END_OF_STREAM_MESSAGE);
@@ -269,9 +327,11 @@ class DremioCursor implements Cursor {
             lastDequeuedBatchNumber++;
             logger.debug( "[#{}] Dequeued query data batch #{}: {}.",
                           instanceId, lastDequeuedBatchNumber, qdb );
+            final long queuedBytes = batchQueueBytes.addAndGet(-getByteCount(qdb));
 
-            // Unthrottle server if queue size has dropped enough below threshold:
-            if ( batchQueue.size() < batchQueueThrottlingThreshold / 2
+            // Unthrottle server if queue size has dropped enough below thresholds:
+            if ( ( batchQueue.size() < batchQueueThrottlingThreshold / 2
+                   && queuedBytes < batchQueueThrottlingBytes / 2 )
                  || batchQueue.size() == 0  // (in case threshold < 2)
                  ) {
               if ( stopThrottlingIfSo() ) {
@@ -303,6 +363,7 @@ class DremioCursor implements Cursor {
           qdb.getData().close();
         }
       }
+      batchQueueBytes.set(0);
 
       completed = true;
       // Add an END_OF_STREAM_MESSAGE batch to the queue to signify no more data in a race condition
@@ -333,8 +394,12 @@ class DremioCursor implements Cursor {
   private final RecordBatchLoader currentBatchHolder;
 
   private final ResultsListener resultsListener;
+  private final ResultTransferStatsImpl stats;
   private SchemaChangeListener changeListener;
 
+  /** Root over the vectors of the current batch (null until requested). */
+  private VectorSchemaRoot currentRoot;
+
   private final DremioAccessorList accessors = new DremioAccessorList();
 
   /** Schema of current batch (null before first load). */
@@ -387,7 +452,10 @@ class DremioCursor implements Cursor {
     DremioClient client = connection.getClient();
     final int batchQueueThrottlingThreshold =
         client.getConfig().getInt(JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD );
-    resultsListener = new ResultsListener(batchQueueThrottlingThreshold);
+    final long batchQueueThrottlingBytes =
+        client.getConfig().getBytes(JDBC_BATCH_QUEUE_THROTTLING_BYTES );
+    stats = connection.getResultTransferStatsImpl();
+    resultsListener = new ResultsListener(batchQueueThrottlingThreshold, batchQueueThrottlingBytes, stats);
     currentBatchHolder = new RecordBatchLoader(client.getRecordAllocator());
   }
 
@@ -428,6 +496,7 @@ class DremioCursor implements Cursor {
     }
     resultsListener.close();
     currentBatchHolder.clear();
+    currentRoot = null;
   }
 
   /**
@@ -505,6 +574,7 @@ class DremioCursor implements Cursor {
           // End of batches--clean up, set state to done, report after last row.
 
           currentBatchHolder.clear();  // (We load it so we clear it.)
+          currentRoot = null;
           afterLastRow = true;
           return false;
         } else {
@@ -513,7 +583,9 @@ class DremioCursor implements Cursor {
           // to next().
 
           currentRecordNumber = 0;
+          currentRoot = null;
 
+          final long decodeStart = System.nanoTime();
           final boolean schemaChanged;
           try {
             schemaChanged = currentBatchHolder.load(qrb.getHeader().getDef(),
@@ -525,6 +597,7 @@ class DremioCursor implements Cursor {
           if (schemaChanged) {
             updateColumns();
           }
+          stats.addDecodeNanos(System.nanoTime() - decodeStart);
 
           if (returnTrueForNextCallToNext
               && currentBatchHolder.getRecordCount() == 0) {
@@ -657,6 +730,58 @@ class DremioCursor implements Cursor {
     }
   }
 
+  /**
+   * Loads the next non-empty batch, skipping the rows left in the current one,
+   * and positions this cursor on its last row.
+   *
+   * @return  whether a batch was loaded (false when after end of results)
+   * @see com.dremio.jdbc.DremioArrowReader#loadNextBatch()
+   */
+  boolean loadNextBatch() throws SQLException {
+    if ( ! initialSchemaLoaded ) {
+      throw new IllegalStateException(
+          "loadNextBatch() called but loadInitialSchema() was not called" );
+    }
+
+    if ( afterLastRow ) {
+      return false;
+    }
+    if ( returnTrueForNextCallToNext ) {
+      // The first batch has rows which were not read yet--return it.
+      returnTrueForNextCallToNext = false;
+    } else {
+      // Skip the rest of the current batch and load the next one.
+      currentRowNumber += Math.max(0, currentBatchHolder.getRecordCount() - 1 - currentRecordNumber);
+      currentRecordNumber = currentBatchHolder.getRecordCount() - 1;
+      accessors.clearLastColumnIndexedInRow();
+      if ( ! nextRowInternally() ) {
+        return false;
+      }
+    }
+    currentRowNumber += currentBatchHolder.getRecordCount() - currentRecordNumber;
+    currentRecordNumber = currentBatchHolder.getRecordCount() - 1;
+    return true;
+  }
+
+  /**
+   * Gets a root over the vectors of the current batch.
+   *
+   * @see com.dremio.jdbc.DremioArrowReader#getVectorSchemaRoot()
+   */
+  VectorSchemaRoot getVectorSchemaRoot() {
+    if (currentRoot == null) {
+      final List<Field> fields = new ArrayList<>();
+      final List<FieldVector> vectors = new ArrayList<>();
+      for (VectorWrapper<?> wrapper : currentBatchHolder) {
+        final FieldVector vector = (FieldVector) wrapper.getValueVector();
+        fields.add(vector.getField());
+        vectors.add(vector);
+      }
+      currentRoot = new VectorSchemaRoot(fields, vectors, currentBatchHolder.getRecordCount());
+    }
+    return currentRoot;
+  }
+
   public void cancel() {
     close();
   }
@@ -39,6 +39,7 @@ import java.util.Calendar;
 import java.util.Map;
 import java.util.TimeZone;
 
+import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.calcite.avatica.AvaticaResultSet;
 import org.apache.calcite.avatica.AvaticaSite;
 import org.apache.calcite.avatica.AvaticaStatement;
@@ -49,6 +50,7 @@ import org.apache.calcite.avatica.util.Cursor;
 
 import com.dremio.common.SuppressForbidden;
 import com.dremio.jdbc.AlreadyClosedSqlException;
+import com.dremio.jdbc.DremioArrowReader;
 import com.dremio.jdbc.DremioResultSet;
 import com.dremio.jdbc.ExecutionCanceledSqlException;
 import com.dremio.jdbc.SchemaChangeListener;
@@ -57,7 +59,7 @@ import com.dremio.jdbc.SchemaChangeListener;
 /**
  * Dremio's implementation of {@link ResultSet}.
  */
-class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet {
+class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet, DremioArrowReader {
   @SuppressWarnings("unused")
   private static final org.slf4j.Logger logger =
       org.slf4j.LoggerFactory.getLogger(DremioResultSetImpl.class);
@@ -1768,6 +1770,29 @@ class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet {
     return null;
   }
 
+  ////////////////////////////////////////
+  // DremioArrowReader methods:
+
+  @Override
+  public boolean loadNextBatch() throws SQLException {
+    throwIfClosed();
+    return getDremioCursor().loadNextBatch();
+  }
+
+  @Override
+  public VectorSchemaRoot getVectorSchemaRoot() throws SQLException {
+    throwIfClosed();
+    return getDremioCursor().getVectorSchemaRoot();
+  }
+
+  private DremioCursor getDremioCursor() throws SQLFeatureNotSupportedException {
+    if (cursor instanceof DremioCursor) {
+      return (DremioCursor) cursor;
+    }
+    // (Result sets of metadata calls are not backed by Arrow batches.)
+    throw new SQLFeatureNotSupportedException("Arrow batches are not available for this result set.");
+  }
+
   ////////////////////////////////////////
 
   @Override
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.jdbc.impl;
+
+import java.sql.SQLException;
+
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+
+import com.dremio.exec.vector.accessor.SqlAccessor;
+
+/**
+ * Accessors for the columns of primitive types, whose getters for the type of
+ * the column (and wider ones) read the vector directly, instead of going
+ * through the conversion and bound checking accessors for each value.
+ * <p>
+ *   The other getters, and conversions to narrower types (which can overflow),
+ *   still go through the given accessor.
+ * </p>
+ */
+final class PrimitiveSqlAccessorWrappers {
+
+  private PrimitiveSqlAccessorWrappers() {}
+
+  static SqlAccessorWrapper wrap(ValueVector vector, SqlAccessor sqlAccessor, DremioCursor cursor) {
+    if (vector instanceof BigIntVector) {
+      return new BigIntAccessorWrapper((BigIntVector) vector, sqlAccessor, cursor);
+    }
+    if (vector instanceof IntVector) {
+      return new IntAccessorWrapper((IntVector) vector, sqlAccessor, cursor);
+    }
+    if (vector instanceof Float8Vector) {
+      return new Float8AccessorWrapper((Float8Vector) vector, sqlAccessor, cursor);
+    }
+    if (vector instanceof Float4Vector) {
+      return new Float4AccessorWrapper((Float4Vector) vector, sqlAccessor, cursor);
+    }
+    return new SqlAccessorWrapper(sqlAccessor, cursor);
+  }
+
+  private static final class BigIntAccessorWrapper extends SqlAccessorWrapper {
+    private final BigIntVector vector;
+
+    BigIntAccessorWrapper(BigIntVector vector, SqlAccessor sqlAccessor, DremioCursor cursor) {
+      super(sqlAccessor, cursor);
+      this.vector = vector;
+    }
+
+    @Override
+    public long getLong() throws SQLException {
+      final int rowOffset = getCurrentRecordNumber();
+      return vector.isNull(rowOffset) ? PRIMITIVE_NUM_NULL_VALUE : vector.get(rowOffset);
+    }
+
+    @Override
+    public double getDouble() throws SQLException {
+      final int rowOffset = getCurrentRecordNumber();
+      return vector.isNull(rowOffset) ? PRIMITIVE_NUM_NULL_VALUE : vector.get(rowOffset);
+    }
+  }
+
+  private static final class IntAccessorWrapper extends SqlAccessorWrapper {
+    private final IntVector vector;
+
+    IntAccessorWrapper(IntVector vector, SqlAccessor sqlAccessor, DremioCursor cursor) {
+      super(sqlAccessor, cursor);
+      this.vector = vector;
+    }
+
+    @Override
+    public int getInt() throws SQLException {
+      final int rowOffset = getCurrentRecordNumber();
+      return vector.isNull(rowOffset) ? PRIMITIVE_NUM_NULL_VALUE : vector.get(rowOffset);
+    }
+
+    @Override
+    public long getLong() throws SQLException {
+      final int rowOffset = getCurrentRecordNumber();
+      return vector.isNull(rowOffset) ? PRIMITIVE_NUM_NULL_VALUE : vector.get(rowOffset);
+    }
+
+    @Override
+    public double getDouble() throws SQLException {
+      final int rowOffset = getCurrentRecordNumber();
+      return vector.isNull(rowOffset) ? PRIMITIVE_NUM_NULL_VALUE : vector.get(rowOffset);
+    }
+  }
+
+  private static final class Float8AccessorWrapper extends SqlAccessorWrapper {
+    private final Float8Vector vector;
+
+    Float8AccessorWrapper(Float8Vector vector, SqlAccessor sqlAccessor, DremioCursor cursor) {
+      super(sqlAccessor, cursor);
+      this.vector = vector;
+    }
+
+    @Override
+    public double getDouble() throws SQLException {
+      final int rowOffset = getCurrentRecordNumber();
+      return vector.isNull(rowOffset) ? PRIMITIVE_NUM_NULL_VALUE : vector.get(rowOffset);
+    }
+  }
+
+  private static final class Float4AccessorWrapper extends SqlAccessorWrapper {
+    private final Float4Vector vector;
+
+    Float4AccessorWrapper(Float4Vector vector, SqlAccessor sqlAccessor, DremioCursor cursor) {
+      super(sqlAccessor, cursor);
+      this.vector = vector;
+    }
+
+    @Override
+    public float getFloat() throws SQLException {
+      final int rowOffset = getCurrentRecordNumber();
+      return vector.isNull(rowOffset) ? PRIMITIVE_NUM_NULL_VALUE : vector.get(rowOffset);
+    }
+
+    @Override
+    public double getDouble() throws SQLException {
+      final int rowOffset = getCurrentRecordNumber();
+      return vector.isNull(rowOffset) ? PRIMITIVE_NUM_NULL_VALUE : vector.get(rowOffset);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.jdbc.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.dremio.jdbc.ResultTransferStats;
+
+/**
+ * Dremio's implementation of {@link ResultTransferStats}, updated by the
+ * cursors of the result sets of a connection.
+ */
+class ResultTransferStatsImpl implements ResultTransferStats {
+  private final LongAdder batchCount = new LongAdder();
+  private final LongAdder recordCount = new LongAdder();
+  private final LongAdder byteCount = new LongAdder();
+  private final LongAdder transferNanos = new LongAdder();
+  // bytes of the queries whose transfer time is known
+  private final LongAdder transferredBytes = new LongAdder();
+  private final LongAdder decodeNanos = new LongAdder();
+
+  void addBatch(long records, long bytes) {
+    batchCount.increment();
+    recordCount.add(records);
+    byteCount.add(bytes);
+  }
+
+  void addTransfer(long bytes, long nanos) {
+    transferredBytes.add(bytes);
+    transferNanos.add(nanos);
+  }
+
+  void addDecodeNanos(long nanos) {
+    decodeNanos.add(nanos);
+  }
+
+  @Override
+  public long getBatchCount() {
+    return batchCount.sum();
+  }
+
+  @Override
+  public long getRecordCount() {
+    return recordCount.sum();
+  }
+
+  @Override
+  public long getByteCount() {
+    return byteCount.sum();
+  }
+
+  @Override
+  public long getTransferNanos() {
+    return transferNanos.sum();
+  }
+
+  @Override
+  public long getDecodeNanos() {
+    return decodeNanos.sum();
+  }
+
+  @Override
+  public double getBytesPerSecond() {
+    final long nanos = transferNanos.sum();
+    return nanos == 0 ? 0 : transferredBytes.sum() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d batches, %d records, %d bytes, %.2f MB/s, %d ms decoding", getBatchCount(),
+        getRecordCount(), getByteCount(), getBytesPerSecond() / (1024 * 1024),
+        TimeUnit.NANOSECONDS.toMillis(getDecodeNanos()));
+  }
+}
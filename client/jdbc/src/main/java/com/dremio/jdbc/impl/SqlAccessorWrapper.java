@@ -46,7 +46,7 @@ import com.dremio.jdbc.InvalidCursorStateSqlException;
 class SqlAccessorWrapper implements Accessor {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SqlAccessorWrapper.class);
 
-  private static final byte PRIMITIVE_NUM_NULL_VALUE = 0;
+  static final byte PRIMITIVE_NUM_NULL_VALUE = 0;
   private static final boolean BOOLEAN_NULL_VALUE = false;
 
   private SqlAccessor underlyingAccessor;
@@ -58,7 +58,7 @@ class SqlAccessorWrapper implements Accessor {
     this.cursor = cursor;
   }
 
-  private int getCurrentRecordNumber() throws SQLException {
+  int getCurrentRecordNumber() throws SQLException {
     // WORKAROUND:  isBeforeFirst can't be called first here because AvaticaResultSet
     // .next() doesn't increment its row field when cursor.next() returns false,
     // so in that case row can be left at -1, so isBeforeFirst() returns true
@@ -94,51 +94,58 @@ class SqlAccessorWrapper implements Accessor {
 
   @Override
   public boolean getBoolean() throws SQLException {
-    return underlyingAccessor.isNull(getCurrentRecordNumber())
+    final int rowOffset = getCurrentRecordNumber();
+    return underlyingAccessor.isNull(rowOffset)
         ? BOOLEAN_NULL_VALUE
-        : underlyingAccessor.getBoolean(getCurrentRecordNumber());
+        : underlyingAccessor.getBoolean(rowOffset);
   }
 
   @Override
   public byte getByte() throws SQLException {
-    return underlyingAccessor.isNull(getCurrentRecordNumber())
+    final int rowOffset = getCurrentRecordNumber();
+    return underlyingAccessor.isNull(rowOffset)
         ? PRIMITIVE_NUM_NULL_VALUE
-        : underlyingAccessor.getByte(getCurrentRecordNumber());
+        : underlyingAccessor.getByte(rowOffset);
   }
 
   @Override
   public short getShort() throws SQLException {
-    return underlyingAccessor.isNull(getCurrentRecordNumber())
+    final int rowOffset = getCurrentRecordNumber();
+    return underlyingAccessor.isNull(rowOffset)
         ? PRIMITIVE_NUM_NULL_VALUE
-        : underlyingAccessor.getShort(getCurrentRecordNumber());
+        : underlyingAccessor.getShort(rowOffset);
   }
 
   @Override
   public int getInt() throws SQLException {
-    return underlyingAccessor.isNull(getCurrentRecordNumber())
+    final int rowOffset = getCurrentRecordNumber();
+    return underlyingAccessor.isNull(rowOffset)
         ? PRIMITIVE_NUM_NULL_VALUE
-        : underlyingAccessor.getInt(getCurrentRecordNumber());
+        : underlyingAccessor.getInt(rowOffset);
   }
 
   @Override
   public long getLong() throws SQLException {
-    return underlyingAccessor.isNull(getCurrentRecordNumber())
+    final int rowOffset = getCurrentRecordNumber();
+    return underlyingAccessor.isNull(rowOffset)
         ? PRIMITIVE_NUM_NULL_VALUE
-        : underlyingAccessor.getLong(getCurrentRecordNumber());
+        : underlyingAccessor.getLong(rowOffset);
   }
 
   @Override
   public float getFloat() throws SQLException {
-    return underlyingAccessor.isNull(getCurrentRecordNumber())
+    final int rowOffset = getCurrentRecordNumber();
+    return underlyingAccessor.isNull(rowOffset)
         ? PRIMITIVE_NUM_NULL_VALUE
-        : underlyingAccessor.getFloat(getCurrentRecordNumber());
+        : underlyingAccessor.getFloat(rowOffset);
   }
 
   @Override
   public double getDouble() throws SQLException {
-    return underlyingAccessor.isNull(getCurrentRecordNumber())
+    final int rowOffset = getCurrentRecordNumber();
+    return underlyingAccessor.isNull(rowOffset)
         ? PRIMITIVE_NUM_NULL_VALUE
-        : underlyingAccessor.getDouble(getCurrentRecordNumber());
+        : underlyingAccessor.getDouble(rowOffset);
   }
 
   @Override
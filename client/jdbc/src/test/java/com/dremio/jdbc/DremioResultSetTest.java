@@ -22,6 +22,8 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
 import org.junit.Test;
 
 
@@ -103,6 +105,38 @@ public class DremioResultSetTest extends JdbcWithServerTestBase {
     assertThat(resultSet.getRow()).isEqualTo(0);
   }
 
+  @Test
+  public void test_unwrap_arrowReaderReadsBatches() throws Exception {
+    final ResultTransferStats stats = getConnection().unwrap(DremioConnection.class).getResultTransferStats();
+    final long batchCount = stats.getBatchCount();
+
+    Statement statement = getConnection().createStatement();
+    ResultSet resultSet =
+      statement.executeQuery("SELECT 1 AS x FROM cp.\"donuts.json\" LIMIT 2");
+
+    assertThat(resultSet.isWrapperFor(DremioArrowReader.class)).isTrue();
+    final DremioArrowReader reader = resultSet.unwrap(DremioArrowReader.class);
+
+    assertThat(reader.loadNextBatch()).isTrue();
+    final VectorSchemaRoot root = reader.getVectorSchemaRoot();
+    assertThat(root.getRowCount()).isEqualTo(2);
+    final IntVector vector = (IntVector) root.getVector("x");
+    assertThat(vector.get(0)).isEqualTo(1);
+    assertThat(vector.get(1)).isEqualTo(1);
+
+    // The result set is on the last row of the batch.
+    assertThat(resultSet.getInt(1)).isEqualTo(1);
+    assertThat(reader.loadNextBatch()).isFalse();
+    assertThat(resultSet.next()).isFalse();
+
+    assertThat(stats.getBatchCount()).isGreaterThan(batchCount);
+    assertThat(stats.getDecodeNanos()).isGreaterThan(0);
+    resultSet.close();
+
+    assertThatThrownBy(reader::loadNextBatch)
+      .isInstanceOf(AlreadyClosedSqlException.class);
+  }
+
   // TODO:  Ideally, test other methods.
 
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.jdbc.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.TimeZone;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.vector.accessor.BoundCheckingAccessor;
+import com.dremio.exec.vector.accessor.SqlAccessorBuilder;
+
+/**
+ * Class-level unit test for {@link PrimitiveSqlAccessorWrappers}.
+ */
+public class PrimitiveSqlAccessorWrappersTest {
+
+  private BufferAllocator allocator;
+  private DremioCursor cursor;
+
+  @Before
+  public void setUp() {
+    allocator = new RootAllocator();
+    cursor = mock(DremioCursor.class);
+  }
+
+  @After
+  public void tearDown() {
+    allocator.close();
+  }
+
+  @Test
+  public void testBigInt() throws Exception {
+    try (BigIntVector vector = new BigIntVector("t", allocator)) {
+      vector.allocateNew(2);
+      vector.set(0, Long.MAX_VALUE);
+      vector.setNull(1);
+      vector.setValueCount(2);
+      final SqlAccessorWrapper accessor = wrap(vector);
+
+      atRow(0);
+      assertEquals(Long.MAX_VALUE, accessor.getLong());
+      assertEquals((double) Long.MAX_VALUE, accessor.getDouble(), 0);
+      assertEquals(Long.MAX_VALUE, accessor.getObject());
+      assertFalse(accessor.wasNull());
+
+      atRow(1);
+      assertEquals(0, accessor.getLong());
+      assertEquals(0, accessor.getDouble(), 0);
+      assertTrue(accessor.wasNull());
+    }
+  }
+
+  @Test
+  public void testInt() throws Exception {
+    try (IntVector vector = new IntVector("t", allocator)) {
+      vector.allocateNew(2);
+      vector.set(0, 42);
+      vector.setNull(1);
+      vector.setValueCount(2);
+      final SqlAccessorWrapper accessor = wrap(vector);
+
+      atRow(0);
+      assertEquals(42, accessor.getInt());
+      assertEquals(42L, accessor.getLong());
+      assertEquals(42D, accessor.getDouble(), 0);
+      // Narrowing conversions still go through the converting accessor.
+      assertEquals(42, accessor.getShort());
+
+      atRow(1);
+      assertEquals(0, accessor.getInt());
+      assertEquals(0L, accessor.getLong());
+      assertTrue(accessor.wasNull());
+    }
+  }
+
+  @Test
+  public void testFloat4() throws Exception {
+    try (Float4Vector vector = new Float4Vector("t", allocator)) {
+      vector.allocateNew(1);
+      vector.set(0, 1.5F);
+      vector.setValueCount(1);
+      final SqlAccessorWrapper accessor = wrap(vector);
+
+      atRow(0);
+      assertEquals(1.5F, accessor.getFloat(), 0);
+      assertEquals(1.5D, accessor.getDouble(), 0);
+    }
+  }
+
+  private SqlAccessorWrapper wrap(ValueVector vector) {
+    return PrimitiveSqlAccessorWrappers.wrap(vector,
+      new TypeConvertingSqlAccessor(
+        new BoundCheckingAccessor(vector, SqlAccessorBuilder.getSqlAccessor(vector, TimeZone.getDefault()))),
+      cursor);
+  }
+
+  private void atRow(int recordNumber) {
+    when(cursor.getCurrentRecordNumber()).thenReturn(recordNumber);
+  }
+}
@@ -17,13 +17,20 @@ package com.dremio.jdbc.impl;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import java.util.function.Consumer;
 
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
 import org.junit.Test;
 
 import com.dremio.exec.proto.UserBitShared.QueryData;
 import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.rpc.ConnectionThrottle;
 import com.dremio.jdbc.impl.DremioCursor.ResultsListener;
 import com.dremio.sabot.rpc.user.QueryDataBatch;
 import com.dremio.test.DremioTest;
@@ -54,6 +61,44 @@ public class ResultsListenerTest extends DremioTest {
     runTest(resultsListener -> resultsListener.close());
   }
 
+  @Test
+  public void testThrottlingOnQueuedBytes() throws Exception {
+    final ResultTransferStatsImpl stats = new ResultTransferStatsImpl();
+    final ResultsListener resultsListener =
+      new ResultsListener(THROTTLING_THRESHOLD, 1000, BATCH_QUEUE_POLL_TIMEOUT_MS, stats);
+    final ConnectionThrottle throttle = mock(ConnectionThrottle.class);
+
+    try (BufferAllocator allocator = new RootAllocator();
+         ArrowBuf buf1 = allocator.buffer(512);
+         ArrowBuf buf2 = allocator.buffer(512)) {
+      final QueryData header = QueryData.newBuilder().setRowCount(10).build();
+
+      // Below the byte threshold, far below the batch threshold.
+      resultsListener.dataArrived(new QueryDataBatch(header, buf1), throttle);
+      verify(throttle, never()).setAutoRead(false);
+
+      resultsListener.dataArrived(new QueryDataBatch(header, buf2), throttle);
+      verify(throttle).setAutoRead(false);
+
+      // Still above half the byte threshold.
+      resultsListener.getNext().release();
+      verify(throttle, never()).setAutoRead(true);
+
+      resultsListener.getNext().release();
+      verify(throttle).setAutoRead(true);
+
+      resultsListener.queryCompleted(QueryState.COMPLETED);
+      assertEquals(null, resultsListener.getNext());
+      resultsListener.close();
+    }
+
+    assertEquals(2, stats.getBatchCount());
+    assertEquals(20, stats.getRecordCount());
+    assertEquals(1024, stats.getByteCount());
+    assertTrue(stats.getTransferNanos() > 0);
+    assertTrue(stats.getBytesPerSecond() > 0);
+  }
+
   private void runTest(Consumer<ResultsListener> resultsListenerConsumer) throws Exception {
     final ResultsListener resultsListener = new ResultsListener(THROTTLING_THRESHOLD, BATCH_QUEUE_POLL_TIMEOUT_MS);
 
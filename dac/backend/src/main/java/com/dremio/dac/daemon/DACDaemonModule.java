@@ -167,7 +167,7 @@ import com.dremio.resource.GroupResourceInformation;
 import com.dremio.resource.QueryCancelTool;
 import com.dremio.resource.ResourceAllocator;
 import com.dremio.resource.RuleBasedEngineSelector;
-import com.dremio.resource.basic.BasicResourceAllocator;
+import com.dremio.resource.basic.WeightedQueueResourceAllocator;
 import com.dremio.sabot.exec.CancelQueryContext;
 import com.dremio.sabot.exec.CoordinatorHeapClawBackStrategy;
 import com.dremio.sabot.exec.ExecToCoordTunnelCreator;
@@ -177,6 +177,7 @@ import com.dremio.sabot.exec.TaskPoolInitializer;
 import com.dremio.sabot.exec.WorkloadTicketDepot;
 import com.dremio.sabot.exec.WorkloadTicketDepotService;
 import com.dremio.sabot.exec.context.ContextInformationFactory;
+import com.dremio.sabot.exec.rpc.ExecutorResultStreams;
 import com.dremio.sabot.op.common.spill.SpillServiceOptionsImpl;
 import com.dremio.sabot.rpc.CoordExecService;
 import com.dremio.sabot.rpc.ExecToCoordResultsHandler;
@@ -228,7 +229,9 @@ import com.dremio.service.executor.ExecutorServiceClientFactory;
 import com.dremio.service.flight.DremioFlightAuthProvider;
 import com.dremio.service.flight.DremioFlightAuthProviderImpl;
 import com.dremio.service.flight.DremioFlightService;
+import com.dremio.service.flight.ExecutorFlightService;
 import com.dremio.service.flight.FlightRequestContextDecorator;
+import com.dremio.service.flight.impl.FlightResultStreams;
 import com.dremio.service.grpc.GrpcChannelBuilderFactory;
 import com.dremio.service.grpc.GrpcServerBuilderFactory;
 import com.dremio.service.grpc.MultiTenantGrpcServerBuilderFactory;
@@ -972,7 +975,7 @@ public class DACDaemonModule implements DACModule {
       ));
     }
 
-    registry.bind(ResourceAllocator.class, new BasicResourceAllocator(registry.provider(ClusterCoordinator
+    registry.bind(ResourceAllocator.class, new WeightedQueueResourceAllocator(registry.provider(ClusterCoordinator
       .class), registry.provider(GroupResourceInformation.class)));
     if (isCoordinator){
       final Provider<OptionManager> optionManagerProvider = () -> sabotContextProvider.get().getOptionManager();
@@ -1053,6 +1056,17 @@ public class DACDaemonModule implements DACModule {
       registry.bind(QueryCancelTool.class, QueryCancelTool.NO_OP);
     }
 
+    final boolean isFlightEnabled = config.getBoolean(DremioConfig.FLIGHT_SERVICE_ENABLED_BOOLEAN);
+    if (isFlightEnabled) {
+      // results of the screen fragments running on this node, served to the endpoints of Flight queries
+      final FlightResultStreams flightResultStreams = registry.bindSelf(new FlightResultStreams(
+        registry.provider(BufferAllocator.class),
+        registry.provider(OptionManager.class)));
+      registry.bind(ExecutorResultStreams.class, flightResultStreams);
+    } else {
+      registry.bind(ExecutorResultStreams.class, ExecutorResultStreams.NONE);
+    }
+
     TaskPoolInitializer taskPoolInitializer = null;
     if(isExecutor){
       registry.bindSelf(new ContextInformationFactory());
@@ -1091,7 +1105,8 @@ public class DACDaemonModule implements DACModule {
         registry.provider(TaskPool.class),
         registry.provider(MaestroClientFactory.class),
         registry.provider(JobTelemetryExecutorClientFactory.class),
-        registry.provider(JobResultsClientFactory.class));
+        registry.provider(JobResultsClientFactory.class),
+        registry.provider(ExecutorResultStreams.class));
 
       registry.bindSelf(fragmentWorkManager);
 
@@ -1321,7 +1336,7 @@ public class DACDaemonModule implements DACModule {
       registry.bindSelf(new ExprCachePrewarmService(sabotContextProvider, optionsProvider, bootstrap.getAllocator()));
     }
 
-    if (isCoordinator && config.getBoolean(DremioConfig.FLIGHT_SERVICE_ENABLED_BOOLEAN)) {
+    if (isCoordinator && isFlightEnabled) {
       registry.bind(DremioFlightAuthProvider.class, new DremioFlightAuthProviderImpl(
         registry.provider(DremioConfig.class),
         registry.provider(UserService.class),
@@ -1339,6 +1354,14 @@ public class DACDaemonModule implements DACModule {
         registry.provider(UserSessionService.class),
         registry.provider(DremioFlightAuthProvider.class),
         registry.provider(FlightRequestContextDecorator.class),
+        registry.provider(com.dremio.services.credentials.CredentialsService.class),
+        registry.provider(FlightResultStreams.class)
+      ));
+    } else if (isExecutor && isFlightEnabled) {
+      registry.bindSelf(new ExecutorFlightService(
+        registry.provider(DremioConfig.class),
+        registry.provider(BufferAllocator.class),
+        registry.provider(FlightResultStreams.class),
         registry.provider(com.dremio.services.credentials.CredentialsService.class)
       ));
     } else {
@@ -15,13 +15,16 @@
  */
 package com.dremio.dac.daemon;
 
+import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -69,7 +72,9 @@ import com.google.common.collect.Lists;
 
 /**
  * ExprCachePrewarmService prewarms the compiled code cache on executor startup from serialized
- * expressions stored in files in a configured directory
+ * expressions stored in files in a configured directory, the expressions of the most recent queries first.
+ * When the compiled classes are persisted, the classes compiled before the restart are loaded from disk
+ * instead of being compiled again.
  */
 public class ExprCachePrewarmService implements Service {
   private static final Logger logger = LoggerFactory.getLogger(ExprCachePrewarmService.class);
@@ -107,8 +112,10 @@ public class ExprCachePrewarmService implements Service {
     executorService = Executors.newFixedThreadPool(VM.availableProcessors());
     AtomicInteger numProjects = new AtomicInteger(0);
     try (Stream<Path> paths = Files.walk(Paths.get(location))) {
+      // expressions of the most recent queries first
       paths
         .filter(Files::isRegularFile)
+        .sorted(Comparator.comparing(ExprCachePrewarmService::lastModifiedTime).reversed())
         .forEach(f -> {
           projectSetupFutures.add(executorService.submit(() -> buildProjector(f)));
           numProjects.addAndGet(1);
@@ -117,6 +124,14 @@ public class ExprCachePrewarmService implements Service {
     logger.info("Trying to build project expressions from {} files to prewarm the cache", numProjects.get());
   }
 
+  private static FileTime lastModifiedTime(Path path) {
+    try {
+      return Files.getLastModifiedTime(path);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
   @VisibleForTesting
   protected List<Future<?>> getProjectSetupFutures() {
     return projectSetupFutures;
@@ -345,6 +345,12 @@ public class ProfileWrapper {
         dlb.addItem("Query Type:", rsp.getQueryType()); // this maps to WorkloadType internally
       }
     }
+    if (r.hasQueueWaitMillis()) {
+      dlb.addItem("Queue Wait:", NUMBER_FORMAT.format(r.getQueueWaitMillis()) + "ms");
+    }
+    if (r.hasRejectionReason()) {
+      dlb.addItem("Rejection Reason:", r.getRejectionReason());
+    }
     if (profile.hasCancelReason()) {
       dlb.addItem("Cancellation Reason:", profile.getCancelReason());
     }
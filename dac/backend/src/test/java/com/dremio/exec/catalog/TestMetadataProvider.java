@@ -238,7 +238,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(31, tables.size());
+    assertEquals(32, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -268,6 +268,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "user_defined_functions", iterator.next());
     verifyTable("sys", "version", iterator.next());
     verifyTable("sys.cache", "datasets", iterator.next());
+    verifyTable("sys.cache", "footers", iterator.next());
     verifyTable("sys.cache", "mount_points", iterator.next());
     verifyTable("sys.cache", "objects", iterator.next());
     verifyTable("sys.cache", "storage_plugins", iterator.next());
@@ -295,7 +296,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(30, tables.size());
+    assertEquals(31, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -325,6 +326,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "user_defined_functions", iterator.next());
     verifyTable("sys", "version", iterator.next());
     verifyTable("sys.cache", "datasets", iterator.next());
+    verifyTable("sys.cache", "footers", iterator.next());
     verifyTable("sys.cache", "mount_points", iterator.next());
     verifyTable("sys.cache", "objects", iterator.next());
     verifyTable("sys.cache", "storage_plugins", iterator.next());
@@ -339,7 +341,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(19, tables.size());
+    assertEquals(20, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -358,6 +360,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "timezone_names", iterator.next());
     verifyTable("sys", "user_defined_functions", iterator.next());
     verifyTable("sys", "version", iterator.next());
+    verifyTable("sys.cache", "footers", iterator.next());
     verifyTable("sys.cache", "mount_points", iterator.next());
     verifyTable("sys.cache", "objects", iterator.next());
     verifyTable("sys.cache", "storage_plugins", iterator.next());
@@ -389,7 +392,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     assertEquals(RequestStatus.OK, resp1.getStatus());
 
     final List<ColumnMetadata> columns1 = resp1.getColumnsList();
-    assertEquals(288, columns1.size());
+    assertEquals(296, columns1.size());
     assertTrue("incremental update column shouldn't be returned",
       columns1.stream().noneMatch(input -> input.getColumnName().equals(IncrementalUpdateUtils.UPDATE_COLUMN)));
   }
@@ -403,7 +406,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<ColumnMetadata> columns = resp.getColumnsList();
-    assertEquals(23, columns.size());
+    assertEquals(24, columns.size());
 
     Iterator<ColumnMetadata> iterator = columns.iterator();
     verifyColumn("INFORMATION_SCHEMA", "COLUMNS", "ORDINAL_POSITION", iterator.next());
@@ -428,6 +431,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyColumn("sys", "slicing_threads", "fabric_port", iterator.next());
     verifyColumn("sys", "threads", "fabric_port", iterator.next());
     verifyColumn("sys.cache", "datasets", "storage_plugin_name", iterator.next());
+    verifyColumn("sys.cache", "footers", "fabric_port", iterator.next());
     verifyColumn("sys.cache", "mount_points", "mount_point_path", iterator.next());
     verifyColumn("sys.cache", "mount_points", "mount_point_id", iterator.next());
     verifyColumn("sys.cache", "storage_plugins", "storage_plugin_name", iterator.next());
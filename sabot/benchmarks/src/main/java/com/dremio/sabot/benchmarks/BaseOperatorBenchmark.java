@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.dremio.exec.physical.base.PhysicalOperator;
+import com.dremio.exec.planner.fragment.EndpointsIndex;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.spi.DualInputOperator;
+import com.dremio.sabot.op.spi.SingleInputOperator;
+import com.dremio.sabot.op.spi.TerminalOperator;
+
+/**
+ * Base class of operator benchmarks, running operators through the harness of {@link BaseTestOperator} outside of
+ * junit.
+ *
+ * <p>
+ * Each invocation of a benchmark runs a new operator, since operators can't be reused once done, over generators
+ * created for that invocation. Data generation happens in the setup of the invocation and is not measured. The fixed
+ * cost of creating an operator is, but code generation is only done by the first invocation thanks to the class cache
+ * of the compiler.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public abstract class BaseOperatorBenchmark extends BaseTestOperator {
+
+  @Setup(Level.Trial)
+  public void setupTrial() throws Exception {
+    if (testContext == null) {
+      BaseTestOperator.setup();
+    }
+    setupTrialData();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownTrial() throws Exception {
+    if (testContext != null) {
+      BaseTestOperator.cleanupAfterClass();
+      testContext = null;
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void setupInvocation() throws Exception {
+    setupBeforeTest(getClass().getSimpleName());
+    setupInvocationData(getTestAllocator());
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDownInvocation() throws Exception {
+    try {
+      cleanupAfterTest();
+    } finally {
+      // the same instance is used by all the invocations, unlike junit tests
+      testCloseables.clear();
+    }
+  }
+
+  /**
+   * Prepares what all the invocations of a trial share, such as the operator configuration and the generated rows.
+   */
+  protected abstract void setupTrialData() throws Exception;
+
+  /**
+   * Creates the generators of an invocation. They must be added to {@link #testCloseables} to be closed.
+   */
+  protected abstract void setupInvocationData(BufferAllocator allocator) throws Exception;
+
+  /**
+   * Runs a single input operator over all the batches of a generator.
+   *
+   * @return number of records output by the operator
+   */
+  protected <T extends SingleInputOperator> long runSingle(Class<T> clazz, PhysicalOperator pop, Generator generator,
+                                                           int batchSize) throws Exception {
+    final T op = newOperator(clazz, pop, batchSize);
+    op.setup(generator.getOutput());
+
+    long records = 0;
+    int count;
+    while (op.getState() == SingleInputOperator.State.CAN_CONSUME && (count = generator.next(batchSize)) != 0) {
+      op.consumeData(count);
+      while (op.getState() == SingleInputOperator.State.CAN_PRODUCE) {
+        records += op.outputData();
+      }
+    }
+
+    if (op.getState() == SingleInputOperator.State.CAN_CONSUME) {
+      op.noMoreToConsume();
+    }
+    while (op.getState() == SingleInputOperator.State.CAN_PRODUCE) {
+      records += op.outputData();
+    }
+    assertState(op, SingleInputOperator.State.DONE);
+    return records;
+  }
+
+  /**
+   * Runs a dual input operator over all the batches of its generators.
+   *
+   * @return number of records output by the operator
+   */
+  protected <T extends DualInputOperator> long runDual(Class<T> clazz, PhysicalOperator pop, Generator left,
+                                                       Generator right, int batchSize) throws Exception {
+    final T op = newOperator(clazz, pop, batchSize);
+    op.setup(left.getOutput(), right.getOutput());
+
+    long records = 0;
+    while (true) {
+      switch (op.getState()) {
+        case CAN_CONSUME_L:
+          final int leftCount = left.next(batchSize);
+          if (leftCount > 0) {
+            op.consumeDataLeft(leftCount);
+          } else {
+            op.noMoreToConsumeLeft();
+          }
+          break;
+        case CAN_CONSUME_R:
+          final int rightCount = right.next(batchSize);
+          if (rightCount > 0) {
+            op.consumeDataRight(rightCount);
+          } else {
+            op.noMoreToConsumeRight();
+          }
+          break;
+        case CAN_PRODUCE:
+          records += op.outputData();
+          break;
+        case DONE:
+          return records;
+        default:
+          throw new UnsupportedOperationException("State is: " + op.getState());
+      }
+    }
+  }
+
+  /**
+   * Runs a terminal operator over all the batches of a generator.
+   *
+   * @return number of records consumed by the operator
+   */
+  protected <T extends TerminalOperator> long runTerminal(Class<T> clazz, PhysicalOperator pop, EndpointsIndex endpointsIndex,
+                                                          TunnelProvider tunnelProvider, Generator generator,
+                                                          int batchSize) throws Exception {
+    final Pair<T, OperatorStats> pair = newOperatorWithStats(clazz, pop, batchSize, endpointsIndex, tunnelProvider);
+    final T op = pair.first;
+    final OperatorStats stats = pair.second;
+    op.setup(generator.getOutput());
+    stats.startProcessing();
+
+    long records = 0;
+    int count;
+    while (op.getState() == TerminalOperator.State.CAN_CONSUME && (count = generator.next(batchSize)) != 0) {
+      op.consumeData(count);
+      records += count;
+    }
+    if (op.getState() == TerminalOperator.State.CAN_CONSUME) {
+      op.noMoreToConsume();
+    }
+    stats.stopProcessing();
+    return records;
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+import org.apache.calcite.rel.RelFieldCollation.NullDirection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.physical.base.OpProps;
+import com.dremio.exec.physical.config.ExternalSort;
+import com.dremio.sabot.benchmarks.SyntheticDataGenerator.KeyType;
+import com.dremio.sabot.op.sort.external.ExternalSortOperator;
+
+/**
+ * Benchmarks {@link ExternalSortOperator}, in memory or spilling when given a memory limit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4G", "-Xmx4G", "-XX:MaxDirectMemorySize=8G"})
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class ExternalSortBenchmark extends BaseOperatorBenchmark {
+
+  @Param({"2000000"})
+  public int numRows;
+
+  // 0 for unique keys
+  @Param({"0", "1000"})
+  public int keyCardinality;
+
+  @Param({"BIGINT", "VARCHAR"})
+  public KeyType keyType;
+
+  @Param({"1", "2"})
+  public int numKeys;
+
+  @Param({"32"})
+  public int varcharWidth;
+
+  @Param({"0", "0.1"})
+  public double nullFraction;
+
+  // 0 for no limit
+  @Param({"0", "64"})
+  public long memLimitMB;
+
+  @Param({"false"})
+  public boolean splaySort;
+
+  @Param({"3968"})
+  public int batchSize;
+
+  private SyntheticDataGenerator.Rows rows;
+  private ExternalSort pop;
+  private SyntheticDataGenerator generator;
+
+  @Override
+  protected void setupTrialData() throws Exception {
+    // the context is torn down along with the trial, no need to restore the option
+    with(ExecConstants.EXTERNAL_SORT_ENABLE_SPLAY_SORT, splaySort);
+
+    rows = new SyntheticDataGenerator.Rows("", numRows, keyType, numKeys, keyCardinality, varcharWidth, nullFraction,
+      keyCardinality == 0, 1);
+
+    final List<Ordering> orderings = new ArrayList<>();
+    for (int i = 0; i < numKeys; i++) {
+      orderings.add(ordering("key" + i, Direction.ASCENDING, NullDirection.FIRST));
+    }
+    final OpProps props = PROPS.cloneWithMemoryExpensive(true);
+    if (memLimitMB > 0) {
+      props.setMemLimit(memLimitMB * 1024 * 1024);
+    }
+    pop = new ExternalSort(props, null, orderings, false);
+  }
+
+  @Override
+  protected void setupInvocationData(BufferAllocator allocator) {
+    generator = rows.toGenerator(allocator);
+    testCloseables.add(generator);
+  }
+
+  @Benchmark
+  public long externalSort() throws Exception {
+    return runSingle(ExternalSortOperator.class, pop, generator, batchSize);
+  }
+}
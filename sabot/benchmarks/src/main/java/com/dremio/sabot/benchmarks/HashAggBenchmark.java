@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.logical.data.NamedExpression;
+import com.dremio.exec.physical.config.HashAggregate;
+import com.dremio.sabot.benchmarks.SyntheticDataGenerator.KeyType;
+import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
+
+/**
+ * Benchmarks {@link VectorizedHashAggOperator} grouping by keys of various types, widths and cardinalities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4G", "-Xmx4G", "-XX:MaxDirectMemorySize=8G"})
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class HashAggBenchmark extends BaseOperatorBenchmark {
+
+  @Param({"2000000"})
+  public int numRows;
+
+  @Param({"1000", "1000000"})
+  public int keyCardinality;
+
+  @Param({"BIGINT", "VARCHAR"})
+  public KeyType keyType;
+
+  @Param({"1", "4"})
+  public int numKeys;
+
+  @Param({"32"})
+  public int varcharWidth;
+
+  @Param({"0", "0.1"})
+  public double nullFraction;
+
+  @Param({"3968"})
+  public int batchSize;
+
+  private SyntheticDataGenerator.Rows rows;
+  private HashAggregate pop;
+  private SyntheticDataGenerator generator;
+
+  @Override
+  protected void setupTrialData() {
+    rows = new SyntheticDataGenerator.Rows("", numRows, keyType, numKeys, keyCardinality, varcharWidth, nullFraction,
+      false, 1);
+
+    final List<NamedExpression> keys = new ArrayList<>();
+    for (int i = 0; i < numKeys; i++) {
+      keys.add(n("key" + i));
+    }
+    pop = new HashAggregate(PROPS.cloneWithMemoryExpensive(true), null, keys,
+      Arrays.asList(n("sum(value)", "sum_value"), n("max(value)", "max_value")),
+      true, true, 1f, batchSize);
+  }
+
+  @Override
+  protected void setupInvocationData(BufferAllocator allocator) {
+    generator = rows.toGenerator(allocator);
+    testCloseables.add(generator);
+  }
+
+  @Benchmark
+  public long hashAgg() throws Exception {
+    return runSingle(VectorizedHashAggOperator.class, pop, generator, batchSize);
+  }
+}
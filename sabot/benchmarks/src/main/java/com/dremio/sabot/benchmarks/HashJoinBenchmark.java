@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.physical.config.HashJoinPOP;
+import com.dremio.sabot.benchmarks.SyntheticDataGenerator.KeyType;
+import com.dremio.sabot.op.join.vhash.VectorizedHashJoinOperator;
+
+/**
+ * Benchmarks {@link VectorizedHashJoinOperator}, building on unique keys and probing with keys of which
+ * {@code matchFraction} are found in the build side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4G", "-Xmx4G", "-XX:MaxDirectMemorySize=8G"})
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class HashJoinBenchmark extends BaseOperatorBenchmark {
+
+  @Param({"4000000"})
+  public int probeRows;
+
+  @Param({"10000", "1000000"})
+  public int buildRows;
+
+  @Param({"0.5"})
+  public double matchFraction;
+
+  @Param({"BIGINT", "VARCHAR"})
+  public KeyType keyType;
+
+  @Param({"1", "2"})
+  public int numKeys;
+
+  @Param({"32"})
+  public int varcharWidth;
+
+  @Param({"0", "0.1"})
+  public double nullFraction;
+
+  @Param({"INNER", "LEFT"})
+  public JoinRelType joinType;
+
+  @Param({"3968"})
+  public int batchSize;
+
+  private SyntheticDataGenerator.Rows probe;
+  private SyntheticDataGenerator.Rows build;
+  private HashJoinPOP pop;
+  private SyntheticDataGenerator probeGenerator;
+  private SyntheticDataGenerator buildGenerator;
+
+  @Override
+  protected void setupTrialData() {
+    // build keys are ids [0, buildRows), probe keys are drawn from a range large enough to miss the expected fraction
+    build = new SyntheticDataGenerator.Rows("b_", buildRows, keyType, numKeys, 0, varcharWidth, 0, true, 1);
+    probe = new SyntheticDataGenerator.Rows("p_", probeRows, keyType, numKeys, (int) (buildRows / matchFraction),
+      varcharWidth, nullFraction, false, 2);
+
+    final List<JoinCondition> conditions = new ArrayList<>();
+    for (int i = 0; i < numKeys; i++) {
+      conditions.add(new JoinCondition("EQUALS", f("p_key" + i), f("b_key" + i)));
+    }
+    pop = new HashJoinPOP(PROPS.cloneWithMemoryExpensive(true), null, null, conditions, null, joinType, true, null);
+  }
+
+  @Override
+  protected void setupInvocationData(BufferAllocator allocator) {
+    probeGenerator = probe.toGenerator(allocator);
+    testCloseables.add(probeGenerator);
+    buildGenerator = build.toGenerator(allocator);
+    testCloseables.add(buildGenerator);
+  }
+
+  @Benchmark
+  public long hashJoin() throws Exception {
+    return runDual(VectorizedHashJoinOperator.class, pop, probeGenerator, buildGenerator, batchSize);
+  }
+}
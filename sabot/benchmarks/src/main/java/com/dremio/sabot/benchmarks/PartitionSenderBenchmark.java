@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.exec.physical.config.HashPartitionSender;
+import com.dremio.exec.planner.fragment.EndpointsIndex;
+import com.dremio.exec.proto.CoordExecRPC.MinorFragmentIndexEndpoint;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.sabot.benchmarks.SyntheticDataGenerator.KeyType;
+import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.sender.partition.vectorized.VectorizedPartitionSenderOperator;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Benchmarks {@link VectorizedPartitionSenderOperator} hash partitioning rows to receivers spread over a few nodes.
+ * Outgoing batches are dropped as soon as they are sent, so the cost of the network is not measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4G", "-Xmx4G", "-XX:MaxDirectMemorySize=8G"})
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class PartitionSenderBenchmark extends BaseOperatorBenchmark {
+  private static final int NUM_NODES = 4;
+
+  @Param({"2000000"})
+  public int numRows;
+
+  @Param({"1000000"})
+  public int keyCardinality;
+
+  @Param({"BIGINT", "VARCHAR"})
+  public KeyType keyType;
+
+  @Param({"1", "4"})
+  public int numKeys;
+
+  @Param({"32"})
+  public int varcharWidth;
+
+  @Param({"0", "0.1"})
+  public double nullFraction;
+
+  @Param({"8", "64"})
+  public int numReceivers;
+
+  @Param({"3968"})
+  public int batchSize;
+
+  private SyntheticDataGenerator.Rows rows;
+  private HashPartitionSender pop;
+  private EndpointsIndex endpointsIndex;
+  private TunnelProvider tunnelProvider;
+  private SyntheticDataGenerator generator;
+
+  @Override
+  protected void setupTrialData() {
+    rows = new SyntheticDataGenerator.Rows("", numRows, keyType, numKeys, keyCardinality, varcharWidth, nullFraction,
+      false, 1);
+
+    final List<NodeEndpoint> endpoints = new ArrayList<>();
+    for (int i = 0; i < NUM_NODES; i++) {
+      endpoints.add(NodeEndpoint.newBuilder().setAddress("node" + i).setFabricPort(1).build());
+    }
+    endpointsIndex = new EndpointsIndex(endpoints);
+
+    final List<MinorFragmentIndexEndpoint> destinations = new ArrayList<>();
+    for (int i = 0; i < numReceivers; i++) {
+      destinations.add(MinorFragmentIndexEndpoint.newBuilder()
+        .setMinorFragmentId(i)
+        .setEndpointIndex(i % NUM_NODES)
+        .build());
+    }
+    // the planner partitions on a hash of the keys computed by a project below the sender
+    pop = new HashPartitionSender(PROPS, rows.getSchema(), null, 1, destinations, f("hash"));
+
+    final AccountingExecTunnel tunnel = mock(AccountingExecTunnel.class);
+    doAnswer(invocation -> {
+      final FragmentWritableBatch batch = invocation.getArgument(0);
+      for (ByteBuf buf : batch.getBuffers()) {
+        buf.release();
+      }
+      return null;
+    }).when(tunnel).sendRecordBatch(any(FragmentWritableBatch.class), any());
+    tunnelProvider = mock(TunnelProvider.class);
+    when(tunnelProvider.getExecTunnel(any(NodeEndpoint.class))).thenReturn(tunnel);
+  }
+
+  @Override
+  protected void setupInvocationData(BufferAllocator allocator) {
+    generator = rows.toGenerator(allocator);
+    testCloseables.add(generator);
+  }
+
+  @Benchmark
+  public long partitionSender() throws Exception {
+    return runTerminal(VectorizedPartitionSenderOperator.class, pop, endpointsIndex, tunnelProvider, generator,
+      batchSize);
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.pojo.Field;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.SchemaBuilder;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.Generator;
+import com.google.common.base.Preconditions;
+
+/**
+ * Generates batches of synthetic rows made of one or more key columns, a BIGINT value and an INT hash of the key.
+ *
+ * Columns are named {@code <prefix>key<n>}, {@code <prefix>value} and {@code <prefix>hash}.
+ */
+public class SyntheticDataGenerator implements Generator {
+
+  /**
+   * Type of the key columns
+   */
+  public enum KeyType {
+    INT,
+    BIGINT,
+    // variable length keys, between half and all of the configured width
+    VARCHAR
+  }
+
+  /**
+   * Rows to generate, computed up front from a fixed seed so that generating a batch costs the same few vector writes
+   * per row whatever the shape of the data, and so that every generator created from them returns the same batches.
+   */
+  public static class Rows implements Generator.Creator {
+    private final int numRows;
+    private final KeyType keyType;
+    private final BatchSchema schema;
+    private final int numKeys;
+    // key id of each row, all the key columns of a row are derived from it
+    private final int[] keyIds;
+    private final BitSet nullKeys;
+    private final byte[][] varcharKeys;
+
+    /**
+     * @param prefix prefix of the column names, to tell apart the inputs of a join
+     * @param numKeys number of key columns, to vary the width of the keys
+     * @param keyCardinality number of distinct keys. Ignored if keys are unique.
+     * @param varcharWidth maximum length of VARCHAR keys
+     * @param nullFraction fraction of the rows with null keys
+     * @param uniqueKeys whether each row has its own key, in which case keys are shuffled
+     */
+    public Rows(String prefix, int numRows, KeyType keyType, int numKeys, int keyCardinality, int varcharWidth,
+                double nullFraction, boolean uniqueKeys, long seed) {
+      Preconditions.checkArgument(numRows > 0, "Number of rows must be positive");
+      Preconditions.checkArgument(numKeys > 0, "Number of keys must be positive");
+      Preconditions.checkArgument(uniqueKeys || keyCardinality > 0, "Key cardinality must be positive");
+      this.numRows = numRows;
+      this.keyType = keyType;
+      this.numKeys = numKeys;
+
+      final Random random = new Random(seed);
+      final int cardinality = uniqueKeys ? numRows : keyCardinality;
+      keyIds = new int[numRows];
+      for (int i = 0; i < numRows; i++) {
+        keyIds[i] = uniqueKeys ? i : random.nextInt(cardinality);
+      }
+      if (uniqueKeys) {
+        // Fisher-Yates
+        for (int i = numRows - 1; i > 0; i--) {
+          final int j = random.nextInt(i + 1);
+          final int tmp = keyIds[i];
+          keyIds[i] = keyIds[j];
+          keyIds[j] = tmp;
+        }
+      }
+
+      nullKeys = new BitSet(numRows);
+      if (nullFraction > 0) {
+        for (int i = 0; i < numRows; i++) {
+          if (random.nextDouble() < nullFraction) {
+            nullKeys.set(i);
+          }
+        }
+      }
+
+      if (keyType == KeyType.VARCHAR) {
+        Preconditions.checkArgument(varcharWidth >= 8, "VARCHAR keys must be at least 8 bytes wide");
+        varcharKeys = new byte[cardinality][];
+        for (int id = 0; id < cardinality; id++) {
+          varcharKeys[id] = varcharKey(id, varcharWidth);
+        }
+      } else {
+        varcharKeys = null;
+      }
+
+      final SchemaBuilder schemaBuilder = BatchSchema.newBuilder();
+      for (int i = 0; i < numKeys; i++) {
+        schemaBuilder.addField(keyField(prefix + "key" + i, keyType));
+      }
+      schemaBuilder.addField(CompleteType.BIGINT.toField(prefix + "value"));
+      schemaBuilder.addField(CompleteType.INT.toField(prefix + "hash"));
+      schema = schemaBuilder.build();
+    }
+
+    public BatchSchema getSchema() {
+      return schema;
+    }
+
+    public int getNumRows() {
+      return numRows;
+    }
+
+    @Override
+    public SyntheticDataGenerator toGenerator(BufferAllocator allocator) {
+      return new SyntheticDataGenerator(this, allocator);
+    }
+  }
+
+  private final Rows rows;
+  private final VectorContainer container;
+  private final List<FieldVector> keys = new ArrayList<>();
+  private final BigIntVector value;
+  private final IntVector hash;
+
+  private int position;
+
+  private SyntheticDataGenerator(Rows rows, BufferAllocator allocator) {
+    this.rows = rows;
+    container = VectorContainer.create(allocator, rows.schema);
+    for (int i = 0; i < rows.numKeys; i++) {
+      keys.add(container.addOrGet(rows.schema.getColumn(i)));
+    }
+    value = container.addOrGet(rows.schema.getColumn(rows.numKeys));
+    hash = container.addOrGet(rows.schema.getColumn(rows.numKeys + 1));
+  }
+
+  private static Field keyField(String name, KeyType keyType) {
+    switch (keyType) {
+      case INT:
+        return CompleteType.INT.toField(name);
+      case BIGINT:
+        return CompleteType.BIGINT.toField(name);
+      case VARCHAR:
+        return CompleteType.VARCHAR.toField(name);
+      default:
+        throw new UnsupportedOperationException("Unknown key type " + keyType);
+    }
+  }
+
+  private static byte[] varcharKey(int id, int width) {
+    // keys share a long prefix, as is common for real world strings, and vary in length
+    final int length = width / 2 + (int) (Integer.toUnsignedLong(mix(id)) % (width / 2 + 1));
+    final byte[] bytes = new byte[length];
+    final byte[] suffix = Integer.toString(id).getBytes(StandardCharsets.UTF_8);
+    final int prefixLength = Math.max(0, length - suffix.length);
+    for (int i = 0; i < prefixLength; i++) {
+      bytes[i] = (byte) ('a' + i % 26);
+    }
+    System.arraycopy(suffix, Math.max(0, suffix.length - length), bytes, prefixLength, length - prefixLength);
+    return bytes;
+  }
+
+  /**
+   * murmur3 finalizer, spreads sequential ids over the whole int range
+   */
+  private static int mix(int id) {
+    int h = id;
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  public BatchSchema getSchema() {
+    return rows.schema;
+  }
+
+  @Override
+  public VectorAccessible getOutput() {
+    return container;
+  }
+
+  @Override
+  public int next(int records) {
+    if (position == rows.numRows) {
+      return 0;
+    }
+    final int returned = Math.min(records, rows.numRows - position);
+
+    container.allocateNew();
+    for (int i = 0; i < returned; i++) {
+      final int row = position + i;
+      value.setSafe(i, row);
+      if (rows.nullKeys.get(row)) {
+        // null keys hash to the same value, as the planner's hash expressions do
+        hash.setSafe(i, 0);
+        continue;
+      }
+
+      final int id = rows.keyIds[row];
+      hash.setSafe(i, mix(id));
+      for (int k = 0; k < keys.size(); k++) {
+        setKey(keys.get(k), k, i, id);
+      }
+    }
+    container.setAllCount(returned);
+    position += returned;
+    return returned;
+  }
+
+  private void setKey(FieldVector vector, int keyIndex, int index, int id) {
+    // all the key columns are functions of the key id, so the number of distinct composite keys doesn't change with
+    // the number of key columns
+    switch (rows.keyType) {
+      case INT:
+        ((IntVector) vector).setSafe(index, id * 31 + keyIndex);
+        break;
+      case BIGINT:
+        ((BigIntVector) vector).setSafe(index, id * 0x9E3779B97F4A7C15L + keyIndex);
+        break;
+      case VARCHAR:
+        final byte[] bytes = rows.varcharKeys[id];
+        ((VarCharVector) vector).setSafe(index, bytes, 0, bytes.length);
+        break;
+      default:
+        throw new UnsupportedOperationException("Unknown key type " + rows.keyType);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(container);
+  }
+}
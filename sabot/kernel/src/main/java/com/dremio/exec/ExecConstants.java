@@ -35,6 +35,7 @@ import com.dremio.options.TypeValidators.RangeDoubleValidator;
 import com.dremio.options.TypeValidators.RangeLongValidator;
 import com.dremio.options.TypeValidators.StringValidator;
 import com.dremio.sabot.op.common.hashtable.HashTable;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.task.Observer;
 import com.dremio.service.spill.DefaultSpillServiceOptions;
 
@@ -167,6 +168,8 @@ public interface ExecConstants {
   BooleanValidator ENABLE_VECTORIZED_COPIER = new BooleanValidator("exec.operator.copier.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_COMPLEX_COPIER = new BooleanValidator("exec.operator.copier.complex.vectorize", true);
   BooleanValidator ENABLE_NATIVE_HASHTABLE_FOR_JOIN = new BooleanValidator("exec.join.hashtable.native", true);
+  // probe the java hash table with 8 tag bytes at a time when all the keys are fixed width
+  BooleanValidator ENABLE_HASHTABLE_TAG_PROBING = new BooleanValidator("exec.operator.hashtable.tag_probing", false);
   BooleanValidator ENABLE_VECTORIZED_PARTITIONER = new BooleanValidator("exec.operator.partitioner.vectorize", true);
   BooleanValidator DEBUG_HASHJOIN_INSERTION = new BooleanValidator("exec.operator.join.debug-insertion", false);
 
@@ -201,6 +204,18 @@ public interface ExecConstants {
   String PARQUET_MAX_FOOTER_LEN = "store.parquet.max_footer_length";
   LongValidator PARQUET_MAX_FOOTER_LEN_VALIDATOR = new LongValidator(PARQUET_MAX_FOOTER_LEN, 16*1024*1024);
 
+  // local disk cache of the blocks read asynchronously from sources that request caching, see CacheProperties.
+  // The block size and space limit are read when the cache is first used.
+  BooleanValidator BLOCK_CACHE_ENABLED = new BooleanValidator("exec.block_cache.enabled", false);
+  RangeLongValidator BLOCK_CACHE_BLOCK_SIZE = new RangeLongValidator("exec.block_cache.block_size", 64*1024, 64*1024*1024, 1024*1024);
+  RangeLongValidator BLOCK_CACHE_MAX_SIZE_BYTES = new RangeLongValidator("exec.block_cache.max_size_bytes", 0, Long.MAX_VALUE, 16L*1024*1024*1024);
+
+  // executor-wide cache of parsed parquet footers, bounded by the estimated heap size of the cached footers
+  BooleanValidator PARQUET_FOOTER_CACHE_ENABLED = new BooleanValidator("store.parquet.footer_cache.enabled", true);
+  RangeLongValidator PARQUET_FOOTER_CACHE_MAX_SIZE_BYTES = new RangeLongValidator("store.parquet.footer_cache.max_size_bytes", 0, Long.MAX_VALUE, 256*1024*1024);
+  // only keep the column chunks of the projected columns in cached footers
+  BooleanValidator PARQUET_FOOTER_CACHE_TRIM_COLUMNS = new BooleanValidator("store.parquet.footer_cache.trim_columns", false);
+
   String PARQUET_MEMORY_THRESHOLD = "store.parquet.memory_threshold";
   LongValidator PARQUET_MEMORY_THRESHOLD_VALIDATOR = new LongValidator(PARQUET_MEMORY_THRESHOLD, 512*1024*1024);
 
@@ -226,6 +241,16 @@ public interface ExecConstants {
 
   LongValidator PARQUET_MIN_RECORDS_FOR_FLUSH_VALIDATOR = new LongValidator("store.parquet.min_records_for_flush", 25000);
 
+  // encode flat primitive columns straight from their vectors, column by column, into the same pages as the row by
+  // row path, and compress the pages on several threads
+  BooleanValidator PARQUET_WRITER_COLUMNAR = new BooleanValidator("store.parquet.writer.columnar.enable", true);
+  // threads compressing the pages of the columns written column by column, per writer
+  RangeLongValidator PARQUET_WRITER_COLUMNAR_COMPRESSION_PARALLELISM =
+    new RangeLongValidator("store.parquet.writer.columnar.compression_parallelism", 1, 64, 4);
+
+  // comma separated names of the top level columns to write split block bloom filters for
+  StringValidator PARQUET_WRITER_BLOOM_FILTER_COLUMNS = new StringValidator("store.parquet.writer.bloom_filter.columns", "");
+
   String PARQUET_NEW_RECORD_READER = "store.parquet.use_new_reader";
   BooleanValidator PARQUET_RECORD_READER_IMPLEMENTATION_VALIDATOR = new BooleanValidator(PARQUET_NEW_RECORD_READER, false);
 
@@ -235,6 +260,10 @@ public interface ExecConstants {
   BooleanValidator PARQUET_READER_VECTORIZE = new BooleanValidator("store.parquet.vectorize", true);
   BooleanValidator ENABLED_PARQUET_TRACING = new BooleanValidator("store.parquet.vectorize.tracing.enable", false);
   BooleanValidator USE_COPIER_IN_PARQUET_READER = new BooleanValidator("store.parquet.use_copier", true);
+  // read the columns not used by the pushed down filters only for the rows selected by the filters
+  BooleanValidator PARQUET_READER_LATE_MATERIALIZATION = new BooleanValidator("store.parquet.late_materialization.enable", false);
+  // skip the row groups whose bloom filters rule out the values of the pushed down equality and IN filters
+  BooleanValidator PARQUET_READER_BLOOM_FILTER = new BooleanValidator("store.parquet.reader.bloom_filter.enable", true);
 
   String PARQUET_READER_INT96_AS_TIMESTAMP = "store.parquet.reader.int96_as_timestamp";
   BooleanValidator PARQUET_READER_INT96_AS_TIMESTAMP_VALIDATOR = new BooleanValidator(PARQUET_READER_INT96_AS_TIMESTAMP, true);
@@ -370,6 +399,14 @@ public interface ExecConstants {
   String FRAGMENT_CODEC_KEY = "planner.fragment.codec";
   EnumValidator<FragmentCodec> FRAGMENT_CODEC = new EnumValidator<>(FRAGMENT_CODEC_KEY, FragmentCodec.class, FragmentCodec.SNAPPY);
 
+  /**
+   * Compression of record batch bodies sent over the network by exchanges, and minimum body size to compress
+   */
+  EnumValidator<ExchangeCompressor.Codec> EXCHANGE_COMPRESSION_CODEC = new EnumValidator<>(
+    "exec.exchange.compression.codec", ExchangeCompressor.Codec.class, ExchangeCompressor.Codec.NONE);
+  RangeLongValidator EXCHANGE_COMPRESSION_MIN_BATCH_BYTES = new RangeLongValidator(
+    "exec.exchange.compression.min_batch_bytes", 0, Integer.MAX_VALUE, 64 * 1024);
+
   String ENABLE_VERBOSE_ERRORS_KEY = "exec.errors.verbose";
   OptionValidator ENABLE_VERBOSE_ERRORS = new BooleanValidator(ENABLE_VERBOSE_ERRORS_KEY, false);
 
@@ -385,6 +422,10 @@ public interface ExecConstants {
 
   String ENABLE_WINDOW_FUNCTIONS = "window.enable";
   OptionValidator ENABLE_WINDOW_FUNCTIONS_VALIDATOR = new BooleanValidator(ENABLE_WINDOW_FUNCTIONS, true);
+  // enable ROWS BETWEEN <n> PRECEDING AND CURRENT ROW frames, evaluated incrementally
+  BooleanValidator ENABLE_WINDOW_SLIDING_FRAMES = new BooleanValidator("window.sliding_frames.enable", true);
+  // memory the batches buffered by the window operator can take before the next ones are spilled
+  PositiveLongValidator WINDOW_SPILL_THRESHOLD = new PositiveLongValidator("window.spill.threshold_bytes", Long.MAX_VALUE, 256 * 1024 * 1024);
 
   String NODE_CONTROL_INJECTIONS = "dremio.exec.testing.controls";
   OptionValidator NODE_CONTROLS_VALIDATOR =
@@ -435,6 +476,10 @@ public interface ExecConstants {
   LongValidator PARQUET_SINGLE_STREAM_COLUMN_THRESHOLD = new LongValidator("store.parquet.single_stream_column_threshold", 40);
   LongValidator PARQUET_MULTI_STREAM_SIZE_LIMIT = new LongValidator("store.parquet.multi_stream_limit", 1024*1024);
   BooleanValidator PARQUET_MULTI_STREAM_SIZE_LIMIT_ENABLE = new BooleanValidator("store.parquet.multi_stream_limit.enable", true);
+  // read the column chunks of a row group with few concurrent requests, merging the ranges closer than the max gap
+  BooleanValidator PARQUET_COALESCED_READS = new BooleanValidator("store.parquet.coalesced_reads.enable", false);
+  LongValidator PARQUET_COALESCED_READS_MAX_GAP = new RangeLongValidator("store.parquet.coalesced_reads.max_gap", 0, 64 * 1024 * 1024, 1024 * 1024);
+  LongValidator PARQUET_COALESCED_READS_MAX_SIZE = new RangeLongValidator("store.parquet.coalesced_reads.max_size", 1, Integer.MAX_VALUE, 64 * 1024 * 1024);
   LongValidator PARQUET_FULL_FILE_READ_THRESHOLD = new RangeLongValidator("store.parquet.full_file_read.threshold", 0, Integer.MAX_VALUE, 0);
   DoubleValidator PARQUET_FULL_FILE_READ_COLUMN_RATIO = new RangeDoubleValidator("store.parquet.full_file_read.column_ratio", 0.0, 1.0, 0.25);
   BooleanValidator PARQUET_CACHED_ENTITY_SET_FILE_SIZE = new BooleanValidator("store.parquet.set_file_length",true);
@@ -450,6 +495,9 @@ public interface ExecConstants {
   LongValidator JOB_MAX_AGE_IN_DAYS = new LongValidator("jobs.max.age_in_days", 30);
   // At what hour of the day to do job cleanup - 0-23
   RangeLongValidator JOB_CLEANUP_START_HOUR = new RangeLongValidator("job.cleanup.start_at_hour", 0, 23, 1);
+  // Number of endpoints the executor running the screen fragment of a query spreads its results over, set for the
+  // query by the Flight service. 0 sends the results to the coordinator.
+  RangeLongValidator EXECUTOR_RESULT_ENDPOINTS = new RangeLongValidator("exec.results.executor_endpoints", 0, 64, 0);
 
   //Configuration used for testing or debugging
   LongValidator DEBUG_RESULTS_MAX_AGE_IN_MILLISECONDS = new LongValidator("debug.results.max.age_in_milliseconds", 0);
@@ -473,6 +521,9 @@ public interface ExecConstants {
 
   PositiveLongValidator EXTERNAL_SORT_BATCHSIZE_MULTIPLIER = new PositiveLongValidator("exec.operator.sort.external.batchsize_multiplier", Character.MAX_VALUE, 2);
 
+  // discard the batches that can't make it to a full top-n, comparing them to its boundary before adding them
+  BooleanValidator TOPN_THRESHOLD_FILTER = new BooleanValidator("exec.operator.topn.threshold_filter", true);
+
   LongValidator VOTING_SCHEDULE = new PositiveLongValidator("vote.schedule.millis", Long.MAX_VALUE, 0);
   PositiveLongValidator LAST_SEARCH_REINDEX  = new PositiveLongValidator("dac.search.last_reindex",  Long.MAX_VALUE, 0);
   PositiveLongValidator SEARCH_MANAGER_REFRESH_MILLIS  = new PositiveLongValidator("dac.search.refresh",  Long.MAX_VALUE, TimeUnit.MINUTES.toMillis(1));
@@ -570,6 +621,11 @@ public interface ExecConstants {
   PositiveLongValidator SLICING_THREAD_MIGRATION_MULTIPLE = new com.dremio.options.TypeValidators.PositiveLongValidator("dremio.sliced.migration_multiple", Long.MAX_VALUE, 50);
   PositiveLongValidator SLICING_THREAD_SPINDOWN_MULTIPLE = new com.dremio.options.TypeValidators.PositiveLongValidator("dremio.sliced.spindown_multiple", Long.MAX_VALUE, 100);
 
+  // number of worker threads used by the work stealing task pool, 0 means one per available core
+  RangeLongValidator STEALING_POOL_THREAD_COUNT = new RangeLongValidator("dremio.task.stealing.thread_count", 0, 1024, 0);
+  // how long an idle work stealing worker parks before looking for work to steal again
+  RangeLongValidator STEALING_POOL_IDLE_PARK_MS = new RangeLongValidator("dremio.task.stealing.idle_park_ms", 1, 1000, 10);
+
   // warning threshold for spilling
   PositiveLongValidator SPILL_IO_WARN_MAX_RUNTIME_MS = new PositiveLongValidator("dremio.spill.warn_max_runtime", Long.MAX_VALUE, 3000);
 
@@ -598,11 +654,18 @@ public interface ExecConstants {
   String CODE_CACHE_PREWARM_PROP = "CODE_CACHE_PREWARM";
   String CODE_CACHE_LOCATION_PROP = "CODE_CACHE_LOCATION";
   BooleanValidator EXEC_CODE_CACHE_SAVE_EXPR = new BooleanValidator("exec.code_cache.save_expr", false);
+  // keep the compiled classes of the code cache on local disk, in the directory given by the system property
+  String CODE_CACHE_BYTECODE_LOCATION_PROP = "CODE_CACHE_BYTECODE_LOCATION";
+  BooleanValidator EXEC_CODE_CACHE_PERSIST = new BooleanValidator("exec.code_cache.persist.enabled", false);
+  RangeLongValidator EXEC_CODE_CACHE_PERSIST_MAX_ENTRIES = new RangeLongValidator("exec.code_cache.persist.max_entries", 0, 1_000_000, 20_000);
 
   BooleanValidator ENABLE_RUNTIME_FILTER_ON_NON_PARTITIONED_PARQUET =  new BooleanValidator("exec.non_partitioned_parquet.enable_runtime_filter", true);
   RangeLongValidator RUNTIME_FILTER_VALUE_FILTER_MAX_SIZE = new RangeLongValidator("exec.non_partitioned_parquet.runtime_filter.max_size", 10, 1_000_000, 10000);
   RangeLongValidator RUNTIME_FILTER_KEY_MAX_SIZE = new RangeLongValidator("exec.runtime_filter.max_key_size", 32, 1_024, 128);
   BooleanValidator ENABLE_ROW_LEVEL_RUNTIME_FILTERING = new BooleanValidator("exec.row_level.runtime_filter.enable", true);
+  // upper bound of the runtime bloom filters, broadcast joins size them down from the number of build keys
+  RangeLongValidator RUNTIME_FILTER_BLOOM_FILTER_MAX_SIZE = new RangeLongValidator("exec.runtime_filter.bloom_filter.max_size", 64 * 1024, 64 * 1024 * 1024, 2 * 1024 * 1024);
+  BooleanValidator ENABLE_RUNTIME_FILTER_COMPOSITE_NON_PARTITION_KEYS = new BooleanValidator("exec.runtime_filter.composite_non_partition_keys.enable", true);
 
   String ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS_KEY = "exec.parquet.enable_vectorized_complex";
   BooleanValidator ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS = new BooleanValidator(ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS_KEY, true);
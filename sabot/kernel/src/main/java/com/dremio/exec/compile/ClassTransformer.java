@@ -16,6 +16,7 @@
 package com.dremio.exec.compile;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.codehaus.commons.compiler.CompileException;
 
@@ -172,6 +173,30 @@ public class ClassTransformer {
     return getExtendedImplementationClass(classLoader, templateDefinition, entireClass, materializedClassName);
   }
 
+  /**
+   * Loads an implementation class from previously compiled bytecode.
+   */
+  public Class<?> loadImplementationClass(
+      final QueryClassLoader classLoader,
+      final TemplateClassDefinition<?> templateDefinition,
+      final String className,
+      final List<ClassBytes> classes) throws ClassTransformationException {
+    try {
+      for (ClassBytes clazz : classes) {
+        classLoader.injectByteCode(clazz.getName(), clazz.getBytes());
+      }
+
+      Class<?> c = classLoader.findClass(className);
+      if (templateDefinition.getExternalInterface().isAssignableFrom(c)) {
+        return c;
+      }
+
+      throw new ClassTransformationException("The requested class did not implement the expected interface.");
+    } catch (IOException | ClassNotFoundException | LinkageError e) {
+      throw new ClassTransformationException("Failure loading transformation classes.", e);
+    }
+  }
+
   private Class<?> getExtendedImplementationClass(
       final QueryClassLoader classLoader,
       final TemplateClassDefinition<?> templateDefinition,
@@ -16,6 +16,7 @@
 package com.dremio.exec.compile;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -23,6 +24,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import com.dremio.common.config.SabotConfig;
+import com.dremio.common.util.DremioVersionInfo;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.exception.ClassTransformationException;
 import com.dremio.exec.expr.ClassGenerator;
@@ -43,8 +45,20 @@ public class CodeCompiler {
   private final ClassCompilerSelector selector;
   private final LoadingCache<CodeGenerator<?>, GeneratedClassEntry> generatedCodeToCompiledClazzCache;
   private final LoadingCache<ExpressionsHolder, GeneratedClassEntryWithFunctionErrorContextSizeInfo> expressionsToCompiledClazzCache;
+  private final OptionManager optionManager;
+  // second level of the caches above, null if there is no location to keep the compiled classes in
+  private final PersistentClassCache persistentClassCache;
 
   public CodeCompiler(final SabotConfig config, final OptionManager optionManager) {
+    this(config, optionManager, DremioVersionInfo.getVersion());
+  }
+
+  /**
+   * @param functionRegistryVersion version of the functions the code is generated with, classes compiled for other
+   *                                versions are not loaded from the persistent cache
+   */
+  public CodeCompiler(final SabotConfig config, final OptionManager optionManager, final String functionRegistryVersion) {
+    this.optionManager = optionManager;
     transformer = new ClassTransformer(optionManager);
     selector = new ClassCompilerSelector(config, optionManager);
     final int cacheMaxSize = config.getInt(ExecConstants.MAX_LOADING_CACHE_SIZE_CONFIG);
@@ -56,6 +70,20 @@ public class CodeCompiler {
       .softValues()
       .maximumSize(cacheMaxSize)
       .build(new ExpressionsToCompiledClazzCacheLoader());
+    persistentClassCache = newPersistentClassCache(functionRegistryVersion);
+  }
+
+  private static PersistentClassCache newPersistentClassCache(String functionRegistryVersion) {
+    final String location = System.getProperty(ExecConstants.CODE_CACHE_BYTECODE_LOCATION_PROP);
+    if (location == null || location.isEmpty()) {
+      return null;
+    }
+    try {
+      return new PersistentClassCache(Paths.get(location), functionRegistryVersion);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to set up the persistent code cache at {}, compiled classes won't be persisted", location, e);
+      return null;
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -114,17 +142,47 @@ public class CodeCompiler {
     this.expressionsToCompiledClazzCache.invalidateAll();
   }
 
+  /**
+   * Compiles the generated code, or loads the classes compiled for the same code from the persistent cache.
+   */
+  private Class<?> compile(final CodeGenerator<?> cg) {
+    if (persistentClassCache == null || !optionManager.getOption(ExecConstants.EXEC_CODE_CACHE_PERSIST)) {
+      return transformer.getImplementationClass(new QueryClassLoader(selector), cg.getDefinition(),
+        cg.getGeneratedCode(), cg.getMaterializedClassName());
+    }
+
+    final String key = PersistentClassCache.key(cg.getDefinition(), cg.getGenericCode());
+    final PersistentClassCache.Entry entry = persistentClassCache.get(key);
+    if (entry != null) {
+      try {
+        final Class<?> c = transformer.loadImplementationClass(new QueryClassLoader(selector), cg.getDefinition(),
+          entry.getClassName(), entry.getClasses());
+        logger.debug("Loaded class {} from the persistent code cache", c.getName());
+        return c;
+      } catch (ClassTransformationException e) {
+        logger.warn("Failed to load class {} from the persistent code cache, compiling it again", entry.getClassName(), e);
+        persistentClassCache.invalidate(key);
+      }
+    }
+
+    final QueryClassLoader loader = new QueryClassLoader(selector);
+    final Class<?> c = transformer.getImplementationClass(loader, cg.getDefinition(), cg.getGeneratedCode(),
+      cg.getMaterializedClassName());
+    persistentClassCache.put(key, c.getName(), loader.getInjectedByteCode(),
+      optionManager.getOption(ExecConstants.EXEC_CODE_CACHE_PERSIST_MAX_ENTRIES));
+    return c;
+  }
+
   private class ExpressionsToCompiledClazzCacheLoader extends CacheLoader<ExpressionsHolder,
     GeneratedClassEntryWithFunctionErrorContextSizeInfo> {
     @Override
     public GeneratedClassEntryWithFunctionErrorContextSizeInfo load(final ExpressionsHolder expressionsHolder) throws Exception {
-      final QueryClassLoader loader = new QueryClassLoader(selector);
       ClassGenerator<?> rootGenerator = expressionsHolder.cg.getRoot();
       final int currentCount = rootGenerator.getFunctionErrorContextsCount();
       CodeGenerator<?> cg = expressionsHolder.cg;
       cg.getRoot().evaluateAllLazyExps();
       cg.generate();
-      final Class<?> c = transformer.getImplementationClass(loader, cg.getDefinition(), cg.getGeneratedCode(), cg.getMaterializedClassName());
+      final Class<?> c = compile(cg);
       final GeneratedClassEntryWithFunctionErrorContextSizeInfo ce =
         new GeneratedClassEntryWithFunctionErrorContextSizeInfo(c,
           rootGenerator.getFunctionErrorContextsCount() - currentCount);
@@ -137,9 +195,7 @@ public class CodeCompiler {
     @Override
     public GeneratedClassEntry load(final CodeGenerator<?> cg) throws Exception {
       logger.debug("In Cache load; Compile code");
-      final QueryClassLoader loader = new QueryClassLoader(selector);
-      final Class<?> c = transformer.getImplementationClass(loader, cg.getDefinition(),
-        cg.getGeneratedCode(), cg.getMaterializedClassName());
+      final Class<?> c = compile(cg);
       logger.debug("Exit Cache load");
       return new GeneratedClassEntry(c);
     }
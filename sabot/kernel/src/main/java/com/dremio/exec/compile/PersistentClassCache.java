@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.compile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Second level of the compiled class caches of {@link CodeCompiler}, keeping the bytecode of the generated classes on
+ * local disk so that it survives restarts.
+ *
+ * Entries are keyed by a hash of the template and of the generic source of the generated class. They live in a
+ * sub-directory per version of the function registry, as the generated code is only valid against the function and
+ * template classes it was compiled with; the directories of other versions are dropped on startup.
+ *
+ * Entries are written to a temporary file first and then moved in place, so that concurrent writers and readers
+ * never see a partial entry. Any failure to read or write an entry is treated as a miss.
+ */
+class PersistentClassCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PersistentClassCache.class);
+
+  private static final int FORMAT_VERSION = 1;
+  private static final String ENTRY_SUFFIX = ".class.bin";
+  private static final Pattern VERSION_DIRECTORY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+  private final Path directory;
+  private final AtomicLong numEntries = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Compiled classes read back from the cache.
+   */
+  static class Entry {
+    private final String className;
+    private final List<ClassBytes> classes;
+
+    Entry(String className, List<ClassBytes> classes) {
+      this.className = className;
+      this.classes = classes;
+    }
+
+    String getClassName() {
+      return className;
+    }
+
+    List<ClassBytes> getClasses() {
+      return classes;
+    }
+  }
+
+  PersistentClassCache(Path root, String functionRegistryVersion) throws IOException {
+    final String versionDirectory = Hashing.sha256()
+      .hashString(FORMAT_VERSION + ":" + functionRegistryVersion, StandardCharsets.UTF_8)
+      .toString();
+    this.directory = root.resolve(versionDirectory);
+
+    Files.createDirectories(root);
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(root)) {
+      for (Path path : paths) {
+        // only drop what looks like a version directory, the root may be shared with other files
+        if (!path.equals(directory) && Files.isDirectory(path)
+          && VERSION_DIRECTORY_PATTERN.matcher(path.getFileName().toString()).matches()) {
+          logger.info("Removing compiled classes of a previous version from {}", path);
+          FileUtils.deleteQuietly(path.toFile());
+        }
+      }
+    }
+    Files.createDirectories(directory);
+    try (Stream<Path> paths = Files.list(directory)) {
+      numEntries.set(paths.filter(p -> p.getFileName().toString().endsWith(ENTRY_SUFFIX)).count());
+    }
+    logger.info("Persistent code cache at {} holds {} compiled classes", directory, numEntries.get());
+  }
+
+  /**
+   * Key of the classes compiled from the given generic source, which doesn't depend on the generated class name.
+   */
+  static String key(TemplateClassDefinition<?> definition, String genericCode) {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(definition.getTemplateClassName(), StandardCharsets.UTF_8);
+    hasher.putString(definition.getExternalInterface().getName(), StandardCharsets.UTF_8);
+    hasher.putString(genericCode, StandardCharsets.UTF_8);
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Gets the classes cached under the given key, null if there are none.
+   */
+  Entry get(String key) {
+    final Path path = directory.resolve(key + ENTRY_SUFFIX);
+    if (!Files.exists(path)) {
+      misses.incrementAndGet();
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      final String className = in.readUTF();
+      final int numClasses = in.readInt();
+      final ClassBytes[] classes = new ClassBytes[numClasses];
+      for (int i = 0; i < numClasses; i++) {
+        final String name = in.readUTF();
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        classes[i] = new ClassBytes(name, bytes);
+      }
+      hits.incrementAndGet();
+      return new Entry(className, Arrays.asList(classes));
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to read compiled classes from {}, dropping the entry", path, e);
+      invalidate(key);
+      misses.incrementAndGet();
+      return null;
+    }
+  }
+
+  /**
+   * Caches the classes compiled for the given key, unless the cache already holds maxEntries entries.
+   */
+  void put(String key, String className, List<ClassBytes> classes, long maxEntries) {
+    final Path path = directory.resolve(key + ENTRY_SUFFIX);
+    if (Files.exists(path) || numEntries.get() >= maxEntries) {
+      return;
+    }
+
+    Path tmp = null;
+    try {
+      tmp = Files.createTempFile(directory, key, ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeUTF(className);
+        out.writeInt(classes.size());
+        for (ClassBytes clazz : classes) {
+          out.writeUTF(clazz.getName());
+          out.writeInt(clazz.getBytes().length);
+          out.write(clazz.getBytes());
+        }
+      }
+      Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+      tmp = null;
+      numEntries.incrementAndGet();
+    } catch (IOException e) {
+      logger.warn("Failed to write compiled classes to {}", path, e);
+    } finally {
+      if (tmp != null) {
+        FileUtils.deleteQuietly(tmp.toFile());
+      }
+    }
+  }
+
+  void invalidate(String key) {
+    final Path path = directory.resolve(key + ENTRY_SUFFIX);
+    try {
+      if (Files.deleteIfExists(path)) {
+        numEntries.decrementAndGet();
+      }
+    } catch (IOException e) {
+      logger.warn("Failed to remove compiled classes {}", path, e);
+    }
+  }
+
+  @VisibleForTesting
+  long getNumEntries() {
+    return numEntries.get();
+  }
+
+  @VisibleForTesting
+  long getHits() {
+    return hits.get();
+  }
+
+  @VisibleForTesting
+  long getMisses() {
+    return misses.get();
+  }
+}
@@ -18,6 +18,8 @@ package com.dremio.exec.compile;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -50,6 +52,15 @@ public class QueryClassLoader extends URLClassLoader {
     customClasses.put(className, classBytes);
   }
 
+  /**
+   * Bytecode of all the classes injected in this loader.
+   */
+  public List<ClassBytes> getInjectedByteCode() {
+    final List<ClassBytes> classes = new ArrayList<>(customClasses.size());
+    customClasses.forEach((name, bytes) -> classes.add(new ClassBytes(name, bytes)));
+    return classes;
+  }
+
   @Override
   protected Class<?> findClass(String className) throws ClassNotFoundException {
     byte[] ba = customClasses.get(className);
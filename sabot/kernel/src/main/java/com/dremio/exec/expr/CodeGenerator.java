@@ -111,6 +111,13 @@ public class CodeGenerator<T> {
     return generifiedCode.replaceAll("GenericGenerated", this.className);
   }
 
+  /**
+   * Generated code before naming the class, the same for all the generators of the same code.
+   */
+  public String getGenericCode() {
+    return generifiedCode;
+  }
+
   public TemplateClassDefinition<T> getDefinition() {
     return definition;
   }
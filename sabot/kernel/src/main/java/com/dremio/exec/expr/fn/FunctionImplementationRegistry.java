@@ -15,7 +15,11 @@
  */
 package com.dremio.exec.expr.fn;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -25,6 +29,7 @@ import com.dremio.common.config.SabotConfig;
 import com.dremio.common.expression.FunctionCall;
 import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.scanner.persistence.ScanResult;
+import com.dremio.common.util.DremioVersionInfo;
 import com.dremio.exec.planner.sql.OperatorTable;
 import com.dremio.exec.resolver.FunctionResolver;
 import com.dremio.exec.resolver.FunctionResolverFactory;
@@ -35,6 +40,8 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.inject.AbstractModule;
 import com.google.inject.ConfigurationException;
 import com.google.inject.Guice;
@@ -280,6 +287,34 @@ public final class FunctionImplementationRegistry implements FunctionLookupConte
     return false;
   }
 
+  /**
+   * Version of the registered functions, which changes with the Dremio version and with the functions found on the
+   * classpath. Classes compiled from the code generated with one version are not valid for another.
+   */
+  public String getVersion() {
+    final List<String> functions = new ArrayList<>();
+    for (Map.Entry<String, AbstractFunctionHolder> entry : getRegisteredFunctions().entries()) {
+      final AbstractFunctionHolder holder = entry.getValue();
+      final StringBuilder sb = new StringBuilder(entry.getKey())
+        .append(':').append(holder.getClass().getName());
+      for (int i = 0; i < holder.getParamCount(); i++) {
+        sb.append(',').append(holder.getParamType(i));
+      }
+      functions.add(sb.toString());
+    }
+    Collections.sort(functions);
+
+    final Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(DremioVersionInfo.getVersion(), StandardCharsets.UTF_8);
+    for (String function : functions) {
+      hasher.putString(function, StandardCharsets.UTF_8);
+    }
+    for (PluggableFunctionRegistry registry : pluggableFuncRegistries) {
+      hasher.putString(registry.getClass().getName(), StandardCharsets.UTF_8);
+    }
+    return hasher.hash().toString();
+  }
+
   public PrimaryFunctionRegistry getJavaFunctionRegistry() { return this.primaryFunctionRegistries.get(0); }
   public PrimaryFunctionRegistry getGandivaFunctionRegistry() { return this.primaryFunctionRegistries.get(1); }
 
@@ -38,6 +38,8 @@ public class HashAggregate extends AbstractSingle {
   private final boolean useSpill;
   private final float cardinality;
   private final int hashTableBatchSize;
+  /* first phase of a two phase aggregation, whose output is aggregated again downstream */
+  private final boolean partialAggregate;
 
   /* testing related parameters */
   private VectorizedHashAggSpillStats spillStats;
@@ -51,7 +53,8 @@ public class HashAggregate extends AbstractSingle {
       @JsonProperty("vectorize") boolean vectorize,
       @JsonProperty("useSpill") boolean useSpill,
       @JsonProperty("cardinality") float cardinality,
-      @JsonProperty("hashTableBatchSize") int hashTableBatchSize
+      @JsonProperty("hashTableBatchSize") int hashTableBatchSize,
+      @JsonProperty("partialAggregate") boolean partialAggregate
       ) {
     super(props, child);
     this.groupByExprs = groupByExprs;
@@ -60,6 +63,19 @@ public class HashAggregate extends AbstractSingle {
     this.useSpill = useSpill;
     this.cardinality = cardinality;
     this.hashTableBatchSize = hashTableBatchSize;
+    this.partialAggregate = partialAggregate;
+  }
+
+  public HashAggregate(
+    OpProps props,
+    PhysicalOperator child,
+    List<NamedExpression> groupByExprs,
+    List<NamedExpression> aggrExprs,
+    boolean vectorize,
+    boolean useSpill,
+    float cardinality,
+    int hashTableBatchSize) {
+    this(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality, hashTableBatchSize, false);
   }
 
   // for testing only
@@ -101,7 +117,8 @@ public class HashAggregate extends AbstractSingle {
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new HashAggregate(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality);
+    return new HashAggregate(props, child, groupByExprs, aggrExprs, vectorize, useSpill, cardinality,
+      hashTableBatchSize, partialAggregate);
   }
 
   @Override
@@ -113,6 +130,10 @@ public class HashAggregate extends AbstractSingle {
     return hashTableBatchSize;
   }
 
+  public boolean isPartialAggregate() {
+    return partialAggregate;
+  }
+
   @VisibleForTesting
   public VectorizedHashAggSpillStats getSpillStats() {
     return spillStats;
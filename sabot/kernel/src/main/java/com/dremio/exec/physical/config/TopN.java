@@ -30,6 +30,12 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 public class TopN extends AbstractSort {
 
   private final int limit;
+  private final Integer thresholdScanOperatorId;
+  private final String thresholdScanColumn;
+
+  public TopN(OpProps props, PhysicalOperator child, int limit, List<Ordering> orderings, boolean reverse) {
+    this(props, child, limit, orderings, reverse, null, null);
+  }
 
   @JsonCreator
   public TopN(
@@ -37,10 +43,14 @@ public class TopN extends AbstractSort {
       @JsonProperty("child") PhysicalOperator child,
       @JsonProperty("limit") int limit,
       @JsonProperty("orderings") List<Ordering> orderings,
-      @JsonProperty("reverse") boolean reverse
+      @JsonProperty("reverse") boolean reverse,
+      @JsonProperty("thresholdScanOperatorId") Integer thresholdScanOperatorId,
+      @JsonProperty("thresholdScanColumn") String thresholdScanColumn
       ) {
     super(props, child, orderings, reverse);
     this.limit = limit;
+    this.thresholdScanOperatorId = thresholdScanOperatorId;
+    this.thresholdScanColumn = thresholdScanColumn;
   }
 
   @Override
@@ -57,6 +67,21 @@ public class TopN extends AbstractSort {
     return limit;
   }
 
+  /**
+   * Id of the scan, in the same fragment, producing the first sort key. The top-n sends its boundary on that key to
+   * the scan, null if there is no such scan.
+   */
+  public Integer getThresholdScanOperatorId() {
+    return thresholdScanOperatorId;
+  }
+
+  /**
+   * Name of the first sort key in the scan with the id {@link #getThresholdScanOperatorId()}.
+   */
+  public String getThresholdScanColumn() {
+    return thresholdScanColumn;
+  }
+
   @Override
   public <T, X, E extends Throwable> T accept(PhysicalVisitor<T, X, E> physicalVisitor, X value) throws E{
     return physicalVisitor.visitSort(this, value);
@@ -64,7 +89,7 @@ public class TopN extends AbstractSort {
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new TopN(props, child, limit, orderings, reverse);
+    return new TopN(props, child, limit, orderings, reverse, thresholdScanOperatorId, thresholdScanColumn);
   }
 
   @Override
@@ -18,6 +18,9 @@ package com.dremio.exec.physical.config;
 
 import java.util.List;
 
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexWindowBound;
 
 import com.dremio.common.logical.data.NamedExpression;
@@ -123,12 +126,38 @@ public class WindowPOP extends AbstractSingle {
       return offset == 0;
     }
 
+    /**
+     * Number of rows of the bound from the current row: negative when preceding, positive when following,
+     * Long.MIN_VALUE when unknown.
+     */
     public long getOffset() {
       return offset;
     }
   }
 
-  public static Bound newBound(RexWindowBound windowBound) {
-    return new Bound(windowBound.isUnbounded(), windowBound.isCurrentRow() ? 0 : Long.MIN_VALUE); //TODO: Get offset to work
+  /**
+   * Creates the bound of a window.
+   *
+   * @param windowBound bound of the window
+   * @param constants constants of the window, which the offsets of the bound may refer to
+   * @param inputFieldCount number of fields of the input of the window, before the constants
+   */
+  public static Bound newBound(RexWindowBound windowBound, List<RexLiteral> constants, int inputFieldCount) {
+    if (windowBound.isUnbounded() || windowBound.isCurrentRow()) {
+      return new Bound(windowBound.isUnbounded(), windowBound.isCurrentRow() ? 0 : Long.MIN_VALUE);
+    }
+
+    final RexNode offset = windowBound.getOffset();
+    RexLiteral literal = null;
+    if (offset instanceof RexLiteral) {
+      literal = (RexLiteral) offset;
+    } else if (offset instanceof RexInputRef && ((RexInputRef) offset).getIndex() >= inputFieldCount) {
+      literal = constants.get(((RexInputRef) offset).getIndex() - inputFieldCount);
+    }
+    final Long rows = literal == null ? null : literal.getValueAs(Long.class);
+    if (rows == null) {
+      return new Bound(false, Long.MIN_VALUE);
+    }
+    return new Bound(false, windowBound.isPreceding() ? -rows : rows);
   }
 }
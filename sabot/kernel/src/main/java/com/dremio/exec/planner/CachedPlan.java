@@ -15,9 +15,15 @@
  */
 package com.dremio.exec.planner;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.calcite.rex.RexLiteral;
+
+import com.dremio.exec.catalog.VersionContext;
 import com.dremio.exec.planner.physical.Prel;
+import com.google.common.collect.ImmutableMap;
 
 public class CachedPlan {
   private final String queryText;
@@ -26,6 +32,10 @@ public class CachedPlan {
   private AtomicInteger useCount;
   private final long creationTime;
   private CachedAccelDetails accelDetails;
+  // literals the plan was planned with, for plans also cached for other values of these literals
+  private List<RexLiteral> literals;
+  // versions of the tables of versioned sources the plan was planned against, by dataset id
+  private Map<String, VersionedTable> versionedTables = ImmutableMap.of();
 
   private CachedPlan(String query, Prel prel, String textPlan, int useCount, int estimatedSize) {
     this.queryText = query;
@@ -35,6 +45,17 @@ public class CachedPlan {
     this.creationTime = System.currentTimeMillis();
   }
 
+  private CachedPlan(CachedPlan cachedPlan, Prel prel) {
+    this.queryText = cachedPlan.queryText;
+    this.prel = prel;
+    this.useCount = cachedPlan.useCount;
+    this.estimatedSize = cachedPlan.estimatedSize;
+    this.creationTime = cachedPlan.creationTime;
+    this.accelDetails = cachedPlan.accelDetails;
+    this.literals = cachedPlan.literals;
+    this.versionedTables = cachedPlan.versionedTables;
+  }
+
   public static CachedPlan createCachedPlan(String query, Prel prel, String textPlan, int estimatedSize) {
     return new CachedPlan(query, prel, textPlan, 0, estimatedSize);
   }
@@ -43,6 +64,29 @@ public class CachedPlan {
     return prel;
   }
 
+  /**
+   * Same cached plan, sharing its use count, with the literals of the plan rebound to other values.
+   */
+  public CachedPlan withPrel(Prel prel) {
+    return new CachedPlan(this, prel);
+  }
+
+  public void setLiterals(List<RexLiteral> literals) {
+    this.literals = literals;
+  }
+
+  public List<RexLiteral> getLiterals() {
+    return literals;
+  }
+
+  public void setVersionedTables(Map<String, VersionedTable> versionedTables) {
+    this.versionedTables = versionedTables;
+  }
+
+  public Map<String, VersionedTable> getVersionedTables() {
+    return versionedTables;
+  }
+
   public void setAccelDetails(CachedAccelDetails accelDetails) {
     this.accelDetails = accelDetails;
   }
@@ -66,4 +110,38 @@ public class CachedPlan {
   public long getCreationTime() {
     return creationTime;
   }
+
+  /**
+   * Version of a table of a versioned source, as resolved when the plan was planned.
+   */
+  public static final class VersionedTable {
+    private final String sourceName;
+    // version requested for the table, null if the version is fixed (time travel)
+    private final VersionContext versionContext;
+    private final String commitHash;
+    private final long snapshotId;
+
+    public VersionedTable(String sourceName, VersionContext versionContext, String commitHash, long snapshotId) {
+      this.sourceName = sourceName;
+      this.versionContext = versionContext;
+      this.commitHash = commitHash;
+      this.snapshotId = snapshotId;
+    }
+
+    public String getSourceName() {
+      return sourceName;
+    }
+
+    public VersionContext getVersionContext() {
+      return versionContext;
+    }
+
+    public String getCommitHash() {
+      return commitHash;
+    }
+
+    public long getSnapshotId() {
+      return snapshotId;
+    }
+  }
 }
@@ -17,22 +17,35 @@ package com.dremio.exec.planner;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.dialect.CalciteSqlDialect;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 
+import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.catalog.Catalog;
 import com.dremio.exec.catalog.CatalogUtil;
 import com.dremio.exec.catalog.DremioTable;
 import com.dremio.exec.catalog.ManagedStoragePlugin;
+import com.dremio.exec.catalog.ResolvedVersionContext;
+import com.dremio.exec.catalog.VersionContext;
+import com.dremio.exec.catalog.VersionedDatasetId;
 import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.planner.CachedPlan.VersionedTable;
 import com.dremio.exec.planner.physical.Prel;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
+import com.dremio.exec.proto.UserBitShared.PlanCacheMatchType;
+import com.dremio.exec.proto.UserBitShared.PlanCacheProfile;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.source.proto.SourceConfig;
@@ -48,6 +61,11 @@ public class PlanCache {
   private final Cache<String, CachedPlan> cachePlans;
   private static Multimap<String, String> datasetMap;
 
+  private final AtomicLong exactHits = new AtomicLong();
+  private final AtomicLong parameterizedHits = new AtomicLong();
+  private final AtomicLong parameterizedFallbacks = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
   public PlanCache(Cache<String, CachedPlan> cachePlans, Multimap<String, String> map) {
     this.cachePlans = cachePlans;
     this.datasetMap = map;
@@ -63,8 +81,20 @@ public class PlanCache {
 
   public void createNewCachedPlan(Catalog catalog, String cachedKey, String sql,
                                   Prel prel, String textPlan, SqlHandlerConfig config) {
+    createNewCachedPlan(catalog, cachedKey, null, null, sql, prel, textPlan, config);
+  }
+
+  /**
+   * Caches a new plan, also under the parameterized key if one is given.
+   *
+   * @param parameterizedKey key of the plan independent of the literals of the query, or null
+   * @param literals literals of the query the plan is planned with, if the parameterized key is given
+   */
+  public void createNewCachedPlan(Catalog catalog, String cachedKey, String parameterizedKey, PlanLiterals literals,
+                                  String sql, Prel prel, String textPlan, SqlHandlerConfig config) {
     Preconditions.checkNotNull(catalog);
     boolean addedCacheToDatasetMap = false;
+    final Map<String, VersionedTable> versionedTables = new HashMap<>();
     Iterable<DremioTable> datasets = catalog.getAllRequestedTables();
     for (DremioTable dataset : datasets) {
       DatasetConfig datasetConfig;
@@ -78,28 +108,47 @@ public class PlanCache {
         logger.debug(String.format("Dataset %s is ignored (no dataset config available).", dataset.getPath()));
         continue;
       }
+      if (isVersioned(datasetConfig)) {
+        // views of versioned sources are recorded too, their definition changes with the commits of the source
+        final VersionedTable versionedTable = getVersionedTable(catalog, dataset, datasetConfig);
+        if (versionedTable == null) {
+          logger.debug("Plan is not cached, the version of dataset {} can't be resolved.", dataset.getPath());
+          return;
+        }
+        versionedTables.put(datasetConfig.getId().getId(), versionedTable);
+      }
       if (datasetConfig.getPhysicalDataset() == null) {
         logger.debug(String.format("Dataset %s is ignored (no physical dataset available).", dataset.getPath()));
         continue;
       }
       synchronized (datasetMap) {
         datasetMap.put(datasetConfig.getId().getId(), cachedKey);
+        if (parameterizedKey != null) {
+          datasetMap.put(datasetConfig.getId().getId(), parameterizedKey);
+        }
       }
       addedCacheToDatasetMap = true;
     }
     if (addedCacheToDatasetMap) {
       CachedPlan newCachedPlan = CachedPlan.createCachedPlan(sql, prel, textPlan, prel.getEstimatedSize());
+      newCachedPlan.setVersionedTables(versionedTables);
       config.getObserver().setCachedAccelDetails(newCachedPlan);
       cachePlans.put(cachedKey, newCachedPlan);
+      if (parameterizedKey != null) {
+        newCachedPlan.setLiterals(literals.getLiterals());
+        cachePlans.asMap().putIfAbsent(parameterizedKey, newCachedPlan);
+      }
     }
   }
 
   public static boolean supportPlanCache(PlanCache planCache, SqlHandlerConfig config, SqlNode sqlNode, Catalog catalog) {
-    for (DremioTable table : catalog.getAllRequestedTables()) {
-      if (CatalogUtil.requestedPluginSupportsVersionedTables(table.getPath(), catalog)) {
-        // Versioned tables don't have a mtime - they have snapshot ids.  Since we don't have a way to invalidate
-        // cache entries containing versioned datasets, don't allow these plans to enter the cache.
-        return false;
+    if (!config.getContext().getPlannerSettings().isVersionedTablesPlanCacheEnabled()) {
+      for (DremioTable table : catalog.getAllRequestedTables()) {
+        if (CatalogUtil.requestedPluginSupportsVersionedTables(table.getPath(), catalog)) {
+          // Versioned tables don't have a mtime - they have snapshot ids. Plans over them are only cached when they
+          // are validated against the commits the tables were planned at.
+          return false;
+        }
       }
     }
     if (org.apache.commons.lang3.StringUtils.containsIgnoreCase(sqlNode.toString(), "external_query")) {
@@ -114,10 +163,39 @@ public class PlanCache {
 
     hasher
       .putString(sqlNode.toSqlString(CalciteSqlDialect.DEFAULT).getSql(), UTF_8)
-      .putString(RelOptUtil.toString(relNode), UTF_8)
+      .putString(RelOptUtil.toString(relNode), UTF_8);
+
+    return hashContext(hasher, context);
+  }
+
+  /**
+   * Key of the plan of a query independent of the values of its literals.
+   */
+  public static String generateParameterizedCacheKey(PlanLiterals literals, RelNode relNode, QueryContext context) {
+    Hasher hasher = Hashing.sha256().newHasher();
+
+    hasher
+      // keep the keys of the parameterized plans apart from the others
+      .putString("parameterized", UTF_8)
+      .putString(literals.getDigest(), UTF_8)
+      .putString(relNode.getRowType().getFullTypeString(), UTF_8);
+
+    return hashContext(hasher, context);
+  }
+
+  private static String hashContext(Hasher hasher, QueryContext context) {
+    hasher
       .putString(context.getWorkloadType().name(), UTF_8)
       .putString(context.getContextInformation().getCurrentDefaultSchema(), UTF_8);
 
+    // branches and tags of the versioned sources set in the session, which the tables of the query may be read at
+    context.getSession().getSourceVersionMapping().entrySet()
+      .stream()
+      .sorted(Map.Entry.comparingByKey(String.CASE_INSENSITIVE_ORDER))
+      .forEach(sourceVersion -> hasher
+        .putString(sourceVersion.getKey().toLowerCase(Locale.ROOT), UTF_8)
+        .putString(sourceVersion.getValue().toString(), UTF_8));
+
     if (context.getPlannerSettings().isPlanCacheEnableSecuredUserBasedCaching()){
       hasher.putString(context.getQueryUserName(), UTF_8);
     }
@@ -166,6 +244,11 @@ public class PlanCache {
         try {
           DatasetConfig config = dataset.getDatasetConfig();
           if (config != null) {
+            if (isVersioned(config) && !isVersionedTableUnchanged(catalog, cachedPlan, dataset, config)) {
+              logger.debug("Invalidating cached plan, dataset {} moved to another commit or snapshot", dataset.getPath());
+              cachePlans.invalidate(cacheId);
+              return null;
+            }
             // DatasetConfig modified
             if (config.getLastModified() > cachedPlan.getCreationTime()) {
               // for this case, we can only invalidate this cache entry, other cache entries may still be valid
@@ -197,6 +280,163 @@ public class PlanCache {
     return cachePlans.getIfPresent(cacheId);
   }
 
+  private static boolean isVersioned(DatasetConfig config) {
+    return config.getId() != null && VersionedDatasetId.isVersioned(config.getId().getId());
+  }
+
+  /**
+   * Version of a dataset of a versioned source, null if the dataset or its version can't be resolved.
+   */
+  private static VersionedTable getVersionedTable(Catalog catalog, DremioTable dataset, DatasetConfig config) {
+    final VersionedDatasetId versionedDatasetId = VersionedDatasetId.tryParse(config.getId().getId());
+    if (versionedDatasetId == null) {
+      return null;
+    }
+    final String sourceName = dataset.getPath().getRoot();
+    final long snapshotId = getSnapshotId(config);
+    if (VersionedDatasetId.isTimeTravelDatasetId(versionedDatasetId)) {
+      // a table read as of a snapshot id or a timestamp never moves
+      return new VersionedTable(sourceName, null, null, snapshotId);
+    }
+
+    final VersionContext versionContext = versionedDatasetId.getVersionContext().asVersionContext();
+    final ResolvedVersionContext resolvedVersionContext;
+    try {
+      resolvedVersionContext = CatalogUtil.resolveVersionContext(catalog, sourceName, versionContext);
+    } catch (UserException e) {
+      logger.debug("Can't resolve {} of source {}", versionContext, sourceName, e);
+      return null;
+    }
+    if (resolvedVersionContext == null) {
+      return null;
+    }
+    return new VersionedTable(sourceName,
+      // neither does a table read as of a commit
+      resolvedVersionContext.isBareCommit() ? null : versionContext,
+      resolvedVersionContext.getCommitHash(),
+      snapshotId);
+  }
+
+  private static long getSnapshotId(DatasetConfig config) {
+    if (config.getPhysicalDataset() == null || config.getPhysicalDataset().getIcebergMetadata() == null
+      || config.getPhysicalDataset().getIcebergMetadata().getSnapshotId() == null) {
+      return -1;
+    }
+    return config.getPhysicalDataset().getIcebergMetadata().getSnapshotId();
+  }
+
+  /**
+   * Checks that a dataset of a versioned source is still at the commit and snapshot the plan was planned against.
+   */
+  private static boolean isVersionedTableUnchanged(Catalog catalog, CachedPlan cachedPlan, DremioTable dataset,
+                                                   DatasetConfig config) {
+    // datasets are recorded by id, which includes the requested version: an unknown id is another branch or tag
+    final VersionedTable cachedTable = cachedPlan.getVersionedTables().get(config.getId().getId());
+    if (cachedTable == null) {
+      return false;
+    }
+    final VersionedTable currentTable = getVersionedTable(catalog, dataset, config);
+    return currentTable != null
+      && Objects.equals(cachedTable.getCommitHash(), currentTable.getCommitHash())
+      && cachedTable.getSnapshotId() == currentTable.getSnapshotId();
+  }
+
+  /**
+   * Invalidates the cached plans over datasets of versioned sources whose branch or tag has moved to another commit
+   * since the plan was planned. Each branch or tag is only resolved once.
+   */
+  public void invalidateCacheOnVersionedTableChanges(Catalog catalog) {
+    final Map<ImmutablePair<String, VersionContext>, Optional<String>> commitHashes = new HashMap<>();
+    for (Map.Entry<String, CachedPlan> entry : cachePlans.asMap().entrySet()) {
+      for (VersionedTable versionedTable : entry.getValue().getVersionedTables().values()) {
+        if (versionedTable.getVersionContext() == null) {
+          continue;
+        }
+        final Optional<String> commitHash = commitHashes.computeIfAbsent(
+          ImmutablePair.of(versionedTable.getSourceName(), versionedTable.getVersionContext()),
+          sourceVersion -> resolveCommitHash(catalog, sourceVersion.getLeft(), sourceVersion.getRight()));
+        if (!commitHash.isPresent() || !commitHash.get().equals(versionedTable.getCommitHash())) {
+          logger.debug("Invalidating cached plan {}, {} of source {} moved to {}", entry.getKey(),
+            versionedTable.getVersionContext(), versionedTable.getSourceName(), commitHash.orElse(null));
+          cachePlans.invalidate(entry.getKey());
+          break;
+        }
+      }
+    }
+  }
+
+  private static Optional<String> resolveCommitHash(Catalog catalog, String sourceName, VersionContext versionContext) {
+    try {
+      return Optional.ofNullable(CatalogUtil.resolveVersionContext(catalog, sourceName, versionContext))
+        .map(ResolvedVersionContext::getCommitHash);
+    } catch (Exception e) {
+      // the branch or tag may have been dropped, as well as the source
+      logger.debug("Can't resolve {} of source {}", versionContext, sourceName, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Rebinds a plan cached under a parameterized key to the literals of the query.
+   *
+   * Plans that used reflections are not reused, as other literals may match other reflections. Neither are plans that
+   * can't be rebound to the new literals, because the literals were used during planning, to prune partitions or
+   * push filters into scans for instance.
+   *
+   * @return the plan rebound to the literals, or null if the plan can't be reused for these literals
+   */
+  public static CachedPlan rebind(CachedPlan cachedPlan, PlanLiterals literals) {
+    if (cachedPlan.getLiterals() == null) {
+      return null;
+    }
+    final CachedAccelDetails accelDetails = cachedPlan.getAccelDetails();
+    if (accelDetails != null && accelDetails.getSubstitutionInfo() != null) {
+      return null;
+    }
+
+    final RelNode rebound = PlanLiterals.rebind(cachedPlan.getPrel(), cachedPlan.getLiterals(), literals.getLiterals());
+    if (rebound == null) {
+      logger.debug("Cached plan can't be reused with the literals {}", literals.getLiterals());
+      return null;
+    }
+    return cachedPlan.withPrel((Prel) rebound);
+  }
+
+  /**
+   * Records the outcome of the lookup of the plan of a query.
+   */
+  public PlanCacheProfile recordLookup(PlanCacheMatchType matchType) {
+    switch (matchType) {
+      case EXACT_MATCH:
+        exactHits.incrementAndGet();
+        break;
+      case PARAMETERIZED_MATCH:
+        parameterizedHits.incrementAndGet();
+        break;
+      case PARAMETERIZED_FALLBACK:
+        parameterizedFallbacks.incrementAndGet();
+        break;
+      default:
+        misses.incrementAndGet();
+        break;
+    }
+    return getLookupCounts().toBuilder()
+      .setMatchType(matchType)
+      .build();
+  }
+
+  /**
+   * Counts of the lookups of the plan of a query since the coordinator started, by outcome.
+   */
+  public PlanCacheProfile getLookupCounts() {
+    return PlanCacheProfile.newBuilder()
+      .setExactHits(exactHits.get())
+      .setParameterizedHits(parameterizedHits.get())
+      .setParameterizedFallbacks(parameterizedFallbacks.get())
+      .setMisses(misses.get())
+      .build();
+  }
+
   public void invalidateCacheOnDataset(String datasetId) {
     List<String> affectedCaches = datasetMap.get(datasetId).stream().collect(Collectors.toList());
     for(String cacheId: affectedCaches) {
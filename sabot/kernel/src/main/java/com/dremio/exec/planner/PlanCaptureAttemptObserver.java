@@ -55,6 +55,7 @@ import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.proto.UserBitShared.AccelerationProfile;
 import com.dremio.exec.proto.UserBitShared.FragmentRpcSizeStats;
 import com.dremio.exec.proto.UserBitShared.LayoutMaterializedViewProfile;
+import com.dremio.exec.proto.UserBitShared.PlanCacheProfile;
 import com.dremio.exec.proto.UserBitShared.PlanPhaseProfile;
 import com.dremio.exec.proto.UserBitShared.SubstitutionProfile;
 import com.dremio.exec.record.BatchSchema;
@@ -101,6 +102,8 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
 
   private int numPlanCacheUses = 0;
 
+  private PlanCacheProfile planCacheProfile = null;
+
   private Integer numJoinsInUserQuery = null;
 
   private Integer numJoinsInFinalPrel = null;
@@ -214,12 +217,12 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
   }
 
   @Override
-  public void planFindMaterializations(long millisTaken) {
+  public void planFindMaterializations(long millisTaken, int numCandidates, int numPruned) {
     findMaterializationMillis = millisTaken;
     planPhases.add(PlanPhaseProfile.newBuilder()
       .setPhaseName(PlannerPhase.PLAN_FIND_MATERIALIZATIONS)
       .setDurationMillis(millisTaken)
-      .setPlan("")
+      .setPlan(String.format("Candidate reflections considered: %d, pruned by the reflection index: %d", numCandidates, numPruned))
       .build());
   }
 
@@ -335,6 +338,15 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
     return numPlanCacheUses;
   }
 
+  @Override
+  public void planCacheLookup(PlanCacheProfile profile) {
+    planCacheProfile = profile;
+  }
+
+  public PlanCacheProfile getPlanCacheProfile() {
+    return planCacheProfile;
+  }
+
   public Integer getNumJoinsInUserQuery() {
     return numJoinsInUserQuery;
   }
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexDynamicParam;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexShuttle;
+import org.apache.calcite.sql.SqlExplainLevel;
+import org.apache.calcite.sql.type.SqlTypeName;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Literals of a query plan, for plans cached independently of the literals of the query.
+ *
+ * The literals that can be parameterized (numbers, strings and datetimes, outside of limits and offsets) are replaced
+ * by dynamic parameters in the digest of the plan, along with the types of the literals and of the calls, so that
+ * two plans with the same digest only differ by the values of these literals, position by position.
+ */
+public final class PlanLiterals {
+  private final String digest;
+  private final List<RexLiteral> literals;
+
+  private PlanLiterals(String digest, List<RexLiteral> literals) {
+    this.digest = digest;
+    this.literals = literals;
+  }
+
+  /**
+   * Collects the literals of a plan, as converted from the query.
+   */
+  public static PlanLiterals of(RelNode rel) {
+    final LiteralNormalizer normalizer = new LiteralNormalizer();
+    final RelNode normalized = rewrite(rel, normalizer);
+    final StringBuilder digest = new StringBuilder(RelOptUtil.toString(normalized));
+    for (String type : normalizer.types) {
+      digest.append(type).append('\n');
+    }
+    return new PlanLiterals(digest.toString(), ImmutableList.copyOf(normalizer.literals));
+  }
+
+  public String getDigest() {
+    return digest;
+  }
+
+  public List<RexLiteral> getLiterals() {
+    return literals;
+  }
+
+  /**
+   * Rebinds a plan planned with the given literals to the literals of another query with the same digest.
+   *
+   * Literals of the plan equal to a changed literal of the query are replaced, as long as it's safe to do so: each
+   * changed literal must map to a single new value, every one of its occurrences in the query must be found in the
+   * expressions of the plan, and it must not be found anywhere else in the plan, like in the filters pushed into a
+   * scan, the partitions pruned or folded constants.
+   *
+   * @return the rebound plan, or null if the plan can't be reused for the new literals
+   */
+  public static RelNode rebind(RelNode plan, List<RexLiteral> planLiterals, List<RexLiteral> literals) {
+    if (planLiterals.size() != literals.size()) {
+      return null;
+    }
+
+    final Map<RexLiteral, RexLiteral> bindings = new HashMap<>();
+    for (int i = 0; i < planLiterals.size(); i++) {
+      final RexLiteral previous = bindings.putIfAbsent(planLiterals.get(i), literals.get(i));
+      if (previous != null && !previous.equals(literals.get(i))) {
+        // same literal bound to different values, can't tell the occurrences in the plan apart
+        return null;
+      }
+    }
+    bindings.entrySet().removeIf(e -> e.getKey().equals(e.getValue()));
+    if (bindings.isEmpty()) {
+      return plan;
+    }
+
+    final LiteralBinder binder = new LiteralBinder(bindings);
+    final RelNode rebound = rewrite(plan, binder);
+    for (RexLiteral literal : bindings.keySet()) {
+      final long expected = planLiterals.stream().filter(literal::equals).count();
+      if (binder.counts.getOrDefault(literal, 0) != expected) {
+        return null;
+      }
+    }
+
+    final String text = RelOptUtil.toString(rebound, SqlExplainLevel.EXPPLAN_ATTRIBUTES);
+    for (RexLiteral literal : bindings.keySet()) {
+      if (containsLiteral(text, literal.toString())
+        || (literal.getTypeName() == SqlTypeName.CHAR && containsLiteral(text, literal.getValueAs(String.class)))) {
+        return null;
+      }
+    }
+    return rebound;
+  }
+
+  private static boolean containsLiteral(String text, String literal) {
+    return Pattern.compile("(?<![\\w$.])" + Pattern.quote(literal) + "(?![\\w.])").matcher(text).find();
+  }
+
+  private static boolean isParameterizable(RexLiteral literal) {
+    if (literal.isNull()) {
+      return false;
+    }
+    final SqlTypeName typeName = literal.getTypeName();
+    return SqlTypeName.NUMERIC_TYPES.contains(typeName)
+      || typeName == SqlTypeName.CHAR
+      || typeName == SqlTypeName.DATE
+      || typeName == SqlTypeName.TIME
+      || typeName == SqlTypeName.TIMESTAMP;
+  }
+
+  /**
+   * Applies the shuttle to the expressions of all the nodes of the plan, except the limits and offsets of sorts.
+   */
+  private static RelNode rewrite(RelNode node, RexShuttle shuttle) {
+    final List<RelNode> inputs = new ArrayList<>(node.getInputs().size());
+    boolean changed = false;
+    for (RelNode input : node.getInputs()) {
+      final RelNode newInput = rewrite(input, shuttle);
+      changed |= newInput != input;
+      inputs.add(newInput);
+    }
+    final RelNode copy = changed ? node.copy(node.getTraitSet(), inputs) : node;
+    return copy instanceof Sort ? copy : copy.accept(shuttle);
+  }
+
+  private static final class LiteralNormalizer extends RexShuttle {
+    private final List<RexLiteral> literals = new ArrayList<>();
+    private final List<String> types = new ArrayList<>();
+
+    @Override
+    public RexNode visitCall(RexCall call) {
+      types.add(call.getType().getFullTypeString());
+      return super.visitCall(call);
+    }
+
+    @Override
+    public RexNode visitLiteral(RexLiteral literal) {
+      if (!isParameterizable(literal)) {
+        return literal;
+      }
+      literals.add(literal);
+      types.add(literal.getType().getFullTypeString());
+      return new RexDynamicParam(literal.getType(), 0);
+    }
+  }
+
+  private static final class LiteralBinder extends RexShuttle {
+    private final Map<RexLiteral, RexLiteral> bindings;
+    private final Map<RexLiteral, Integer> counts = new HashMap<>();
+
+    private LiteralBinder(Map<RexLiteral, RexLiteral> bindings) {
+      this.bindings = bindings;
+    }
+
+    @Override
+    public RexNode visitLiteral(RexLiteral literal) {
+      final RexLiteral binding = bindings.get(literal);
+      if (binding == null) {
+        return literal;
+      }
+      counts.merge(literal, 1, Integer::sum);
+      return binding;
+    }
+  }
+}
@@ -38,6 +38,8 @@ import com.google.common.base.Preconditions;
 public class CachedMaterializationDescriptor extends MaterializationDescriptor {
 
   private final DremioMaterialization materialization;
+  // tables, views and external queries of the materialization, under which the materialization cache indexes it
+  private volatile SubstitutionUtils.TableUsage tableUsage;
 
   public CachedMaterializationDescriptor(MaterializationDescriptor descriptor, DremioMaterialization materialization, CatalogService catalogService) {
     super(descriptor.getLayoutInfo(),
@@ -97,6 +99,13 @@ public class CachedMaterializationDescriptor extends MaterializationDescriptor {
     return materialization;
   }
 
+  public SubstitutionUtils.TableUsage getTableUsage() {
+    if (tableUsage == null) {
+      tableUsage = SubstitutionUtils.findTableUsage(materialization.getQueryRel());
+    }
+    return tableUsage;
+  }
+
   /**
    * Returns true only if there is overlap between this materialization and the input tables, views and external queries.
    * @param queryTablesUsed
@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.calcite.rel.RelNode;
 
@@ -33,6 +34,7 @@ import com.dremio.sabot.rpc.user.UserSession;
 import com.dremio.service.namespace.NamespaceKey;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -87,6 +89,7 @@ public class MaterializationList implements MaterializationProvider {
 
   @Override
   public List<DremioMaterialization> buildApplicableMaterializations(RelNode userQueryNode) {
+    final Stopwatch stopwatch = Stopwatch.createStarted();
     final Set<SubstitutionUtils.VersionedPath> queryTablesUsed = SubstitutionUtils.findTables(userQueryNode);
     final Set<SubstitutionUtils.VersionedPath> queryVdsUsed = SubstitutionUtils.findExpansionNodes(userQueryNode);
     final Set<SubstitutionUtils.ExternalQueryDescriptor> externalQueries = SubstitutionUtils.findExternalQueries(userQueryNode);
@@ -95,7 +98,9 @@ public class MaterializationList implements MaterializationProvider {
     final Set<String> inclusions = Sets.newHashSet(session.getSubstitutionSettings().getInclusions());
     final boolean hasInclusions = !inclusions.isEmpty();
     final List<DremioMaterialization> materializations = Lists.newArrayList();
-    for (final MaterializationDescriptor descriptor : provider.get()) {
+    final MaterializationDescriptorProvider.Candidates candidates =
+      provider.getCandidates(queryTablesUsed, queryVdsUsed, externalQueries);
+    for (final MaterializationDescriptor descriptor : candidates.getDescriptors()) {
 
       if(
           (hasInclusions && !inclusions.contains(descriptor.getLayoutId()))
@@ -124,6 +129,10 @@ public class MaterializationList implements MaterializationProvider {
       }
     }
     this.materializations = materializations;
+    if (converter.getObserver() != null) {
+      converter.getObserver().planFindMaterializations(stopwatch.elapsed(TimeUnit.MILLISECONDS),
+        candidates.getDescriptors().size(), candidates.getNumPruned());
+    }
     return materializations;
   }
 
@@ -170,6 +170,66 @@ public final class SubstitutionUtils {
     return used.value;
   }
 
+  /**
+   * Returns the tables, views and external queries used by the given materialization plan, which
+   * {@link #usesTableOrVds} looks for in the sets of the query.
+   */
+  public static TableUsage findTableUsage(final RelNode rel) {
+    final Set<VersionedPath> tables = new HashSet<>();
+    final Set<VersionedPath> vdsPaths = new HashSet<>();
+    final Set<ExternalQueryDescriptor> externalQueries = new HashSet<>();
+    rel.accept(new RoutingShuttle() {
+      @Override
+      public RelNode visit(TableScan scan) {
+        TableVersionContext versionContext = null;
+        if (scan instanceof ScanCrel) {
+          versionContext = ((ScanCrel)scan).getTableMetadata().getVersionContext();
+        }
+        tables.add(VersionedPath.of(scan.getTable().getQualifiedName(), versionContext));
+        return scan;
+      }
+      @Override
+      public RelNode visit(RelNode other) {
+        if (other instanceof ExternalQueryScanCrel) {
+          externalQueries.add(descriptor((ExternalQueryScanCrel) other));
+        }
+        if (other instanceof ExpansionNode) {
+          ExpansionNode expansionNode = (ExpansionNode) other;
+          vdsPaths.add(VersionedPath.of(expansionNode.getPath().getPathComponents(), expansionNode.getVersionContext()));
+        }
+        return super.visit(other);
+      }
+    });
+    return new TableUsage(tables, vdsPaths, externalQueries);
+  }
+
+  /**
+   * Tables, views and external queries used by a plan.
+   */
+  public static final class TableUsage {
+    private final Set<VersionedPath> tables;
+    private final Set<VersionedPath> vdsPaths;
+    private final Set<ExternalQueryDescriptor> externalQueries;
+
+    private TableUsage(Set<VersionedPath> tables, Set<VersionedPath> vdsPaths, Set<ExternalQueryDescriptor> externalQueries) {
+      this.tables = tables;
+      this.vdsPaths = vdsPaths;
+      this.externalQueries = externalQueries;
+    }
+
+    public Set<VersionedPath> getTables() {
+      return tables;
+    }
+
+    public Set<VersionedPath> getVdsPaths() {
+      return vdsPaths;
+    }
+
+    public Set<ExternalQueryDescriptor> getExternalQueries() {
+      return externalQueries;
+    }
+  }
+
   public static ExternalQueryDescriptor descriptor(ExternalQueryScanCrel eq) {
     return new ExternalQueryDescriptor(eq.getPluginId().getName(), eq.getSql());
   }
@@ -74,7 +74,7 @@ public abstract class AbstractAttemptObserver implements AttemptObserver {
   }
 
   @Override
-  public void planFindMaterializations(long millisTaken) {
+  public void planFindMaterializations(long millisTaken, int numCandidates, int numPruned) {
   }
 
   @Override
@@ -37,6 +37,7 @@ import com.dremio.exec.proto.GeneralRPCProtos.Ack;
 import com.dremio.exec.proto.UserBitShared.AccelerationProfile;
 import com.dremio.exec.proto.UserBitShared.AttemptEvent;
 import com.dremio.exec.proto.UserBitShared.FragmentRpcSizeStats;
+import com.dremio.exec.proto.UserBitShared.PlanCacheProfile;
 import com.dremio.exec.proto.UserBitShared.QueryProfile;
 import com.dremio.exec.rpc.RpcOutcomeListener;
 import com.dremio.exec.work.QueryWorkUnit;
@@ -86,6 +87,11 @@ public interface AttemptObserver {
    */
   default void planCacheUsed(int count) {};
 
+  /**
+   * Outcome of the lookup of the plan of the query in the plan cache.
+   */
+  default void planCacheLookup(PlanCacheProfile profile) {};
+
   /**
    * Retrieving the latest acceleration profile
    */
@@ -185,8 +191,12 @@ public interface AttemptObserver {
 
   /**
    * Report applicable materializations
+   *
+   * @param millisTaken time taken finding the materializations
+   * @param numCandidates number of materializations checked for the query
+   * @param numPruned number of materializations skipped as they don't use any of the tables of the query
    */
-  void planFindMaterializations(long millisTaken);
+  void planFindMaterializations(long millisTaken, int numCandidates, int numPruned);
 
   /**
    * Report normalization completion
@@ -38,6 +38,7 @@ import com.dremio.exec.proto.GeneralRPCProtos.Ack;
 import com.dremio.exec.proto.UserBitShared.AccelerationProfile;
 import com.dremio.exec.proto.UserBitShared.AttemptEvent;
 import com.dremio.exec.proto.UserBitShared.FragmentRpcSizeStats;
+import com.dremio.exec.proto.UserBitShared.PlanCacheProfile;
 import com.dremio.exec.proto.UserBitShared.QueryProfile;
 import com.dremio.exec.rpc.RpcOutcomeListener;
 import com.dremio.exec.work.QueryWorkUnit;
@@ -100,6 +101,13 @@ public class AttemptObservers implements AttemptObserver {
     }
   }
 
+  @Override
+  public void planCacheLookup(PlanCacheProfile profile) {
+    for (final AttemptObserver observer : observers) {
+      observer.planCacheLookup(profile);
+    }
+  }
+
   @Override
   public void setCachedAccelDetails(CachedPlan cachedPlan) {
     for (final AttemptObserver observer : observers) {
@@ -200,9 +208,9 @@ public class AttemptObservers implements AttemptObserver {
   }
 
   @Override
-  public void planFindMaterializations(long millisTaken) {
+  public void planFindMaterializations(long millisTaken, int numCandidates, int numPruned) {
     for (final AttemptObserver observer : observers) {
-      observer.planFindMaterializations(millisTaken);
+      observer.planFindMaterializations(millisTaken, numCandidates, numPruned);
     }
   }
 
@@ -129,8 +129,8 @@ public class DelegatingAttemptObserver implements AttemptObserver {
   }
 
   @Override
-  public void planFindMaterializations(long millisTaken) {
-    observer.planFindMaterializations(millisTaken);
+  public void planFindMaterializations(long millisTaken, int numCandidates, int numPruned) {
+    observer.planFindMaterializations(millisTaken, numCandidates, numPruned);
   }
 
   @Override
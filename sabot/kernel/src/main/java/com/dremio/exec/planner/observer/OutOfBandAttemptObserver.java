@@ -42,6 +42,7 @@ import com.dremio.exec.planner.physical.Prel;
 import com.dremio.exec.proto.GeneralRPCProtos.Ack;
 import com.dremio.exec.proto.UserBitShared.AttemptEvent;
 import com.dremio.exec.proto.UserBitShared.FragmentRpcSizeStats;
+import com.dremio.exec.proto.UserBitShared.PlanCacheProfile;
 import com.dremio.exec.proto.UserBitShared.QueryProfile;
 import com.dremio.exec.rpc.RpcOutcomeListener;
 import com.dremio.exec.work.QueryWorkUnit;
@@ -145,8 +146,8 @@ public class OutOfBandAttemptObserver implements AttemptObserver {
   }
 
   @Override
-  public void planFindMaterializations(final long millisTaken) {
-    execute(() -> innerObserver.planFindMaterializations(millisTaken));
+  public void planFindMaterializations(final long millisTaken, final int numCandidates, final int numPruned) {
+    execute(() -> innerObserver.planFindMaterializations(millisTaken, numCandidates, numPruned));
   }
 
   @Override
@@ -227,6 +228,11 @@ public class OutOfBandAttemptObserver implements AttemptObserver {
     execute(() -> innerObserver.planCacheUsed(count));
   }
 
+  @Override
+  public void planCacheLookup(PlanCacheProfile profile) {
+    execute(() -> innerObserver.planCacheLookup(profile));
+  }
+
   @Override
   public void planSerializable(final RelNode serializable) {
     execute(() -> innerObserver.planSerializable(serializable));
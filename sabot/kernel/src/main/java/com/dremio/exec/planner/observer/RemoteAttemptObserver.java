@@ -17,9 +17,11 @@ package com.dremio.exec.planner.observer;
 
 import com.dremio.common.utils.protos.ExternalIdHelper;
 import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.GeneralRPCProtos.Ack;
 import com.dremio.exec.proto.UserBitShared.ExternalId;
 import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.QueryWorkUnit;
 import com.dremio.exec.work.protector.UserResponseHandler;
 
 public class RemoteAttemptObserver extends AbstractAttemptObserver {
@@ -38,4 +40,12 @@ public class RemoteAttemptObserver extends AbstractAttemptObserver {
     handler.sendData(outcomeListener, ExternalIdHelper.replaceQueryId(batch, externalId));
   }
 
+  @Override
+  public void plansDistributionComplete(QueryWorkUnit unit) {
+    final NodeEndpoint screen = unit.getRootAssignment();
+    if (screen != null) {
+      handler.screenAssigned(screen);
+    }
+  }
+
 }
@@ -231,6 +231,10 @@ public class HashAggMemoryEstimator {
       minHashTableSizePerPartition, false);
     memControlBlockSinglePartition = LBlockHashTable.computePreAllocationForControlBlock(
       minHashTableSizePerPartition, hashTableBatchSize);
+    if (pivotInfo.getNumVarColumns() == 0 && optionManager.getOption(ExecConstants.ENABLE_HASHTABLE_TAG_PROBING)) {
+      memControlBlockSinglePartition += LBlockHashTable.computePreAllocationForTags(
+        minHashTableSizePerPartition, hashTableBatchSize);
+    }
   }
 
   private void computeFixedBlockSinglePartition() {
@@ -361,7 +361,8 @@ public class HashAggPrel extends AggregatePrel implements Prel{
       canVectorize,
       canSpill,
       1.0f,
-      hashTableBatchSize);
+      hashTableBatchSize,
+      operPhase == OperatorPhase.PHASE_1of2);
   }
 
 
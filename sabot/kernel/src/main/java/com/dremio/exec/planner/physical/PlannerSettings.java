@@ -119,6 +119,8 @@ public class PlannerSettings implements Context{
   public static final BooleanValidator ENHANCED_FILTER_JOIN_PUSHDOWN = new BooleanValidator("planner.enhanced_filter_join_pushdown", true);
   public static final BooleanValidator TRANSITIVE_FILTER_JOIN_PUSHDOWN = new BooleanValidator("planner.filter.transitive_pushdown", true);
   public static final BooleanValidator ENABLE_RUNTIME_FILTER = new BooleanValidator("planner.filter.runtime_filter", true);
+  // top-ns send their boundary on the first sort key to the scan producing it, in the same fragment
+  public static final BooleanValidator ENABLE_TOPN_RUNTIME_FILTER = new BooleanValidator("planner.filter.topn_runtime_filter", true);
 
   public static final BooleanValidator CSE_BEFORE_RF = new BooleanValidator("planner.cse_before_rf", true);
   public static final BooleanValidator ENABLE_TRANSPOSE_PROJECT_FILTER_LOGICAL = new BooleanValidator("planner.experimental.tpf_logical", false);
@@ -420,6 +422,15 @@ public class PlannerSettings implements Context{
   public static final BooleanValidator QUERY_PLAN_CACHE_ENABLED_SECURED_USER_BASED_CACHING =
     new BooleanValidator("planner.query_plan_cache_enabled_secured_user_based_caching", true);
 
+  // also cache plans independently of the literals of the query, rebinding them to the literals of similar queries
+  public static final BooleanValidator QUERY_PLAN_CACHE_PARAMETERIZED_ENABLED =
+    new BooleanValidator("planner.query_plan_cache_parameterized_enabled", false);
+
+  // cache plans over tables of versioned sources, validated against the commits the tables were planned at. Turning it
+  // off goes back to never caching plans over these tables.
+  public static final BooleanValidator QUERY_PLAN_CACHE_VERSIONED_TABLES_ENABLED =
+    new BooleanValidator("planner.query_plan_cache_versioned_tables_enabled", true);
+
   public static final BooleanValidator REFLECTION_ROUTING_INHERITANCE_ENABLED = new BooleanValidator("planner.reflection_routing_inheritance_enabled", false);
 
   private final SabotConfig sabotConfig;
@@ -589,6 +600,10 @@ public class PlannerSettings implements Context{
     return options.getOption(ENABLE_RUNTIME_FILTER);
   }
 
+  public boolean isTopNRuntimeFilterEnabled() {
+    return options.getOption(ENABLE_RUNTIME_FILTER) && options.getOption(ENABLE_TOPN_RUNTIME_FILTER);
+  }
+
   public boolean isCSEEnabled() {
     return options.getOption(ENABLE_CSE);
   }
@@ -657,6 +672,14 @@ public class PlannerSettings implements Context{
     return options.getOption(QUERY_PLAN_CACHE_ENABLED) && !options.getOption(QUERY_PLAN_CACHE_ENABLED_SECURITY_FIX);
   }
 
+  public boolean isParameterizedPlanCacheEnabled() {
+    return options.getOption(QUERY_PLAN_CACHE_PARAMETERIZED_ENABLED);
+  }
+
+  public boolean isVersionedTablesPlanCacheEnabled() {
+    return options.getOption(QUERY_PLAN_CACHE_VERSIONED_TABLES_ENABLED);
+  }
+
   public boolean isPlanCacheEnableSecuredUserBasedCaching() {
     return options.getOption(QUERY_PLAN_CACHE_ENABLED_SECURED_USER_BASED_CACHING);
   }
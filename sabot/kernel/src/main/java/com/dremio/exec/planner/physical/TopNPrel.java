@@ -27,7 +27,18 @@ import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelWriter;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.exec.physical.base.AbstractSingle;
+import com.dremio.exec.physical.base.GroupScan;
+import com.dremio.exec.physical.base.OpProps;
 import com.dremio.exec.physical.base.PhysicalOperator;
+import com.dremio.exec.physical.config.Filter;
+import com.dremio.exec.physical.config.Project;
+import com.dremio.exec.physical.config.SelectionVectorRemover;
+import com.dremio.exec.physical.config.TableFunctionConfig;
+import com.dremio.exec.physical.config.TableFunctionPOP;
 import com.dremio.exec.physical.config.TopN;
 import com.dremio.exec.planner.cost.DremioCost;
 import com.dremio.exec.planner.cost.DremioCost.Factory;
@@ -60,15 +71,42 @@ public class TopNPrel extends SinglePrel {
     Prel child = (Prel) this.getInput();
 
     PhysicalOperator childPOP = child.getPhysicalOperator(creator);
+    final List<Ordering> orderings = PrelUtil.getOrdering(this.collation, getInput().getRowType());
+    final OpProps props = creator.props(this, null, childPOP.getProps().getSchema().clone(SelectionVectorMode.NONE), RESERVE, LIMIT);
 
-    return new TopN(
-        creator.props(this, null, childPOP.getProps().getSchema().clone(SelectionVectorMode.NONE), RESERVE, LIMIT),
-        childPOP,
-        limit,
-        PrelUtil.getOrdering(this.collation, getInput().getRowType()),
-        false
-        );
-   }
+    if (PrelUtil.getSettings(getCluster()).isTopNRuntimeFilterEnabled() && !orderings.isEmpty()) {
+      // look for the scan producing the first sort key, to send it the boundary of the top-n
+      PhysicalOperator op = childPOP;
+      String column = getColumnName(orderings.get(0).getExpr());
+      while (column != null) {
+        if (op instanceof GroupScan || (op instanceof TableFunctionPOP
+            && ((TableFunctionPOP) op).getFunction().getType() == TableFunctionConfig.FunctionType.DATA_FILE_SCAN)) {
+          return new TopN(props, childPOP, limit, orderings, false, op.getProps().getOperatorId(), column);
+        } else if (op instanceof Project) {
+          final String name = column;
+          column = ((Project) op).getExprs().stream()
+            .filter(e -> e.getRef().isSimplePath() && e.getRef().getRootSegment().getPath().equalsIgnoreCase(name))
+            .findFirst()
+            .map(e -> getColumnName(e.getExpr()))
+            .orElse(null);
+          op = ((Project) op).getChild();
+        } else if (op instanceof Filter || op instanceof SelectionVectorRemover) {
+          op = ((AbstractSingle) op).getChild();
+        } else {
+          break;
+        }
+      }
+    }
+
+    return new TopN(props, childPOP, limit, orderings, false);
+  }
+
+  private static String getColumnName(LogicalExpression expr) {
+    if (!(expr instanceof SchemaPath) || !((SchemaPath) expr).isSimplePath()) {
+      return null;
+    }
+    return ((SchemaPath) expr).getRootSegment().getPath();
+  }
 
   /**
    * Cost of doing Top-N is proportional to M log N where M is the total number of
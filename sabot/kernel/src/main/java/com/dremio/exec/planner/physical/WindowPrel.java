@@ -144,8 +144,8 @@ public class WindowPrel extends WindowRelBase implements Prel {
         aggs,
         orderings,
         window.isRows,
-        WindowPOP.newBound(window.lowerBound),
-        WindowPOP.newBound(window.upperBound)
+        WindowPOP.newBound(window.lowerBound, constants, childFields.size()),
+        WindowPOP.newBound(window.upperBound, constants, childFields.size())
         );
   }
 
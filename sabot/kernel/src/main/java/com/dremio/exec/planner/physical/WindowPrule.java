@@ -16,7 +16,9 @@
 
 package com.dremio.exec.planner.physical;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.calcite.linq4j.Ord;
 import org.apache.calcite.plan.RelOptRule;
@@ -33,8 +35,11 @@ import org.apache.calcite.rel.type.RelRecordType;
 import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.sql.SqlAggFunction;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.util.BitSets;
 
+import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.planner.logical.Rel;
 import com.dremio.exec.planner.logical.RelOptHelper;
 import com.dremio.exec.planner.logical.WindowRel;
@@ -42,8 +47,15 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 
 public class WindowPrule extends Prule {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WindowPrule.class);
+
   public static final RelOptRule INSTANCE = new WindowPrule();
 
+  // aggregates evaluated incrementally over a sliding frame of preceding rows, along with the types they support
+  private static final Set<SqlKind> SLIDING_AGGREGATES = EnumSet.of(SqlKind.SUM, SqlKind.SUM0, SqlKind.COUNT, SqlKind.MIN, SqlKind.MAX);
+  private static final Set<SqlTypeName> SLIDING_TYPES = EnumSet.of(SqlTypeName.INTEGER, SqlTypeName.BIGINT,
+    SqlTypeName.FLOAT, SqlTypeName.REAL, SqlTypeName.DOUBLE, SqlTypeName.DATE, SqlTypeName.TIME, SqlTypeName.TIMESTAMP);
+
   private WindowPrule() {
     super(RelOptHelper.some(WindowRel.class, Rel.LOGICAL, RelOptHelper.any(RelNode.class)), "Prel.WindowPrule");
   }
@@ -69,6 +81,7 @@ public class WindowPrule extends Prule {
     int constantShiftIndex = 0;
     for (final Ord<Window.Group> w : Ord.zip(window.groups)) {
       Window.Group windowBase = w.getValue();
+      checkSlidingRowsFrame(windowBase);
       RelTraitSet traits = initialTraits;
 
       boolean partitionby = false;
@@ -176,6 +189,46 @@ public class WindowPrule extends Prule {
     call.transformTo(currentInput);
   }
 
+  /**
+   * Fails if the frame of the window goes from a bounded number of rows preceding each row to the row itself, and
+   * one of its aggregates can't be evaluated incrementally over such a frame.
+   */
+  private static void checkSlidingRowsFrame(Window.Group window) {
+    if (!window.isRows
+        || !window.lowerBound.isPreceding()
+        || window.lowerBound.isUnbounded()
+        || !window.upperBound.isCurrentRow()) {
+      return;
+    }
+
+    for (Window.RexWinAggCall aggCall : window.aggCalls) {
+      final SqlKind kind = aggCall.getOperator().getKind();
+      if (!SLIDING_AGGREGATES.contains(kind)) {
+        throw UserException.unsupportedError()
+          .message("Window function %s is not supported over a ROWS frame of a bounded number of preceding rows",
+            aggCall.getOperator().getName())
+          .build(logger);
+      }
+      // count only looks at the nulls, whatever the type of its argument
+      if (kind == SqlKind.COUNT) {
+        continue;
+      }
+      for (RexNode operand : aggCall.getOperands()) {
+        checkSlidingType(aggCall, operand.getType());
+      }
+      checkSlidingType(aggCall, aggCall.getType());
+    }
+  }
+
+  private static void checkSlidingType(Window.RexWinAggCall aggCall, RelDataType type) {
+    if (!SLIDING_TYPES.contains(type.getSqlTypeName())) {
+      throw UserException.unsupportedError()
+        .message("Window function %s over a ROWS frame of a bounded number of preceding rows is not supported for %s",
+          aggCall.getOperator().getName(), type.getSqlTypeName())
+        .build(logger);
+    }
+  }
+
   /**
    * Create a RelCollation that has partition-by as the leading keys followed by order-by keys
    * @param window The window specification
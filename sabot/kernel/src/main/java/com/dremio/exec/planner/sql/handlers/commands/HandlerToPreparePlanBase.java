@@ -186,8 +186,8 @@ public abstract class HandlerToPreparePlanBase<T> implements CommandRunner<T> {
     }
 
     @Override
-    public void planFindMaterializations(final long millisTaken) {
-      calls.add(observer -> observer.planFindMaterializations(millisTaken));
+    public void planFindMaterializations(final long millisTaken, final int numCandidates, final int numPruned) {
+      calls.add(observer -> observer.planFindMaterializations(millisTaken, numCandidates, numPruned));
     }
 
 
@@ -33,6 +33,7 @@ import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.planner.CachedAccelDetails;
 import com.dremio.exec.planner.CachedPlan;
 import com.dremio.exec.planner.PlanCache;
+import com.dremio.exec.planner.PlanLiterals;
 import com.dremio.exec.planner.logical.Rel;
 import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.physical.Prel;
@@ -43,6 +44,7 @@ import com.dremio.exec.planner.sql.handlers.ConvertedRelNode;
 import com.dremio.exec.planner.sql.handlers.PrelTransformer;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
 import com.dremio.exec.planner.sql.handlers.ViewAccessEvaluator;
+import com.dremio.exec.proto.UserBitShared.PlanCacheMatchType;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.options.OptionManager;
 
@@ -78,10 +80,27 @@ public class NormalHandler implements SqlToPlanHandler {
         final String cachedKey = PlanCache.generateCacheKey(sqlNode, queryRelNode, config.getContext());
         config.getObserver().setCacheKey(cachedKey);
         CachedPlan cachedPlan = (planCache != null) ? planCache.getIfPresentAndValid(catalog, catalogService, cachedKey) : null;
+        PlanCacheMatchType matchType = cachedPlan != null ? PlanCacheMatchType.EXACT_MATCH : PlanCacheMatchType.NO_MATCH;
+        PlanLiterals planLiterals = null;
+        String parameterizedKey = null;
+        if (cachedPlan == null && planCache != null && plannerSettings.isPlanCacheEnabled()
+          && plannerSettings.isParameterizedPlanCacheEnabled()) {
+          planLiterals = PlanLiterals.of(queryRelNode);
+          parameterizedKey = PlanCache.generateParameterizedCacheKey(planLiterals, queryRelNode, config.getContext());
+          final CachedPlan parameterizedPlan = planCache.getIfPresentAndValid(catalog, catalogService, parameterizedKey);
+          if (parameterizedPlan != null) {
+            cachedPlan = PlanCache.rebind(parameterizedPlan, planLiterals);
+            matchType = cachedPlan != null ? PlanCacheMatchType.PARAMETERIZED_MATCH : PlanCacheMatchType.PARAMETERIZED_FALLBACK;
+          }
+        }
+        if (planCache != null && plannerSettings.isPlanCacheEnabled()) {
+          config.getObserver().planCacheLookup(planCache.recordLookup(matchType));
+        }
         Prel prel;
 
         Span.current().setAttribute("dremio.planner.cache.enabled", plannerSettings.isPlanCacheEnabled());
         Span.current().setAttribute("dremio.planner.cache.plan_cache_present_and_valid", (cachedPlan != null));
+        Span.current().setAttribute("dremio.planner.cache.match_type", matchType.name());
 
         if (!plannerSettings.isPlanCacheEnabled() || cachedPlan == null) {
           drel = PrelTransformer.convertToDrel(config, queryRelNode, validatedRowType);
@@ -97,7 +116,7 @@ public class NormalHandler implements SqlToPlanHandler {
 
           //after we generate a physical plan, save it in the plan cache if plan cache is present
           if (PlanCache.supportPlanCache(planCache, config, sqlNode, catalog)) {
-            planCache.createNewCachedPlan(catalog, cachedKey, sql, prel, textPlan, config);
+            planCache.createNewCachedPlan(catalog, cachedKey, parameterizedKey, planLiterals, sql, prel, textPlan, config);
           }
         } else {
           prel = cachedPlan.getPrel();
@@ -47,6 +47,7 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
   private static List<String> disabledOperators = Lists.newArrayList();
   private static List<String> dirExplorers = Lists.newArrayList();
   private static List<String> flattenNames = Lists.newArrayList();
+  private static List<String> slidingFrameFunctions = Lists.newArrayList();
 
   static {
     disabledType.add(SqlTypeName.TINYINT.name());
@@ -57,6 +58,10 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
     dirExplorers.add("MINDIR");
     dirExplorers.add("IMINDIR");
     flattenNames.add("FLATTEN");
+    slidingFrameFunctions.add("SUM");
+    slidingFrameFunctions.add("COUNT");
+    slidingFrameFunctions.add("MIN");
+    slidingFrameFunctions.add("MAX");
   }
 
   private UnsupportedOperatorCollector unsupportedOperatorCollector;
@@ -140,6 +145,13 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
         isSupported = true;
       }
 
+      // ROWS BETWEEN <n> PRECEDING AND CURRENT ROW
+      // is evaluated incrementally, for the aggregates supported over sliding frames
+      if (isSlidingRowsFrame(window)
+          && context.getOptions().getOption(ExecConstants.ENABLE_WINDOW_SLIDING_FRAMES)) {
+        isSupported = true;
+      }
+
       // RANGE BETWEEN CURRENT ROW AND CURRENT ROW
       // is supported with and without an ORDER BY clause
       if (!window.isRows() &&
@@ -345,8 +357,21 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
         throw new UnsupportedOperationException();
       }
 
-      // DRILL-3596: we only allow (<column-name>) or (<column-name>, 1)
       final String functionName = function.getOperator().getName().toUpperCase();
+
+      // Only some aggregates are evaluated over ROWS BETWEEN <n> PRECEDING AND CURRENT ROW,
+      // the types of their arguments are checked when planning the window
+      final SqlNode window = over.getOperandList().get(1);
+      if (window instanceof SqlWindow
+          && isSlidingRowsFrame((SqlWindow) window)
+          && !slidingFrameFunctions.contains(functionName)) {
+        unsupportedOperatorCollector.setException(SqlUnsupportedException.ExceptionType.FUNCTION,
+          "Function " + functionName + " is not supported over a ROWS frame of a bounded number of preceding rows, " +
+            "supported functions are " + slidingFrameFunctions);
+        throw new UnsupportedOperationException();
+      }
+
+      // DRILL-3596: we only allow (<column-name>) or (<column-name>, 1)
       if ("LEAD".equals(functionName) || "LAG".equals(functionName)) {
         boolean supported = true;
         if (function.operandCount() > 2) {
@@ -380,6 +405,19 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
     }
   }
 
+  /**
+   * @return true if the frame of the window goes from a bounded number of rows preceding each row to the row itself
+   */
+  private static boolean isSlidingRowsFrame(SqlWindow window) {
+    final SqlNode lowerBound = window.getLowerBound();
+    final SqlNode upperBound = window.getUpperBound();
+    return window.isRows()
+      && lowerBound != null
+      && lowerBound.getKind() == SqlKind.PRECEDING
+      && !SqlWindow.isUnboundedPreceding(lowerBound)
+      && (upperBound == null || SqlWindow.isCurrentRow(upperBound));
+  }
+
   private void checkGroupID(SqlSelect sqlSelect) {
     final ExprFinder groupingFinder = new ExprFinder(GroupID);
     sqlSelect.accept(groupingFinder);
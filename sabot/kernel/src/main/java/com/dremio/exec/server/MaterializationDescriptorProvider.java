@@ -17,10 +17,13 @@ package com.dremio.exec.server;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import com.dremio.exec.catalog.Catalog;
 import com.dremio.exec.catalog.TableVersionContext;
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.ExternalQueryDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.VersionedPath;
 import com.dremio.service.namespace.NamespaceKey;
 import com.google.common.collect.ImmutableList;
 
@@ -35,6 +38,15 @@ public interface MaterializationDescriptorProvider {
    */
   List<MaterializationDescriptor> get();
 
+  /**
+   * Returns the descriptors that may be applicable to a query using the given tables, views and external queries,
+   * all of them unless the provider can look them up by what they use.
+   */
+  default Candidates getCandidates(Set<VersionedPath> tables, Set<VersionedPath> vdsPaths,
+                                   Set<ExternalQueryDescriptor> externalQueries) {
+    return new Candidates(get(), 0);
+  }
+
   /**
    * Returns the default raw materialization that provider considers for substitution
    * for the VDS with the given path
@@ -61,4 +73,25 @@ public interface MaterializationDescriptorProvider {
       return Optional.empty();
     }
   };
+
+  /**
+   * Descriptors to consider for a query, and how many were left out without being checked.
+   */
+  final class Candidates {
+    private final List<MaterializationDescriptor> descriptors;
+    private final int numPruned;
+
+    public Candidates(List<MaterializationDescriptor> descriptors, int numPruned) {
+      this.descriptors = descriptors;
+      this.numPruned = numPruned;
+    }
+
+    public List<MaterializationDescriptor> getDescriptors() {
+      return descriptors;
+    }
+
+    public int getNumPruned() {
+      return numPruned;
+    }
+  }
 }
@@ -52,6 +52,7 @@ import com.dremio.exec.server.options.SystemOptionManager;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.exec.store.dfs.FileSystemWrapper;
 import com.dremio.exec.store.dfs.LoggedFileSystemWrapper;
+import com.dremio.exec.store.dfs.cache.BlockCacheFileSystemWrapper;
 import com.dremio.exec.store.sys.accel.AccelerationListManager;
 import com.dremio.exec.store.sys.accel.AccelerationManager;
 import com.dremio.exec.store.sys.accesscontrol.AccessControlListingManager;
@@ -211,7 +212,7 @@ public class SabotContext implements AutoCloseable {
     this.systemOptionManager = systemOptionManager;
     this.functionRegistry = FunctionImplementationRegistry.create(config, classpathScan, this.optionManager, false);
     this.decimalFunctionImplementationRegistry = FunctionImplementationRegistry.create(config, classpathScan, this.optionManager, true);
-    this.compiler = new CodeCompiler(config, this.optionManager);
+    this.compiler = new CodeCompiler(config, this.optionManager, functionRegistry.getVersion());
     this.kvStoreProvider = kvStoreProvider;
     this.namespaceServiceFactory = namespaceServiceFactory;
     this.orphanageFactory = orphanageFactory;
@@ -229,7 +230,7 @@ public class SabotContext implements AutoCloseable {
         config.getInstance(
             FileSystemWrapper.FILE_SYSTEM_WRAPPER_CLASS,
             FileSystemWrapper.class,
-            (fs, storageId, conf, operatorContext, enableAsync, isMetadataEnabled) -> fs,
+            new BlockCacheFileSystemWrapper(dremioConfig, this.optionManager, allocator, endpoint.getAddress()),
             dremioConfig,
             this.optionManager,
             allocator,
@@ -15,6 +15,7 @@
  */
 package com.dremio.exec.store;
 
+import java.util.Collections;
 import java.util.List;
 
 import com.dremio.common.AutoCloseables;
@@ -37,6 +38,7 @@ public class CompositeColumnFilter implements AutoCloseable {
 
   private RuntimeFilterType filterType;
   private List<String> columnsList;
+  private List<String> columnTypesList = Collections.emptyList();
   private BloomFilter bloomFilter;
   private ValueListFilter valueList;
 
@@ -58,6 +60,14 @@ public class CompositeColumnFilter implements AutoCloseable {
     return columnsList;
   }
 
+  /**
+   * Arrow types of the columns, as built into the keys of a bloom filter on composite non-partition keys.
+   * Empty for the other filters.
+   */
+  public List<String> getColumnTypesList() {
+    return columnTypesList;
+  }
+
   @Override
   public void close() throws Exception {
     AutoCloseables.close(bloomFilter, valueList);
@@ -97,9 +107,15 @@ public class CompositeColumnFilter implements AutoCloseable {
       return this;
     }
 
+    public Builder setColumnTypesList(List<String> columnTypesList) {
+      compositeColumnFilter.columnTypesList = columnTypesList;
+      return this;
+    }
+
     public Builder setProtoFields(ExecProtos.CompositeColumnFilter proto) {
       compositeColumnFilter.filterType = RuntimeFilterType.valueOf(proto.getFilterType().name());
       compositeColumnFilter.columnsList = proto.getColumnsList();
+      compositeColumnFilter.columnTypesList = proto.getColumnTypesList();
       return this;
     }
 
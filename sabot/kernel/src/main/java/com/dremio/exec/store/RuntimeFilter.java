@@ -15,6 +15,7 @@
  */
 package com.dremio.exec.store;
 
+import static com.dremio.sabot.op.scan.ScanOperator.Metric.NUM_RUNTIME_FILTERS;
 import static com.dremio.sabot.op.scan.ScanOperator.Metric.RUNTIME_COL_FILTER_DROP_COUNT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -22,6 +23,7 @@ import static com.google.common.base.Preconditions.checkState;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -40,6 +42,7 @@ import com.dremio.exec.util.ValueListFilterBuilder;
 import com.dremio.exec.util.ValueListWithBloomFilter;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.fragment.OutOfBandMessage;
 
 
 /**
@@ -50,20 +53,70 @@ public class RuntimeFilter implements AutoCloseable {
   private static final Logger logger = LoggerFactory.getLogger(RuntimeFilter.class);
   private CompositeColumnFilter partitionColumnFilter;
   private List<CompositeColumnFilter> nonPartitionColumnFilters;
+  private List<CompositeColumnFilter> nonPartitionCompositeColumnFilters;
   private String senderInfo;
+  private String sourceJoinId;
   private List<UserBitShared.RunTimeFilterDetailsInfoInScan> filterDetails;
+  private TopNThresholdFilter thresholdFilter;
 
   public RuntimeFilter(CompositeColumnFilter partitionColumnFilter, List<CompositeColumnFilter> nonPartitionColumnFilters, String senderInfo) {
     this(partitionColumnFilter, nonPartitionColumnFilters, senderInfo, Collections.emptyList());
   }
 
   public RuntimeFilter(CompositeColumnFilter partitionColumnFilter, List<CompositeColumnFilter> nonPartitionColumnFilters, String senderInfo, List<UserBitShared.RunTimeFilterDetailsInfoInScan> filterDetails) {
+    this(partitionColumnFilter, nonPartitionColumnFilters, Collections.emptyList(), senderInfo, null, filterDetails);
+  }
+
+  public RuntimeFilter(CompositeColumnFilter partitionColumnFilter, List<CompositeColumnFilter> nonPartitionColumnFilters,
+                       List<CompositeColumnFilter> nonPartitionCompositeColumnFilters, String senderInfo, String sourceJoinId,
+                       List<UserBitShared.RunTimeFilterDetailsInfoInScan> filterDetails) {
     this.partitionColumnFilter = partitionColumnFilter;
     this.nonPartitionColumnFilters = nonPartitionColumnFilters;
+    this.nonPartitionCompositeColumnFilters = nonPartitionCompositeColumnFilters;
     this.senderInfo = senderInfo;
+    this.sourceJoinId = sourceJoinId;
     this.filterDetails = filterDetails;
   }
 
+  /**
+   * Runtime filter holding the boundary of a top-n, sent by the top-n above the scan.
+   */
+  public static RuntimeFilter getInstance(TopNThresholdFilter thresholdFilter, String senderInfo, String sourceId) {
+    final RuntimeFilter filter = new RuntimeFilter(null, Collections.emptyList(), Collections.emptyList(), senderInfo,
+      sourceId, Collections.emptyList());
+    filter.thresholdFilter = thresholdFilter;
+    return filter;
+  }
+
+  /**
+   * Applies the boundary of a top-n received by a scan. Moves the boundary of the filter already received from the
+   * same top-n, or the first time creates the filter, adds it to the filters of the scan and hands it to its readers.
+   *
+   * @param message        the message holding the threshold
+   * @param senderInfo     the top-n that sent the message
+   * @param runtimeFilters the runtime filters of the scan
+   * @param stats          the stats of the scan
+   * @param addToReaders   hands a new filter to the readers of the scan
+   */
+  public static void addOrUpdateThreshold(OutOfBandMessage message, String senderInfo, List<RuntimeFilter> runtimeFilters,
+                                          OperatorStats stats, Consumer<RuntimeFilter> addToReaders) {
+    final ExecProtos.TopNThreshold threshold = message.getPayload(ExecProtos.TopNThreshold.parser());
+    for (RuntimeFilter runtimeFilter : runtimeFilters) {
+      if (runtimeFilter.getThresholdFilter() != null && runtimeFilter.getSenderInfo().equals(senderInfo)) {
+        runtimeFilter.getThresholdFilter().update(threshold);
+        logger.debug("Updated top-n threshold from {} to {}", senderInfo, runtimeFilter.getThresholdFilter());
+        return;
+      }
+    }
+
+    final String sourceId = String.format("%02d-%02d", message.getSendingMajorFragmentId(), message.getSendingOperatorId() & 0xFF);
+    final RuntimeFilter filter = getInstance(TopNThresholdFilter.getInstance(threshold), senderInfo, sourceId);
+    logger.debug("Adding top-n threshold to the record readers {}", filter);
+    runtimeFilters.add(filter);
+    addToReaders.accept(filter);
+    stats.addLongStat(NUM_RUNTIME_FILTERS, 1);
+  }
+
   public CompositeColumnFilter getPartitionColumnFilter() {
     return partitionColumnFilter;
   }
@@ -72,14 +125,33 @@ public class RuntimeFilter implements AutoCloseable {
     return nonPartitionColumnFilters;
   }
 
+  /**
+   * Bloom filters on the composite non-partition keys, evaluated against the rows read by the scan.
+   * Kept apart from the value list filters, that are evaluated column by column.
+   */
+  public List<CompositeColumnFilter> getNonPartitionCompositeColumnFilters() {
+    return nonPartitionCompositeColumnFilters;
+  }
+
   public String getSenderInfo() {
     return senderInfo;
   }
 
+  public String getSourceJoinId() {
+    return sourceJoinId;
+  }
+
   public List<UserBitShared.RunTimeFilterDetailsInfoInScan> getFilterDetails() {
     return filterDetails;
   }
 
+  /**
+   * Boundary of the top-n that sent the filter, null for the filters of joins.
+   */
+  public TopNThresholdFilter getThresholdFilter() {
+    return thresholdFilter;
+  }
+
   public static RuntimeFilter getInstance(final ExecProtos.RuntimeFilter protoFilter,
                                           final ArrowBuf msgBuf,
                                           final String senderInfo,
@@ -123,8 +195,19 @@ public class RuntimeFilter implements AutoCloseable {
     }
 
     final List<CompositeColumnFilter> nonPartitionColFilters = new ArrayList<>(protoFilter.getNonPartitionColumnFilterCount());
+    final List<CompositeColumnFilter> nonPartitionCompositeColFilters = new ArrayList<>();
     for (int i =0; i < protoFilter.getNonPartitionColumnFilterCount(); i++) {
       final ExecProtos.CompositeColumnFilter nonPartitionColFilterProto = protoFilter.getNonPartitionColumnFilter(i);
+      if (nonPartitionColFilterProto.getFilterType() == ExecProtos.RuntimeFilterType.BLOOM_FILTER) {
+        checkArgument(msgBuf.capacity() >= nextSliceStart + nonPartitionColFilterProto.getSizeBytes(),
+          "Invalid filter buffer size for non partition cols %s.", nonPartitionColFilterProto.getColumnsList());
+        final long sliceStart = nextSliceStart;
+        nextSliceStart += nonPartitionColFilterProto.getSizeBytes();
+        filterDetails.add(prepareCompositeColumnFilter(nonPartitionColFilterProto, msgBuf.slice(sliceStart,
+            nonPartitionColFilterProto.getSizeBytes()), senderInfo, sourceJoinId, fragmentHandle, stats,
+          nonPartitionCompositeColFilters));
+        continue;
+      }
       final String fieldName = nonPartitionColFilterProto.getColumns(0);
       checkArgument(msgBuf.capacity() >= nextSliceStart + nonPartitionColFilterProto.getSizeBytes(),
               "Invalid filter buffer size for non partition col %s.", fieldName);
@@ -173,13 +256,55 @@ public class RuntimeFilter implements AutoCloseable {
       }
       filterDetails.add(runTimeFilterDetails.build());
     }
-    checkState(partitionColFilter != null || !nonPartitionColFilters.isEmpty(), "All filters are dropped.");
-    return new RuntimeFilter(partitionColFilter, nonPartitionColFilters, senderInfo, filterDetails);
+    checkState(partitionColFilter != null || !nonPartitionColFilters.isEmpty() || !nonPartitionCompositeColFilters.isEmpty(),
+      "All filters are dropped.");
+    return new RuntimeFilter(partitionColFilter, nonPartitionColFilters, nonPartitionCompositeColFilters, senderInfo,
+      sourceJoinId, filterDetails);
+  }
+
+  private static UserBitShared.RunTimeFilterDetailsInfoInScan prepareCompositeColumnFilter(
+    final ExecProtos.CompositeColumnFilter filterProto,
+    final ArrowBuf filterBuf,
+    final String senderInfo,
+    final String sourceJoinId,
+    final ExecProtos.FragmentHandle fragmentHandle,
+    final OperatorStats stats,
+    final List<CompositeColumnFilter> compositeColFilters) {
+    UserBitShared.RunTimeFilterDetailsInfoInScan.Builder runTimeFilterDetails = UserBitShared.RunTimeFilterDetailsInfoInScan.newBuilder()
+      .setMinorFragmentId(fragmentHandle.getMinorFragmentId())
+      .setJoinSource(sourceJoinId)
+      .addAllProbeFieldNames(filterProto.getColumnsList())
+      .setIsPartitionedColumn(false);
+    try {
+      final BloomFilter bloomFilter = BloomFilter.prepareFrom(filterBuf);
+      checkState(bloomFilter.getNumBitsSet() == filterProto.getValueCount(),
+        "BloomFilter value count mismatched. Expected %s, Actual %s", filterProto.getValueCount(), bloomFilter.getNumBitsSet());
+      checkState(filterProto.getColumnTypesCount() == filterProto.getColumnsCount(),
+        "Missing column types for composite filter on %s", filterProto.getColumnsList());
+      compositeColFilters.add(new CompositeColumnFilter.Builder().setProtoFields(filterProto)
+        .setBloomFilter(bloomFilter).build());
+      bloomFilter.getDataBuffer().getReferenceManager().retain();
+
+      runTimeFilterDetails
+        .setNumberOfValues(bloomFilter.getNumBitsSet())
+        .setNumberOfHashFunctions(bloomFilter.getNumHashFunctions())
+        .setOutputRecordsBeforePruning(stats.getRecordsProcessed());
+    } catch (Exception e) {
+      stats.addLongStat(RUNTIME_COL_FILTER_DROP_COUNT, 1);
+      runTimeFilterDetails.setIsDropped(true);
+      logger.warn("Error while processing composite non-partition column filter on columns {}, from {} : {}",
+        filterProto.getColumnsList(), senderInfo, e.getMessage());
+    }
+    return runTimeFilterDetails.build();
   }
 
   public static RuntimeFilter getInstanceWithNewNonPartitionColFiltersList(RuntimeFilter filter) {
-    return new RuntimeFilter(filter.getPartitionColumnFilter(), new ArrayList<>(filter.getNonPartitionColumnFilters()),
-      filter.getSenderInfo());
+    final RuntimeFilter copy = new RuntimeFilter(filter.getPartitionColumnFilter(),
+      new ArrayList<>(filter.getNonPartitionColumnFilters()), new ArrayList<>(filter.getNonPartitionCompositeColumnFilters()),
+      filter.getSenderInfo(), filter.getSourceJoinId(), Collections.emptyList());
+    // shared, for the updates of the boundary to reach the copies
+    copy.thresholdFilter = filter.getThresholdFilter();
+    return copy;
   }
 
   /**
@@ -190,7 +315,9 @@ public class RuntimeFilter implements AutoCloseable {
    */
   public boolean isOnSameColumns(final RuntimeFilter that) {
     if (((this.getPartitionColumnFilter() == null) != (that.getPartitionColumnFilter() == null))
-            || (this.getNonPartitionColumnFilters().size() != that.getNonPartitionColumnFilters().size())){
+            || ((this.getThresholdFilter() == null) != (that.getThresholdFilter() == null))
+            || (this.getNonPartitionColumnFilters().size() != that.getNonPartitionColumnFilters().size())
+            || (this.getNonPartitionCompositeColumnFilters().size() != that.getNonPartitionCompositeColumnFilters().size())){
       return false;
     }
 
@@ -199,7 +326,11 @@ public class RuntimeFilter implements AutoCloseable {
     final Predicate<CompositeColumnFilter> nonPartitionColFilterHasMatch = f -> that.nonPartitionColumnFilters.stream()
             .anyMatch(t -> f.getColumnsList().equals(t.getColumnsList()));
     final boolean sameNonPartitionColumns = this.getNonPartitionColumnFilters().stream().allMatch(nonPartitionColFilterHasMatch);
-    return samePartitionColumns && sameNonPartitionColumns;
+    final boolean sameCompositeColumns = this.getNonPartitionCompositeColumnFilters().stream()
+            .allMatch(f -> that.nonPartitionCompositeColumnFilters.stream().anyMatch(t -> f.getColumnsList().equals(t.getColumnsList())));
+    final boolean sameThresholdColumn = (this.getThresholdFilter() == null) ||
+            this.getThresholdFilter().getColumn().equalsIgnoreCase(that.getThresholdFilter().getColumn());
+    return samePartitionColumns && sameNonPartitionColumns && sameCompositeColumns && sameThresholdColumn;
   }
 
 
@@ -208,14 +339,17 @@ public class RuntimeFilter implements AutoCloseable {
     return "RuntimeFilter{" +
             "partitionColumnFilter=" + partitionColumnFilter +
             ", nonPartitionColumnFilters=" + nonPartitionColumnFilters +
+            ", nonPartitionCompositeColumnFilters=" + nonPartitionCompositeColumnFilters +
+            ", thresholdFilter=" + thresholdFilter +
             ", senderInfo='" + senderInfo + '\'' +
             '}';
   }
 
   @Override
   public void close() throws Exception {
-    final List<AutoCloseable> closeables = new ArrayList<>(nonPartitionColumnFilters.size() + 1);
+    final List<AutoCloseable> closeables = new ArrayList<>(nonPartitionColumnFilters.size() + nonPartitionCompositeColumnFilters.size() + 1);
     closeables.addAll(nonPartitionColumnFilters);
+    closeables.addAll(nonPartitionCompositeColumnFilters);
     closeables.add(partitionColumnFilter);
     AutoCloseables.close(closeables);
   }
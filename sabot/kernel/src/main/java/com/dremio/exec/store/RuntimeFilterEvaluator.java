@@ -17,6 +17,8 @@ package com.dremio.exec.store;
 
 import static com.dremio.exec.ExecConstants.RUNTIME_FILTER_KEY_MAX_SIZE;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -27,6 +29,9 @@ import java.util.stream.Collectors;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.ValueVector;
 import org.apache.commons.collections4.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,18 +43,31 @@ import com.dremio.exec.util.BloomFilter;
 import com.dremio.exec.util.KeyFairSliceCalculator;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+import com.dremio.sabot.op.common.ht2.FixedBlockVector;
+import com.dremio.sabot.op.common.ht2.HashTableKeyReader;
+import com.dremio.sabot.op.common.ht2.LBlockHashTable;
+import com.dremio.sabot.op.common.ht2.PivotBuilder;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.Pivots;
+import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.dremio.sabot.op.scan.OutputMutator;
 import com.dremio.sabot.op.scan.ScanOperator;
 import com.google.common.collect.Sets;
 
+import io.netty.util.internal.PlatformDependent;
+
 /**
- * Helper class for evaluating partition column filter against a split.
+ * Helper class for evaluating partition column filter against a split, and the filters on composite non-partition
+ * keys against the rows read from it.
  */
-public class RuntimeFilterEvaluator {
+public class RuntimeFilterEvaluator implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(RuntimeFilterEvaluator.class);
     private final BufferAllocator allocator;
     private final RuntimeFilter runtimeFilter;
     private final OperatorStats stats;
     private final int maxKeySize;
+    private List<RowFilter> rowFilters = Collections.emptyList();
 
     public RuntimeFilterEvaluator(final BufferAllocator allocator,
                                   final OperatorStats stats,
@@ -102,6 +120,79 @@ public class RuntimeFilterEvaluator {
         return true;
     }
 
+    /**
+     * Prepares the evaluation of the runtime filter's bloom filters on composite non-partition keys against the rows
+     * of the given output. The keys are built the same way as on the join side, from the pivoted columns. Filters
+     * on columns missing from the output, or of other types than the build keys, are dropped.
+     *
+     * @return true if any of the filters can be evaluated
+     */
+    public boolean setupRowFilters(final OutputMutator mutator) {
+        final List<RowFilter> rowFilters = new ArrayList<>();
+        for (CompositeColumnFilter filter : runtimeFilter.getNonPartitionCompositeColumnFilters()) {
+            final List<FieldVectorPair> fieldVectorPairs = new ArrayList<>();
+            for (int i = 0; i < filter.getColumnsList().size(); i++) {
+                final ValueVector vector = mutator.getVector(filter.getColumnsList().get(i));
+                if (!(vector instanceof FieldVector)
+                        || !vector.getField().getType().toString().equals(filter.getColumnTypesList().get(i))) {
+                    break;
+                }
+                fieldVectorPairs.add(new FieldVectorPair((FieldVector) vector, (FieldVector) vector));
+            }
+            if (fieldVectorPairs.size() != filter.getColumnsList().size()) {
+                logger.warn("Dropping runtime filter on {} as the scan columns don't match the build keys of types {}. " +
+                        "RuntimeFilter sender info : {}", filter.getColumnsList(), filter.getColumnTypesList(),
+                        runtimeFilter.getSenderInfo());
+                stats.addLongStat(ScanOperator.Metric.RUNTIME_COL_FILTER_DROP_COUNT, 1);
+                continue;
+            }
+
+            try (AutoCloseables.RollbackCloseable closeOnError = new AutoCloseables.RollbackCloseable()) {
+                final PivotDef pivotDef = PivotBuilder.getBlockDefinition(fieldVectorPairs);
+                final HashTableKeyReader keyReader = closeOnError.add(new HashTableKeyReader.Builder()
+                        .setBufferAllocator(allocator)
+                        .setFieldsToRead(filter.getColumnsList())
+                        .setPivot(pivotDef)
+                        .setMaxKeySize(maxKeySize)
+                        .build());
+                final FixedBlockVector fixed = closeOnError.add(new FixedBlockVector(allocator, pivotDef.getBlockWidth()));
+                final VariableBlockVector variable = closeOnError.add(new VariableBlockVector(allocator, pivotDef.getVariableCount()));
+                closeOnError.commit();
+                rowFilters.add(new RowFilter(filter, pivotDef, keyReader, fixed, variable));
+            } catch (Exception ex) {
+                logger.warn("Failed to add runtime filter on {}. RuntimeFilter sender info: {}. ", filter.getColumnsList(),
+                        runtimeFilter.getSenderInfo(), ex);
+                stats.addLongStat(ScanOperator.Metric.RUNTIME_COL_FILTER_DROP_COUNT, 1);
+            }
+        }
+        AutoCloseables.close(RuntimeException.class, this.rowFilters);
+        this.rowFilters = rowFilters;
+        return !rowFilters.isEmpty();
+    }
+
+    /**
+     * Unsets the validity bits of the rows whose composite non-partition keys aren't in the filters. Must be called
+     * after {@link #setupRowFilters(OutputMutator)}, once the given number of records are read in the output.
+     *
+     * @return the number of rows pruned
+     */
+    public int filterRows(final int records, final ArrowBuf validityBuf) {
+        int prunedCount = 0;
+        for (RowFilter rowFilter : rowFilters) {
+            final int pruned = rowFilter.filter(records, validityBuf);
+            stats.addRuntimeFilterRowsPrunedInScan(runtimeFilter.getSourceJoinId(), rowFilter.filter.getColumnsList(), pruned);
+            prunedCount += pruned;
+        }
+        stats.addLongStat(ScanOperator.Metric.NUM_ROWS_PRUNED_BY_RUNTIME_FILTER, prunedCount);
+        return prunedCount;
+    }
+
+    @Override
+    public void close() throws Exception {
+        AutoCloseables.close(rowFilters);
+        rowFilters = Collections.emptyList();
+    }
+
     private void logSkippedPartition(final SplitAndPartitionInfo split, final List<String> filterColumns) {
         if (logger.isDebugEnabled()) {
             // Shows up as - Skipping current partition. PartitionInfo: [jc2=14, jc1=jc1v1, jc3=33]. PartitionColumnsList: [jc2, jc1].
@@ -120,6 +211,58 @@ public class RuntimeFilterEvaluator {
         }
     }
 
+    /**
+     * Evaluates a bloom filter on composite non-partition keys against rows, pivoting their key columns and loading
+     * the keys with a {@link HashTableKeyReader}, as done from the hash table on the join side.
+     */
+    private static class RowFilter implements AutoCloseable {
+        private final CompositeColumnFilter filter;
+        private final PivotDef pivotDef;
+        private final HashTableKeyReader keyReader;
+        private final FixedBlockVector fixed;
+        private final VariableBlockVector variable;
+
+        private RowFilter(CompositeColumnFilter filter, PivotDef pivotDef, HashTableKeyReader keyReader,
+                          FixedBlockVector fixed, VariableBlockVector variable) {
+            this.filter = filter;
+            this.pivotDef = pivotDef;
+            this.keyReader = keyReader;
+            this.fixed = fixed;
+            this.variable = variable;
+        }
+
+        private int filter(final int records, final ArrowBuf validityBuf) {
+            // pivoting ORs the validity bits in the fixed blocks
+            fixed.reset();
+            Pivots.pivot(pivotDef, records, fixed, variable);
+
+            final BloomFilter bloomFilter = filter.getBloomFilter();
+            final ArrowBuf key = keyReader.getKeyHolder();
+            final int blockWidth = pivotDef.getBlockWidth();
+            final boolean hasVariable = pivotDef.getVariableCount() > 0;
+            int prunedCount = 0;
+            long fixedAddr = fixed.getMemoryAddress();
+            for (int i = 0; i < records; i++, fixedAddr += blockWidth) {
+                if (BitVectorHelper.get(validityBuf, i) == 0) {
+                    continue;
+                }
+                final long varAddr = hasVariable ? variable.getMemoryAddress() +
+                        PlatformDependent.getInt(fixedAddr + blockWidth - LBlockHashTable.VAR_OFFSET_SIZE) : 0;
+                keyReader.loadNextKey(fixedAddr, varAddr);
+                if (!bloomFilter.mightContain(key, keyReader.getKeyBufSize())) {
+                    BitVectorHelper.unsetBit(validityBuf, i);
+                    prunedCount++;
+                }
+            }
+            return prunedCount;
+        }
+
+        @Override
+        public void close() throws Exception {
+            AutoCloseables.close(keyReader, fixed, variable);
+        }
+    }
+
     /**
      * BloomFilterKeyBuilder create a key for bloom filter from partition values
      * The key should be created with the same logic as in the join side.
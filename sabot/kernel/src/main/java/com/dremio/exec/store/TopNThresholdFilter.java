@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store;
+
+import com.dremio.exec.proto.ExecProtos;
+
+/**
+ * A POJO helper class for the protobuf struct TopNThreshold.
+ *
+ * The boundary of the top-n only gets tighter as the top-n consumes its input, updates are applied in place so that
+ * the readers holding the filter see the latest boundary.
+ */
+public class TopNThresholdFilter {
+  private final String column;
+  private final boolean ascending;
+  private final boolean nullsFirst;
+  private final boolean tiesQualify;
+  private volatile Comparable<?> boundary;
+
+  private TopNThresholdFilter(String column, boolean ascending, boolean nullsFirst, boolean tiesQualify,
+                              Comparable<?> boundary) {
+    this.column = column;
+    this.ascending = ascending;
+    this.nullsFirst = nullsFirst;
+    this.tiesQualify = tiesQualify;
+    this.boundary = boundary;
+  }
+
+  public static TopNThresholdFilter getInstance(ExecProtos.TopNThreshold threshold) {
+    return new TopNThresholdFilter(threshold.getColumn(), threshold.getAscending(), threshold.getNullsFirst(),
+      threshold.getTiesQualify(), getBoundary(threshold));
+  }
+
+  private static Comparable<?> getBoundary(ExecProtos.TopNThreshold threshold) {
+    if (threshold.hasLongValue()) {
+      return threshold.getLongValue();
+    }
+    if (threshold.hasDoubleValue()) {
+      return threshold.getDoubleValue();
+    }
+    return null;
+  }
+
+  public String getColumn() {
+    return column;
+  }
+
+  public Comparable<?> getBoundary() {
+    return boundary;
+  }
+
+  /**
+   * Moves the boundary to the one of the given threshold, if tighter.
+   */
+  public void update(ExecProtos.TopNThreshold threshold) {
+    final Comparable<?> newBoundary = getBoundary(threshold);
+    if (newBoundary == null) {
+      return;
+    }
+    final Comparable<?> current = boundary;
+    if (current == null || current.getClass() != newBoundary.getClass()) {
+      boundary = newBoundary;
+      return;
+    }
+    final int cmp = compare(newBoundary, current);
+    if (ascending ? cmp < 0 : cmp > 0) {
+      boundary = newBoundary;
+    }
+  }
+
+  /**
+   * Whether no value within the given range can sort before the boundary.
+   *
+   * @param min minimum of the values, a Long or a Double as the boundary
+   * @param max maximum of the values, a Long or a Double as the boundary
+   * @param hasNulls whether there may be nulls besides the values
+   */
+  public boolean canSkip(Comparable<?> min, Comparable<?> max, boolean hasNulls) {
+    final Comparable<?> current = boundary;
+    if (current == null || min == null || max == null
+      || min.getClass() != current.getClass() || max.getClass() != current.getClass()) {
+      return false;
+    }
+    if (hasNulls && nullsFirst) {
+      return false;
+    }
+    final int cmp = ascending ? compare(min, current) : compare(current, max);
+    return tiesQualify ? cmp > 0 : cmp >= 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int compare(Comparable<?> left, Comparable<?> right) {
+    return ((Comparable<Object>) left).compareTo(right);
+  }
+
+  @Override
+  public String toString() {
+    return "TopNThresholdFilter{" +
+      "column='" + column + '\'' +
+      ", ascending=" + ascending +
+      ", nullsFirst=" + nullsFirst +
+      ", tiesQualify=" + tiesQualify +
+      ", boundary=" + boundary +
+      '}';
+  }
+}
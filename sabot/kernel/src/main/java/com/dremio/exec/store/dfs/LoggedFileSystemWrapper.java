@@ -49,6 +49,10 @@ public class LoggedFileSystemWrapper implements FileSystemWrapper {
     return wrappedFs;
   }
 
+  public FileSystemWrapper getDefaultWrapper() {
+    return defaultWrapper;
+  }
+
   @Override
   public void close() throws IOException {
     defaultWrapper.close();
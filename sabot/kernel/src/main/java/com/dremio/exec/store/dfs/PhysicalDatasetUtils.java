@@ -128,8 +128,10 @@ public class PhysicalDatasetUtils {
         textFormatConfig.trimHeader = textFileConfig.getTrimHeader();
         return textFormatConfig;
       case JSON:
+        final JsonFileConfig jsonFileConfig = (JsonFileConfig) JsonFileConfig.getForFile(fileConfig);
         final JSONFormatPlugin.JSONFormatConfig jsonFormatConfig = new JSONFormatPlugin.JSONFormatConfig();
         jsonFormatConfig.extensions = extensions;
+        jsonFormatConfig.lineDelimited = Boolean.TRUE.equals(jsonFileConfig.getLineDelimited());
         return jsonFormatConfig;
       case PARQUET:
         final ParquetFileConfig parquetFileConfig = (ParquetFileConfig)com.dremio.service.namespace.file.FileFormat.getForFile(fileConfig);
@@ -207,7 +209,8 @@ public class PhysicalDatasetUtils {
       return toParquetFileConfig(parquetFormatPlugin.getConfig());
     }
     if (formatPlugin instanceof JSONFormatPlugin) {
-      return new JsonFileConfig();
+      return new JsonFileConfig()
+        .setLineDelimited(((JSONFormatPlugin.JSONFormatConfig) formatPlugin.getConfig()).isLineDelimited());
     }
     if (formatPlugin instanceof ArrowFormatPlugin) {
       return new ArrowFileConfig();
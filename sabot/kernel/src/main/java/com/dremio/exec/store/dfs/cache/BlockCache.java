@@ -0,0 +1,639 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.commons.io.FileUtils;
+
+import com.dremio.common.concurrent.NamedThreadFactory;
+import com.dremio.exec.work.CacheManagerDatasetInfo;
+import com.dremio.exec.work.CacheManagerFilesInfo;
+import com.dremio.exec.work.CacheManagerMountPointInfo;
+import com.dremio.exec.work.CacheManagerStoragePluginInfo;
+import com.dremio.io.AsyncByteReader;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.NettyArrowBuf;
+
+/**
+ * Executor local cache of file blocks on disk.
+ *
+ * <p>
+ * Files are split into aligned blocks of a fixed size, each cached block is stored as its own file under the
+ * cache directory. Blocks are identified by the plugin, path and version of the file they belong to, so a new
+ * version of a file never reads blocks of an older one. Concurrent misses on the same block are coalesced into a
+ * single read from the source.
+ * </p>
+ *
+ * <p>
+ * When the space used by the cache, or by the blocks of a single plugin, goes over its limit, the least recently
+ * used blocks are evicted one at a time until usage goes back under {@link #LOW_WATERMARK} of the limit.
+ * The cache directory is emptied on startup, as the index of cached blocks is only kept in memory.
+ * </p>
+ *
+ * <p>
+ * Blocks read from the source are staged in buffers of the cache's allocator until they are written to disk.
+ * </p>
+ */
+public class BlockCache implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(BlockCache.class);
+
+  @VisibleForTesting
+  static final double LOW_WATERMARK = 0.9;
+  private static final int NUM_SHARDS = 256;
+  private static final int NUM_WRITER_THREADS = 4;
+
+  /**
+   * Source of the data of a file, used to populate missing blocks
+   */
+  interface BlockSource {
+    CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len);
+
+    long getFileLength() throws IOException;
+  }
+
+  private final String hostname;
+  private final Path root;
+  private final int blockSize;
+  private final long maxBytes;
+  private final BufferAllocator allocator;
+  private final ExecutorService writers;
+
+  private final ConcurrentHashMap<FileIdentity, CachedFile> files = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<BlockKey, Block> blocks = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<BlockKey, CompletableFuture<Block>> pendingBlocks = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, StorageUsage> storages = new ConcurrentHashMap<>();
+  // all the cached blocks, least recently used first
+  private final LruBlocks lru = new LruBlocks();
+  private final AtomicLong usedBytes = new AtomicLong();
+  private final AtomicLong nextFileId = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder diskReads = new LongAdder();
+  private final LongAdder diskReadNanos = new LongAdder();
+  private final LongAdder diskWrites = new LongAdder();
+  private final LongAdder diskWriteNanos = new LongAdder();
+  private volatile long latestEvictionMillis;
+  private volatile long latestEvictedBytes;
+
+  /**
+   * Creates a block cache in the given directory, removing any block left there by a previous run.
+   *
+   * @param maxBytes space on disk the cache can use
+   * @param parentAllocator allocator of the buffers holding the blocks read from the sources until they are cached
+   */
+  public static BlockCache create(String hostname, Path root, int blockSize, long maxBytes,
+                                  BufferAllocator parentAllocator) throws IOException {
+    // blocks cached by a previous run are unknown to the in memory index
+    if (Files.exists(root)) {
+      FileUtils.deleteDirectory(root.toFile());
+    }
+    Files.createDirectories(root);
+    final long usableSpace = Files.getFileStore(root).getUsableSpace();
+    if (usableSpace < maxBytes) {
+      logger.warn("The block cache limit of {} bytes is more than the {} bytes available in {}",
+        maxBytes, usableSpace, root);
+    }
+    return new BlockCache(hostname, root, blockSize, maxBytes, parentAllocator);
+  }
+
+  @VisibleForTesting
+  BlockCache(String hostname, Path root, int blockSize, long maxBytes, BufferAllocator parentAllocator) {
+    this(hostname, root, blockSize, maxBytes, parentAllocator,
+      Executors.newFixedThreadPool(NUM_WRITER_THREADS, new NamedThreadFactory("block-cache-writer-")));
+  }
+
+  @VisibleForTesting
+  BlockCache(String hostname, Path root, int blockSize, long maxBytes, BufferAllocator parentAllocator,
+             ExecutorService writers) {
+    Preconditions.checkArgument(blockSize > 0, "Block size must be positive");
+    this.hostname = hostname;
+    this.root = root;
+    this.blockSize = blockSize;
+    this.maxBytes = maxBytes;
+    this.allocator = parentAllocator.newChildAllocator("block-cache", 0, Long.MAX_VALUE);
+    this.writers = writers;
+    logger.info("Started block cache in {} with {} byte blocks and a limit of {} bytes", root, blockSize, maxBytes);
+  }
+
+  /**
+   * Registers a storage plugin reading through the cache, along with the share of the cache its blocks can use.
+   */
+  void registerStorage(String storageId, int maxSpaceLimitPct) {
+    final long storageMaxBytes = maxBytes / 100 * Math.max(0, Math.min(100, maxSpaceLimitPct));
+    storages.computeIfAbsent(storageId, StorageUsage::new).maxBytes = storageMaxBytes;
+  }
+
+  CachedFile getFile(String storageId, AsyncByteReader.FileKey fileKey) {
+    final FileIdentity identity = new FileIdentity(storageId, fileKey.getPath().toString(), fileKey.getVersion());
+    return files.computeIfAbsent(identity, id -> new CachedFile(id, nextFileId.getAndIncrement(), fileKey.getDatasetKey()));
+  }
+
+  int getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * Reads part of a block of a file, populating the block from the source on a miss.
+   *
+   * @param offsetInBlock offset of the data to read within the block
+   * @return true if the block was cached, false if the read had to go to the source
+   */
+  boolean read(CachedFile file, long blockIndex, BlockSource source, int offsetInBlock, ByteBuf dst, int dstOffset, int len,
+               List<CompletableFuture<Void>> pendingReads) {
+    final BlockKey key = new BlockKey(file, blockIndex);
+    final Block cached = blocks.get(key);
+    if (cached != null) {
+      try {
+        readFromDisk(cached, offsetInBlock, dst, dstOffset, len);
+        hits.increment();
+        return true;
+      } catch (IOException e) {
+        logger.warn("Failed to read cached block {} of {}, reading it from the source", blockIndex, file.identity.path, e);
+        remove(cached);
+      }
+    }
+
+    misses.increment();
+    CompletableFuture<Block> pending = pendingBlocks.get(key);
+    if (pending == null) {
+      final CompletableFuture<Block> newPending = new CompletableFuture<>();
+      pending = pendingBlocks.putIfAbsent(key, newPending);
+      if (pending == null) {
+        pending = newPending;
+        populate(key, source, newPending);
+      }
+    }
+
+    final long blockStart = blockIndex * blockSize;
+    pendingReads.add(pending.thenCompose(block -> {
+      if (block != null) {
+        try {
+          readFromDisk(block, offsetInBlock, dst, dstOffset, len);
+          return AsyncByteReader.completedFuture;
+        } catch (IOException e) {
+          logger.debug("Block {} of {} was evicted before it could be read", blockIndex, file.identity.path, e);
+        }
+      }
+      // the block couldn't be cached, go to the source for the requested range only
+      return source.readFully(blockStart + offsetInBlock, dst, dstOffset, len);
+    }));
+    return false;
+  }
+
+  private void populate(BlockKey key, BlockSource source, CompletableFuture<Block> pending) {
+    final long blockStart = key.index * blockSize;
+    final int length;
+    try {
+      length = (int) Math.min(blockSize, source.getFileLength() - blockStart);
+    } catch (IOException e) {
+      pendingBlocks.remove(key);
+      pending.completeExceptionally(e);
+      return;
+    }
+
+    final ByteBuf buf;
+    try {
+      buf = NettyArrowBuf.unwrapBuffer(allocator.buffer(length));
+    } catch (OutOfMemoryException e) {
+      // the block is not cached, readers go to the source for the ranges they need
+      logger.debug("Failed to allocate a buffer for block {} of {}", key.index, key.file.identity.path, e);
+      pendingBlocks.remove(key);
+      pending.complete(null);
+      return;
+    }
+    CompletableFuture<Void> read;
+    try {
+      read = source.readFully(blockStart, buf, 0, length);
+    } catch (RuntimeException e) {
+      read = new CompletableFuture<>();
+      read.completeExceptionally(e);
+    }
+    // completes on the thread that ran the write, or on the one that failed the read or had the write rejected,
+    // so that the waiting readers are always completed and the buffer always released
+    read.thenApplyAsync(v -> write(key, buf, length), writers)
+      .whenComplete((block, e) -> {
+        try {
+          pendingBlocks.remove(key);
+          // released before the waiting readers are completed
+          buf.release();
+        } finally {
+          final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+          if (cause == null) {
+            pending.complete(block);
+          } else if (cause instanceof RejectedExecutionException) {
+            // shutting down, readers go to the source for the ranges they need
+            logger.debug("Failed to schedule the write of block {} of {}", key.index, key.file.identity.path, cause);
+            pending.complete(null);
+          } else {
+            pending.completeExceptionally(cause);
+          }
+        }
+      });
+  }
+
+  private Block write(BlockKey key, ByteBuf buf, int length) {
+    final StorageUsage storage = storages.computeIfAbsent(key.file.identity.storageId, StorageUsage::new);
+    final Path shard = root.resolve(Long.toString(key.file.id % NUM_SHARDS));
+    final Path path = shard.resolve(key.file.id + "_" + key.index);
+    final long start = System.nanoTime();
+    try {
+      Files.createDirectories(shard);
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+        final ByteBuffer data = buf.nioBuffer(0, length);
+        while (data.hasRemaining()) {
+          channel.write(data);
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("Failed to cache block {} of {}", key.index, key.file.identity.path, e);
+      return null;
+    } finally {
+      diskWrites.increment();
+      diskWriteNanos.add(System.nanoTime() - start);
+    }
+
+    final Block block = new Block(key, path, length);
+    block.touch();
+    final Block existing = blocks.putIfAbsent(key, block);
+    if (existing != null) {
+      // populated by a concurrent miss that started after the previous one completed
+      return existing;
+    }
+    lru.add(block);
+    storage.lru.add(block);
+    key.file.numBlocks.incrementAndGet();
+    storage.usedBytes.addAndGet(length);
+    storage.numBlocks.incrementAndGet();
+    usedBytes.addAndGet(length);
+    evictIfNeeded(storage);
+    return block;
+  }
+
+  private void readFromDisk(Block block, int offsetInBlock, ByteBuf dst, int dstOffset, int len) throws IOException {
+    Preconditions.checkArgument(offsetInBlock + len <= block.length, "Read past the end of a cached block");
+    final long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(block.path, StandardOpenOption.READ)) {
+      final ByteBuffer target = dst.nioBuffer(dstOffset, len);
+      long position = offsetInBlock;
+      while (target.hasRemaining()) {
+        final int read = channel.read(target, position);
+        if (read < 0) {
+          throw new IOException("Unexpected end of cached block " + block.path);
+        }
+        position += read;
+      }
+    } finally {
+      diskReads.increment();
+      diskReadNanos.add(System.nanoTime() - start);
+    }
+    block.touch();
+    lru.touch(block);
+    final StorageUsage storage = storages.get(block.key.file.identity.storageId);
+    if (storage != null) {
+      storage.lru.touch(block);
+    }
+  }
+
+  private void evictIfNeeded(StorageUsage storage) {
+    if (storage.usedBytes.get() > storage.maxBytes) {
+      evict(storage.lru, storage.usedBytes, (long) (storage.maxBytes * LOW_WATERMARK));
+    }
+    if (usedBytes.get() > maxBytes) {
+      evict(lru, usedBytes, (long) (maxBytes * LOW_WATERMARK));
+    }
+  }
+
+  /**
+   * Evicts the least recently used blocks of the given list until the usage goes under the target.
+   */
+  private void evict(LruBlocks candidates, AtomicLong usage, long target) {
+    long evictedBytes = 0;
+    Block victim;
+    while (usage.get() > target && (victim = candidates.poll()) != null) {
+      // the block may already have been removed, by a failed read or a concurrent eviction
+      if (remove(victim)) {
+        evictedBytes += victim.length;
+      }
+    }
+    if (evictedBytes > 0) {
+      latestEvictionMillis = System.currentTimeMillis();
+      latestEvictedBytes = evictedBytes;
+      logger.debug("Evicted {} bytes from the block cache", evictedBytes);
+    }
+  }
+
+  private boolean remove(Block block) {
+    if (!blocks.remove(block.key, block)) {
+      return false;
+    }
+
+    lru.remove(block);
+    final StorageUsage storage = storages.get(block.key.file.identity.storageId);
+    if (storage != null) {
+      storage.lru.remove(block);
+      storage.usedBytes.addAndGet(-block.length);
+      storage.numBlocks.decrementAndGet();
+    }
+    usedBytes.addAndGet(-block.length);
+    if (block.key.file.numBlocks.decrementAndGet() == 0) {
+      files.remove(block.key.file.identity, block.key.file);
+    }
+
+    try {
+      Files.deleteIfExists(block.path);
+    } catch (IOException e) {
+      logger.warn("Failed to delete cached block {}", block.path, e);
+    }
+    return true;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getUsedBytes() {
+    return usedBytes.get();
+  }
+
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  public long getNumBlocks() {
+    return blocks.size();
+  }
+
+  List<CacheManagerMountPointInfo> getMountPointStats() {
+    long totalSpace = 0;
+    long freeSpace = 0;
+    long numShards = 0;
+    try {
+      final FileStore store = Files.getFileStore(root);
+      totalSpace = store.getTotalSpace();
+      freeSpace = store.getUsableSpace();
+      try (Stream<Path> shards = Files.list(root)) {
+        numShards = shards.count();
+      }
+    } catch (IOException e) {
+      logger.debug("Failed to get the disk usage of {}", root, e);
+    }
+
+    final long reads = diskReads.sum();
+    final long writes = diskWrites.sum();
+    return Collections.singletonList(new CacheManagerMountPointInfo(hostname, root.toString(), 0, numShards,
+      blocks.size(), maxBytes, usedBytes.get(), reads == 0 ? 0 : diskReadNanos.sum() / reads,
+      writes == 0 ? 0 : diskWriteNanos.sum() / writes, "ACTIVE", usedBytes.get() > maxBytes * LOW_WATERMARK ? "FULL" : "NORMAL",
+      totalSpace, freeSpace, latestEvictionMillis, latestEvictedBytes));
+  }
+
+  List<CacheManagerStoragePluginInfo> getStoragePluginStats() {
+    return storages.values().stream()
+      .map(storage -> new CacheManagerStoragePluginInfo(hostname, storage.storageId, storage.numBlocks.get(),
+        storage.usedBytes.get(), storage.maxBytes))
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * For each dataset, reports the times since when 25%, 50%, 75% and all of its cached data was last accessed.
+   */
+  List<CacheManagerDatasetInfo> getDatasetStats() {
+    final Map<List<String>, List<Block>> byDataset = new HashMap<>();
+    for (Block block : blocks.values()) {
+      final CachedFile file = block.key.file;
+      final List<String> dataset = file.datasetKey != null ? file.datasetKey : Collections.singletonList(file.identity.path);
+      byDataset.computeIfAbsent(dataset, k -> new ArrayList<>()).add(block);
+    }
+
+    final List<CacheManagerDatasetInfo> stats = new ArrayList<>(byDataset.size());
+    for (Map.Entry<List<String>, List<Block>> entry : byDataset.entrySet()) {
+      final List<Block> datasetBlocks = entry.getValue();
+      datasetBlocks.sort(Comparator.comparingLong(Block::getLastAccessMillis).reversed());
+      final long totalBytes = datasetBlocks.stream().mapToLong(block -> block.length).sum();
+      final Timestamp[] percentiles = new Timestamp[4];
+      long accumulated = 0;
+      int next = 0;
+      for (Block block : datasetBlocks) {
+        accumulated += block.length;
+        while (next < percentiles.length && accumulated * percentiles.length >= totalBytes * (next + 1)) {
+          percentiles[next++] = new Timestamp(block.getLastAccessMillis());
+        }
+      }
+      final long numFiles = datasetBlocks.stream().map(block -> block.key.file).distinct().count();
+      stats.add(new CacheManagerDatasetInfo(hostname, Joiner.on('.').join(entry.getKey()),
+        datasetBlocks.get(0).key.file.identity.storageId, numFiles, percentiles[0], percentiles[1], percentiles[2],
+        percentiles[3]));
+    }
+    return stats;
+  }
+
+  List<CacheManagerFilesInfo> getCachedFilesStats() {
+    return blocks.values().stream()
+      .map(block -> {
+        final CachedFile file = block.key.file;
+        return new CacheManagerFilesInfo(hostname, file.identity.storageId,
+          file.datasetKey != null ? Joiner.on('.').join(file.datasetKey) : null, file.identity.path,
+          file.identity.version, block.key.index * blockSize, new Timestamp(block.getLastAccessMillis()));
+      })
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public void close() throws Exception {
+    writers.shutdown();
+    if (!writers.awaitTermination(10, TimeUnit.SECONDS)) {
+      logger.warn("Timed out waiting for block cache writes to complete");
+    }
+    allocator.close();
+  }
+
+  private static final class FileIdentity {
+    private final String storageId;
+    private final String path;
+    private final String version;
+
+    private FileIdentity(String storageId, String path, String version) {
+      this.storageId = storageId;
+      this.path = path;
+      this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final FileIdentity that = (FileIdentity) o;
+      return storageId.equals(that.storageId) && path.equals(that.path) && version.equals(that.version);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(storageId, path, version);
+    }
+  }
+
+  /**
+   * A file with blocks in the cache
+   */
+  static final class CachedFile {
+    private final FileIdentity identity;
+    // unique id of the file, used to name its block files
+    private final long id;
+    private final List<String> datasetKey;
+    private final AtomicInteger numBlocks = new AtomicInteger();
+
+    private CachedFile(FileIdentity identity, long id, List<String> datasetKey) {
+      this.identity = identity;
+      this.id = id;
+      this.datasetKey = datasetKey;
+    }
+  }
+
+  private static final class BlockKey {
+    private final CachedFile file;
+    private final long index;
+
+    private BlockKey(CachedFile file, long index) {
+      this.file = file;
+      this.index = index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final BlockKey that = (BlockKey) o;
+      return index == that.index && file == that.file;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(file.id) * 31 + Long.hashCode(index);
+    }
+  }
+
+  private static final class Block {
+    private final BlockKey key;
+    private final Path path;
+    private final int length;
+    private volatile long lastAccessMillis;
+
+    private Block(BlockKey key, Path path, int length) {
+      this.key = key;
+      this.path = path;
+      this.length = length;
+    }
+
+    private void touch() {
+      lastAccessMillis = System.currentTimeMillis();
+    }
+
+    private long getLastAccessMillis() {
+      return lastAccessMillis;
+    }
+  }
+
+  /**
+   * Blocks in access order, least recently used first. Each operation only holds the lock for a constant time.
+   */
+  private static final class LruBlocks {
+    private final LinkedHashMap<BlockKey, Block> blocks = new LinkedHashMap<>(16, 0.75f, true);
+
+    private synchronized void add(Block block) {
+      blocks.put(block.key, block);
+    }
+
+    private synchronized void touch(Block block) {
+      // moves the block to the end of the access order, if still there
+      blocks.get(block.key);
+    }
+
+    private synchronized void remove(Block block) {
+      blocks.remove(block.key, block);
+    }
+
+    private synchronized Block poll() {
+      final Iterator<Block> iterator = blocks.values().iterator();
+      if (!iterator.hasNext()) {
+        return null;
+      }
+      final Block eldest = iterator.next();
+      iterator.remove();
+      return eldest;
+    }
+  }
+
+  private static final class StorageUsage {
+    private final String storageId;
+    // blocks of the storage, least recently used first
+    private final LruBlocks lru = new LruBlocks();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicInteger numBlocks = new AtomicInteger();
+    private volatile long maxBytes = Long.MAX_VALUE;
+
+    private StorageUsage(String storageId) {
+      this.storageId = storageId;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.FilterFileSystem;
+import com.dremio.sabot.exec.context.OperatorStats;
+
+/**
+ * A {@link FileSystem} whose async readers go through a {@link BlockCache}.
+ */
+class BlockCacheFileSystem extends FilterFileSystem {
+
+  private final FileSystem fs;
+  private final BlockCache cache;
+  private final String storageId;
+  private final OperatorStats stats;
+
+  BlockCacheFileSystem(FileSystem fs, BlockCache cache, String storageId, OperatorStats stats) {
+    super(fs);
+    this.fs = fs;
+    this.cache = cache;
+    this.storageId = storageId;
+    this.stats = stats;
+  }
+
+  @Override
+  public AsyncByteReader getAsyncByteReader(AsyncByteReader.FileKey fileKey, Map<String, String> options) throws IOException {
+    return new CachingAsyncByteReader(fs.getAsyncByteReader(fileKey, options), cache, cache.getFile(storageId, fileKey),
+      () -> fs.getFileAttributes(fileKey.getPath()).size(), stats);
+  }
+
+  @Override
+  public boolean preserveBlockLocationsOrder() {
+    // the same node should read a file again to hit its cached blocks
+    return true;
+  }
+}
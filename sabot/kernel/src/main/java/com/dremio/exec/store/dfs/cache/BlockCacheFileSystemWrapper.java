@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.store.dfs.AsyncStreamConf;
+import com.dremio.exec.store.dfs.CacheProperties;
+import com.dremio.exec.store.dfs.FileSystemWrapper;
+import com.dremio.exec.store.sys.CacheManagerStatsProvider;
+import com.dremio.exec.work.CacheManagerDatasetInfo;
+import com.dremio.exec.work.CacheManagerFilesInfo;
+import com.dremio.exec.work.CacheManagerMountPointInfo;
+import com.dremio.exec.work.CacheManagerStoragePluginInfo;
+import com.dremio.io.file.FileSystem;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+
+/**
+ * A {@link FileSystemWrapper} that caches the data read asynchronously by sources requesting caching
+ * (see {@link CacheProperties}) in a local {@link BlockCache}.
+ *
+ * <p>
+ * The cache is created on first use, when {@code exec.block_cache.enabled} is set, under
+ * {@code paths.local}/blockcache. Changes to the block size or space limit take effect on restart.
+ * </p>
+ */
+public class BlockCacheFileSystemWrapper implements FileSystemWrapper, CacheManagerStatsProvider {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(BlockCacheFileSystemWrapper.class);
+
+  private static final String CACHE_DIRECTORY = "blockcache";
+
+  private final DremioConfig config;
+  private final OptionManager options;
+  private final BufferAllocator allocator;
+  private final String hostname;
+  private volatile BlockCache cache;
+  private volatile boolean failed;
+
+  public BlockCacheFileSystemWrapper(DremioConfig config, OptionManager options, BufferAllocator allocator,
+                                     String hostname) {
+    this.config = config;
+    this.options = options;
+    this.allocator = allocator;
+    this.hostname = hostname;
+  }
+
+  @Override
+  public FileSystem wrap(FileSystem fs, String storageId, AsyncStreamConf conf, OperatorContext context,
+                         boolean enableAsync, boolean isMetadataRefresh) throws IOException {
+    if (context == null || conf == null || !enableAsync || isMetadataRefresh || !fs.supportsAsync() ||
+      !conf.isAsyncEnabled() || !options.getOption(ExecConstants.BLOCK_CACHE_ENABLED)) {
+      return fs;
+    }
+
+    final CacheProperties cacheProperties = conf.getCacheProperties();
+    if (!cacheProperties.isCachingEnabled(options)) {
+      return fs;
+    }
+
+    final BlockCache blockCache = getOrCreateCache();
+    if (blockCache == null) {
+      return fs;
+    }
+    blockCache.registerStorage(storageId, cacheProperties.cacheMaxSpaceLimitPct());
+    return new BlockCacheFileSystem(fs, blockCache, storageId, context.getStats());
+  }
+
+  private BlockCache getOrCreateCache() {
+    if (cache != null || failed || config == null) {
+      return cache;
+    }
+
+    synchronized (this) {
+      if (cache == null && !failed) {
+        try {
+          cache = BlockCache.create(hostname,
+            Paths.get(config.getString(DremioConfig.LOCAL_WRITE_PATH_STRING), CACHE_DIRECTORY),
+            (int) options.getOption(ExecConstants.BLOCK_CACHE_BLOCK_SIZE),
+            options.getOption(ExecConstants.BLOCK_CACHE_MAX_SIZE_BYTES),
+            allocator);
+        } catch (IOException e) {
+          // don't fail queries, read from the sources directly
+          logger.error("Failed to create the block cache, reads will not be cached", e);
+          failed = true;
+        }
+      }
+      return cache;
+    }
+  }
+
+  @Override
+  public List<CacheManagerMountPointInfo> getMountPointStats() {
+    final BlockCache blockCache = cache;
+    return blockCache == null ? Collections.emptyList() : blockCache.getMountPointStats();
+  }
+
+  @Override
+  public List<CacheManagerStoragePluginInfo> getStoragePluginStats() {
+    final BlockCache blockCache = cache;
+    return blockCache == null ? Collections.emptyList() : blockCache.getStoragePluginStats();
+  }
+
+  @Override
+  public List<CacheManagerDatasetInfo> getDatasetStats() {
+    final BlockCache blockCache = cache;
+    return blockCache == null ? Collections.emptyList() : blockCache.getDatasetStats();
+  }
+
+  @Override
+  public List<CacheManagerFilesInfo> getCachedFilesStats() {
+    final BlockCache blockCache = cache;
+    return blockCache == null ? Collections.emptyList() : blockCache.getCachedFilesStats();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      AutoCloseables.close(cache);
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.scan.ScanOperator;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * An {@link AsyncByteReader} that serves reads from a {@link BlockCache}, going to the wrapped reader for the
+ * blocks that are not cached yet.
+ */
+class CachingAsyncByteReader implements AsyncByteReader {
+
+  /**
+   * Provides the length of the file being read, needed to size its last block
+   */
+  @FunctionalInterface
+  interface FileLengthProvider {
+    long getFileLength() throws IOException;
+  }
+
+  private final AsyncByteReader delegate;
+  private final BlockCache cache;
+  private final BlockCache.CachedFile file;
+  private final FileLengthProvider fileLengthProvider;
+  private final OperatorStats stats;
+  private final BlockCache.BlockSource source = new BlockCache.BlockSource() {
+    private volatile long fileLength = -1;
+
+    @Override
+    public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+      return delegate.readFully(offset, dst, dstOffset, len);
+    }
+
+    @Override
+    public long getFileLength() throws IOException {
+      if (fileLength < 0) {
+        fileLength = fileLengthProvider.getFileLength();
+      }
+      return fileLength;
+    }
+  };
+
+  CachingAsyncByteReader(AsyncByteReader delegate, BlockCache cache, BlockCache.CachedFile file,
+                         FileLengthProvider fileLengthProvider, OperatorStats stats) {
+    this.delegate = delegate;
+    this.cache = cache;
+    this.file = file;
+    this.fileLengthProvider = fileLengthProvider;
+    this.stats = stats;
+  }
+
+  @Override
+  public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+    if (len == 0) {
+      return completedFuture;
+    }
+
+    final int blockSize = cache.getBlockSize();
+    final long end = offset + len;
+    final List<CompletableFuture<Void>> pendingReads = new ArrayList<>();
+    long numHits = 0;
+    long numMisses = 0;
+    for (long blockIndex = offset / blockSize; blockIndex <= (end - 1) / blockSize; blockIndex++) {
+      final long blockStart = blockIndex * blockSize;
+      final long from = Math.max(offset, blockStart);
+      final long to = Math.min(end, blockStart + blockSize);
+      final boolean hit = cache.read(file, blockIndex, source, (int) (from - blockStart), dst,
+        dstOffset + (int) (from - offset), (int) (to - from), pendingReads);
+      if (hit) {
+        numHits++;
+      } else {
+        numMisses++;
+      }
+    }
+
+    // stats are not thread safe, only update them from the caller's thread
+    if (stats != null) {
+      stats.addLongStat(ScanOperator.Metric.NUM_CACHE_HITS, numHits);
+      stats.addLongStat(ScanOperator.Metric.NUM_CACHE_MISSES, numMisses);
+    }
+
+    if (pendingReads.isEmpty()) {
+      return completedFuture;
+    }
+    return CompletableFuture.allOf(pendingReads.toArray(new CompletableFuture[0]));
+  }
+
+  @Override
+  public CompletableFuture<Void> checkVersion(String version) {
+    return delegate.checkVersion(version);
+  }
+
+  @Override
+  public List<ReaderStat> getStats() {
+    return delegate.getStats();
+  }
+
+  @Override
+  public void close() throws Exception {
+    delegate.close();
+  }
+}
@@ -15,13 +15,14 @@
  */
 package com.dremio.exec.store.easy.arrow;
 
-import static com.dremio.exec.cache.VectorAccessibleSerializable.readIntoArrowBuf;
 import static com.dremio.exec.store.easy.arrow.ArrowFormatPlugin.FOOTER_OFFSET_SIZE;
 import static com.dremio.exec.store.easy.arrow.ArrowFormatPlugin.MAGIC_STRING;
 import static com.dremio.exec.store.easy.arrow.ArrowFormatPlugin.MAGIC_STRING_LENGTH;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +59,8 @@ import com.google.common.primitives.Longs;
 /**
  * {@link RecordReader} implementation for reading Arrow format files. Currently this reader can only read files written
  * by writer {@link ArrowRecordWriter}.
+ *
+ * A split of the file reads the record batches starting within the split, as listed in the footer of the file.
  */
 public class ArrowRecordReader extends AbstractRecordReader {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ArrowRecordReader.class);
@@ -76,6 +79,11 @@ public class ArrowRecordReader extends AbstractRecordReader {
    * File can contain several record batches. This index points to the next record batch.
    */
   private int nextBatchIndex;
+  // index of the first record batch after the split
+  private int endBatchIndex;
+
+  private long splitStart;
+  private long splitLength = -1;
 
   public ArrowRecordReader(final OperatorContext context, final FileSystem dfs, final Path path,
       List<SchemaPath> columns) {
@@ -84,6 +92,14 @@ public class ArrowRecordReader extends AbstractRecordReader {
     this.path = path;
   }
 
+  /**
+   * Restricts the reader to the record batches starting within the given range of the file.
+   */
+  public void setSplit(long start, long length) {
+    this.splitStart = start;
+    this.splitLength = length;
+  }
+
   @Override
   public void setup(OutputMutator output) throws ExecutionSetupException {
     try {
@@ -150,6 +166,19 @@ public class ArrowRecordReader extends AbstractRecordReader {
       // Reset to beginning of the file
       inputStream.setPosition(0);
       nextBatchIndex = 0;
+      endBatchIndex = footer.getBatchCount();
+      if (splitLength >= 0) {
+        final long splitEnd = splitLength > Long.MAX_VALUE - splitStart ? Long.MAX_VALUE : splitStart + splitLength;
+        // the batches are listed in the order of their offsets
+        while (nextBatchIndex < endBatchIndex && footer.getBatch(nextBatchIndex).getOffset() < splitStart) {
+          nextBatchIndex++;
+        }
+        int end = nextBatchIndex;
+        while (end < endBatchIndex && footer.getBatch(end).getOffset() < splitEnd) {
+          end++;
+        }
+        endBatchIndex = end;
+      }
     } catch (final Exception e) {
       String bestEffortMessage = bestEffortMessageForUnknownException(e.getCause());
       if (bestEffortMessage != null) {
@@ -168,25 +197,19 @@ public class ArrowRecordReader extends AbstractRecordReader {
 
   @Override
   public int next() {
-    if (nextBatchIndex >= footer.getBatchCount()) {
+    // If the batch has no records, go to the next non-zero record batch. Returning a zero record batch to ScanBatch
+    // ends up closing the RecordReader as it assumes there are no more records in the reader.
+    while (nextBatchIndex < endBatchIndex && footer.getBatch(nextBatchIndex).getRecordCount() == 0) {
+      nextBatchIndex++;
+    }
+    if (nextBatchIndex >= endBatchIndex) {
+      // no more batches in the split
       return 0;
     }
 
     try {
       // Get the next batch info and seek to the location where the batch starts
-      ArrowRecordBatchSummary batchSummary = footer.getBatch(nextBatchIndex);
-
-      while (batchSummary.getRecordCount() == 0) {
-        // If the batch has no records, go to the next non-zero record batch. Returning a zero record batch to ScanBatch
-        // ends up closing the RecordReader as it assumes there are no more records in the reader.
-        if (nextBatchIndex == footer.getBatchCount()) {
-          // no more batches in the file
-          return 0;
-        }
-
-        batchSummary = footer.getBatch(++nextBatchIndex);
-      }
-
+      final ArrowRecordBatchSummary batchSummary = footer.getBatch(nextBatchIndex);
       inputStream.setPosition(batchSummary.getOffset());
 
       // Read the RecordBatchDef
@@ -222,7 +245,7 @@ public class ArrowRecordReader extends AbstractRecordReader {
         // if this field is selected read, otherwise skip the buffers
         if (vectors.containsKey(i)) {
           try(ArrowBuf buf = allocator.buffer(dataLength)) {
-            readIntoArrowBuf(inputStream, buf, dataLength);
+            readFully(inputStream, buf, dataLength);
             TypeHelper.load(vectors.get(i), serializedField, buf);
             loadedVectors--;
             if (loadedVectors == 0) {
@@ -230,7 +253,7 @@ public class ArrowRecordReader extends AbstractRecordReader {
             }
           }
         } else {
-          inputStream.skip(dataLength);
+          inputStream.setPosition(inputStream.getPosition() + dataLength);
         }
       }
 
@@ -260,6 +283,19 @@ public class ArrowRecordReader extends AbstractRecordReader {
     }
   }
 
+  /**
+   * Reads the buffers of a field straight into the memory of the vector, without going through a heap buffer.
+   */
+  private static void readFully(FSInputStream inputStream, ArrowBuf buf, int length) throws IOException {
+    final ByteBuffer dst = buf.nioBuffer(0, length);
+    while (dst.hasRemaining()) {
+      if (inputStream.read(dst) < 0) {
+        throw new EOFException("Unexpected end of stream while reading.");
+      }
+    }
+    buf.writerIndex(length);
+  }
+
   private static final ThreadLocal<byte[]> READ_BUFFER = ThreadLocal.withInitial(() -> new byte[Long.BYTES]);
 
   private static long readLong(InputStream is) throws IOException {
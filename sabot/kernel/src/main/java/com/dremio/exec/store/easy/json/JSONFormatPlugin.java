@@ -52,17 +52,27 @@ public class JSONFormatPlugin extends EasyFormatPlugin<JSONFormatConfig> {
   }
 
   public JSONFormatPlugin(String name, SabotContext context, JSONFormatConfig formatPluginConfig, FileSystemPlugin<?> fsPlugin) {
-    super(name, context, formatPluginConfig, true, false, false, IS_COMPRESSIBLE, formatPluginConfig.getExtensions(), DEFAULT_NAME, fsPlugin);
+    super(name, context, formatPluginConfig, true, false, formatPluginConfig.isLineDelimited(), IS_COMPRESSIBLE, formatPluginConfig.getExtensions(), DEFAULT_NAME, fsPlugin);
   }
 
   @Override
   public RecordReader getRecordReader(OperatorContext context, FileSystem dfs, EasyDatasetSplitXAttr splitAttributes, List<SchemaPath> columns) throws ExecutionSetupException {
-    return new JSONRecordReader(context, splitAttributes.getPath(), getFsPlugin().getCompressionCodecFactory(), dfs, columns);
+    final JSONRecordReader reader = new JSONRecordReader(context, splitAttributes.getPath(), getFsPlugin().getCompressionCodecFactory(), dfs, columns);
+    setSplit(reader, splitAttributes);
+    return reader;
   }
 
   @Override
   public RecordReader getRecordReader(OperatorContext context, FileSystem dfs, EasyDatasetSplitXAttr splitAttributes, List<SchemaPath> columns, ExtendedEasyReaderProperties properties) throws ExecutionSetupException {
-    return new JSONRecordReader(context, splitAttributes.getPath(), getFsPlugin().getCompressionCodecFactory(), dfs, columns, properties.isSchemaImposed(), properties.getExtendedFormatOptions());
+    final JSONRecordReader reader = new JSONRecordReader(context, splitAttributes.getPath(), getFsPlugin().getCompressionCodecFactory(), dfs, columns, properties.isSchemaImposed(), properties.getExtendedFormatOptions());
+    setSplit(reader, splitAttributes);
+    return reader;
+  }
+
+  private void setSplit(JSONRecordReader reader, EasyDatasetSplitXAttr splitAttributes) {
+    if (isBlockSplittable()) {
+      reader.setSplit(splitAttributes.getStart(), splitAttributes.getLength());
+    }
   }
 
   @Override
@@ -90,6 +100,11 @@ public class JSONFormatPlugin extends EasyFormatPlugin<JSONFormatConfig> {
 
     public boolean prettyPrint = true;
 
+    /**
+     * Whether the files hold one record per line, in which case they are read in block sized splits.
+     */
+    public boolean lineDelimited = false;
+
     @JsonInclude(JsonInclude.Include.NON_DEFAULT)
     public List<String> getExtensions() {
       if (extensions == null) {
@@ -107,9 +122,14 @@ public class JSONFormatPlugin extends EasyFormatPlugin<JSONFormatConfig> {
       this.prettyPrint = prettyPrint;
     }
 
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public boolean isLineDelimited() {
+      return lineDelimited;
+    }
+
     @Override
     public int hashCode() {
-      return Objects.hash(extensions, outputExtension, prettyPrint);
+      return Objects.hash(extensions, outputExtension, prettyPrint, lineDelimited);
     }
 
     @Override
@@ -127,7 +147,8 @@ public class JSONFormatPlugin extends EasyFormatPlugin<JSONFormatConfig> {
 
       return Objects.equals(extensions, other.extensions) &&
           Objects.equals(outputExtension, other.outputExtension) &&
-          Objects.equals(prettyPrint, other.prettyPrint);
+          Objects.equals(prettyPrint, other.prettyPrint) &&
+          lineDelimited == other.lineDelimited;
     }
   }
 
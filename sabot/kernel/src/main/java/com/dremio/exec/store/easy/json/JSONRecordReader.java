@@ -34,7 +34,9 @@ import com.dremio.exec.store.easy.json.JsonProcessor.ReadState;
 import com.dremio.exec.store.easy.json.reader.CountingJsonReader;
 import com.dremio.exec.vector.complex.fn.JsonReader;
 import com.dremio.exec.vector.complex.fn.TransformationException;
+import com.dremio.io.CompressedFSInputStream;
 import com.dremio.io.CompressionCodecFactory;
+import com.dremio.io.FSInputStream;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.FileSystemUtils;
 import com.dremio.io.file.Path;
@@ -58,6 +60,9 @@ public class JSONRecordReader extends AbstractRecordReader {
   // Data we're consuming
   private final Path fsPath;
   private final JsonNode embeddedContent;
+  // byte range of the file to read the lines of, the whole file if negative length
+  private long splitStart;
+  private long splitLength = -1;
 
   private final CompressionCodecFactory codecFactory;
   private final FileSystem fileSystem;
@@ -151,6 +156,14 @@ public class JSONRecordReader extends AbstractRecordReader {
     this.extendedFormatOptions = extendedFormatOptions;
   }
 
+  /**
+   * Restricts the reader to the records of a newline-delimited file starting in the given byte range.
+   */
+  public void setSplit(long start, long length) {
+    this.splitStart = start;
+    this.splitLength = length;
+  }
+
   public void resetSpecialSchemaOptions() {
     this.enableAllTextMode = false;
     this.readNumbersAsDouble = false;
@@ -168,7 +181,13 @@ public class JSONRecordReader extends AbstractRecordReader {
   public void setup(final OutputMutator output) throws ExecutionSetupException {
     try{
       if (fsPath != null) {
-        this.stream = FileSystemUtils.openPossiblyCompressedStream(codecFactory, fileSystem, fsPath);
+        final FSInputStream input = FileSystemUtils.openPossiblyCompressedStream(codecFactory, fileSystem, fsPath);
+        // compressed files are never split, and the split length is the compressed size
+        if (splitLength >= 0 && !(input instanceof CompressedFSInputStream)) {
+          this.stream = new LineDelimitedSplitInputStream(input, splitStart, splitLength);
+        } else {
+          this.stream = input;
+        }
       }
 
       this.writer = new VectorContainerWriter(output);
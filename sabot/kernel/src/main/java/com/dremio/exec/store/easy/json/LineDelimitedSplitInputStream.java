@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.dremio.io.FSInputStream;
+
+/**
+ * Stream over the lines of a newline-delimited file that belong to a split of the file.
+ *
+ * A split owns the lines starting within [start, start + length), and the first line of the file. The partial line
+ * at the start of a split is skipped, as it belongs to the previous split, and the last line starting within the
+ * split is read to its end, past the end of the split.
+ */
+class LineDelimitedSplitInputStream extends InputStream {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final FSInputStream input;
+  private final long end;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int bufferPosition;
+  private int bufferLimit;
+  // position in the file of the next byte to return
+  private long position;
+  private boolean atLineStart = true;
+  private boolean finished;
+
+  LineDelimitedSplitInputStream(FSInputStream input, long start, long length) throws IOException {
+    this.input = input;
+    this.end = length > Long.MAX_VALUE - start ? Long.MAX_VALUE : start + length;
+    if (start > 0) {
+      // the line starting at start belongs to this split if the previous byte ends a line
+      this.position = start - 1;
+      input.setPosition(position);
+      skipLine();
+    }
+  }
+
+  private void skipLine() throws IOException {
+    while (fill()) {
+      final byte b = buffer[bufferPosition++];
+      position++;
+      if (b == '\n') {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Makes sure that there are bytes left in the buffer, returns false at the end of the file.
+   */
+  private boolean fill() throws IOException {
+    if (bufferPosition < bufferLimit) {
+      return true;
+    }
+    if (finished) {
+      return false;
+    }
+    final int read = input.read(buffer, 0, buffer.length);
+    if (read <= 0) {
+      finished = true;
+      return false;
+    }
+    bufferPosition = 0;
+    bufferLimit = read;
+    return true;
+  }
+
+  /**
+   * Whether the lines of the split are all read.
+   */
+  private boolean isDone() throws IOException {
+    return (atLineStart && position >= end) || !fill();
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (isDone()) {
+      return -1;
+    }
+    final byte b = buffer[bufferPosition++];
+    position++;
+    atLineStart = b == '\n';
+    return b & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    int read = 0;
+    while (read < len && !isDone()) {
+      final int available = bufferLimit - bufferPosition;
+      if (position + available < end) {
+        // the split doesn't end within the buffer, copy as much as possible
+        final int count = Math.min(available, len - read);
+        System.arraycopy(buffer, bufferPosition, b, off + read, count);
+        bufferPosition += count;
+        position += count;
+        read += count;
+        atLineStart = b[off + read - 1] == '\n';
+      } else {
+        final byte c = buffer[bufferPosition++];
+        position++;
+        b[off + read++] = c;
+        atLineStart = c == '\n';
+      }
+    }
+    return read == 0 ? -1 : read;
+  }
+
+  @Override
+  public void close() throws IOException {
+    input.close();
+  }
+}
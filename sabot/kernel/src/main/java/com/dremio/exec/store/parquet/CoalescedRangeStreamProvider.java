@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.NettyArrowBuf;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.google.common.base.Preconditions;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * An InputStreamProvider that fetches the column chunks of a row group up front, with as few requests as possible.
+ *
+ * The ranges of the column chunks are sorted and merged when the gap between them is small enough, which trades
+ * reading a few unused bytes for fewer requests to the file system. The merged ranges are read concurrently through
+ * the async reader of the file, and each column then reads from a slice of the buffer of its range.
+ *
+ * Columns that were not planned, like the footer, are read with a stream of their own.
+ */
+public class CoalescedRangeStreamProvider extends StreamPerColumnProvider {
+  private final AsyncByteReader reader;
+  private final BufferAllocator allocator;
+  private final long maxGap;
+  private final long maxRangeSize;
+
+  // planned ranges of the current row group, by starting position of their column chunks
+  private final Map<Long, ReadRange> rangesByColumn = new HashMap<>();
+  private final List<ReadRange> ranges = new ArrayList<>();
+  // streams opened on the planned ranges, the page readers don't close their streams
+  private final List<ArrowBufBulkInputStream> rangeStreams = new ArrayList<>();
+  private ParquetReaderStats stats;
+
+  public CoalescedRangeStreamProvider(FileSystem fs, Path path, long length, long mTime, ParquetScanProjectedColumns projectedColumns,
+                                      long maxFooterLen, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndexes,
+                                      ParquetFilters parquetFilters, ParquetFilterCreator parquetFilterCreator, AsyncByteReader reader,
+                                      long maxGap, long maxRangeSize) {
+    super(fs, path, length, mTime, projectedColumns, maxFooterLen, footer, context, readColumnOffsetIndexes, parquetFilters, parquetFilterCreator);
+    Preconditions.checkArgument(context != null, "Coalesced reads require an operator context");
+    this.reader = reader;
+    this.allocator = context.getAllocator();
+    this.maxGap = maxGap;
+    this.maxRangeSize = maxRangeSize;
+  }
+
+  @Override
+  public AsyncByteReader getAsyncByteReader() {
+    return reader;
+  }
+
+  @Override
+  public void planColumnReads(Collection<ColumnChunkMetaData> columns, ParquetReaderStats stats) {
+    // the page readers of the previous row group are closed once the next one is planned
+    releaseRanges();
+    this.stats = stats;
+
+    for (ReadRange range : coalesce(columns, maxGap, maxRangeSize)) {
+      range.buffer = allocator.buffer(range.length());
+      range.startNanos = System.nanoTime();
+      range.future = reader.readFully(range.start, NettyArrowBuf.unwrapBuffer(range.buffer), 0, range.length())
+        .whenComplete((v, e) -> range.endNanos = System.nanoTime());
+      ranges.add(range);
+      long columnBytes = 0;
+      for (ColumnChunkMetaData column : range.columns) {
+        rangesByColumn.put(column.getStartingPos(), range);
+        columnBytes += column.getTotalSize();
+      }
+      if (stats != null) {
+        stats.numRangeReads++;
+        stats.totalRangeReadBytes += range.length();
+        stats.totalRangeOverReadBytes += range.length() - columnBytes;
+      }
+    }
+  }
+
+  /**
+   * Sorts the ranges of the given column chunks, and merges the ones less than maxGap bytes apart as long as the
+   * merged range stays under maxRangeSize bytes.
+   */
+  static List<ReadRange> coalesce(Collection<ColumnChunkMetaData> columns, long maxGap, long maxRangeSize) {
+    final List<ColumnChunkMetaData> sorted = new ArrayList<>(columns);
+    sorted.sort(Comparator.comparingLong(ColumnChunkMetaData::getStartingPos));
+
+    final List<ReadRange> ranges = new ArrayList<>();
+    ReadRange current = null;
+    for (ColumnChunkMetaData column : sorted) {
+      final long start = column.getStartingPos();
+      final long end = start + column.getTotalSize();
+      if (current != null && start - current.end <= maxGap && Math.max(end, current.end) - current.start <= maxRangeSize) {
+        current.end = Math.max(end, current.end);
+      } else {
+        current = new ReadRange(start, end);
+        ranges.add(current);
+      }
+      current.columns.add(column);
+    }
+    return ranges;
+  }
+
+  @Override
+  public BulkInputStream getStream(ColumnChunkMetaData column) throws IOException {
+    final ReadRange range = column == null ? null : rangesByColumn.get(column.getStartingPos());
+    if (range == null) {
+      return super.getStream(column);
+    }
+    range.await(stats);
+    final long offset = column.getStartingPos() - range.start;
+    final ArrowBuf slice = range.buffer.slice(offset, column.getTotalSize());
+    slice.getReferenceManager().retain();
+    final ArrowBufBulkInputStream stream = new ArrowBufBulkInputStream(slice, column.getStartingPos());
+    rangeStreams.add(stream);
+    return stream;
+  }
+
+  private void releaseRanges() {
+    for (ArrowBufBulkInputStream stream : rangeStreams) {
+      stream.close();
+    }
+    rangeStreams.clear();
+    for (ReadRange range : ranges) {
+      range.release();
+    }
+    ranges.clear();
+    rangesByColumn.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      AutoCloseables.close(this::releaseRanges, reader);
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    } finally {
+      super.close();
+    }
+  }
+
+  /**
+   * A range of the file covering one or more column chunks.
+   */
+  static final class ReadRange {
+    private final long start;
+    private long end;
+    private final List<ColumnChunkMetaData> columns = new ArrayList<>();
+
+    private ArrowBuf buffer;
+    private CompletableFuture<Void> future;
+    private long startNanos;
+    private volatile long endNanos;
+    private boolean done;
+
+    ReadRange(long start, long end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    long getStart() {
+      return start;
+    }
+
+    long getEnd() {
+      return end;
+    }
+
+    List<ColumnChunkMetaData> getColumns() {
+      return columns;
+    }
+
+    int length() {
+      return Math.toIntExact(end - start);
+    }
+
+    private void await(ParquetReaderStats stats) throws IOException {
+      if (done) {
+        return;
+      }
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while reading range [" + start + ", " + end + ")", e);
+      } catch (ExecutionException e) {
+        throw new IOException("Failed to read range [" + start + ", " + end + ")", e.getCause());
+      }
+      done = true;
+      if (stats != null) {
+        stats.timeRangeReads += endNanos - startNanos;
+      }
+    }
+
+    private void release() {
+      if (buffer == null) {
+        return;
+      }
+      if (!future.isDone()) {
+        // the buffer can't be released while the read may still write to it
+        future.whenComplete((v, e) -> buffer.close());
+        return;
+      }
+      buffer.close();
+    }
+  }
+
+  /**
+   * Reads a column chunk from a slice of the buffer of its range, positions are in the file.
+   */
+  private static final class ArrowBufBulkInputStream implements BulkInputStream {
+    private final ArrowBuf buf;
+    private final long fileOffset;
+    private long position;
+    private boolean closed;
+
+    ArrowBufBulkInputStream(ArrowBuf buf, long fileOffset) {
+      this.buf = buf;
+      this.fileOffset = fileOffset;
+      this.position = fileOffset;
+    }
+
+    @Override
+    public void seek(long offset) throws IOException {
+      if (offset < fileOffset || offset > fileOffset + buf.capacity()) {
+        throw new EOFException("Position " + offset + " is out of the column chunk at [" + fileOffset + ", "
+          + (fileOffset + buf.capacity()) + ")");
+      }
+      position = offset;
+    }
+
+    private long checkRead(int length) throws EOFException {
+      final long index = position - fileOffset;
+      if (index + length > buf.capacity()) {
+        throw new EOFException("Reading " + length + " bytes at " + position + " past the end of the column chunk at "
+          + (fileOffset + buf.capacity()));
+      }
+      return index;
+    }
+
+    @Override
+    public void readFully(ByteBuf dst, int length) throws IOException {
+      final long index = checkRead(length);
+      final int writerIndex = dst.writerIndex();
+      dst.setBytes(writerIndex, buf.nioBuffer(index, length));
+      dst.writerIndex(writerIndex + length);
+      position += length;
+    }
+
+    @Override
+    public void readFully(byte[] dst, int dstOffset, int dstLen) throws IOException {
+      final long index = checkRead(dstLen);
+      buf.getBytes(index, dst, dstOffset, dstLen);
+      position += dstLen;
+    }
+
+    @Override
+    public long getPos() {
+      return position;
+    }
+
+    @Override
+    public void close() {
+      // closed by the provider once its row group is done, whether or not its reader closed it
+      if (!closed) {
+        closed = true;
+        buf.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,999 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.arrow.vector.DecimalHelper;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.page.PageWriter;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.ValuesWriter;
+import org.apache.parquet.column.values.fallback.FallbackValuesWriter;
+import org.apache.parquet.column.values.plain.BooleanPlainValuesWriter;
+import org.apache.parquet.column.values.plain.FixedLenByteArrayPlainValuesWriter;
+import org.apache.parquet.column.values.plain.PlainValuesWriter;
+import org.apache.parquet.io.ParquetEncodingException;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.joda.time.DateTimeConstants;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.ObjectIntHashMap;
+
+/**
+ * Encodes the values of a flat optional column into the pages of its column chunk, straight from the buffers of its
+ * vector, for {@link ParquetColumnarBatchWriter}.
+ *
+ * The pages are the same bytes as the pages parquet-mr's ColumnWriterV1 builds out of the same values, with the values
+ * writers of the V1 writer version:
+ * <ul>
+ *   <li>the definition levels are encoded with the RLE / bit packing hybrid encoding, taking the runs of set and null
+ *   values of the validity buffer at once;</li>
+ *   <li>the dictionary encoded columns look up the values of the vector in a hash map, and fall back to plain encoding
+ *   when the dictionary grows over the dictionary page size, or when the first page isn't smaller with it;</li>
+ *   <li>the plain encoded values which are little endian in the vector, as in parquet, are copied from the vector
+ *   buffer to the page in bulk.</li>
+ * </ul>
+ * The sizes the pages are cut on are counted the same way too, so that {@link ParquetColumnarBatchWriter} cuts them
+ * at the same rows.
+ */
+abstract class ColumnChunkEncoder {
+  private final ColumnDescriptor descriptor;
+  protected final FieldVector vector;
+  // whether the values start dictionary encoded, with a fallback to plain encoding
+  private final boolean dictionaryEnabled;
+  private final long maxDictionaryByteSize;
+  private final PageBuffer levelBuffer;
+  private final RleBitPackingHybridEncoder definitionLevels;
+  // plain encoded values of the page
+  protected final PageBuffer values;
+
+  private PageWriter pageWriter;
+  private ParallelPageCompressor compressor;
+  private Statistics<?> statistics;
+  private int valueCount;
+  private long rowsWrittenSoFar;
+  // size of the values of the page before encoding, which the dictionary encoded pages are cut on
+  protected long rawDataByteSize;
+
+  private boolean fellBack;
+  private boolean firstPage;
+  private boolean pagesUseDictionary;
+  // dictionary ids of the values of the page
+  private int[] ids = new int[1024];
+  private int idCount;
+  private long dictionaryByteSize;
+  private int lastUsedDictionarySize;
+
+  private long encodeNanos;
+  private long compressNanos;
+
+  ColumnChunkEncoder(FieldVector vector, ColumnDescriptor descriptor, ParquetProperties properties,
+                     boolean dictionaryEnabled) {
+    this.descriptor = descriptor;
+    this.vector = vector;
+    this.dictionaryEnabled = dictionaryEnabled;
+    this.maxDictionaryByteSize = properties.getDictionaryPageSizeThreshold();
+    this.levelBuffer = new PageBuffer(1024);
+    this.definitionLevels = new RleBitPackingHybridEncoder(1, levelBuffer);
+    this.values = new PageBuffer(properties.getPageSizeThreshold());
+  }
+
+  /**
+   * Creates the encoder of the given column, null if its values can't be encoded column by column.
+   */
+  static ColumnChunkEncoder create(FieldVector vector, ColumnDescriptor descriptor, ParquetProperties properties,
+                                   boolean isIcebergWriter) {
+    if (descriptor.getMaxRepetitionLevel() != 0 || descriptor.getMaxDefinitionLevel() != 1) {
+      return null;
+    }
+
+    // the encoding the values writer of the column starts with
+    final ValuesWriter valuesWriter = properties.newValuesWriter(descriptor);
+    final boolean dictionaryEnabled;
+    try {
+      if (valuesWriter instanceof FallbackValuesWriter && valuesWriter.getEncoding() == Encoding.PLAIN_DICTIONARY) {
+        dictionaryEnabled = true;
+      } else if (valuesWriter instanceof PlainValuesWriter
+        || valuesWriter instanceof BooleanPlainValuesWriter
+        || valuesWriter instanceof FixedLenByteArrayPlainValuesWriter) {
+        dictionaryEnabled = false;
+      } else {
+        return null;
+      }
+    } finally {
+      valuesWriter.close();
+    }
+
+    final PrimitiveTypeName type = descriptor.getPrimitiveType().getPrimitiveTypeName();
+    switch (vector.getMinorType()) {
+      case INT:
+        return type == PrimitiveTypeName.INT32
+          ? new IntEncoder(vector, descriptor, properties, dictionaryEnabled, true) : null;
+      case DATEMILLI:
+        return type == PrimitiveTypeName.INT32
+          ? new IntEncoder(vector, descriptor, properties, dictionaryEnabled, false) {
+              @Override
+              int getInt(ArrowBuf data, int index) {
+                return (int) (data.getLong(index * 8L) / DateTimeConstants.MILLIS_PER_DAY);
+              }
+            }
+          : null;
+      case TIMEMILLI:
+        if (isIcebergWriter) {
+          // micros for iceberg
+          return type == PrimitiveTypeName.INT64
+            ? new LongEncoder(vector, descriptor, properties, dictionaryEnabled, false) {
+                @Override
+                long getLong(ArrowBuf data, int index) {
+                  return ((long) data.getInt(index * 4L)) * 1_000;
+                }
+              }
+            : null;
+        }
+        return type == PrimitiveTypeName.INT32
+          ? new IntEncoder(vector, descriptor, properties, dictionaryEnabled, true) : null;
+      case BIGINT:
+        return type == PrimitiveTypeName.INT64
+          ? new LongEncoder(vector, descriptor, properties, dictionaryEnabled, true) : null;
+      case TIMESTAMPMILLI:
+        if (isIcebergWriter) {
+          // micros for iceberg
+          return type == PrimitiveTypeName.INT64
+            ? new LongEncoder(vector, descriptor, properties, dictionaryEnabled, false) {
+                @Override
+                long getLong(ArrowBuf data, int index) {
+                  return data.getLong(index * 8L) * 1_000;
+                }
+              }
+            : null;
+        }
+        return type == PrimitiveTypeName.INT64
+          ? new LongEncoder(vector, descriptor, properties, dictionaryEnabled, true) : null;
+      case FLOAT4:
+        return type == PrimitiveTypeName.FLOAT
+          ? new FloatEncoder(vector, descriptor, properties, dictionaryEnabled) : null;
+      case FLOAT8:
+        return type == PrimitiveTypeName.DOUBLE
+          ? new DoubleEncoder(vector, descriptor, properties, dictionaryEnabled) : null;
+      case BIT:
+        return type == PrimitiveTypeName.BOOLEAN && !dictionaryEnabled
+          ? new BooleanEncoder(vector, descriptor, properties) : null;
+      case VARCHAR:
+      case VARBINARY:
+        return type == PrimitiveTypeName.BINARY
+          ? new BinaryEncoder(vector, descriptor, properties, dictionaryEnabled) : null;
+      case DECIMAL:
+        return type == PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY && descriptor.getPrimitiveType().getTypeLength() == 16
+          && !dictionaryEnabled
+          ? new DecimalEncoder(vector, descriptor, properties) : null;
+      default:
+        return null;
+    }
+  }
+
+  ColumnDescriptor getDescriptor() {
+    return descriptor;
+  }
+
+  /**
+   * Starts the column chunk of a new row group, written to the given page writer.
+   */
+  void startRowGroup(PageWriter pageWriter, ParallelPageCompressor compressor) {
+    this.pageWriter = pageWriter;
+    this.compressor = compressor;
+    this.statistics = Statistics.createStats(descriptor.getPrimitiveType());
+    definitionLevels.reset();
+    resetValues();
+    valueCount = 0;
+    rowsWrittenSoFar = 0;
+    rawDataByteSize = 0;
+    fellBack = false;
+    firstPage = true;
+    pagesUseDictionary = false;
+    idCount = 0;
+    dictionaryByteSize = 0;
+    lastUsedDictionarySize = 0;
+    clearDictionary();
+  }
+
+  /**
+   * Encodes the given rows in the current page.
+   */
+  void write(int offset, int length) {
+    if (length == 0) {
+      return;
+    }
+    final long start = System.nanoTime();
+    final int end = offset + length;
+    if (vector.getNullCount() == 0) {
+      definitionLevels.writeRepeated(1, length);
+      writeValues(offset, end);
+    } else {
+      final ArrowBuf validity = vector.getValidityBuffer();
+      int i = offset;
+      while (i < end) {
+        final int bit = BitVectorHelper.get(validity, i);
+        final int runEnd = findRunEnd(validity, i + 1, end, bit);
+        definitionLevels.writeRepeated(bit, runEnd - i);
+        if (bit == 0) {
+          statistics.incrementNumNulls(runEnd - i);
+        } else {
+          writeValues(i, runEnd);
+        }
+        i = runEnd;
+      }
+    }
+    valueCount += length;
+    encodeNanos += System.nanoTime() - start;
+  }
+
+  /**
+   * First row from the given one whose validity bit isn't the given one.
+   */
+  private static int findRunEnd(ArrowBuf validity, int from, int to, int bit) {
+    final long word = bit == 0 ? 0L : -1L;
+    int i = from;
+    while (i < to) {
+      if ((i & 63) == 0 && i + 64 <= to && validity.getLong(i >> 3) == word) {
+        i += 64;
+      } else if ((i & 7) == 0 && i + 8 <= to && validity.getByte(i >> 3) == (byte) word) {
+        i += 8;
+      } else if (BitVectorHelper.get(validity, i) == bit) {
+        i++;
+      } else {
+        break;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * Size of the page so far, which the page is cut on.
+   */
+  long getCurrentPageBufferedSize() {
+    return definitionLevels.getBufferedSize() + (dictionaryEnabled ? rawDataByteSize : getPlainBufferedSize());
+  }
+
+  /**
+   * Size of the column chunk so far.
+   */
+  long getTotalBufferedSize() {
+    return getCurrentPageBufferedSize() + pageWriter.getMemSize();
+  }
+
+  long getRowsWrittenSoFar() {
+    return rowsWrittenSoFar;
+  }
+
+  /**
+   * Cuts the current page, and queues it to be compressed and written.
+   */
+  void writePage() throws IOException {
+    if (valueCount == 0) {
+      throw new ParquetEncodingException("writing empty page");
+    }
+    final long start = System.nanoTime();
+
+    definitionLevels.finish();
+    final Encoding valuesEncoding;
+    final PageBuffer valueBytes;
+    if (isDictionaryEncoding()) {
+      final PageBuffer idBytes = encodeIds();
+      if (firstPage && idBytes.size() + dictionaryByteSize >= rawDataByteSize) {
+        // no smaller with the dictionary
+        fallBack();
+        finishPlainValues();
+        valuesEncoding = Encoding.PLAIN;
+        valueBytes = values;
+      } else {
+        lastUsedDictionarySize = getDictionarySize();
+        pagesUseDictionary = true;
+        valuesEncoding = Encoding.PLAIN_DICTIONARY;
+        valueBytes = idBytes;
+      }
+    } else {
+      finishPlainValues();
+      valuesEncoding = Encoding.PLAIN;
+      valueBytes = values;
+    }
+
+    // the repetition levels are always 0, and take no bytes
+    final int levelsLength = levelBuffer.size();
+    final byte[] bytes = new byte[4 + levelsLength + valueBytes.size()];
+    bytes[0] = (byte) levelsLength;
+    bytes[1] = (byte) (levelsLength >>> 8);
+    bytes[2] = (byte) (levelsLength >>> 16);
+    bytes[3] = (byte) (levelsLength >>> 24);
+    levelBuffer.copyTo(bytes, 4);
+    valueBytes.copyTo(bytes, 4 + levelsLength);
+
+    final PageWriter writer = pageWriter;
+    final int pageValueCount = valueCount;
+    final Statistics<?> pageStatistics = statistics;
+    rowsWrittenSoFar += valueCount;
+    definitionLevels.reset();
+    resetValues();
+    idCount = 0;
+    rawDataByteSize = 0;
+    firstPage = false;
+    valueCount = 0;
+    statistics = Statistics.createStats(descriptor.getPrimitiveType());
+    encodeNanos += System.nanoTime() - start;
+
+    compressor.add(new ParallelPageCompressor.Page(bytes) {
+      @Override
+      void write(BytesInput input) throws IOException {
+        writer.writePage(input, pageValueCount, pageValueCount, pageStatistics, Encoding.BIT_PACKED, Encoding.RLE,
+          valuesEncoding);
+        compressNanos += getCompressNanos();
+      }
+    });
+  }
+
+  /**
+   * Cuts the last page of the column chunk, and the dictionary page if the pages use a dictionary.
+   *
+   * @param rowCount rows in the row group
+   */
+  void finishColumnChunk(long rowCount) throws IOException {
+    if (rowCount > rowsWrittenSoFar) {
+      writePage();
+    }
+    if (!pagesUseDictionary || lastUsedDictionarySize == 0) {
+      return;
+    }
+
+    // the entries the pages use, the ones added by a page which fell back aren't
+    final long start = System.nanoTime();
+    final PageBuffer dictionary = new PageBuffer((int) Math.min(dictionaryByteSize, maxDictionaryByteSize));
+    for (int id = 0; id < lastUsedDictionarySize; id++) {
+      writeDictionaryEntry(dictionary, id);
+    }
+    final byte[] bytes = new byte[dictionary.size()];
+    dictionary.copyTo(bytes, 0);
+    final PageWriter writer = pageWriter;
+    final int dictionarySize = lastUsedDictionarySize;
+    encodeNanos += System.nanoTime() - start;
+
+    compressor.add(new ParallelPageCompressor.Page(bytes) {
+      @Override
+      void write(BytesInput input) throws IOException {
+        writer.writeDictionaryPage(new DictionaryPage(input, dictionarySize, Encoding.PLAIN_DICTIONARY));
+        compressNanos += getCompressNanos();
+      }
+    });
+  }
+
+  long getEncodeNanos() {
+    return encodeNanos;
+  }
+
+  long getCompressNanos() {
+    return compressNanos;
+  }
+
+  protected final Statistics<?> getStatistics() {
+    return statistics;
+  }
+
+  protected final boolean isDictionaryEncoding() {
+    return dictionaryEnabled && !fellBack;
+  }
+
+  /**
+   * Adds the id of a value already in the dictionary to the page.
+   */
+  protected final void addId(int id) {
+    if (idCount == ids.length) {
+      ids = Arrays.copyOf(ids, ids.length * 2);
+    }
+    ids[idCount++] = id;
+  }
+
+  /**
+   * Adds the id of a value just added to the dictionary to the page, and falls back to plain encoding if the
+   * dictionary gets too large.
+   *
+   * @return whether the values are now plain encoded
+   */
+  protected final boolean addNewId(int id, int entryByteSize) {
+    addId(id);
+    dictionaryByteSize += entryByteSize;
+    if (dictionaryByteSize > maxDictionaryByteSize) {
+      fallBack();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Plain encodes the values of the page, which get plain encoded from now on.
+   */
+  private void fallBack() {
+    fellBack = true;
+    for (int i = 0; i < idCount; i++) {
+      writeDictionaryEntry(values, ids[i]);
+    }
+    idCount = 0;
+  }
+
+  /**
+   * Dictionary ids of the page, with their bit width first.
+   */
+  private PageBuffer encodeIds() {
+    final int bitWidth = 32 - Integer.numberOfLeadingZeros(getDictionarySize() - 1);
+    final PageBuffer out = new PageBuffer(idCount * bitWidth / 8 + 16);
+    out.write(bitWidth);
+    final RleBitPackingHybridEncoder encoder = new RleBitPackingHybridEncoder(bitWidth, out);
+    int i = 0;
+    while (i < idCount) {
+      final int id = ids[i];
+      int runEnd = i + 1;
+      while (runEnd < idCount && ids[runEnd] == id) {
+        runEnd++;
+      }
+      encoder.writeRepeated(id, runEnd - i);
+      i = runEnd;
+    }
+    encoder.finish();
+    return out;
+  }
+
+  /**
+   * Encodes the values of the given rows, all set.
+   */
+  abstract void writeValues(int from, int to);
+
+  abstract int getDictionarySize();
+
+  /**
+   * Plain encodes the dictionary entry of the given id.
+   */
+  abstract void writeDictionaryEntry(PageBuffer out, int id);
+
+  abstract void clearDictionary();
+
+  /**
+   * Size of the plain encoded values of the page so far.
+   */
+  long getPlainBufferedSize() {
+    return values.size();
+  }
+
+  /**
+   * Writes the plain encoded values still buffered before the page is cut.
+   */
+  void finishPlainValues() {
+  }
+
+  void resetValues() {
+    values.reset();
+  }
+
+  /**
+   * Encodes INT32 values, plain encoded ones copied from the vector when they are the same as in the vector.
+   */
+  private static class IntEncoder extends ColumnChunkEncoder {
+    private final IntIntHashMap dictionaryIds = new IntIntHashMap();
+    private final IntArrayList dictionary = new IntArrayList();
+    private final boolean copyPlainValues;
+
+    IntEncoder(FieldVector vector, ColumnDescriptor descriptor, ParquetProperties properties, boolean dictionaryEnabled,
+               boolean copyPlainValues) {
+      super(vector, descriptor, properties, dictionaryEnabled);
+      this.copyPlainValues = copyPlainValues;
+    }
+
+    int getInt(ArrowBuf data, int index) {
+      return data.getInt(index * 4L);
+    }
+
+    @Override
+    void writeValues(int from, int to) {
+      final ArrowBuf data = vector.getDataBuffer();
+      int min = getInt(data, from);
+      int max = min;
+      for (int i = from + 1; i < to; i++) {
+        final int value = getInt(data, i);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+      }
+      getStatistics().updateStats(min);
+      getStatistics().updateStats(max);
+      rawDataByteSize += 4L * (to - from);
+
+      int i = from;
+      if (isDictionaryEncoding()) {
+        int previousValue = 0;
+        int previousId = -1;
+        while (i < to) {
+          final int value = getInt(data, i++);
+          if (previousId >= 0 && value == previousValue) {
+            addId(previousId);
+            continue;
+          }
+          int id = dictionaryIds.getOrDefault(value, -1);
+          if (id < 0) {
+            id = dictionary.size();
+            dictionaryIds.put(value, id);
+            dictionary.add(value);
+            if (addNewId(id, 4)) {
+              break;
+            }
+          } else {
+            addId(id);
+          }
+          previousValue = value;
+          previousId = id;
+        }
+      }
+
+      if (i == to) {
+        return;
+      }
+      if (copyPlainValues) {
+        values.write(data, i * 4L, (to - i) * 4);
+      } else {
+        for (; i < to; i++) {
+          values.writeInt(getInt(data, i));
+        }
+      }
+    }
+
+    @Override
+    int getDictionarySize() {
+      return dictionary.size();
+    }
+
+    @Override
+    void writeDictionaryEntry(PageBuffer out, int id) {
+      out.writeInt(dictionary.get(id));
+    }
+
+    @Override
+    void clearDictionary() {
+      dictionaryIds.clear();
+      dictionary.clear();
+    }
+  }
+
+  /**
+   * Encodes INT64 values, plain encoded ones copied from the vector when they are the same as in the vector.
+   */
+  private static class LongEncoder extends ColumnChunkEncoder {
+    private final LongIntHashMap dictionaryIds = new LongIntHashMap();
+    private final LongArrayList dictionary = new LongArrayList();
+    private final boolean copyPlainValues;
+
+    LongEncoder(FieldVector vector, ColumnDescriptor descriptor, ParquetProperties properties,
+                boolean dictionaryEnabled, boolean copyPlainValues) {
+      super(vector, descriptor, properties, dictionaryEnabled);
+      this.copyPlainValues = copyPlainValues;
+    }
+
+    long getLong(ArrowBuf data, int index) {
+      return data.getLong(index * 8L);
+    }
+
+    @Override
+    void writeValues(int from, int to) {
+      final ArrowBuf data = vector.getDataBuffer();
+      long min = getLong(data, from);
+      long max = min;
+      for (int i = from + 1; i < to; i++) {
+        final long value = getLong(data, i);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+      }
+      getStatistics().updateStats(min);
+      getStatistics().updateStats(max);
+      rawDataByteSize += 8L * (to - from);
+
+      int i = from;
+      if (isDictionaryEncoding()) {
+        long previousValue = 0;
+        int previousId = -1;
+        while (i < to) {
+          final long value = getLong(data, i++);
+          if (previousId >= 0 && value == previousValue) {
+            addId(previousId);
+            continue;
+          }
+          int id = dictionaryIds.getOrDefault(value, -1);
+          if (id < 0) {
+            id = dictionary.size();
+            dictionaryIds.put(value, id);
+            dictionary.add(value);
+            if (addNewId(id, 8)) {
+              break;
+            }
+          } else {
+            addId(id);
+          }
+          previousValue = value;
+          previousId = id;
+        }
+      }
+
+      if (i == to) {
+        return;
+      }
+      if (copyPlainValues) {
+        values.write(data, i * 8L, (to - i) * 8);
+      } else {
+        for (; i < to; i++) {
+          values.writeLong(getLong(data, i));
+        }
+      }
+    }
+
+    @Override
+    int getDictionarySize() {
+      return dictionary.size();
+    }
+
+    @Override
+    void writeDictionaryEntry(PageBuffer out, int id) {
+      out.writeLong(dictionary.get(id));
+    }
+
+    @Override
+    void clearDictionary() {
+      dictionaryIds.clear();
+      dictionary.clear();
+    }
+  }
+
+  /**
+   * Encodes FLOAT values, with the bits parquet-mr writes for them: the NaNs are all written as the canonical NaN.
+   */
+  private static class FloatEncoder extends ColumnChunkEncoder {
+    // the dictionary is on the bits of the values, as in parquet-mr
+    private final IntIntHashMap dictionaryIds = new IntIntHashMap();
+    private final IntArrayList dictionary = new IntArrayList();
+
+    FloatEncoder(FieldVector vector, ColumnDescriptor descriptor, ParquetProperties properties,
+                 boolean dictionaryEnabled) {
+      super(vector, descriptor, properties, dictionaryEnabled);
+    }
+
+    @Override
+    void writeValues(int from, int to) {
+      final ArrowBuf data = vector.getDataBuffer();
+      boolean hasNaN = false;
+      for (int i = from; i < to; i++) {
+        final float value = data.getFloat(i * 4L);
+        getStatistics().updateStats(value);
+        hasNaN |= Float.isNaN(value);
+      }
+      rawDataByteSize += 4L * (to - from);
+
+      int i = from;
+      if (isDictionaryEncoding()) {
+        while (i < to) {
+          final int bits = Float.floatToIntBits(data.getFloat(i++ * 4L));
+          int id = dictionaryIds.getOrDefault(bits, -1);
+          if (id < 0) {
+            id = dictionary.size();
+            dictionaryIds.put(bits, id);
+            dictionary.add(bits);
+            if (addNewId(id, 4)) {
+              break;
+            }
+          } else {
+            addId(id);
+          }
+        }
+      }
+
+      if (i == to) {
+        return;
+      }
+      final int position = values.size();
+      values.write(data, i * 4L, (to - i) * 4);
+      if (hasNaN) {
+        for (int j = i; j < to; j++) {
+          final float value = data.getFloat(j * 4L);
+          if (Float.isNaN(value)) {
+            values.setInt(position + (j - i) * 4, Float.floatToIntBits(value));
+          }
+        }
+      }
+    }
+
+    @Override
+    int getDictionarySize() {
+      return dictionary.size();
+    }
+
+    @Override
+    void writeDictionaryEntry(PageBuffer out, int id) {
+      out.writeInt(dictionary.get(id));
+    }
+
+    @Override
+    void clearDictionary() {
+      dictionaryIds.clear();
+      dictionary.clear();
+    }
+  }
+
+  /**
+   * Encodes DOUBLE values, with the bits parquet-mr writes for them: the NaNs are all written as the canonical NaN.
+   */
+  private static class DoubleEncoder extends ColumnChunkEncoder {
+    // the dictionary is on the bits of the values, as in parquet-mr
+    private final LongIntHashMap dictionaryIds = new LongIntHashMap();
+    private final LongArrayList dictionary = new LongArrayList();
+
+    DoubleEncoder(FieldVector vector, ColumnDescriptor descriptor, ParquetProperties properties,
+                  boolean dictionaryEnabled) {
+      super(vector, descriptor, properties, dictionaryEnabled);
+    }
+
+    @Override
+    void writeValues(int from, int to) {
+      final ArrowBuf data = vector.getDataBuffer();
+      boolean hasNaN = false;
+      for (int i = from; i < to; i++) {
+        final double value = data.getDouble(i * 8L);
+        getStatistics().updateStats(value);
+        hasNaN |= Double.isNaN(value);
+      }
+      rawDataByteSize += 8L * (to - from);
+
+      int i = from;
+      if (isDictionaryEncoding()) {
+        while (i < to) {
+          final long bits = Double.doubleToLongBits(data.getDouble(i++ * 8L));
+          int id = dictionaryIds.getOrDefault(bits, -1);
+          if (id < 0) {
+            id = dictionary.size();
+            dictionaryIds.put(bits, id);
+            dictionary.add(bits);
+            if (addNewId(id, 8)) {
+              break;
+            }
+          } else {
+            addId(id);
+          }
+        }
+      }
+
+      if (i == to) {
+        return;
+      }
+      final int position = values.size();
+      values.write(data, i * 8L, (to - i) * 8);
+      if (hasNaN) {
+        for (int j = i; j < to; j++) {
+          final double value = data.getDouble(j * 8L);
+          if (Double.isNaN(value)) {
+            values.setLong(position + (j - i) * 8, Double.doubleToLongBits(value));
+          }
+        }
+      }
+    }
+
+    @Override
+    int getDictionarySize() {
+      return dictionary.size();
+    }
+
+    @Override
+    void writeDictionaryEntry(PageBuffer out, int id) {
+      out.writeLong(dictionary.get(id));
+    }
+
+    @Override
+    void clearDictionary() {
+      dictionaryIds.clear();
+      dictionary.clear();
+    }
+  }
+
+  /**
+   * Encodes BINARY values, each plain encoded value being its length followed by its bytes.
+   */
+  private static class BinaryEncoder extends ColumnChunkEncoder {
+    private final ObjectIntHashMap<Binary> dictionaryIds = new ObjectIntHashMap<>();
+    private final List<Binary> dictionary = new ArrayList<>();
+    private byte[] bytes = new byte[256];
+
+    BinaryEncoder(FieldVector vector, ColumnDescriptor descriptor, ParquetProperties properties,
+                  boolean dictionaryEnabled) {
+      super(vector, descriptor, properties, dictionaryEnabled);
+    }
+
+    @Override
+    void writeValues(int from, int to) {
+      final ArrowBuf offsets = vector.getOffsetBuffer();
+      final ArrowBuf data = vector.getDataBuffer();
+      int start = offsets.getInt(from * 4L);
+      for (int i = from; i < to; i++) {
+        final int end = offsets.getInt((i + 1) * 4L);
+        final int length = end - start;
+        if (length > bytes.length) {
+          bytes = new byte[Math.max(length, bytes.length * 2)];
+        }
+        data.getBytes(start, bytes, 0, length);
+        final Binary value = Binary.fromReusedByteArray(bytes, 0, length);
+        getStatistics().updateStats(value);
+        rawDataByteSize += length + 4;
+
+        if (isDictionaryEncoding()) {
+          int id = dictionaryIds.getOrDefault(value, -1);
+          if (id < 0) {
+            final Binary entry = Binary.fromConstantByteArray(Arrays.copyOf(bytes, length));
+            id = dictionary.size();
+            dictionaryIds.put(entry, id);
+            dictionary.add(entry);
+            addNewId(id, 4 + length);
+          } else {
+            addId(id);
+          }
+        } else {
+          values.writeInt(length);
+          values.write(bytes, 0, length);
+        }
+        start = end;
+      }
+    }
+
+    @Override
+    int getDictionarySize() {
+      return dictionary.size();
+    }
+
+    @Override
+    void writeDictionaryEntry(PageBuffer out, int id) {
+      final Binary entry = dictionary.get(id);
+      out.writeInt(entry.length());
+      out.write(entry.getBytesUnsafe(), 0, entry.length());
+    }
+
+    @Override
+    void clearDictionary() {
+      dictionaryIds.clear();
+      dictionary.clear();
+    }
+  }
+
+  /**
+   * Encodes BOOLEAN values, bit packed 8 at a time. There is no dictionary for them.
+   */
+  private static class BooleanEncoder extends ColumnChunkEncoder {
+    private int packedBits;
+    private int packedCount;
+
+    BooleanEncoder(FieldVector vector, ColumnDescriptor descriptor, ParquetProperties properties) {
+      super(vector, descriptor, properties, false);
+    }
+
+    @Override
+    void writeValues(int from, int to) {
+      final ArrowBuf data = vector.getDataBuffer();
+      boolean hasFalse = false;
+      boolean hasTrue = false;
+      for (int i = from; i < to; i++) {
+        final int bit = BitVectorHelper.get(data, i);
+        hasFalse |= bit == 0;
+        hasTrue |= bit != 0;
+        packedBits |= bit << packedCount;
+        if (++packedCount == 8) {
+          values.write(packedBits);
+          packedBits = 0;
+          packedCount = 0;
+        }
+      }
+      if (hasFalse) {
+        getStatistics().updateStats(false);
+      }
+      if (hasTrue) {
+        getStatistics().updateStats(true);
+      }
+    }
+
+    @Override
+    long getPlainBufferedSize() {
+      // counting the byte of the values not packed yet
+      return values.size() + (packedCount > 0 ? 1 : 0);
+    }
+
+    @Override
+    void finishPlainValues() {
+      if (packedCount > 0) {
+        values.write(packedBits);
+        packedBits = 0;
+        packedCount = 0;
+      }
+    }
+
+    @Override
+    void resetValues() {
+      super.resetValues();
+      packedBits = 0;
+      packedCount = 0;
+    }
+
+    @Override
+    int getDictionarySize() {
+      return 0;
+    }
+
+    @Override
+    void writeDictionaryEntry(PageBuffer out, int id) {
+      throw new UnsupportedOperationException("Booleans are not dictionary encoded");
+    }
+
+    @Override
+    void clearDictionary() {
+    }
+  }
+
+  /**
+   * Encodes 16 bytes decimals as FIXED_LEN_BYTE_ARRAY values, big endian in parquet while little endian in the
+   * vector. There is no dictionary for them.
+   */
+  private static class DecimalEncoder extends ColumnChunkEncoder {
+    private final byte[] bytes = new byte[16];
+
+    DecimalEncoder(FieldVector vector, ColumnDescriptor descriptor, ParquetProperties properties) {
+      super(vector, descriptor, properties, false);
+    }
+
+    @Override
+    void writeValues(int from, int to) {
+      final ArrowBuf data = vector.getDataBuffer();
+      for (int i = from; i < to; i++) {
+        data.getBytes(i * 16L, bytes, 0, 16);
+        DecimalHelper.swapBytes(bytes);
+        getStatistics().updateStats(Binary.fromReusedByteArray(bytes));
+        values.write(bytes, 0, 16);
+      }
+      rawDataByteSize += 16L * (to - from);
+    }
+
+    @Override
+    int getDictionarySize() {
+      return 0;
+    }
+
+    @Override
+    void writeDictionaryEntry(PageBuffer out, int id) {
+      throw new UnsupportedOperationException("Decimals are not dictionary encoded");
+    }
+
+    @Override
+    void clearDictionary() {
+    }
+  }
+}
@@ -16,6 +16,7 @@
 package com.dremio.exec.store.parquet;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
@@ -68,6 +69,14 @@ public interface InputStreamProvider extends AutoCloseable {
   default Tuple<FSInputStream, Long> getBoostedStream(ColumnChunkMetaData column) throws IOException { return null; }
 
 
+  /**
+   * Lets the provider plan the reads of the given column chunks of a row group, before their streams are obtained.
+   * @param columns column chunks that will be read
+   * @param stats where to report the reads, may be null
+   */
+  default void planColumnReads(Collection<ColumnChunkMetaData> columns, ParquetReaderStats stats) throws IOException {
+  }
+
   /**
    * getOffsetIndexProvider.
    */
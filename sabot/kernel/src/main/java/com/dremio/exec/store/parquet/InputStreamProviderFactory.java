@@ -16,10 +16,12 @@
 package com.dremio.exec.store.parquet;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 
 import com.dremio.exec.ExecConstants;
+import com.dremio.io.AsyncByteReader;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
 import com.dremio.options.OptionManager;
@@ -56,9 +58,16 @@ public interface InputStreamProviderFactory {
               readFullFile;
 
       final long maxFooterLen = context.getOptions().getOption(ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR);
+      if (!useSingleStream && options.getOption(ExecConstants.PARQUET_COALESCED_READS) && fs.supportsAsync()) {
+        final AsyncByteReader reader = fs.getAsyncByteReader(AsyncByteReader.FileKey.of(path, Long.toString(mTime),
+          AsyncByteReader.FileKey.FileType.PARQUET, dataset), Collections.emptyMap());
+        return new CoalescedRangeStreamProvider(fs, path, fileLength, mTime, projectedColumns, maxFooterLen, footerIfKnown,
+          context, readColumnIndices, parquetFilters, parquetFilterCreator, reader,
+          options.getOption(ExecConstants.PARQUET_COALESCED_READS_MAX_GAP), options.getOption(ExecConstants.PARQUET_COALESCED_READS_MAX_SIZE));
+      }
       return useSingleStream
-        ? new SingleStreamProvider(fs, path, fileLength, maxFooterLen, readFullFile, footerIfKnown, context, readColumnIndices, parquetFilters, parquetFilterCreator)
-        : new StreamPerColumnProvider(fs, path, fileLength, maxFooterLen, footerIfKnown, context, readColumnIndices, parquetFilters, parquetFilterCreator);
+        ? new SingleStreamProvider(fs, path, fileLength, mTime, projectedColumns, maxFooterLen, readFullFile, footerIfKnown, context, readColumnIndices, parquetFilters, parquetFilterCreator)
+        : new StreamPerColumnProvider(fs, path, fileLength, mTime, projectedColumns, maxFooterLen, footerIfKnown, context, readColumnIndices, parquetFilters, parquetFilterCreator);
     }
   };
 
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.util.Arrays;
+
+import org.apache.arrow.memory.ArrowBuf;
+
+/**
+ * Growable buffer the bytes of a parquet page are encoded in, in little endian order like the parquet encodings.
+ */
+final class PageBuffer {
+  private byte[] bytes;
+  private int size;
+
+  PageBuffer(int initialCapacity) {
+    this.bytes = new byte[Math.max(initialCapacity, 16)];
+  }
+
+  int size() {
+    return size;
+  }
+
+  void reset() {
+    size = 0;
+  }
+
+  void write(int b) {
+    ensureCapacity(1);
+    bytes[size++] = (byte) b;
+  }
+
+  void writeInt(int value) {
+    ensureCapacity(4);
+    setInt(size, value);
+    size += 4;
+  }
+
+  void writeLong(long value) {
+    ensureCapacity(8);
+    setLong(size, value);
+    size += 8;
+  }
+
+  void write(byte[] src, int offset, int length) {
+    ensureCapacity(length);
+    System.arraycopy(src, offset, bytes, size, length);
+    size += length;
+  }
+
+  /**
+   * Copies the given bytes of an arrow buffer as they are.
+   */
+  void write(ArrowBuf src, long index, int length) {
+    ensureCapacity(length);
+    src.getBytes(index, bytes, size, length);
+    size += length;
+  }
+
+  void setByte(int index, byte value) {
+    bytes[index] = value;
+  }
+
+  void setInt(int index, int value) {
+    bytes[index] = (byte) value;
+    bytes[index + 1] = (byte) (value >>> 8);
+    bytes[index + 2] = (byte) (value >>> 16);
+    bytes[index + 3] = (byte) (value >>> 24);
+  }
+
+  void setLong(int index, long value) {
+    setInt(index, (int) value);
+    setInt(index + 4, (int) (value >>> 32));
+  }
+
+  /**
+   * Copies the bytes written so far at the given position of the target array.
+   */
+  void copyTo(byte[] target, int offset) {
+    System.arraycopy(bytes, 0, target, offset, size);
+  }
+
+  private void ensureCapacity(int length) {
+    final long required = (long) size + length;
+    if (required > bytes.length) {
+      if (required > Integer.MAX_VALUE - 8) {
+        throw new IllegalStateException("Parquet page larger than " + (Integer.MAX_VALUE - 8) + " bytes");
+      }
+      bytes = Arrays.copyOf(bytes, (int) Math.min(Math.max(required, 2L * bytes.length), Integer.MAX_VALUE - 8));
+    }
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.compression.CompressionCodecFactory.BytesInputCompressor;
+import org.apache.parquet.hadoop.CodecFactory.BytesCompressor;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+
+/**
+ * Compresses the pages of the columns written column by column on several threads, before handing them to the page
+ * writers of the row group.
+ *
+ * The page writers compress the pages they are handed with the compressor of their page store, one page at a time. The
+ * pages are instead queued as they are cut, compressed in parallel, each thread with its own compressor, and then
+ * written one by one in the order they were cut: the compressor of the page store only returns the bytes compressed
+ * beforehand. The codecs compress the same bytes the same way whatever their instance, so the column chunks are the
+ * same as when compressed by the page writers.
+ */
+final class ParallelPageCompressor implements AutoCloseable {
+  // pages queued for each thread before they get compressed
+  private static final int PAGES_PER_THREAD = 2;
+
+  private final CompressionCodecName codec;
+  private final List<CompressionCodecFactory> codecFactories = new ArrayList<>();
+  private final List<BytesInputCompressor> compressors = new ArrayList<>();
+  private final ExecutorService executor;
+  private final List<Page> pages = new ArrayList<>();
+
+  /**
+   * @param codecFactory factory of the compressor used on the calling thread, released by the caller
+   * @param newCodecFactory creates the factories of the compressors of the other threads
+   * @param parallelism number of threads compressing the pages at once, including the calling thread
+   * @param executor runs the compressions of the other threads, compressing on the calling thread only if null
+   */
+  ParallelPageCompressor(CompressionCodecName codec, CompressionCodecFactory codecFactory,
+                         Supplier<CompressionCodecFactory> newCodecFactory, int parallelism, ExecutorService executor) {
+    this.codec = codec;
+    this.executor = executor;
+    compressors.add(codecFactory.getCompressor(codec));
+    if (executor != null && codec != CompressionCodecName.UNCOMPRESSED) {
+      for (int i = 1; i < parallelism; i++) {
+        final CompressionCodecFactory factory = newCodecFactory.get();
+        codecFactories.add(factory);
+        compressors.add(factory.getCompressor(codec));
+      }
+    }
+  }
+
+  /**
+   * Compressor for the page store of a row group, which returns the bytes of the queued pages compressed beforehand.
+   */
+  @SuppressWarnings("deprecation")
+  BytesCompressor getPageStoreCompressor() {
+    return new BytesCompressor() {
+      @Override
+      public BytesInput compress(BytesInput bytes) throws IOException {
+        if (bytes instanceof PageBytes) {
+          return ((PageBytes) bytes).page.compressed;
+        }
+        return BytesInput.copy(compressors.get(0).compress(bytes));
+      }
+
+      @Override
+      public CompressionCodecName getCodecName() {
+        return codec;
+      }
+
+      @Override
+      public void release() {
+        // the compressors are released with this
+      }
+    };
+  }
+
+  /**
+   * Queues a page, compressing and writing the queued pages once there are enough of them to keep the threads busy.
+   */
+  void add(Page page) throws IOException {
+    pages.add(page);
+    if (pages.size() >= compressors.size() * PAGES_PER_THREAD) {
+      writePages();
+    }
+  }
+
+  /**
+   * Compresses the queued pages, then hands them to their page writers in the order they were queued.
+   */
+  void writePages() throws IOException {
+    if (pages.isEmpty()) {
+      return;
+    }
+
+    final int threads = Math.min(compressors.size(), pages.size());
+    final List<Future<?>> futures = new ArrayList<>(threads - 1);
+    Throwable failure = null;
+    try {
+      for (int thread = 1; thread < threads; thread++) {
+        final int first = thread;
+        futures.add(executor.submit(() -> {
+          compress(first, threads);
+          return null;
+        }));
+      }
+      compress(0, threads);
+    } catch (Throwable t) {
+      failure = t;
+    }
+    // wait for all the threads, so that none of them still uses its compressor when this returns
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        failure = addFailure(failure, e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        failure = addFailure(failure, e);
+      }
+    }
+    if (failure != null) {
+      pages.clear();
+      if (failure instanceof IOException) {
+        throw (IOException) failure;
+      }
+      throw new IOException("Failed to compress parquet pages", failure);
+    }
+
+    try {
+      for (Page page : pages) {
+        page.write(new PageBytes(page));
+      }
+    } finally {
+      pages.clear();
+    }
+  }
+
+  /**
+   * Compresses every given number of pages from the given one, with the compressor of the thread.
+   */
+  private void compress(int first, int step) throws IOException {
+    final BytesInputCompressor compressor = compressors.get(first);
+    for (int i = first; i < pages.size(); i += step) {
+      final Page page = pages.get(i);
+      final long start = System.nanoTime();
+      if (codec == CompressionCodecName.UNCOMPRESSED) {
+        page.compressed = BytesInput.from(page.bytes);
+      } else {
+        // the compressors reuse their output buffer
+        page.compressed = BytesInput.copy(compressor.compress(BytesInput.from(page.bytes)));
+      }
+      page.compressNanos = System.nanoTime() - start;
+    }
+  }
+
+  private static Throwable addFailure(Throwable failure, Throwable t) {
+    if (failure == null) {
+      return t;
+    }
+    failure.addSuppressed(t);
+    return failure;
+  }
+
+  @Override
+  public void close() {
+    pages.clear();
+    for (CompressionCodecFactory factory : codecFactories) {
+      factory.release();
+    }
+    codecFactories.clear();
+  }
+
+  /**
+   * Uncompressed page queued for compression, written to its page writer once compressed.
+   */
+  abstract static class Page {
+    private final byte[] bytes;
+    private BytesInput compressed;
+    private long compressNanos;
+
+    Page(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    long getCompressNanos() {
+      return compressNanos;
+    }
+
+    /**
+     * Hands the page to its page writer.
+     *
+     * @param bytes uncompressed bytes of the page, which the page store compressor turns into the compressed ones
+     */
+    abstract void write(BytesInput bytes) throws IOException;
+  }
+
+  /**
+   * Uncompressed bytes of a page, along with its compressed bytes.
+   */
+  private static final class PageBytes extends BytesInput {
+    private final Page page;
+
+    private PageBytes(Page page) {
+      this.page = page;
+    }
+
+    @Override
+    public void writeAllTo(OutputStream out) throws IOException {
+      out.write(page.bytes);
+    }
+
+    @Override
+    public long size() {
+      return page.bytes.length;
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.format.BloomFilterHeader;
+import org.apache.parquet.format.Util;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.FunctionHolderExpression;
+import com.dremio.common.expression.InExpression;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions;
+import com.dremio.io.FSInputStream;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Checks the equality and IN filters pushed down into a parquet scan against the split block bloom filters of the
+ * row groups.
+ */
+final class ParquetBloomFilters {
+  private static final String EQUAL = "equal";
+  private static final String OR = "booleanOr";
+
+  private ParquetBloomFilters() {
+  }
+
+  /**
+   * Returns the values the column has to be equal to for the filter to hold, null if the filter is not an equality
+   * or an IN on constants of the column.
+   */
+  static List<LogicalExpression> getEqualityValues(LogicalExpression filter, SchemaPath column) {
+    final List<LogicalExpression> values = new ArrayList<>();
+    return addEqualityValues(filter, column, values) ? values : null;
+  }
+
+  private static boolean addEqualityValues(LogicalExpression filter, SchemaPath column, List<LogicalExpression> values) {
+    if (filter instanceof InExpression) {
+      final InExpression in = (InExpression) filter;
+      if (!isColumn(in.getEval(), column)) {
+        return false;
+      }
+      values.addAll(in.getConstants());
+      return true;
+    }
+
+    final String name;
+    final List<LogicalExpression> args;
+    if (filter instanceof FunctionCall) {
+      name = ((FunctionCall) filter).getName();
+      args = ((FunctionCall) filter).args;
+    } else if (filter instanceof FunctionHolderExpression) {
+      name = ((FunctionHolderExpression) filter).getName();
+      args = ((FunctionHolderExpression) filter).args;
+    } else {
+      return false;
+    }
+
+    if (OR.equals(name)) {
+      for (LogicalExpression arg : args) {
+        if (!addEqualityValues(arg, column, values)) {
+          return false;
+        }
+      }
+      return !args.isEmpty();
+    }
+    if (!EQUAL.equals(name) || args.size() != 2) {
+      return false;
+    }
+    if (isColumn(args.get(0), column)) {
+      values.add(args.get(1));
+      return true;
+    }
+    if (isColumn(args.get(1), column)) {
+      values.add(args.get(0));
+      return true;
+    }
+    return false;
+  }
+
+  private static boolean isColumn(LogicalExpression expr, SchemaPath column) {
+    return expr instanceof SchemaPath && ((SchemaPath) expr).getAsUnescapedPath().equalsIgnoreCase(column.getAsUnescapedPath());
+  }
+
+  /**
+   * Whether none of the values is in the bloom filter of a column of the given type. Values of other types than the
+   * one of the column are taken as possibly present.
+   */
+  static boolean canSkip(BloomFilter bloomFilter, PrimitiveType type, List<LogicalExpression> values) {
+    for (LogicalExpression value : values) {
+      final Long hash = hash(bloomFilter, type, value);
+      if (hash == null || bloomFilter.findHash(hash)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Long hash(BloomFilter bloomFilter, PrimitiveType type, LogicalExpression value) {
+    final OriginalType originalType = type.getOriginalType();
+    switch (type.getPrimitiveTypeName()) {
+      case INT32: {
+        if (originalType != null && originalType != OriginalType.INT_32) {
+          return null;
+        }
+        final Long longValue = toLong(value);
+        if (longValue == null || longValue != longValue.intValue()) {
+          return null;
+        }
+        return bloomFilter.hash(longValue.intValue());
+      }
+      case INT64: {
+        if (originalType != null && originalType != OriginalType.INT_64) {
+          return null;
+        }
+        final Long longValue = toLong(value);
+        return longValue == null ? null : bloomFilter.hash(longValue.longValue());
+      }
+      case FLOAT: {
+        if (!(value instanceof ValueExpressions.FloatExpression)) {
+          return null;
+        }
+        final float floatValue = ((ValueExpressions.FloatExpression) value).getFloat();
+        // -0.0 equals 0.0 and NaN may have several encodings, while their hashes differ
+        if (floatValue == 0 || Float.isNaN(floatValue)) {
+          return null;
+        }
+        return bloomFilter.hash(floatValue);
+      }
+      case DOUBLE: {
+        if (!(value instanceof ValueExpressions.DoubleExpression)) {
+          return null;
+        }
+        final double doubleValue = ((ValueExpressions.DoubleExpression) value).getDouble();
+        if (doubleValue == 0 || Double.isNaN(doubleValue)) {
+          return null;
+        }
+        return bloomFilter.hash(doubleValue);
+      }
+      case BINARY:
+        if (originalType != OriginalType.UTF8 || !(value instanceof ValueExpressions.QuotedString)) {
+          return null;
+        }
+        return bloomFilter.hash(Binary.fromString(((ValueExpressions.QuotedString) value).getString()));
+      default:
+        return null;
+    }
+  }
+
+  private static Long toLong(LogicalExpression value) {
+    if (value instanceof ValueExpressions.IntExpression) {
+      return (long) ((ValueExpressions.IntExpression) value).getInt();
+    }
+    if (value instanceof ValueExpressions.LongExpression) {
+      return ((ValueExpressions.LongExpression) value).getLong();
+    }
+    return null;
+  }
+
+  /**
+   * Reads the bloom filter at the given offset of the file, null if its algorithm, hash or compression is not
+   * supported.
+   */
+  static BloomFilter read(FSInputStream input, long offset) throws IOException {
+    input.setPosition(offset);
+    final BloomFilterHeader header = Util.readBloomFilterHeader(input);
+    final int numBytes = header.getNumBytes();
+    if (numBytes <= 0 || numBytes > BlockSplitBloomFilter.UPPER_BOUND_BYTES
+      || !header.getAlgorithm().isSetBLOCK() || !header.getHash().isSetXXHASH()
+      || !header.getCompression().isSetUNCOMPRESSED()) {
+      return null;
+    }
+    final byte[] bitset = new byte[numBytes];
+    ByteStreams.readFully(input, bitset);
+    return new BlockSplitBloomFilter(bitset);
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.column.page.PageWriteStore;
+import org.apache.parquet.hadoop.CodecFactory.BytesCompressor;
+import org.apache.parquet.schema.MessageType;
+
+import com.dremio.exec.planner.acceleration.IncrementalUpdateUtils;
+import com.dremio.exec.planner.physical.WriterPrel;
+import com.dremio.exec.proto.UserBitShared.ColumnEncodeInfo;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorWrapper;
+
+/**
+ * Writes batches of flat primitive columns to the row groups of parquet files, one column at a time.
+ *
+ * Each column is encoded straight from the buffers of its vector by its {@link ColumnChunkEncoder}: runs of
+ * definition levels, dictionaries built over the whole batch and plain values copied in bulk. The pages are compressed
+ * in parallel by a {@link ParallelPageCompressor}, and written in order to the page store of the row group.
+ *
+ * The pages are cut on the same size checks as the column write store of parquet-mr, and are the same bytes as the
+ * ones its column writers build: the files are byte for byte the same as the ones written row by row through the
+ * record consumer. The caller writes the rows up to the next size check at once, see
+ * {@link #getRowCountUntilNextSizeCheck()}.
+ */
+class ParquetColumnarBatchWriter implements AutoCloseable {
+  // pages are cut this much below the page size, as in parquet-mr
+  private static final float THRESHOLD_TOLERANCE_RATIO = 0.1f;
+
+  private final List<ColumnChunkEncoder> encoders;
+  private final ParallelPageCompressor compressor;
+  private final long pageSizeThreshold;
+  private final long thresholdTolerance;
+  private final long minRowCountForPageSizeCheck;
+  private final long maxRowCountForPageSizeCheck;
+  private final long pageRowCountLimit;
+  private final boolean estimateNextSizeCheck;
+
+  private long rowCount;
+  private long rowCountForNextSizeCheck;
+
+  private ParquetColumnarBatchWriter(List<ColumnChunkEncoder> encoders, ParquetProperties properties,
+                                     ParallelPageCompressor compressor) {
+    this.encoders = encoders;
+    this.compressor = compressor;
+    this.pageSizeThreshold = properties.getPageSizeThreshold();
+    this.thresholdTolerance = (long) (properties.getPageSizeThreshold() * THRESHOLD_TOLERANCE_RATIO);
+    this.minRowCountForPageSizeCheck = properties.getMinRowCountForPageSizeCheck();
+    this.maxRowCountForPageSizeCheck = properties.getMaxRowCountForPageSizeCheck();
+    this.pageRowCountLimit = properties.getPageRowCountLimit();
+    this.estimateNextSizeCheck = properties.estimateNextSizeCheck();
+  }
+
+  /**
+   * Creates a writer for the given batch, null if some of its columns can't be written column by column.
+   *
+   * @param properties properties of the column write stores the rows would be written to otherwise
+   * @param compressorSupplier creates the compressor of the pages, only called if the batch can be written
+   */
+  static ParquetColumnarBatchWriter create(VectorAccessible incoming, MessageType schema, ParquetProperties properties,
+                                           boolean isIcebergWriter,
+                                           Supplier<ParallelPageCompressor> compressorSupplier) {
+    final List<ColumnChunkEncoder> encoders = new ArrayList<>();
+    for (VectorWrapper<?> w : incoming) {
+      final String name = w.getField().getName();
+      if (name.equalsIgnoreCase(WriterPrel.PARTITION_COMPARATOR_FIELD)) {
+        continue;
+      }
+      if (IncrementalUpdateUtils.UPDATE_COLUMN.equals(name)) {
+        // tracked by its own converter
+        return null;
+      }
+      if (!schema.containsField(name) || !schema.getType(name).isPrimitive()) {
+        return null;
+      }
+      final ColumnChunkEncoder encoder = ColumnChunkEncoder.create((FieldVector) w.getValueVector(),
+        schema.getColumnDescription(new String[]{name}), properties, isIcebergWriter);
+      if (encoder == null) {
+        return null;
+      }
+      encoders.add(encoder);
+    }
+    if (encoders.isEmpty() || encoders.size() != schema.getColumns().size()) {
+      return null;
+    }
+    return new ParquetColumnarBatchWriter(encoders, properties, compressorSupplier.get());
+  }
+
+  /**
+   * Compressor to build the page stores of the row groups with, see {@link ParallelPageCompressor}.
+   */
+  BytesCompressor getPageStoreCompressor() {
+    return compressor.getPageStoreCompressor();
+  }
+
+  /**
+   * Starts a new row group, whose pages are written to the given page store.
+   */
+  void startRowGroup(PageWriteStore pageStore) {
+    for (ColumnChunkEncoder encoder : encoders) {
+      encoder.startRowGroup(pageStore.getPageWriter(encoder.getDescriptor()), compressor);
+    }
+    rowCount = 0;
+    rowCountForNextSizeCheck = Math.min(minRowCountForPageSizeCheck, pageRowCountLimit);
+  }
+
+  /**
+   * Rows which can be written before the pages get checked for their size.
+   */
+  long getRowCountUntilNextSizeCheck() {
+    return rowCountForNextSizeCheck - rowCount;
+  }
+
+  /**
+   * Writes the given rows of each column, at most {@link #getRowCountUntilNextSizeCheck()} of them.
+   */
+  void write(int offset, int length) throws IOException {
+    for (ColumnChunkEncoder encoder : encoders) {
+      encoder.write(offset, length);
+    }
+    rowCount += length;
+    if (rowCount >= rowCountForNextSizeCheck) {
+      sizeCheck();
+    }
+  }
+
+  /**
+   * Cuts the pages which are full, and estimates when to check them next, the same way as parquet-mr's
+   * ColumnWriteStoreBase.
+   */
+  private void sizeCheck() throws IOException {
+    long minRecordToWait = Long.MAX_VALUE;
+    long rowCountForNextRowCountCheck = rowCount + pageRowCountLimit;
+    for (ColumnChunkEncoder encoder : encoders) {
+      final long usedMem = encoder.getCurrentPageBufferedSize();
+      final long rows = rowCount - encoder.getRowsWrittenSoFar();
+      long remainingMem = pageSizeThreshold - usedMem;
+      if (remainingMem <= thresholdTolerance || rows >= pageRowCountLimit) {
+        encoder.writePage();
+        remainingMem = pageSizeThreshold;
+      } else {
+        rowCountForNextRowCountCheck = Math.min(rowCountForNextRowCountCheck,
+          encoder.getRowsWrittenSoFar() + pageRowCountLimit);
+      }
+      final long rowsToFillPage = usedMem == 0 ? maxRowCountForPageSizeCheck : rows / usedMem * remainingMem;
+      if (rowsToFillPage < minRecordToWait) {
+        minRecordToWait = rowsToFillPage;
+      }
+    }
+    if (minRecordToWait == Long.MAX_VALUE) {
+      minRecordToWait = minRowCountForPageSizeCheck;
+    }
+
+    if (estimateNextSizeCheck) {
+      // will check again halfway if between min and max
+      rowCountForNextSizeCheck = rowCount + Math.min(
+        Math.max(minRecordToWait / 2, minRowCountForPageSizeCheck), maxRowCountForPageSizeCheck);
+    } else {
+      rowCountForNextSizeCheck = rowCount + minRowCountForPageSizeCheck;
+    }
+    if (rowCountForNextRowCountCheck < rowCountForNextSizeCheck) {
+      rowCountForNextSizeCheck = rowCountForNextRowCountCheck;
+    }
+  }
+
+  /**
+   * Size of the row group so far, after writing the queued pages.
+   */
+  long getBufferedSize() throws IOException {
+    compressor.writePages();
+    long size = 0;
+    for (ColumnChunkEncoder encoder : encoders) {
+      size += encoder.getTotalBufferedSize();
+    }
+    return size;
+  }
+
+  /**
+   * Writes the last pages of the row group to its page store, which the caller then flushes to the file.
+   */
+  void flush() throws IOException {
+    for (ColumnChunkEncoder encoder : encoders) {
+      encoder.finishColumnChunk(rowCount);
+    }
+    compressor.writePages();
+  }
+
+  long getEncodeNanos() {
+    long total = 0;
+    for (ColumnChunkEncoder encoder : encoders) {
+      total += encoder.getEncodeNanos();
+    }
+    return total;
+  }
+
+  long getMaxColumnEncodeNanos() {
+    long max = 0;
+    for (ColumnChunkEncoder encoder : encoders) {
+      max = Math.max(max, encoder.getEncodeNanos());
+    }
+    return max;
+  }
+
+  long getCompressNanos() {
+    long total = 0;
+    for (ColumnChunkEncoder encoder : encoders) {
+      total += encoder.getCompressNanos();
+    }
+    return total;
+  }
+
+  /**
+   * Time spent encoding and compressing each column, for the operator profile.
+   */
+  List<ColumnEncodeInfo> getColumnEncodeInfos() {
+    final List<ColumnEncodeInfo> infos = new ArrayList<>(encoders.size());
+    for (ColumnChunkEncoder encoder : encoders) {
+      infos.add(ColumnEncodeInfo.newBuilder()
+        .setColumnName(encoder.getDescriptor().getPath()[0])
+        .setEncodeNanos(encoder.getEncodeNanos())
+        .setCompressNanos(encoder.getCompressNanos())
+        .build());
+    }
+    return infos;
+  }
+
+  @Override
+  public void close() {
+    compressor.close();
+  }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.util.ColumnUtils;
+import com.dremio.io.file.Path;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.scan.ScanOperator.Metric;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+
+/**
+ * Executor wide cache of parsed parquet footers.
+ *
+ * <p>
+ * Entries are keyed by file path, length and modification time, so a rewritten file never hits a stale footer.
+ * The cache is bounded by the estimated heap size of the cached footers rather than by the number of entries,
+ * as footers of wide tables with many row groups can be orders of magnitude larger than others.
+ * </p>
+ *
+ * <p>
+ * Callers always get their own copy of the row group list, since {@link MutableParquetMetadata} trims it in place.
+ * </p>
+ */
+public class ParquetFooterCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetFooterCache.class);
+
+  // rough heap size estimates of the objects making up a parsed footer
+  private static final long FOOTER_OVERHEAD_BYTES = 256;
+  private static final long SCHEMA_COLUMN_BYTES = 256;
+  private static final long STRING_OVERHEAD_BYTES = 48;
+  private static final long BLOCK_BYTES = 96;
+  private static final long COLUMN_CHUNK_BYTES = 320;
+
+  private static volatile ParquetFooterCache instance;
+
+  /**
+   * Reads a footer, on a cache miss
+   */
+  @FunctionalInterface
+  public interface FooterLoader {
+    ParquetMetadata load() throws IOException;
+  }
+
+  private final long maxSizeBytes;
+  private final Cache<Key, Entry> cache;
+  private final AtomicLong sizeBytes = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  @VisibleForTesting
+  ParquetFooterCache(long maxSizeBytes) {
+    this.maxSizeBytes = maxSizeBytes;
+    this.cache = CacheBuilder.newBuilder()
+      .maximumWeight(maxSizeBytes)
+      .weigher((Key key, Entry entry) -> entry.weight)
+      .removalListener(this::onRemoval)
+      .build();
+  }
+
+  /**
+   * Gets the executor wide footer cache, creating it if needed.
+   *
+   * @return the cache or null if footer caching is disabled
+   */
+  public static ParquetFooterCache getInstance(OptionManager options) {
+    if (!options.getOption(ExecConstants.PARQUET_FOOTER_CACHE_ENABLED)) {
+      return null;
+    }
+
+    final long maxSizeBytes = options.getOption(ExecConstants.PARQUET_FOOTER_CACHE_MAX_SIZE_BYTES);
+    ParquetFooterCache current = instance;
+    if (current == null || current.maxSizeBytes != maxSizeBytes) {
+      synchronized (ParquetFooterCache.class) {
+        current = instance;
+        if (current == null || current.maxSizeBytes != maxSizeBytes) {
+          // the size bound of a guava cache can't be changed, start over with a new one
+          if (current != null) {
+            current.cache.invalidateAll();
+          }
+          current = new ParquetFooterCache(maxSizeBytes);
+          instance = current;
+          logger.info("Created parquet footer cache with a limit of {} bytes", maxSizeBytes);
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * @return the executor wide footer cache, or null if no footer was cached yet
+   */
+  public static ParquetFooterCache getInstanceIfPresent() {
+    return instance;
+  }
+
+  /**
+   * Gets the footer of a file for an input stream provider, going through the executor wide cache when enabled.
+   *
+   * @param context operator context of the scan, may be null
+   * @param mTime modification time of the file, negative if unknown in which case the cache is bypassed
+   * @param projectedColumns projected columns of the scan, may be null
+   */
+  static ParquetMetadata getFooter(OperatorContext context, Path path, long fileLength, long mTime,
+                                   ParquetScanProjectedColumns projectedColumns, FooterLoader loader) throws IOException {
+    final ParquetFooterCache footerCache = (context == null || context.getOptions() == null || mTime < 0) ?
+      null : getInstance(context.getOptions());
+    if (footerCache == null) {
+      return loader.load();
+    }
+
+    final OptionManager options = context.getOptions();
+    final Function<MessageType, Set<String>> columnsToRetain;
+    if (projectedColumns != null &&
+      options.getOption(ExecConstants.PARQUET_FOOTER_CACHE_TRIM_COLUMNS) &&
+      options.getOption(ExecConstants.TRIM_COLUMNS_FROM_ROW_GROUP) &&
+      !ColumnUtils.isStarQuery(projectedColumns.getBatchSchemaProjectedColumns())) {
+      columnsToRetain = schema -> projectedColumns.getColumnResolver(schema).getProjectedParquetColumns()
+        .stream()
+        .map((s) -> s.getRootSegment().getNameSegment().getPath().toLowerCase())
+        .collect(Collectors.toSet());
+    } else {
+      columnsToRetain = schema -> null;
+    }
+    return footerCache.getFooter(path, fileLength, mTime, columnsToRetain, loader, context.getStats());
+  }
+
+  /**
+   * Gets the footer of a file from the cache, loading and caching it on a miss.
+   *
+   * @param columnsToRetain lower case names of the top level parquet columns needed by the caller, given the file schema.
+   *                        A null set means all the columns are needed.
+   * @param stats operator stats to record hits and misses in, may be null
+   * @return a footer with a row group list owned by the caller
+   */
+  public ParquetMetadata getFooter(Path path, long fileLength, long mTime, Function<MessageType, Set<String>> columnsToRetain,
+                                   FooterLoader loader, OperatorStats stats) throws IOException {
+    final Key key = new Key(path.toString(), fileLength, mTime);
+    final Entry cached = cache.getIfPresent(key);
+    if (cached != null && cached.covers(columnsToRetain.apply(cached.footer.getFileMetaData().getSchema()))) {
+      hits.increment();
+      if (stats != null) {
+        stats.addLongStat(Metric.FOOTER_CACHE_HITS, 1);
+      }
+      return copyOf(cached.footer);
+    }
+
+    misses.increment();
+    if (stats != null) {
+      stats.addLongStat(Metric.FOOTER_CACHE_MISSES, 1);
+    }
+
+    final ParquetMetadata footer = loader.load();
+    Set<String> retainedColumns = columnsToRetain.apply(footer.getFileMetaData().getSchema());
+    if (retainedColumns != null && cached != null) {
+      // keep what the previous readers of this file needed as well
+      if (cached.retainedColumns == null) {
+        retainedColumns = null;
+      } else {
+        retainedColumns = new HashSet<>(retainedColumns);
+        retainedColumns.addAll(cached.retainedColumns);
+      }
+    }
+
+    final ParquetMetadata toCache = retainedColumns == null ? footer : trimColumns(footer, retainedColumns, path.getName());
+    final long weight = estimateHeapSize(toCache) + key.path.length() * 2L;
+    final Entry entry = new Entry(toCache, retainedColumns, (int) Math.min(Integer.MAX_VALUE, weight));
+    sizeBytes.addAndGet(entry.weight);
+    cache.put(key, entry);
+    return copyOf(toCache);
+  }
+
+  private void onRemoval(RemovalNotification<Key, Entry> notification) {
+    if (notification.getValue() != null) {
+      sizeBytes.addAndGet(-notification.getValue().weight);
+    }
+    if (notification.wasEvicted()) {
+      evictions.increment();
+    }
+  }
+
+  private static ParquetMetadata copyOf(ParquetMetadata footer) {
+    return new ParquetMetadata(footer.getFileMetaData(), new ArrayList<>(footer.getBlocks()));
+  }
+
+  private static ParquetMetadata trimColumns(ParquetMetadata footer, Set<String> retainedColumns, String fileName) {
+    final MutableParquetMetadata trimmed = new MutableParquetMetadata(copyOf(footer), fileName);
+    trimmed.removeUnneededColumns(retainedColumns);
+    return new ParquetMetadata(trimmed.getFileMetaData(), trimmed.getBlocks());
+  }
+
+  /**
+   * Estimates the heap size of a parsed footer, dominated by the column chunk metadata and statistics of each row group.
+   */
+  @VisibleForTesting
+  static long estimateHeapSize(ParquetMetadata footer) {
+    long size = FOOTER_OVERHEAD_BYTES;
+    final FileMetaData fileMetaData = footer.getFileMetaData();
+    size += fileMetaData.getSchema().getColumns().size() * SCHEMA_COLUMN_BYTES;
+    if (fileMetaData.getKeyValueMetaData() != null) {
+      for (Map.Entry<String, String> keyValue : fileMetaData.getKeyValueMetaData().entrySet()) {
+        size += 2 * STRING_OVERHEAD_BYTES + 2L * (keyValue.getKey().length() + keyValue.getValue().length());
+      }
+    }
+
+    for (BlockMetaData block : footer.getBlocks()) {
+      if (block == null) {
+        continue;
+      }
+      size += BLOCK_BYTES;
+      for (ColumnChunkMetaData column : block.getColumns()) {
+        size += COLUMN_CHUNK_BYTES;
+        final Statistics<?> statistics = column.getStatistics();
+        if (statistics != null && statistics.hasNonNullValue()) {
+          size += statistics.getMinBytes().length + statistics.getMaxBytes().length;
+        }
+      }
+    }
+    return size;
+  }
+
+  @VisibleForTesting
+  void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public long getMaxSizeBytes() {
+    return maxSizeBytes;
+  }
+
+  public long getSizeBytes() {
+    return sizeBytes.get();
+  }
+
+  public long getNumEntries() {
+    return cache.size();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  private static final class Key {
+    private final String path;
+    private final long length;
+    private final long mTime;
+
+    private Key(String path, long length, long mTime) {
+      this.path = path;
+      this.length = length;
+      this.mTime = mTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return length == key.length && mTime == key.mTime && path.equals(key.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, length, mTime);
+    }
+  }
+
+  private static final class Entry {
+    private final ParquetMetadata footer;
+    // lower case top level column names kept in the row groups of the footer, null if none was trimmed
+    private final Set<String> retainedColumns;
+    private final int weight;
+
+    private Entry(ParquetMetadata footer, Set<String> retainedColumns, int weight) {
+      this.footer = footer;
+      this.retainedColumns = retainedColumns;
+      this.weight = weight;
+    }
+
+    private boolean covers(Set<String> columns) {
+      if (retainedColumns == null) {
+        return true;
+      }
+      return columns != null && retainedColumns.containsAll(columns);
+    }
+  }
+}
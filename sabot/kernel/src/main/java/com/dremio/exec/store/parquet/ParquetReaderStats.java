@@ -38,6 +38,17 @@ public class ParquetReaderStats {
   public long timeDictPagesDecompressed;
   public long timePagesDecompressed;
 
+  // late materialization: values of the remaining columns decoded for the selected rows, or skipped
+  public long numValuesDecoded;
+  public long numValuesSkipped;
+  public long numPagesSkipped;
+
+  // coalesced reads: requests issued for the column chunks of the row groups, bytes read between the chunks
+  public long numRangeReads;
+  public long totalRangeReadBytes;
+  public long totalRangeOverReadBytes;
+  public long timeRangeReads;
+
   public ParquetReaderStats() {
   }
 
@@ -31,10 +31,14 @@ import static org.apache.parquet.schema.Type.Repetition.REQUIRED;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -59,11 +63,13 @@ import org.apache.iceberg.Metrics;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.parquet.NoExceptionAutoCloseables;
 import org.apache.parquet.bytes.BytesInput;
+import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.ColumnWriteStore;
 import org.apache.parquet.column.ParquetProperties;
 import org.apache.parquet.column.ParquetProperties.WriterVersion;
 import org.apache.parquet.column.impl.ColumnWriteStoreV1;
 import org.apache.parquet.column.page.PageWriteStore;
+import org.apache.parquet.column.values.bloomfilter.BloomFilterWriteStore;
 import org.apache.parquet.column.values.factory.DefaultV1ValuesWriterFactory;
 import org.apache.parquet.compression.CompressionCodecFactory;
 import org.apache.parquet.compression.CompressionCodecFactory.BytesInputCompressor;
@@ -71,6 +77,7 @@ import org.apache.parquet.hadoop.CodecFactory;
 import org.apache.parquet.hadoop.CodecFactory.BytesCompressor;
 import org.apache.parquet.hadoop.ColumnChunkPageWriteStoreExposer;
 import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.io.ColumnIOFactory;
 import org.apache.parquet.io.MessageColumnIO;
@@ -144,6 +151,9 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     MAX_IO_WRITE_TIME, // Maximum IO write time
     AVG_IO_WRITE_TIME, // Avg IO write time
     NUM_IO_WRITE,      // Total Number of IO writes
+    COLUMN_ENCODE_NANOS, // Time spent encoding the batches written column by column
+    MAX_COLUMN_ENCODE_NANOS, // Time spent encoding the slowest of the columns written column by column
+    COLUMN_COMPRESS_NANOS, // Time spent compressing the pages of the columns written column by column
     ;
 
     @Override
@@ -162,6 +172,8 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   public static final String DREMIO_VERSION_PROPERTY = "dremio.version";
   public static final String IS_DATE_CORRECT_PROPERTY = "is.date.correct";
   public static final String WRITER_VERSION_PROPERTY = "drill-writer.version";
+  // comma separated columns the rows of the file are sorted on, in ascending order
+  public static final String SORTING_COLUMNS_PROPERTY = "dremio.sorting_columns";
 
   private final BufferAllocator codecAllocator;
   private final BufferAllocator columnEncoderAllocator;
@@ -190,6 +202,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   private PageWriteStore pageStore;
 
   private RecordConsumer consumer;
+  private ParquetColumnarBatchWriter columnarWriter;
   private BatchSchema batchSchema;
   private BatchSchema icebergBatchSchema;
   private UpdateTrackingConverter trackingConverter;
@@ -203,6 +216,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   private final int memoryThreshold;
   private final long maxPartitions;
   private final long minRecordsForFlush;
+  private final Set<String> bloomFilterColumns;
   private List<String> partitionColumns;
   private boolean isIcebergWriter;
   private org.apache.iceberg.Schema icebergSchema;
@@ -245,6 +259,10 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     if (writer.getOptions() != null) {
       this.partitionColumns = writer.getOptions().getPartitionColumns();
       this.isIcebergWriter = writer.getOptions().getTableFormatOptions().isTableFormatWriter();
+      if (writer.getOptions().hasSort()) {
+        // the writer gets the rows of each file sorted on the sort columns
+        this.extraMetaData.put(SORTING_COLUMNS_PROPERTY, String.join(",", writer.getOptions().getSortColumns()));
+      }
     } else {
       this.partitionColumns = null;
       this.isIcebergWriter = false;
@@ -292,6 +310,11 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     enableDictionaryForBinary = context.getOptions().getOption(ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING_BINARY_TYPE_VALIDATOR);
     maxPartitions = context.getOptions().getOption(ExecConstants.PARQUET_MAXIMUM_PARTITIONS_VALIDATOR);
     minRecordsForFlush = context.getOptions().getOption(ExecConstants.PARQUET_MIN_RECORDS_FOR_FLUSH_VALIDATOR);
+    bloomFilterColumns = Arrays.stream(context.getOptions().getOption(ExecConstants.PARQUET_WRITER_BLOOM_FILTER_COLUMNS).split(","))
+      .map(String::trim)
+      .filter(c -> !c.isEmpty())
+      .map(c -> c.toLowerCase(Locale.ROOT))
+      .collect(Collectors.toSet());
     parquetFileWriteTimeThresholdMilliSecs = (int)context.getOptions().getOption(ExecConstants.PARQUET_WRITE_TIME_THRESHOLD_MILLI_SECS_VALIDATOR);
     parquetFileWriteIoRateThresholdMbps = context.getOptions().getOption(ExecConstants.PARQUET_WRITE_IO_RATE_THRESHOLD_MBPS_VALIDATOR);
   }
@@ -324,6 +347,11 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
         this.icebergSchema = partitionSpec != null ? partitionSpec.schema() : schemaConverter.toIcebergSchema(batchSchema, fieldIdBroker);
       }
     }
+    // the columnar path doesn't build bloom filters
+    if (context.getOptions().getOption(ExecConstants.PARQUET_WRITER_COLUMNAR) && bloomFilterColumns.isEmpty()) {
+      columnarWriter = ParquetColumnarBatchWriter.create(incoming, getParquetMessageType(batchSchema, "root"),
+        newParquetPropertiesBuilder().build(), isIcebergWriter, this::newPageCompressor);
+    }
     newSchema();
   }
 
@@ -379,6 +407,11 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     return blockSize;
   }
 
+  @VisibleForTesting
+  boolean isWritingColumnByColumn() {
+    return columnarWriter != null;
+  }
+
   private MessageType getParquetMessageTypeWithIds(BatchSchema batchSchema, String name) {
     List<Type> types = Lists.newArrayList();
     for (Field field : batchSchema) {
@@ -424,8 +457,33 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     extraMetaData.put(DREMIO_ARROW_SCHEMA_2_1, json);
     schema = getParquetMessageType(batchSchema, "root");
 
+    final ParquetProperties.Builder propertiesBuilder = newParquetPropertiesBuilder();
+    final boolean hasBloomFilters = enableBloomFilters(propertiesBuilder);
+    final ParquetProperties parquetProperties = propertiesBuilder.build();
+    if (columnarWriter != null) {
+      // the columns write their pages to the page store themselves
+      pageStore = ColumnChunkPageWriteStoreExposer.newColumnChunkPageWriteStore(
+        columnarWriter.getPageStoreCompressor(), schema, parquetProperties);
+      columnarWriter.startRowGroup(pageStore);
+      store = null;
+      consumer = null;
+      setUp(schema, null, isIcebergWriter);
+      return;
+    }
+    pageStore = ColumnChunkPageWriteStoreExposer.newColumnChunkPageWriteStore(
+        toDeprecatedBytesCompressor(codecFactory.getCompressor(codec)), schema, parquetProperties);
+    // the page store builds the column and offset indexes of the pages, and keeps the bloom filters of the columns
+    store = hasBloomFilters
+      ? new ColumnWriteStoreV1(schema, pageStore, (BloomFilterWriteStore) pageStore, parquetProperties)
+      : new ColumnWriteStoreV1(pageStore, parquetProperties);
+    MessageColumnIO columnIO = new ColumnIOFactory(false).getColumnIO(this.schema);
+    consumer = columnIO.getRecordWriter(store);
+    setUp(schema, consumer, isIcebergWriter);
+  }
+
+  private ParquetProperties.Builder newParquetPropertiesBuilder() {
     int dictionarySize = (int)context.getOptions().getOption(ExecConstants.PARQUET_DICT_PAGE_SIZE_VALIDATOR);
-    final ParquetProperties parquetProperties = ParquetProperties.builder()
+    return ParquetProperties.builder()
       .withDictionaryPageSize(dictionarySize)
       .withWriterVersion(writerVersion)
       .withValuesWriterFactory(new DefaultV1ValuesWriterFactory())
@@ -435,13 +493,38 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
       .withAddPageHeadersToMetadata(false)
       .withEnableDictionarForBinaryType(enableDictionaryForBinary)
       .withPageRowCountLimit(Integer.MAX_VALUE) // Bug 16118
-      .build();
-    pageStore = ColumnChunkPageWriteStoreExposer.newColumnChunkPageWriteStore(
-        toDeprecatedBytesCompressor(codecFactory.getCompressor(codec)), schema, parquetProperties);
-    store = new ColumnWriteStoreV1(pageStore, parquetProperties);
-    MessageColumnIO columnIO = new ColumnIOFactory(false).getColumnIO(this.schema);
-    consumer = columnIO.getRecordWriter(store);
-    setUp(schema, consumer, isIcebergWriter);
+      .withColumnIndexTruncateLength(DEFAULT_COLUMN_INDEX_TRUNCATE_LENGTH);
+  }
+
+  /**
+   * Compressor of the pages of the columns written column by column, with a codec factory of its own for each of the
+   * other threads compressing them.
+   */
+  private ParallelPageCompressor newPageCompressor() {
+    final OptionManager options = context.getOptions();
+    final int parallelism = (int) options.getOption(ExecConstants.PARQUET_WRITER_COLUMNAR_COMPRESSION_PARALLELISM);
+    return new ParallelPageCompressor(codec, codecFactory,
+      () -> CodecFactory.createDirectCodecFactory(createConfigForCodecFactory(options),
+        new ParquetDirectByteBufferAllocator(codecAllocator), pageSize),
+      parallelism, context.getExecutor());
+  }
+
+  /**
+   * Enables the bloom filters of the flat primitive columns picked by the options, returns whether there are any.
+   */
+  private boolean enableBloomFilters(ParquetProperties.Builder propertiesBuilder) {
+    if (bloomFilterColumns.isEmpty()) {
+      return false;
+    }
+    boolean hasBloomFilters = false;
+    for (ColumnDescriptor column : schema.getColumns()) {
+      final String[] path = column.getPath();
+      if (path.length == 1 && bloomFilterColumns.contains(path[0].toLowerCase(Locale.ROOT))) {
+        propertiesBuilder.withBloomFilterEnabled(ColumnPath.get(path).toDotString(), true);
+        hasBloomFilters = true;
+      }
+    }
+    return hasBloomFilters;
   }
 
   private PrimitiveType getPrimitiveType(Field field, boolean convertMillisToMicros, Repetition repetition) {
@@ -713,10 +796,14 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
 
     if (recordCount > 0) {
       long writeFileStartTimeMillis = System.currentTimeMillis();
-      long memSize = store.getBufferedSize();
+      long memSize = getBufferedSize();
       parquetFileWriter.startBlock(recordCount);
-      consumer.flush();
-      store.flush();
+      if (columnarWriter != null) {
+        columnarWriter.flush();
+      } else {
+        consumer.flush();
+        store.flush();
+      }
       ColumnChunkPageWriteStoreExposer.flushPageStore(pageStore, parquetFileWriter);
       parquetFileWriter.endBlock();
       long recordsWritten = recordCount;
@@ -967,7 +1054,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
 
   private void checkBlockSizeReached() throws IOException {
     if (recordCount >= recordCountForNextMemCheck && recordCount >= minRecordsForFlush) { // checking the memory size is relatively expensive, so let's not do it for every record.
-      long memSize = store.getBufferedSize();
+      long memSize = getBufferedSize();
       if (context.getAllocator().getHeadroom() < memoryThreshold || memSize >= blockSize) {
         logger.debug("Reached block size " + blockSize);
         flushAndClose();
@@ -987,6 +1074,10 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     }
   }
 
+  private long getBufferedSize() throws IOException {
+    return columnarWriter != null ? columnarWriter.getBufferedSize() : store.getBufferedSize();
+  }
+
   @Override
   public FieldConverter getNewUnionConverter(int fieldId, String fieldName, FieldReader reader) {
     return new UnionParquetConverter(fieldId, fieldName, reader);
@@ -1186,6 +1277,40 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   }
 
 
+  @Override
+  public int writeBatch(int offset, int length) throws IOException {
+    if (columnarWriter == null) {
+      return super.writeBatch(offset, length);
+    }
+
+    final int end = offset + length;
+    int position = offset;
+    while (position < end) {
+      // we wait until there is at least one record before creating the parquet file
+      if (parquetFileWriter == null) {
+        initRecordWriter();
+      }
+
+      final int count = (int) min(end - position, getRecordCountUntilNextCheck());
+      columnarWriter.write(position, count);
+      recordCount += count;
+      position += count;
+
+      checkBlockSizeReached();
+    }
+    return length;
+  }
+
+  /**
+   * Number of records that can be written column by column before the page sizes or the block size get checked, so
+   * that the records end up in the same pages and files as if they were written one by one.
+   */
+  private long getRecordCountUntilNextCheck() {
+    final long untilPageSizeCheck = columnarWriter.getRowCountUntilNextSizeCheck();
+    final long untilBlockSizeCheck = max(recordCountForNextMemCheck, minRecordsForFlush) - recordCount;
+    return max(1, min(untilPageSizeCheck, untilBlockSizeCheck));
+  }
+
   @Override
   public void startRecord() throws IOException {
     consumer.startMessage();
@@ -1233,6 +1358,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
       flushAndClose();
       OperatorStats operatorStats = context.getStats();
       OperatorStats.IOStats ioStats = operatorStats.getWriteIOStats();
+      final UserBitShared.OperatorProfileDetails.Builder profileDetails = UserBitShared.OperatorProfileDetails.newBuilder();
 
       if (ioStats != null) {
         long minIOWriteTime = ioStats.minIOTime.longValue() <= ioStats.maxIOTime.longValue() ? ioStats.minIOTime.longValue() : 0;
@@ -1241,16 +1367,24 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
         operatorStats.setLongStat(Metric.AVG_IO_WRITE_TIME, ioStats.numIO.get() == 0 ? 0 : ioStats.totalIOTime.longValue() / ioStats.numIO.get());
         operatorStats.addLongStat(Metric.NUM_IO_WRITE, ioStats.numIO.longValue());
 
-        operatorStats.setProfileDetails(UserBitShared.OperatorProfileDetails
-          .newBuilder()
-          .addAllSlowIoInfos(ioStats.slowIOInfoList)
-          .build());
+        profileDetails.addAllSlowIoInfos(ioStats.slowIOInfoList);
+      }
+
+      if (columnarWriter != null) {
+        operatorStats.setLongStat(Metric.COLUMN_ENCODE_NANOS, columnarWriter.getEncodeNanos());
+        operatorStats.setLongStat(Metric.MAX_COLUMN_ENCODE_NANOS, columnarWriter.getMaxColumnEncodeNanos());
+        operatorStats.setLongStat(Metric.COLUMN_COMPRESS_NANOS, columnarWriter.getCompressNanos());
+        profileDetails.addAllColumnEncodeInfos(columnarWriter.getColumnEncodeInfos());
+      }
+
+      if (ioStats != null || columnarWriter != null) {
+        operatorStats.setProfileDetails(profileDetails.build());
       }
     } finally {
       try {
         NoExceptionAutoCloseables.close(store, pageStore, parquetFileWriter);
       } finally {
-        AutoCloseables.close(codecFactory::release, codecAllocator, columnEncoderAllocator);
+        AutoCloseables.close(columnarWriter, codecFactory::release, codecAllocator, columnEncoderAllocator);
       }
     }
   }
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.parquet.filter.RecordFilter;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Rows of a row group selected by the filters of the first pass of a late materialized read, for the readers of the
+ * remaining columns. Selections are given one batch at a time, as the deltas produced by the first pass.
+ *
+ * The column readers only decode the rows they are given by {@link #newRowIterator()}, and the page readers skip the
+ * pages with none of these rows. Column readers look for the next row as soon as they are done with the previous one,
+ * which may be before the batch holding it is selected. They are then given the row following the last selected row,
+ * which the record filter drops in a later batch if it isn't selected. All the rows given out are logged so that
+ * every reader, and the record filter, go through the same rows.
+ */
+public class ParquetRowSelection {
+  private static final int INITIAL_CAPACITY = 4096;
+
+  private final long rowCount;
+  private final List<Cursor> cursors = new ArrayList<>();
+
+  // log of the rows given out, rows[0] being the entry at position start
+  private long[] rows = new long[INITIAL_CAPACITY];
+  private boolean[] selected = new boolean[INITIAL_CAPACITY];
+  private long start;
+  private int size;
+
+  private long lastSelectedRow = -1;
+
+  public ParquetRowSelection(long rowCount) {
+    this.rowCount = rowCount;
+  }
+
+  /**
+   * Adds the rows selected in the next batch.
+   *
+   * @param deltas number of rows skipped before each selected row, since the previous selected row
+   */
+  public void addSelection(SimpleIntVector deltas) {
+    compact();
+    long row = lastSelectedRow;
+    for (int i = 0; i < deltas.getValueCount(); i++) {
+      row += deltas.get(i) + 1L;
+      Preconditions.checkState(row < rowCount, "Selected row %s out of the %s rows of the row group", row, rowCount);
+      if (size > 0 && rows[size - 1] == row) {
+        // already given out as the row following the last selected row
+        selected[size - 1] = true;
+      } else {
+        Preconditions.checkState(size == 0 || rows[size - 1] < row, "Selected rows out of order");
+        append(row, true);
+      }
+    }
+    lastSelectedRow = row;
+  }
+
+  public long getLastSelectedRow() {
+    return lastSelectedRow;
+  }
+
+  /**
+   * Whether any of the rows in the given range may still be read. Rows past the last selected row may be.
+   */
+  public boolean isNeeded(long firstRow, long lastRow) {
+    if (lastRow > lastSelectedRow) {
+      return true;
+    }
+    final int from = (int) (minPosition() - start);
+    int index = Arrays.binarySearch(rows, from, size, firstRow);
+    if (index >= 0) {
+      return true;
+    }
+    index = -index - 1;
+    return index < size && rows[index] <= lastRow;
+  }
+
+  /**
+   * Iterator over the rows to read, for the column readers.
+   */
+  public PrimitiveIterator.OfLong newRowIterator() {
+    return new RowIterator();
+  }
+
+  /**
+   * Filter over the rows given by {@link #newRowIterator()}, matching the selected ones.
+   */
+  public RecordFilter newRecordFilter() {
+    return new SelectedRowFilter();
+  }
+
+  private boolean hasEntry(long position) {
+    return position < start + size || nextUnselectedRow() < rowCount;
+  }
+
+  private int entry(long position) {
+    if (position == start + size) {
+      final long row = nextUnselectedRow();
+      if (row >= rowCount) {
+        throw new NoSuchElementException();
+      }
+      append(row, false);
+    }
+    Preconditions.checkState(position >= start && position < start + size, "Row selection entry %s already dropped", position);
+    return (int) (position - start);
+  }
+
+  private long nextUnselectedRow() {
+    return Math.max(size > 0 ? rows[size - 1] : -1, lastSelectedRow) + 1;
+  }
+
+  private void append(long row, boolean isSelected) {
+    if (size == rows.length) {
+      rows = Arrays.copyOf(rows, size * 2);
+      selected = Arrays.copyOf(selected, size * 2);
+    }
+    rows[size] = row;
+    selected[size] = isSelected;
+    size++;
+  }
+
+  /**
+   * Smallest position still in use, the readers being on the entry before the next one they will ask for.
+   */
+  private long minPosition() {
+    long min = start + size;
+    for (Cursor cursor : cursors) {
+      min = Math.min(min, Math.max(cursor.position - 1, start));
+    }
+    return min;
+  }
+
+  private void compact() {
+    final int dropped = (int) (minPosition() - start);
+    if (dropped > 0) {
+      System.arraycopy(rows, dropped, rows, 0, size - dropped);
+      System.arraycopy(selected, dropped, selected, 0, size - dropped);
+      size -= dropped;
+      start += dropped;
+    }
+  }
+
+  private abstract class Cursor {
+    private long position;
+
+    Cursor() {
+      cursors.add(this);
+    }
+
+    boolean hasNextEntry() {
+      return hasEntry(position);
+    }
+
+    int nextEntry() {
+      return entry(position++);
+    }
+  }
+
+  private final class RowIterator extends Cursor implements PrimitiveIterator.OfLong {
+    @Override
+    public boolean hasNext() {
+      return hasNextEntry();
+    }
+
+    @Override
+    public long nextLong() {
+      return rows[nextEntry()];
+    }
+  }
+
+  private final class SelectedRowFilter extends Cursor implements RecordFilter {
+    @Override
+    public boolean isMatch() {
+      return selected[nextEntry()];
+    }
+  }
+}
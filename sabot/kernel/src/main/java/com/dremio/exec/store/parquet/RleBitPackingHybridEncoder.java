@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+/**
+ * Encodes ints with the RLE / bit packing hybrid encoding of parquet, for the definition levels and the dictionary ids
+ * of the pages written column by column.
+ *
+ * The runs are cut exactly like parquet-mr's RunLengthBitPackingHybridEncoder cuts them, so that the pages are the same
+ * bytes as on the row by row path, but runs of the same value are taken at once: once a value repeats enough to be
+ * written as an rle run, the rest of the run only adds to its count.
+ */
+final class RleBitPackingHybridEncoder {
+  // values are bit packed 8 at a time, up to 63 groups of 8 values in a run
+  private static final int MAX_BIT_PACKED_GROUPS = 63;
+  private static final int MIN_REPEATS_FOR_RLE_RUN = 8;
+
+  private final int bitWidth;
+  private final long mask;
+  private final PageBuffer out;
+  private final int[] bufferedValues = new int[8];
+
+  private int previousValue;
+  private int numBufferedValues;
+  private int repeatCount;
+  private int bitPackedGroupCount;
+  private int bitPackedRunHeaderPointer = -1;
+
+  RleBitPackingHybridEncoder(int bitWidth, PageBuffer out) {
+    this.bitWidth = bitWidth;
+    this.mask = bitWidth == 32 ? 0xFFFFFFFFL : (1L << bitWidth) - 1;
+    this.out = out;
+  }
+
+  void writeInt(int value) {
+    if (value == previousValue) {
+      ++repeatCount;
+      if (repeatCount >= MIN_REPEATS_FOR_RLE_RUN) {
+        // certainly an rle run, keep on counting
+        return;
+      }
+    } else {
+      if (repeatCount >= MIN_REPEATS_FOR_RLE_RUN) {
+        writeRleRun();
+      }
+      repeatCount = 1;
+      previousValue = value;
+    }
+
+    // not enough repeats for an rle run yet, the value may end up bit packed
+    bufferedValues[numBufferedValues] = value;
+    ++numBufferedValues;
+    if (numBufferedValues == 8) {
+      writeOrAppendBitPackedRun();
+    }
+  }
+
+  /**
+   * Writes the same value the given number of times.
+   */
+  void writeRepeated(int value, int count) {
+    int remaining = count;
+    while (remaining > 0) {
+      if (value == previousValue && repeatCount >= MIN_REPEATS_FOR_RLE_RUN) {
+        repeatCount += remaining;
+        return;
+      }
+      writeInt(value);
+      remaining--;
+    }
+  }
+
+  /**
+   * Bytes written in the output so far, not counting the values still buffered.
+   */
+  long getBufferedSize() {
+    return out.size();
+  }
+
+  /**
+   * Writes the values still buffered, after which the output holds all the encoded values.
+   */
+  void finish() {
+    if (repeatCount >= MIN_REPEATS_FOR_RLE_RUN) {
+      writeRleRun();
+    } else if (numBufferedValues > 0) {
+      for (int i = numBufferedValues; i < 8; i++) {
+        bufferedValues[i] = 0;
+      }
+      writeOrAppendBitPackedRun();
+      endPreviousBitPackedRun();
+    } else {
+      endPreviousBitPackedRun();
+    }
+  }
+
+  void reset() {
+    out.reset();
+    previousValue = 0;
+    numBufferedValues = 0;
+    repeatCount = 0;
+    bitPackedGroupCount = 0;
+    bitPackedRunHeaderPointer = -1;
+  }
+
+  private void writeOrAppendBitPackedRun() {
+    if (bitPackedGroupCount >= MAX_BIT_PACKED_GROUPS) {
+      endPreviousBitPackedRun();
+    }
+
+    if (bitPackedRunHeaderPointer == -1) {
+      // header of a new run, set once the number of groups is known
+      bitPackedRunHeaderPointer = out.size();
+      out.write(0);
+    }
+
+    pack8Values();
+    numBufferedValues = 0;
+    // some of the repeated values may have just been packed
+    repeatCount = 0;
+    ++bitPackedGroupCount;
+  }
+
+  private void pack8Values() {
+    // little endian bit order: the first value goes in the lowest bits of the first byte
+    long buffer = 0;
+    int bits = 0;
+    for (int i = 0; i < 8; i++) {
+      buffer |= (bufferedValues[i] & mask) << bits;
+      bits += bitWidth;
+      while (bits >= 8) {
+        out.write((int) buffer);
+        buffer >>>= 8;
+        bits -= 8;
+      }
+    }
+  }
+
+  private void endPreviousBitPackedRun() {
+    if (bitPackedRunHeaderPointer == -1) {
+      return;
+    }
+    out.setByte(bitPackedRunHeaderPointer, (byte) ((bitPackedGroupCount << 1) | 1));
+    bitPackedRunHeaderPointer = -1;
+    bitPackedGroupCount = 0;
+  }
+
+  private void writeRleRun() {
+    endPreviousBitPackedRun();
+
+    // unsigned var int header, with a low bit of 0 for rle runs
+    int header = repeatCount << 1;
+    while ((header & 0xFFFFFF80) != 0) {
+      out.write((header & 0x7F) | 0x80);
+      header >>>= 7;
+    }
+    out.write(header & 0x7F);
+    // the value, on as many bytes as its bit width needs
+    for (int shift = 0; shift < bitWidth; shift += 8) {
+      out.write(previousValue >>> shift);
+    }
+
+    repeatCount = 0;
+    numBufferedValues = 0;
+  }
+}
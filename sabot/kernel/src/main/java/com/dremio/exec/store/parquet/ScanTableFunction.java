@@ -241,6 +241,13 @@ public abstract class ScanTableFunction extends AbstractTableFunction {
   @Override
   public void workOnOOB(OutOfBandMessage message) {
     final String senderInfo = String.format("Frag %d, OpId %d", message.getSendingMajorFragmentId(), message.getSendingOperatorId());
+    if (ExecProtos.TopNThreshold.class.getName().equals(message.getPayloadType())) {
+      RuntimeFilter.addOrUpdateThreshold(message, senderInfo, runtimeFilters, context.getStats(), filter -> {
+        getRecordReaderIterator().addRuntimeFilter(filter);
+        Optional.ofNullable(currentRecordReader).ifPresent(c -> c.addRuntimeFilter(filter));
+      });
+      return;
+    }
     if (message.getBuffers()==null || message.getBuffers().length!=1) {
       logger.warn("Empty runtime filter received from {}", senderInfo);
       return;
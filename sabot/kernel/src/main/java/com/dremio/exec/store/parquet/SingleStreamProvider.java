@@ -51,11 +51,23 @@ public class SingleStreamProvider implements InputStreamProvider {
   private ParquetFilters parquetFilters;
   private ParquetFilterCreator parquetFilterCreator;
 
+  // used to look up the footer in the executor wide footer cache, a negative mTime bypasses the cache
+  private final long mTime;
+  private final ParquetScanProjectedColumns projectedColumns;
+
   public SingleStreamProvider(FileSystem fs, Path path, long fileLength, long maxFooterLen, boolean readFullFile, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndices, ParquetFilters parquetFilters,
                               ParquetFilterCreator parquetFilterCreator) {
+    this(fs, path, fileLength, -1, null, maxFooterLen, readFullFile, footer, context, readColumnOffsetIndices, parquetFilters, parquetFilterCreator);
+  }
+
+  public SingleStreamProvider(FileSystem fs, Path path, long fileLength, long mTime, ParquetScanProjectedColumns projectedColumns, long maxFooterLen, boolean readFullFile,
+                              MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndices, ParquetFilters parquetFilters,
+                              ParquetFilterCreator parquetFilterCreator) {
     this.fs = fs;
     this.path = path;
     this.fileLength = fileLength;
+    this.mTime = mTime;
+    this.projectedColumns = projectedColumns;
     this.maxFooterLen = maxFooterLen;
     this.readFullFile = readFullFile;
     this.footer = footer;
@@ -154,8 +166,8 @@ public class SingleStreamProvider implements InputStreamProvider {
   @Override
   public MutableParquetMetadata getFooter() throws IOException {
     if(footer == null) {
-      SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
-      footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), fileLength, fs, maxFooterLen), path.getName());
+      footer = new MutableParquetMetadata(ParquetFooterCache.getFooter(context, path, fileLength, mTime, projectedColumns,
+        () -> new SingletonParquetFooterCache().getFooter(getStream(null), path.toString(), fileLength, fs, maxFooterLen)), path.getName());
     }
     return footer;
   }
@@ -48,11 +48,23 @@ public class StreamPerColumnProvider implements InputStreamProvider {
 
   private final List<BulkInputStream> streams = new ArrayList<>();
 
+  // used to look up the footer in the executor wide footer cache, a negative mTime bypasses the cache
+  private final long mTime;
+  private final ParquetScanProjectedColumns projectedColumns;
+
   public StreamPerColumnProvider(FileSystem fs, Path path, long length, long maxFooterLen, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndexes,
                                  ParquetFilters parquetFilters, ParquetFilterCreator parquetFilterCreator) {
+    this(fs, path, length, -1, null, maxFooterLen, footer, context, readColumnOffsetIndexes, parquetFilters, parquetFilterCreator);
+  }
+
+  public StreamPerColumnProvider(FileSystem fs, Path path, long length, long mTime, ParquetScanProjectedColumns projectedColumns, long maxFooterLen,
+                                 MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndexes,
+                                 ParquetFilters parquetFilters, ParquetFilterCreator parquetFilterCreator) {
     this.fs = fs;
     this.path = path;
     this.length = length;
+    this.mTime = mTime;
+    this.projectedColumns = projectedColumns;
     this.maxFooterLen = maxFooterLen;
     this.footer = footer;
     this.readColumnOffsetIndexes = readColumnOffsetIndexes;
@@ -134,8 +146,8 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   @Override
   public MutableParquetMetadata getFooter() throws IOException {
     if(footer == null) {
-      SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
-      footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), length, fs, maxFooterLen), path.getName());
+      footer = new MutableParquetMetadata(ParquetFooterCache.getFooter(context, path, length, mTime, projectedColumns,
+        () -> new SingletonParquetFooterCache().getFooter(getStream(null), path.toString(), length, fs, maxFooterLen)), path.getName());
     }
     return footer;
   }
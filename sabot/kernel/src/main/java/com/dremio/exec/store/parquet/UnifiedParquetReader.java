@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -40,6 +41,8 @@ import org.apache.arrow.vector.complex.MapVector;
 import org.apache.arrow.vector.complex.StructVector;
 import org.apache.arrow.vector.complex.UnionVector;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.compression.CompressionCodecFactory;
 import org.apache.parquet.hadoop.CodecFactory;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
@@ -66,6 +69,8 @@ import com.dremio.exec.store.AbstractRecordReader;
 import com.dremio.exec.store.CompositeColumnFilter;
 import com.dremio.exec.store.RecordReader;
 import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.store.RuntimeFilterEvaluator;
+import com.dremio.exec.store.TopNThresholdFilter;
 import com.dremio.exec.store.dfs.implicit.AdditionalColumnsRecordReader;
 import com.dremio.exec.store.dfs.implicit.ConstantColumnPopulators;
 import com.dremio.exec.store.iceberg.deletes.PositionalDeleteFilter;
@@ -75,6 +80,7 @@ import com.dremio.exec.store.parquet2.ParquetRowiseReader;
 import com.dremio.exec.util.BitSetHelper;
 import com.dremio.exec.util.ColumnUtils;
 import com.dremio.exec.util.ValueListFilter;
+import com.dremio.io.FSInputStream;
 import com.dremio.io.file.FileBlockLocation;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
@@ -85,6 +91,7 @@ import com.dremio.sabot.op.copier.CopierFactory;
 import com.dremio.sabot.op.copier.FieldBufferCopier;
 import com.dremio.sabot.op.scan.OutputMutator;
 import com.dremio.sabot.op.scan.ScanOperator.Metric;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
@@ -113,10 +120,13 @@ public class UnifiedParquetReader implements RecordReader {
   private final ParquetDictionaryConvertor dictionaryConvertor;
   private final boolean supportsColocatedReads;
   private final boolean useCopiersToRemoveInvalidRows;
+  private final boolean lateMaterialization;
 
   private List<RecordReader> delegates = new ArrayList<>();
   private final List<SchemaPath> nonVectorizableReaderColumns = new ArrayList<>();
   private final List<SchemaPath> vectorizableReaderColumns = new ArrayList<>();
+  // vectorizable columns read only for the rows selected by the filters
+  private final List<SchemaPath> lateMaterializedReaderColumns = new ArrayList<>();
   private InputStreamProvider inputStreamProvider;
   private boolean ignoreSchemaLearning;
   private List<RuntimeFilter> runtimeFilters;
@@ -126,6 +136,10 @@ public class UnifiedParquetReader implements RecordReader {
   private final int maxValidityBufSize;
   private List<FieldBufferCopier> copiers;
   private ArrowBuf sv2;
+  private final List<RuntimeFilterEvaluator> rowFilterEvaluators = new ArrayList<>();
+  // set once the boundary of a top-n above the scan shows the rest of the row group can't make it to the top-n
+  private boolean prunedByTopNThreshold;
+  private boolean prunedByBloomFilter;
 
   public UnifiedParquetReader(
     OperatorContext context,
@@ -175,6 +189,7 @@ public class UnifiedParquetReader implements RecordReader {
     this.maxValidityBufSize = BitVectorHelper.getValidityBufferSize(context.getTargetBatchSize());
     this.isConvertedIcebergDataset = isConvertedIcebergDataset;
     this.useCopiersToRemoveInvalidRows = context.getOptions().getOption(ExecConstants.USE_COPIER_IN_PARQUET_READER) && context.getTargetBatchSize() <= Short.MAX_VALUE;
+    this.lateMaterialization = context.getOptions().getOption(ExecConstants.PARQUET_READER_LATE_MATERIALIZATION);
   }
 
   public UnifiedParquetReader(
@@ -227,6 +242,8 @@ public class UnifiedParquetReader implements RecordReader {
 
     this.columnResolver = this.projectedColumns.getColumnResolver(
       footer.getFileMetaData().getSchema());
+    this.prunedByBloomFilter = context.getOptions().getOption(ExecConstants.PARQUET_READER_BLOOM_FILTER)
+      && isPrunedByBloomFilter();
     splitColumns(footer, vectorizableReaderColumns, nonVectorizableReaderColumns);
 
     Set<String> filterColumns = runtimeFilters.stream()
@@ -236,13 +253,17 @@ public class UnifiedParquetReader implements RecordReader {
     if (filters.hasPushdownFilters()) {
       filterColumns.addAll(filters.getPushdownFilters().stream().map(pfc -> pfc.getPath().toDotString().toLowerCase()).collect(Collectors.toSet()));
     }
+    if (lateMaterialization) {
+      splitLateMaterializedColumns();
+    }
 
     // If we have multiple filters, filtering beyond the 1st is done via the validityBuf, with invalid rows
     // removed in a second pass.  The copiers are initialized after we process any delegate readers so that any
     // columns they add are included in the copies - e.g. path/rownum columns for DML.
     boolean requiresInvalidRowRemoval = filterColumns.size() > 1 ||
         (filterColumns.size() == 1 && filters.hasPositionalDeleteFilter()) ||
-        filters.hasEqualityDeleteFilter();
+        filters.hasEqualityDeleteFilter() ||
+        runtimeFilters.stream().anyMatch(this::hasRowLevelFilters);
     if (requiresInvalidRowRemoval) {
       this.validityBuf = context.getAllocator().buffer(maxValidityBufSize);
     }
@@ -257,11 +278,7 @@ public class UnifiedParquetReader implements RecordReader {
 
     // init copiers only if filters are on multiple columns or a single filter along with positional deletes
     if (requiresInvalidRowRemoval && useCopiersToRemoveInvalidRows) {
-      List<FieldVector> outputFieldVectors = new ArrayList<>();
-      outputMutator.getVectors().forEach(valueVector -> outputFieldVectors.add((FieldVector) valueVector));
-      copiers = CopierFactory.getInstance(context.getConfig(), context.getOptions())
-        .getTwoByteCopiers(outputFieldVectors, outputFieldVectors, false);
-      sv2 = context.getAllocator().buffer(context.getTargetBatchSize() * SelectionVector2.RECORD_SIZE);
+      setupCopiers();
     }
 
     // init the equality delete filter if one is present
@@ -269,9 +286,14 @@ public class UnifiedParquetReader implements RecordReader {
       filters.getEqualityDeleteFilter().setup(outputMutator, validityBuf);
     }
 
+    for (RuntimeFilter runtimeFilter : runtimeFilters) {
+      setupRowLevelFilters(runtimeFilter);
+    }
+
     context.getStats().setLongStat(Metric.PARQUET_EXEC_PATH, execPath.ordinal());
     context.getStats().setLongStat(Metric.NUM_VECTORIZED_COLUMNS, vectorizableReaderColumns.size());
     context.getStats().setLongStat(Metric.NUM_NON_VECTORIZED_COLUMNS, nonVectorizableReaderColumns.size());
+    context.getStats().setLongStat(Metric.NUM_LATE_MATERIALIZED_COLUMNS, lateMaterializedReaderColumns.size());
     context.getStats().setLongStat(Metric.FILTER_EXISTS, filters.getPushdownFilters().size() > 0 ? 1 : 0);
 
     boolean enableColumnTrim = context.getOptions().getOption(ExecConstants.TRIM_COLUMNS_FROM_ROW_GROUP);
@@ -287,6 +309,75 @@ public class UnifiedParquetReader implements RecordReader {
     }
   }
 
+  private void setupCopiers() {
+    List<FieldVector> outputFieldVectors = new ArrayList<>();
+    outputMutator.getVectors().forEach(valueVector -> outputFieldVectors.add((FieldVector) valueVector));
+    copiers = CopierFactory.getInstance(context.getConfig(), context.getOptions())
+      .getTwoByteCopiers(outputFieldVectors, outputFieldVectors, false);
+    sv2 = context.getAllocator().buffer(context.getTargetBatchSize() * SelectionVector2.RECORD_SIZE);
+  }
+
+  /**
+   * Whether the runtime filter has filters on composite non-partition keys, applied here on the rows returned by
+   * the delegate readers.
+   */
+  private boolean hasRowLevelFilters(RuntimeFilter runtimeFilter) {
+    return !runtimeFilter.getNonPartitionCompositeColumnFilters().isEmpty() &&
+      context.getOptions().getOption(ExecConstants.ENABLE_ROW_LEVEL_RUNTIME_FILTERING);
+  }
+
+  private void setupRowLevelFilters(RuntimeFilter runtimeFilter) {
+    if (!hasRowLevelFilters(runtimeFilter)) {
+      return;
+    }
+
+    if (validityBuf == null) {
+      // filter received after setup, with no other filter needing the invalid rows to be removed
+      validityBuf = context.getAllocator().buffer(maxValidityBufSize);
+      if (useCopiersToRemoveInvalidRows) {
+        setupCopiers();
+      }
+    }
+    final RuntimeFilterEvaluator evaluator = new RuntimeFilterEvaluator(context.getAllocator(), context.getStats(),
+      context.getOptions(), runtimeFilter);
+    if (evaluator.setupRowFilters(outputMutator)) {
+      rowFilterEvaluators.add(evaluator);
+    } else {
+      AutoCloseables.close(RuntimeException.class, evaluator);
+    }
+  }
+
+  /**
+   * Moves the vectorizable columns not used by the filters to a second pass, reading them only for the rows selected
+   * by the filters of the vectorized reader. Only done when all the pushed down filters are on vectorizable columns,
+   * the selection being given as deltas, and when there is no delete filter to apply.
+   */
+  private void splitLateMaterializedColumns() {
+    if (!filters.hasPushdownFilters() || !isConditionSet(nonVectorizableReaderColumns) ||
+        filters.hasPositionalDeleteFilter() || filters.hasEqualityDeleteFilter() ||
+        (globalDictionaryFieldInfoMap != null && !globalDictionaryFieldInfoMap.isEmpty())) {
+      return;
+    }
+
+    final Set<String> filterRootColumns = new HashSet<>();
+    filters.getPushdownFilters().forEach(f -> filterRootColumns.add(f.getPath().getRootSegment().getPath().toLowerCase()));
+    runtimeFilters.stream()
+      .flatMap(rf -> rf.getNonPartitionColumnFilters().stream())
+      .flatMap(ccf -> ccf.getColumnsList().stream())
+      .forEach(c -> filterRootColumns.add(c.toLowerCase()));
+    for (SchemaPath column : vectorizableReaderColumns) {
+      if (!filterRootColumns.contains(column.getRootSegment().getPath().toLowerCase())) {
+        lateMaterializedReaderColumns.add(column);
+      }
+    }
+    if (lateMaterializedReaderColumns.size() == vectorizableReaderColumns.size()) {
+      // the filters are not on any column read by the vectorized reader
+      lateMaterializedReaderColumns.clear();
+      return;
+    }
+    vectorizableReaderColumns.removeAll(lateMaterializedReaderColumns);
+  }
+
   public void setIgnoreSchemaLearning(boolean ignoreSchemaLearning) {
     this.ignoreSchemaLearning = ignoreSchemaLearning;
   }
@@ -363,6 +454,10 @@ public class UnifiedParquetReader implements RecordReader {
 
   @Override
   public int next() {
+    if (prunedByBloomFilter || prunedByTopNThreshold || isPrunedByTopNThreshold()) {
+      return 0;
+    }
+
     // at most one filter
     if (validityBuf == null) {
       return readEnsuringReadersReturnSameNumberOfRecords();
@@ -374,6 +469,13 @@ public class UnifiedParquetReader implements RecordReader {
     while (totalRecords == -1 || (totalRecords > 0 && totalRecords == BitVectorHelper.getNullCount(validityBuf, totalRecords))) {
       validityBuf.setOne(0, maxValidityBufSize);
       totalRecords = readEnsuringReadersReturnSameNumberOfRecords();
+
+      // prune the rows whose composite keys aren't in the runtime filters
+      if (totalRecords > 0) {
+        for (RuntimeFilterEvaluator evaluator : rowFilterEvaluators) {
+          evaluator.filterRows(totalRecords, validityBuf);
+        }
+      }
     }
 
     // if there is an equality delete filter, call it to filter out records that match its delete conditions
@@ -389,6 +491,136 @@ public class UnifiedParquetReader implements RecordReader {
     return totalRecords;
   }
 
+  /**
+   * Checks the stats of the row group against the boundaries of the top-ns above the scan. The boundaries only get
+   * tighter, so this is checked again for every batch, and the rest of the row group is skipped once no value of the
+   * row group can beat the boundary.
+   */
+  private boolean isPrunedByTopNThreshold() {
+    for (RuntimeFilter runtimeFilter : runtimeFilters) {
+      final TopNThresholdFilter thresholdFilter = runtimeFilter.getThresholdFilter();
+      if (thresholdFilter == null || thresholdFilter.getBoundary() == null) {
+        continue;
+      }
+      final String parquetColumnName = columnResolver.getParquetColumnName(thresholdFilter.getColumn());
+      if (parquetColumnName == null) {
+        continue;
+      }
+      if (isPrunedByTopNThreshold(thresholdFilter, footer.getBlocks().get(readEntry.getRowGroupIndex()),
+          parquetColumnName)) {
+        logger.debug("Skipping row group {} of {}, as it can't beat {}", readEntry.getRowGroupIndex(),
+          readEntry.getPath(), thresholdFilter);
+        context.getStats().addLongStat(Metric.NUM_ROW_GROUPS_PRUNED_BY_TOPN, 1);
+        prunedByTopNThreshold = true;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Whether the stats of the given column of the row group show that none of its values can beat the boundary.
+   */
+  @VisibleForTesting
+  static boolean isPrunedByTopNThreshold(TopNThresholdFilter thresholdFilter, BlockMetaData block,
+                                         String parquetColumnName) {
+    for (ColumnChunkMetaData column : block.getColumns()) {
+      if (!column.getPath().toDotString().equalsIgnoreCase(parquetColumnName)) {
+        continue;
+      }
+      final Statistics<?> stats = column.getStatistics();
+      if (stats == null || stats.isEmpty() || !stats.hasNonNullValue()) {
+        return false;
+      }
+      final boolean hasNulls = !stats.isNumNullsSet() || stats.getNumNulls() > 0;
+      return thresholdFilter.canSkip(toThresholdValue(column.getPrimitiveType(), stats.genericGetMin()),
+        toThresholdValue(column.getPrimitiveType(), stats.genericGetMax()), hasNulls);
+    }
+    return false;
+  }
+
+  /**
+   * Checks the equality and IN filters pushed down into the scan against the bloom filters of the row group, which
+   * is skipped if the bloom filter of a filtered column holds none of the values of its filter.
+   */
+  private boolean isPrunedByBloomFilter() {
+    if (!filters.hasPushdownFilters()) {
+      return false;
+    }
+    final BlockMetaData block = footer.getBlocks().get(readEntry.getRowGroupIndex());
+    for (ParquetFilterCondition condition : filters.getPushdownFilters()) {
+      if (!condition.getPath().isSimplePath()) {
+        continue;
+      }
+      final List<LogicalExpression> values = ParquetBloomFilters.getEqualityValues(condition.getExpr(), condition.getPath());
+      if (values == null) {
+        continue;
+      }
+      final String parquetColumnName = columnResolver.getParquetColumnName(condition.getPath().getAsUnescapedPath());
+      if (parquetColumnName == null) {
+        continue;
+      }
+      for (ColumnChunkMetaData column : block.getColumns()) {
+        if (!column.getPath().toDotString().equalsIgnoreCase(parquetColumnName)) {
+          continue;
+        }
+        if (column.getBloomFilterOffset() < 0) {
+          break;
+        }
+        try (FSInputStream input = fs.open(Path.of(readEntry.getPath()))) {
+          final BloomFilter bloomFilter = ParquetBloomFilters.read(input, column.getBloomFilterOffset());
+          if (bloomFilter != null && ParquetBloomFilters.canSkip(bloomFilter, column.getPrimitiveType(), values)) {
+            logger.debug("Skipping row group {} of {}, as its bloom filter rules out {}", readEntry.getRowGroupIndex(),
+              readEntry.getPath(), condition.getExpr());
+            context.getStats().addLongStat(Metric.NUM_ROW_GROUPS_PRUNED_BY_BLOOM_FILTER, 1);
+            return true;
+          }
+        } catch (IOException e) {
+          // the bloom filter is only an optimization
+          logger.debug("Failed to read the bloom filter of column {} of {}", parquetColumnName, readEntry.getPath(), e);
+        }
+        break;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Converts a min or max of the stats to the representation of the boundaries of the top-ns, null if unsupported.
+   */
+  private static Comparable<?> toThresholdValue(PrimitiveType type, Comparable<?> value) {
+    final OriginalType originalType = type.getOriginalType();
+    switch (type.getPrimitiveTypeName()) {
+      case INT32:
+        if (originalType == OriginalType.DATE) {
+          final int days = (Integer) value;
+          // dates of old files may need to be corrected while read
+          return days > ParquetReaderUtility.DATE_CORRUPTION_THRESHOLD ? null : TimeUnit.DAYS.toMillis(days);
+        }
+        return isSignedInteger(originalType) ? Long.valueOf((Integer) value) : null;
+      case INT64:
+        if (originalType == OriginalType.TIMESTAMP_MILLIS) {
+          return value;
+        }
+        if (originalType == OriginalType.TIMESTAMP_MICROS) {
+          return Math.floorDiv((Long) value, 1000L);
+        }
+        return isSignedInteger(originalType) ? value : null;
+      case FLOAT:
+        final float floatValue = (Float) value;
+        return Float.isNaN(floatValue) ? null : Double.valueOf(floatValue);
+      case DOUBLE:
+        return Double.isNaN((Double) value) ? null : value;
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isSignedInteger(OriginalType originalType) {
+    return originalType == null || originalType == OriginalType.INT_8 || originalType == OriginalType.INT_16
+      || originalType == OriginalType.INT_32 || originalType == OriginalType.INT_64;
+  }
+
   /**
    * Read from each reader and make sure number of rows in batch is the same for all the readers
    * @return
@@ -534,6 +766,7 @@ public class UnifiedParquetReader implements RecordReader {
     try {
       List<AutoCloseable> closeables = new ArrayList<>();
       closeables.addAll(delegates);
+      closeables.addAll(rowFilterEvaluators);
       closeables.add(inputStreamProvider);
       closeables.add(validityBuf);
       closeables.add(sv2);
@@ -842,14 +1075,16 @@ public class UnifiedParquetReader implements RecordReader {
 
           returnList.add(getWrappedReader(reader, unifiedReader));
         }
-        if (!unifiedReader.nonVectorizableReaderColumns.isEmpty()) {
-          RecordReader reader = new ParquetRowiseReader(
+        final List<SchemaPath> rowiseReaderColumns = new ArrayList<>(unifiedReader.nonVectorizableReaderColumns);
+        rowiseReaderColumns.addAll(unifiedReader.lateMaterializedReaderColumns);
+        if (!rowiseReaderColumns.isEmpty()) {
+          ParquetRowiseReader reader = new ParquetRowiseReader(
             unifiedReader.context,
             unifiedReader.getFooter(),
             unifiedReader.readEntry.getRowGroupIndex(),
             unifiedReader.readEntry.getPath(),
             unifiedReader.projectedColumns.cloneForSchemaPaths(
-              unifiedReader.columnResolver.getBatchSchemaColumns(unifiedReader.nonVectorizableReaderColumns),
+              unifiedReader.columnResolver.getBatchSchemaColumns(rowiseReaderColumns),
               unifiedReader.isConvertedIcebergDataset
             ),
             unifiedReader.fs,
@@ -859,6 +1094,7 @@ public class UnifiedParquetReader implements RecordReader {
             unifiedReader.codecFactory,
             unifiedReader.vectorizableReaderColumns.isEmpty() ? unifiedReader.tableSchema : null
           );
+          reader.setLateMaterialization(!unifiedReader.lateMaterializedReaderColumns.isEmpty());
           returnList.add(
             unifiedReader.vectorizableReaderColumns.isEmpty()
               ? getWrappedReader(reader, unifiedReader)
@@ -1014,6 +1250,9 @@ public class UnifiedParquetReader implements RecordReader {
       RuntimeFilter filterWithNewNonPartColFilterList = RuntimeFilter.getInstanceWithNewNonPartitionColFiltersList(runtimeFilter);
       this.runtimeFilters.add(filterWithNewNonPartColFilterList);
       this.delegates.forEach(d -> d.addRuntimeFilter(filterWithNewNonPartColFilterList));
+      if (outputMutator != null) {
+        setupRowLevelFilters(filterWithNewNonPartColFilterList);
+      }
     }
   }
 
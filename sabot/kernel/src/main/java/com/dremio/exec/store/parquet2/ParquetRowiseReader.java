@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -59,16 +60,22 @@ import com.dremio.common.expression.SchemaPath;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.parquet.AbstractParquetReader;
 import com.dremio.exec.store.parquet.BigIntAutoIncrementer;
+import com.dremio.exec.store.parquet.BulkInputStream;
 import com.dremio.exec.store.parquet.InputStreamProvider;
 import com.dremio.exec.store.parquet.MutableParquetMetadata;
+import com.dremio.exec.store.parquet.OffsetIndexProvider;
 import com.dremio.exec.store.parquet.ParquetColumnResolver;
+import com.dremio.exec.store.parquet.ParquetReaderStats;
+import com.dremio.exec.store.parquet.ParquetRowSelection;
 import com.dremio.exec.store.parquet.ParquetScanProjectedColumns;
 import com.dremio.exec.store.parquet.SchemaDerivationHelper;
+import com.dremio.exec.store.parquet.Streams;
 import com.dremio.exec.util.ColumnUtils;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.scan.OutputMutator;
+import com.dremio.sabot.op.scan.ScanOperator.Metric;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -111,6 +118,13 @@ public class ParquetRowiseReader extends AbstractParquetReader {
   private final BatchSchema tableSchema;
   private final BigIntAutoIncrementer rowIndexGenerator;
 
+  // set when the columns are read only for the rows selected by the deltas
+  private boolean lateMaterialization;
+  private ParquetRowSelection rowSelection;
+  private OffsetIndexProvider offsetIndexProvider;
+  private int numLeafColumns;
+  private final ParquetReaderStats parquetReaderStats = new ParquetReaderStats();
+
   public ParquetRowiseReader(OperatorContext context, MutableParquetMetadata footer, int rowGroupIndex, String path,
                              ParquetScanProjectedColumns projectedColumns, FileSystem fileSystem, SchemaDerivationHelper schemaHelper,
                              SimpleIntVector deltas, InputStreamProvider inputStreamProvider, CompressionCodecFactory codec,
@@ -150,6 +164,14 @@ public class ParquetRowiseReader extends AbstractParquetReader {
     this(context, footer, rowGroupIndex, path, projectedColumns, fileSystem, schemaHelper, null, inputStreamProvider, codec, readEvenIfSchemaChanges, tableSchema);
   }
 
+  /**
+   * Reads the columns only for the rows selected by the deltas, skipping the pages with no selected rows when the
+   * columns have offset indexes. Meant for the columns not used by the filters that produce the deltas.
+   */
+  public void setLateMaterialization(boolean lateMaterialization) {
+    this.lateMaterialization = lateMaterialization;
+  }
+
   public static SchemaPath convertColumnDescriptor(ParquetColumnResolver columnResolver, final MessageType schema, final ColumnDescriptor columnDescriptor) {
     List<String> path = columnResolver.convertColumnDescriptor(schema, columnDescriptor);
     String[] schemaColDesc = new String[path.size()];
@@ -280,32 +302,35 @@ public class ParquetRowiseReader extends AbstractParquetReader {
 
         recordCount = blockMetaData.getRowCount();
 
-        pageReadStore = new ColumnChunkIncReadStore(recordCount,
-          codec, operatorContext.getAllocator(),
-          filePath, inputStreamProvider);
+        if (lateMaterialization && deltas != null && !noColumnsFound && recordCount > 0) {
+          rowSelection = newRowSelection(filePath, getColumnChunks(projection, blockMetaData));
+        }
+        pageReadStore = rowSelection == null
+          ? new ColumnChunkIncReadStore(recordCount, codec, operatorContext.getAllocator(), filePath, inputStreamProvider)
+          : new ColumnChunkIncReadStore(recordCount, codec, operatorContext.getAllocator(), filePath, inputStreamProvider,
+              rowSelection, offsetIndexProvider, parquetReaderStats);
       }
 
       if (!schemaOnly && !noColumnsFound) {
-
-
-        Map<ColumnPath, ColumnChunkMetaData> paths = new HashMap<>();
-
-        for (ColumnChunkMetaData md : footer.getBlocks().get(rowGroupIndex).getColumns()) {
-          paths.put(md.getPath(), md);
-        }
-        for (String[] path : projection.getPaths()) {
-          Type type = schema.getType(path);
-          if (type.isPrimitive()) {
-            ColumnChunkMetaData md = paths.get(ColumnPath.get(path));
-            pageReadStore.addColumn(schema.getColumnDescription(path), md);
-          }
+        Map<ColumnDescriptor, ColumnChunkMetaData> columnChunks = getColumnChunks(projection, footer.getBlocks().get(rowGroupIndex));
+        inputStreamProvider.planColumnReads(columnChunks.values(), parquetReaderStats);
+        for (Map.Entry<ColumnDescriptor, ColumnChunkMetaData> columnChunk : columnChunks.entrySet()) {
+          pageReadStore.addColumn(columnChunk.getKey(), columnChunk.getValue());
         }
+        numLeafColumns = columnChunks.size();
 
         ColumnIOFactory factory = new ColumnIOFactory(false);
         MessageColumnIO columnIO = factory.getColumnIO(projection, schema);
 
         if (footer.getBlocks().get(rowGroupIndex).getRowCount() > 0) {
-          if (deltas != null) {
+          if (rowSelection != null) {
+            recordReader = columnIO.getRecordReader(pageReadStore, recordMaterializer, new UnboundRecordFilter() {
+              @Override
+              public RecordFilter bind(Iterable<ColumnReader> readers) {
+                return rowSelection.newRecordFilter();
+              }
+            });
+          } else if (deltas != null) {
             recordReader = columnIO.getRecordReader(pageReadStore, recordMaterializer, new UnboundRecordFilter() {
               @Override
               public RecordFilter bind(Iterable<ColumnReader> readers) {
@@ -326,6 +351,43 @@ public class ParquetRowiseReader extends AbstractParquetReader {
     }
   }
 
+  private Map<ColumnDescriptor, ColumnChunkMetaData> getColumnChunks(MessageType projection, BlockMetaData blockMetaData) {
+    Map<ColumnPath, ColumnChunkMetaData> paths = new HashMap<>();
+    for (ColumnChunkMetaData md : blockMetaData.getColumns()) {
+      paths.put(md.getPath(), md);
+    }
+
+    Map<ColumnDescriptor, ColumnChunkMetaData> columnChunks = new LinkedHashMap<>();
+    for (String[] path : projection.getPaths()) {
+      Type type = schema.getType(path);
+      if (type.isPrimitive()) {
+        columnChunks.put(schema.getColumnDescription(path), paths.get(ColumnPath.get(path)));
+      }
+    }
+    return columnChunks;
+  }
+
+  /**
+   * Selection of the rows to read, if all the columns have offset indexes to tell the rows of their pages.
+   */
+  private ParquetRowSelection newRowSelection(Path filePath, Map<ColumnDescriptor, ColumnChunkMetaData> columnChunks) {
+    final List<ColumnChunkMetaData> columns = new ArrayList<>(columnChunks.values());
+    if (columns.isEmpty() || columns.stream().anyMatch(c -> c.getOffsetIndexReference() == null)) {
+      return null;
+    }
+    try (BulkInputStream inputStream = BulkInputStream.wrap(Streams.wrap(fileSystem.open(filePath)))) {
+      offsetIndexProvider = new OffsetIndexProvider(inputStream, operatorContext.getAllocator(), columns);
+      operatorContext.getStats().addLongStat(Metric.OFFSET_INDEX_READ, 1);
+    } catch (Exception e) {
+      logger.debug("Failed to read the offset indexes of {}, reading all the pages", filePath, e);
+      return null;
+    }
+    if (columns.stream().anyMatch(c -> offsetIndexProvider.getOffsetIndex(c) == null)) {
+      return null;
+    }
+    return new ParquetRowSelection(recordCount);
+  }
+
   private void setupRowIndexGenerator(OutputMutator output) {
     if (rowIndexGenerator == null) {
       return;
@@ -513,6 +575,17 @@ public class ParquetRowiseReader extends AbstractParquetReader {
         if (vectorizedBasedFilter != null) {
           vectorizedBasedFilter.reset();
         }
+        if (rowSelection != null) {
+          rowSelection.addSelection(deltas);
+        }
+        if (lateMaterialization) {
+          long skippedRows = 0;
+          for (int i = 0; i < deltas.getValueCount(); i++) {
+            skippedRows += deltas.get(i);
+          }
+          parquetReaderStats.numValuesDecoded += maxRecordCount * numLeafColumns;
+          parquetReaderStats.numValuesSkipped += skippedRows * numLeafColumns;
+        }
       }
 
       // No columns found in the file were selected, simply return a full batch of null records for each column requested
@@ -571,6 +644,21 @@ public class ParquetRowiseReader extends AbstractParquetReader {
     } catch (Exception e) {
       logger.warn("Failure while closing PageReadStore", e);
     }
+    if (offsetIndexProvider != null) {
+      offsetIndexProvider.close();
+      offsetIndexProvider = null;
+    }
+    if (lateMaterialization && operatorContext != null) {
+      operatorContext.getStats().addLongStat(Metric.LATE_MATERIALIZED_VALUES_DECODED, parquetReaderStats.numValuesDecoded);
+      operatorContext.getStats().addLongStat(Metric.LATE_MATERIALIZED_VALUES_SKIPPED, parquetReaderStats.numValuesSkipped);
+      operatorContext.getStats().addLongStat(Metric.LATE_MATERIALIZED_PAGES_SKIPPED, parquetReaderStats.numPagesSkipped);
+    }
+    if (parquetReaderStats.numRangeReads > 0 && operatorContext != null) {
+      operatorContext.getStats().addLongStat(Metric.NUM_COALESCED_READS, parquetReaderStats.numRangeReads);
+      operatorContext.getStats().addLongStat(Metric.COALESCED_READ_BYTES, parquetReaderStats.totalRangeReadBytes);
+      operatorContext.getStats().addLongStat(Metric.COALESCED_READ_OVER_READ_BYTES, parquetReaderStats.totalRangeOverReadBytes);
+      operatorContext.getStats().addLongStat(Metric.COALESCED_READ_NANOS, parquetReaderStats.timeRangeReads);
+    }
   }
 
   /**
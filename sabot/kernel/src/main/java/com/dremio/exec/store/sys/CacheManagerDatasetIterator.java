@@ -31,27 +31,37 @@ public class CacheManagerDatasetIterator implements Iterator<Object> {
   private final boolean isCachedFileSystem;
   private List<CacheManagerDatasetInfo> datasetInfoList = new ArrayList<>();
   private int curPos;
-  private CacheManagerStatsProvider cacheManagerStatsProvider;
+  private final CacheManagerStatsProvider cacheManagerStatsProvider;
   private RocksIterator dsIterator;
 
   CacheManagerDatasetIterator(SabotContext sabotContext) {
-    isCachedFileSystem = (sabotContext.getFileSystemWrapper() instanceof CacheManagerStatsProvider);
+    cacheManagerStatsProvider = CacheManagerStatsProvider.of(sabotContext.getFileSystemWrapper());
+    isCachedFileSystem = cacheManagerStatsProvider != null;
 
     if (isCachedFileSystem) {
-      cacheManagerStatsProvider = (CacheManagerStatsProvider) sabotContext.getFileSystemWrapper();
-      dsIterator = cacheManagerStatsProvider.getDatasetIterator();
-      if (dsIterator != null) {
-        datasetInfoList = cacheManagerStatsProvider.getDatasetStats(dsIterator);
+      final List<CacheManagerDatasetInfo> allInfo = cacheManagerStatsProvider.getDatasetStats();
+      if (allInfo != null) {
+        // cache managers without a RocksDB index return everything at once
+        datasetInfoList = allInfo;
+      } else {
+        dsIterator = cacheManagerStatsProvider.getDatasetIterator();
+        if (dsIterator != null) {
+          datasetInfoList = cacheManagerStatsProvider.getDatasetStats(dsIterator);
+        }
       }
     }
   }
 
   @Override
   public boolean hasNext() {
-    if (!isCachedFileSystem || dsIterator == null) {
+    if (!isCachedFileSystem) {
       return false;
     }
 
+    if (dsIterator == null) {
+      return curPos < datasetInfoList.size();
+    }
+
     if (curPos == datasetInfoList.size()) {
       datasetInfoList = cacheManagerStatsProvider.getDatasetStats(dsIterator);
       if (datasetInfoList.isEmpty()) {
@@ -65,7 +75,7 @@ public class CacheManagerDatasetIterator implements Iterator<Object> {
 
   @Override
   public Object next() {
-    if (!isCachedFileSystem || dsIterator == null) {
+    if (!isCachedFileSystem) {
       return null;
     }
 
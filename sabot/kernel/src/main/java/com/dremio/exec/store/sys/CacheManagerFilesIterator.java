@@ -31,25 +31,37 @@ public class CacheManagerFilesIterator implements Iterator<Object> {
   private final boolean isCachedFileSystem;
   private List<CacheManagerFilesInfo> filesInfoList = new ArrayList<>();
   private int curPos;
-  private CacheManagerStatsProvider cacheManagerStatsProvider;
+  private final CacheManagerStatsProvider cacheManagerStatsProvider;
   private RocksIterator fileIterator;
 
   CacheManagerFilesIterator(SabotContext sabotContext) {
-    isCachedFileSystem = (sabotContext.getFileSystemWrapper() instanceof CacheManagerStatsProvider);
+    cacheManagerStatsProvider = CacheManagerStatsProvider.of(sabotContext.getFileSystemWrapper());
+    isCachedFileSystem = cacheManagerStatsProvider != null;
 
     if (isCachedFileSystem) {
-      cacheManagerStatsProvider = (CacheManagerStatsProvider) sabotContext.getFileSystemWrapper();
-      fileIterator = cacheManagerStatsProvider.getCachedFilesIterator();
-      filesInfoList = cacheManagerStatsProvider.getCachedFilesStats(fileIterator);
+      final List<CacheManagerFilesInfo> allInfo = cacheManagerStatsProvider.getCachedFilesStats();
+      if (allInfo != null) {
+        // cache managers without a RocksDB index return everything at once
+        filesInfoList = allInfo;
+      } else {
+        fileIterator = cacheManagerStatsProvider.getCachedFilesIterator();
+        if (fileIterator != null) {
+          filesInfoList = cacheManagerStatsProvider.getCachedFilesStats(fileIterator);
+        }
+      }
     }
   }
 
   @Override
   public boolean hasNext() {
-    if (!isCachedFileSystem || fileIterator == null) {
+    if (!isCachedFileSystem) {
       return false;
     }
 
+    if (fileIterator == null) {
+      return curPos < filesInfoList.size();
+    }
+
     if (curPos == filesInfoList.size()) {
       filesInfoList = cacheManagerStatsProvider.getCachedFilesStats(fileIterator);
       if (filesInfoList.isEmpty()) {
@@ -63,7 +75,7 @@ public class CacheManagerFilesIterator implements Iterator<Object> {
 
   @Override
   public Object next() {
-    if (!isCachedFileSystem || fileIterator == null) {
+    if (!isCachedFileSystem) {
       return null;
     }
 
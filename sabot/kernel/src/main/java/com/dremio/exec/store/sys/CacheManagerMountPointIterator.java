@@ -29,8 +29,9 @@ public class CacheManagerMountPointIterator implements Iterator<Object> {
   private final Iterator<CacheManagerMountPointInfo> iter;
 
   CacheManagerMountPointIterator(SabotContext sabotContext, OperatorContext operatorContext) {
-    iter = (sabotContext.getFileSystemWrapper() instanceof CacheManagerStatsProvider) ?
-        ((CacheManagerStatsProvider) sabotContext.getFileSystemWrapper()).getMountPointStats().iterator() :
+    final CacheManagerStatsProvider cacheManagerStatsProvider = CacheManagerStatsProvider.of(sabotContext.getFileSystemWrapper());
+    iter = cacheManagerStatsProvider != null ?
+        cacheManagerStatsProvider.getMountPointStats().iterator() :
         Collections.EMPTY_LIST.iterator();
   }
 
@@ -15,10 +15,13 @@
  */
 package com.dremio.exec.store.sys;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.rocksdb.RocksIterator;
 
+import com.dremio.exec.store.dfs.FileSystemWrapper;
+import com.dremio.exec.store.dfs.LoggedFileSystemWrapper;
 import com.dremio.exec.work.CacheManagerDatasetInfo;
 import com.dremio.exec.work.CacheManagerFilesInfo;
 import com.dremio.exec.work.CacheManagerMountPointInfo;
@@ -49,27 +52,65 @@ public interface CacheManagerStatsProvider {
 
   /**
    * Gets the iterator for the datasets information in the cache manager.
-   * @return
+   * @return null if the cache manager doesn't index datasets in RocksDB, see {@link #getDatasetStats()}
    */
-  RocksIterator getDatasetIterator();
+  default RocksIterator getDatasetIterator() {
+    return null;
+  }
 
   /**
    * Retrieves the statistics about the datasets cached in the executor node.
    * @param dsIterator
    * @return
    */
-  List<CacheManagerDatasetInfo> getDatasetStats(RocksIterator dsIterator);
+  default List<CacheManagerDatasetInfo> getDatasetStats(RocksIterator dsIterator) {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Retrieves the statistics about all the datasets cached in the executor node, for cache managers that
+   * don't index them in RocksDB.
+   * @return null if the statistics are only available through {@link #getDatasetIterator()}
+   */
+  default List<CacheManagerDatasetInfo> getDatasetStats() {
+    return null;
+  }
 
   /**
    * Gets the iterator for the cached files in the executor node.
-   * @return
+   * @return null if the cache manager doesn't index files in RocksDB, see {@link #getCachedFilesStats()}
    */
-  RocksIterator getCachedFilesIterator();
+  default RocksIterator getCachedFilesIterator() {
+    return null;
+  }
 
   /**
    * Retrives the statistics about the cached files in the executor node.
    * @param fileIterator
    * @return
    */
-  List<CacheManagerFilesInfo> getCachedFilesStats(RocksIterator fileIterator);
+  default List<CacheManagerFilesInfo> getCachedFilesStats(RocksIterator fileIterator) {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Retrieves the statistics about all the cached files in the executor node, for cache managers that
+   * don't index them in RocksDB.
+   * @return null if the statistics are only available through {@link #getCachedFilesIterator()}
+   */
+  default List<CacheManagerFilesInfo> getCachedFilesStats() {
+    return null;
+  }
+
+  /**
+   * Gets the stats provider of a file system wrapper, looking through the logging wrapper.
+   * @return null if the file system wrapper doesn't cache data
+   */
+  static CacheManagerStatsProvider of(FileSystemWrapper fileSystemWrapper) {
+    FileSystemWrapper wrapper = fileSystemWrapper;
+    if (wrapper instanceof LoggedFileSystemWrapper) {
+      wrapper = ((LoggedFileSystemWrapper) wrapper).getDefaultWrapper();
+    }
+    return wrapper instanceof CacheManagerStatsProvider ? (CacheManagerStatsProvider) wrapper : null;
+  }
 }
@@ -29,8 +29,9 @@ public class CacheManagerStoragePluginIterator implements Iterator<Object> {
   private final Iterator<CacheManagerStoragePluginInfo> iter;
 
   CacheManagerStoragePluginIterator(SabotContext sabotContext, OperatorContext operatorContext) {
-    iter = (sabotContext.getFileSystemWrapper() instanceof CacheManagerStatsProvider) ?
-        ((CacheManagerStatsProvider) sabotContext.getFileSystemWrapper()).getStoragePluginStats().iterator() :
+    final CacheManagerStatsProvider cacheManagerStatsProvider = CacheManagerStatsProvider.of(sabotContext.getFileSystemWrapper());
+    iter = cacheManagerStatsProvider != null ?
+        cacheManagerStatsProvider.getStoragePluginStats().iterator() :
         Collections.EMPTY_LIST.iterator();
   }
 
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.sys;
+
+import java.util.Iterator;
+
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.server.SabotContext;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
+
+/**
+ * Iterator over the state of the executor wide parquet footer cache, one record per node.
+ */
+public class ParquetFooterCacheIterator implements Iterator<Object> {
+
+  private boolean beforeFirst = true;
+  private final SabotContext dbContext;
+
+  public ParquetFooterCacheIterator(final SabotContext dbContext) {
+    this.dbContext = dbContext;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return beforeFirst;
+  }
+
+  @Override
+  public Object next() {
+    if (!beforeFirst) {
+      throw new IllegalStateException();
+    }
+    beforeFirst = false;
+    final FooterCacheInfo info = new FooterCacheInfo();
+
+    final NodeEndpoint endpoint = dbContext.getEndpoint();
+    info.hostname = endpoint.getAddress();
+    info.fabric_port = endpoint.getFabricPort();
+
+    final ParquetFooterCache footerCache = ParquetFooterCache.getInstanceIfPresent();
+    if (footerCache != null) {
+      info.entries = footerCache.getNumEntries();
+      info.size_bytes = footerCache.getSizeBytes();
+      info.max_size_bytes = footerCache.getMaxSizeBytes();
+      info.hits = footerCache.getHits();
+      info.misses = footerCache.getMisses();
+      info.evictions = footerCache.getEvictions();
+    }
+    return info;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static class FooterCacheInfo {
+    public String hostname;
+    public long fabric_port;
+    public long entries;
+    public long size_bytes;
+    public long max_size_bytes;
+    public long hits;
+    public long misses;
+    public long evictions;
+  }
+}
@@ -194,6 +194,13 @@ public enum SystemTable implements DatasetHandle, DatasetMetadata, PartitionChun
     }
   },
 
+  PARQUET_FOOTER_CACHE(true, ParquetFooterCacheIterator.FooterCacheInfo.class, "cache", "footers") {
+    @Override
+    public Iterator<?> getIterator(final SabotContext sContext, final OperatorContext context) {
+      return new ParquetFooterCacheIterator(sContext);
+    }
+  },
+
   TIMEZONE_ABBREVIATIONS(false, TimezoneAbbreviations.TimezoneAbbr.class, "timezone_abbrevs") {
     @Override
     public Iterator<?> getIterator(final SabotContext sabotContext, final OperatorContext operatorContext) {
@@ -18,6 +18,7 @@ package com.dremio.exec.work;
 import java.util.List;
 
 import com.dremio.exec.planner.fragment.PlanFragmentFull;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.google.common.base.Preconditions;
 
 public class QueryWorkUnit {
@@ -32,4 +33,16 @@ public class QueryWorkUnit {
   public List<PlanFragmentFull> getFragments() {
     return fragments;
   }
+
+  /**
+   * @return the executor running the root fragment, the screen of the query, or null if there is no root fragment.
+   */
+  public NodeEndpoint getRootAssignment() {
+    for (PlanFragmentFull fragment : fragments) {
+      if (fragment.getMajorFragmentId() == 0 && fragment.getMinorFragmentId() == 0) {
+        return fragment.getAssignment();
+      }
+    }
+    return null;
+  }
 }
@@ -56,6 +56,7 @@ import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.testing.ControlsInjector;
 import com.dremio.exec.testing.ControlsInjectorFactory;
 import com.dremio.exec.util.Utilities;
+import com.dremio.exec.work.protector.ResultEndpointRecorder;
 import com.dremio.exec.work.protector.UserRequest;
 import com.dremio.exec.work.protector.UserResult;
 import com.dremio.exec.work.user.OptionProvider;
@@ -295,7 +296,7 @@ public class AttemptManager implements Runnable, MaestroObserver.ExecutionStageC
    * Fragments therefore cannot complete until the acknowledgement is shuttled
    * back to the sending node.
    */
-  private class ScreenShuttle implements RpcOutcomeListener<Ack>{
+  private class ScreenShuttle implements RpcOutcomeListener<Ack>, ResultEndpointRecorder {
     private final ResponseSender sender;
     private AtomicBoolean acked = new AtomicBoolean(false);
 
@@ -335,6 +336,11 @@ public class AttemptManager implements Runnable, MaestroObserver.ExecutionStageC
       ackit();
     }
 
+    @Override
+    public void recordSent(int endpointIndex, long records, long bytes, long sendNanos) {
+      profileTracker.recordResultEndpointSent(endpointIndex, records, bytes, sendNanos);
+    }
+
     private void ackit(){
       // No matter what, we ack back to the original node. Since we manage
       // execution, we can cancel on failure from here. We don't ack until we've
@@ -18,6 +18,8 @@ package com.dremio.exec.work.foreman;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
@@ -79,6 +81,8 @@ class AttemptProfileTracker {
   private long startTime;
   private long endTime;
   private List<AttemptEvent> stateList = new ArrayList<>();
+  // results sent to each endpoint, when the client fetches them from several endpoints
+  private final Map<Integer, ResultEndpointStats> resultEndpoints = new TreeMap<>();
 
   private volatile UserBitShared.QueryProfile planningProfile;
   private volatile UserBitShared.QueryId prepareId;
@@ -272,6 +276,9 @@ class AttemptProfileTracker {
       builder.setTotalFragments(capturer.getNumFragments());
       builder.addAllDatasetProfile(capturer.getDatasets());
       builder.setNumPlanCacheUsed(capturer.getNumPlanCacheUses());
+      if (capturer.getPlanCacheProfile() != null) {
+        builder.setPlanCacheProfile(capturer.getPlanCacheProfile());
+      }
       if (capturer.getNumJoinsInUserQuery() != null) {
         builder.setNumJoinsInUserQuery(capturer.getNumJoinsInUserQuery());
       }
@@ -385,6 +392,10 @@ class AttemptProfileTracker {
     if (resourceSchedulingDecisionInfo.getEngineName() != null) {
       resourceBuilder.setEngineName(resourceSchedulingDecisionInfo.getEngineName());
     }
+    resourceBuilder.setQueueWaitMillis(resourceSchedulingDecisionInfo.getQueueWaitMillis());
+    if (resourceSchedulingDecisionInfo.getRejectionReason() != null) {
+      resourceBuilder.setRejectionReason(resourceSchedulingDecisionInfo.getRejectionReason());
+    }
     return resourceBuilder.build();
   }
 
@@ -403,6 +414,44 @@ class AttemptProfileTracker {
       builder.setCancelReason(cancelReason);
     }
     UserResult.addError(userException, builder);
+
+    synchronized (resultEndpoints) {
+      builder.clearResultEndpointProfile();
+      for (Map.Entry<Integer, ResultEndpointStats> entry : resultEndpoints.entrySet()) {
+        builder.addResultEndpointProfile(entry.getValue().toProfile(entry.getKey()));
+      }
+    }
+  }
+
+  // record a batch of results sent to one of the endpoints the client fetches them from.
+  void recordResultEndpointSent(int endpointIndex, long records, long bytes, long sendNanos) {
+    synchronized (resultEndpoints) {
+      resultEndpoints.computeIfAbsent(endpointIndex, i -> new ResultEndpointStats()).add(records, bytes, sendNanos);
+    }
+  }
+
+  private static final class ResultEndpointStats {
+    private long batches;
+    private long records;
+    private long bytes;
+    private long sendNanos;
+
+    private void add(long records, long bytes, long sendNanos) {
+      this.batches++;
+      this.records += records;
+      this.bytes += bytes;
+      this.sendNanos += sendNanos;
+    }
+
+    private UserBitShared.ResultEndpointProfile toProfile(int endpointIndex) {
+      return UserBitShared.ResultEndpointProfile.newBuilder()
+        .setEndpointIndex(endpointIndex)
+        .setBatches(batches)
+        .setRecords(records)
+        .setBytes(bytes)
+        .setSendMillis(TimeUnit.NANOSECONDS.toMillis(sendNanos))
+        .build();
+    }
   }
 
   private class TimeMarker extends AbstractAttemptObserver {
@@ -592,11 +592,13 @@ public class ForemenWorkManager implements Service, SafeExit {
                   UserResponseHandler responseHandler,
                   UserRequest request,
                   TerminationListenerRegistry registry,
-                  Executor executor) {
+                  Executor executor,
+                  OptionProvider queryOptions) {
     commandPool.get().<Void>submit(CommandPool.Priority.HIGH,
       ExternalIdHelper.toString(externalId) + ":work-submission",
       "work-submission",
-      (waitInMillis) -> submitWorkCommand(externalId, session, responseHandler, request, registry, executor, waitInMillis),
+      (waitInMillis) -> submitWorkCommand(externalId, session, responseHandler, request, registry, executor, queryOptions,
+        waitInMillis),
       request.runInSameThread())
       .whenComplete((o, e)-> {
         if (e != null) {
@@ -626,6 +628,7 @@ public class ForemenWorkManager implements Service, SafeExit {
                          UserRequest request,
                          TerminationListenerRegistry registry,
                          Executor executor,
+                         OptionProvider queryOptions,
                          Long waitInMillis) {
     if (!canAcceptWork()) {
       throw UserException.resourceError()
@@ -641,8 +644,12 @@ public class ForemenWorkManager implements Service, SafeExit {
     final QueryObserver observer = dbContext.get().getQueryObserverFactory().get().createNewQueryObserver(
       externalId, session, responseHandler);
     final QueryObserver oobObserver = new OutOfBandQueryObserver(observer, executor, requestContextProvider);
-    final ReAttemptHandler attemptHandler = newExternalAttemptHandler(session.getOptions());
-    submit(externalId, oobObserver, session, request, registry, null, attemptHandler);
+    // the results of queries run with options of their own may be served by their executors, from endpoints handed to
+    // the clients while the first attempt runs, which another attempt could not go on with
+    final ReAttemptHandler attemptHandler = queryOptions == null
+      ? newExternalAttemptHandler(session.getOptions())
+      : new NoReAttemptHandler();
+    submit(externalId, oobObserver, session, request, registry, queryOptions, attemptHandler);
     return null;
   }
 
@@ -665,7 +672,14 @@ public class ForemenWorkManager implements Service, SafeExit {
     @Override
     public void submitWork(ExternalId externalId, UserSession session,
                            UserResponseHandler responseHandler, UserRequest request, TerminationListenerRegistry registry) {
-      ForemenWorkManager.this.submitWork(externalId, session, responseHandler, request, registry, executor);
+      ForemenWorkManager.this.submitWork(externalId, session, responseHandler, request, registry, executor, null);
+    }
+
+    @Override
+    public void submitWork(ExternalId externalId, UserSession session, UserResponseHandler responseHandler,
+                           UserRequest request, TerminationListenerRegistry registry, OptionProvider queryOptions) {
+      ForemenWorkManager.this.submitWork(externalId, session, responseHandler, request, registry, executor,
+        queryOptions);
     }
 
     @Override
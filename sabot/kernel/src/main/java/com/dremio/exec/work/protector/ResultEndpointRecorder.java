@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.work.protector;
+
+/**
+ * Records which endpoint a batch of results was sent to, when a {@link UserResponseHandler} spreads the results of a
+ * query over several endpoints. Implemented by the outcome listeners of the batches, so that the batches are
+ * recorded in the profile of the query before they are acknowledged.
+ */
+public interface ResultEndpointRecorder {
+
+  /**
+   * Records a batch sent to an endpoint. Called before the outcome listener of the batch is notified.
+   *
+   * @param endpointIndex the index of the endpoint the batch was sent to
+   * @param records       the number of records in the batch
+   * @param bytes         the size of the batch
+   * @param sendNanos     the time spent sending the batch
+   */
+  void recordSent(int endpointIndex, long records, long bytes, long sendNanos);
+}
@@ -16,6 +16,7 @@
 package com.dremio.exec.work.protector;
 
 import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.GeneralRPCProtos.Ack;
 import com.dremio.exec.rpc.RpcOutcomeListener;
 
@@ -25,4 +26,10 @@ public interface UserResponseHandler {
 
   void completed(UserResult result);
 
+  /**
+   * Called once the fragments of the query are assigned, with the executor running its screen fragment.
+   */
+  default void screenAssigned(NodeEndpoint endpoint) {
+  }
+
 }
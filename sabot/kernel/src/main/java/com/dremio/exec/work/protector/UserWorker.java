@@ -19,6 +19,7 @@ import com.dremio.common.utils.protos.ExternalIdHelper;
 import com.dremio.exec.proto.GeneralRPCProtos.Ack;
 import com.dremio.exec.proto.UserBitShared.ExternalId;
 import com.dremio.exec.work.foreman.TerminationListenerRegistry;
+import com.dremio.exec.work.user.OptionProvider;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.rpc.user.UserSession;
 
@@ -27,6 +28,13 @@ public interface UserWorker {
   void submitWork(ExternalId externalId, UserSession session,
     UserResponseHandler responseHandler, UserRequest request, TerminationListenerRegistry registry);
 
+  /**
+   * Submits work whose query runs with the given options, on top of the ones of the session. The query is not
+   * attempted again on failure.
+   */
+  void submitWork(ExternalId externalId, UserSession session, UserResponseHandler responseHandler,
+    UserRequest request, TerminationListenerRegistry registry, OptionProvider queryOptions);
+
   default void submitWork(UserSession session, UserResponseHandler responseHandler,
       UserRequest request, TerminationListenerRegistry registry) {
     submitWork(ExternalIdHelper.generateExternalId(), session, responseHandler, request, registry);
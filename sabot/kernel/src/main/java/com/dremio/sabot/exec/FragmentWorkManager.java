@@ -53,6 +53,7 @@ import com.dremio.sabot.exec.fragment.FragmentExecutorBuilder;
 import com.dremio.sabot.exec.heap.SpillingOperatorHeapController;
 import com.dremio.sabot.exec.rpc.ExecProtocol;
 import com.dremio.sabot.exec.rpc.ExecTunnel;
+import com.dremio.sabot.exec.rpc.ExecutorResultStreams;
 import com.dremio.sabot.exec.rpc.FabricExecTunnel;
 import com.dremio.sabot.exec.rpc.InProcessExecTunnel;
 import com.dremio.sabot.memory.MemoryArbiter;
@@ -103,6 +104,7 @@ public class FragmentWorkManager implements Service, SafeExit {
   private final Provider<MaestroClientFactory> maestroServiceClientFactoryProvider;
   private final Provider<JobTelemetryExecutorClientFactory> jobTelemetryClientFactoryProvider;
   private final Provider<JobResultsClientFactory> jobResultsClientFactoryProvider;
+  private final Provider<ExecutorResultStreams> executorResultStreamsProvider;
 
   private ExtendedLatch exitLatch = null; // This is used to wait to exit when things are still running
   private com.dremio.exec.service.executor.ExecutorService executorService;
@@ -121,7 +123,8 @@ public class FragmentWorkManager implements Service, SafeExit {
     final Provider<TaskPool> taskPool,
     final Provider<MaestroClientFactory> maestroServiceClientFactoryProvider,
     final Provider<JobTelemetryExecutorClientFactory> jobTelemetryClientFactoryProvider,
-    final Provider<JobResultsClientFactory> jobResultsClientFactoryProvider) {
+    final Provider<JobResultsClientFactory> jobResultsClientFactoryProvider,
+    final Provider<ExecutorResultStreams> executorResultStreamsProvider) {
     this.context = context;
     this.memoryArbiter = MemoryArbiterFactory.newInstance(sabotConfig, (DremioRootAllocator) context.getAllocator());
     this.identity = identity;
@@ -136,6 +139,7 @@ public class FragmentWorkManager implements Service, SafeExit {
     this.maestroServiceClientFactoryProvider = maestroServiceClientFactoryProvider;
     this.jobTelemetryClientFactoryProvider = jobTelemetryClientFactoryProvider;
     this.jobResultsClientFactoryProvider = jobResultsClientFactoryProvider;
+    this.executorResultStreamsProvider = executorResultStreamsProvider;
   }
 
   /**
@@ -355,6 +359,7 @@ public class FragmentWorkManager implements Service, SafeExit {
         bitContext.getCompiler(),
         ClusterCoordinator.Role.fromEndpointRoles(identity.get().getRoles()),
         jobResultsClientFactoryProvider,
+        executorResultStreamsProvider,
         identity,
         bitContext.getExpressionSplitCache(),
         heapLowMemController);
@@ -524,6 +524,19 @@ public class OperatorStats {
     runtimeFilterDetailsInScan.addAll(runtimeFilterDetails);
   }
 
+  /**
+   * Adds to the rows pruned by the runtime filter on the given probe fields, as received from the given join.
+   */
+  public void addRuntimeFilterRowsPrunedInScan(String joinSource, List<String> probeFieldNames, long rowsPruned) {
+    for (int i = 0; i < runtimeFilterDetailsInScan.size(); i++) {
+      RunTimeFilterDetailsInfoInScan details = runtimeFilterDetailsInScan.get(i);
+      if (details.getJoinSource().equals(joinSource) && details.getProbeFieldNamesList().equals(probeFieldNames)) {
+        runtimeFilterDetailsInScan.set(i, details.toBuilder().setRowsPruned(details.getRowsPruned() + rowsPruned).build());
+        return;
+      }
+    }
+  }
+
   public void addSlowIoInfos(List<SlowIOInfo> slowIoInfos) {
     this.slowIoInfos.addAll(slowIoInfos);
   }
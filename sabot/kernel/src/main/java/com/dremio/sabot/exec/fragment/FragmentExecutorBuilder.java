@@ -72,6 +72,7 @@ import com.dremio.sabot.exec.context.FragmentStats;
 import com.dremio.sabot.exec.context.StatusHandler;
 import com.dremio.sabot.exec.cursors.FileCursorManagerFactory;
 import com.dremio.sabot.exec.heap.HeapLowMemController;
+import com.dremio.sabot.exec.rpc.ExecutorResultStreams;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.memory.MemoryArbiter;
 import com.dremio.sabot.threads.sharedres.SharedResourceManager;
@@ -124,6 +125,7 @@ public class FragmentExecutorBuilder {
   private final NodeDebugContextProvider nodeDebugContextProvider;
   private final SpillService spillService;
   private final Provider<JobResultsClientFactory> jobResultsClientFactoryProvider;
+  private final Provider<ExecutorResultStreams> executorResultStreamsProvider;
   private final Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider;
   private final HeapLowMemController heapLowMemController;
 
@@ -150,6 +152,7 @@ public class FragmentExecutorBuilder {
     CodeCompiler codeCompiler,
     Set<ClusterCoordinator.Role> roles,
     Provider<JobResultsClientFactory> jobResultsClientFactoryProvider,
+    Provider<ExecutorResultStreams> executorResultStreamsProvider,
     Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
     ExpressionSplitCache expressionSplitCache,
     HeapLowMemController heapLowMemController) {
@@ -177,6 +180,7 @@ public class FragmentExecutorBuilder {
     this.nodeDebugContextProvider = nodeDebugContextProvider;
     this.spillService = spillService;
     this.jobResultsClientFactoryProvider = jobResultsClientFactoryProvider;
+    this.executorResultStreamsProvider = executorResultStreamsProvider;
     this.heapLowMemController = heapLowMemController;
   }
 
@@ -297,8 +301,15 @@ public class FragmentExecutorBuilder {
             contextInformationFactory.newContextFactory(major.getCredentials(), major.getContext());
 
         // create rpc connections
-        final JobResultsTunnel jobResultsTunnel = jobResultsClientFactoryProvider.get()
+        final JobResultsTunnel jobResultsTunnel;
+        final long resultEndpoints = fragmentOptions.getOption(ExecConstants.EXECUTOR_RESULT_ENDPOINTS);
+        if (resultEndpoints > 0 && handle.getMajorFragmentId() == 0) {
+          // the screen serves the results to the clients from this executor
+          jobResultsTunnel = executorResultStreamsProvider.get().getTunnel(handle.getQueryId(), (int) resultEndpoints);
+        } else {
+          jobResultsTunnel = jobResultsClientFactoryProvider.get()
             .getJobResultsClient(major.getForeman(), allocator, QueryIdHelper.getFragmentId(fragment.getHandle()), QueryIdHelper.getQueryIdentifier(fragment.getHandle())).getTunnel();
+        }
         final DeferredException exception = new DeferredException();
         final StatusHandler handler = new StatusHandler(exception);
         final FileCursorManagerFactory fileCursorManagerFactory = maestroProxy.getFileCursorMangerFactory(fragment.getHandle().getQueryId());
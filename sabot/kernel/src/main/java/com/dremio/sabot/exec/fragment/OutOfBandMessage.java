@@ -99,6 +99,13 @@ public class OutOfBandMessage {
     }
   }
 
+  /**
+   * Class name of the protobuf payload, for receivers accepting several kinds of messages.
+   */
+  public String getPayloadType() {
+    return payload.getType();
+  }
+
   public boolean isShrinkMemoryRequest() {
     return isShrinkMemoryRequest;
   }
@@ -64,6 +64,10 @@ public class AccountingExecTunnel {
     tunnel.sendOOBMessage(statusHandler, message);
   }
 
+  public boolean isRemote() {
+    return tunnel.isRemote();
+  }
+
   private static class StatsTrackingListenerWrapper implements RpcOutcomeListener<Ack> {
     private final RpcOutcomeListener<Ack> inner;
     private final Stopwatch watch;
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+
+/**
+ * The results of queries served by this executor, for the screen fragments spreading them over several endpoints.
+ */
+public interface ExecutorResultStreams {
+
+  ExecutorResultStreams NONE = (queryId, endpointCount) -> {
+    throw UserException.unsupportedError()
+      .message("Results can't be served by this executor, its Flight service is disabled.")
+      .buildSilently();
+  };
+
+  /**
+   * Gets the tunnel of the screen fragment of a query, streaming its results to the clients of its endpoints.
+   *
+   * @param queryId       the id of the query.
+   * @param endpointCount the number of endpoints the results are spread over.
+   * @return the tunnel, to close once the fragment is done.
+   */
+  ExecutorResultsTunnel getTunnel(QueryId queryId, int endpointCount);
+}
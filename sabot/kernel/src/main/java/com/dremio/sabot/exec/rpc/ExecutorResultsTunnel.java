@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import java.util.List;
+
+import com.dremio.exec.proto.UserBitShared.ResultEndpointProfile;
+import com.dremio.services.jobresults.common.JobResultsTunnel;
+
+/**
+ * Tunnel the screen fragment of a query sends its results through when the executor running it serves them to the
+ * clients itself, spread over the endpoints of the query, instead of sending them to the coordinator.
+ *
+ * Closing the tunnel completes the endpoints, once all their batches were acknowledged.
+ */
+public abstract class ExecutorResultsTunnel extends JobResultsTunnel {
+
+  /**
+   * Called by the screen once it sent all the results, so that the endpoints complete successfully when the tunnel is
+   * closed. The endpoints of a tunnel closed before fail.
+   */
+  public abstract void resultsCompleted();
+
+  /**
+   * @return the results sent to each endpoint so far.
+   */
+  public abstract List<ResultEndpointProfile> getEndpointProfiles();
+}
@@ -155,6 +155,11 @@ public class InProcessExecTunnel implements ExecTunnel {
     }
   }
 
+  @Override
+  public boolean isRemote() {
+    return false;
+  }
+
   @Override
   public void informReceiverFinished(RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener, ExecRPC.FinishedReceiver finishedReceiver) {
     try {
@@ -90,6 +90,12 @@ public class HashAggStats {
     OOB_DROP_NO_VICTIM, // Number of times OOB dropped spilling notification as all allocations were minimal.
     OOB_SPILL, // Spill was done due to oob.
     OOB_DROP_ALREADY_SPILLING, // Number of times operator dropped spilling notification as it was already spilling
+
+    // partial aggregation bypass related metrics
+    PARTIAL_BYPASS_SAMPLED_RECORDS, // Number of records consumed before deciding whether to bypass the partial aggregation
+    PARTIAL_BYPASS_SAMPLED_GROUPS, // Number of groups formed by the sampled records
+    PARTIAL_BYPASS_AT_RECORDS, // Number of records consumed when the bypass kicked in, 0 if it never did
+    PARTIAL_BYPASS_RECORDS, // Number of records passed through without aggregation
     ;
 
     private final DisplayType displayType;
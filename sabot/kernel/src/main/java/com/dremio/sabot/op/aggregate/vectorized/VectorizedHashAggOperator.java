@@ -80,6 +80,7 @@ import com.dremio.sabot.op.common.ht2.LBlockHashTable;
 import com.dremio.sabot.op.common.ht2.PivotBuilder;
 import com.dremio.sabot.op.common.ht2.PivotBuilder.PivotInfo;
 import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.Unpivots;
 import com.dremio.sabot.op.common.ht2.VariableBlockVector;
 import com.dremio.sabot.op.spi.Operator.ShrinkableOperator;
 import com.dremio.sabot.op.spi.SingleInputOperator;
@@ -372,6 +373,16 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   public static final DoubleValidator OOB_SPILL_TRIGGER_HEADROOM_FACTOR = new RangeDoubleValidator("exec.operator.aggregate.vectorize.oob_trigger_headroom_factor", 0.0d, 10.0d, .2d);
   public static final BooleanValidator OOB_SPILL_TRIGGER_ENABLED = new BooleanValidator("exec.operator.aggregate.vectorize.oob_trigger_enabled", true);
   public static final BooleanValidator VECTORIZED_HASHAGG_ENABLE_MICRO_SPILLS = new BooleanValidator("exec.operator.aggregate.vectorize.enable_micro_spills", true);
+  /*
+   * The first phase of a two phase aggregation samples the groups it forms over its first few incoming batches.
+   * If they don't reduce the number of records by at least the given fraction, the groups are flushed and the
+   * rest of the input is passed through, one group per record, leaving the aggregation to the second phase.
+   */
+  public static final BooleanValidator VECTORIZED_HASHAGG_ENABLE_PARTIAL_BYPASS = new BooleanValidator("exec.operator.aggregate.vectorize.partial_bypass.enabled", false);
+  public static final PositiveLongValidator VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_BATCHES =
+    new PositiveLongValidator("exec.operator.aggregate.vectorize.partial_bypass.sample_batches", 1024, 16);
+  public static final DoubleValidator VECTORIZED_HASHAGG_PARTIAL_BYPASS_MIN_REDUCTION =
+    new RangeDoubleValidator("exec.operator.aggregate.vectorize.partial_bypass.min_reduction", 0.0d, 1.0d, 0.1d);
   /*
    * If variable column records size is much larger then default (15) size, let the vector created for new batches
    * can go up to 1M (256 * 4K). Config option can be used to reduce, if really needed.
@@ -459,6 +470,18 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   private final boolean setLimitToMinReservation;
   private VectorizedHashAggPartition ongoingVictimPartition;
   private final boolean enableSmallSpills;
+  private final boolean tagProbing;
+  private final boolean partialBypass;
+  private final long partialBypassSampleBatches;
+  private final double partialBypassMinReduction;
+  private BypassState bypassState;
+  private long sampledBatches;
+  private long sampledRecords;
+  private long sampledGroups;
+  private long bypassedAtRecords;
+  private long bypassedRecords;
+  private int bypassIncomingRecords;
+  private int bypassIncomingOffset;
   private ResumableInsertState resumableInsertState;
   private OperatorStateBeforeOOB operatorStateBeforeOOB;
   private ForceSpillState forceSpillState;
@@ -533,6 +556,11 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     this.decimalV2Enabled = options.getOption(PlannerSettings.ENABLE_DECIMAL_V2);
     this.ongoingVictimPartition = null;
     this.enableSmallSpills = options.getOption(VECTORIZED_HASHAGG_ENABLE_MICRO_SPILLS);
+    this.tagProbing = options.getOption(ExecConstants.ENABLE_HASHTABLE_TAG_PROBING);
+    this.partialBypass = popConfig.isPartialAggregate() && options.getOption(VECTORIZED_HASHAGG_ENABLE_PARTIAL_BYPASS);
+    this.partialBypassSampleBatches = options.getOption(VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_BATCHES);
+    this.partialBypassMinReduction = options.getOption(VECTORIZED_HASHAGG_PARTIAL_BYPASS_MIN_REDUCTION);
+    this.bypassState = BypassState.OFF;
     this.resumableInsertState = null;
     this.operatorStateBeforeOOB = null;
     this.forceSpillState = null;
@@ -571,6 +599,12 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     }
     this.fixedOnly = pivot.getVariableCount() == 0;
     this.internalStateMachine = InternalState.NONE;
+    /* records are passed through by accumulating each of them in its own slot of a single batch,
+     * which is only possible for accumulators that don't need a temporary holder (fixed width output)
+     */
+    if (partialBypass && Arrays.stream(tempAccumulatorHolder).allMatch(v -> v == null)) {
+      bypassState = BypassState.SAMPLING;
+    }
     this.initDone = true;
 
     state = State.CAN_CONSUME;
@@ -720,7 +754,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
          */
         final LBlockHashTable hashTable = new LBlockHashTable(HashConfig.getDefault(), pivot, allocator,
           minHashTableSizePerPartition, estimatedVariableWidthKeySize, true,
-          maxHashTableBatchSize);
+          maxHashTableBatchSize, null, tagProbing);
         hashTable.registerResizeListener(accumulator);
         final String partitionIdentifier = "P" + String.format("%03d", i);
 
@@ -962,7 +996,112 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     for(FieldVector v : vectorsToValidate){
       VariableLengthValidator.validateVariable(v, records);
     }
+
+    if (bypassState == BypassState.ACTIVE) {
+      startBypassOutput(records);
+      return;
+    }
+
     consumeDataHelper(records);
+
+    if (bypassState == BypassState.SAMPLING) {
+      sampleReduction(records);
+    }
+  }
+
+  /**
+   * Partial aggregation only: once enough batches have been consumed, check how much
+   * the groups formed so far reduce the input. If the reduction is too small to be
+   * worth the cost of the hash table, flush the groups and pass through the rest of
+   * the input.
+   *
+   * @param records number of records in the batch just consumed
+   */
+  private void sampleReduction(final int records) {
+    sampledBatches++;
+    sampledRecords += records;
+    if (sampledBatches < partialBypassSampleBatches) {
+      return;
+    }
+
+    sampledGroups = getHashTableSize();
+    if (state != State.CAN_CONSUME || partitionSpillHandler.getNumberOfSpills() > 0) {
+      /* groups of spilled partitions are no longer in the hash tables, so we can't tell
+       * the reduction, and the spilled partitions have to be processed anyway
+       */
+      bypassState = BypassState.OFF;
+      updateStats();
+      return;
+    }
+
+    final double reduction = 1.0d - ((double) sampledGroups / sampledRecords);
+    if (reduction >= partialBypassMinReduction) {
+      bypassState = BypassState.OFF;
+      updateStats();
+      return;
+    }
+
+    logger.debug("Bypassing partial aggregation, {} records formed {} groups over {} batches, reduction {} is below {}",
+      sampledRecords, sampledGroups, sampledBatches, reduction, partialBypassMinReduction);
+    bypassedAtRecords = sampledRecords;
+    bypassState = BypassState.FLUSHING;
+    /* output the groups formed so far, outputPartitions() moves on to the bypass once done */
+    moveToOutputState();
+    updateStats();
+  }
+
+  /**
+   * Start passing through a batch from the pipeline. The batch is output in steps of at most
+   * maxHashTableBatchSize records by outputBypassedRecords().
+   *
+   * @param records number of records in the incoming batch
+   */
+  private void startBypassOutput(final int records) {
+    bypassIncomingRecords = records;
+    bypassIncomingOffset = 0;
+    state = State.CAN_PRODUCE;
+    internalStateMachine = InternalState.OUTPUT_BYPASSED_RECORDS;
+  }
+
+  /**
+   * Output the next step of the incoming batch without aggregating it. Keys are pivoted and
+   * unpivoted straight into the outgoing key vectors. Every record is accumulated in its own
+   * slot of the (empty) first partition, so that the outgoing accumulator vectors hold the
+   * partial aggregation output types the second phase expects.
+   *
+   * @return number of records outputted
+   */
+  private int outputBypassedRecords() {
+    final int stepSize = Math.min(maxHashTableBatchSize, bypassIncomingRecords - bypassIncomingOffset);
+
+    pivotWatch.start();
+    final int recordsPivoted = BoundedPivots.pivot(pivot, bypassIncomingOffset, stepSize, fixedBlockVector, variableBlockVector);
+    pivotWatch.stop();
+
+    unpivotWatch.start();
+    Unpivots.unpivot(pivot, fixedBlockVector, variableBlockVector, 0, recordsPivoted);
+    unpivotWatch.stop();
+
+    final VectorizedHashAggPartition partition = hashAggPartitions[0];
+    for (int i = 0; i < recordsPivoted; i++) {
+      partition.appendRecord(i, bypassIncomingOffset + i);
+    }
+    accumulateWatch.start();
+    partition.accumulator.accumulate(partition.buffer.memoryAddress(), recordsPivoted, bitsInChunk, chunkOffsetMask);
+    accumulateWatch.stop();
+    partition.resetRecords();
+    /* transfers the first batch of accumulators to outgoing and reinitializes it */
+    partition.accumulator.output(0, new int[] {recordsPivoted});
+
+    bypassIncomingOffset += recordsPivoted;
+    bypassedRecords += recordsPivoted;
+    if (bypassIncomingOffset == bypassIncomingRecords) {
+      state = State.CAN_CONSUME;
+      internalStateMachine = InternalState.NONE;
+    }
+
+    updateStats();
+    return outgoing.setAllCount(recordsPivoted);
   }
 
   /**
@@ -2087,6 +2226,13 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     stats.setLongStat(Metric.OOB_SPILL, oobSpills);
     stats.setLongStat(Metric.OOB_DROP_ALREADY_SPILLING, oobDropSpill);
 
+    if (partialBypass) {
+      stats.setLongStat(Metric.PARTIAL_BYPASS_SAMPLED_RECORDS, sampledRecords);
+      stats.setLongStat(Metric.PARTIAL_BYPASS_SAMPLED_GROUPS, sampledGroups);
+      stats.setLongStat(Metric.PARTIAL_BYPASS_AT_RECORDS, bypassedAtRecords);
+      stats.setLongStat(Metric.PARTIAL_BYPASS_RECORDS, bypassedRecords);
+    }
+
     if (iterations == 1) {
       stats.setLongStat(Metric.ALLOCATED_FOR_FIXED_KEYS, statsHolder.allocatedForFixedBlocks);
       stats.setLongStat(Metric.UNUSED_FOR_FIXED_KEYS, statsHolder.unusedForFixedBlocks);
@@ -2460,6 +2606,9 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
         consumeSpilledData();
         records = 0;
         break;
+      case OUTPUT_BYPASSED_RECORDS:
+        records = outputBypassedRecords();
+        break;
     }
 
     return records;
@@ -2489,7 +2638,14 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
   private int outputPartitions() throws Exception {
 
     if (outputPartitionIndex == numPartitions) {
-      postOutputProcessing();
+      if (bypassState == BypassState.FLUSHING) {
+        /* flushed the groups formed before deciding to bypass, go back to consuming */
+        bypassState = BypassState.ACTIVE;
+        state = State.CAN_CONSUME;
+        internalStateMachine = InternalState.NONE;
+      } else {
+        postOutputProcessing();
+      }
       outputPartitionIndex = 0;
       outputBatchIndex = 0;
       return 0;
@@ -2733,9 +2889,20 @@ public class VectorizedHashAggOperator implements SingleInputOperator, Shrinkabl
     SPILL_NEXT_BATCH,
     RESUME_CONSUMING,
     FORCE_SPILL_INMEMORY_DATA,
+    OUTPUT_BYPASSED_RECORDS,
     DONE
   }
 
+  /**
+   * Progress of the partial aggregation bypass, see {@link #sampleReduction(int)}
+   */
+  private enum BypassState {
+    OFF,
+    SAMPLING,
+    FLUSHING,
+    ACTIVE
+  }
+
   @Override
   public State getState() {
     return state;
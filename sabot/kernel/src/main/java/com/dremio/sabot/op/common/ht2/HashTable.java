@@ -122,6 +122,7 @@ public interface HashTable {
     private final int maxHashTableBatchSize;
     private final NullComparator nullComparator;
     private final boolean runtimeFilterEnabled;
+    private final boolean tagProbingEnabled;
 
     public HashTableCreateArgs(HashConfig hashConfig,
                                PivotDef pivot,
@@ -132,6 +133,20 @@ public interface HashTable {
                                int maxHashTableBatchSize,
                                NullComparator nullComparator,
                                boolean runtimeFilterEnabled) {
+      this(hashConfig, pivot, allocator, initialSize, defaultVarLengthSize, enforceVarWidthBufferLimit,
+        maxHashTableBatchSize, nullComparator, runtimeFilterEnabled, false);
+    }
+
+    public HashTableCreateArgs(HashConfig hashConfig,
+                               PivotDef pivot,
+                               BufferAllocator allocator,
+                               int initialSize,
+                               int defaultVarLengthSize,
+                               boolean enforceVarWidthBufferLimit,
+                               int maxHashTableBatchSize,
+                               NullComparator nullComparator,
+                               boolean runtimeFilterEnabled,
+                               boolean tagProbingEnabled) {
       this.hashConfig = hashConfig;
       this.pivot = pivot;
       this.allocator = allocator;
@@ -141,6 +156,7 @@ public interface HashTable {
       this.maxHashTableBatchSize = maxHashTableBatchSize;
       this.nullComparator = nullComparator;
       this.runtimeFilterEnabled = runtimeFilterEnabled;
+      this.tagProbingEnabled = tagProbingEnabled;
     }
 
     public HashConfig getHashConfig() {
@@ -178,5 +194,9 @@ public interface HashTable {
     public boolean isRuntimeFilterEnabled() {
       return runtimeFilterEnabled;
     }
+
+    public boolean isTagProbingEnabled() {
+      return tagProbingEnabled;
+    }
   }
 }
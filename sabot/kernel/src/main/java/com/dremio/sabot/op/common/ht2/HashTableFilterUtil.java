@@ -49,10 +49,19 @@ public class HashTableFilterUtil {
   public static Optional<BloomFilter> prepareBloomFilters(RuntimeFilterProbeTarget probeTarget,
                                                           Optional<BloomFilter> inputBloomFilter,
                                                           HashTableKeyReader keyReader, HashTable hashTable) {
+    return prepareBloomFilter(probeTarget.getPartitionBuildTableKeys(), inputBloomFilter, keyReader, hashTable);
+  }
+
+  /**
+   * Same as {@link #prepareBloomFilters(RuntimeFilterProbeTarget, Optional, HashTableKeyReader, HashTable)}, for a
+   * bloomfilter over the given build fields, e.g. the composite non-partition keys of a probe target.
+   */
+  public static Optional<BloomFilter> prepareBloomFilter(List<String> fieldNames,
+                                                         Optional<BloomFilter> inputBloomFilter,
+                                                         HashTableKeyReader keyReader, HashTable hashTable) {
     Preconditions.checkState(inputBloomFilter.isPresent());
     BloomFilter bloomFilter = inputBloomFilter.get();
 
-    List<String> fieldNames = probeTarget.getPartitionBuildTableKeys();
     Preconditions.checkArgument(!CollectionUtils.isEmpty(fieldNames));
 
     try (AutoCloseables.RollbackCloseable closeOnError = new AutoCloseables.RollbackCloseable()) {
@@ -18,11 +18,13 @@ package com.dremio.sabot.op.common.ht2;
 import static java.util.Arrays.asList;
 import static java.util.Arrays.copyOfRange;
 
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Formatter;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
@@ -58,6 +60,12 @@ import io.netty.util.internal.PlatformDependent;
  *
  * Built from the following koloboke independent implementations and customized
  * for this purpose: UpdatableQHashObjSetGO < UpdatableObjQHashSetSO < UpdatableSeparateKVObjQHashGO < UpdatableSeparateKVObjQHashSO < UpdatableQHash
+ *
+ * When tag probing is enabled and all the keys are fixed width, the table also keeps one tag byte per
+ * control slot in a contiguous buffer. A tag holds 7 bits of the key hash, or {@link #TAG_EMPTY} for a free
+ * slot. Probing then reads {@link #TAG_GROUP_WIDTH} tags at a time as a long and compares them all at once,
+ * only touching the control and fixed blocks of the slots whose tag matches. Slots are probed forward
+ * in this mode.
  */
 public final class LBlockHashTable implements HashTable, AutoCloseable {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(LBlockHashTable.class);
@@ -72,6 +80,11 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
   private static final int RETRY_RETURN_CODE = -2;
   public static final int ORDINAL_SIZE = 4;
 
+  public static final int TAG_GROUP_WIDTH = 8;
+  private static final byte TAG_EMPTY = (byte) 0x80;
+  private static final long TAG_LSB = 0x0101010101010101L;
+  private static final long TAG_MSB = 0x8080808080808080L;
+
   private final HashConfigWrapper config;
   private ResizeListener resizeListener;
   private SpaceCheckListener spaceCheckListener;
@@ -80,6 +93,7 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
   private final BufferAllocator allocator;
   private final NullComparator nullComparator;
   private final boolean fixedOnly;
+  private final boolean tagProbing;
 
   private int capacity;
   private int maxSize;
@@ -105,6 +119,9 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
   private long[] openVariableAddresses = new long[0]; // current pointer where we should add values.
   private long[] initVariableAddresses = new long[0];
   private long[] maxVariableAddresses = new long[0];
+  // one tag per control slot, only allocated when probing with tags
+  private ArrowBuf tags;
+  private long tagsAddr;
 
   private int rehashCount = 0;
   private int spliceCount = 0;
@@ -126,7 +143,7 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
   public LBlockHashTable(HashTableCreateArgs createArgs) {
     this(createArgs.getHashConfig(), createArgs.getPivot(), createArgs.getAllocator(), createArgs.getInitialSize(),
       createArgs.getDefaultVarLengthSize(), createArgs.isEnforceVarWidthBufferLimit(),
-      createArgs.getMaxHashTableBatchSize(), createArgs.getNullComparator());
+      createArgs.getMaxHashTableBatchSize(), createArgs.getNullComparator(), createArgs.isTagProbingEnabled());
   }
 
   public LBlockHashTable(HashConfig config,
@@ -148,6 +165,19 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
                          final boolean enforceVarWidthBufferLimit,
                          final int maxHashTableBatchSize,
                          NullComparator nullComparator) {
+    this(config, pivot, parentAllocator, initialSize, defaultVariableLengthSize,
+      enforceVarWidthBufferLimit, maxHashTableBatchSize, nullComparator, false);
+  }
+
+  public LBlockHashTable(HashConfig config,
+                         PivotDef pivot,
+                         BufferAllocator parentAllocator,
+                         int initialSize,
+                         int defaultVariableLengthSize,
+                         final boolean enforceVarWidthBufferLimit,
+                         final int maxHashTableBatchSize,
+                         NullComparator nullComparator,
+                         final boolean tagProbing) {
     this.pivot = pivot;
     this.nullComparator = nullComparator;
     this.config = new HashConfigWrapper(config);
@@ -161,6 +191,10 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
     this.MAX_VALUES_PER_BATCH = Numbers.nextPowerOfTwo(maxHashTableBatchSize);
     this.BITS_IN_CHUNK = Long.numberOfTrailingZeros(MAX_VALUES_PER_BATCH);
     this.CHUNK_OFFSET_MASK = (1 << BITS_IN_CHUNK) - 1;
+    /* capacity is never below MAX_VALUES_PER_BATCH, so a group of tags never wraps onto itself.
+     * groups are read as little endian longs, the first slot in the lowest byte. */
+    this.tagProbing = tagProbing && fixedOnly && MAX_VALUES_PER_BATCH >= TAG_GROUP_WIDTH
+      && ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
     this.variableBlockMaxLength = (pivot.getVariableCount() == 0) ? 0 :
       (ACTUAL_VALUES_PER_BATCH * (((defaultVariableLengthSize + VAR_OFFSET_SIZE) * pivot.getVariableCount()) + VAR_LENGTH_SIZE));
     this.allocatedForFixedBlocks = 0;
@@ -178,8 +212,12 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
       throw new RuntimeException(ex);
     }
 
-    logger.debug("initialized hashtable, maxSize:{}, capacity:{}, maxVariableBlockLength:{}, maxValuesPerBatch:{}",
-      maxSize, capacity, variableBlockMaxLength, MAX_VALUES_PER_BATCH);
+    logger.debug("initialized hashtable, maxSize:{}, capacity:{}, maxVariableBlockLength:{}, maxValuesPerBatch:{}, tagProbing:{}",
+      maxSize, capacity, variableBlockMaxLength, MAX_VALUES_PER_BATCH, this.tagProbing);
+  }
+
+  public boolean isTagProbing() {
+    return tagProbing;
   }
 
   public int getMaxValuesPerBatch() {
@@ -608,6 +646,9 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
    */
   private int probeOrInsert(final long keyFixedAddr, final long keyVarAddr, final int keyVarLen,
                             final int keyHash, final int dataWidth, final boolean insertNew, final long seed) {
+    if (tagProbing) {
+      return probeOrInsertWithTags(keyFixedAddr, keyHash, dataWidth, insertNew, seed);
+    }
     final boolean fixedOnly =  this.fixedOnly;
     final int blockWidth = pivot.getBlockWidth();
     final long[] tableControlAddresses = this.tableControlAddresses;
@@ -656,6 +697,102 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
       keyVarAddr, keyVarLen, seed);
   }
 
+  /**
+   * Same as {@link #probeOrInsert}, for fixed width keys when probing with tags. Tags of
+   * {@link #TAG_GROUP_WIDTH} consecutive slots are compared at once, and the key is only compared
+   * for the slots whose tag matches. Since entries are never removed, the key is absent once a group
+   * has a free slot and none of the slots before it hold the key, and the first free slot is where
+   * linear probing would have inserted it.
+   */
+  private int probeOrInsertWithTags(final long keyFixedAddr, final int keyHash, final int dataWidth,
+                                    final boolean insertNew, final long seed) {
+    final int blockWidth = pivot.getBlockWidth();
+    final long[] tableControlAddresses = this.tableControlAddresses;
+    final long[] tableFixedAddresses = this.tableFixedAddresses;
+    final int mask = capacity - 1;
+    final long tagPattern = TAG_LSB * tag(keyHash);
+
+    int groupIndex = keyHash & mask;
+
+    while (true) {
+      final long group = loadTagGroup(groupIndex);
+
+      long matches = matchTags(group, tagPattern);
+      while (matches != 0) {
+        final int controlIndex = (groupIndex + (Long.numberOfTrailingZeros(matches) >>> 3)) & mask;
+        final long tableControlAddr = tableControlAddresses[controlIndex >>> BITS_IN_CHUNK] +
+          ((controlIndex & CHUNK_OFFSET_MASK) * CONTROL_WIDTH);
+        final long control = PlatformDependent.getLong(tableControlAddr);
+        if (keyHash == (int) (control >>> 32)) {
+          final int ordinal = (int) control;
+          final int dataChunkIndex = getBatchIndexForOrdinal(ordinal);
+          final int offsetInChunk = ordinal & CHUNK_OFFSET_MASK;
+          final long tableDataAddr = tableFixedAddresses[dataChunkIndex] + (offsetInChunk * blockWidth);
+          if (fixedKeyEquals(keyFixedAddr, tableDataAddr, dataWidth)) {
+            if (!insertNew || spaceCheckListener.resizeListenerHasSpace(resizeListener, dataChunkIndex, offsetInChunk, seed)) {
+              return ordinal;
+            }
+            /* Space check have failed. Batches must have rehashed so retry again. */
+            return RETRY_RETURN_CODE;
+          }
+        }
+        matches &= matches - 1;
+      }
+
+      final long free = group & TAG_MSB;
+      if (free != 0) {
+        // key not found
+        if (!insertNew) {
+          return -1;
+        }
+        final int controlIndex = (groupIndex + (Long.numberOfTrailingZeros(free) >>> 3)) & mask;
+        final long tableControlAddr = tableControlAddresses[controlIndex >>> BITS_IN_CHUNK] +
+          ((controlIndex & CHUNK_OFFSET_MASK) * CONTROL_WIDTH);
+        final int ordinal = insert(blockWidth, tableControlAddr, keyHash, dataWidth, keyFixedAddr,
+          -1, 0, seed);
+        if (ordinal != RETRY_RETURN_CODE) {
+          PlatformDependent.putByte(tagsAddr + controlIndex, tag(keyHash));
+        }
+        return ordinal;
+      }
+
+      groupIndex = (groupIndex + TAG_GROUP_WIDTH) & mask;
+    }
+  }
+
+  /**
+   * Tag of a key, the 7 high bits of its hash. The control index is taken from the low bits.
+   */
+  private static byte tag(final int keyHash) {
+    return (byte) (keyHash >>> 25);
+  }
+
+  /**
+   * Set the high bit of each byte of the group that is equal to the corresponding byte of the pattern.
+   * Free slots never match, and a byte may only match falsely when a lower byte truly matches, which
+   * is fine as matches are checked against the control block anyway.
+   */
+  private static long matchTags(final long group, final long tagPattern) {
+    final long x = group ^ tagPattern;
+    return (x - TAG_LSB) & ~x & TAG_MSB;
+  }
+
+  /**
+   * Read the tags of {@link #TAG_GROUP_WIDTH} slots starting at the given index, the first slot
+   * in the lowest byte. Groups at the end of the table wrap around to its start.
+   */
+  private long loadTagGroup(final int index) {
+    if (index <= capacity - TAG_GROUP_WIDTH) {
+      return PlatformDependent.getLong(tagsAddr + index);
+    }
+    final int mask = capacity - 1;
+    long group = 0;
+    for (int i = 0; i < TAG_GROUP_WIDTH; i++) {
+      group |= (PlatformDependent.getByte(tagsAddr + ((index + i) & mask)) & 0xFFL) << (i * 8);
+    }
+    return group;
+  }
+
   // Get the length of the variable keys for the specified ordinals.
   @Override
   public int getCumulativeVarKeyLength(ArrowBuf ordinals, int numRecords) {
@@ -1047,7 +1184,8 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
     }
     final long sizeOfKeyBlocks = getKeyBlockSizeInBytes();
     final long sizeOfControlBlock = CONTROL_WIDTH * MAX_VALUES_PER_BATCH * blocks();
-    return sizeOfKeyBlocks + sizeOfControlBlock;
+    final long sizeOfTags = tagProbing ? capacity : 0;
+    return sizeOfKeyBlocks + sizeOfControlBlock + sizeOfTags;
   }
 
   /**
@@ -1170,11 +1308,20 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
     // grab old references.
     final ControlBlock[] oldControlBlocks = this.controlBlocks;
     final long[] oldControlAddrs = this.tableControlAddresses;
+    final ArrowBuf oldTags = this.tags;
 
     try {
       /* this is the only step that allocates memory during rehash, if the method fails the state is unchanged */
       internalInit(newCapacity);
 
+      if (tagProbing) {
+        rehashWithTags(oldControlAddrs);
+        // Release existing control blocks and tags only after rehashing is successful.
+        AutoCloseables.close(asList(oldControlBlocks));
+        AutoCloseables.close(oldTags);
+        return;
+      }
+
       final long[] controlAddrs = this.tableControlAddresses;
 
       // loop through backwards.
@@ -1216,6 +1363,37 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
     }
   }
 
+  /**
+   * Move the entries of the old control blocks to the new (empty) ones, probing forward and
+   * setting the tags of the slots as we go.
+   */
+  private void rehashWithTags(final long[] oldControlAddrs) {
+    final long[] controlAddrs = this.tableControlAddresses;
+    final int mask = capacity - 1;
+
+    for (int batch = 0; batch < oldControlAddrs.length; batch++) {
+      final long addr = oldControlAddrs[batch];
+      final long max = addr + MAX_VALUES_PER_BATCH * CONTROL_WIDTH;
+      for (long oldControlAddr = addr; oldControlAddr < max; oldControlAddr += CONTROL_WIDTH) {
+        final long oldControl = PlatformDependent.getLong(oldControlAddr);
+        if (oldControl == LFREE) {
+          continue;
+        }
+
+        final int keyHash = (int) (oldControl >>> 32);
+        int groupIndex = keyHash & mask;
+        long free;
+        while ((free = loadTagGroup(groupIndex) & TAG_MSB) == 0) {
+          groupIndex = (groupIndex + TAG_GROUP_WIDTH) & mask;
+        }
+        final int index = (groupIndex + (Long.numberOfTrailingZeros(free) >>> 3)) & mask;
+        PlatformDependent.putLong(controlAddrs[index >>> BITS_IN_CHUNK] + ((index & CHUNK_OFFSET_MASK) * CONTROL_WIDTH),
+          oldControl);
+        PlatformDependent.putByte(tagsAddr + index, tag(keyHash));
+      }
+    }
+  }
+
   private static boolean fixedKeyEquals(
     final long keyDataAddr,
     final long tableDataAddr,
@@ -1320,7 +1498,8 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
       Streams.concat(
         Arrays.stream(controlBlocks),
         Arrays.stream(fixedBlocks),
-        Arrays.stream(variableBlocks)
+        Arrays.stream(variableBlocks),
+        tags == null ? Stream.empty() : Stream.of(tags)
       ).collect(ImmutableList.toImmutableList())
     );
     AutoCloseables.close(allocator);
@@ -1381,6 +1560,7 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
     /* new memory allocation */
     final ControlBlock[] newControlBlocks = new ControlBlock[newCtrlBatches];
     final long[] newTableControlAddresses = new long[newCtrlBatches];
+    ArrowBuf newTags = null;
     try(RollbackCloseable rollbackable = new RollbackCloseable()) {
       /* if we fail while allocating a ControlBlock,
        * RollbackCloseable will take care of releasing memory allocated so far.
@@ -1394,10 +1574,17 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
         newTableControlAddresses[i] = newControlBlocks[i].getMemoryAddress();
         initControlBlock(newTableControlAddresses[i]);
       }
+      if (tagProbing) {
+        newTags = rollbackable.add(allocateTags(capacity));
+      }
 
       /* memory allocation successful so update ControlBlock arrays and state */
       this.controlBlocks = newControlBlocks;
       this.tableControlAddresses = newTableControlAddresses;
+      if (tagProbing) {
+        this.tags = newTags;
+        this.tagsAddr = newTags.memoryAddress();
+      }
       this.capacity = capacity;
       this.maxSize = newMaxSize;
       rollbackable.commit();
@@ -1409,6 +1596,19 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
     }
   }
 
+  private ArrowBuf allocateTags(final int capacity) {
+    final ArrowBuf newTags = allocator.buffer(capacity);
+    PlatformDependent.setMemory(newTags.memoryAddress(), capacity, TAG_EMPTY);
+    return newTags;
+  }
+
+  // Compute the direct memory required for the tags, when probing with tags.
+  public static int computePreAllocationForTags(final int initialCapacity, final int hashTableBatchSize) {
+    final HashConfigWrapper config = new HashConfigWrapper(HashConfig.getDefault());
+    final int capacity = LHashCapacities.capacity(config, initialCapacity, false);
+    return Math.max(Numbers.nextPowerOfTwo(hashTableBatchSize), capacity);
+  }
+
   // Compute the direct memory required for the one control block.
   public static int computePreAllocationForControlBlock(final int initialCapacity, final int hashTableBatchSize) {
     final HashConfigWrapper config = new HashConfigWrapper(HashConfig.getDefault());
@@ -1646,6 +1846,13 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
   private void resetToMinimumSizeHelper() throws Exception {
     controlBlocks[0].reset();
     initControlBlock(tableControlAddresses[0]);
+    if (tagProbing) {
+      // release the tags of the larger table before allocating the ones of the minimum size
+      AutoCloseables.close(tags);
+      tags = null;
+      tags = allocateTags(MAX_VALUES_PER_BATCH);
+      tagsAddr = tags.memoryAddress();
+    }
     fixedBlocks[0].reset();
     variableBlocks[0].reset();
     currentOrdinal = 0;
@@ -1774,7 +1981,7 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
         final long tableControlAddr = tableControlAddresses[controlChunkIndex] + (offsetInChunk * CONTROL_WIDTH);
         final long control = PlatformDependent.getLong(tableControlAddr);
 
-        //must not get a free slot before finding the target key, as we always probe up when inserting
+        //must not get a free slot before finding the target key, as we always probe the same way when inserting
         Preconditions.checkArgument(control != LFREE);
 
         final int storedOrdinal = (int)control;
@@ -1783,7 +1990,8 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
           PlatformDependent.putInt(tableControlAddr, targetOrdinal);
           break;
         }
-        controlIndex = (controlIndex - 1) & (capacity - 1);
+        // tags are probed forward
+        controlIndex = (tagProbing ? controlIndex + 1 : controlIndex - 1) & (capacity - 1);
         Preconditions.checkArgument(controlIndex != originalControlIndex);
       }
     }
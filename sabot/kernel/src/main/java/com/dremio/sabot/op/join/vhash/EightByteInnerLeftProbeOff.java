@@ -373,7 +373,7 @@ public class EightByteInnerLeftProbeOff implements JoinTable {
         if (!fieldNames.get(0).equalsIgnoreCase(build.getName())) {
           logger.debug("The required field name {} is not available in the build pivot fields {}. Skipping the filter.", fieldNames.get(0), build.getName());
         } else {
-          bloomFilter = map.prepareBloomFilter(sizeDynamically);
+          bloomFilter = map.prepareBloomFilter(sizeDynamically, partitionColFilters.getBloomFilterSize());
           partitionColFilters.setBloomFilter(i, probeTargets.get(i), bloomFilter);
         }
       } catch (Exception e) {
@@ -430,11 +430,15 @@ public final class LBlockHashTableEight implements AutoCloseable {
   }
 
   public Optional<BloomFilter> prepareBloomFilter(final boolean sizeDynamically) throws Exception {
+    return prepareBloomFilter(sizeDynamically, BLOOMFILTER_MAX_SIZE);
+  }
+
+  public Optional<BloomFilter> prepareBloomFilter(final boolean sizeDynamically, final long maxSize) throws Exception {
     final long bloomFilterSize = sizeDynamically ? Math.min(BloomFilter.getOptimalSize(size()),
-            BLOOMFILTER_MAX_SIZE) : BLOOMFILTER_MAX_SIZE;
+            maxSize) : maxSize;
     try (ArrowBuf keyHolder = allocator.buffer(9);
          RollbackCloseable closeOnErr = new RollbackCloseable()) {
-      final BloomFilter bloomFilter = new BloomFilter(allocator, Thread.currentThread().getName(), bloomFilterSize); // fixed to 2MB
+      final BloomFilter bloomFilter = new BloomFilter(allocator, Thread.currentThread().getName(), bloomFilterSize);
       closeOnErr.add(bloomFilter);
       bloomFilter.setup();
 
@@ -19,6 +19,7 @@ package com.dremio.sabot.op.join.vhash;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.types.Types;
@@ -28,6 +29,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.exec.physical.config.RuntimeFilterProbeTarget;
+import com.dremio.exec.util.BloomFilter;
 import com.dremio.exec.util.ValueListFilter;
 import com.dremio.exec.util.ValueListFilterBuilder;
 import com.dremio.sabot.op.common.ht2.HashTable;
@@ -48,12 +50,26 @@ public class NonPartitionColFilters implements AutoCloseable {
   private final List<RuntimeFilterProbeTarget> probeTargets;
   private final PivotDef pivotDef;
   private final int maxElements;
+  private final long compositeBloomFilterSize;
+  private final int maxKeySize;
 
   public NonPartitionColFilters(BufferAllocator allocator, List<RuntimeFilterProbeTarget> probeTargets, PivotDef pivotDef, int maxElements) {
+    this(allocator, probeTargets, pivotDef, maxElements, 0, 0);
+  }
+
+  /**
+   * @param compositeBloomFilterSize size of the bloomfilter made on all the non-partition keys of a probe target
+   *                                 with more than one of them, 0 to not make any.
+   * @param maxKeySize max size of the composite keys inserted in that bloomfilter
+   */
+  public NonPartitionColFilters(BufferAllocator allocator, List<RuntimeFilterProbeTarget> probeTargets, PivotDef pivotDef,
+                                int maxElements, long compositeBloomFilterSize, int maxKeySize) {
     this.allocator = allocator.newChildAllocator("nonpartition-col-filters", 0, allocator.getLimit());
     this.probeTargets = probeTargets;
     this.pivotDef = pivotDef;
     this.maxElements = maxElements;
+    this.compositeBloomFilterSize = compositeBloomFilterSize;
+    this.maxKeySize = maxKeySize;
     this.nonPartitionColFilters = build();
   }
 
@@ -139,12 +155,42 @@ public class NonPartitionColFilters implements AutoCloseable {
       Preconditions.checkState(keyReaderList.size() == valueListFilterBuilderList.size());
       NonPartitionColFilter nonPartitionColFilter = new NonPartitionColFilter(probeTarget,
         keyReaderList, valueListFilterBuilderList);
+      buildCompositeBloomFilter(nonPartitionColFilter);
       nonPartitionColFilters.add(nonPartitionColFilter);
     }
 
     return nonPartitionColFilters;
   }
 
+  /**
+   * Value list filters are made per column, and can't tell apart the combinations of values seen on the build side.
+   * When the probe target has multiple non-partition keys, a bloomfilter is also made on the composite key.
+   */
+  private void buildCompositeBloomFilter(NonPartitionColFilter nonPartitionColFilter) {
+    final List<String> fieldNames = nonPartitionColFilter.getProbeTarget().getNonPartitionBuildTableKeys();
+    if (compositeBloomFilterSize <= 0 || fieldNames.size() < 2 || fieldNames.stream().anyMatch(StringUtils::isEmpty)) {
+      return;
+    }
+
+    try (AutoCloseables.RollbackCloseable closeOnError = new AutoCloseables.RollbackCloseable()) {
+      final BloomFilter bloomFilter = new BloomFilter(allocator, Thread.currentThread().getName(), compositeBloomFilterSize);
+      closeOnError.add(bloomFilter);
+      bloomFilter.setup();
+      final HashTableKeyReader keyReader = new HashTableKeyReader.Builder()
+        .setBufferAllocator(allocator)
+        .setFieldsToRead(fieldNames)
+        .setPivot(pivotDef)
+        .setMaxKeySize(maxKeySize)
+        .build();
+      closeOnError.add(keyReader);
+
+      closeOnError.commit();
+      nonPartitionColFilter.setCompositeBloomFilter(Optional.of(bloomFilter), keyReader);
+    } catch (Exception e) {
+      logger.warn("Unable to setup composite bloomfilter for {} because {}", fieldNames, e.getMessage());
+    }
+  }
+
   public void finalizeValueListFilters() {
     for (int i = 0; i < probeTargets.size(); i++) {
       NonPartitionColFilter nonPartitionColFilter = nonPartitionColFilters.get(i);
@@ -167,6 +213,13 @@ public class NonPartitionColFilters implements AutoCloseable {
       NonPartitionColFilter nonPartitionColFilter = nonPartitionColFilters.get(i);
       HashTableFilterUtil.prepareValueListFilters(nonPartitionColFilter.getKeyReaderList(),
         nonPartitionColFilter.getValueListFilterBuilderList(), pivotDef, hashTable);
+
+      if (nonPartitionColFilter.getCompositeBloomFilter().isPresent()) {
+        nonPartitionColFilter.setCompositeBloomFilter(HashTableFilterUtil.prepareBloomFilter(
+          nonPartitionColFilter.getProbeTarget().getNonPartitionBuildTableKeys(),
+          nonPartitionColFilter.getCompositeBloomFilter(), nonPartitionColFilter.getCompositeKeyReader(), hashTable),
+          nonPartitionColFilter.getCompositeKeyReader());
+      }
     }
   }
 
@@ -182,11 +235,36 @@ public class NonPartitionColFilters implements AutoCloseable {
     return nonPartitionColFilter.getValueListFilters();
   }
 
+  public Optional<BloomFilter> getCompositeBloomFilter(int index, RuntimeFilterProbeTarget probeTarget) {
+    NonPartitionColFilter nonPartitionColFilter = nonPartitionColFilters.get(index);
+    Preconditions.checkState(nonPartitionColFilter.getProbeTarget() == probeTarget);
+    return nonPartitionColFilter.getCompositeBloomFilter();
+  }
+
+  /**
+   * Arrow types of the build keys of the composite bloomfilter. The probe scan only applies the filter if its columns
+   * are of the same types, as the keys are made of the raw column values.
+   */
+  public List<String> getCompositeColumnTypes(RuntimeFilterProbeTarget probeTarget) {
+    final List<String> columnTypes = new ArrayList<>();
+    for (String fieldName : probeTarget.getNonPartitionBuildTableKeys()) {
+      ArrowType fieldType = getFieldType(pivotDef.getFixedPivots(), fieldName);
+      if (fieldType == null) {
+        fieldType = getFieldType(pivotDef.getVariablePivots(), fieldName);
+      }
+      Preconditions.checkNotNull(fieldType, "Not able to find %s in build pivot", fieldName);
+      columnTypes.add(fieldType.toString());
+    }
+    return columnTypes;
+  }
+
   public class NonPartitionColFilter implements AutoCloseable {
     private final RuntimeFilterProbeTarget probeTarget;
     private final List<HashTableKeyReader> keyReaderList;
     private final List<ValueListFilterBuilder> valueListFilterBuilderList;
     private List<ValueListFilter> valueListFilters = null;
+    private Optional<BloomFilter> compositeBloomFilter = Optional.empty();
+    private HashTableKeyReader compositeKeyReader;
 
     public NonPartitionColFilter(RuntimeFilterProbeTarget probeTarget,
                                  List<HashTableKeyReader> keyReaderList,
@@ -212,6 +290,20 @@ public class NonPartitionColFilters implements AutoCloseable {
       return probeTarget;
     }
 
+    public Optional<BloomFilter> getCompositeBloomFilter() {
+      return compositeBloomFilter;
+    }
+
+    public HashTableKeyReader getCompositeKeyReader() {
+      return compositeKeyReader;
+    }
+
+    public void setCompositeBloomFilter(Optional<BloomFilter> compositeBloomFilter, HashTableKeyReader compositeKeyReader) {
+      /* The bloomfilter is closed by HashTableFilterUtil if it couldn't be prepared */
+      this.compositeBloomFilter = compositeBloomFilter;
+      this.compositeKeyReader = compositeKeyReader;
+    }
+
     public List<ValueListFilterBuilder> getValueListFilterBuilderList() {
       return valueListFilterBuilderList;
     }
@@ -220,6 +312,7 @@ public class NonPartitionColFilters implements AutoCloseable {
     public void close() throws Exception {
       AutoCloseables.close(keyReaderList, valueListFilterBuilderList);
       AutoCloseables.close(valueListFilters);
+      AutoCloseables.close(compositeBloomFilter.orElse(null), compositeKeyReader);
     }
   }
 }
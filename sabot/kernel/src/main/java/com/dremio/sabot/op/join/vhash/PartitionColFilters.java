@@ -117,6 +117,10 @@ public class PartitionColFilters implements AutoCloseable {
     return probeTargets;
   }
 
+  public long getBloomFilterSize() {
+    return bloomFilterSize;
+  }
+
   public Optional<BloomFilter> getBloomFilter(int index, RuntimeFilterProbeTarget probeTarget) {
     PartitionColFilter partitionColFilter = partitionColFilters.get(index);
     Preconditions.checkState(partitionColFilter.getProbeTarget() == probeTarget);
@@ -20,7 +20,6 @@ import static com.dremio.exec.ExecConstants.ENABLE_RUNTIME_FILTER_ON_NON_PARTITI
 import static com.dremio.exec.ExecConstants.RUNTIME_FILTER_KEY_MAX_SIZE;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -68,6 +67,25 @@ public class RuntimeFilterUtil {
     return (int) operatorContext.getOptions().getOption(RUNTIME_FILTER_KEY_MAX_SIZE);
   }
 
+  /**
+   * Max size of the runtime bloomfilters, rounded down to a multiple of 8 bytes as required by {@link BloomFilter}.
+   */
+  public static long getRuntimeFilterBloomFilterMaxSize(OperatorContext operatorContext) {
+    return (operatorContext.getOptions().getOption(ExecConstants.RUNTIME_FILTER_BLOOM_FILTER_MAX_SIZE) / 8) * 8;
+  }
+
+  /**
+   * Size of a bloomfilter holding the given number of distinct build keys without crossing its expected fpp,
+   * capped to the max size.
+   */
+  public static long getRuntimeFilterBloomFilterSize(OperatorContext operatorContext, long buildKeyCount) {
+    return Math.min(BloomFilter.getOptimalSize(Math.max(buildKeyCount, 1)), getRuntimeFilterBloomFilterMaxSize(operatorContext));
+  }
+
+  public static boolean isCompositeNonPartitionColFilterEnabled(OperatorContext operatorContext) {
+    return operatorContext.getOptions().getOption(ExecConstants.ENABLE_RUNTIME_FILTER_COMPOSITE_NON_PARTITION_KEYS);
+  }
+
   public static boolean shouldFragBuildRuntimeFilters(RuntimeFilterInfo runtimeFilterInfo, int minorFragment) {
     /*
      * a. For partitioned columns, a consolidated bloomfilter made on composite build keys.
@@ -98,9 +116,13 @@ public class RuntimeFilterUtil {
       Optional<BloomFilter> bloomFilter = partitionColFilters.getBloomFilter(i, probeTarget);
       List<ValueListFilter> valueListFilters = nonPartitionColFilters == null ? new ArrayList<>() :
         nonPartitionColFilters.getValueListFilters(i, probeTarget);
+      Optional<BloomFilter> compositeFilter = nonPartitionColFilters == null ? Optional.empty() :
+        nonPartitionColFilters.getCompositeBloomFilter(i, probeTarget);
+      List<String> compositeFilterColumnTypes = compositeFilter.isPresent() ?
+        nonPartitionColFilters.getCompositeColumnTypes(probeTarget) : new ArrayList<>();
 
-      prepareAndSendRuntimeFilter(runtimeFilterManager, probeTarget, bloomFilter,
-        valueListFilters, runtimeFilterInfo.isBroadcastJoin(), operatorContext, hashJoinConfig);
+      prepareAndSendRuntimeFilter(runtimeFilterManager, probeTarget, bloomFilter, valueListFilters, compositeFilter,
+        compositeFilterColumnTypes, runtimeFilterInfo.isBroadcastJoin(), operatorContext, hashJoinConfig);
     }
   }
 
@@ -108,6 +130,8 @@ public class RuntimeFilterUtil {
                                                   RuntimeFilterProbeTarget probeTarget,
                                                   Optional<BloomFilter> partitionColFilter,
                                                   List<ValueListFilter> nonPartitionColFilters,
+                                                  Optional<BloomFilter> nonPartitionCompositeFilter,
+                                                  List<String> nonPartitionCompositeFilterColumnTypes,
                                                   boolean isBroadcastJoin,
                                                   OperatorContext operatorContext,
                                                   HashJoinPOP hashJoinConfig) throws Exception {
@@ -150,6 +174,17 @@ public class RuntimeFilterUtil {
       runtimeFilterBuilder.addNonPartitionColumnFilter(nonPartitionColFilter);
     }
 
+    /* Add composite non-partition column filter, after the value lists. Only broadcast joins make one, as it isn't merged. */
+    final Optional<BloomFilter> compositeFilter = isBroadcastJoin ?
+      nonPartitionCompositeFilter.filter(bf -> !bf.isCrossingMaxFPP()) : Optional.empty();
+    compositeFilter.ifPresent(bf -> runtimeFilterBuilder.addNonPartitionColumnFilter(CompositeColumnFilter.newBuilder()
+      .setFilterType(ExecProtos.RuntimeFilterType.BLOOM_FILTER)
+      .addAllColumns(probeTarget.getNonPartitionProbeTableKeys())
+      .addAllColumnTypes(nonPartitionCompositeFilterColumnTypes)
+      .setValueCount(bf.getNumBitsSet())
+      .setSizeBytes(bf.getSizeInBytes())
+      .build()));
+
     final RuntimeFilter runtimeFilter = runtimeFilterBuilder.build();
     if (runtimeFilter.getPartitionColumnFilter().getColumnsCount() == 0 &&
       runtimeFilter.getNonPartitionColumnFilterCount() == 0) {
@@ -167,7 +202,7 @@ public class RuntimeFilterUtil {
     }
 
     if (isBroadcastJoin) {
-      sendRuntimeFilterToProbeScan(runtimeFilter, partitionColFilter, nonPartitionColFilters,
+      sendRuntimeFilterToProbeScan(runtimeFilter, partitionColFilter, nonPartitionColFilters, compositeFilter,
         operatorContext, hashJoinConfig);
 
       long numberOfValuesInBloomFilter = partitionColFilter.isPresent() ? partitionColFilter.get().getNumBitsSet() : 0;
@@ -211,10 +246,9 @@ public class RuntimeFilterUtil {
     }
 
     for (int i = 0; i < runtimeFilter.getNonPartitionColumnFilterCount(); i++) {
-      String probeField = runtimeFilter.getNonPartitionColumnFilter(i).getColumns(0);
       UserBitShared.RunTimeFilterDetailsInfo runTimeFilterDetailsInfoForNonPartitionColumn = UserBitShared.RunTimeFilterDetailsInfo.newBuilder()
         .setProbeTarget(probeTargetScanId)
-        .addAllProbeFieldNames(Arrays.asList(probeField))
+        .addAllProbeFieldNames(runtimeFilter.getNonPartitionColumnFilter(i).getColumnsList())
         .setIsNonPartitionedColumn(true)
         .setIsPartitionedCoulmn(false)
         .setNumberOfValues(runtimeFilter.getNonPartitionColumnFilter(i).getValueCount())
@@ -230,15 +264,24 @@ public class RuntimeFilterUtil {
   static void sendRuntimeFilterToProbeScan(RuntimeFilter filter, Optional<BloomFilter> partitionColFilter,
                                            List<ValueListFilter> nonPartitionColFilters,
                                            OperatorContext operatorContext, HashJoinPOP hashJoinConfig) throws Exception {
+    sendRuntimeFilterToProbeScan(filter, partitionColFilter, nonPartitionColFilters, Optional.empty(),
+      operatorContext, hashJoinConfig);
+  }
+
+  private static void sendRuntimeFilterToProbeScan(RuntimeFilter filter, Optional<BloomFilter> partitionColFilter,
+                                                   List<ValueListFilter> nonPartitionColFilters,
+                                                   Optional<BloomFilter> nonPartitionCompositeFilter,
+                                                   OperatorContext operatorContext, HashJoinPOP hashJoinConfig) throws Exception {
     logger.debug("Sending join runtime filter to probe scan {}:{}, Filter {}",
       filter.getProbeScanOperatorId(), filter.getProbeScanMajorFragmentId(), partitionColFilter);
     logger.debug("Partition col filter fpp {}",
       partitionColFilter.map(BloomFilter::getExpectedFPP).orElse(-1D));
 
-    final List<ArrowBuf> orderedBuffers = new ArrayList<>(nonPartitionColFilters.size() + 1);
+    final List<ArrowBuf> orderedBuffers = new ArrayList<>(nonPartitionColFilters.size() + 2);
     final ArrowBuf bloomFilterBuf = partitionColFilter.map(bf -> bf.getDataBuffer()).orElse(null);
     partitionColFilter.ifPresent(bf -> orderedBuffers.add(bloomFilterBuf));
     nonPartitionColFilters.forEach(v -> orderedBuffers.add(v.buf()));
+    nonPartitionCompositeFilter.ifPresent(bf -> orderedBuffers.add(bf.getDataBuffer()));
 
     final MajorFragmentAssignment majorFragmentAssignment =
       operatorContext.getExtMajorFragmentAssignments(filter.getProbeScanMajorFragmentId());
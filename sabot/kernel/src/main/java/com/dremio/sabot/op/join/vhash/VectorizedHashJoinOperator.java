@@ -15,8 +15,6 @@
  */
 package com.dremio.sabot.op.join.vhash;
 
-import static com.dremio.sabot.op.join.vhash.PartitionColFilters.BLOOMFILTER_MAX_SIZE;
-
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
@@ -46,7 +44,6 @@ import com.dremio.exec.record.ExpandableHyperContainer;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
-import com.dremio.exec.util.BloomFilter;
 import com.dremio.exec.util.RuntimeFilterManager;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
@@ -644,8 +641,10 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
 
   @VisibleForTesting
   public PartitionColFilters createPartitionColFilters() {
+    // Filters of a shuffle join are merged before reaching the probe scan, which requires them to be of the same size
     final long bloomFilterSize = config.getRuntimeFilterInfo().isBroadcastJoin() ?
-      Math.min(BloomFilter.getOptimalSize(table.size()), BLOOMFILTER_MAX_SIZE) : BLOOMFILTER_MAX_SIZE;
+      RuntimeFilterUtil.getRuntimeFilterBloomFilterSize(context, table.size()) :
+      RuntimeFilterUtil.getRuntimeFilterBloomFilterMaxSize(context);
     final int maxKeySize = RuntimeFilterUtil.getRuntimeFilterKeyMaxSize(context);
 
     return new PartitionColFilters(context.getAllocator(), config.getRuntimeFilterInfo().getRuntimeFilterProbeTargets(),
@@ -655,9 +654,14 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   @VisibleForTesting
   public NonPartitionColFilters createNonPartitionColFilters() {
     final int maxElements = RuntimeFilterUtil.getRuntimeValFilterCap(context);
+    // Composite key filters are only sent by broadcast joins, whose filters don't need to be merged
+    final long compositeBloomFilterSize = config.getRuntimeFilterInfo().isBroadcastJoin() &&
+      RuntimeFilterUtil.isCompositeNonPartitionColFilterEnabled(context) ?
+      RuntimeFilterUtil.getRuntimeFilterBloomFilterSize(context, table.size()) : 0;
 
     return new NonPartitionColFilters(context.getAllocator(),
-      config.getRuntimeFilterInfo().getRuntimeFilterProbeTargets(), buildPivot, maxElements);
+      config.getRuntimeFilterInfo().getRuntimeFilterProbeTargets(), buildPivot, maxElements,
+      compositeBloomFilterSize, RuntimeFilterUtil.getRuntimeFilterKeyMaxSize(context));
   }
 
   protected void tryPushRuntimeFilter() {
@@ -15,8 +15,6 @@
  */
 package com.dremio.sabot.op.join.vhash.spill;
 
-import static com.dremio.sabot.op.join.vhash.PartitionColFilters.BLOOMFILTER_MAX_SIZE;
-
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
@@ -379,7 +377,7 @@ public class VectorizedSpillingHashJoinOperator implements DualInputOperator, Sh
         /* Step 1: Create partitionColFilters, i.e BloomFilters, one for each probe target */
         logger.debug("Creating partitionColFilters...");
         partitionColFilters = new PartitionColFilters(context.getAllocator(), probeTargets, buildKeyPivot,
-          BLOOMFILTER_MAX_SIZE, RuntimeFilterUtil.getRuntimeFilterKeyMaxSize(context));
+          RuntimeFilterUtil.getRuntimeFilterBloomFilterMaxSize(context), RuntimeFilterUtil.getRuntimeFilterKeyMaxSize(context));
         rc.add(partitionColFilters);
 
         if (RuntimeFilterUtil.isRuntimeFilterEnabledForNonPartitionedCols(context)) {
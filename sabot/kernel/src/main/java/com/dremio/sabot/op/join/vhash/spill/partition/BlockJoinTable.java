@@ -55,7 +55,8 @@ public class BlockJoinTable implements JoinTable {
       optionManager.getOption(ExecConstants.ENABLE_NATIVE_HASHTABLE_FOR_JOIN),
       new HashTable.HashTableCreateArgs(HashConfig.getDefault(), buildPivot,
         allocator, minSize, varFieldAverageSize, false,
-        MAX_VALUES_PER_BATCH, nullMask, runtimeFilterEnabled));
+        MAX_VALUES_PER_BATCH, nullMask, runtimeFilterEnabled,
+        optionManager.getOption(ExecConstants.ENABLE_HASHTABLE_TAG_PROBING)));
     this.tableTracing = false;
   }
 
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver.merging;
+
+/**
+ * Tournament tree of the losers, to merge sorted streams.
+ *
+ * Each inner node keeps the stream that lost the match played at the node, and the root keeps the overall winner.
+ * Once the winner moves to its next value, only the matches on its path to the root are replayed, which takes
+ * log2(streams) comparisons against a single stream each, where a binary heap compares both children at every level.
+ *
+ * Once the same stream won {@link #MIN_GALLOP} times in a row, the rows of the winner that don't go after the current
+ * value of the runner up are searched for, so that they can be taken as a run. Searching for runs goes on until a
+ * search finds a shorter one, so that interleaved streams only pay for the replays.
+ */
+class LoserTree {
+  static final int MIN_GALLOP = 7;
+
+  /**
+   * Compares the values of the winner, from its current one, to the current value of another stream.
+   */
+  interface RunComparator {
+    /**
+     * Whether the value of the winner at the given offset from its current one doesn't go after the current value of
+     * the given stream.
+     */
+    boolean inRun(int offset, int stream);
+  }
+
+  /**
+   * Orders the current values of the streams.
+   */
+  interface StreamComparator {
+    /**
+     * Whether the current value of the left stream goes before the one of the right stream.
+     */
+    boolean less(int left, int right);
+  }
+
+  private final int size;
+  private final StreamComparator comparator;
+  // tree[0] is the winner, tree[1..size - 1] are the losers of the inner nodes, the leaves are implicit
+  private final int[] tree;
+  private int lastWinner = -1;
+  private int wins;
+  private boolean galloping;
+
+  LoserTree(int size, StreamComparator comparator) {
+    this.size = size;
+    this.comparator = comparator;
+    this.tree = new int[Math.max(size, 1)];
+  }
+
+  /**
+   * Plays all the matches, once every stream has its first value.
+   */
+  void build() {
+    final int[] winners = new int[2 * size];
+    for (int i = 0; i < size; i++) {
+      winners[size + i] = i;
+    }
+    for (int node = size - 1; node >= 1; node--) {
+      final int left = winners[2 * node];
+      final int right = winners[2 * node + 1];
+      if (comparator.less(right, left)) {
+        winners[node] = right;
+        tree[node] = left;
+      } else {
+        winners[node] = left;
+        tree[node] = right;
+      }
+    }
+    tree[0] = size <= 1 ? 0 : winners[1];
+  }
+
+  /**
+   * The stream with the lowest current value.
+   */
+  int winner() {
+    return tree[0];
+  }
+
+  /**
+   * The stream with the lowest current value after the one of the winner, -1 if there is a single stream.
+   *
+   * It lost to the winner in one of the matches on the path of the winner.
+   */
+  int runnerUp() {
+    int runnerUp = -1;
+    for (int node = (tree[0] + size) >>> 1; node >= 1; node >>>= 1) {
+      if (runnerUp < 0 || comparator.less(tree[node], runnerUp)) {
+        runnerUp = tree[node];
+      }
+    }
+    return runnerUp;
+  }
+
+  /**
+   * Number of values of the winner, from its current one, to take before replaying the tree.
+   *
+   * @param available values of the winner that can be taken, at least one
+   * @param values compares the values of the winner to the ones of the runner up
+   */
+  int nextRunLength(int available, RunComparator values) {
+    final int winner = tree[0];
+    if (winner != lastWinner) {
+      lastWinner = winner;
+      wins = 0;
+    }
+    wins++;
+    if (available <= 1 || (!galloping && wins <= MIN_GALLOP)) {
+      return Math.min(available, 1);
+    }
+
+    final int runnerUp = runnerUp();
+    final int length = runnerUp < 0 ? available : searchRun(available, runnerUp, values);
+    // a run cut short by the available values may go on
+    galloping = length >= MIN_GALLOP || length == available;
+    return length;
+  }
+
+  /**
+   * The values of a stream are sorted, so the end of the run is searched by doubling steps then bisection.
+   */
+  private static int searchRun(int available, int runnerUp, RunComparator values) {
+    // the first value is in the run, the value after the available ones is out of it
+    int inRun = 1;
+    int outOfRun = available + 1;
+    for (int step = 1; inRun + step < outOfRun; step <<= 1) {
+      final int probe = inRun + step;
+      if (values.inRun(probe - 1, runnerUp)) {
+        inRun = probe;
+      } else {
+        outOfRun = probe;
+        break;
+      }
+    }
+    while (outOfRun - inRun > 1) {
+      final int mid = (inRun + outOfRun) >>> 1;
+      if (values.inRun(mid - 1, runnerUp)) {
+        inRun = mid;
+      } else {
+        outOfRun = mid;
+      }
+    }
+    return inRun;
+  }
+
+  /**
+   * Replays the matches of the winner, after it moved to its next value.
+   */
+  void replay() {
+    int winner = tree[0];
+    for (int node = (winner + size) >>> 1; node >= 1; node >>>= 1) {
+      if (comparator.less(tree[node], winner)) {
+        final int loser = winner;
+        winner = tree[node];
+        tree[node] = loser;
+      }
+    }
+    tree[0] = winner;
+  }
+}
@@ -32,8 +32,6 @@ public interface Merger {
   public abstract int doEval(int leftIndex,
                                 int rightIndex);
 
-  public abstract void doCopy(int inIndex, int outIndex);
-
   public static TemplateClassDefinition<Merger> TEMPLATE_DEFINITION =
       new TemplateClassDefinition<>(Merger.class, MergerTemplate.class);
 
@@ -42,9 +40,4 @@ public interface Merger {
       GM("doSetup", "doCompare", null, null),
       GM("doSetup", "doCompare", null, null));
 
-  public final MappingSet copyMapping =
-    new MappingSet("inIndex", "outIndex",
-      GM("doSetup", "doCopy", null, null),
-      GM("doSetup", "doCopy", null, null));
-
 }
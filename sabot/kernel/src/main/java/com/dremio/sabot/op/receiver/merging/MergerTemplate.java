@@ -34,7 +34,4 @@ public abstract class MergerTemplate implements Merger {
   @Override
   public abstract int doEval(@Named("leftIndex") int leftIndex,
                                 @Named("rightIndex") int rightIndex);
-
-  @Override
-  public abstract void doCopy(@Named("inIndex") int inIndex, @Named("outIndex") int outIndex);
 }
@@ -18,10 +18,11 @@ package com.dremio.sabot.op.receiver.merging;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.PriorityQueue;
 
+import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.AllocationHelper;
+import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.FixedWidthVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
@@ -30,7 +31,6 @@ import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.Order.Ordering;
-import com.dremio.exec.compile.sig.GeneratorMapping;
 import com.dremio.exec.compile.sig.MappingSet;
 import com.dremio.exec.exception.SchemaChangeException;
 import com.dremio.exec.expr.ClassGenerator;
@@ -43,10 +43,12 @@ import com.dremio.exec.record.ExpandableHyperContainer;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
-import com.dremio.exec.vector.CopyUtil;
+import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.copier.CopierFactory;
+import com.dremio.sabot.op.copier.FieldBufferCopier;
 import com.dremio.sabot.op.receiver.RawFragmentBatch;
 import com.dremio.sabot.op.receiver.RawFragmentBatchProvider;
 import com.dremio.sabot.op.receiver.ReceiverLatencyTracker;
@@ -57,6 +59,10 @@ import com.sun.codemodel.JExpr;
 
 /**
  * The MergingRecordBatch merges pre-sorted record batches from remote senders.
+ *
+ * The senders are merged with a {@link LoserTree}. The rows of the winning sender that don't go after the current row
+ * of the runner up are taken as a run, without replaying the tree for each of them, once the sender won enough times in
+ * a row. The rows taken from the same sender in a row are copied to the outgoing batch at once by vectorized copiers.
  */
 public class MergingReceiverOperator implements ProducerOperator {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MergingReceiverOperator.class);
@@ -73,10 +79,21 @@ public class MergingReceiverOperator implements ProducerOperator {
 
   private State state = State.NEEDS_SETUP;
   private OutputState outputState = OutputState.INIT_ON_NEXT;
-  private PriorityQueue<Node> pqueue;
+  private LoserTree tree;
+  // sender whose batch ran out while it was the winner, to replay once its next batch is received
+  private Node pendingWinner;
   private Merger merger;
+  // sender the latest rows were taken from, not copied to the outgoing batch yet
+  private Node lastWinner;
+  // sv2 of the row indices of the largest batch received so far, the run of rows of a batch starting at a row being
+  // the entries from that row
+  private ArrowBuf runSelection;
+  private int runSelectionSize;
 
   private int outgoingPosition = 0;
+  private long comparisons;
+  private long runs;
+  private long maxRunLength;
 
   public static enum Metric implements MetricDef{
     BYTES_RECEIVED,
@@ -86,7 +103,12 @@ public class MergingReceiverOperator implements ProducerOperator {
     SUM_TX_MILLIS,
     MAX_TX_MILLIS,
     SUM_QUEUE_MILLIS,
-    MAX_QUEUE_MILLIS;
+    MAX_QUEUE_MILLIS,
+    UNCOMPRESSED_BYTES_RECEIVED,
+    DECOMPRESSION_NANOS,
+    NUM_COMPARISONS, // comparisons of rows while merging
+    NUM_RUNS, // runs of rows copied from the same sender
+    MAX_RUN_LENGTH;
 
     @Override
     public int metricId() {
@@ -122,28 +144,84 @@ public class MergingReceiverOperator implements ProducerOperator {
   public VectorAccessible setup() throws Exception {
     state.is(State.NEEDS_SETUP);
     this.merger = createMerger();
-
-    // allocate the priority queue with the generated comparator
-    this.pqueue = new PriorityQueue<>(nodes.length);
-    state = State.CAN_PRODUCE;
+    final CopierFactory copierFactory = CopierFactory.getInstance(context.getConfig(), context.getOptions());
+    final List<FieldVector> outgoingVectors = VectorContainer.getFieldVectors(outgoingContainer);
+    for (Node node : nodes) {
+      node.copiers = copierFactory.getTwoByteCopiers(VectorContainer.getFieldVectors(node.loader), outgoingVectors, false);
+    }
+    state = nodes.length == 0 ? State.DONE : State.CAN_PRODUCE;
     return outgoingContainer;
   }
 
   private boolean ensureReady() {
-    // populate the priority queue with initial values
-    for (Node node : nodes) {
-      if(node.isReady()){
-        continue;
-      } else {
-        if(!node.nextPosition()){
+    if (tree == null) {
+      // the tree is built once every sender has its first row
+      for (Node node : nodes) {
+        if (!node.isReady() && !node.nextBatch()) {
           return false;
         }
       }
+      tree = new LoserTree(nodes.length, this::less);
+      tree.build();
+      return true;
     }
 
+    if (pendingWinner != null) {
+      if (!pendingWinner.nextBatch()) {
+        return false;
+      }
+      pendingWinner = null;
+      tree.replay();
+    }
     return true;
   }
 
+  /**
+   * Whether the current row of the left sender goes before the one of the right sender, the senders that are done
+   * going last.
+   */
+  private boolean less(int left, int right) {
+    final Node leftNode = nodes[left];
+    final Node rightNode = nodes[right];
+    if (leftNode.done || rightNode.done) {
+      return rightNode.done && (!leftNode.done || left < right);
+    }
+    final int cmp = compare(leftNode.currentIndex(), rightNode.currentIndex());
+    return cmp < 0 || (cmp == 0 && left < right);
+  }
+
+  private int compare(int leftIndex, int rightIndex) {
+    comparisons++;
+    return merger.doEval(leftIndex, rightIndex);
+  }
+
+  /**
+   * Whether the row of the winner at the given offset from its current one doesn't go after the current row of the
+   * given sender.
+   */
+  private boolean inRun(int offset, int sender) {
+    final Node node = nodes[sender];
+    return node.done || compare(nodes[tree.winner()].currentIndex() + offset, node.currentIndex()) <= 0;
+  }
+
+  /**
+   * Makes sure the run selection covers all the rows of a batch of the given size.
+   */
+  private void ensureRunSelection(int recordCount) {
+    if (recordCount <= runSelectionSize) {
+      return;
+    }
+    final ArrowBuf selection = context.getAllocator().buffer((long) recordCount * SelectionVector2.RECORD_SIZE);
+    for (int i = 0; i < recordCount; i++) {
+      selection.setShort((long) i * SelectionVector2.RECORD_SIZE, i);
+    }
+    if (runSelection != null) {
+      runSelection.close();
+    }
+    runSelection = selection;
+    runSelectionSize = recordCount;
+  }
+
   @Override
   public int outputData() throws Exception {
     // use getState here so we can transition out of blocked.
@@ -168,24 +246,47 @@ public class MergingReceiverOperator implements ProducerOperator {
      * - when our outgoing batch is full
      * - when there are no more records.
      */
-    while (!pqueue.isEmpty()) {
-      // pop next value from pq and copy to outgoing batch
-      final Node node = pqueue.poll();
-      node.copyRecordToOutgoingBatch();
+    try {
+      Node node = nodes[tree.winner()];
+      while (!node.done) {
+        if (node != lastWinner) {
+          // the rows of the previous winner go first
+          if (lastWinner != null) {
+            lastWinner.copyTakenRows();
+          }
+          lastWinner = node;
+        }
+        node.take(tree.nextRunLength(Math.min(maxRecords - outgoingPosition, node.remaining()), this::inRun));
 
-      if (outgoingPosition == maxRecords) {
-        logger.debug("Outgoing vectors space is full; breaking");
-        outputState = OutputState.INIT_ON_NEXT;
+        // the rows taken from the current batch are copied before the next one is received
+        final boolean blocked = node.remaining() == 0 && !node.nextBatch();
+        if (blocked) {
+          pendingWinner = node;
+        } else {
+          tree.replay();
+        }
 
-        node.nextPosition();
-        return outgoingContainer.setAllCount(outgoingPosition);
-      }
+        if (outgoingPosition == maxRecords) {
+          node.copyTakenRows();
+          logger.debug("Outgoing vectors space is full; breaking");
+          outputState = OutputState.INIT_ON_NEXT;
+          return outgoingContainer.setAllCount(outgoingPosition);
+        }
 
-      if(!node.nextPosition()){
-        state = State.BLOCKED;
-        return 0;
+        if (blocked) {
+          state = State.BLOCKED;
+          return 0;
+        }
+        node = nodes[tree.winner()];
       }
+    } finally {
+      stats.setLongStat(Metric.NUM_COMPARISONS, comparisons);
+      stats.setLongStat(Metric.NUM_RUNS, runs);
+      stats.setLongStat(Metric.MAX_RUN_LENGTH, maxRunLength);
+    }
 
+    if (lastWinner != null) {
+      lastWinner.copyTakenRows();
     }
 
     // set the value counts in the outgoing vectors
@@ -193,10 +294,7 @@ public class MergingReceiverOperator implements ProducerOperator {
       vw.getValueVector().setValueCount(outgoingPosition);
     }
     outgoingContainer.setRecordCount(outgoingPosition);
-
-    if (pqueue.isEmpty()) {
-      state = State.DONE;
-    }
+    state = State.DONE;
 
     return outgoingPosition;
   }
@@ -234,9 +332,6 @@ public class MergingReceiverOperator implements ProducerOperator {
     }
 
     generateComparisons(g, batch);
-
-    g.setMappingSet(copierMappingSet);
-    CopyUtil.generateCopies(g, batch, true);
     g.setMappingSet(mainMapping);
     final Merger merger = cg.getImplementationClass();
 
@@ -247,8 +342,6 @@ public class MergingReceiverOperator implements ProducerOperator {
   private final MappingSet mainMapping = new MappingSet( (String) null, null, ClassGenerator.DEFAULT_SCALAR_MAP, ClassGenerator.DEFAULT_SCALAR_MAP);
   private final MappingSet leftMapping = new MappingSet("leftIndex", null, ClassGenerator.DEFAULT_SCALAR_MAP, ClassGenerator.DEFAULT_SCALAR_MAP);
   private final MappingSet rightMapping = new MappingSet("rightIndex", null, ClassGenerator.DEFAULT_SCALAR_MAP, ClassGenerator.DEFAULT_SCALAR_MAP);
-  private final GeneratorMapping copierMapping = new GeneratorMapping("doSetup", "doCopy", null, null);
-  private final MappingSet copierMappingSet = new MappingSet(copierMapping, copierMapping);
 
   private void generateComparisons(final ClassGenerator<?> g, final VectorAccessible batch) throws SchemaChangeException {
     g.setMappingSet(mainMapping);
@@ -281,14 +374,16 @@ public class MergingReceiverOperator implements ProducerOperator {
 
   /**
    * A SabotNode contains a reference to a single value in a specific incoming batch.  It is used
-   * as a wrapper for the priority queue.
+   * as a leaf of the loser tree.
    */
-  private class Node implements Comparable<Node>, AutoCloseable {
+  private class Node implements AutoCloseable {
     private final int batchId;      // incoming batch
     private final ArrowRecordBatchLoader loader;
     private final RawFragmentBatchProvider provider;
 
     private int valueIndex;   // value within the batch
+    private int firstTakenIndex; // first value of the batch taken but not copied yet
+    private List<FieldBufferCopier> copiers;
     private int outputCounts;
     private int inputCounts;
     private RawFragmentBatch currentBatch;
@@ -304,48 +399,45 @@ public class MergingReceiverOperator implements ProducerOperator {
       if(currentBatch != null && currentBatch.getBody() != null){
         currentBatch.getBody().close();
       }
+      currentBatch = null;
       valueIndex = 0;
+      firstTakenIndex = 0;
     }
 
     /**
-     * Attempt to get next value and then readd yourself to the priority queue.
-     * @return True if we were able to move forward (whether added to queue or not). False if we are blocked on an incoming message.
+     * Attempt to get the next non empty batch, once the rows of the current one are all copied.
+     * @return True if we were able to move forward (whether done or not). False if we are blocked on an incoming message.
      */
-    private boolean nextPosition(){
-      if(currentBatch == null || valueIndex == loader.getRecordCount() - 1){
+    private boolean nextBatch(){
+      copyTakenRows();
+      while (true) {
         clear();
 
         // get next batch.
         currentBatch = provider.getNext();
 
-
-        int size;
         // we didn't get a batch. this is because we're pending on a message or we're finished.
         if (currentBatch == null) {
           if(provider.isStreamDone()){
             done = true;
           }
           return provider.isStreamDone();
-        } else {
-          latencyTracker.updateLatencyFromBatch(currentBatch.getHeader());
-          size = loader.load(currentBatch);
-          stats.addLongStat(Metric.BYTES_RECEIVED, size);
-          stats.addLongStat(Metric.BATCHES_RECEIVED, 1);
-          valueIndex = 0;
         }
 
-        // we received actual data, let's set things up and add to priority queue.
+        latencyTracker.updateLatencyFromBatch(currentBatch.getHeader());
+        final int size = loader.load(currentBatch);
+        stats.addLongStat(Metric.BYTES_RECEIVED, size);
+        stats.addLongStat(Metric.BATCHES_RECEIVED, 1);
+        stats.addLongStat(Metric.UNCOMPRESSED_BYTES_RECEIVED, loader.getUncompressedSize());
+        stats.addLongStat(Metric.DECOMPRESSION_NANOS, loader.getDecompressionNanos());
+
+        // we received actual data, let's set things up for the tree.
         stats.batchReceived(0, loader.getRecordCount(), size);
         inputCounts += loader.getRecordCount();
-        valueIndex = 0;
-
-        pqueue.add(this);
-        return true;
-
-      }else{
-        valueIndex++;
-        pqueue.add(this);
-        return true;
+        ensureRunSelection(loader.getRecordCount());
+        if (loader.getRecordCount() > 0) {
+          return true;
+        }
       }
     }
 
@@ -353,20 +445,46 @@ public class MergingReceiverOperator implements ProducerOperator {
       return done || currentBatch != null;
     }
 
-    @Override
-    public int compareTo(final Node node2) {
-      final int leftIndex = (this.batchId << 16) + this.valueIndex;
-      final int rightIndex = (node2.batchId << 16) + node2.valueIndex;
-      return merger.doEval(leftIndex, rightIndex);
+    private int currentIndex() {
+      return (batchId << 16) + valueIndex;
     }
 
-    private void copyRecordToOutgoingBatch() {
-      if (!(++outputCounts <= inputCounts)) {
+    /**
+     * Rows of the current batch left to copy.
+     */
+    private int remaining() {
+      return currentBatch == null ? 0 : loader.getRecordCount() - valueIndex;
+    }
+
+    /**
+     * Takes the next rows of the batch, they are copied to the outgoing batch along with the rows taken right before
+     * them.
+     */
+    private void take(int length) {
+      outputCounts += length;
+      if (!(outputCounts <= inputCounts)) {
         throw new RuntimeException(String.format("Stream %d input count: %d output count %d", batchId, inputCounts, outputCounts));
       }
-      final int inIndex = (batchId << 16) + valueIndex;
-      merger.doCopy(inIndex, outgoingPosition);
-      outgoingPosition++;
+      outgoingPosition += length;
+      valueIndex += length;
+    }
+
+    /**
+     * Copies the rows taken since the last copy as a single run, to the end of the outgoing batch.
+     */
+    private void copyTakenRows() {
+      final int length = valueIndex - firstTakenIndex;
+      if (length == 0) {
+        return;
+      }
+      final long selection = runSelection.memoryAddress() + (long) firstTakenIndex * SelectionVector2.RECORD_SIZE;
+      final int targetIndex = outgoingPosition - length;
+      for (FieldBufferCopier copier : copiers) {
+        copier.copy(selection, length, new FieldBufferCopier.Cursor(targetIndex));
+      }
+      firstTakenIndex = valueIndex;
+      runs++;
+      maxRunLength = Math.max(maxRunLength, length);
     }
 
     @Override
@@ -394,6 +512,7 @@ public class MergingReceiverOperator implements ProducerOperator {
   public void close() throws Exception {
     List<AutoCloseable> closeables = new ArrayList<>();
     closeables.add(outgoingContainer);
+    closeables.add(runSelection);
     closeables.addAll(Arrays.asList(nodes));
     AutoCloseables.close(closeables);
   }
@@ -51,7 +51,9 @@ public class UnorderedReceiverOperator implements ProducerOperator {
     SUM_TX_MILLIS,
     MAX_TX_MILLIS,
     SUM_QUEUE_MILLIS,
-    MAX_QUEUE_MILLIS;
+    MAX_QUEUE_MILLIS,
+    UNCOMPRESSED_BYTES_RECEIVED,
+    DECOMPRESSION_NANOS;
 
     @Override
     public int metricId() {
@@ -117,6 +119,8 @@ public class UnorderedReceiverOperator implements ProducerOperator {
       int size = batchLoader.load(batch);
       stats.addLongStat(Metric.BYTES_RECEIVED, size);
       stats.addLongStat(Metric.BATCHES_RECEIVED, 1);
+      stats.addLongStat(Metric.UNCOMPRESSED_BYTES_RECEIVED, batchLoader.getUncompressedSize());
+      stats.addLongStat(Metric.DECOMPRESSION_NANOS, batchLoader.getDecompressionNanos());
 
       final int count = batchLoader.getRecordCount();
       stats.batchReceived(0, count, size);
@@ -177,7 +177,20 @@ public class ScanOperator implements ProducerOperator {
     MAX_RECORD_READ_PER_READER, // Maximum number of record read from Reader
     ICEBERG_COMMIT_TIME,  // Time to commit an operation to Iceberg table
     ORPHAN_FILE_DISCOVERY_TIME, // Time to discover the orphan files
-    NUM_ORPHAN_FILES  // Number of orphan files
+    NUM_ORPHAN_FILES,  // Number of orphan files
+    FOOTER_CACHE_HITS, // Number of parquet footers found in the executor wide footer cache
+    FOOTER_CACHE_MISSES, // Number of parquet footers read and added to the executor wide footer cache
+    NUM_ROWS_PRUNED_BY_RUNTIME_FILTER(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of rows pruned using runtime filter"), // Number of rows pruned from runtime filters on composite non-partition keys
+    NUM_LATE_MATERIALIZED_COLUMNS, // Number of parquet columns read only for the rows selected by the filters
+    LATE_MATERIALIZED_VALUES_DECODED, // Number of values of late materialized columns decoded
+    LATE_MATERIALIZED_VALUES_SKIPPED(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of late materialized values skipped"), // Number of values of late materialized columns skipped
+    LATE_MATERIALIZED_PAGES_SKIPPED, // Number of pages of late materialized columns skipped using the offset index
+    NUM_ROW_GROUPS_PRUNED_BY_TOPN(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of row groups pruned using the boundary of a top-n"), // Number of row groups whose stats can't beat the boundary of the top-n above the scan
+    NUM_ROW_GROUPS_PRUNED_BY_BLOOM_FILTER(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of row groups pruned using bloom filters"), // Number of row groups whose bloom filters rule out the values of the pushed down filters
+    NUM_COALESCED_READS, // Number of requests reading the merged ranges of parquet column chunks
+    COALESCED_READ_BYTES, // Bytes read by the requests for merged ranges of column chunks
+    COALESCED_READ_OVER_READ_BYTES, // Bytes read between the column chunks of merged ranges
+    COALESCED_READ_NANOS // Time between issuing the requests for merged ranges and their completion
     ;
 
     private final DisplayType displayType;
@@ -409,6 +422,13 @@ public class ScanOperator implements ProducerOperator {
   @Override
   public void workOnOOB(OutOfBandMessage message) {
     final String senderInfo = String.format("Frag %d, OpId %d", message.getSendingMajorFragmentId(), message.getSendingOperatorId());
+    if (ExecProtos.TopNThreshold.class.getName().equals(message.getPayloadType())) {
+      RuntimeFilter.addOrUpdateThreshold(message, senderInfo, runtimeFilters, context.getStats(), filter -> {
+        this.currentReader.addRuntimeFilter(filter);
+        this.readers.addRuntimeFilter(filter);
+      });
+      return;
+    }
     if (message.getBuffers()==null || message.getBuffers().length!=1) {
       logger.warn("Empty runtime filter received from {}", senderInfo);
       return;
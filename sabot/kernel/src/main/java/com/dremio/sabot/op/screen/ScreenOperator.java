@@ -21,6 +21,7 @@ import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.utils.protos.QueryWritableBatch;
 import com.dremio.exec.physical.config.Screen;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.proto.UserBitShared.OperatorProfileDetails;
 import com.dremio.exec.proto.UserBitShared.QueryData;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.WritableBatch;
@@ -30,6 +31,7 @@ import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecToCoordTunnel;
+import com.dremio.sabot.exec.rpc.ExecutorResultsTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.spi.TerminalOperator;
 
@@ -98,6 +100,9 @@ public class ScreenOperator implements TerminalOperator {
         stats.stopWait();
       }
     }
+    if (execToCoord.getTunnel() instanceof ExecutorResultsTunnel) {
+      ((ExecutorResultsTunnel) execToCoord.getTunnel()).resultsCompleted();
+    }
   }
 
   @Override
@@ -127,6 +132,12 @@ public class ScreenOperator implements TerminalOperator {
 
   @Override
   public void close() throws Exception {
+    // all the batches were acknowledged by now, the fragment waits for them before closing its operators
+    if (execToCoord.getTunnel() instanceof ExecutorResultsTunnel) {
+      stats.setProfileDetails(OperatorProfileDetails.newBuilder()
+        .addAllResultEndpointProfiles(((ExecutorResultsTunnel) execToCoord.getTunnel()).getEndpointProfiles())
+        .build());
+    }
   }
 
   public static class Creator implements TerminalOperator.Creator<Screen>{
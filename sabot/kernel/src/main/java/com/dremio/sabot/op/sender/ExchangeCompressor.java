@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.flatbuf.BodyCompressionMethod;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.message.ArrowBodyCompression;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+
+/**
+ * Compresses the body buffers of record batches sent to remote receivers, using Arrow IPC body compression.
+ * Receivers decompress in {@link com.dremio.exec.record.ArrowRecordBatchLoader}.
+ */
+public class ExchangeCompressor {
+
+  /**
+   * Codecs supported for exchange compression
+   */
+  public enum Codec {
+    NONE(null),
+    LZ4(CompressionUtil.CodecType.LZ4_FRAME),
+    ZSTD(CompressionUtil.CodecType.ZSTD);
+
+    private final CompressionUtil.CodecType codecType;
+
+    Codec(CompressionUtil.CodecType codecType) {
+      this.codecType = codecType;
+    }
+  }
+
+  private final CompressionCodec codec;
+  private final ArrowBodyCompression bodyCompression;
+  private final long minBatchBytes;
+  private final BufferAllocator allocator;
+
+  private long bytesBeforeCompression;
+  private long bytesAfterCompression;
+  private long compressionNanos;
+
+  public ExchangeCompressor(OptionManager options, BufferAllocator allocator) {
+    this(options.getOption(ExecConstants.EXCHANGE_COMPRESSION_CODEC),
+      options.getOption(ExecConstants.EXCHANGE_COMPRESSION_MIN_BATCH_BYTES), allocator);
+  }
+
+  public ExchangeCompressor(Codec codec, long minBatchBytes, BufferAllocator allocator) {
+    this.codec = codec.codecType == null ? null : CommonsCompressionFactory.INSTANCE.createCodec(codec.codecType);
+    this.bodyCompression = codec.codecType == null ? null :
+      new ArrowBodyCompression(codec.codecType.getType(), BodyCompressionMethod.BUFFER);
+    this.minBatchBytes = minBatchBytes;
+    this.allocator = allocator;
+  }
+
+  /**
+   * Checks if batches sent through the given tunnel should be compressed. Batches sent to fragments in the
+   * same process are never compressed.
+   */
+  public boolean shouldCompress(AccountingExecTunnel tunnel) {
+    return codec != null && tunnel.isRemote();
+  }
+
+  /**
+   * Compresses the body of the given batch if it is above the size threshold.
+   *
+   * <p>
+   * If compressed, the returned batch holds new buffers allocated from this compressor's allocator and the
+   * input batch is closed. Otherwise, the input batch is returned as is.
+   * </p>
+   */
+  public ArrowRecordBatch compress(ArrowRecordBatch batch) {
+    if (codec == null) {
+      return batch;
+    }
+
+    final long bodyLength = batch.computeBodyLength();
+    if (bodyLength < minBatchBytes) {
+      return batch;
+    }
+
+    final long start = System.nanoTime();
+    final List<ArrowBuf> compressed = new ArrayList<>(batch.getBuffers().size());
+    try {
+      for (ArrowBuf buf : batch.getBuffers()) {
+        // the codec releases the buffer it compresses, the batch keeps its own reference
+        buf.getReferenceManager().retain();
+        compressed.add(codec.compress(allocator, buf));
+      }
+      final ArrowRecordBatch compressedBatch = new ArrowRecordBatch(batch.getLength(), batch.getNodes(), compressed,
+        bodyCompression, false);
+      bytesBeforeCompression += bodyLength;
+      bytesAfterCompression += compressedBatch.computeBodyLength();
+      return compressedBatch;
+    } finally {
+      // the compressed batch holds its own references
+      AutoCloseables.close(RuntimeException.class, compressed);
+      batch.close();
+      compressionNanos += System.nanoTime() - start;
+    }
+  }
+
+  public long getBytesBeforeCompression() {
+    return bytesBeforeCompression;
+  }
+
+  public long getBytesAfterCompression() {
+    return bytesAfterCompression;
+  }
+
+  public long getCompressionNanos() {
+    return compressionNanos;
+  }
+}
@@ -15,13 +15,13 @@
  */
 package com.dremio.sabot.op.sender.broadcast;
 
+import java.util.Arrays;
 import java.util.List;
 
 import javax.annotation.Nullable;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.OutOfMemoryException;
-import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 
 import com.dremio.common.exceptions.ExecutionSetupException;
@@ -39,6 +39,7 @@ import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.spi.TerminalOperator;
 import com.google.common.base.Function;
@@ -63,6 +64,9 @@ public class BroadcastOperator extends BaseSender {
   private final OperatorStats stats;
   private final OperatorContext context;
   private final SenderLatencyTracker latencyTracker = new SenderLatencyTracker();
+  private final ExchangeCompressor compressor;
+  // the same buffers are sent to all receivers, compress them once if any receiver is remote
+  private final boolean compressBatches;
 
   private VectorAccessible incoming;
 
@@ -71,7 +75,10 @@ public class BroadcastOperator extends BaseSender {
     BYTES_SENT,
     BATCHES_SENT,
     SUM_ACK_MILLIS,
-    MAX_ACK_MILLIS;
+    MAX_ACK_MILLIS,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION,
+    COMPRESSION_NANOS;
 
     @Override
     public int metricId() {
@@ -109,6 +116,9 @@ public class BroadcastOperator extends BaseSender {
       tunnels[i] = tunnelProvider.getExecTunnel(ep);
       i++;
     }
+
+    this.compressor = new ExchangeCompressor(context.getOptions(), context.getAllocator());
+    this.compressBatches = Arrays.stream(tunnels).anyMatch(compressor::shouldCompress);
   }
 
   @Override
@@ -129,6 +139,9 @@ public class BroadcastOperator extends BaseSender {
   public void close() throws Exception {
     stats.setLongStat(Metric.SUM_ACK_MILLIS, latencyTracker.getSumAckMillis());
     stats.setLongStat(Metric.MAX_ACK_MILLIS, latencyTracker.getMaxAckMillis());
+    stats.setLongStat(Metric.BYTES_BEFORE_COMPRESSION, compressor.getBytesBeforeCompression());
+    stats.setLongStat(Metric.BYTES_AFTER_COMPRESSION, compressor.getBytesAfterCompression());
+    stats.setLongStat(Metric.COMPRESSION_NANOS, compressor.getCompressionNanos());
   }
 
   @Override
@@ -165,6 +178,9 @@ public class BroadcastOperator extends BaseSender {
   public void consumeData(int records) {
 
     ArrowRecordBatch arrowRecordBatch = FragmentWritableBatch.getArrowRecordBatch(incoming);
+    if (compressBatches) {
+      arrowRecordBatch = compressor.compress(arrowRecordBatch);
+    }
 
     List<ArrowBuf> buffers = arrowRecordBatch.getBuffers();
 
@@ -194,7 +210,7 @@ public class BroadcastOperator extends BaseSender {
           handle.getMajorFragmentId(),
           handle.getMinorFragmentId(),
           config.getReceiverMajorFragmentId(),
-          new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers, NoCompressionCodec.DEFAULT_BODY_COMPRESSION, false),
+          new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers, arrowRecordBatch.getBodyCompression(), false),
           receivingMinorFragments[i]);
       updateStats(batch);
       tunnels[i].sendRecordBatch(batch, latencyTracker.getLatencyObserver());
@@ -96,7 +96,10 @@ public class PartitionSenderOperator extends BaseSender {
     NUM_FLUSHES,
     BUCKET_SIZE,
     SUM_ACK_MILLIS,
-    MAX_ACK_MILLIS;
+    MAX_ACK_MILLIS,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION,
+    COMPRESSION_NANOS;
 
     @Override
     public int metricId() {
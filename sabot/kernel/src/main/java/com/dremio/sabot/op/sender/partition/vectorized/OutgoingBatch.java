@@ -22,6 +22,7 @@ import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.VarBinaryVector;
 import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 
 import com.dremio.exec.expr.TypeHelper;
 import com.dremio.exec.physical.config.HashPartitionSender;
@@ -33,6 +34,7 @@ import com.dremio.exec.record.VectorWrapper;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
 import com.google.common.base.Preconditions;
@@ -66,11 +68,12 @@ public class OutgoingBatch extends VectorContainer {
   /** true if receiver finished */
   private volatile boolean dropAll;
   private final SenderLatencyTracker senderLatencyTracker;
+  private final ExchangeCompressor compressor;
 
   OutgoingBatch(int batchIdx, int nextBatchIdx, int maxRecords, final VectorAccessible incoming,
                 BufferAllocator allocator, AccountingExecTunnel tunnel, HashPartitionSender config,
                 OperatorContext context, int oppositeMinorFragmentId, OperatorStats stats,
-                SenderLatencyTracker senderLatencyTracker) {
+                SenderLatencyTracker senderLatencyTracker, ExchangeCompressor compressor) {
     Preconditions.checkArgument(maxRecords <= Character.MAX_VALUE, "maxRecords cannot exceed " + Character.MAX_VALUE);
     this.batchIdx = batchIdx;
     this.nextBatchIdx = nextBatchIdx;
@@ -83,6 +86,7 @@ public class OutgoingBatch extends VectorContainer {
 
     this.stats = stats;
     this.senderLatencyTracker = senderLatencyTracker;
+    this.compressor = compressor;
 
     for (VectorWrapper<?> v : incoming) {
       ValueVector outgoingVector = TypeHelper.getNewVector(v.getField(), allocator);
@@ -175,12 +179,16 @@ public class OutgoingBatch extends VectorContainer {
     }
 
     final ExecProtos.FragmentHandle handle = context.getFragmentHandle();
-    FragmentWritableBatch writableBatch = FragmentWritableBatch.create(
+    ArrowRecordBatch recordBatch = FragmentWritableBatch.getArrowRecordBatch(this);
+    if (compressor.shouldCompress(tunnel)) {
+      recordBatch = compressor.compress(recordBatch);
+    }
+    FragmentWritableBatch writableBatch = new FragmentWritableBatch(
       handle.getQueryId(),
       handle.getMajorFragmentId(),
       handle.getMinorFragmentId(),
       config.getReceiverMajorFragmentId(),
-      this,
+      recordBatch,
       oppositeMinorFragmentId);
 
     updateStats(writableBatch);
@@ -47,6 +47,7 @@ import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
 import com.dremio.sabot.op.sender.partition.vectorized.MultiDestCopier.CopyWatches;
@@ -89,6 +90,7 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
   private final Stopwatch preCopyWatch = Stopwatch.createUnstarted();
   private final Stopwatch flushWatch = Stopwatch.createUnstarted();
   private final SenderLatencyTracker latencyTracker = new SenderLatencyTracker();
+  private final ExchangeCompressor compressor;
 
   /**
    * number of records before we flush any outgoing batch.<br>
@@ -161,6 +163,7 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     modLookup = new OutgoingBatch[modSize];
     batches = new OutgoingBatch[2 * numReceivers];
     delayAllocSendBatches = context.getOptions().getOption(DELAY_ALLOC_SEND_BATCHES);
+    compressor = new ExchangeCompressor(context.getOptions(), context.getAllocator());
   }
 
   @Override
@@ -227,8 +230,8 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
       final MinorFragmentEndpoint destination = destinations.get(p);
       final AccountingExecTunnel tunnel = tunnelProvider.getExecTunnel(destination.getEndpoint());
 
-      batches[p] = new OutgoingBatch(p, batchB, numRecordsBeforeFlush, incoming, allocator, tunnel, config, context, destination.getMinorFragmentId(), stats, latencyTracker);
-      batches[batchB] = new OutgoingBatch(batchB, p, numRecordsBeforeFlush, incoming, allocator, tunnel, config, context, destination.getMinorFragmentId(), stats, latencyTracker);
+      batches[p] = new OutgoingBatch(p, batchB, numRecordsBeforeFlush, incoming, allocator, tunnel, config, context, destination.getMinorFragmentId(), stats, latencyTracker, compressor);
+      batches[batchB] = new OutgoingBatch(batchB, p, numRecordsBeforeFlush, incoming, allocator, tunnel, config, context, destination.getMinorFragmentId(), stats, latencyTracker, compressor);
 
       if (!delayAllocSendBatches) {
         // Only allocate the primary batch. Backup batch is allocated when it is needed.
@@ -404,6 +407,9 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
   public void close() throws Exception {
     stats.setLongStat(Metric.SUM_ACK_MILLIS, latencyTracker.getSumAckMillis());
     stats.setLongStat(Metric.MAX_ACK_MILLIS, latencyTracker.getMaxAckMillis());
+    stats.setLongStat(Metric.BYTES_BEFORE_COMPRESSION, compressor.getBytesBeforeCompression());
+    stats.setLongStat(Metric.BYTES_AFTER_COMPRESSION, compressor.getBytesAfterCompression());
+    stats.setLongStat(Metric.COMPRESSION_NANOS, compressor.getCompressionNanos());
     AutoCloseables.close(Arrays.asList(batches), Arrays.asList(copyIndices, partitionIndices));
   }
 
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.topn;
+
+import com.dremio.exec.compile.TemplateClassDefinition;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.sabot.exec.context.FunctionContext;
+
+/**
+ * Compares the records of the incoming batches of the top-n to its current boundary, the last record of the heap.
+ */
+public interface BoundaryComparator {
+  void setup(FunctionContext context, VectorAccessible incoming, VectorAccessible boundary);
+
+  /**
+   * Compares the record at the given index of the incoming batch with the boundary, in the order of the top-n.
+   */
+  int compare(int incomingIndex);
+
+  static TemplateClassDefinition<BoundaryComparator> TEMPLATE_DEFINITION = new TemplateClassDefinition<BoundaryComparator>(BoundaryComparator.class, BoundaryComparatorTemplate.class);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.topn;
+
+import javax.inject.Named;
+
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.sabot.exec.context.FunctionContext;
+
+public abstract class BoundaryComparatorTemplate implements BoundaryComparator {
+
+  @Override
+  public void setup(FunctionContext context, VectorAccessible incoming, VectorAccessible boundary) {
+    doSetup(context, incoming, boundary);
+  }
+
+  @Override
+  public int compare(int incomingIndex) {
+    return doEval(incomingIndex, 0);
+  }
+
+  public abstract void doSetup(@Named("context") FunctionContext context, @Named("incoming") VectorAccessible incoming, @Named("boundary") VectorAccessible boundary);
+  public abstract int doEval(@Named("inIndex") int inIndex, @Named("boundaryIndex") int boundaryIndex);
+
+}
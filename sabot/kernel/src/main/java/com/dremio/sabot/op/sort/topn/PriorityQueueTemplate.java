@@ -143,6 +143,11 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     return finalSv4;
   }
 
+  @Override
+  public boolean isFull() {
+    return limit > 0 && queueSize == limit;
+  }
+
   @Override
   public void close() {
     try{
@@ -16,9 +16,16 @@
 package com.dremio.sabot.op.sort.topn;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 
@@ -26,6 +33,7 @@ import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
 import com.dremio.common.logical.data.Order.Ordering;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.compile.sig.MappingSet;
@@ -38,14 +46,21 @@ import com.dremio.exec.expr.CodeGenerator;
 import com.dremio.exec.expr.TypeHelper;
 import com.dremio.exec.expr.fn.FunctionGenerationHelper;
 import com.dremio.exec.physical.config.TopN;
+import com.dremio.exec.proto.ExecProtos;
+import com.dremio.exec.proto.UserBitShared.MetricDef.AggregationType;
+import com.dremio.exec.proto.UserBitShared.MetricDef.DisplayType;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.TypedFieldId;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.exec.record.selection.SelectionVector4;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.fragment.OutOfBandMessage;
 import com.dremio.sabot.op.copier.Copier;
 import com.dremio.sabot.op.copier.CopierOperator;
 import com.dremio.sabot.op.sort.SortRecordBatchBuilder;
@@ -62,6 +77,46 @@ public class TopNOperator implements SingleInputOperator {
   private final TopN config;
   private final OperatorContext context;
 
+  public enum Metric implements MetricDef {
+    BATCHES_SKIPPED_BY_THRESHOLD(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of batches skipped using the boundary of the top-n"), // batches with no record beating the boundary of the heap
+    THRESHOLDS_SENT // number of times the boundary of the heap was sent to the scan
+    ;
+
+    private final DisplayType displayType;
+    private final AggregationType aggregationType;
+    private final String displayCode;
+
+    Metric() {
+      this(DisplayType.DISPLAY_NEVER, AggregationType.SUM, "");
+    }
+
+    Metric(DisplayType displayType, AggregationType aggregationType, String displayCode) {
+      this.displayType = displayType;
+      this.aggregationType = aggregationType;
+      this.displayCode = displayCode;
+    }
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+
+    @Override
+    public DisplayType getDisplayType() {
+      return this.displayType;
+    }
+
+    @Override
+    public AggregationType getAggregationType() {
+      return this.aggregationType;
+    }
+
+    @Override
+    public String getDisplayCode() {
+      return this.displayCode;
+    }
+  }
+
   private State state = State.NEEDS_SETUP;
   private int batchesOutput = 0;
   private VectorAccessible incoming;
@@ -78,6 +133,12 @@ public class TopNOperator implements SingleInputOperator {
   private PriorityQueue priorityQueue;
   private Copier copier;
 
+  // last record of the heap once full, the incoming batches with no record sorting before it are skipped.
+  private VectorContainer boundary;
+  private BoundaryComparator boundaryComparator;
+  private boolean hasBoundary;
+  private boolean thresholdSent;
+
   public TopNOperator(OperatorContext context, TopN popConfig) {
     this.config = popConfig;
     this.context = context;
@@ -101,6 +162,11 @@ public class TopNOperator implements SingleInputOperator {
 
     priorityQueue = createNewPriorityQueue(context.getClassProducer(), config.getOrderings());
     copier = CopierOperator.getGenerated4Copier(context.getClassProducer(), priorityQueue.getHyperBatch(), outgoing);
+    if (context.getOptions().getOption(ExecConstants.TOPN_THRESHOLD_FILTER)) {
+      boundary = VectorContainer.create(context.getAllocator(), incoming.getSchema());
+      boundary.allocateNew();
+      boundaryComparator = createNewBoundaryComparator(context.getClassProducer(), config.getOrderings());
+    }
     state = State.CAN_CONSUME;
     return outgoing;
   }
@@ -108,17 +174,125 @@ public class TopNOperator implements SingleInputOperator {
   @Override
   public void consumeData(int records) throws Exception {
 
+    if (hasBoundary && !canBeatBoundary(records)) {
+      context.getStats().addLongStat(Metric.BATCHES_SKIPPED_BY_THRESHOLD, 1);
+      return;
+    }
+
     countSincePurge += incoming.getRecordCount();
     batchCount++;
 
     priorityQueue.add(new RecordBatchData(incoming, context.getAllocator()));
 
+    boolean purged = false;
     if (countSincePurge > config.getLimit() && batchCount > batchPurgeThreshold) {
       purge();
       countSincePurge = 0;
       batchCount = 0;
+      purged = true;
+    }
+
+    if (boundary != null && priorityQueue.isFull()) {
+      updateBoundary();
+      // the boundary is sent again after each purge, to not flood the scan with messages
+      if (!thresholdSent || purged) {
+        sendThreshold();
+        thresholdSent = true;
+      }
+    }
+
+  }
+
+  private boolean canBeatBoundary(int records) {
+    final SelectionVector2 sv2 = incoming.getSchema().getSelectionVectorMode() == SelectionVectorMode.TWO_BYTE
+      ? incoming.getSelectionVector2() : null;
+    for (int i = 0; i < records; i++) {
+      // ties don't replace the last record of the heap either
+      if (boundaryComparator.compare(sv2 == null ? i : sv2.getIndex(i)) < 0) {
+        return true;
+      }
     }
+    return false;
+  }
 
+  /**
+   * Copies the last record of the heap, at its root, into the boundary container.
+   */
+  private void updateBoundary() {
+    final int index = priorityQueue.getHeapSv4().get(0);
+    final int batchIndex = index >>> 16;
+    final int recordIndex = index & 65535;
+    int fieldId = 0;
+    for (VectorWrapper<?> w : priorityQueue.getHyperBatch()) {
+      final ValueVector target = boundary.getValueAccessorById(ValueVector.class, fieldId++).getValueVector();
+      target.reset();
+      target.copyFromSafe(recordIndex, 0, w.getValueVectors()[batchIndex]);
+    }
+    boundary.setAllCount(1);
+    hasBoundary = true;
+  }
+
+  /**
+   * Sends the boundary on the first sort key to the scan producing it, so that it can skip the data that can't make
+   * it into the heap.
+   */
+  private void sendThreshold() {
+    if (config.getThresholdScanOperatorId() == null) {
+      return;
+    }
+
+    final Ordering ordering = config.getOrderings().get(0);
+    final TypedFieldId fieldId = boundary.getValueVectorId((SchemaPath) ordering.getExpr());
+    if (fieldId == null) {
+      return;
+    }
+    final ValueVector vector = boundary.getValueAccessorById(ValueVector.class, fieldId.getFieldIds()).getValueVector();
+    if (vector.isNull(0)) {
+      return;
+    }
+
+    final boolean ascending = ordering.getDirection() == Direction.ASCENDING;
+    final ExecProtos.TopNThreshold.Builder threshold = ExecProtos.TopNThreshold.newBuilder()
+      .setColumn(config.getThresholdScanColumn())
+      .setAscending(ascending)
+      .setNullsFirst(ascending != ordering.nullsSortHigh())
+      .setTiesQualify(config.getOrderings().size() > 1);
+    if (vector instanceof IntVector) {
+      threshold.setLongValue(((IntVector) vector).get(0));
+    } else if (vector instanceof BigIntVector) {
+      threshold.setLongValue(((BigIntVector) vector).get(0));
+    } else if (vector instanceof DateMilliVector) {
+      threshold.setLongValue(((DateMilliVector) vector).get(0));
+    } else if (vector instanceof TimeStampMilliVector) {
+      threshold.setLongValue(((TimeStampMilliVector) vector).get(0));
+    } else if (vector instanceof Float4Vector || vector instanceof Float8Vector) {
+      final double value = vector instanceof Float4Vector
+        ? ((Float4Vector) vector).get(0) : ((Float8Vector) vector).get(0);
+      if (Double.isNaN(value)) {
+        return;
+      }
+      threshold.setDoubleValue(value);
+    } else {
+      return;
+    }
+
+    try {
+      final OutOfBandMessage message = new OutOfBandMessage(
+        context.getFragmentHandle().getQueryId(),
+        context.getFragmentHandle().getMajorFragmentId(),
+        Collections.singletonList(context.getFragmentHandle().getMinorFragmentId()),
+        config.getThresholdScanOperatorId(),
+        context.getFragmentHandle().getMajorFragmentId(),
+        context.getFragmentHandle().getMinorFragmentId(),
+        config.getProps().getOperatorId(),
+        new OutOfBandMessage.Payload(threshold.build()),
+        null,
+        true);
+      context.getTunnelProvider().getExecTunnel(context.getNodeEndPoint()).sendOOBMessage(message);
+      context.getStats().addLongStat(Metric.THRESHOLDS_SENT, 1);
+    } catch (Exception e) {
+      logger.warn("Error while sending the top-n threshold to the scan {}", config.getThresholdScanOperatorId(), e);
+    }
   }
 
   @Override
@@ -250,6 +424,46 @@ public class TopNOperator implements SingleInputOperator {
 
   }
 
+  private BoundaryComparator createNewBoundaryComparator(ClassProducer producer, List<Ordering> orderings) {
+    final MappingSet incomingMapping = new MappingSet("inIndex", null, "incoming", null, ClassGenerator.DEFAULT_SCALAR_MAP, ClassGenerator.DEFAULT_SCALAR_MAP);
+    final MappingSet mainMapping = new MappingSet( (String) null, null, ClassGenerator.DEFAULT_SCALAR_MAP, ClassGenerator.DEFAULT_SCALAR_MAP);
+    final MappingSet boundaryMapping = new MappingSet("boundaryIndex", null, "boundary", null, ClassGenerator.DEFAULT_SCALAR_MAP, ClassGenerator.DEFAULT_SCALAR_MAP);
+
+    final CodeGenerator<BoundaryComparator> cg = producer.createGenerator(BoundaryComparator.TEMPLATE_DEFINITION);
+    final ClassGenerator<BoundaryComparator> g = cg.getRoot();
+    g.setMappingSet(mainMapping);
+
+    for (Ordering od : orderings) {
+      // the boundary has the schema of the incoming batches, without selection vector.
+      final LogicalExpression expr = producer.materialize(od.getExpr(), boundary);
+      g.setMappingSet(incomingMapping);
+      HoldingContainer left = g.addExpr(expr, ClassGenerator.BlockCreateMode.MERGE);
+      g.setMappingSet(boundaryMapping);
+      HoldingContainer right = g.addExpr(expr, ClassGenerator.BlockCreateMode.MERGE);
+      g.setMappingSet(mainMapping);
+
+      LogicalExpression fh =
+        FunctionGenerationHelper.getOrderingComparator(od.nullsSortHigh(), left, right,
+                                                       producer);
+      HoldingContainer out = g.addExpr(fh, ClassGenerator.BlockCreateMode.MERGE);
+      JConditional jc = g.getEvalBlock()._if(out.getValue().ne(JExpr.lit(0)));
+
+      if (od.getDirection() == Direction.ASCENDING) {
+        jc._then()._return(out.getValue());
+      } else {
+        jc._then()._return(out.getValue().minus());
+      }
+      g.rotateBlock();
+    }
+
+    g.rotateBlock();
+    g.getEvalBlock()._return(JExpr.lit(0));
+
+    BoundaryComparator comparator = cg.getImplementationClass();
+    comparator.setup(context.getFunctionContext(), incoming, boundary);
+    return comparator;
+  }
+
   @Override
   public <OUT, IN, EXCEP extends Throwable> OUT accept(OperatorVisitor<OUT, IN, EXCEP> visitor, IN value) throws EXCEP {
     return visitor.visitSingleInput(this, value);
@@ -257,7 +471,7 @@ public class TopNOperator implements SingleInputOperator {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(outgoing, finalOrder, priorityQueue, copier);
+    AutoCloseables.close(outgoing, finalOrder, priorityQueue, copier, boundary);
   }
 
   public static class TopNCreator implements SingleInputOperator.Creator<TopN>{
@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import java.util.Arrays;
+import java.util.function.LongBinaryOperator;
+
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeMilliVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.ValueVector;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.logical.data.NamedExpression;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorAccessible;
+
+/**
+ * Evaluates an aggregate over a sliding ROWS frame, from a fixed number of rows preceding each row to the row itself.
+ *
+ * The non-null values of the frame are kept in a queue made of two stacks, so that the aggregate of the frame is
+ * updated in amortized constant time per row, as values enter and leave the frame, without any subtraction: the
+ * front stack holds the aggregates of its suffixes, the back stack the aggregate of all its values. This holds for
+ * MIN and MAX as well as for SUM, and keeps floating point sums free of cancellation errors.
+ */
+class SlidingWindowAggregate {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SlidingWindowAggregate.class);
+
+  /**
+   * Aggregates supported over a sliding frame.
+   */
+  enum Kind {
+    SUM,
+    SUM0,
+    COUNT,
+    MIN,
+    MAX
+  }
+
+  private final NamedExpression expression;
+  private final Kind kind;
+  private final SchemaPath input;
+  private final long preceding;
+
+  private boolean floatingPoint;
+  private LongBinaryOperator combiner;
+  private ValueVector in;
+  private ValueVector out;
+
+  // queue of the non-null values of the frame, along with their row number in the partition
+  private final LongStack frontRows = new LongStack();
+  private final LongStack frontAggregates = new LongStack();
+  private final LongStack backRows = new LongStack();
+  private final LongStack backValues = new LongStack();
+  private long backAggregate;
+  private long row;
+
+  SlidingWindowAggregate(NamedExpression expression, Kind kind, SchemaPath input, long preceding) {
+    this.expression = expression;
+    this.kind = kind;
+    this.input = input;
+    this.preceding = preceding;
+  }
+
+  /**
+   * Creates the sliding aggregate for the given window aggregate, or fails if it can't be evaluated incrementally.
+   */
+  static SlidingWindowAggregate create(NamedExpression expression, long preceding) {
+    if (expression.getExpr() instanceof FunctionCall) {
+      final FunctionCall call = (FunctionCall) expression.getExpr();
+      final Kind kind = getKind(call.getName());
+      if (kind != null && call.args.size() == 1) {
+        final SchemaPath input = call.args.get(0) instanceof SchemaPath ? (SchemaPath) call.args.get(0) : null;
+        // count(1) counts all the rows of the frame
+        if (input != null || kind == Kind.COUNT) {
+          return new SlidingWindowAggregate(expression, kind, input, preceding);
+        }
+      }
+    }
+    throw UserException.unsupportedError()
+      .message("Window function '%s' is not supported over a frame of a bounded number of preceding rows", expression.getExpr())
+      .build(logger);
+  }
+
+  static Kind getKind(String name) {
+    switch (name.toLowerCase()) {
+      case "sum":
+        return Kind.SUM;
+      case "$sum0":
+        return Kind.SUM0;
+      case "count":
+        return Kind.COUNT;
+      case "min":
+        return Kind.MIN;
+      case "max":
+        return Kind.MAX;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Checks the types of the input and the output of the aggregate, called once at setup, so that unsupported types
+   * fail before any batch is consumed.
+   */
+  void validate(VectorAccessible incoming, VectorAccessible outgoing) {
+    if (input == null) {
+      // count(1)
+      return;
+    }
+    final ValueVector inVector = getVector(incoming, input);
+    floatingPoint = inVector instanceof Float4Vector || inVector instanceof Float8Vector;
+    // count only looks at the nulls, whatever the type of its input
+    if (kind != Kind.COUNT) {
+      checkSupported(inVector);
+      checkSupported(getVector(outgoing, expression.getRef()));
+    }
+    combiner = getCombiner(kind, floatingPoint);
+  }
+
+  private void checkSupported(ValueVector vector) {
+    if (!(vector instanceof IntVector || vector instanceof BigIntVector || vector instanceof DateMilliVector
+      || vector instanceof TimeStampMilliVector || vector instanceof TimeMilliVector || vector instanceof Float4Vector
+      || vector instanceof Float8Vector)) {
+      throw UserException.unsupportedError()
+        .message("Window function '%s' over a frame of a bounded number of preceding rows is not supported for %s",
+          expression.getExpr(), vector.getField().getType())
+        .build(logger);
+    }
+  }
+
+  /**
+   * Binds the vectors of the given batches, called for each batch.
+   */
+  void setup(VectorAccessible incoming, VectorAccessible outgoing) {
+    out = getVector(outgoing, expression.getRef());
+    if (input != null) {
+      in = getVector(incoming, input);
+    }
+  }
+
+  private static ValueVector getVector(VectorAccessible batch, SchemaPath path) {
+    final TypedFieldId fieldId = batch.getValueVectorId(path);
+    return batch.getValueAccessorById(ValueVector.class, fieldId.getFieldIds()).getValueVector();
+  }
+
+  private static LongBinaryOperator getCombiner(Kind kind, boolean floatingPoint) {
+    switch (kind) {
+      case SUM:
+      case SUM0:
+        return floatingPoint
+          ? (a, b) -> Double.doubleToRawLongBits(Double.longBitsToDouble(a) + Double.longBitsToDouble(b))
+          : Long::sum;
+      case MIN:
+        return floatingPoint
+          ? (a, b) -> Double.doubleToRawLongBits(Math.min(Double.longBitsToDouble(a), Double.longBitsToDouble(b)))
+          : Math::min;
+      case MAX:
+        return floatingPoint
+          ? (a, b) -> Double.doubleToRawLongBits(Math.max(Double.longBitsToDouble(a), Double.longBitsToDouble(b)))
+          : Math::max;
+      default:
+        // count only needs the number of values of the frame
+        return (a, b) -> 0;
+    }
+  }
+
+  /**
+   * Starts a new partition.
+   */
+  void reset() {
+    frontRows.clear();
+    frontAggregates.clear();
+    backRows.clear();
+    backValues.clear();
+    row = 0;
+  }
+
+  /**
+   * Adds the row at the given index of the incoming batch to the frame, drops the rows leaving the frame and writes
+   * the aggregate of the frame at the same index of the outgoing batch.
+   */
+  void evaluate(int index) {
+    if (in == null) {
+      // count(1)
+      ((BigIntVector) out).setSafe(index, Math.min(row + 1, preceding + 1));
+      row++;
+      return;
+    }
+
+    if (!in.isNull(index)) {
+      final long value = kind == Kind.COUNT ? 0 : readValue(index);
+      backAggregate = backRows.isEmpty() ? value : combiner.applyAsLong(backAggregate, value);
+      backRows.push(row);
+      backValues.push(value);
+    }
+    while (oldestRow() < row - preceding) {
+      pop();
+    }
+    row++;
+
+    final int size = frontRows.size() + backRows.size();
+    if (kind == Kind.COUNT) {
+      ((BigIntVector) out).setSafe(index, size);
+    } else if (size == 0) {
+      if (kind == Kind.SUM0) {
+        writeValue(index, floatingPoint ? Double.doubleToRawLongBits(0d) : 0L);
+      } else {
+        out.setNull(index);
+      }
+    } else if (frontRows.isEmpty()) {
+      writeValue(index, backAggregate);
+    } else if (backRows.isEmpty()) {
+      writeValue(index, frontAggregates.peek());
+    } else {
+      writeValue(index, combiner.applyAsLong(frontAggregates.peek(), backAggregate));
+    }
+  }
+
+  /**
+   * Number of values currently held for the frame.
+   */
+  int getSize() {
+    return frontRows.size() + backRows.size();
+  }
+
+  private long oldestRow() {
+    if (!frontRows.isEmpty()) {
+      return frontRows.peek();
+    }
+    return backRows.isEmpty() ? Long.MAX_VALUE : backRows.get(0);
+  }
+
+  private void pop() {
+    if (frontRows.isEmpty()) {
+      // move the back stack over to the front, computing the aggregates of its suffixes
+      long aggregate = 0;
+      for (int i = backRows.size() - 1; i >= 0; i--) {
+        final long value = backValues.get(i);
+        aggregate = frontRows.isEmpty() ? value : combiner.applyAsLong(value, aggregate);
+        frontRows.push(backRows.get(i));
+        frontAggregates.push(aggregate);
+      }
+      backRows.clear();
+      backValues.clear();
+    }
+    frontRows.pop();
+    frontAggregates.pop();
+  }
+
+  private long readValue(int index) {
+    if (in instanceof IntVector) {
+      return ((IntVector) in).get(index);
+    } else if (in instanceof BigIntVector) {
+      return ((BigIntVector) in).get(index);
+    } else if (in instanceof DateMilliVector) {
+      return ((DateMilliVector) in).get(index);
+    } else if (in instanceof TimeStampMilliVector) {
+      return ((TimeStampMilliVector) in).get(index);
+    } else if (in instanceof TimeMilliVector) {
+      return ((TimeMilliVector) in).get(index);
+    } else if (in instanceof Float4Vector) {
+      return Double.doubleToRawLongBits(((Float4Vector) in).get(index));
+    } else {
+      return Double.doubleToRawLongBits(((Float8Vector) in).get(index));
+    }
+  }
+
+  private void writeValue(int index, long value) {
+    if (out instanceof BigIntVector) {
+      ((BigIntVector) out).setSafe(index, value);
+    } else if (out instanceof IntVector) {
+      ((IntVector) out).setSafe(index, (int) value);
+    } else if (out instanceof DateMilliVector) {
+      ((DateMilliVector) out).setSafe(index, value);
+    } else if (out instanceof TimeStampMilliVector) {
+      ((TimeStampMilliVector) out).setSafe(index, value);
+    } else if (out instanceof TimeMilliVector) {
+      ((TimeMilliVector) out).setSafe(index, (int) value);
+    } else if (out instanceof Float4Vector) {
+      ((Float4Vector) out).setSafe(index, (float) Double.longBitsToDouble(value));
+    } else {
+      ((Float8Vector) out).setSafe(index, Double.longBitsToDouble(value));
+    }
+  }
+
+  /**
+   * Growable stack of longs, to not box the values of the frame.
+   */
+  private static final class LongStack {
+    private long[] values = new long[16];
+    private int size;
+
+    void push(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    long pop() {
+      return values[--size];
+    }
+
+    long peek() {
+      return values[size - 1];
+    }
+
+    long get(int index) {
+      return values[index];
+    }
+
+    int size() {
+      return size;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    void clear() {
+      size = 0;
+    }
+  }
+}
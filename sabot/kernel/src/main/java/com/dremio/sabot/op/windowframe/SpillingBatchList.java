@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.utils.protos.QueryIdHelper;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.sort.external.SpillManager;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillOutputStream;
+
+/**
+ * Batches buffered by the window operator, for the framers to go through the partitions that span several batches.
+ *
+ * Once the buffered batches take more memory than the spill threshold, the batches between the first two and the last
+ * one are spilled to disk. The first two batches, the one being processed and the next one, always stay in memory, as
+ * well as the last one, which tells whether the partition of the first one goes on. A spilled batch is read back in one
+ * of two containers when it's accessed, so that a batch and the one accessed before it can be used together, and for
+ * good once it becomes the next batch.
+ */
+class SpillingBatchList extends AbstractList<VectorContainer> implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SpillingBatchList.class);
+
+  // the batch being processed and the next one
+  private static final int IN_MEMORY_BATCHES = 2;
+
+  private final OperatorContext context;
+  private final int operatorId;
+  private final long threshold;
+  private final List<Batch> batches = new ArrayList<>();
+
+  // containers the spilled batches are read in, along with the batch each one holds
+  private final VectorContainer[] pages = new VectorContainer[2];
+  private final Batch[] pagedBatches = new Batch[2];
+  private int nextPage;
+
+  private BatchSchema schema;
+  private SpillManager spillManager;
+  private int spillFileId;
+  private long memorySize;
+  private long batchesSpilled;
+  private long bytesSpilled;
+  private long batchesRead;
+
+  private static final class Batch {
+    private VectorContainer container; // null while spilled
+    private SpillFile spillFile;
+    private long size;
+
+    private Batch(VectorContainer container, long size) {
+      this.container = container;
+      this.size = size;
+    }
+  }
+
+  SpillingBatchList(OperatorContext context, int operatorId) {
+    this.context = context;
+    this.operatorId = operatorId;
+    this.threshold = Math.min(context.getOptions().getOption(ExecConstants.WINDOW_SPILL_THRESHOLD),
+      context.getAllocator().getLimit() / 2);
+  }
+
+  @Override
+  public VectorContainer get(int index) {
+    final Batch batch = batches.get(index);
+    if (batch.container != null) {
+      return batch.container;
+    }
+
+    int page = 0;
+    while (page < pages.length && pagedBatches[page] != batch) {
+      page++;
+    }
+    if (page == pages.length) {
+      // read the batch over the one accessed least recently
+      page = nextPage;
+      pagedBatches[page] = null;
+      read(batch, pages[page]);
+      pagedBatches[page] = batch;
+    }
+    nextPage = (page + 1) % pages.length;
+    return pages[page];
+  }
+
+  @Override
+  public int size() {
+    return batches.size();
+  }
+
+  /**
+   * Adds a batch at the end of the list, and spills the batches before it, newest first, while the batches held in
+   * memory take more than the threshold.
+   */
+  @Override
+  public boolean add(VectorContainer container) {
+    final Batch batch = new Batch(container, getSize(container));
+    batches.add(batch);
+    memorySize += batch.size;
+    for (int index = batches.size() - 2; index >= IN_MEMORY_BATCHES && memorySize > threshold; index--) {
+      final Batch previous = batches.get(index);
+      if (previous.container != null) {
+        spill(previous);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Closes the first batch and removes it from the list. The batch after the new first one is read back in memory if
+   * it was spilled.
+   */
+  void removeFirst() {
+    final Batch first = batches.remove(0);
+    memorySize -= first.size;
+    first.container.close();
+
+    if (batches.size() >= IN_MEMORY_BATCHES) {
+      final Batch next = batches.get(IN_MEMORY_BATCHES - 1);
+      if (next.container == null) {
+        unspill(next);
+      }
+    }
+  }
+
+  private void spill(Batch batch) {
+    if (spillManager == null) {
+      createSpillManager(batch.container);
+    }
+
+    final SpillFile spillFile = spillManager.getSpillFile(String.format("batch%05d", spillFileId++));
+    try (SpillOutputStream output = spillFile.create(false)) {
+      bytesSpilled += output.writeBatch(batch.container);
+    } catch (IOException e) {
+      throw UserException.dataWriteError(e)
+        .message("Failed to spill a batch of the window operator")
+        .build(logger);
+    }
+
+    batch.container.close();
+    batch.container = null;
+    batch.spillFile = spillFile;
+    memorySize -= batch.size;
+    batchesSpilled++;
+  }
+
+  private void unspill(Batch batch) {
+    final VectorContainer container = VectorContainer.create(context.getAllocator(), schema);
+    try {
+      read(batch, container);
+      batch.spillFile.close();
+    } catch (Exception e) {
+      container.close();
+      throw UserException.dataReadError(e)
+        .message("Failed to read a spilled batch of the window operator")
+        .build(logger);
+    }
+
+    for (int page = 0; page < pages.length; page++) {
+      if (pagedBatches[page] == batch) {
+        pagedBatches[page] = null;
+      }
+    }
+    batch.container = container;
+    batch.spillFile = null;
+    batch.size = getSize(container);
+    memorySize += batch.size;
+  }
+
+  private void read(Batch batch, VectorContainer container) {
+    container.zeroVectors();
+    try (SpillInputStream input = batch.spillFile.open(false)) {
+      input.load(container, context.getAllocator());
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+        .message("Failed to read a spilled batch of the window operator")
+        .build(logger);
+    }
+    batchesRead++;
+  }
+
+  private void createSpillManager(VectorContainer container) {
+    final FragmentHandle handle = context.getFragmentHandle();
+    final String id = String.format("windowspill-%s.%s.%s.%s", QueryIdHelper.getQueryId(handle.getQueryId()),
+      handle.getMajorFragmentId(), handle.getMinorFragmentId(), operatorId);
+    spillManager = new SpillManager(context.getConfig(), context.getOptions(), id, null, context.getSpillService(),
+      "window spilling", context.getStats());
+    schema = container.getSchema();
+    for (int page = 0; page < pages.length; page++) {
+      pages[page] = VectorContainer.create(context.getAllocator(), schema);
+    }
+  }
+
+  private static long getSize(VectorContainer container) {
+    long size = 0;
+    for (VectorWrapper<?> vw : container) {
+      size += vw.getValueVector().getBufferSize();
+    }
+    return size;
+  }
+
+  long getBatchesSpilled() {
+    return batchesSpilled;
+  }
+
+  long getBytesSpilled() {
+    return bytesSpilled;
+  }
+
+  long getBatchesRead() {
+    return batchesRead;
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>();
+    for (Batch batch : batches) {
+      closeables.add(batch.container);
+      closeables.add(batch.spillFile);
+    }
+    batches.clear();
+    closeables.addAll(Arrays.asList(pages));
+    closeables.add(spillManager);
+    AutoCloseables.close(closeables);
+  }
+}
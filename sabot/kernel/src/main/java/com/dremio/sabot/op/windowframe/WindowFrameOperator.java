@@ -18,7 +18,6 @@ package com.dremio.sabot.op.windowframe;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.arrow.memory.OutOfMemoryException;
@@ -39,11 +38,15 @@ import com.dremio.exec.expr.ClassGenerator;
 import com.dremio.exec.expr.ClassProducer;
 import com.dremio.exec.expr.fn.FunctionGenerationHelper;
 import com.dremio.exec.physical.config.WindowPOP;
+import com.dremio.exec.proto.UserBitShared.MetricDef.AggregationType;
+import com.dremio.exec.proto.UserBitShared.MetricDef.DisplayType;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.spi.SingleInputOperator;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -59,7 +62,7 @@ public class WindowFrameOperator implements SingleInputOperator {
   private final OperatorContext context;
   private final List<WindowFunction> functions = Lists.newArrayList();
   private final WindowPOP config;
-  private final LinkedList<VectorContainer> batches = new LinkedList<>();
+  private final SpillingBatchList batches;
 
   private VectorAccessible incoming;
   private VectorContainer outgoing;
@@ -70,9 +73,61 @@ public class WindowFrameOperator implements SingleInputOperator {
 
   private boolean noMoreToConsume;
 
+  // aggregates evaluated over a sliding frame of preceding rows, null if the frame isn't one.
+  private List<SlidingWindowAggregate> slidingAggregates;
+  // last row of the previous batch, to tell whether the current batch continues its partition.
+  private VectorContainer previousRow;
+  private boolean hasPreviousRow;
+  private long slidingFramesEvaluated;
+  private long maxSlidingFrameValues;
+
+  public enum Metric implements MetricDef {
+    SLIDING_FRAMES_EVALUATED(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of frames evaluated incrementally"), // number of sliding frames, one per row and aggregate
+    SLIDING_FRAME_MAX_VALUES(DisplayType.DISPLAY_NEVER, AggregationType.MAX, ""), // maximum number of values held for a sliding frame
+    BATCHES_SPILLED(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of record batches spilled"), // batches spilled to disk
+    TOTAL_SPILLED_DATA_SIZE(DisplayType.DISPLAY_BY_DEFAULT, AggregationType.SUM, "Number of bytes spilled"), // bytes of the spilled batches
+    BATCHES_READ_FROM_SPILL(DisplayType.DISPLAY_NEVER, AggregationType.SUM, "") // spilled batches read back in memory
+    ;
+
+    private final DisplayType displayType;
+    private final AggregationType aggregationType;
+    private final String displayCode;
+
+    Metric() {
+      this(DisplayType.DISPLAY_NEVER, AggregationType.SUM, "");
+    }
+
+    Metric(DisplayType displayType, AggregationType aggregationType, String displayCode) {
+      this.displayType = displayType;
+      this.aggregationType = aggregationType;
+      this.displayCode = displayCode;
+    }
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+
+    @Override
+    public DisplayType getDisplayType() {
+      return this.displayType;
+    }
+
+    @Override
+    public AggregationType getAggregationType() {
+      return this.aggregationType;
+    }
+
+    @Override
+    public String getDisplayCode() {
+      return this.displayCode;
+    }
+  }
+
   public WindowFrameOperator(OperatorContext context, WindowPOP config) throws OutOfMemoryException {
     this.context = context;
     this.config = config;
+    this.batches = new SpillingBatchList(context, config.getProps().getLocalOperatorId());
   }
 
   @Override
@@ -83,6 +138,16 @@ public class WindowFrameOperator implements SingleInputOperator {
     outgoing = context.createOutputVectorContainer();
     createFramers(incoming);
     outgoing.buildSchema();
+    if (isSlidingRowsFrame(config)) {
+      slidingAggregates = new ArrayList<>();
+      for (NamedExpression ne : config.getAggregations()) {
+        final SlidingWindowAggregate aggregate = SlidingWindowAggregate.create(ne, -config.getStart().getOffset());
+        aggregate.validate(incoming, outgoing);
+        slidingAggregates.add(aggregate);
+      }
+      previousRow = VectorContainer.create(context.getAllocator(), incoming.getSchema());
+      previousRow.allocateNew();
+    }
     outgoing.setInitialCapacity(context.getTargetBatchSize());
     state = State.CAN_CONSUME;
     return outgoing;
@@ -97,6 +162,7 @@ public class WindowFrameOperator implements SingleInputOperator {
   public void consumeData(int records) throws Exception {
     state.is(State.CAN_CONSUME);
     batches.add(VectorContainer.getTransferClone(incoming, context.getAllocator()));
+    updateSpillStats();
     if(canDoWork()){
       state = State.CAN_PRODUCE;
     }
@@ -119,7 +185,7 @@ public class WindowFrameOperator implements SingleInputOperator {
     doWork();
 
     if(batches.isEmpty()){
-      state = State.DONE;
+      state = noMoreToConsume ? State.DONE : State.CAN_CONSUME;
     }else if(!noMoreToConsume && !canDoWork()){
       state = State.CAN_CONSUME;
     }
@@ -137,8 +203,12 @@ public class WindowFrameOperator implements SingleInputOperator {
     // allocate outgoing vectors
     outgoing.allocateNew();
 
-    for (WindowFramer framer : framers) {
-      framer.doWork();
+    if (slidingAggregates != null) {
+      evaluateSlidingFrames(current, recordCount);
+    } else {
+      for (WindowFramer framer : framers) {
+        framer.doWork();
+      }
     }
 
     // transfer "non aggregated" vectors
@@ -157,27 +227,90 @@ public class WindowFrameOperator implements SingleInputOperator {
     }
 
     // we can safely free the current batch
-    current.close();
-    batches.remove(0);
+    batches.removeFirst();
+    updateSpillStats();
 
     logger.trace("doWork() END");
     return recordCount;
   }
 
+  private void updateSpillStats() {
+    context.getStats().setLongStat(Metric.BATCHES_SPILLED, batches.getBatchesSpilled());
+    context.getStats().setLongStat(Metric.TOTAL_SPILLED_DATA_SIZE, batches.getBytesSpilled());
+    context.getStats().setLongStat(Metric.BATCHES_READ_FROM_SPILL, batches.getBatchesRead());
+  }
+
+  /**
+   * @return true if the frame goes from a fixed number of rows preceding each row to the row itself, which is
+   * evaluated incrementally, one batch at a time. Offsets that couldn't be resolved to a number of rows are left as
+   * Long.MIN_VALUE, and don't make a sliding frame.
+   */
+  @VisibleForTesting
+  public static boolean isSlidingRowsFrame(WindowPOP config) {
+    return config.isFrameUnitsRows()
+      && !config.getStart().isUnbounded()
+      && config.getStart().getOffset() < 0
+      && config.getStart().getOffset() != Long.MIN_VALUE
+      && config.getEnd().isCurrent();
+  }
+
+  /**
+   * Evaluates the aggregates over the sliding frames of all the rows of the current batch. Only the values of the
+   * frame are kept across batches, so the partitions are never buffered.
+   */
+  private void evaluateSlidingFrames(VectorAccessible current, int recordCount) {
+    for (SlidingWindowAggregate aggregate : slidingAggregates) {
+      aggregate.setup(current, outgoing);
+    }
+
+    for (int row = 0; row < recordCount; row++) {
+      final boolean newPartition = row == 0
+        ? !hasPreviousRow || !framers[0].isSamePartition(0, previousRow, 0, current)
+        : !framers[0].isSamePartition(row - 1, current, row, current);
+      for (SlidingWindowAggregate aggregate : slidingAggregates) {
+        if (newPartition) {
+          aggregate.reset();
+        }
+        aggregate.evaluate(row);
+        maxSlidingFrameValues = Math.max(maxSlidingFrameValues, aggregate.getSize());
+      }
+    }
+    slidingFramesEvaluated += (long) recordCount * slidingAggregates.size();
+
+    if (recordCount > 0) {
+      int fieldId = 0;
+      for (VectorWrapper<?> vw : current) {
+        final ValueVector target = previousRow.getValueAccessorById(ValueVector.class, fieldId++).getValueVector();
+        target.reset();
+        target.copyFromSafe(recordCount - 1, 0, vw.getValueVector());
+      }
+      previousRow.setAllCount(1);
+      hasPreviousRow = true;
+    }
+
+    context.getStats().setLongStat(Metric.SLIDING_FRAMES_EVALUATED, slidingFramesEvaluated);
+    context.getStats().setLongStat(Metric.SLIDING_FRAME_MAX_VALUES, maxSlidingFrameValues);
+  }
+
   /**
    * @return true when all window functions are ready to process the current batch (it's the first batch currently
    * held in memory)
    */
   private boolean canDoWork() {
+    if (slidingAggregates != null) {
+      // sliding frames don't look past the current row
+      return !batches.isEmpty();
+    }
+
     if (batches.size() < 2) {
       // we need at least 2 batches even when window functions only need one batch, so we can detect the end of the
       // current partition
       return false;
     }
 
-    final VectorAccessible current = batches.getFirst();
+    final VectorAccessible current = batches.get(0);
     final int currentSize = current.getRecordCount();
-    final VectorAccessible last = batches.getLast();
+    final VectorAccessible last = batches.get(batches.size() - 1);
     final int lastSize = last.getRecordCount();
 
     final boolean partitionEndReached = !framers[0].isSamePartition(currentSize - 1, current, lastSize - 1, last);
@@ -339,10 +472,11 @@ public class WindowFrameOperator implements SingleInputOperator {
   public void close() throws Exception {
     List<AutoCloseable> closeables = new ArrayList<>();
     closeables.add(outgoing);
+    closeables.add(previousRow);
     if (framers != null) {
       closeables.addAll(Arrays.asList(framers));
     }
-    closeables.addAll(batches);
+    closeables.add(batches);
     AutoCloseables.close(closeables);
   }
 
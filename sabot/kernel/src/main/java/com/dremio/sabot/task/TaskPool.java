@@ -33,6 +33,13 @@ public interface TaskPool extends AutoCloseable {
 
   GroupManager<AsyncTaskWrapper> getGroupManager();
 
+  /**
+   * @return stats collected by the scheduler of this pool, or null if it doesn't collect any
+   */
+  default SchedulerStats getSchedulerStats() {
+    return null;
+  }
+
   class ThreadInfo {
     /** current Java thread name */
     public final String threadName;
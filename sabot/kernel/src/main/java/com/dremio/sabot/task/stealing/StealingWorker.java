@@ -0,0 +1,347 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.stealing;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.dremio.common.perf.StatsCollectionEligibilityRegistrar;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.BlockRun;
+import com.dremio.sabot.task.SchedulerStats;
+import com.dremio.sabot.task.TaskPool.ThreadInfo;
+
+/**
+ * A worker thread of the {@link WorkStealingTaskPool}.
+ *
+ * <p>
+ * Each worker owns a run queue ordered by virtual runtime and always runs the runnable task with the smallest
+ * virtual runtime next. When its run queue is empty, the worker steals the next task of the most loaded busy worker
+ * before parking for a short while.
+ * </p>
+ */
+class StealingWorker implements Runnable, SchedulerStats {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(StealingWorker.class);
+
+  private static final Comparator<WorkStealingTaskHandle> VRUNTIME_ORDER =
+    Comparator.comparingDouble(WorkStealingTaskHandle::getVruntime);
+
+  private final int workerId;
+  private final WorkStealingTaskPool pool;
+  private final long idleParkMillis;
+  private final Thread thread;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition workAvailable = lock.newCondition();
+  // guarded by lock
+  private final PriorityQueue<WorkStealingTaskHandle> runQueue = new PriorityQueue<>(VRUNTIME_ORDER);
+  // guarded by lock. Smallest vruntime picked so far, used as the base for new, woken up and stolen tasks
+  private double minVruntime;
+
+  private final AtomicInteger numTasks = new AtomicInteger();
+  private volatile boolean busy;
+  private volatile boolean parked;
+  private volatile boolean running = true;
+
+  // stats, cleared on demand
+  private final AtomicLong slices = new AtomicLong();
+  private final AtomicLong runTimeNanos = new AtomicLong();
+  private final AtomicLong steals = new AtomicLong();
+  private final AtomicLong stolenFrom = new AtomicLong();
+  private final AtomicLong parks = new AtomicLong();
+  private final AtomicInteger maxRunQueueDepth = new AtomicInteger();
+
+  StealingWorker(int workerId, WorkStealingTaskPool pool, long idleParkMillis) {
+    this.workerId = workerId;
+    this.pool = pool;
+    this.idleParkMillis = idleParkMillis;
+    this.thread = new Thread(this, "e" + workerId + " - stealing");
+    this.thread.setDaemon(true);
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  int getWorkerId() {
+    return workerId;
+  }
+
+  int getNumTasks() {
+    return numTasks.get();
+  }
+
+  boolean isBusy() {
+    return busy;
+  }
+
+  boolean isParked() {
+    return parked;
+  }
+
+  boolean isAlive() {
+    return thread.isAlive();
+  }
+
+  int getRunQueueDepth() {
+    lock.lock();
+    try {
+      return runQueue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Adds a task that was not previously assigned to this worker.
+   */
+  void assign(WorkStealingTaskHandle handle) {
+    numTasks.incrementAndGet();
+    enqueue(handle);
+  }
+
+  /**
+   * Adds a runnable task to the run queue and wakes up the worker if it is parked.
+   */
+  void enqueue(WorkStealingTaskHandle handle) {
+    lock.lock();
+    try {
+      // a task that slept (or is new) shouldn't be able to monopolize the worker to catch up
+      handle.setVruntime(Math.max(handle.getVruntime(), minVruntime));
+      handle.setWorker(this);
+      runQueue.add(handle);
+      maxRunQueueDepth.accumulateAndGet(runQueue.size(), Math::max);
+      workAvailable.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes the next task from the run queue of this worker so that the given thief can run it.
+   *
+   * @return the stolen task, or null if there is nothing worth stealing
+   */
+  WorkStealingTaskHandle stealBy(StealingWorker thief) {
+    if (!lock.tryLock()) {
+      // contended, let the thief try another victim
+      return null;
+    }
+
+    final WorkStealingTaskHandle handle;
+    final double relativeVruntime;
+    try {
+      // an idle worker will pick up its own task soon enough
+      if (runQueue.isEmpty() || (!busy && runQueue.size() < 2)) {
+        return null;
+      }
+      handle = runQueue.poll();
+      relativeVruntime = Math.max(0, handle.getVruntime() - minVruntime);
+    } finally {
+      lock.unlock();
+    }
+
+    numTasks.decrementAndGet();
+    stolenFrom.incrementAndGet();
+    thief.adopt(handle, relativeVruntime);
+    return handle;
+  }
+
+  private void adopt(WorkStealingTaskHandle handle, double relativeVruntime) {
+    lock.lock();
+    try {
+      handle.setVruntime(minVruntime + relativeVruntime);
+      handle.setWorker(this);
+    } finally {
+      lock.unlock();
+    }
+    numTasks.incrementAndGet();
+    steals.incrementAndGet();
+  }
+
+  private WorkStealingTaskHandle pollLocal() {
+    lock.lock();
+    try {
+      final WorkStealingTaskHandle handle = runQueue.poll();
+      if (handle != null) {
+        minVruntime = Math.max(minVruntime, handle.getVruntime());
+      }
+      return handle;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void park() throws InterruptedException {
+    lock.lock();
+    try {
+      if (!runQueue.isEmpty() || !running) {
+        return;
+      }
+      parked = true;
+      parks.incrementAndGet();
+      workAvailable.await(idleParkMillis, TimeUnit.MILLISECONDS);
+    } finally {
+      parked = false;
+      lock.unlock();
+    }
+  }
+
+  void wakeUp() {
+    lock.lock();
+    try {
+      workAvailable.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void stop() {
+    running = false;
+    thread.interrupt();
+  }
+
+  void join(long millis) throws InterruptedException {
+    thread.join(millis);
+  }
+
+  @Override
+  public void run() {
+    StatsCollectionEligibilityRegistrar.addSelf();
+
+    while (running) {
+      WorkStealingTaskHandle handle = null;
+      // put try inside the run loop so we don't lose threads with uncaught exceptions.
+      try {
+        handle = pollLocal();
+        if (handle == null) {
+          handle = pool.steal(this);
+        }
+        if (handle == null) {
+          park();
+          continue;
+        }
+
+        runSlice(handle);
+      } catch (InterruptedException e) {
+        if (!running) {
+          logger.debug("Worker {} interrupted, exiting.", workerId);
+          return;
+        }
+      } catch (Throwable t) {
+        logger.error("Unhandled exception in worker {} while running {}.", workerId, handle, t);
+        if (handle != null) {
+          numTasks.decrementAndGet();
+        }
+      }
+    }
+  }
+
+  private void runSlice(WorkStealingTaskHandle handle) throws Exception {
+    final AsyncTaskWrapper task = handle.getTask();
+    busy = true;
+    final long startTime = System.nanoTime();
+    final long runTime;
+    try {
+      final String preRunName = task.getAsyncTask().preRunUpdate(numTasks.get());
+      try {
+        task.run();
+      } finally {
+        task.getAsyncTask().postRunUpdate(System.nanoTime() - startTime, preRunName);
+      }
+    } finally {
+      runTime = System.nanoTime() - startTime;
+      busy = false;
+    }
+
+    handle.charge(runTime);
+    slices.incrementAndGet();
+    runTimeNanos.addAndGet(runTime);
+
+    switch (task.getState()) {
+      case BLOCKED_ON_DOWNSTREAM:
+      case BLOCKED_ON_UPSTREAM:
+      case BLOCKED_ON_SHARED_RESOURCE:
+      case BLOCKED_ON_MEMORY:
+        // the callback may fire right away, don't touch the handle after this point
+        task.setAvailabilityCallback(new BlockRun(handle));
+        break;
+      case DONE:
+        numTasks.decrementAndGet();
+        task.getCleaner().close();
+        break;
+      case RUNNABLE:
+      default:
+        enqueue(handle);
+        break;
+    }
+  }
+
+  ThreadInfo getThreadInfo() {
+    // workers never request work, they steal it
+    return new ThreadInfo(thread.getName(), workerId, -1, -1, numTasks.get(), getRunQueueDepth(), 0, thread.getId());
+  }
+
+  /**
+   * @return number of tasks this worker took from other workers since the stats were last cleared
+   */
+  long getSteals() {
+    return steals.get();
+  }
+
+  /**
+   * @return number of tasks other workers took from this worker since the stats were last cleared
+   */
+  long getStolenFrom() {
+    return stolenFrom.get();
+  }
+
+  @Override
+  public boolean currentlyIdleAndHasStats() {
+    return !busy && slices.get() > 0;
+  }
+
+  @Override
+  public String getStats(boolean force) {
+    if (!force && slices.get() == 0) {
+      return "";
+    }
+    return String.format("worker e%d: tasks=%d, runQueue=%d, maxRunQueue=%d, slices=%d, runTimeMs=%d, steals=%d, "
+        + "stolenFrom=%d, parks=%d",
+      workerId, numTasks.get(), getRunQueueDepth(), maxRunQueueDepth.get(), slices.get(),
+      TimeUnit.NANOSECONDS.toMillis(runTimeNanos.get()), steals.get(), stolenFrom.get(), parks.get());
+  }
+
+  @Override
+  public void clearStats() {
+    slices.set(0);
+    runTimeNanos.set(0);
+    steals.set(0);
+    stolenFrom.set(0);
+    parks.set(0);
+    maxRunQueueDepth.set(getRunQueueDepth());
+  }
+
+  @Override
+  public String toString() {
+    return "worker e" + workerId;
+  }
+}
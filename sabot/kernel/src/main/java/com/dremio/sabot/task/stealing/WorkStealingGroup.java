@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.stealing;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+import com.google.common.base.Preconditions;
+
+/**
+ * Scheduling group of the {@link WorkStealingTaskPool}.
+ *
+ * <p>
+ * Groups form a tree (workload -> query -> task). The share of cpu a task gets is the product of the
+ * normalized weights along its path, so a task in a low weight group accrues virtual runtime faster
+ * than a task of the same weight in a high weight group.
+ * </p>
+ */
+class WorkStealingGroup implements SchedulingGroup<AsyncTaskWrapper> {
+
+  private final WorkStealingTaskPool pool;
+  private final double share;
+
+  WorkStealingGroup(WorkStealingTaskPool pool, WorkStealingGroup parent, long weight) {
+    this.pool = pool;
+    final double parentShare = parent != null ? parent.share : 1.0d;
+    this.share = parentShare * normalize(weight);
+  }
+
+  @Override
+  public SchedulingGroup<AsyncTaskWrapper> addGroup(long weight, boolean weightBasedScheduler) {
+    // all groups are weight based in this pool
+    return new WorkStealingGroup(pool, this, weight);
+  }
+
+  @Override
+  public TaskHandle<AsyncTaskWrapper> addTask(AsyncTaskWrapper task, long weight) {
+    Preconditions.checkNotNull(task);
+    final WorkStealingTaskHandle handle = new WorkStealingTaskHandle(pool, task, share * normalize(weight));
+    // the task may run as soon as it is enqueued, so it needs to know its handle beforehand
+    task.setTaskHandle(handle);
+    pool.enqueueNew(handle);
+    return handle;
+  }
+
+  private static double normalize(long weight) {
+    final long bounded = Math.max(1, Math.min(weight, TaskManager.MAX_WEIGHT));
+    return (double) bounded / TaskManager.MAX_WEIGHT;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.stealing;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+
+/**
+ * Handle of a task scheduled by the {@link WorkStealingTaskPool}. Tracks the task's virtual runtime and the
+ * worker it is currently assigned to.
+ */
+class WorkStealingTaskHandle implements TaskHandle<AsyncTaskWrapper> {
+
+  private final WorkStealingTaskPool pool;
+  private final AsyncTaskWrapper task;
+  private final double share;
+
+  // only updated by the worker owning the handle, or under the lock of the run queue it sits in
+  private volatile StealingWorker worker;
+  private double vruntime;
+
+  WorkStealingTaskHandle(WorkStealingTaskPool pool, AsyncTaskWrapper task, double share) {
+    this.pool = pool;
+    this.task = task;
+    this.share = share;
+  }
+
+  @Override
+  public AsyncTaskWrapper getTask() {
+    return task;
+  }
+
+  @Override
+  public void reEnqueue() {
+    pool.reEnqueue(this);
+  }
+
+  @Override
+  public int getThread() {
+    final StealingWorker current = worker;
+    return current != null ? current.getWorkerId() : -1;
+  }
+
+  @Override
+  public int getCurrentTaskLoad() {
+    final StealingWorker current = worker;
+    return current != null ? current.getNumTasks() : 0;
+  }
+
+  StealingWorker getWorker() {
+    return worker;
+  }
+
+  void setWorker(StealingWorker worker) {
+    this.worker = worker;
+  }
+
+  double getVruntime() {
+    return vruntime;
+  }
+
+  void setVruntime(double vruntime) {
+    this.vruntime = vruntime;
+  }
+
+  /**
+   * Charges the time spent running the task, scaled by the inverse of its share
+   */
+  void charge(long runtimeNanos) {
+    vruntime += runtimeNanos / share;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s (worker: %d, vruntime: %.0f)", task.getState(), getThread(), vruntime);
+  }
+}
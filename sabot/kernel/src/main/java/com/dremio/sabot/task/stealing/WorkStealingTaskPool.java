@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.stealing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.GroupManager;
+import com.dremio.sabot.task.SchedulerStats;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskPool;
+import com.dremio.sabot.task.TaskPoolFactory;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * A cooperative task pool that runs all tasks on a fixed set of worker threads (one per core by default).
+ *
+ * <p>
+ * Tasks are placed on the less loaded of two randomly chosen workers, and go back to the same worker
+ * when they are unblocked. Workers that run out of work steal runnable tasks from busy workers. Within a worker,
+ * tasks are picked by smallest virtual runtime, where virtual runtime grows inversely to the task's share
+ * of its {@link SchedulingGroup} hierarchy.
+ * </p>
+ *
+ * <p>
+ * To use it, set {@code dremio.task.pool.factory.class} to {@code com.dremio.sabot.task.stealing.WorkStealingTaskPool$Factory}.
+ * </p>
+ */
+public class WorkStealingTaskPool implements TaskPool {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WorkStealingTaskPool.class);
+
+  private static final long JOIN_TIMEOUT_MS = 5000;
+
+  /**
+   * Factory for {@code WorkStealingTaskPool}
+   */
+  public static final class Factory implements TaskPoolFactory {
+    @Override
+    public TaskPool newInstance(OptionManager options, DremioConfig config) {
+      final int configuredThreads = (int) options.getOption(ExecConstants.STEALING_POOL_THREAD_COUNT);
+      final int numThreads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+      return new WorkStealingTaskPool(numThreads, options.getOption(ExecConstants.STEALING_POOL_IDLE_PARK_MS));
+    }
+  }
+
+  private final List<StealingWorker> workers;
+  private final WorkStealingGroup rootGroup;
+  private final GroupManager<AsyncTaskWrapper> groupManager;
+  private final SchedulerStats schedulerStats = new WorkStealingSchedulerStats();
+
+  @VisibleForTesting
+  WorkStealingTaskPool(int numThreads, long idleParkMillis) {
+    Preconditions.checkArgument(numThreads > 0, "At least one worker thread is required");
+    this.rootGroup = new WorkStealingGroup(this, null, TaskManager.MAX_WEIGHT);
+    this.groupManager = weight -> rootGroup.addGroup(weight);
+
+    final List<StealingWorker> workers = new ArrayList<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      workers.add(new StealingWorker(i, this, idleParkMillis));
+    }
+    this.workers = workers;
+    workers.forEach(StealingWorker::start);
+    logger.info("Started work stealing task pool with {} worker threads", numThreads);
+  }
+
+  @Override
+  public void execute(AsyncTaskWrapper task) {
+    // the group creates the handle, attaches it to the task and enqueues it
+    task.getSchedulingGroup().addTask(task, task.getTaskWeight());
+  }
+
+  @Override
+  public GroupManager<AsyncTaskWrapper> getGroupManager() {
+    return groupManager;
+  }
+
+  /**
+   * Places a new task on the less loaded of two random workers
+   */
+  void enqueueNew(WorkStealingTaskHandle handle) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final StealingWorker first = workers.get(random.nextInt(workers.size()));
+    final StealingWorker second = workers.get(random.nextInt(workers.size()));
+    final StealingWorker target = first.getNumTasks() <= second.getNumTasks() ? first : second;
+    target.assign(handle);
+    wakeIdleIfBusy(target);
+  }
+
+  /**
+   * Called when a previously blocked task becomes runnable again
+   */
+  void reEnqueue(WorkStealingTaskHandle handle) {
+    final StealingWorker worker = handle.getWorker();
+    Preconditions.checkState(worker != null, "Task %s was never assigned to a worker", handle);
+    worker.enqueue(handle);
+    wakeIdleIfBusy(worker);
+  }
+
+  /**
+   * Finds a task for an idle worker, picking the busy worker with the deepest run queue as the victim.
+   */
+  WorkStealingTaskHandle steal(StealingWorker thief) {
+    final int numWorkers = workers.size();
+    if (numWorkers == 1) {
+      return null;
+    }
+
+    StealingWorker victim = null;
+    int victimDepth = 0;
+    final int start = ThreadLocalRandom.current().nextInt(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      final StealingWorker candidate = workers.get((start + i) % numWorkers);
+      if (candidate == thief) {
+        continue;
+      }
+      final int depth = candidate.getRunQueueDepth();
+      if (depth > victimDepth) {
+        victim = candidate;
+        victimDepth = depth;
+      }
+    }
+    return victim != null ? victim.stealBy(thief) : null;
+  }
+
+  private void wakeIdleIfBusy(StealingWorker target) {
+    if (!target.isBusy()) {
+      return;
+    }
+    for (StealingWorker worker : workers) {
+      if (worker.isParked()) {
+        worker.wakeUp();
+        return;
+      }
+    }
+  }
+
+  @Override
+  public Iterable<ThreadInfo> getSlicingThreads() {
+    return workers.stream()
+      .map(StealingWorker::getThreadInfo)
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public boolean areAllThreadsAlive() {
+    return workers.stream().allMatch(StealingWorker::isAlive);
+  }
+
+  /**
+   * @return stats of all the workers of the pool, one line per worker
+   */
+  @Override
+  public SchedulerStats getSchedulerStats() {
+    return schedulerStats;
+  }
+
+  @VisibleForTesting
+  List<StealingWorker> getWorkers() {
+    return workers;
+  }
+
+  @Override
+  public void close() throws Exception {
+    workers.forEach(StealingWorker::stop);
+    for (StealingWorker worker : workers) {
+      worker.join(JOIN_TIMEOUT_MS);
+    }
+    logger.debug("Stopped work stealing task pool\n{}", schedulerStats.getStats(true));
+  }
+
+  private final class WorkStealingSchedulerStats implements SchedulerStats {
+    @Override
+    public boolean currentlyIdleAndHasStats() {
+      return workers.stream().allMatch(worker -> !worker.isBusy())
+        && workers.stream().anyMatch(StealingWorker::currentlyIdleAndHasStats);
+    }
+
+    @Override
+    public String getStats(boolean force) {
+      return workers.stream()
+        .map(worker -> worker.getStats(force))
+        .filter(stats -> !stats.isEmpty())
+        .collect(Collectors.joining("\n"));
+    }
+
+    @Override
+    public void clearStats() {
+      workers.forEach(StealingWorker::clearStats);
+    }
+  }
+}
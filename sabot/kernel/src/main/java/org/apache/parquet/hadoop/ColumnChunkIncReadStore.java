@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.PrimitiveIterator;
 
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
@@ -39,10 +41,15 @@ import org.apache.parquet.format.PageHeader;
 import org.apache.parquet.format.Util;
 import org.apache.parquet.format.converter.ParquetMetadataConverter;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
 
 import com.dremio.exec.store.parquet.BulkInputStream;
 import com.dremio.exec.store.parquet.InputStreamProvider;
+import com.dremio.exec.store.parquet.OffsetIndexProvider;
+import com.dremio.exec.store.parquet.ParquetReaderStats;
+import com.dremio.exec.store.parquet.ParquetRowSelection;
 import com.dremio.io.file.Path;
+import com.google.common.base.Preconditions;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.NettyArrowBuf;
@@ -56,21 +63,38 @@ public class ColumnChunkIncReadStore implements PageReadStore {
   private Path path;
   private long rowCount;
   private InputStreamProvider inputStreamProvider;
+  private final ParquetRowSelection rowSelection;
+  private final OffsetIndexProvider offsetIndexProvider;
+  private final ParquetReaderStats stats;
 
   public ColumnChunkIncReadStore(long rowCount, CompressionCodecFactory codecFactory, BufferAllocator allocator,
       Path path, InputStreamProvider inputStreamProvider) {
+    this(rowCount, codecFactory, allocator, path, inputStreamProvider, null, null, null);
+  }
+
+  /**
+   * Page store reading only the given selection of rows. Pages with none of the selected rows are skipped using the
+   * offset indexes of the columns.
+   */
+  public ColumnChunkIncReadStore(long rowCount, CompressionCodecFactory codecFactory, BufferAllocator allocator,
+      Path path, InputStreamProvider inputStreamProvider, ParquetRowSelection rowSelection,
+      OffsetIndexProvider offsetIndexProvider, ParquetReaderStats stats) {
     this.codecFactory = codecFactory;
     this.allocator = allocator;
     this.path = path;
     this.rowCount = rowCount;
     this.inputStreamProvider = inputStreamProvider;
+    this.rowSelection = rowSelection;
+    this.offsetIndexProvider = offsetIndexProvider;
+    this.stats = stats;
   }
 
   public class SingleStreamColumnChunkIncPageReader extends ColumnChunkIncPageReader {
     private long lastPosition;
 
-    public SingleStreamColumnChunkIncPageReader(ColumnChunkMetaData metaData, ColumnDescriptor columnDescriptor, BulkInputStream in) throws IOException {
-      super(metaData, columnDescriptor, in);
+    public SingleStreamColumnChunkIncPageReader(ColumnChunkMetaData metaData, ColumnDescriptor columnDescriptor,
+                                                BulkInputStream in, OffsetIndex offsetIndex) throws IOException {
+      super(metaData, columnDescriptor, in, offsetIndex);
       lastPosition = in.getPos();
     }
 
@@ -107,6 +131,12 @@ public class ColumnChunkIncReadStore implements PageReadStore {
     long size;
     private long valueReadSoFar = 0;
 
+    // set when reading a selection of rows
+    private final OffsetIndex offsetIndex;
+    private int dataPageIndex = -1;
+    private long pageFirstRowIndex;
+    private int pageRowCount;
+
     private DictionaryPage dictionaryPage;
     protected BulkInputStream in;
     private BytesInputDecompressor decompressor;
@@ -117,8 +147,10 @@ public class ColumnChunkIncReadStore implements PageReadStore {
     // Release the dictionary page buffer in close
     private ByteBuf dictionaryPageUncompressed;
 
-    public ColumnChunkIncPageReader(ColumnChunkMetaData metaData, ColumnDescriptor columnDescriptor, BulkInputStream in) throws IOException {
+    public ColumnChunkIncPageReader(ColumnChunkMetaData metaData, ColumnDescriptor columnDescriptor, BulkInputStream in,
+                                    OffsetIndex offsetIndex) throws IOException {
       this.metaData = metaData;
+      this.offsetIndex = offsetIndex;
       this.columnDescriptor = columnDescriptor;
       this.size = metaData.getTotalSize();
       this.fileOffset = metaData.getStartingPos();
@@ -188,7 +220,24 @@ public class ColumnChunkIncReadStore implements PageReadStore {
               break;
             case DATA_PAGE:
               valueReadSoFar += pageHeader.data_page_header.getNum_values();
+              if (skipDataPage()) {
+                in.skip(compressedPageSize);
+                break;
+              }
               ByteBuffer destBuffer = uncompressPage(pageHeader, true);
+              if (offsetIndex != null) {
+                return new DataPageV1(
+                        BytesInput.from(destBuffer, 0, pageHeader.uncompressed_page_size),
+                        pageHeader.data_page_header.num_values,
+                        pageHeader.uncompressed_page_size,
+                        pageFirstRowIndex,
+                        pageRowCount,
+                        fromParquetStatistics(pageHeader.data_page_header.statistics, columnDescriptor.getType()),
+                        parquetMetadataConverter.getEncoding(pageHeader.data_page_header.repetition_level_encoding),
+                        parquetMetadataConverter.getEncoding(pageHeader.data_page_header.definition_level_encoding),
+                        parquetMetadataConverter.getEncoding(pageHeader.data_page_header.encoding)
+                );
+              }
               return new DataPageV1(
                       BytesInput.from(destBuffer, 0, pageHeader.uncompressed_page_size),
                       pageHeader.data_page_header.num_values,
@@ -201,9 +250,29 @@ public class ColumnChunkIncReadStore implements PageReadStore {
             // TODO - finish testing this with more files
             case DATA_PAGE_V2:
               valueReadSoFar += pageHeader.data_page_header_v2.getNum_values();
+              if (skipDataPage()) {
+                in.skip(compressedPageSize);
+                break;
+              }
               destBuffer = uncompressPage(pageHeader, true);
               DataPageHeaderV2 dataHeaderV2 = pageHeader.getData_page_header_v2();
               int dataSize = uncompressedPageSize - dataHeaderV2.getRepetition_levels_byte_length() - dataHeaderV2.getDefinition_levels_byte_length();
+              if (offsetIndex != null) {
+                return DataPageV2.uncompressed(
+                        dataHeaderV2.getNum_rows(),
+                        dataHeaderV2.getNum_nulls(),
+                        dataHeaderV2.getNum_values(),
+                        pageFirstRowIndex,
+                        BytesInput.from(destBuffer, 0, dataHeaderV2.getRepetition_levels_byte_length()),
+                        BytesInput.from(destBuffer,
+                            dataHeaderV2.getRepetition_levels_byte_length(),
+                            dataHeaderV2.getDefinition_levels_byte_length()),
+                        parquetMetadataConverter.getEncoding(dataHeaderV2.getEncoding()),
+                        BytesInput.from(destBuffer,
+                          dataHeaderV2.getRepetition_levels_byte_length() + dataHeaderV2.getDefinition_levels_byte_length(),
+                          dataSize),
+                        fromParquetStatistics(dataHeaderV2.getStatistics(), columnDescriptor.getType()));
+              }
               return DataPageV2.uncompressed(
                       dataHeaderV2.getNum_rows(),
                       dataHeaderV2.getNum_nulls(),
@@ -237,6 +306,26 @@ public class ColumnChunkIncReadStore implements PageReadStore {
       }
     }
 
+    /**
+     * Moves to the next data page when reading a selection of rows, and tells whether none of its rows are needed.
+     */
+    private boolean skipDataPage() {
+      if (offsetIndex == null) {
+        return false;
+      }
+      dataPageIndex++;
+      pageFirstRowIndex = offsetIndex.getFirstRowIndex(dataPageIndex);
+      final long pageLastRowIndex = offsetIndex.getLastRowIndex(dataPageIndex, rowCount);
+      pageRowCount = (int) (pageLastRowIndex - pageFirstRowIndex + 1);
+      if (rowSelection.isNeeded(pageFirstRowIndex, pageLastRowIndex)) {
+        return false;
+      }
+      if (stats != null) {
+        stats.numPagesSkipped++;
+      }
+      return true;
+    }
+
     void close() {
       try {
         releasePrevDataPageBuffers();
@@ -324,9 +413,15 @@ public class ColumnChunkIncReadStore implements PageReadStore {
   public void addColumn(ColumnDescriptor descriptor, ColumnChunkMetaData metaData) throws IOException {
     final BulkInputStream in = inputStreamProvider.getStream(metaData);
     in.seek(metaData.getStartingPos());
+    OffsetIndex offsetIndex = null;
+    if (rowSelection != null) {
+      offsetIndex = offsetIndexProvider.getOffsetIndex(metaData);
+      Preconditions.checkState(offsetIndex != null, "Reading a selection of rows requires the offset index of column %s",
+        metaData.getPath());
+    }
     columns.put(descriptor, inputStreamProvider.isSingleStream()
-      ? new SingleStreamColumnChunkIncPageReader(metaData, descriptor, in)
-      : new ColumnChunkIncPageReader(metaData, descriptor, in));
+      ? new SingleStreamColumnChunkIncPageReader(metaData, descriptor, in, offsetIndex)
+      : new ColumnChunkIncPageReader(metaData, descriptor, in, offsetIndex));
   }
 
   public void close() throws IOException {
@@ -344,4 +439,9 @@ public class ColumnChunkIncReadStore implements PageReadStore {
   public long getRowCount() {
     return rowCount;
   }
+
+  @Override
+  public Optional<PrimitiveIterator.OfLong> getRowIndexes() {
+    return rowSelection == null ? Optional.empty() : Optional.of(rowSelection.newRowIterator());
+  }
 }
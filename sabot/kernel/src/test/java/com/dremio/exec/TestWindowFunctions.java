@@ -1135,4 +1135,47 @@ public class TestWindowFunctions extends BaseTestQuery {
       .hasErrorType(UNSUPPORTED_OPERATION)
       .hasMessageContaining("DISTINCT for window aggregate functions is not currently supported");
   }
+
+  @Test
+  public void testSlidingRowsFrame() throws Exception {
+    final String query = "select n_nationkey, sum(n_nationkey) over(order by n_nationkey rows 2 preceding) as s \n" +
+        "from cp.\"tpch/nation.parquet\"";
+    final TestBuilder builder = testBuilder()
+        .sqlQuery(query)
+        .unOrdered()
+        .baselineColumns("n_nationkey", "s");
+
+    // the frame of each key holds the key and up to two keys before it
+    IntStream.range(0, 25).forEach((key) ->
+        builder.baselineValues(key, (long) IntStream.rangeClosed(Math.max(0, key - 2), key).sum()));
+
+    builder.go();
+  }
+
+  @Test
+  public void testSlidingRowsFrameAvg() {
+    UserExceptionAssert.assertThatThrownBy(() -> test("select avg(n_nationkey) over(order by n_nationkey rows 2 preceding) \n" +
+      "from cp.\"tpch/nation.parquet\""))
+      .hasErrorType(UNSUPPORTED_OPERATION)
+      .hasMessageContaining("Function AVG is not supported over a ROWS frame of a bounded number of preceding rows");
+  }
+
+  @Test
+  public void testSlidingRowsFrameAvgOverNamedWindow() {
+    // the frame of a named window is only known once the window is planned
+    UserExceptionAssert.assertThatThrownBy(() -> test("select avg(n_nationkey) over w \n" +
+      "from cp.\"tpch/nation.parquet\" \n" +
+      "window w as (order by n_nationkey rows 2 preceding)"))
+      .hasErrorType(UNSUPPORTED_OPERATION)
+      .hasMessageContaining("AVG is not supported over a ROWS frame of a bounded number of preceding rows");
+  }
+
+  @Test
+  public void testSlidingRowsFrameDecimal() {
+    UserExceptionAssert.assertThatThrownBy(() -> test("select sum(cast(n_nationkey as decimal(10, 2))) \n" +
+      "over(order by n_nationkey rows 2 preceding) \n" +
+      "from cp.\"tpch/nation.parquet\""))
+      .hasErrorType(UNSUPPORTED_OPERATION)
+      .hasMessageContaining("over a ROWS frame of a bounded number of preceding rows is not supported for DECIMAL");
+  }
 }
@@ -23,9 +23,12 @@ import java.io.IOException;
 import org.codehaus.commons.compiler.CompileException;
 import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.dremio.BaseTestQuery;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.compile.ClassTransformer.ClassSet;
 import com.dremio.exec.compile.sig.GeneratorMapping;
 import com.dremio.exec.compile.sig.MappingSet;
@@ -45,6 +48,9 @@ public class TestClassTransformation extends BaseTestQuery {
 
   private static final int ITERATION_COUNT = Integer.valueOf(System.getProperty("TestClassTransformation.iteration", "1"));
 
+  @Rule
+  public final TemporaryFolder tempDir = new TemporaryFolder();
+
   private static OptionManager sessionOptions;
 
   @BeforeClass
@@ -113,6 +119,32 @@ public class TestClassTransformation extends BaseTestQuery {
     logger.debug("Optimized code is {}% smaller than debug code.", (int)((sizeWithDebug - sizeWithoutDebug)/(double)sizeWithDebug*100));
   }
 
+  @Test
+  public void testPersistentCodeCache() throws Exception {
+    System.setProperty(ExecConstants.CODE_CACHE_BYTECODE_LOCATION_PROP, tempDir.newFolder().getAbsolutePath());
+    sessionOptions.setOption(OptionValue.createBoolean(OptionType.SESSION, ExecConstants.EXEC_CODE_CACHE_PERSIST.getOptionName(), true));
+    try {
+      final ExampleInner compiled = new CodeCompiler(DEFAULT_SABOT_CONFIG, sessionOptions, "v1")
+        .getImplementationClass(newCodeGenerator(ExampleInner.class, ExampleTemplateWithInner.class));
+
+      // a restarted compiler loads the class compiled before, along with its inner classes
+      final ExampleInner loaded = new CodeCompiler(DEFAULT_SABOT_CONFIG, sessionOptions, "v1")
+        .getImplementationClass(newCodeGenerator(ExampleInner.class, ExampleTemplateWithInner.class));
+      Assert.assertNotSame(compiled.getClass(), loaded.getClass());
+      Assert.assertEquals(compiled.getClass().getName(), loaded.getClass().getName());
+      loaded.doOutside();
+      loaded.doInsideOutside();
+
+      // classes compiled against other functions are not used
+      final ExampleInner recompiled = new CodeCompiler(DEFAULT_SABOT_CONFIG, sessionOptions, "v2")
+        .getImplementationClass(newCodeGenerator(ExampleInner.class, ExampleTemplateWithInner.class));
+      Assert.assertNotEquals(compiled.getClass().getName(), recompiled.getClass().getName());
+    } finally {
+      System.clearProperty(ExecConstants.CODE_CACHE_BYTECODE_LOCATION_PROP);
+      sessionOptions.setOption(OptionValue.createBoolean(OptionType.SESSION, ExecConstants.EXEC_CODE_CACHE_PERSIST.getOptionName(), false));
+    }
+  }
+
   /**
    * Do a test of a three level class to ensure that nested code generators works correctly.
    * @throws Exception
@@ -23,11 +23,19 @@ import static com.dremio.exec.physical.impl.window.DataPar.dataB3P2;
 import static com.dremio.exec.physical.impl.window.DataPar.dataB4P4;
 import static com.dremio.exec.physical.impl.window.WindowGenerator.generateInput;
 import static com.dremio.exec.physical.impl.window.WindowGenerator.generateOutput;
+import static com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType.UNSUPPORTED_OPERATION;
+import static com.dremio.sabot.Fixtures.NULL_BIGINT;
 import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
 import static java.util.Collections.singletonList;
+import static org.apache.calcite.rel.RelFieldCollation.Direction.ASCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -36,12 +44,16 @@ import org.junit.Test;
 
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.logical.data.Order;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.WindowPOP;
 import com.dremio.exec.physical.config.WindowPOP.Bound;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.windowframe.WindowFrameOperator;
+import com.dremio.test.UserExceptionAssert;
 
 public class TestWindowOperator extends BaseTestOperator {
 
@@ -106,6 +118,20 @@ public class TestWindowOperator extends BaseTestOperator {
     runTests(dataB4P4(true), dataB4P4(false));
   }
 
+  @Test
+  public void testSpillPartitionBatches() throws Exception {
+    // spill all the batches that can be, so that the partitions spanning several batches are read back from disk
+    try (AutoCloseable ignored = with(ExecConstants.WINDOW_SPILL_THRESHOLD, 1)) {
+      final DataPar[] partitions = dataB4P4(true);
+      final WindowPOP window = createWindowPOP(true, true);
+      final Table input = t(WindowGenerator.header, generateInput(partitions));
+      final OperatorStats stats = validateSingle(window, WindowFrameOperator.class, input, generateOutput(partitions, true), 4);
+      assertTrue(stats.getLongStat(WindowFrameOperator.Metric.BATCHES_SPILLED) > 0);
+      assertTrue(stats.getLongStat(WindowFrameOperator.Metric.TOTAL_SPILLED_DATA_SIZE) > 0);
+      assertTrue(stats.getLongStat(WindowFrameOperator.Metric.BATCHES_READ_FROM_SPILL) > 0);
+    }
+  }
+
   @Test // DRILL-4657
   public void test4657() throws Exception {
     // SELECT row_number() OVER(ORDER BY position_id) rn, rank() OVER(ORDER BY position_id) rnk FROM dfs.\"%s/window/b3.p2\"
@@ -121,4 +147,68 @@ public class TestWindowOperator extends BaseTestOperator {
     validateSingle(window, WindowFrameOperator.class, input, output, 20);
   }
 
+  @Test
+  public void testSlidingRowsFrame() throws Exception {
+    // SELECT p, o, v, sum(v), min(v), count(v) OVER(PARTITION BY p ORDER BY o ROWS 1 PRECEDING)
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      Arrays.asList(n("sum(v)", "s"), n("min(v)", "m"), n("count(v)", "c")), // aggregations
+      singletonList(ordering("o", ASCENDING, FIRST)), // ordering
+      true, new Bound(false, -1), new Bound(false, 0));
+
+    final Table input = t(
+      th("p", "o", "v"),
+      tr(1, 1, 10L),
+      tr(1, 2, 20L),
+      tr(1, 3, 30L),
+      tr(2, 1, 5L),
+      tr(2, 2, NULL_BIGINT),
+      tr(2, 3, 7L),
+      tr(2, 4, 3L)
+    );
+
+    final Table output = t(
+      th("p", "o", "v", "s", "m", "c"),
+      tr(1, 1, 10L, 10L, 10L, 1L),
+      tr(1, 2, 20L, 30L, 10L, 2L),
+      tr(1, 3, 30L, 50L, 20L, 2L),
+      tr(2, 1, 5L, 5L, 5L, 1L),
+      tr(2, 2, NULL_BIGINT, 5L, 5L, 1L),
+      tr(2, 3, 7L, 7L, 7L, 1L),
+      tr(2, 4, 3L, 10L, 3L, 2L)
+    );
+    // the frames and partitions span batches of 2 rows
+    validateSingle(window, WindowFrameOperator.class, input, output, 2);
+  }
+
+  @Test
+  public void testUnresolvedPrecedingOffsetIsNotSlidingFrame() {
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      singletonList(n("sum(v)", "s")), // aggregations
+      singletonList(ordering("o", ASCENDING, FIRST)), // ordering
+      true, new Bound(false, Long.MIN_VALUE), new Bound(false, 0));
+    assertFalse(WindowFrameOperator.isSlidingRowsFrame(window));
+  }
+
+  @Test
+  public void testSlidingRowsFrameUnsupportedTypeFailsAtSetup() throws Exception {
+    // SELECT p, o, v, sum(v) OVER(PARTITION BY p ORDER BY o ROWS 1 PRECEDING) over a decimal v
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      singletonList(n("sum(v)", "s")), // aggregations
+      singletonList(ordering("o", ASCENDING, FIRST)), // ordering
+      true, new Bound(false, -1), new Bound(false, 0));
+    final Table input = t(
+      th("p", "o", "v"),
+      tr(1, 1, new BigDecimal("1.5"))
+    );
+
+    try (Generator generator = input.toGenerator(getTestAllocator());
+         WindowFrameOperator op = newOperator(WindowFrameOperator.class, window, 2)) {
+      UserExceptionAssert.assertThatThrownBy(() -> op.setup(generator.getOutput()))
+        .hasErrorType(UNSUPPORTED_OPERATION)
+        .hasMessageContaining("is not supported for");
+    }
+  }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.BaseTestQuery;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.proto.UserBitShared.PlanCacheMatchType;
+import com.dremio.exec.proto.UserBitShared.PlanCacheProfile;
+import com.dremio.exec.work.protector.ForemenWorkManager;
+
+/**
+ * Tests for the plan cache with planner.query_plan_cache_parameterized_enabled
+ */
+public class TestParameterizedPlanCache extends BaseTestQuery {
+  private static final String EMPLOYEE_BY_ID =
+    "SELECT full_name FROM cp.\"employees.json\" WHERE employee_id = %d";
+  private static final String EMPLOYEE_BY_ID_AND_POSITION =
+    "SELECT full_name FROM cp.\"employees.json\" WHERE employee_id = %d AND position_id = %d";
+
+  private PlanCache planCache;
+
+  @Before
+  public void setUp() {
+    setSessionOption(PlannerSettings.QUERY_PLAN_CACHE_PARAMETERIZED_ENABLED, "true");
+    planCache = getInjector().getInstance(ForemenWorkManager.class).getPlanCacheHandle();
+    planCache.getCachePlans().invalidateAll();
+  }
+
+  @After
+  public void tearDown() {
+    resetSessionOption(PlannerSettings.QUERY_PLAN_CACHE_PARAMETERIZED_ENABLED);
+    planCache.getCachePlans().invalidateAll();
+  }
+
+  @Test
+  public void testParameterizedMatch() throws Exception {
+    final PlanCacheProfile before = planCache.getLookupCounts();
+    testEmployeeById(1102, "Mary Pierson");
+    // same query with another literal, the plan of the first query is rebound to it
+    testEmployeeById(1103, "Leo Jones");
+
+    final PlanCacheProfile after = planCache.getLookupCounts();
+    assertEquals(1, after.getMisses() - before.getMisses());
+    assertEquals(1, after.getParameterizedHits() - before.getParameterizedHits());
+    assertEquals(0, after.getParameterizedFallbacks() - before.getParameterizedFallbacks());
+    // only the plan of the first query is cached, under its exact and its parameterized key
+    assertEquals(2, planCache.getCachePlans().size());
+  }
+
+  @Test
+  public void testExactMatchBeforeParameterizedMatch() throws Exception {
+    final PlanCacheProfile before = planCache.getLookupCounts();
+    testEmployeeById(1102, "Mary Pierson");
+    testEmployeeById(1102, "Mary Pierson");
+
+    final PlanCacheProfile after = planCache.getLookupCounts();
+    assertEquals(1, after.getMisses() - before.getMisses());
+    assertEquals(1, after.getExactHits() - before.getExactHits());
+    assertEquals(0, after.getParameterizedHits() - before.getParameterizedHits());
+  }
+
+  @Test
+  public void testFallbackToExactMatch() throws Exception {
+    final PlanCacheProfile before = planCache.getLookupCounts();
+    testBuilder()
+      .sqlQuery(String.format(EMPLOYEE_BY_ID_AND_POSITION, 1102, 1102))
+      .unOrdered()
+      .baselineColumns("full_name")
+      .expectsEmptyResultSet()
+      .go();
+    // the literal 1102 would have to be rebound to two different values, the query is planned again
+    for (int i = 0; i < 2; i++) {
+      testBuilder()
+        .sqlQuery(String.format(EMPLOYEE_BY_ID_AND_POSITION, 1103, 16))
+        .unOrdered()
+        .baselineColumns("full_name")
+        .baselineValues("Leo Jones")
+        .go();
+    }
+
+    // the plan of the second query is cached under its exact key, and reused as is the next time
+    final PlanCacheProfile after = planCache.getLookupCounts();
+    assertEquals(1, after.getMisses() - before.getMisses());
+    assertEquals(1, after.getParameterizedFallbacks() - before.getParameterizedFallbacks());
+    assertEquals(1, after.getExactHits() - before.getExactHits());
+    assertEquals(0, after.getParameterizedHits() - before.getParameterizedHits());
+  }
+
+  @Test
+  public void testRecordLookup() {
+    final PlanCacheProfile before = planCache.getLookupCounts();
+    final PlanCacheProfile profile = planCache.recordLookup(PlanCacheMatchType.PARAMETERIZED_FALLBACK);
+
+    assertEquals(PlanCacheMatchType.PARAMETERIZED_FALLBACK, profile.getMatchType());
+    assertEquals(before.getParameterizedFallbacks() + 1, profile.getParameterizedFallbacks());
+    assertEquals(before.getExactHits(), profile.getExactHits());
+    assertEquals(before.getParameterizedHits(), profile.getParameterizedHits());
+    assertEquals(before.getMisses(), profile.getMisses());
+  }
+
+  private static void testEmployeeById(int employeeId, String fullName) throws Exception {
+    testBuilder()
+      .sqlQuery(String.format(EMPLOYEE_BY_ID, employeeId))
+      .unOrdered()
+      .baselineColumns("full_name")
+      .baselineValues(fullName)
+      .go();
+  }
+}
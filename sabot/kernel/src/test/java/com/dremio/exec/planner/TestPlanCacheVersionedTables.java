@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.catalog.Catalog;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.catalog.ResolvedVersionContext;
+import com.dremio.exec.catalog.TableVersionContext;
+import com.dremio.exec.catalog.TableVersionType;
+import com.dremio.exec.catalog.VersionContext;
+import com.dremio.exec.catalog.VersionedDatasetId;
+import com.dremio.exec.catalog.VersionedPlugin;
+import com.dremio.exec.planner.CachedPlan.VersionedTable;
+import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
+import com.dremio.exec.store.CatalogService;
+import com.dremio.exec.store.ReferenceNotFoundException;
+import com.dremio.exec.store.StoragePlugin;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.IcebergMetadata;
+import com.dremio.service.namespace.dataset.proto.PhysicalDataset;
+import com.dremio.service.namespace.proto.EntityId;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimaps;
+
+/**
+ * Tests for the plans cached over tables of versioned sources in {@link PlanCache}
+ */
+public class TestPlanCacheVersionedTables {
+  private static final String SOURCE = "nessie";
+  private static final List<String> TABLE_KEY = Arrays.asList(SOURCE, "tbl");
+  private static final VersionContext MAIN = VersionContext.ofBranch("main");
+  private static final TableVersionContext AT_MAIN = new TableVersionContext(TableVersionType.BRANCH, "main");
+  private static final String CACHE_KEY = "key";
+
+  private Catalog catalog;
+  private CatalogService catalogService;
+  private SqlHandlerConfig config;
+  private Prel prel;
+  private PlanCache planCache;
+
+  @Before
+  public void setUp() {
+    catalog = mock(Catalog.class);
+    catalogService = mock(CatalogService.class);
+    when(catalog.getSource(SOURCE)).thenReturn(mock(FakeVersionedPlugin.class));
+    config = mock(SqlHandlerConfig.class);
+    when(config.getObserver()).thenReturn(mock(AttemptObserver.class));
+    prel = mock(Prel.class);
+    planCache = new PlanCache(CacheBuilder.newBuilder().build(),
+      Multimaps.synchronizedListMultimap(ArrayListMultimap.create()));
+  }
+
+  @Test
+  public void testPlanRecordsVersionedTable() throws Exception {
+    mainAt("commit1");
+    requestTables(table(AT_MAIN, 1L));
+    cachePlan();
+
+    final VersionedTable versionedTable = getIfPresentAndValid().getVersionedTables().values().iterator().next();
+    assertEquals(SOURCE, versionedTable.getSourceName());
+    assertEquals(MAIN, versionedTable.getVersionContext());
+    assertEquals("commit1", versionedTable.getCommitHash());
+    assertEquals(1L, versionedTable.getSnapshotId());
+  }
+
+  @Test
+  public void testPlanReusedWhileTableUnchanged() throws Exception {
+    mainAt("commit1");
+    requestTables(table(AT_MAIN, 1L));
+    cachePlan();
+
+    assertNotNull(getIfPresentAndValid());
+    assertNotNull(getIfPresentAndValid());
+  }
+
+  @Test
+  public void testPlanInvalidatedOnNewCommit() throws Exception {
+    mainAt("commit1");
+    requestTables(table(AT_MAIN, 1L));
+    cachePlan();
+
+    mainAt("commit2");
+    assertNull(getIfPresentAndValid());
+    assertEquals(0, planCache.getCachePlans().size());
+  }
+
+  @Test
+  public void testPlanInvalidatedOnNewSnapshot() throws Exception {
+    mainAt("commit1");
+    requestTables(table(AT_MAIN, 1L));
+    cachePlan();
+
+    // same commit, but the table was planned at another snapshot
+    requestTables(table(AT_MAIN, 2L));
+    assertNull(getIfPresentAndValid());
+    assertEquals(0, planCache.getCachePlans().size());
+  }
+
+  @Test
+  public void testPlanNotReusedOnOtherBranch() throws Exception {
+    mainAt("commit1");
+    requestTables(table(AT_MAIN, 1L));
+    cachePlan();
+
+    requestTables(table(new TableVersionContext(TableVersionType.BRANCH, "dev"), 1L));
+    assertNull(getIfPresentAndValid());
+  }
+
+  @Test
+  public void testPlanNotCachedWhenVersionUnresolved() {
+    requestTables(table(AT_MAIN, 1L));
+    cachePlan();
+
+    assertEquals(0, planCache.getCachePlans().size());
+  }
+
+  @Test
+  public void testTimeTravelPlanOnlyCheckedOnSnapshot() {
+    final TableVersionContext atSnapshot = new TableVersionContext(TableVersionType.SNAPSHOT_ID, "1");
+    requestTables(table(atSnapshot, 1L));
+    cachePlan();
+
+    // the branches of the source are never resolved
+    planCache.invalidateCacheOnVersionedTableChanges(catalog);
+    assertNotNull(getIfPresentAndValid());
+
+    requestTables(table(atSnapshot, 2L));
+    assertNull(getIfPresentAndValid());
+  }
+
+  @Test
+  public void testInvalidateCacheOnVersionedTableChanges() throws Exception {
+    mainAt("commit1");
+    requestTables(table(AT_MAIN, 1L));
+    cachePlan();
+
+    planCache.invalidateCacheOnVersionedTableChanges(catalog);
+    assertEquals(1, planCache.getCachePlans().size());
+
+    mainAt("commit2");
+    planCache.invalidateCacheOnVersionedTableChanges(catalog);
+    assertEquals(0, planCache.getCachePlans().size());
+  }
+
+  @Test
+  public void testInvalidateCacheOnDroppedBranch() throws Exception {
+    mainAt("commit1");
+    requestTables(table(AT_MAIN, 1L));
+    cachePlan();
+
+    when(catalog.resolveVersionContext(SOURCE, MAIN)).thenThrow(new ReferenceNotFoundException("main"));
+    planCache.invalidateCacheOnVersionedTableChanges(catalog);
+    assertEquals(0, planCache.getCachePlans().size());
+  }
+
+  private void mainAt(String commitHash) throws Exception {
+    when(catalog.resolveVersionContext(SOURCE, MAIN)).thenReturn(ResolvedVersionContext.ofBranch("main", commitHash));
+  }
+
+  private void requestTables(DremioTable... tables) {
+    when(catalog.getAllRequestedTables()).thenReturn(Arrays.asList(tables));
+  }
+
+  private void cachePlan() {
+    planCache.createNewCachedPlan(catalog, CACHE_KEY, "sql", prel, "plan", config);
+  }
+
+  private CachedPlan getIfPresentAndValid() {
+    return planCache.getIfPresentAndValid(catalog, catalogService, CACHE_KEY);
+  }
+
+  private static DremioTable table(TableVersionContext versionContext, long snapshotId) {
+    final String datasetId = VersionedDatasetId.newBuilder()
+      .setTableKey(TABLE_KEY)
+      .setContentId("content")
+      .setTableVersionContext(versionContext)
+      .build()
+      .asString();
+    final DatasetConfig datasetConfig = new DatasetConfig()
+      .setId(new EntityId(datasetId))
+      .setLastModified(0L)
+      .setPhysicalDataset(new PhysicalDataset()
+        .setIcebergMetadata(new IcebergMetadata().setSnapshotId(snapshotId)));
+    final DremioTable table = mock(DremioTable.class);
+    when(table.getPath()).thenReturn(new NamespaceKey(TABLE_KEY));
+    when(table.getDatasetConfig()).thenReturn(datasetConfig);
+    return table;
+  }
+
+  private interface FakeVersionedPlugin extends VersionedPlugin, StoragePlugin {
+  }
+}
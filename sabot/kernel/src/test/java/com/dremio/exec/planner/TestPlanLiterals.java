@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import static org.apache.calcite.sql.fun.SqlStdOperatorTable.AND;
+import static org.apache.calcite.sql.fun.SqlStdOperatorTable.EQUALS;
+import static org.apache.calcite.sql.fun.SqlStdOperatorTable.GREATER_THAN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.hep.HepPlanner;
+import org.apache.calcite.plan.hep.HepProgramBuilder;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.tools.RelBuilder;
+import org.junit.Test;
+
+import com.dremio.exec.planner.cost.DremioCost;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.types.SqlTypeFactoryImpl;
+import com.dremio.options.OptionResolver;
+import com.dremio.test.specs.OptionResolverSpec;
+import com.dremio.test.specs.OptionResolverSpecBuilder;
+
+/**
+ * Tests for {@link PlanLiterals}
+ */
+public class TestPlanLiterals {
+  private static final RelDataTypeFactory typeFactory = SqlTypeFactoryImpl.INSTANCE;
+  private static final RexBuilder rexBuilder = new DremioRexBuilder(typeFactory);
+  private static final RelBuilder relBuilder = makeRelBuilder();
+
+  @Test
+  public void testSameDigestForOtherLiterals() {
+    final PlanLiterals literals = PlanLiterals.of(plan(10, 20));
+    final PlanLiterals otherLiterals = PlanLiterals.of(plan(30, 40));
+    assertEquals(literals.getDigest(), otherLiterals.getDigest());
+    assertEquals("[10, 20]", literals.getLiterals().toString());
+    assertEquals("[30, 40]", otherLiterals.getLiterals().toString());
+  }
+
+  @Test
+  public void testOtherDigestForOtherLiteralTypes() {
+    final RexNode bigint = rexBuilder.makeBigintLiteral(BigDecimal.valueOf(10));
+    final RelNode plan = relBuilder
+      .values(new String[]{"a", "b"}, 1, 2, 3, 4)
+      .filter(rexBuilder.makeCall(AND,
+        rexBuilder.makeCall(EQUALS, relBuilder.field("a"), bigint),
+        rexBuilder.makeCall(GREATER_THAN, relBuilder.field("b"), relBuilder.literal(20))))
+      .build();
+    assertNotEquals(PlanLiterals.of(plan(10, 20)).getDigest(), PlanLiterals.of(plan).getDigest());
+  }
+
+  @Test
+  public void testRebind() {
+    final RelNode plan = plan(10, 20);
+    final RelNode rebound = PlanLiterals.rebind(plan, PlanLiterals.of(plan).getLiterals(),
+      PlanLiterals.of(plan(30, 40)).getLiterals());
+    assertEquals(RelOptUtil.toString(plan(30, 40)), RelOptUtil.toString(rebound));
+  }
+
+  @Test
+  public void testRebindAmbiguousLiteral() {
+    final RelNode plan = plan(10, 10);
+    assertNull(PlanLiterals.rebind(plan, PlanLiterals.of(plan).getLiterals(),
+      PlanLiterals.of(plan(10, 30)).getLiterals()));
+  }
+
+  @Test
+  public void testRebindLiteralUsedElsewhere() {
+    // 3 is also one of the values scanned, which the literals are not rebound in
+    final RelNode plan = plan(3, 20);
+    assertNull(PlanLiterals.rebind(plan, PlanLiterals.of(plan).getLiterals(),
+      PlanLiterals.of(plan(30, 20)).getLiterals()));
+  }
+
+  private static RelNode plan(int a, int b) {
+    relBuilder.values(new String[]{"a", "b"}, 1, 2, 3, 4);
+    return relBuilder
+      .filter(rexBuilder.makeCall(AND,
+        rexBuilder.makeCall(EQUALS, relBuilder.field("a"), relBuilder.literal(a)),
+        rexBuilder.makeCall(GREATER_THAN, relBuilder.field("b"), relBuilder.literal(b))))
+      .build();
+  }
+
+  private static RelBuilder makeRelBuilder() {
+    OptionResolver optionResolver = OptionResolverSpecBuilder.build(new OptionResolverSpec());
+    PlannerSettings context = new PlannerSettings(null, optionResolver, null);
+    RelOptPlanner planner = new HepPlanner(new HepProgramBuilder().build(), context, false,
+      null, new DremioCost.Factory());
+    RelOptCluster cluster = RelOptCluster.create(planner, rexBuilder);
+    return RelBuilder.proto(context).create(cluster, null);
+  }
+}
@@ -79,6 +79,7 @@ public class TestMaterializationList {
 
   @Before
   public void setup() {
+    when(provider.getCandidates(any(), any(), any())).thenCallRealMethod();
     when(desc1.getMaterializationFor(converter)).thenReturn(relOptMat1);
     when(desc1.getLayoutId()).thenReturn("rid-1");
     when(desc1.getLayoutInfo()).thenReturn(Mockito.mock(MaterializationDescriptor.ReflectionInfo.class));
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.physical;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.dremio.PlanTestBase;
+
+/**
+ * Plan tests for the scan a top-n sends its boundary to, see {@link TopNPrel}
+ */
+public class TestTopNThresholdPlan extends PlanTestBase {
+  private static final Pattern THRESHOLD_SCAN_COLUMN = Pattern.compile("\"thresholdScanColumn\"\\s*:\\s*\"([^\"]+)\"");
+  private static final Pattern THRESHOLD_SCAN_OPERATOR = Pattern.compile("\"thresholdScanOperatorId\"\\s*:\\s*\\d+");
+
+  @Test
+  public void testThresholdSentToScan() throws Exception {
+    final String plan = getJsonPlan("SELECT l_orderkey, l_partkey FROM cp.\"tpch/lineitem.parquet\" " +
+      "ORDER BY l_orderkey DESC LIMIT 10");
+    assertEquals("l_orderkey", getThresholdScanColumn(plan));
+    assertTrue(plan, THRESHOLD_SCAN_OPERATOR.matcher(plan).find());
+  }
+
+  @Test
+  public void testThresholdSentThroughRenamingProject() throws Exception {
+    final String plan = getJsonPlan("SELECT l_orderkey AS k FROM cp.\"tpch/lineitem.parquet\" " +
+      "WHERE l_partkey > 10 ORDER BY k LIMIT 10");
+    assertEquals("l_orderkey", getThresholdScanColumn(plan));
+  }
+
+  @Test
+  public void testNoThresholdOnExpression() throws Exception {
+    final String plan = getJsonPlan("SELECT l_orderkey + 1 AS k FROM cp.\"tpch/lineitem.parquet\" " +
+      "ORDER BY k LIMIT 10");
+    assertFalse(plan, THRESHOLD_SCAN_COLUMN.matcher(plan).find());
+  }
+
+  @Test
+  public void testNoThresholdWhenDisabled() throws Exception {
+    setSessionOption(PlannerSettings.ENABLE_TOPN_RUNTIME_FILTER, "false");
+    try {
+      final String plan = getJsonPlan("SELECT l_orderkey FROM cp.\"tpch/lineitem.parquet\" " +
+        "ORDER BY l_orderkey LIMIT 10");
+      assertFalse(plan, THRESHOLD_SCAN_COLUMN.matcher(plan).find());
+    } finally {
+      resetSessionOption(PlannerSettings.ENABLE_TOPN_RUNTIME_FILTER);
+    }
+  }
+
+  private static String getJsonPlan(String query) throws Exception {
+    return getPlanInString("EXPLAIN PLAN FOR " + query, JSON_FORMAT);
+  }
+
+  private static String getThresholdScanColumn(String plan) {
+    final Matcher matcher = THRESHOLD_SCAN_COLUMN.matcher(plan);
+    assertTrue(plan, matcher.find());
+    return matcher.group(1);
+  }
+}
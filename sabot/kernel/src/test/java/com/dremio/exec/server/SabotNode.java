@@ -104,6 +104,7 @@ import com.dremio.sabot.exec.TaskPoolInitializer;
 import com.dremio.sabot.exec.WorkloadTicketDepot;
 import com.dremio.sabot.exec.WorkloadTicketDepotService;
 import com.dremio.sabot.exec.context.ContextInformationFactory;
+import com.dremio.sabot.exec.rpc.ExecutorResultStreams;
 import com.dremio.sabot.op.common.spill.SpillServiceOptionsImpl;
 import com.dremio.sabot.rpc.CoordExecService;
 import com.dremio.sabot.rpc.ExecToCoordResultsHandler;
@@ -463,6 +464,7 @@ public class SabotNode implements AutoCloseable {
         // bind default providers.
         bind(MaterializationDescriptorProvider.class).toInstance(MaterializationDescriptorProvider.EMPTY);
         bind(QueryObserverFactory.class).toInstance(QueryObserverFactory.DEFAULT);
+        bind(ExecutorResultStreams.class).toInstance(ExecutorResultStreams.NONE);
         bind(GrpcChannelBuilderFactory.class).toInstance(
           new SingleTenantGrpcChannelBuilderFactory(TracerFacade.INSTANCE, () -> defaultRequestContext,
             () -> Maps.newHashMap() ));
@@ -679,7 +681,8 @@ public class SabotNode implements AutoCloseable {
             Provider<TaskPool> taskPool,
             Provider<MaestroClientFactory> maestroServiceClientFactoryProvider,
             Provider<JobTelemetryExecutorClientFactory> jobTelemetryClientFactoryProvider,
-            Provider<JobResultsClientFactory> jobResultsSoftwareClientFactoryProvider
+            Provider<JobResultsClientFactory> jobResultsSoftwareClientFactoryProvider,
+            Provider<ExecutorResultStreams> executorResultStreamsProvider
     ) {
       return new FragmentWorkManager(
         bootstrap,
@@ -693,7 +696,8 @@ public class SabotNode implements AutoCloseable {
         taskPool,
         maestroServiceClientFactoryProvider,
         jobTelemetryClientFactoryProvider,
-        jobResultsSoftwareClientFactoryProvider
+        jobResultsSoftwareClientFactoryProvider,
+        executorResultStreamsProvider
       );
     }
 
@@ -28,6 +28,11 @@ import java.util.List;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
 import org.apache.arrow.vector.holders.DecimalHolder;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
@@ -37,7 +42,9 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import com.dremio.common.AutoCloseables;
 import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.store.dfs.implicit.ConstantColumnPopulators;
 import com.dremio.exec.store.dfs.implicit.NameValuePair;
 import com.dremio.exec.store.dfs.implicit.TwosComplementValuePair;
@@ -46,6 +53,15 @@ import com.dremio.exec.util.DecimalUtils;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OpProfileDef;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+import com.dremio.sabot.op.common.ht2.FixedBlockVector;
+import com.dremio.sabot.op.common.ht2.HashTableKeyReader;
+import com.dremio.sabot.op.common.ht2.LBlockHashTable;
+import com.dremio.sabot.op.common.ht2.PivotBuilder;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.Pivots;
+import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.dremio.sabot.op.scan.OutputMutator;
 import com.dremio.sabot.op.scan.ScanOperator;
 import com.dremio.test.AllocatorRule;
 
@@ -304,4 +320,160 @@ public class TestRuntimeFilterEvaluator {
       testRuntimeFilter(keyBuf, 5, Arrays.asList(partitionCol1, partitionCol2), Arrays.asList(pair1, pair2));
     }
   }
+
+  @Test
+  public void testRowFiltersOnCompositeKeys() throws Exception {
+    final List<FieldVector> buildVectors = new ArrayList<>();
+    final List<FieldVector> probeVectors = new ArrayList<>();
+    try (ArrowBuf validityBuf = testAllocator.buffer(8)) {
+      // build keys (1, a), (2, bb)
+      final IntVector buildKey1 = add(buildVectors, new IntVector("b_k1", testAllocator));
+      final VarCharVector buildKey2 = add(buildVectors, new VarCharVector("b_k2", testAllocator));
+      setInts(buildKey1, 1, 2);
+      setStrings(buildKey2, "a", "bb");
+
+      // probe keys (1, a), (1, bb), (2, bb), (3, a)
+      final IntVector probeKey1 = add(probeVectors, new IntVector("p_k1", testAllocator));
+      final VarCharVector probeKey2 = add(probeVectors, new VarCharVector("p_k2", testAllocator));
+      setInts(probeKey1, 1, 1, 2, 3);
+      setStrings(probeKey2, "a", "bb", "bb", "a");
+
+      try (BloomFilter bloomFilter = buildCompositeBloomFilter(buildVectors)) {
+        final OperatorStats stats = new OperatorStats(new OpProfileDef(1, 1, 1), testAllocator);
+        stats.addRuntimeFilterDetailsInScan(Collections.singletonList(UserBitShared.RunTimeFilterDetailsInfoInScan.newBuilder()
+          .setJoinSource("01-02")
+          .addAllProbeFieldNames(Arrays.asList("p_k1", "p_k2"))
+          .build()));
+        final OutputMutator mutator = mock(OutputMutator.class);
+        when(mutator.getVector("p_k1")).thenReturn(probeKey1);
+        when(mutator.getVector("p_k2")).thenReturn(probeKey2);
+
+        try (RuntimeFilterEvaluator filterEvaluator = new RuntimeFilterEvaluator(testAllocator, stats, options(),
+          compositeRuntimeFilter(bloomFilter, buildVectors))) {
+          Assert.assertTrue(filterEvaluator.setupRowFilters(mutator));
+
+          validityBuf.setOne(0, 8);
+          // assumes the bloom filter doesn't return false positives for the two keys missing from the build side
+          Assert.assertEquals(2, filterEvaluator.filterRows(4, validityBuf));
+          Assert.assertEquals(1, BitVectorHelper.get(validityBuf, 0));
+          Assert.assertEquals(0, BitVectorHelper.get(validityBuf, 1));
+          Assert.assertEquals(1, BitVectorHelper.get(validityBuf, 2));
+          Assert.assertEquals(0, BitVectorHelper.get(validityBuf, 3));
+          Assert.assertEquals(2L, stats.getLongStat(ScanOperator.Metric.NUM_ROWS_PRUNED_BY_RUNTIME_FILTER));
+
+          stats.setScanRuntimeFilterDetailsInProfile();
+          Assert.assertEquals(2L, stats.getProfileDetails().getRuntimefilterDetailsInfosInScan(0).getRowsPruned());
+        }
+      }
+    } finally {
+      AutoCloseables.close(buildVectors, probeVectors);
+    }
+  }
+
+  @Test
+  public void testRowFiltersDroppedOnTypeMismatch() throws Exception {
+    final List<FieldVector> buildVectors = new ArrayList<>();
+    final List<FieldVector> probeVectors = new ArrayList<>();
+    try {
+      final IntVector buildKey1 = add(buildVectors, new IntVector("b_k1", testAllocator));
+      final IntVector buildKey2 = add(buildVectors, new IntVector("b_k2", testAllocator));
+      setInts(buildKey1, 1);
+      setInts(buildKey2, 2);
+
+      // the first probe column was not cast to the type of the build key
+      final BigIntVector probeKey1 = add(probeVectors, new BigIntVector("p_k1", testAllocator));
+      final IntVector probeKey2 = add(probeVectors, new IntVector("p_k2", testAllocator));
+
+      try (BloomFilter bloomFilter = buildCompositeBloomFilter(buildVectors)) {
+        final OperatorStats stats = new OperatorStats(new OpProfileDef(1, 1, 1), testAllocator);
+        final OutputMutator mutator = mock(OutputMutator.class);
+        when(mutator.getVector("p_k1")).thenReturn(probeKey1);
+        when(mutator.getVector("p_k2")).thenReturn(probeKey2);
+
+        try (RuntimeFilterEvaluator filterEvaluator = new RuntimeFilterEvaluator(testAllocator, stats, options(),
+          compositeRuntimeFilter(bloomFilter, buildVectors))) {
+          Assert.assertFalse(filterEvaluator.setupRowFilters(mutator));
+          Assert.assertEquals(1L, stats.getLongStat(ScanOperator.Metric.RUNTIME_COL_FILTER_DROP_COUNT));
+        }
+      }
+    } finally {
+      AutoCloseables.close(buildVectors, probeVectors);
+    }
+  }
+
+  private static OptionManager options() {
+    final OptionManager options = mock(OptionManager.class);
+    when(options.getOption(ExecConstants.RUNTIME_FILTER_KEY_MAX_SIZE)).thenReturn(32L);
+    return options;
+  }
+
+  private static <T extends FieldVector> T add(List<FieldVector> vectors, T vector) {
+    vectors.add(vector);
+    return vector;
+  }
+
+  private static void setInts(IntVector vector, int... values) {
+    vector.allocateNew(values.length);
+    for (int i = 0; i < values.length; i++) {
+      vector.setSafe(i, values[i]);
+    }
+    vector.setValueCount(values.length);
+  }
+
+  private static void setStrings(VarCharVector vector, String... values) {
+    vector.allocateNew(values.length);
+    for (int i = 0; i < values.length; i++) {
+      vector.setSafe(i, values[i].getBytes(StandardCharsets.UTF_8));
+    }
+    vector.setValueCount(values.length);
+  }
+
+  /**
+   * Inserts the keys in a bloom filter the way the join does, loading them from the pivoted build keys.
+   */
+  private BloomFilter buildCompositeBloomFilter(List<FieldVector> buildVectors) throws Exception {
+    final List<FieldVectorPair> pairs = new ArrayList<>();
+    final List<String> names = new ArrayList<>();
+    for (FieldVector vector : buildVectors) {
+      pairs.add(new FieldVectorPair(vector, vector));
+      names.add(vector.getName());
+    }
+    final PivotDef pivotDef = PivotBuilder.getBlockDefinition(pairs);
+    final int records = buildVectors.get(0).getValueCount();
+    final BloomFilter bloomFilter = new BloomFilter(testAllocator, TEST_NAME, 512);
+    try (FixedBlockVector fixed = new FixedBlockVector(testAllocator, pivotDef.getBlockWidth());
+         VariableBlockVector variable = new VariableBlockVector(testAllocator, pivotDef.getVariableCount());
+         HashTableKeyReader keyReader = new HashTableKeyReader.Builder()
+           .setBufferAllocator(testAllocator)
+           .setFieldsToRead(names)
+           .setPivot(pivotDef)
+           .setMaxKeySize(32)
+           .build()) {
+      bloomFilter.setup();
+      Pivots.pivot(pivotDef, records, fixed, variable);
+      for (int i = 0; i < records; i++) {
+        final long fixedAddr = fixed.getMemoryAddress() + (long) i * pivotDef.getBlockWidth();
+        final long varAddr = pivotDef.getVariableCount() == 0 ? 0 : variable.getMemoryAddress() +
+          fixed.getBuf().getInt((long) i * pivotDef.getBlockWidth() + pivotDef.getBlockWidth() - LBlockHashTable.VAR_OFFSET_SIZE);
+        keyReader.loadNextKey(fixedAddr, varAddr);
+        bloomFilter.put(keyReader.getKeyHolder(), keyReader.getKeyBufSize());
+      }
+    }
+    return bloomFilter;
+  }
+
+  private static RuntimeFilter compositeRuntimeFilter(BloomFilter bloomFilter, List<FieldVector> buildVectors) {
+    final List<String> columnTypes = new ArrayList<>();
+    for (FieldVector vector : buildVectors) {
+      columnTypes.add(vector.getField().getType().toString());
+    }
+    final CompositeColumnFilter compositeFilter = new CompositeColumnFilter.Builder()
+      .setColumnsList(Arrays.asList("p_k1", "p_k2"))
+      .setColumnTypesList(columnTypes)
+      .setBloomFilter(bloomFilter)
+      .setFilterType(CompositeColumnFilter.RuntimeFilterType.BLOOM_FILTER)
+      .build();
+    return new RuntimeFilter(null, Collections.emptyList(), Collections.singletonList(compositeFilter), "", "01-02",
+      Collections.emptyList());
+  }
 }
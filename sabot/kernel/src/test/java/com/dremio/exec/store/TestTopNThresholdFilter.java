@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.dremio.exec.proto.ExecProtos;
+
+/**
+ * Tests for {@link TopNThresholdFilter}
+ */
+public class TestTopNThresholdFilter {
+
+  @Test
+  public void testAscending() {
+    final TopNThresholdFilter filter = TopNThresholdFilter.getInstance(threshold(true, false, false).setLongValue(100).build());
+    assertTrue(filter.canSkip(100L, 200L, false));
+    assertTrue(filter.canSkip(101L, 200L, true));
+    assertFalse(filter.canSkip(99L, 200L, false));
+    // the stats and the boundary must be of the same type
+    assertFalse(filter.canSkip(101.0d, 200.0d, false));
+  }
+
+  @Test
+  public void testDescendingWithTies() {
+    final TopNThresholdFilter filter = TopNThresholdFilter.getInstance(threshold(false, true, true).setDoubleValue(10.5d).build());
+    assertTrue(filter.canSkip(1.0d, 10.0d, false));
+    assertFalse(filter.canSkip(1.0d, 10.5d, false));
+    // nulls sort before the boundary
+    assertFalse(filter.canSkip(1.0d, 10.0d, true));
+  }
+
+  @Test
+  public void testUpdateOnlyTightens() {
+    final TopNThresholdFilter filter = TopNThresholdFilter.getInstance(threshold(true, false, false).setLongValue(100).build());
+    filter.update(threshold(true, false, false).setLongValue(200).build());
+    assertEquals(100L, filter.getBoundary());
+    filter.update(threshold(true, false, false).setLongValue(50).build());
+    assertEquals(50L, filter.getBoundary());
+    assertTrue(filter.canSkip(60L, 70L, false));
+  }
+
+  private static ExecProtos.TopNThreshold.Builder threshold(boolean ascending, boolean nullsFirst, boolean tiesQualify) {
+    return ExecProtos.TopNThreshold.newBuilder()
+      .setColumn("c0")
+      .setAscending(ascending)
+      .setNullsFirst(nullsFirst)
+      .setTiesQualify(tiesQualify);
+  }
+}
@@ -16,19 +16,33 @@
 package com.dremio.exec.store.arrow;
 
 import static com.dremio.TestBuilder.mapOf;
+import static org.junit.Assert.assertEquals;
 
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.hadoop.conf.Configuration;
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import com.dremio.PlanTestBase;
+import com.dremio.common.expression.SchemaPath;
 import com.dremio.exec.ExecConstants;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.server.SabotContext;
+import com.dremio.exec.store.TestOutputMutator;
 import com.dremio.exec.store.easy.arrow.ArrowFormatPlugin;
+import com.dremio.exec.store.easy.arrow.ArrowRecordReader;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Resources;
 
 /**
  * Tests for {@link ArrowFormatPlugin}
@@ -132,6 +146,41 @@ public class TestArrowFormatPlugin extends PlanTestBase {
     }
   }
 
+  @Test
+  public void splitsReadEachBatchOnce() throws Exception {
+    final Path path = Path.of(Resources.getResource("store/arrow/orders/0_0_0.dremarrow1").toURI());
+    final SabotContext sabotContext = getSabotContext();
+    try (FileSystem fs = HadoopFileSystem.getLocal(new Configuration());
+         BufferAllocator allocator = getAllocator().newChildAllocator("test-arrow-splits", 0, Long.MAX_VALUE);
+         OperatorContextImpl context = new OperatorContextImpl(sabotContext.getConfig(), sabotContext.getDremioConfig(),
+           allocator, sabotContext.getOptionManager(), 4095, sabotContext.getExpressionSplitCache())) {
+      final long size = fs.getFileAttributes(path).size();
+      assertEquals(15000, readRecords(context, fs, path, 0, size));
+      for (long splitSize : new long[] {size / 7, size / 3, size / 2}) {
+        long records = 0;
+        for (long start = 0; start < size; start += splitSize) {
+          records += readRecords(context, fs, path, start, Math.min(splitSize, size - start));
+        }
+        assertEquals("split size " + splitSize, 15000, records);
+      }
+    }
+  }
+
+  private static long readRecords(OperatorContext context, FileSystem fs, Path path, long start, long length) throws Exception {
+    long records = 0;
+    try (TestOutputMutator mutator = new TestOutputMutator(context.getAllocator());
+         ArrowRecordReader reader = new ArrowRecordReader(context, fs, path,
+           ImmutableList.of(SchemaPath.getSimplePath("o_orderkey")))) {
+      reader.setSplit(start, length);
+      reader.setup(mutator);
+      int count;
+      while ((count = reader.next()) > 0) {
+        records += count;
+      }
+    }
+    return records;
+  }
+
   @Test
   public void complexProjectPushdown() throws Exception {
     File tmpFile = tmp.newFile("complexPpd.json");
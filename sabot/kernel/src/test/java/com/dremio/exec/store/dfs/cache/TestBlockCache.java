@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.exec.work.CacheManagerFilesInfo;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.file.Path;
+import com.dremio.test.AllocatorRule;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Tests for {@link BlockCache}
+ */
+public class TestBlockCache {
+  private static final int BLOCK_SIZE = 1024;
+  private static final byte[] DATA = new byte[10 * BLOCK_SIZE + 100];
+
+  static {
+    for (int i = 0; i < DATA.length; i++) {
+      DATA[i] = (byte) (i * 31);
+    }
+  }
+
+  @Rule
+  public final TemporaryFolder tempDir = new TemporaryFolder();
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+  private BlockCache cache;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-block-cache", 0, Long.MAX_VALUE);
+    cache = new BlockCache("localhost", tempDir.getRoot().toPath(), BLOCK_SIZE, 1024 * BLOCK_SIZE, allocator);
+    cache.registerStorage("s3", 100);
+  }
+
+  @After
+  public void teardown() throws Exception {
+    cache.close();
+    allocator.close();
+  }
+
+  /**
+   * Reads from an in memory array, optionally holding reads until released.
+   */
+  private static class InMemoryReader implements AsyncByteReader {
+    private final AtomicInteger numReads = new AtomicInteger();
+    private final List<Runnable> heldReads = new CopyOnWriteArrayList<>();
+    private volatile boolean holdReads;
+
+    @Override
+    public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+      numReads.incrementAndGet();
+      final CompletableFuture<Void> future = new CompletableFuture<>();
+      final Runnable read = () -> {
+        dst.setBytes(dstOffset, DATA, (int) offset, len);
+        future.complete(null);
+      };
+      if (holdReads) {
+        heldReads.add(read);
+      } else {
+        read.run();
+      }
+      return future;
+    }
+
+    void release() {
+      holdReads = false;
+      heldReads.forEach(Runnable::run);
+    }
+  }
+
+  private CachingAsyncByteReader newReader(AsyncByteReader source, String storageId) {
+    final AsyncByteReader.FileKey fileKey = AsyncByteReader.FileKey.of(Path.of("/bucket/file.parquet"), "1",
+      AsyncByteReader.FileKey.FileType.PARQUET);
+    return new CachingAsyncByteReader(source, cache, cache.getFile(storageId, fileKey), () -> DATA.length, null);
+  }
+
+  private static byte[] read(AsyncByteReader reader, long offset, int len) throws Exception {
+    final ByteBuf buf = Unpooled.buffer(len);
+    try {
+      reader.readFully(offset, buf, 0, len).get(10, TimeUnit.SECONDS);
+      final byte[] bytes = new byte[len];
+      buf.getBytes(0, bytes);
+      return bytes;
+    } finally {
+      buf.release();
+    }
+  }
+
+  private static byte[] expected(int offset, int len) {
+    final byte[] bytes = new byte[len];
+    System.arraycopy(DATA, offset, bytes, 0, len);
+    return bytes;
+  }
+
+  @Test
+  public void testReadsAcrossBlocks() throws Exception {
+    final InMemoryReader source = new InMemoryReader();
+    final CachingAsyncByteReader reader = newReader(source, "s3");
+
+    assertArrayEquals(expected(1000, 3000), read(reader, 1000, 3000));
+    // blocks 0 to 3 were read from the source
+    assertEquals(4, source.numReads.get());
+    assertEquals(4, cache.getNumBlocks());
+
+    assertArrayEquals(expected(1500, 2000), read(reader, 1500, 2000));
+    // the last, partial, block
+    assertArrayEquals(expected(DATA.length - 50, 50), read(reader, DATA.length - 50, 50));
+    assertEquals(5, source.numReads.get());
+    assertEquals(4 * BLOCK_SIZE + 100, cache.getUsedBytes());
+    assertEquals(3, cache.getHits());
+  }
+
+  @Test
+  public void testConcurrentMissesAreCoalesced() throws Exception {
+    final InMemoryReader source = new InMemoryReader();
+    source.holdReads = true;
+    final CachingAsyncByteReader reader1 = newReader(source, "s3");
+    final CachingAsyncByteReader reader2 = newReader(source, "s3");
+
+    final ByteBuf buf1 = Unpooled.buffer(100);
+    final ByteBuf buf2 = Unpooled.buffer(200);
+    try {
+      final CompletableFuture<Void> read1 = reader1.readFully(10, buf1, 0, 100);
+      final CompletableFuture<Void> read2 = reader2.readFully(300, buf2, 0, 200);
+      source.release();
+      CompletableFuture.allOf(read1, read2).get(10, TimeUnit.SECONDS);
+
+      assertEquals(1, source.numReads.get());
+      final byte[] bytes = new byte[200];
+      buf2.getBytes(0, bytes);
+      assertArrayEquals(expected(300, 200), bytes);
+    } finally {
+      buf1.release();
+      buf2.release();
+    }
+  }
+
+  @Test
+  public void testRejectedWriteReadsFromSource() throws Exception {
+    cache.close();
+    final ExecutorService writers = Executors.newSingleThreadExecutor();
+    writers.shutdown();
+    cache = new BlockCache("localhost", tempDir.getRoot().toPath(), BLOCK_SIZE, 1024 * BLOCK_SIZE, allocator, writers);
+    final InMemoryReader source = new InMemoryReader();
+    final CachingAsyncByteReader reader = newReader(source, "s3");
+
+    assertArrayEquals(expected(100, 200), read(reader, 100, 200));
+    assertEquals(0, cache.getNumBlocks());
+    // the block and the requested range
+    assertEquals(2, source.numReads.get());
+    // the staging buffer of the block was released, and a new miss populates the block again
+    assertEquals(0, allocator.getAllocatedMemory());
+    assertArrayEquals(expected(100, 200), read(reader, 100, 200));
+    assertEquals(4, source.numReads.get());
+  }
+
+  @Test
+  public void testFailedSourceReadFailsWaitingReaders() throws Exception {
+    final AsyncByteReader source = (offset, dst, dstOffset, len) -> {
+      throw new IllegalStateException("source is gone");
+    };
+    final CachingAsyncByteReader reader = newReader(source, "s3");
+
+    final ByteBuf buf = Unpooled.buffer(100);
+    try {
+      final CompletableFuture<Void> read = reader.readFully(10, buf, 0, 100);
+      final ExecutionException e = assertThrows(ExecutionException.class, () -> read.get(10, TimeUnit.SECONDS));
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    } finally {
+      buf.release();
+    }
+    assertEquals(0, cache.getNumBlocks());
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() throws Exception {
+    cache.close();
+    cache = new BlockCache("localhost", tempDir.getRoot().toPath(), BLOCK_SIZE, 4 * BLOCK_SIZE, allocator);
+    final InMemoryReader source = new InMemoryReader();
+    final CachingAsyncByteReader reader = newReader(source, "s3");
+
+    read(reader, 0, BLOCK_SIZE);
+    for (int i = 1; i < 5; i++) {
+      // keep the first block hot
+      read(reader, (long) i * BLOCK_SIZE, BLOCK_SIZE);
+      read(reader, 0, BLOCK_SIZE);
+    }
+    assertTrue(cache.getUsedBytes() <= cache.getMaxBytes());
+
+    final int numReads = source.numReads.get();
+    assertArrayEquals(expected(0, BLOCK_SIZE), read(reader, 0, BLOCK_SIZE));
+    assertEquals(numReads, source.numReads.get());
+  }
+
+  @Test
+  public void testStorageSpaceLimit() throws Exception {
+    cache.close();
+    cache = new BlockCache("localhost", tempDir.getRoot().toPath(), BLOCK_SIZE, 400 * BLOCK_SIZE, allocator);
+    cache.registerStorage("limited", 1);
+    final CachingAsyncByteReader reader = newReader(new InMemoryReader(), "limited");
+
+    // 1% of the cache is 4 blocks
+    assertArrayEquals(expected(0, DATA.length), read(reader, 0, DATA.length));
+    assertTrue(cache.getUsedBytes() <= 4 * BLOCK_SIZE);
+    assertTrue(cache.getNumBlocks() > 0);
+
+    final List<CacheManagerFilesInfo> files = cache.getCachedFilesStats();
+    assertEquals(cache.getNumBlocks(), files.size());
+    assertEquals("limited", files.get(0).plugin);
+    assertEquals(1, cache.getStoragePluginStats().stream().filter(s -> s.storage_plugin_name.equals("limited")).count());
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedUntilLowWatermark() throws Exception {
+    cache.close();
+    cache = new BlockCache("localhost", tempDir.getRoot().toPath(), BLOCK_SIZE, 10 * BLOCK_SIZE, allocator);
+    final InMemoryReader source = new InMemoryReader();
+    final CachingAsyncByteReader reader = newReader(source, "s3");
+
+    for (int i = 0; i < 10; i++) {
+      read(reader, (long) i * BLOCK_SIZE, BLOCK_SIZE);
+    }
+    // the last, partial, block goes over the limit, only the two least recently used blocks are evicted
+    read(reader, 10L * BLOCK_SIZE, 100);
+    assertEquals(9, cache.getNumBlocks());
+    assertEquals(8 * BLOCK_SIZE + 100, cache.getUsedBytes());
+
+    final int numReads = source.numReads.get();
+    assertArrayEquals(expected(2 * BLOCK_SIZE, BLOCK_SIZE), read(reader, 2 * BLOCK_SIZE, BLOCK_SIZE));
+    assertEquals(numReads, source.numReads.get());
+    assertArrayEquals(expected(BLOCK_SIZE, BLOCK_SIZE), read(reader, BLOCK_SIZE, BLOCK_SIZE));
+    assertEquals(numReads + 1, source.numReads.get());
+  }
+
+  @Test
+  public void testBlocksStagedInAllocator() throws Exception {
+    final CachingAsyncByteReader reader = newReader(new InMemoryReader(), "s3");
+
+    assertArrayEquals(expected(0, 3 * BLOCK_SIZE), read(reader, 0, 3 * BLOCK_SIZE));
+    assertEquals(3, cache.getNumBlocks());
+    // the buffers are released once the blocks are written
+    assertTrue(allocator.getPeakMemoryAllocation() >= BLOCK_SIZE);
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void testReadsFromSourceWhenAllocatorIsFull() throws Exception {
+    cache.close();
+    allocator.close();
+    allocator = allocatorRule.newAllocator("test-block-cache-limited", 0, BLOCK_SIZE / 2);
+    cache = new BlockCache("localhost", tempDir.getRoot().toPath(), BLOCK_SIZE, 1024 * BLOCK_SIZE, allocator);
+    final InMemoryReader source = new InMemoryReader();
+    final CachingAsyncByteReader reader = newReader(source, "s3");
+
+    // no block can be staged, the requested ranges are read from the source
+    assertArrayEquals(expected(1000, 3000), read(reader, 1000, 3000));
+    assertEquals(4, source.numReads.get());
+    assertEquals(0, cache.getNumBlocks());
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.BaseTestQuery;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.hadoop.HadoopCompressionCodecFactory;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.server.SabotContext;
+import com.dremio.exec.store.TestOutputMutator;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link JSONRecordReader} reading newline-delimited files in splits
+ */
+public class TestJSONRecordReaderSplits extends BaseTestQuery {
+  private static final int RECORD_COUNT = 1000;
+
+  @Rule
+  public final TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void splitsReadEachRecordOnce() throws Exception {
+    final File file = tmp.newFile("records.json");
+    final List<Long> expected = new ArrayList<>();
+    try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+      for (int i = 0; i < RECORD_COUNT; i++) {
+        // records of varying lengths, so that splits end anywhere within a line
+        writer.print("{\"id\": " + i + ", \"name\": \"" + repeat('x', i % 37) + "\", \"nested\": {\"a\": [1, 2]}}\n");
+        expected.add((long) i);
+      }
+    }
+
+    final Path path = Path.of(file.getAbsolutePath());
+    final SabotContext sabotContext = getSabotContext();
+    try (FileSystem fs = HadoopFileSystem.getLocal(new Configuration());
+         BufferAllocator allocator = getAllocator().newChildAllocator("test-json-splits", 0, Long.MAX_VALUE);
+         OperatorContextImpl context = new OperatorContextImpl(sabotContext.getConfig(), sabotContext.getDremioConfig(),
+           allocator, sabotContext.getOptionManager(), 4095, sabotContext.getExpressionSplitCache())) {
+      final long size = fs.getFileAttributes(path).size();
+      assertEquals(expected, readIds(context, fs, path, 0, size));
+      for (long splitSize : new long[] {1, 10, 61, size / 7, size / 2, size - 1}) {
+        final List<Long> ids = new ArrayList<>();
+        for (long start = 0; start < size; start += splitSize) {
+          ids.addAll(readIds(context, fs, path, start, Math.min(splitSize, size - start)));
+        }
+        assertEquals("split size " + splitSize, expected, ids);
+      }
+    }
+  }
+
+  @Test
+  public void lastLineReadPastEndOfSplit() throws Exception {
+    final File file = tmp.newFile("lines.json");
+    try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+      writer.print("{\"id\": 1}\n{\"id\": 2}\n");
+    }
+
+    final Path path = Path.of(file.getAbsolutePath());
+    final SabotContext sabotContext = getSabotContext();
+    try (FileSystem fs = HadoopFileSystem.getLocal(new Configuration());
+         BufferAllocator allocator = getAllocator().newChildAllocator("test-json-splits", 0, Long.MAX_VALUE);
+         OperatorContextImpl context = new OperatorContextImpl(sabotContext.getConfig(), sabotContext.getDremioConfig(),
+           allocator, sabotContext.getOptionManager(), 4095, sabotContext.getExpressionSplitCache())) {
+      final long size = fs.getFileAttributes(path).size();
+      // the second line starts within the first split, and is read by it
+      assertEquals(ImmutableList.of(1L, 2L), readIds(context, fs, path, 0, 1 + size / 2));
+      assertEquals(ImmutableList.of(), readIds(context, fs, path, 1 + size / 2, size - 1 - size / 2));
+    }
+  }
+
+  private static List<Long> readIds(OperatorContext context, FileSystem fs, Path path, long start, long length) throws Exception {
+    final List<Long> ids = new ArrayList<>();
+    try (TestOutputMutator mutator = new TestOutputMutator(context.getAllocator());
+         JSONRecordReader reader = new JSONRecordReader(context, path.toString(), HadoopCompressionCodecFactory.DEFAULT, fs,
+           ImmutableList.of(SchemaPath.getSimplePath("id")))) {
+      reader.setSplit(start, length);
+      reader.setup(mutator);
+      int count;
+      while ((count = reader.next()) > 0) {
+        final BigIntVector vector = (BigIntVector) mutator.getVector("id");
+        for (int i = 0; i < count; i++) {
+          ids.add(vector.get(i));
+        }
+      }
+    }
+    return ids;
+  }
+
+  private static String repeat(char c, int count) {
+    final StringBuilder builder = new StringBuilder(count);
+    for (int i = 0; i < count; i++) {
+      builder.append(c);
+    }
+    return builder.toString();
+  }
+}
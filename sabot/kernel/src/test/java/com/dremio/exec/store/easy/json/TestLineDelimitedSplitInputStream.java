@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.io.ArrowBufFSInputStream;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for {@link LineDelimitedSplitInputStream}
+ */
+public class TestLineDelimitedSplitInputStream {
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setupAllocator() {
+    allocator = allocatorRule.newAllocator("test-line-delimited-split", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void closeAllocator() {
+    allocator.close();
+  }
+
+  @Test
+  public void testSplitsReadEachLineOnce() throws IOException {
+    final String content = "{\"a\": 1}\n{\"a\": 22}\n\n{\"a\": 333}\r\n{\"a\": 4444}\n";
+    for (int splitSize = 1; splitSize <= content.length(); splitSize++) {
+      assertEquals("split size " + splitSize, content, readSplits(content, splitSize));
+    }
+  }
+
+  @Test
+  public void testSplitsWithoutTrailingNewline() throws IOException {
+    final String content = "{\"a\": 1}\n{\"a\": 22}\n{\"a\": 333}";
+    for (int splitSize = 1; splitSize <= content.length(); splitSize++) {
+      assertEquals("split size " + splitSize, content, readSplits(content, splitSize));
+    }
+  }
+
+  @Test
+  public void testSplitStartingOnLine() throws IOException {
+    final String content = "{\"a\": 1}\n{\"a\": 22}\n{\"a\": 333}\n";
+    // the second line starts at 9, and the third one at 19
+    assertEquals("{\"a\": 1}\n", readSplit(content, 0, 9));
+    assertEquals("{\"a\": 22}\n", readSplit(content, 9, 10));
+    assertEquals("{\"a\": 22}\n{\"a\": 333}\n", readSplit(content, 9, 11));
+    assertEquals("", readSplit(content, 10, 9));
+  }
+
+  @Test
+  public void testWholeFile() throws IOException {
+    final String content = "{\"a\": 1}\n{\"a\": 22}\n";
+    assertEquals(content, readSplit(content, 0, Long.MAX_VALUE));
+  }
+
+  private String readSplits(String content, int splitSize) throws IOException {
+    final StringBuilder result = new StringBuilder();
+    for (int start = 0; start < content.length(); start += splitSize) {
+      result.append(readSplit(content, start, Math.min(splitSize, content.length() - start)));
+    }
+    return result.toString();
+  }
+
+  private String readSplit(String content, long start, long length) throws IOException {
+    final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    final ArrowBuf buf = allocator.buffer(bytes.length);
+    buf.setBytes(0, bytes);
+    buf.writerIndex(bytes.length);
+    // closing the stream releases the buffer
+    try (InputStream stream = new LineDelimitedSplitInputStream(new ArrowBufFSInputStream(buf), start, length)) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      // mix single byte and bulk reads
+      final byte[] chunk = new byte[3];
+      int b = stream.read();
+      while (b != -1) {
+        out.write(b);
+        final int read = stream.read(chunk, 0, chunk.length);
+        if (read == -1) {
+          break;
+        }
+        out.write(chunk, 0, read);
+        b = stream.read();
+      }
+      return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+}
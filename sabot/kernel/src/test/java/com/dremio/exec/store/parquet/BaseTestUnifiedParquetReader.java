@@ -214,7 +214,7 @@ public class BaseTestUnifiedParquetReader extends BaseTestOperator {
     return reader;
   }
 
-  private InputStreamProvider createInputStreamProvider(
+  protected InputStreamProvider createInputStreamProvider(
       Path path,
       FileAttributes fileAttributes,
       int rowGroupIndex,
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.page.DataPage;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.CodecFactory;
+import org.apache.parquet.hadoop.ColumnChunkIncReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.parquet.reader.ParquetDirectByteBufferAllocator;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.test.AllocatorRule;
+import com.google.common.io.Resources;
+
+/**
+ * Tests for {@link CoalescedRangeStreamProvider}
+ */
+public class TestCoalescedRangeStreamProvider {
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setupAllocator() {
+    allocator = allocatorRule.newAllocator("test-coalesced-range-stream-provider", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void closeAllocator() {
+    allocator.close();
+  }
+
+  @Test
+  public void testCoalesce() {
+    final ColumnChunkMetaData a = column(100, 50);
+    final ColumnChunkMetaData b = column(160, 40);
+    final ColumnChunkMetaData c = column(1000, 10);
+    final ColumnChunkMetaData d = column(1010, 500);
+
+    final List<CoalescedRangeStreamProvider.ReadRange> ranges =
+      CoalescedRangeStreamProvider.coalesce(Arrays.asList(d, c, b, a), 10, 1024);
+    assertEquals(2, ranges.size());
+    assertEquals(100, ranges.get(0).getStart());
+    assertEquals(200, ranges.get(0).getEnd());
+    assertEquals(Arrays.asList(a, b), ranges.get(0).getColumns());
+    assertEquals(1000, ranges.get(1).getStart());
+    assertEquals(1510, ranges.get(1).getEnd());
+
+    // the size limit keeps the last chunk in a range of its own
+    assertEquals(3, CoalescedRangeStreamProvider.coalesce(Arrays.asList(a, b, c, d), 10, 100).size());
+    // no gap allowed
+    assertEquals(3, CoalescedRangeStreamProvider.coalesce(Arrays.asList(a, b, c, d), 0, 1024).size());
+  }
+
+  @Test
+  public void testReadColumns() throws Exception {
+    final byte[] file = new byte[2048];
+    for (int i = 0; i < file.length; i++) {
+      file[i] = (byte) i;
+    }
+    final int[] requests = {0};
+    final AsyncByteReader reader = (offset, dst, dstOffset, len) -> {
+      requests[0]++;
+      dst.setBytes(dstOffset, file, (int) offset, len);
+      return CompletableFuture.completedFuture(null);
+    };
+
+    final OperatorContext context = mock(OperatorContext.class);
+    when(context.getAllocator()).thenReturn(allocator);
+    final ColumnChunkMetaData a = column(100, 50);
+    final ColumnChunkMetaData b = column(160, 40);
+    final ColumnChunkMetaData c = column(1000, 10);
+    final ParquetReaderStats stats = new ParquetReaderStats();
+
+    try (CoalescedRangeStreamProvider provider = new CoalescedRangeStreamProvider(mock(FileSystem.class),
+        Path.of("/tmp/test.parquet"), file.length, -1, null, 1024, null, context, false,
+        ParquetFilters.NONE, ParquetFilterCreator.DEFAULT, reader, 10, 1024)) {
+      provider.planColumnReads(Arrays.asList(c, b, a), stats);
+      assertEquals(2, requests[0]);
+      assertEquals(2, stats.numRangeReads);
+      assertEquals(110, stats.totalRangeReadBytes);
+      assertEquals(10, stats.totalRangeOverReadBytes);
+
+      for (ColumnChunkMetaData column : Arrays.asList(a, b, c)) {
+        try (BulkInputStream stream = provider.getStream(column)) {
+          stream.seek(column.getStartingPos());
+          final byte[] actual = new byte[(int) column.getTotalSize()];
+          stream.readFully(actual, 0, actual.length);
+          assertArrayEquals(Arrays.copyOfRange(file, (int) column.getStartingPos(),
+            (int) (column.getStartingPos() + column.getTotalSize())), actual);
+          assertEquals(column.getStartingPos() + column.getTotalSize(), stream.getPos());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testReadRowGroupsThroughPageReaders() throws Exception {
+    final File file = new File(Resources.getResource("parquet/50-rowgroups.parquet").toURI());
+    final byte[] bytes = Files.readAllBytes(file.toPath());
+    final AsyncByteReader reader = (offset, dst, dstOffset, len) -> {
+      dst.setBytes(dstOffset, bytes, (int) offset, len);
+      return CompletableFuture.completedFuture(null);
+    };
+    final Configuration conf = new Configuration();
+    final ParquetMetadata footer = ParquetFileReader.readFooter(conf,
+      new org.apache.hadoop.fs.Path(file.toURI()), ParquetMetadataConverter.NO_FILTER);
+    final List<ColumnDescriptor> descriptors = footer.getFileMetaData().getSchema().getColumns();
+    assertTrue(footer.getBlocks().size() > 1);
+
+    final OperatorContext context = mock(OperatorContext.class);
+    when(context.getAllocator()).thenReturn(allocator);
+    final CompressionCodecFactory codec =
+      CodecFactory.createDirectCodecFactory(conf, new ParquetDirectByteBufferAllocator(allocator), 0);
+    final ParquetReaderStats stats = new ParquetReaderStats();
+    final Path path = Path.of(file.toURI());
+    long values = 0;
+    long expectedValues = 0;
+    try (CoalescedRangeStreamProvider provider = new CoalescedRangeStreamProvider(mock(FileSystem.class), path,
+        bytes.length, -1, null, 1024, null, context, false, ParquetFilters.NONE, ParquetFilterCreator.DEFAULT,
+        reader, 1024, 1024 * 1024)) {
+      // a reader per row group, like the rowise reader: the page readers never close their streams
+      for (BlockMetaData block : footer.getBlocks()) {
+        final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+        for (ColumnChunkMetaData chunk : block.getColumns()) {
+          chunks.put(chunk.getPath(), chunk);
+          expectedValues += chunk.getValueCount();
+        }
+        provider.planColumnReads(chunks.values(), stats);
+
+        final ColumnChunkIncReadStore store =
+          new ColumnChunkIncReadStore(block.getRowCount(), codec, allocator, path, provider);
+        for (ColumnDescriptor descriptor : descriptors) {
+          store.addColumn(descriptor, chunks.get(ColumnPath.get(descriptor.getPath())));
+        }
+        for (ColumnDescriptor descriptor : descriptors) {
+          final PageReader pageReader = store.getPageReader(descriptor);
+          pageReader.readDictionaryPage();
+          for (DataPage page = pageReader.readPage(); page != null; page = pageReader.readPage()) {
+            values += page.getValueCount();
+          }
+        }
+        store.close();
+      }
+    } finally {
+      codec.release();
+    }
+
+    assertEquals(expectedValues, values);
+    assertEquals(footer.getBlocks().size(), stats.numRangeReads);
+    // closing the allocator in closeAllocator() fails if a range buffer leaked
+  }
+
+  private static ColumnChunkMetaData column(long start, long size) {
+    final ColumnChunkMetaData column = mock(ColumnChunkMetaData.class);
+    when(column.getStartingPos()).thenReturn(start);
+    when(column.getTotalSize()).thenReturn(size);
+    return column;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.SNAPPY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.parquet.column.statistics.IntStatistics;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.Test;
+
+import com.dremio.io.file.Path;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link ParquetFooterCache}
+ */
+public class TestParquetFooterCache {
+  private static final MessageType SCHEMA = MessageTypeParser.parseMessageType(
+    "message test { required int32 a; required int32 b; required int32 c; }");
+  private static final Function<MessageType, Set<String>> ALL_COLUMNS = schema -> null;
+
+  private static ParquetMetadata footer(int numRowGroups) {
+    final List<BlockMetaData> blocks = new ArrayList<>();
+    for (int i = 0; i < numRowGroups; i++) {
+      final BlockMetaData block = new BlockMetaData();
+      for (String column : new String[] {"a", "b", "c"}) {
+        final IntStatistics statistics = new IntStatistics();
+        statistics.setMinMax(0, i);
+        block.addColumn(ColumnChunkMetaData.get(ColumnPath.get(column), INT32, SNAPPY, new HashSet<>(), statistics,
+          0, 0, 100, 400, 400));
+      }
+      block.setRowCount(100);
+      blocks.add(block);
+    }
+    return new ParquetMetadata(new FileMetaData(SCHEMA, Collections.emptyMap(), "test"), blocks);
+  }
+
+  private static class CountingLoader implements ParquetFooterCache.FooterLoader {
+    private final AtomicInteger loads = new AtomicInteger();
+    private final int numRowGroups;
+
+    CountingLoader(int numRowGroups) {
+      this.numRowGroups = numRowGroups;
+    }
+
+    @Override
+    public ParquetMetadata load() {
+      loads.incrementAndGet();
+      return footer(numRowGroups);
+    }
+  }
+
+  @Test
+  public void testHitReturnsPrivateCopy() throws Exception {
+    final ParquetFooterCache cache = new ParquetFooterCache(1024 * 1024);
+    final CountingLoader loader = new CountingLoader(4);
+    final Path path = Path.of("/tmp/f1.parquet");
+
+    final ParquetMetadata first = cache.getFooter(path, 1000, 1, ALL_COLUMNS, loader, null);
+    // readers trim the row groups of their footer in place
+    new MutableParquetMetadata(first, path.getName()).removeRowGroupInformation(0);
+
+    final ParquetMetadata second = cache.getFooter(path, 1000, 1, ALL_COLUMNS, loader, null);
+    assertEquals(1, loader.loads.get());
+    assertNotNull(second.getBlocks().get(0));
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.getNumEntries());
+    assertEquals(ParquetFooterCache.estimateHeapSize(footer(4)) + path.toString().length() * 2L, cache.getSizeBytes());
+  }
+
+  @Test
+  public void testChangedFileMisses() throws Exception {
+    final ParquetFooterCache cache = new ParquetFooterCache(1024 * 1024);
+    final CountingLoader loader = new CountingLoader(1);
+    final Path path = Path.of("/tmp/f1.parquet");
+
+    cache.getFooter(path, 1000, 1, ALL_COLUMNS, loader, null);
+    cache.getFooter(path, 1000, 2, ALL_COLUMNS, loader, null);
+    cache.getFooter(path, 2000, 2, ALL_COLUMNS, loader, null);
+    assertEquals(3, loader.loads.get());
+    assertEquals(0, cache.getHits());
+    assertEquals(3, cache.getMisses());
+  }
+
+  @Test
+  public void testEvictionBySize() throws Exception {
+    final long footerSize = ParquetFooterCache.estimateHeapSize(footer(16));
+    final ParquetFooterCache cache = new ParquetFooterCache(footerSize * 3);
+    final CountingLoader loader = new CountingLoader(16);
+
+    for (int i = 0; i < 10; i++) {
+      cache.getFooter(Path.of("/tmp/f" + i + ".parquet"), 1000, 1, ALL_COLUMNS, loader, null);
+    }
+    assertTrue(cache.getNumEntries() < 10);
+    assertEquals(10 - cache.getNumEntries(), cache.getEvictions());
+    assertTrue(cache.getSizeBytes() <= cache.getMaxSizeBytes());
+
+    cache.invalidateAll();
+    assertEquals(0, cache.getSizeBytes());
+  }
+
+  @Test
+  public void testTrimmedColumnsAreWidenedOnMiss() throws Exception {
+    final ParquetFooterCache cache = new ParquetFooterCache(1024 * 1024);
+    final CountingLoader loader = new CountingLoader(2);
+    final Path path = Path.of("/tmp/f1.parquet");
+
+    // the first column is always retained
+    final ParquetMetadata onlyA = cache.getFooter(path, 1000, 1, schema -> ImmutableSet.of("a"), loader, null);
+    assertEquals(1, onlyA.getBlocks().get(0).getColumns().size());
+
+    cache.getFooter(path, 1000, 1, schema -> ImmutableSet.of("a"), loader, null);
+    assertEquals(1, loader.loads.get());
+
+    final ParquetMetadata withC = cache.getFooter(path, 1000, 1, schema -> ImmutableSet.of("c"), loader, null);
+    assertEquals(2, loader.loads.get());
+    assertEquals(2, withC.getBlocks().get(0).getColumns().size());
+
+    // a and c are both cached now
+    cache.getFooter(path, 1000, 1, schema -> ImmutableSet.of("a", "c"), loader, null);
+    assertEquals(2, loader.loads.get());
+
+    final ParquetMetadata all = cache.getFooter(path, 1000, 1, ALL_COLUMNS, loader, null);
+    assertEquals(3, loader.loads.get());
+    assertEquals(3, all.getBlocks().get(0).getColumns().size());
+    assertEquals(2, cache.getHits());
+    assertEquals(3, cache.getMisses());
+  }
+}
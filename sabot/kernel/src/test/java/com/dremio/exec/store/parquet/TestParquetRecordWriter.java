@@ -15,27 +15,63 @@
  */
 package com.dremio.exec.store.parquet;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeMilliVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarCharVector;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.joda.time.DateTimeConstants;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import com.dremio.BaseTestQuery;
+import com.dremio.common.expression.FunctionCallFactory;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.hadoop.HadoopFileSystem;
 import com.dremio.exec.physical.base.OpProps;
@@ -45,10 +81,13 @@ import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.store.RecordWriter;
 import com.dremio.exec.store.WritePartition;
 import com.dremio.exec.store.dfs.FileSystemPlugin;
+import com.dremio.io.FSInputStream;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.test.AllocatorRule;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 
 public class TestParquetRecordWriter extends BaseTestQuery {
 
@@ -56,8 +95,30 @@ public class TestParquetRecordWriter extends BaseTestQuery {
   public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
 
   private ParquetRecordWriter mockParquetRecordWriter(Configuration hadoopConf, Path targetPath, int minorFragmentId, BufferAllocator ALLOCATOR, Long targetBlockSize) throws Exception {
+    return mockParquetRecordWriter(hadoopConf, targetPath, minorFragmentId, ALLOCATOR, targetBlockSize, false);
+  }
+
+  private ParquetRecordWriter mockParquetRecordWriter(Configuration hadoopConf, Path targetPath, int minorFragmentId, BufferAllocator ALLOCATOR, Long targetBlockSize, boolean columnar) throws Exception {
+    return mockParquetRecordWriter(hadoopConf, targetPath, minorFragmentId, ALLOCATOR, targetBlockSize, columnar, "", ImmutableList.of());
+  }
+
+  private ParquetRecordWriter mockParquetRecordWriter(Configuration hadoopConf, Path targetPath, int minorFragmentId, BufferAllocator ALLOCATOR, Long targetBlockSize,
+                                                      boolean columnar, String bloomFilterColumns, List<String> sortColumns) throws Exception {
+    return mockParquetRecordWriter(hadoopConf, targetPath, minorFragmentId, ALLOCATOR, targetBlockSize, columnar, bloomFilterColumns, sortColumns,
+      "none", false, false, null); //compression shouldn't matter
+  }
+
+  private ParquetRecordWriter mockParquetRecordWriter(Configuration hadoopConf, Path targetPath, int minorFragmentId, BufferAllocator ALLOCATOR, Long targetBlockSize,
+                                                      boolean columnar, String bloomFilterColumns, List<String> sortColumns,
+                                                      String compression, boolean enableDictionary, boolean isIcebergWriter,
+                                                      ExecutorService executor) throws Exception {
     OptionManager optionManager = mock(OptionManager.class);
-    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_COMPRESSION_TYPE_VALIDATOR)).thenReturn("none"); //compression shouldn't matter
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_COLUMNAR)).thenReturn(columnar);
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_COLUMNAR_COMPRESSION_PARALLELISM)).thenReturn(4L);
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_BLOOM_FILTER_COLUMNS)).thenReturn(bloomFilterColumns);
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_COMPRESSION_TYPE_VALIDATOR)).thenReturn(compression);
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING_VALIDATOR)).thenReturn(enableDictionary);
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_ENABLE_DICTIONARY_ENCODING_BINARY_TYPE_VALIDATOR)).thenReturn(enableDictionary);
     when(optionManager.getOption(ExecConstants.PARQUET_PAGE_SIZE_VALIDATOR)).thenReturn(256L);
     when(optionManager.getOption(ExecConstants.PARQUET_MAXIMUM_PARTITIONS_VALIDATOR)).thenReturn(1L);
     when(optionManager.getOption(ExecConstants.PARQUET_DICT_PAGE_SIZE_VALIDATOR)).thenReturn(4096L);
@@ -70,6 +131,7 @@ public class TestParquetRecordWriter extends BaseTestQuery {
     when(opContext.getAllocator()).thenReturn(ALLOCATOR);
     when(opContext.getOptions()).thenReturn(optionManager);
     when(opContext.getStats()).thenReturn(operatorStats);
+    when(opContext.getExecutor()).thenReturn(executor);
 
     ParquetWriter writerConf = mock(ParquetWriter.class, Mockito.RETURNS_DEEP_STUBS);
     when(writerConf.getLocation()).thenReturn(targetPath.toUri().toString());
@@ -77,6 +139,12 @@ public class TestParquetRecordWriter extends BaseTestQuery {
     when(writerConf.getProps()).thenReturn(props);
     when(writerConf.getProps().getUserName()).thenReturn("testuser");
     when(writerConf.getOptions().getTableFormatOptions().getTargetFileSize()).thenReturn(targetBlockSize);
+    when(writerConf.getOptions().hasSort()).thenReturn(!sortColumns.isEmpty());
+    when(writerConf.getOptions().getSortColumns()).thenReturn(sortColumns);
+    when(writerConf.getOptions().getPartitionColumns()).thenReturn(ImmutableList.of());
+    when(writerConf.getOptions().getExtendedProperty()).thenReturn(null);
+    when(writerConf.getOptions().getTableFormatOptions().isTableFormatWriter()).thenReturn(isIcebergWriter);
+    when(writerConf.getOptions().getTableFormatOptions().getIcebergSpecificOptions().getIcebergTableProps()).thenReturn(null);
 
     FileSystemPlugin fsPlugin = BaseTestQuery.getMockedFileSystemPlugin();
     when(fsPlugin.createFS((String) notNull(), (String) notNull(), (OperatorContext) notNull())).thenReturn(HadoopFileSystem.getLocal(hadoopConf));
@@ -141,6 +209,203 @@ public class TestParquetRecordWriter extends BaseTestQuery {
     ALLOCATOR.close();
   }
 
+  @Test
+  public void testColumnarWriteSameBytesAsRowWrite() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      for (String compression : ImmutableList.of("none", "snappy")) {
+        for (boolean enableDictionary : new boolean[] {false, true}) {
+          // one file, then a file every few hundred rows, cut in the middle of the batches
+          assertColumnarWriteSameBytesAsRowWrite(compression, enableDictionary, false, null, executor);
+          assertColumnarWriteSameBytesAsRowWrite(compression, enableDictionary, false, 16 * 1024L, executor);
+        }
+      }
+      // the compression on the writing thread only
+      assertColumnarWriteSameBytesAsRowWrite("snappy", true, false, null, null);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testColumnarWriteSameBytesAsRowWriteForIceberg() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      // times and timestamps in micros
+      assertColumnarWriteSameBytesAsRowWrite("snappy", true, true, null, executor);
+      assertColumnarWriteSameBytesAsRowWrite("none", false, true, 16 * 1024L, executor);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private void assertColumnarWriteSameBytesAsRowWrite(String compression, boolean enableDictionary, boolean isIcebergWriter,
+                                                      Long targetBlockSize, ExecutorService executor) throws Exception {
+    final Path tmpSchemaPath = new Path(getDfsTestTmpSchemaLocation());
+    final Configuration hadoopConf = new Configuration();
+    final FileSystem newFs = tmpSchemaPath.getFileSystem(hadoopConf);
+    final String name = String.format("testColumnarWrite_%s_%s_%s_%s", compression, enableDictionary, isIcebergWriter,
+      targetBlockSize);
+
+    @SuppressWarnings("checkstyle:LocalFinalVariableName")
+    final BufferAllocator ALLOCATOR = allocatorRule.newAllocator("test-parquet-writer", 0, Long.MAX_VALUE);
+
+    final int numRecords = 5000;
+    final List<List<String>> files = new ArrayList<>();
+    try (VectorContainer container = new VectorContainer(ALLOCATOR)) {
+      final BitVector bitVector = new BitVector("bit", ALLOCATOR);
+      final DateMilliVector dateVector = new DateMilliVector("date", ALLOCATOR);
+      final TimeMilliVector timeVector = new TimeMilliVector("time", ALLOCATOR);
+      final TimeStampMilliVector timestampVector = new TimeStampMilliVector("ts", ALLOCATOR);
+      final DecimalVector decimalVector = new DecimalVector("dec", ALLOCATOR, 38, 4);
+      final VarCharVector varCharVector = new VarCharVector("v", ALLOCATOR);
+      final Float8Vector float8Vector = new Float8Vector("d", ALLOCATOR);
+      final Float4Vector float4Vector = new Float4Vector("f", ALLOCATOR);
+      final IntVector intVector = new IntVector("i", ALLOCATOR);
+      final BigIntVector bigIntVector = new BigIntVector("b", ALLOCATOR);
+      final IntVector nullVector = new IntVector("n", ALLOCATOR);
+      container.addCollection(ImmutableList.<ValueVector>of(bitVector, dateVector, timeVector, timestampVector, decimalVector,
+        varCharVector, float8Vector, float4Vector, intVector, bigIntVector, nullVector));
+      container.allocateNew();
+      for (int i = 0; i < numRecords; i++) {
+        if (i % 11 != 0) {
+          bitVector.setSafe(i, i % 3 == 0 ? 1 : 0);
+        }
+        if (i < 1000 || i >= 1300) {
+          dateVector.setSafe(i, (i % 50 - 25) * (long) DateTimeConstants.MILLIS_PER_DAY);
+        }
+        timeVector.setSafe(i, (int) ((i * 7919L) % DateTimeConstants.MILLIS_PER_DAY));
+        timestampVector.setSafe(i, 1_600_000_000_000L + i * 1000L);
+        if (i % 5 != 0) {
+          decimalVector.setSafe(i, new BigDecimal(BigInteger.valueOf(i * 12345L - 7_000_000L), 4));
+        }
+        // few distinct values first, then only distinct ones
+        varCharVector.setSafe(i, (i < 3000 ? "value" + (i % 13) : "value" + i).getBytes(StandardCharsets.UTF_8));
+        if (i % 100 >= 10) {
+          // NaNs other than the canonical one, which parquet writes as the canonical one
+          float8Vector.setSafe(i, i % 97 == 0 ? Double.longBitsToDouble(0x7ff8000000000001L) : i / 3.0);
+        }
+        float4Vector.setSafe(i, i % 89 == 0 ? Float.intBitsToFloat(0x7fc00001) : (float) (i % 31));
+        intVector.setSafe(i, i % 17);
+        if (i % 7 != 0) {
+          bigIntVector.setSafe(i, i * 31L);
+        }
+      }
+      container.setAllCount(numRecords);
+      container.buildSchema(BatchSchema.SelectionVectorMode.NONE);
+
+      for (int columnar = 0; columnar < 2; columnar++) {
+        final Path targetPath = new Path(tmpSchemaPath, name + "_" + columnar);
+        assertTrue(newFs.mkdirs(targetPath));
+
+        final ParquetRecordWriter writer = mockParquetRecordWriter(hadoopConf, targetPath, 234237, ALLOCATOR,
+          targetBlockSize, columnar == 1, "", ImmutableList.of(), compression, enableDictionary, isIcebergWriter,
+          executor);
+        final RecordWriter.OutputEntryListener outputEntryListener = mock(RecordWriter.OutputEntryListener.class);
+        writer.setup(container, outputEntryListener, mock(RecordWriter.WriteStatsListener.class));
+        assertEquals(columnar == 1, writer.isWritingColumnByColumn());
+        writer.startPartition(WritePartition.NONE);
+        writer.writeBatch(0, 321);
+        writer.writeBatch(321, 1);
+        writer.writeBatch(322, numRecords - 322);
+        writer.close();
+
+        final ArgumentCaptor<Long> recordCountCaptor = ArgumentCaptor.forClass(long.class);
+        final ArgumentCaptor<String> pathCaptor = ArgumentCaptor.forClass(String.class);
+        verify(outputEntryListener, atLeastOnce()).recordsWritten(recordCountCaptor.capture(), anyLong(),
+          pathCaptor.capture(), any(), any(), any(), any(), any(), any());
+        assertEquals(numRecords, recordCountCaptor.getAllValues().stream().mapToLong(Long::longValue).sum());
+        files.add(pathCaptor.getAllValues());
+      }
+    }
+    ALLOCATOR.close();
+
+    assertEquals(files.get(0).size(), files.get(1).size());
+    if (targetBlockSize != null) {
+      assertTrue(files.get(0).size() > 1);
+    }
+    final HadoopFileSystem fs = HadoopFileSystem.getLocal(hadoopConf);
+    for (int i = 0; i < files.get(0).size(); i++) {
+      try (FSInputStream rowFile = fs.open(com.dremio.io.file.Path.of(files.get(0).get(i)));
+           FSInputStream columnarFile = fs.open(com.dremio.io.file.Path.of(files.get(1).get(i)))) {
+        assertArrayEquals(name + " file " + i, ByteStreams.toByteArray(rowFile), ByteStreams.toByteArray(columnarFile));
+      }
+    }
+  }
+
+  @Test
+  public void testBloomFiltersAndPageIndexes() throws Exception {
+    final Path tmpSchemaPath = new Path(getDfsTestTmpSchemaLocation());
+    final Path targetPath = new Path(tmpSchemaPath, "testBloomFilters");
+    final Configuration hadoopConf = new Configuration();
+    final FileSystem newFs = targetPath.getFileSystem(hadoopConf);
+    assertTrue(newFs.mkdirs(targetPath));
+
+    @SuppressWarnings("checkstyle:LocalFinalVariableName")
+    final BufferAllocator ALLOCATOR = allocatorRule.newAllocator("test-parquet-writer", 0, Long.MAX_VALUE);
+
+    final int numRecords = 1000;
+    final String file;
+    try (VectorContainer container = new VectorContainer(ALLOCATOR)) {
+      final BigIntVector bigIntVector = new BigIntVector("b", ALLOCATOR);
+      final VarCharVector varCharVector = new VarCharVector("v", ALLOCATOR);
+      container.add(bigIntVector);
+      container.add(varCharVector);
+      container.allocateNew();
+      for (int i = 0; i < numRecords; i++) {
+        bigIntVector.setSafe(i, i * 31L);
+        varCharVector.setSafe(i, ("value" + i).getBytes(StandardCharsets.UTF_8));
+      }
+      container.setAllCount(numRecords);
+      container.buildSchema(BatchSchema.SelectionVectorMode.NONE);
+
+      final ParquetRecordWriter writer = mockParquetRecordWriter(hadoopConf, targetPath, 234238, ALLOCATOR, null,
+        false, "B", ImmutableList.of("b"));
+      final RecordWriter.OutputEntryListener outputEntryListener = mock(RecordWriter.OutputEntryListener.class);
+      writer.setup(container, outputEntryListener, mock(RecordWriter.WriteStatsListener.class));
+      writer.startPartition(WritePartition.NONE);
+      writer.writeBatch(0, numRecords);
+      writer.close();
+
+      final ArgumentCaptor<String> pathCaptor = ArgumentCaptor.forClass(String.class);
+      verify(outputEntryListener, times(1)).recordsWritten(eq((long) numRecords), anyLong(), pathCaptor.capture(),
+        any(), any(), any(), any(), any(), any());
+      file = pathCaptor.getValue();
+    }
+    ALLOCATOR.close();
+
+    try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(new Path(file), hadoopConf))) {
+      final ParquetMetadata footer = reader.getFooter();
+      assertEquals("b", footer.getFileMetaData().getKeyValueMetaData().get(ParquetRecordWriter.SORTING_COLUMNS_PROPERTY));
+      final BlockMetaData block = footer.getBlocks().get(0);
+      for (ColumnChunkMetaData column : block.getColumns()) {
+        assertNotNull(reader.readColumnIndex(column));
+        assertNotNull(reader.readOffsetIndex(column));
+      }
+
+      final ColumnChunkMetaData bigIntColumn = block.getColumns().get(0);
+      assertTrue(block.getColumns().get(1).getBloomFilterOffset() < 0);
+      try (FSInputStream input = HadoopFileSystem.getLocal(hadoopConf).open(com.dremio.io.file.Path.of(file))) {
+        final BloomFilter bloomFilter = ParquetBloomFilters.read(input, bigIntColumn.getBloomFilterOffset());
+        assertNotNull(bloomFilter);
+
+        final SchemaPath column = SchemaPath.getSimplePath("b");
+        final LogicalExpression present = FunctionCallFactory.createBooleanOperator("booleanOr",
+          FunctionCallFactory.createExpression("equal", column, ValueExpressions.getBigInt(-1L)),
+          FunctionCallFactory.createExpression("equal", ValueExpressions.getBigInt(31L * 500), column));
+        final LogicalExpression absent = FunctionCallFactory.createBooleanOperator("booleanOr",
+          FunctionCallFactory.createExpression("equal", column, ValueExpressions.getBigInt(-1L)),
+          FunctionCallFactory.createExpression("equal", column, ValueExpressions.getBigInt(-2L)));
+        assertFalse(ParquetBloomFilters.canSkip(bloomFilter, bigIntColumn.getPrimitiveType(),
+          ParquetBloomFilters.getEqualityValues(present, column)));
+        assertTrue(ParquetBloomFilters.canSkip(bloomFilter, bigIntColumn.getPrimitiveType(),
+          ParquetBloomFilters.getEqualityValues(absent, column)));
+        assertNull(ParquetBloomFilters.getEqualityValues(
+          FunctionCallFactory.createExpression("greater_than", column, ValueExpressions.getBigInt(-1L)), column));
+      }
+    }
+  }
+
   @Test
   public void testBlockSizeWithTarget() throws Exception {
     final Path tmpSchemaPath = new Path(getDfsTestTmpSchemaLocation());
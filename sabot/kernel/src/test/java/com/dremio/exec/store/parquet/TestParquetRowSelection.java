@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.PrimitiveIterator;
+
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.parquet.filter.RecordFilter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.exec.ExecTest;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Test class for {@link ParquetRowSelection}
+ */
+public class TestParquetRowSelection extends ExecTest {
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private SimpleIntVector deltas;
+
+  @Before
+  public void setupDeltas() {
+    deltas = new SimpleIntVector("deltas", allocator);
+    deltas.allocateNew(16);
+  }
+
+  @After
+  public void closeDeltas() {
+    deltas.close();
+  }
+
+  @Test
+  public void testRowsAheadOfSelectionAreFiltered() {
+    final ParquetRowSelection selection = new ParquetRowSelection(20);
+    final PrimitiveIterator.OfLong rows = selection.newRowIterator();
+    final RecordFilter filter = selection.newRecordFilter();
+
+    // column readers look for their first row before any selection
+    assertTrue(rows.hasNext());
+    assertEquals(0, rows.nextLong());
+
+    selection.addSelection(setDeltas(2, 0));
+    assertEquals(3, selection.getLastSelectedRow());
+    assertFalse(filter.isMatch());
+    assertEquals(2, rows.nextLong());
+    assertTrue(filter.isMatch());
+    assertEquals(3, rows.nextLong());
+    assertTrue(filter.isMatch());
+
+    // next batch isn't selected yet
+    assertEquals(4, rows.nextLong());
+    selection.addSelection(setDeltas(3));
+    assertEquals(7, selection.getLastSelectedRow());
+    assertFalse(filter.isMatch());
+    assertEquals(7, rows.nextLong());
+    assertTrue(filter.isMatch());
+  }
+
+  @Test
+  public void testRowAheadOfSelectionSelected() {
+    final ParquetRowSelection selection = new ParquetRowSelection(20);
+    final PrimitiveIterator.OfLong rows = selection.newRowIterator();
+    final RecordFilter filter = selection.newRecordFilter();
+
+    assertEquals(0, rows.nextLong());
+    selection.addSelection(setDeltas(0, 1));
+    assertTrue(filter.isMatch());
+    assertEquals(2, rows.nextLong());
+    assertTrue(filter.isMatch());
+    assertEquals(3, rows.nextLong());
+  }
+
+  @Test
+  public void testEmptySelections() {
+    final ParquetRowSelection selection = new ParquetRowSelection(20);
+    final PrimitiveIterator.OfLong rows = selection.newRowIterator();
+    final RecordFilter filter = selection.newRecordFilter();
+
+    assertEquals(0, rows.nextLong());
+    selection.addSelection(setDeltas());
+    selection.addSelection(setDeltas());
+    selection.addSelection(setDeltas(5));
+    assertFalse(filter.isMatch());
+    assertEquals(5, rows.nextLong());
+    assertTrue(filter.isMatch());
+  }
+
+  @Test
+  public void testIsNeeded() {
+    final ParquetRowSelection selection = new ParquetRowSelection(100);
+    final PrimitiveIterator.OfLong rows = selection.newRowIterator();
+    final RecordFilter filter = selection.newRecordFilter();
+
+    assertTrue(selection.isNeeded(0, 9));
+    assertEquals(0, rows.nextLong());
+    selection.addSelection(setDeltas(10));
+    assertFalse(filter.isMatch());
+    assertEquals(10, rows.nextLong());
+    assertTrue(filter.isMatch());
+
+    // row 0 is dropped once all the readers are past it
+    selection.addSelection(setDeltas(10));
+    assertFalse(selection.isNeeded(1, 9));
+    assertTrue(selection.isNeeded(8, 10));
+    assertTrue(selection.isNeeded(11, 30));
+    assertFalse(selection.isNeeded(11, 20));
+    assertTrue(selection.isNeeded(21, 21));
+  }
+
+  @Test
+  public void testEndOfRowGroup() {
+    final ParquetRowSelection selection = new ParquetRowSelection(3);
+    final PrimitiveIterator.OfLong rows = selection.newRowIterator();
+
+    assertEquals(0, rows.nextLong());
+    selection.addSelection(setDeltas(2));
+    assertEquals(2, selection.getLastSelectedRow());
+    assertEquals(2, rows.nextLong());
+    assertFalse(rows.hasNext());
+  }
+
+  private SimpleIntVector setDeltas(int... values) {
+    for (int i = 0; i < values.length; i++) {
+      deltas.set(i, values[i]);
+    }
+    deltas.setValueCount(values.length);
+    return deltas;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.ParquetProperties;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.CodecFactory;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.TestOutputMutator;
+import com.dremio.exec.store.parquet2.ParquetRowiseReader;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.Path;
+import com.dremio.parquet.reader.ParquetDirectByteBufferAllocator;
+import com.dremio.sabot.op.scan.ScanOperator.Metric;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link ParquetRowiseReader} reading late materialized columns, for the rows selected by the deltas of
+ * the filters of the first pass.
+ */
+public class TestParquetRowiseReaderLateMaterialization extends BaseTestUnifiedParquetReader {
+  private static final int ROW_COUNT = 1000;
+  private static final int PAGE_ROW_COUNT = 100;
+  private static final MessageType SCHEMA = MessageTypeParser.parseMessageType(
+    "message test { required int64 id; required int64 payload; }");
+
+  @Rule
+  public final TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testReadsSelectedRowsAndSkipsPages() throws Exception {
+    final Path path = writeFile();
+    final List<Long> payloads = new ArrayList<>();
+    try (SimpleIntVector deltas = new SimpleIntVector("deltas", getTestAllocator())) {
+      deltas.allocateNew(16);
+      final List<int[]> batches = ImmutableList.of(
+        // rows 5, 15 and 25 of the first page
+        new int[] {5, 9, 9},
+        // row 950, the pages in between holding none of the selected rows
+        new int[] {924});
+      readPayloads(path, deltas, batches, payloads);
+    }
+
+    assertEquals(ImmutableList.of(50L, 150L, 250L, 9500L), payloads);
+    assertEquals(5 + 9 + 9 + 924, context.getStats().getLongStat(Metric.LATE_MATERIALIZED_VALUES_SKIPPED));
+    assertEquals(4, context.getStats().getLongStat(Metric.LATE_MATERIALIZED_VALUES_DECODED));
+    assertTrue(context.getStats().getLongStat(Metric.LATE_MATERIALIZED_PAGES_SKIPPED) > 0);
+    assertEquals(1, context.getStats().getLongStat(Metric.OFFSET_INDEX_READ));
+  }
+
+  @Test
+  public void testReadsAllRowsWhenAllSelected() throws Exception {
+    final Path path = writeFile();
+    final List<Long> payloads = new ArrayList<>();
+    try (SimpleIntVector deltas = new SimpleIntVector("deltas", getTestAllocator())) {
+      deltas.allocateNew(DEFAULT_BATCH_SIZE);
+      final List<int[]> batches = new ArrayList<>();
+      for (int i = 0; i < ROW_COUNT / DEFAULT_BATCH_SIZE; i++) {
+        batches.add(new int[DEFAULT_BATCH_SIZE]);
+      }
+      readPayloads(path, deltas, batches, payloads);
+    }
+
+    final List<Long> expected = new ArrayList<>();
+    for (long i = 0; i < ROW_COUNT; i++) {
+      expected.add(i * 10);
+    }
+    assertEquals(expected, payloads);
+    assertEquals(0, context.getStats().getLongStat(Metric.LATE_MATERIALIZED_VALUES_SKIPPED));
+    assertEquals(0, context.getStats().getLongStat(Metric.LATE_MATERIALIZED_PAGES_SKIPPED));
+  }
+
+  /**
+   * Reads the payload column of the rows selected by each batch of deltas, as the vectorized reader of the filter
+   * column would hand them over.
+   */
+  private void readPayloads(Path path, SimpleIntVector deltas, List<int[]> batches, List<Long> payloads) throws Exception {
+    final ParquetScanProjectedColumns projectedColumns =
+      ParquetScanProjectedColumns.fromSchemaPaths(ImmutableList.of(SchemaPath.getSimplePath("payload")));
+    final FileAttributes fileAttributes = fs.getFileAttributes(path);
+    final InputStreamProvider inputStreamProvider =
+      createInputStreamProvider(path, fileAttributes, 0, null, null, projectedColumns);
+    final MutableParquetMetadata footer = inputStreamProvider.getFooter();
+    for (ColumnChunkMetaData column : footer.getBlocks().get(0).getColumns()) {
+      assertNotNull("offset index of " + column.getPath(), column.getOffsetIndexReference());
+    }
+
+    final BatchSchema schema = BatchSchema.of(Field.nullable("payload", new ArrowType.Int(64, true)));
+    final SchemaDerivationHelper schemaHelper = SchemaDerivationHelper.builder()
+      .noSchemaLearning(schema)
+      .build();
+    final CodecFactory codec = CodecFactory.createDirectCodecFactory(new Configuration(),
+      new ParquetDirectByteBufferAllocator(context.getAllocator()), 0);
+    try (ParquetRowiseReader reader = new ParquetRowiseReader(context, footer, 0, path.toString(), projectedColumns,
+           fs, schemaHelper, deltas, inputStreamProvider, codec, null);
+         TestOutputMutator outputMutator = new TestOutputMutator(getTestAllocator())) {
+      schema.materializeVectors(ImmutableList.of(SchemaPath.getSimplePath("payload")), outputMutator);
+      reader.setLateMaterialization(true);
+      reader.setup(outputMutator);
+      reader.allocate(outputMutator.getFieldVectorMap());
+
+      for (int[] batch : batches) {
+        for (int i = 0; i < batch.length; i++) {
+          deltas.set(i, batch[i]);
+        }
+        deltas.setValueCount(batch.length);
+        final int records = reader.next();
+        assertEquals(batch.length, records);
+        final BigIntVector payload = (BigIntVector) outputMutator.getVector("payload");
+        for (int i = 0; i < records; i++) {
+          payloads.add(payload.get(i));
+        }
+      }
+    } finally {
+      codec.release();
+    }
+  }
+
+  /**
+   * Writes a row group of {@link #ROW_COUNT} rows, in pages of {@link #PAGE_ROW_COUNT} rows, with offset indexes.
+   */
+  private Path writeFile() throws Exception {
+    final File file = new File(tmp.getRoot(), "late-materialization.parquet");
+    final SimpleGroupFactory groupFactory = new SimpleGroupFactory(SCHEMA);
+    try (ParquetWriter<Group> writer =
+           ExampleParquetWriter.builder(new org.apache.hadoop.fs.Path(file.getAbsolutePath()))
+             .withType(SCHEMA)
+             .withConf(new Configuration())
+             .withDictionaryEncoding(false)
+             .withPageRowCountLimit(PAGE_ROW_COUNT)
+             .withWriterVersion(ParquetProperties.WriterVersion.PARQUET_1_0)
+             .build()) {
+      for (long i = 0; i < ROW_COUNT; i++) {
+        writer.write(groupFactory.newGroup()
+          .append("id", i)
+          .append("payload", i * 10));
+      }
+    }
+    return Path.of(file.getAbsolutePath());
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.SNAPPY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.DOUBLE;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.parquet.column.statistics.BinaryStatistics;
+import org.apache.parquet.column.statistics.DoubleStatistics;
+import org.apache.parquet.column.statistics.IntStatistics;
+import org.apache.parquet.column.statistics.LongStatistics;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Types;
+import org.junit.Test;
+
+import com.dremio.exec.proto.ExecProtos;
+import com.dremio.exec.store.TopNThresholdFilter;
+
+/**
+ * Tests for pruning row groups with the boundary of a top-n in {@link UnifiedParquetReader}
+ */
+public class TestUnifiedParquetReaderTopNThreshold {
+
+  @Test
+  public void testAscendingLongColumn() {
+    final TopNThresholdFilter filter = filter(true, false, 100L);
+    assertTrue(isPruned(filter, rowGroup("c0", Types.required(INT64).named("c0"), longStats(150, 200, 0))));
+    // the boundary itself can't replace the last record of the top-n
+    assertTrue(isPruned(filter, rowGroup("c0", Types.required(INT64).named("c0"), longStats(100, 200, 0))));
+    assertFalse(isPruned(filter, rowGroup("c0", Types.required(INT64).named("c0"), longStats(50, 200, 0))));
+  }
+
+  @Test
+  public void testDescendingIntColumn() {
+    final TopNThresholdFilter filter = filter(false, false, 100L);
+    assertTrue(isPruned(filter, rowGroup("c0", Types.required(INT32).named("c0"), intStats(10, 90, 0))));
+    assertFalse(isPruned(filter, rowGroup("c0", Types.required(INT32).named("c0"), intStats(10, 101, 0))));
+  }
+
+  @Test
+  public void testNullsFirst() {
+    final TopNThresholdFilter filter = filter(true, true, 100L);
+    assertTrue(isPruned(filter, rowGroup("c0", Types.optional(INT64).named("c0"), longStats(150, 200, 0))));
+    // the nulls of the row group sort before the boundary
+    assertFalse(isPruned(filter, rowGroup("c0", Types.optional(INT64).named("c0"), longStats(150, 200, 3))));
+  }
+
+  @Test
+  public void testDateColumn() {
+    final PrimitiveType date = Types.required(INT32).as(OriginalType.DATE).named("c0");
+    assertTrue(isPruned(filter(true, false, TimeUnit.DAYS.toMillis(5)), rowGroup("c0", date, intStats(10, 20, 0))));
+    assertFalse(isPruned(filter(true, false, TimeUnit.DAYS.toMillis(15)), rowGroup("c0", date, intStats(10, 20, 0))));
+  }
+
+  @Test
+  public void testDoubleColumn() {
+    final TopNThresholdFilter filter = filter(false, false, 1.5d);
+    assertTrue(isPruned(filter, rowGroup("c0", Types.required(DOUBLE).named("c0"), doubleStats(0.5d, 1.0d))));
+    assertFalse(isPruned(filter, rowGroup("c0", Types.required(DOUBLE).named("c0"), doubleStats(0.5d, 2.0d))));
+    // the stats and the boundary must be of the same type
+    assertFalse(isPruned(filter(false, false, 100L),
+      rowGroup("c0", Types.required(DOUBLE).named("c0"), doubleStats(0.5d, 1.0d))));
+  }
+
+  @Test
+  public void testNotPrunedWithoutUsableStats() {
+    final TopNThresholdFilter filter = filter(true, false, 100L);
+    // no stats for the column
+    assertFalse(isPruned(filter, rowGroup("c0", Types.required(INT64).named("c0"), new LongStatistics())));
+    // stats of another column
+    assertFalse(isPruned(filter, rowGroup("c1", Types.required(INT64).named("c1"), longStats(150, 200, 0))));
+    // unsupported type
+    final BinaryStatistics binaryStats = new BinaryStatistics();
+    binaryStats.setMinMax(Binary.fromString("x"), Binary.fromString("y"));
+    assertFalse(isPruned(filter, rowGroup("c0", Types.required(BINARY).named("c0"), binaryStats)));
+  }
+
+  private static boolean isPruned(TopNThresholdFilter filter, BlockMetaData rowGroup) {
+    return UnifiedParquetReader.isPrunedByTopNThreshold(filter, rowGroup, "c0");
+  }
+
+  private static TopNThresholdFilter filter(boolean ascending, boolean nullsFirst, long boundary) {
+    return TopNThresholdFilter.getInstance(threshold(ascending, nullsFirst).setLongValue(boundary).build());
+  }
+
+  private static TopNThresholdFilter filter(boolean ascending, boolean nullsFirst, double boundary) {
+    return TopNThresholdFilter.getInstance(threshold(ascending, nullsFirst).setDoubleValue(boundary).build());
+  }
+
+  private static ExecProtos.TopNThreshold.Builder threshold(boolean ascending, boolean nullsFirst) {
+    return ExecProtos.TopNThreshold.newBuilder()
+      .setColumn("c0")
+      .setAscending(ascending)
+      .setNullsFirst(nullsFirst)
+      .setTiesQualify(false);
+  }
+
+  private static BlockMetaData rowGroup(String column, PrimitiveType type, Statistics<?> stats) {
+    final BlockMetaData block = new BlockMetaData();
+    block.addColumn(ColumnChunkMetaData.get(ColumnPath.get(column), type, SNAPPY, null, new HashSet<>(), stats,
+      0, 0, 100, 800, 800));
+    block.setRowCount(100);
+    return block;
+  }
+
+  private static IntStatistics intStats(int min, int max, long numNulls) {
+    final IntStatistics stats = new IntStatistics();
+    stats.setMinMax(min, max);
+    stats.setNumNulls(numNulls);
+    return stats;
+  }
+
+  private static LongStatistics longStats(long min, long max, long numNulls) {
+    final LongStatistics stats = new LongStatistics();
+    stats.setMinMax(min, max);
+    stats.setNumNulls(numNulls);
+    return stats;
+  }
+
+  private static DoubleStatistics doubleStats(double min, double max) {
+    final DoubleStatistics stats = new DoubleStatistics();
+    stats.setMinMax(min, max);
+    return stats;
+  }
+}
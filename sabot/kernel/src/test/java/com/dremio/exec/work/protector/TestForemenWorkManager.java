@@ -52,7 +52,7 @@ public class TestForemenWorkManager {
 
     foremenWorkManager = spy(foremenWorkManager);
     UserException userException = UserException.resourceError().message(UserException.QUERY_REJECTED_MSG).buildSilently();
-    doThrow(userException).when(foremenWorkManager).submitWorkCommand(any(), any(), any(), any(), any(), any(), any());
+    doThrow(userException).when(foremenWorkManager).submitWorkCommand(any(), any(), any(), any(), any(), any(), any(), any());
     final UserResult[] userResult = new UserResult[1];
 
     UserResponseHandler userResponseHandler = new UserResponseHandler() {
@@ -65,7 +65,7 @@ public class TestForemenWorkManager {
     // Act - make the request
     UserRequest userRequest = new UserRequest(UserProtos.RpcType.RUN_QUERY, new Object(), true);
     ExternalId externalId = ExternalId.newBuilder().setPart1(1L).setPart2(2L).build();
-    foremenWorkManager.submitWork(externalId, null, userResponseHandler, userRequest, null, null);
+    foremenWorkManager.submitWork(externalId, null, userResponseHandler, userRequest, null, null, null);
 
     // Assert - Verify the results
     assertEquals(UserException.QUERY_REJECTED_MSG + ". Root cause: " + UserException.QUERY_REJECTED_MSG,
@@ -169,8 +169,15 @@ public class BaseTestOperator extends ExecTest {
 
   @Before
   public void setupBeforeTest() {
+    setupBeforeTest(testName.getMethodName());
+  }
+
+  /**
+   * Sets up a test with the given name, for use outside of the junit lifecycle (e.g. by benchmarks).
+   */
+  protected void setupBeforeTest(String name) {
     testCloseables.add(MockitoAnnotations.openMocks(this));
-    testAllocator = testContext.allocator.newChildAllocator(testName.getMethodName(), 0, Long.MAX_VALUE);
+    testAllocator = testContext.allocator.newChildAllocator(name, 0, Long.MAX_VALUE);
     testCloseables.add(testAllocator);
   }
 
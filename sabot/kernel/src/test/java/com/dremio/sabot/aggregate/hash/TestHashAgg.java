@@ -19,6 +19,7 @@ import static com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType.FUNCTI
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -44,7 +45,9 @@ import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
 import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.aggregate.hash.HashAggOperator;
+import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.nospill.VectorizedHashAggOperatorNoSpill;
 import com.dremio.test.UserExceptionAssert;
@@ -947,4 +950,70 @@ public class TestHashAgg extends BaseTestOperator {
       .hasErrorType(FUNCTION)
       .hasMessageContaining("low-cardinality aggregations");
   }
+
+  private static final Table DATA_PARTIAL_BYPASS = t(
+    th("k", "v"),
+    tr(1, 1L),
+    tr(2, 1L),
+    tr(3, 1L),
+    tr(4, 1L),
+    tr(1, 2L),
+    tr(2, 2L),
+    tr(3, 2L),
+    tr(4, 2L)
+  );
+
+  @Test
+  public void partialAggregationBypass() throws Exception {
+    final HashAggregate conf = new HashAggregate(OpProps.prototype(), null,
+      Arrays.asList(n("k")),
+      Arrays.asList(n("sum(v)", "sum"), n("count(v)", "cnt")),
+      true, true, 1f, 3968, true);
+
+    // the first batch doesn't have any duplicate key, so the second one is passed through
+    final Table expected = t(
+      th("k", "sum", "cnt"),
+      tr(1, 1L, 1L),
+      tr(2, 1L, 1L),
+      tr(3, 1L, 1L),
+      tr(4, 1L, 1L),
+      tr(1, 2L, 1L),
+      tr(2, 2L, 1L),
+      tr(3, 2L, 1L),
+      tr(4, 2L, 1L))
+      .orderInsensitive();
+
+    try (AutoCloseable enabled = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ENABLE_PARTIAL_BYPASS, true);
+         AutoCloseable sampleBatches = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_BATCHES, 1)) {
+      final OperatorStats stats = validateSingle(conf, VectorizedHashAggOperator.class, DATA_PARTIAL_BYPASS, expected, 4);
+      assertEquals(4, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS_SAMPLED_GROUPS));
+      assertEquals(4, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS_AT_RECORDS));
+      assertEquals(4, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS_RECORDS));
+    }
+  }
+
+  @Test
+  public void partialAggregationNoBypass() throws Exception {
+    final HashAggregate conf = new HashAggregate(OpProps.prototype(), null,
+      Arrays.asList(n("k")),
+      Arrays.asList(n("sum(v)", "sum"), n("count(v)", "cnt")),
+      true, true, 1f, 3968, true);
+
+    final Table expected = t(
+      th("k", "sum", "cnt"),
+      tr(1, 3L, 2L),
+      tr(2, 3L, 2L),
+      tr(3, 3L, 2L),
+      tr(4, 3L, 2L))
+      .orderInsensitive();
+
+    // the single sampled batch halves the number of records, more than the minimum reduction
+    try (AutoCloseable enabled = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ENABLE_PARTIAL_BYPASS, true);
+         AutoCloseable sampleBatches = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_BATCHES, 1)) {
+      final OperatorStats stats = validateSingle(conf, VectorizedHashAggOperator.class, DATA_PARTIAL_BYPASS, expected, 8);
+      assertEquals(8, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS_SAMPLED_RECORDS));
+      assertEquals(0, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS_AT_RECORDS));
+      assertEquals(0, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS_RECORDS));
+    }
+  }
 }
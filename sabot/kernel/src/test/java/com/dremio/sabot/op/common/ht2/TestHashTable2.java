@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Random;
 
 import org.apache.arrow.memory.BufferAllocator;
@@ -179,6 +180,91 @@ public class TestHashTable2 extends DremioTest {
     }
   }
 
+  @Test
+  public void testFixedOnlyWithTagProbing() throws Exception {
+    MAX_VALUES_PER_BATCH = 4096;
+    tagProbingHelper();
+    MAX_VALUES_PER_BATCH = 990;
+    tagProbingHelper();
+  }
+
+  private void tagProbingHelper() throws Exception {
+    final Random random = new Random(0);
+    final Integer[] col1Arr = new Integer[50_000];
+    final Integer[] col2Arr = new Integer[col1Arr.length];
+    for (int i = 0; i < col1Arr.length; i++) {
+      if (i % 20 != 0) {
+        col1Arr[i] = random.nextInt(20_000);
+      }
+      col2Arr[i] = random.nextInt(2);
+    }
+
+    try (final BufferAllocator allocator = allocatorRule.newAllocator("test-hash-table-2", 0, Long.MAX_VALUE);
+         final VectorContainer c = new VectorContainer()) {
+      IntVector intcol1 = new IntVector("intcol1", allocator);
+      TestIntPivot.populate(intcol1, col1Arr);
+      IntVector intcol2 = new IntVector("intcol2", allocator);
+      TestIntPivot.populate(intcol2, col2Arr);
+      c.add(intcol1);
+      c.add(intcol2);
+      final int records = c.setAllCount(col1Arr.length);
+      final PivotDef pivot = PivotBuilder.getBlockDefinition(
+        new FieldVectorPair(intcol1, intcol1),
+        new FieldVectorPair(intcol2, intcol2)
+      );
+      try (
+        final FixedBlockVector fbv = new FixedBlockVector(allocator, pivot.getBlockWidth());
+        final VariableBlockVector var = new VariableBlockVector(allocator, pivot.getVariableCount());) {
+
+        Pivots.pivot(pivot, records, fbv, var);
+
+        // start small so that the tables rehash a few times
+        try (LBlockHashTable expected = new LBlockHashTable(HashConfig.getDefault(), pivot, allocator, 16,
+          10, true, MAX_VALUES_PER_BATCH);
+             LBlockHashTable bht = new LBlockHashTable(HashConfig.getDefault(), pivot, allocator, 16,
+          10, true, MAX_VALUES_PER_BATCH, null, true);
+             SimpleBigIntVector hashValues = new SimpleBigIntVector("hashvalues", allocator)) {
+          assertTrue(bht.isTagProbing());
+          final long keyFixedVectorAddr = fbv.getMemoryAddress();
+          final long keyVarVectorAddr = var.getMemoryAddress();
+
+          hashValues.allocateNew(records);
+          final BlockChunk blockChunk = new BlockChunk(keyFixedVectorAddr, keyVarVectorAddr, var.getCapacity(), true,
+            pivot.getBlockWidth(), records, hashValues.getBufferAddress(), 0);
+          HashComputation.computeHash(blockChunk);
+
+          // insert half the keys, so that about half of the lookups below miss
+          final int inserted = records / 2;
+          final int[] expectedOrdinals = new int[records];
+          final int[] actualOrdinals = new int[records];
+          for (int keyIndex = 0; keyIndex < inserted; keyIndex++) {
+            final int keyHash = (int) hashValues.get(keyIndex);
+            expectedOrdinals[keyIndex] = expected.add(keyFixedVectorAddr, keyVarVectorAddr, var.getCapacity(), keyIndex, keyHash);
+            actualOrdinals[keyIndex] = bht.add(keyFixedVectorAddr, keyVarVectorAddr, var.getCapacity(), keyIndex, keyHash);
+          }
+          assertArrayEquals("ordinals mismatch", expectedOrdinals, actualOrdinals);
+          assertEquals("Size mismatch", expected.size(), bht.size());
+          assertTrue("Expected the table to rehash", bht.getRehashCount() > 0);
+
+          for (int keyIndex = 0; keyIndex < records; keyIndex++) {
+            final int keyHash = (int) hashValues.get(keyIndex);
+            expectedOrdinals[keyIndex] = expected.find(keyFixedVectorAddr, keyVarVectorAddr, var.getCapacity(), keyIndex, keyHash);
+            actualOrdinals[keyIndex] = bht.find(keyFixedVectorAddr, keyVarVectorAddr, var.getCapacity(), keyIndex, keyHash);
+          }
+          assertArrayEquals("find mismatch", expectedOrdinals, actualOrdinals);
+          assertTrue("Expected some lookups to miss", Arrays.stream(actualOrdinals).anyMatch(ordinal -> ordinal == -1));
+
+          bht.resetToMinimumSize();
+          assertEquals(0, bht.size());
+          for (int keyIndex = 0; keyIndex < records; keyIndex++) {
+            final int keyHash = (int) hashValues.get(keyIndex);
+            assertEquals(-1, bht.find(keyFixedVectorAddr, keyVarVectorAddr, var.getCapacity(), keyIndex, keyHash));
+          }
+        }
+      }
+    }
+  }
+
   @Test
   public void testEmptyValues() throws Exception {
     MAX_VALUES_PER_BATCH = 4096;
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver.merging;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LoserTree}
+ */
+public class TestLoserTree {
+
+  @Test
+  public void testMergeStreams() {
+    final Random random = new Random(42);
+    for (int size = 1; size <= 9; size++) {
+      final int[][] streams = new int[size][];
+      final List<Integer> expected = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        streams[i] = random.ints(random.nextInt(20), 0, 50).sorted().toArray();
+        Arrays.stream(streams[i]).forEach(expected::add);
+      }
+      expected.sort(Integer::compare);
+      assertEquals("size " + size, expected, merge(streams));
+    }
+  }
+
+  @Test
+  public void testRunnerUp() {
+    final int[][] streams = {{5, 6}, {1, 2, 3}, {4}};
+    final int[] positions = new int[streams.length];
+    final LoserTree tree = new LoserTree(streams.length, comparator(streams, positions));
+    tree.build();
+    assertEquals(1, tree.winner());
+    assertEquals(2, tree.runnerUp());
+
+    positions[1] = streams[1].length;
+    tree.replay();
+    assertEquals(2, tree.winner());
+    assertEquals(0, tree.runnerUp());
+  }
+
+  @Test
+  public void testSingleStream() {
+    final int[][] streams = {{1, 2, 3}};
+    final LoserTree tree = new LoserTree(1, comparator(streams, new int[1]));
+    tree.build();
+    assertEquals(0, tree.winner());
+    assertEquals(-1, tree.runnerUp());
+    assertArrayEquals(new Integer[]{1, 2, 3}, merge(streams).toArray(new Integer[0]));
+  }
+
+  @Test
+  public void testInterleavedStreamsDontGallop() {
+    // stream i has i, i + 16, i + 32... so that the winner changes at every value
+    final int size = 16;
+    final int length = 1000;
+    final int[][] streams = new int[size][length];
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < length; j++) {
+        streams[i][j] = j * size + i;
+      }
+    }
+    final Merge merge = new Merge(streams);
+    for (int i = 0; i < size * length; i++) {
+      assertEquals(i, (int) merge.merged.get(i));
+    }
+    // only the replays, log2(size) comparisons per value, along with building the tree
+    assertTrue("comparisons: " + merge.comparisons, merge.comparisons <= (size - 1) + 4L * size * length);
+  }
+
+  @Test
+  public void testLongRunsGallop() {
+    // each stream has a run of 1000 values
+    final int[][] streams = new int[4][1000];
+    for (int i = 0; i < streams.length; i++) {
+      for (int j = 0; j < streams[i].length; j++) {
+        streams[i][j] = (streams.length - 1 - i) * 1000 + j;
+      }
+    }
+    final Merge merge = new Merge(streams);
+    for (int i = 0; i < 4000; i++) {
+      assertEquals(i, (int) merge.merged.get(i));
+    }
+    assertTrue("comparisons: " + merge.comparisons, merge.comparisons < 400);
+  }
+
+  private static List<Integer> merge(int[][] streams) {
+    return new Merge(streams).merged;
+  }
+
+  /**
+   * Merges the streams the way the merging receiver does, taking runs of the winner, and counts the comparisons.
+   */
+  private static final class Merge {
+    private final List<Integer> merged = new ArrayList<>();
+    private long comparisons;
+
+    private Merge(int[][] streams) {
+      final int[] positions = new int[streams.length];
+      final LoserTree.StreamComparator comparator = comparator(streams, positions);
+      final LoserTree tree = new LoserTree(streams.length, (left, right) -> {
+        comparisons++;
+        return comparator.less(left, right);
+      });
+      tree.build();
+      while (positions[tree.winner()] < streams[tree.winner()].length) {
+        final int winner = tree.winner();
+        final int[] values = streams[winner];
+        final int length = tree.nextRunLength(values.length - positions[winner], (offset, stream) -> {
+          if (positions[stream] == streams[stream].length) {
+            return true;
+          }
+          comparisons++;
+          return values[positions[winner] + offset] <= streams[stream][positions[stream]];
+        });
+        for (int i = 0; i < length; i++) {
+          merged.add(values[positions[winner]++]);
+        }
+        tree.replay();
+      }
+    }
+  }
+  /**
+   * Orders the streams by their current value, the exhausted ones going last.
+   */
+  private static LoserTree.StreamComparator comparator(int[][] streams, int[] positions) {
+    return (left, right) -> {
+      final boolean leftDone = positions[left] == streams[left].length;
+      final boolean rightDone = positions[right] == streams[right].length;
+      if (leftDone || rightDone) {
+        return rightDone && (!leftDone || left < right);
+      }
+      final int cmp = Integer.compare(streams[left][positions[left]], streams[right][positions[right]]);
+      return cmp < 0 || (cmp == 0 && left < right);
+    };
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.junit.Test;
+
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.record.ArrowRecordBatchLoader;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.BaseTestWithAllocator;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Tests for {@link ExchangeCompressor}
+ */
+public class TestExchangeCompressor extends BaseTestWithAllocator {
+  private static final int NUM_ROWS = 4096;
+
+  private VectorContainer createBatch() {
+    final VectorContainer container = new VectorContainer(allocator);
+    final BigIntVector ids = new BigIntVector("id", allocator);
+    final VarCharVector names = new VarCharVector("name", allocator);
+    ids.allocateNew(NUM_ROWS);
+    names.allocateNew(NUM_ROWS * 8L, NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      ids.set(i, i % 16);
+      if (i % 10 != 0) {
+        names.setSafe(i, ("name" + (i % 8)).getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    container.add(ids);
+    container.add(names);
+    container.buildSchema();
+    container.setAllCount(NUM_ROWS);
+    return container;
+  }
+
+  private void roundTrip(ExchangeCompressor.Codec codec) throws Exception {
+    final ExchangeCompressor compressor = new ExchangeCompressor(codec, 0, allocator);
+    try (VectorContainer batch = createBatch();
+         ArrowRecordBatchLoader loader = new ArrowRecordBatchLoader(allocator, batch.getSchema())) {
+      final ArrowRecordBatch recordBatch = compressor.compress(FragmentWritableBatch.getArrowRecordBatch(batch));
+      final FragmentWritableBatch writableBatch = new FragmentWritableBatch(
+        QueryId.newBuilder().setPart1(1).setPart2(2).build(), 1, 0, 2, recordBatch, 0);
+
+      try (ArrowBuf body = allocator.buffer(writableBatch.getByteCount())) {
+        long offset = 0;
+        for (ByteBuf buf : writableBatch.getBuffers()) {
+          body.setBytes(offset, buf.nioBuffer());
+          offset += buf.readableBytes();
+          buf.release();
+        }
+        body.writerIndex(offset);
+
+        loader.load(writableBatch.getHeader(), body);
+      }
+
+      assertEquals(NUM_ROWS, loader.getRecordCount());
+      final BigIntVector ids = loader.getValueAccessorById(BigIntVector.class, 0).getValueVector();
+      final VarCharVector names = loader.getValueAccessorById(VarCharVector.class, 1).getValueVector();
+      for (int i = 0; i < NUM_ROWS; i++) {
+        assertEquals(i % 16, ids.get(i));
+        if (i % 10 != 0) {
+          assertEquals("name" + (i % 8), names.getObject(i).toString());
+        } else {
+          assertNull(names.getObject(i));
+        }
+      }
+      assertTrue(compressor.getBytesAfterCompression() < compressor.getBytesBeforeCompression());
+      assertTrue(loader.getUncompressedSize() > writableBatch.getByteCount());
+    }
+  }
+
+  @Test
+  public void testLz4RoundTrip() throws Exception {
+    roundTrip(ExchangeCompressor.Codec.LZ4);
+  }
+
+  @Test
+  public void testZstdRoundTrip() throws Exception {
+    roundTrip(ExchangeCompressor.Codec.ZSTD);
+  }
+
+  @Test
+  public void testSmallBatchNotCompressed() throws Exception {
+    final ExchangeCompressor compressor = new ExchangeCompressor(ExchangeCompressor.Codec.LZ4, Integer.MAX_VALUE, allocator);
+    try (VectorContainer batch = createBatch()) {
+      final ArrowRecordBatch recordBatch = FragmentWritableBatch.getArrowRecordBatch(batch);
+      assertSame(recordBatch, compressor.compress(recordBatch));
+      recordBatch.close();
+      assertEquals(0, compressor.getBytesBeforeCompression());
+    }
+  }
+}
@@ -19,6 +19,7 @@ import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.tb;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
 import java.util.Collections;
 import java.util.Properties;
@@ -32,6 +33,7 @@ import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.TopN;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.sort.topn.TopNOperator;
 
 public class TestTopN extends BaseTestOperator {
@@ -108,5 +110,63 @@ public class TestTopN extends BaseTestOperator {
     validateSingle(topn, TopNOperator.class, input, output);
   }
 
+  @Test
+  public void topNDataWithSkippedBatches() throws Exception {
+    // the boundary is 8 after the first batch, 21 after the second and 22 after the third, so only the last one is
+    // skipped
+    final OperatorStats stats = validateSingle(topNDescending(), TopNOperator.class, skippedBatchesInput(),
+      skippedBatchesOutput(), DEFAULT_BATCH);
+    assertEquals(1, stats.getLongStat(TopNOperator.Metric.BATCHES_SKIPPED_BY_THRESHOLD));
+    // there is no scan to send the boundary to
+    assertEquals(0, stats.getLongStat(TopNOperator.Metric.THRESHOLDS_SENT));
+  }
+
+  @Test
+  public void topNDataWithoutThresholdFilter() throws Exception {
+    try (AutoCloseable ignored = with(ExecConstants.TOPN_THRESHOLD_FILTER, false)) {
+      final OperatorStats stats = validateSingle(topNDescending(), TopNOperator.class, skippedBatchesInput(),
+        skippedBatchesOutput(), DEFAULT_BATCH);
+      assertEquals(0, stats.getLongStat(TopNOperator.Metric.BATCHES_SKIPPED_BY_THRESHOLD));
+    }
+  }
+
+  private TopN topNDescending() {
+    return new TopN(PROPS, null, 3, Collections.singletonList(ordering("c0", Direction.DESCENDING, NullDirection.LAST)), false);
+  }
+
+  private static Table skippedBatchesInput() {
+    // once the heap is full, the batches with no value above 22 can't make it into the top-n
+    return t(
+      th("c0", "c1"),
+      tb(
+        tr(35, 1),
+        tr(8, 2),
+        tr(22, 3)
+      ),
+      tb(
+        tr(17, 4),
+        tr(15, 5),
+        tr(21, 6)
+      ),
+      tb(
+        tr(12, 7),
+        tr(42, 8),
+        tr(18, 9)
+      ),
+      tb(
+        tr(20, 10),
+        tr(11, 11)
+      )
+    );
+  }
+
+  private static Table skippedBatchesOutput() {
+    return t(
+      th("c0", "c1"),
+      tr(42, 8),
+      tr(35, 1),
+      tr(22, 3)
+    );
+  }
 
 }
@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.stealing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.dremio.sabot.task.AsyncTask;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.Task;
+import com.dremio.sabot.task.TaskDescriptor;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskPool;
+import com.dremio.sabot.threads.AvailabilityCallback;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+/**
+ * Unit test for {@link WorkStealingTaskPool}
+ */
+public class TestWorkStealingTaskPool {
+
+  private WorkStealingTaskPool pool;
+
+  @After
+  public void teardown() throws Exception {
+    if (pool != null) {
+      pool.close();
+    }
+  }
+
+  /**
+   * Task that runs a fixed number of slices, optionally blocking on upstream after the first one.
+   */
+  private static class SlicedTask implements AsyncTask {
+    private final AtomicInteger remainingSlices;
+    private final boolean blockOnce;
+    private final AtomicReference<AvailabilityCallback> wakeup = new AtomicReference<>();
+    private volatile Task.State state = Task.State.RUNNABLE;
+    private volatile boolean blocked;
+
+    SlicedTask(int slices, boolean blockOnce) {
+      this.remainingSlices = new AtomicInteger(slices);
+      this.blockOnce = blockOnce;
+    }
+
+    @Override
+    public void run() {
+      if (remainingSlices.decrementAndGet() <= 0) {
+        state = Task.State.DONE;
+      } else if (blockOnce && !blocked) {
+        blocked = true;
+        state = Task.State.BLOCKED_ON_UPSTREAM;
+      }
+    }
+
+    void unblock() {
+      wakeup.get().nowAvailable();
+    }
+
+    @Override
+    public void refreshState() {
+      if (state == Task.State.BLOCKED_ON_UPSTREAM) {
+        state = Task.State.RUNNABLE;
+      }
+    }
+
+    @Override
+    public Task.State getState() {
+      return state;
+    }
+
+    @Override
+    public SharedResourceType getFirstBlockedResource() {
+      return SharedResourceType.UNKNOWN;
+    }
+
+    @Override
+    public void updateSleepDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnDownstreamDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnUpstreamDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnMemoryDuration(long duration) {
+    }
+
+    @Override
+    public void addBlockedOnSharedResourceDuration(SharedResourceType resource, long duration) {
+    }
+
+    @Override
+    public void setWakeupCallback(AvailabilityCallback callback) {
+      wakeup.set(callback);
+    }
+
+    @Override
+    public void setTaskDescriptor(TaskDescriptor descriptor) {
+    }
+  }
+
+  /**
+   * Task that keeps its worker busy for about a millisecond per slice and records each slice it runs.
+   */
+  private static class SpinningTask extends SlicedTask {
+    private final String name;
+    private final ConcurrentLinkedQueue<String> runs;
+
+    SpinningTask(String name, int slices, ConcurrentLinkedQueue<String> runs) {
+      super(slices, false);
+      this.name = name;
+      this.runs = runs;
+    }
+
+    @Override
+    public void run() {
+      runs.add(name);
+      final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1);
+      while (System.nanoTime() < end) {
+        // spin
+      }
+      super.run();
+    }
+  }
+
+  /**
+   * Task that holds its worker until released, so that the tasks queued behind it are ordered before any of them runs.
+   */
+  private static class GateTask extends SlicedTask {
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    GateTask() {
+      super(1, false);
+    }
+
+    @Override
+    public void run() {
+      started.countDown();
+      try {
+        released.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      super.run();
+    }
+  }
+
+  private AsyncTaskWrapper wrap(SchedulingGroup<AsyncTaskWrapper> group, AsyncTask task, CountDownLatch done) {
+    return new AsyncTaskWrapper(100, group, task, done::countDown, Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void testAllTasksComplete() throws Exception {
+    pool = new WorkStealingTaskPool(4, 1);
+    final SchedulingGroup<AsyncTaskWrapper> group = pool.getGroupManager().newGroup(100);
+    final int numTasks = 64;
+    final CountDownLatch done = new CountDownLatch(numTasks);
+    for (int i = 0; i < numTasks; i++) {
+      pool.execute(wrap(group.addGroup(100), new SlicedTask(100, false), done));
+    }
+
+    assertTrue("tasks didn't complete in time", done.await(30, TimeUnit.SECONDS));
+    assertEquals(4, Iterables.size(pool.getSlicingThreads()));
+    for (TaskPool.ThreadInfo info : pool.getSlicingThreads()) {
+      assertEquals(0, info.numTasks);
+      assertEquals(0, info.numRequestedWork);
+    }
+    assertTrue(pool.areAllThreadsAlive());
+  }
+
+  @Test
+  public void testBlockedTaskResumesAfterWakeup() throws Exception {
+    pool = new WorkStealingTaskPool(4, 1);
+    final SchedulingGroup<AsyncTaskWrapper> group = pool.getGroupManager().newGroup(100);
+    final CountDownLatch done = new CountDownLatch(1);
+    final SlicedTask task = new SlicedTask(3, true);
+    pool.execute(wrap(group, task, done));
+
+    // the task blocks after its first slice and must not complete until woken up
+    assertFalse(done.await(200, TimeUnit.MILLISECONDS));
+    while (task.wakeup.get() == null) {
+      Thread.sleep(10);
+    }
+    task.unblock();
+    assertTrue("task didn't complete in time", done.await(30, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testIdleWorkerStealsFromBusyWorker() throws Exception {
+    pool = new WorkStealingTaskPool(2, 1);
+    final StealingWorker busy = pool.getWorkers().get(0);
+    final StealingWorker idle = pool.getWorkers().get(1);
+    final SchedulingGroup<AsyncTaskWrapper> group = pool.getGroupManager().newGroup(100);
+    final ConcurrentLinkedQueue<String> runs = new ConcurrentLinkedQueue<>();
+    final int numTasks = 8;
+    final CountDownLatch done = new CountDownLatch(numTasks);
+
+    // bypass the placement of the pool and put all the tasks on the same worker
+    for (int i = 0; i < numTasks; i++) {
+      final AsyncTaskWrapper task = wrap(group, new SpinningTask("t" + i, 20, runs), done);
+      final WorkStealingTaskHandle handle = new WorkStealingTaskHandle(pool, task, 1.0d);
+      task.setTaskHandle(handle);
+      busy.assign(handle);
+    }
+
+    assertTrue("tasks didn't complete in time", done.await(30, TimeUnit.SECONDS));
+    assertTrue("idle worker didn't steal any task", idle.getSteals() > 0);
+    assertEquals(busy.getSteals() + idle.getSteals(), busy.getStolenFrom() + idle.getStolenFrom());
+
+    final String stats = pool.getSchedulerStats().getStats(true);
+    assertTrue(stats, stats.contains("worker e1: "));
+    assertTrue(stats, stats.contains(String.format("steals=%d, stolenFrom=%d", idle.getSteals(), idle.getStolenFrom())));
+    assertTrue(stats, stats.contains("slices="));
+    assertTrue(stats, stats.contains("maxRunQueue="));
+
+    pool.getSchedulerStats().clearStats();
+    assertEquals("", pool.getSchedulerStats().getStats(false));
+    assertFalse(pool.getSchedulerStats().currentlyIdleAndHasStats());
+    for (TaskPool.ThreadInfo info : pool.getSlicingThreads()) {
+      assertEquals(0, info.numTasks);
+    }
+  }
+
+  @Test
+  public void testTasksRunInVruntimeOrder() throws Exception {
+    pool = new WorkStealingTaskPool(1, 1);
+    final StealingWorker worker = pool.getWorkers().get(0);
+    final SchedulingGroup<AsyncTaskWrapper> group = pool.getGroupManager().newGroup(100);
+    final ConcurrentLinkedQueue<String> runs = new ConcurrentLinkedQueue<>();
+    final CountDownLatch done = new CountDownLatch(4);
+
+    final GateTask gate = new GateTask();
+    pool.execute(wrap(group, gate, done));
+    assertTrue(gate.started.await(30, TimeUnit.SECONDS));
+
+    // queued behind the gate out of vruntime order
+    final double[] vruntimes = {300, 100, 200};
+    for (int i = 0; i < vruntimes.length; i++) {
+      final AsyncTaskWrapper task = wrap(group, new SpinningTask("v" + (long) vruntimes[i], 1, runs), done);
+      final WorkStealingTaskHandle handle = new WorkStealingTaskHandle(pool, task, 1.0d);
+      task.setTaskHandle(handle);
+      handle.setVruntime(vruntimes[i]);
+      worker.assign(handle);
+    }
+    gate.released.countDown();
+
+    assertTrue("tasks didn't complete in time", done.await(30, TimeUnit.SECONDS));
+    assertEquals(ImmutableList.of("v100", "v200", "v300"), ImmutableList.copyOf(runs));
+  }
+
+  @Test
+  public void testHigherWeightGetsMoreSlices() throws Exception {
+    pool = new WorkStealingTaskPool(1, 1);
+    final SchedulingGroup<AsyncTaskWrapper> heavyGroup = pool.getGroupManager().newGroup(TaskManager.MAX_WEIGHT);
+    final SchedulingGroup<AsyncTaskWrapper> lightGroup = pool.getGroupManager().newGroup(TaskManager.MAX_WEIGHT / 4);
+    final ConcurrentLinkedQueue<String> runs = new ConcurrentLinkedQueue<>();
+    final CountDownLatch done = new CountDownLatch(3);
+
+    final GateTask gate = new GateTask();
+    pool.execute(wrap(heavyGroup, gate, done));
+    assertTrue(gate.started.await(30, TimeUnit.SECONDS));
+
+    // both tasks start at the same vruntime, the light one accrues it four times faster
+    pool.execute(wrap(heavyGroup, new SpinningTask("heavy", 50, runs), done));
+    pool.execute(wrap(lightGroup, new SpinningTask("light", 50, runs), done));
+    gate.released.countDown();
+
+    assertTrue("tasks didn't complete in time", done.await(30, TimeUnit.SECONDS));
+    final List<String> firstRuns = ImmutableList.copyOf(runs).subList(0, 20);
+    final long heavyRuns = firstRuns.stream().filter("heavy"::equals).count();
+    assertTrue("heavy task ran " + heavyRuns + " of the first 20 slices", heavyRuns >= 13);
+  }
+}
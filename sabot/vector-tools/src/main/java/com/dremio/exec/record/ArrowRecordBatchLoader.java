@@ -21,7 +21,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.LongConsumer;
 
+import org.apache.arrow.compression.CommonsCompressionFactory;
 import org.apache.arrow.flatbuf.Buffer;
 import org.apache.arrow.flatbuf.FieldNode;
 import org.apache.arrow.flatbuf.RecordBatch;
@@ -33,6 +35,8 @@ import org.apache.arrow.vector.BufferLayout;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.TypeLayout;
 import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
 import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.ipc.message.ArrowFieldNode;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
@@ -40,6 +44,7 @@ import org.apache.arrow.vector.types.pojo.Field;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.dremio.common.AutoCloseables;
 import com.dremio.common.expression.BasePath;
 import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
 import com.dremio.exec.record.selection.SelectionVector2;
@@ -59,6 +64,8 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
   private VectorContainer container;
   private int valueCount;
   private BatchSchema schema;
+  private long uncompressedSize;
+  private long decompressionNanos;
 
   public ArrowRecordBatchLoader(VectorContainer container) {
     this.container = container;
@@ -84,6 +91,8 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
   public int load(FragmentRecordBatch header, ArrowBuf body) {
     container.zeroVectors();
     int size = 0;
+    uncompressedSize = 0;
+    decompressionNanos = 0;
     try {
       RecordBatch recordBatch = RecordBatch.getRootAsRecordBatch(header.getArrowRecordBatch().asReadOnlyByteBuffer());
       if (body == null) {
@@ -101,7 +110,7 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
         return 0;
       }
       size = (body == null) ? 0 : LargeMemoryUtil.checkedCastToInt(body.readableBytes());
-      load(recordBatch, container, body);
+      uncompressedSize = load(recordBatch, container, body, nanos -> decompressionNanos += nanos);
     } catch (final Throwable cause) {
       // We have to clean up new vectors created here and pass over the actual cause. It is upper layer who should
       // adjudicate to call upper layer specific clean up logic.
@@ -115,17 +124,7 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
   public static ArrowRecordBatch deserializeRecordBatch(RecordBatch recordBatchFB,
                                                         ArrowBuf body) throws IOException {
     // Now read the body
-    int nodesLength = recordBatchFB.nodesLength();
-    List<ArrowFieldNode> nodes = new ArrayList<>();
-    for (int i = 0; i < nodesLength; ++i) {
-      FieldNode node = recordBatchFB.nodes(i);
-      if ((int)node.length() != node.length() ||
-        (int)node.nullCount() != node.nullCount()) {
-        throw new IOException("Cannot currently deserialize record batches with " +
-          "node length larger than Int.MAX_VALUE");
-      }
-      nodes.add(new ArrowFieldNode((int)node.length(), (int)node.nullCount()));
-    }
+    List<ArrowFieldNode> nodes = deserializeNodes(recordBatchFB);
     List<ArrowBuf> buffers = new ArrayList<>();
     for (int i = 0; i < recordBatchFB.buffersLength(); ++i) {
       Buffer bufferFB = recordBatchFB.buffers(i);
@@ -143,7 +142,26 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
     return arrowRecordBatch;
   }
 
-  public static void load(RecordBatch recordBatch, VectorAccessible vectorAccessible, ArrowBuf body) {
+  /**
+   * Loads the body of a record batch into the vectors of the given container, decompressing the body
+   * buffers first if the sender compressed them.
+   *
+   * @return the uncompressed size of the loaded buffers
+   */
+  public static long load(RecordBatch recordBatch, VectorAccessible vectorAccessible, ArrowBuf body) {
+    return load(recordBatch, vectorAccessible, body, nanos -> {});
+  }
+
+  /**
+   * Same as {@link #load(RecordBatch, VectorAccessible, ArrowBuf)}, reporting the time spent in the codec to
+   * decompress each buffer.
+   */
+  private static long load(RecordBatch recordBatch, VectorAccessible vectorAccessible, ArrowBuf body,
+                           LongConsumer decompressionNanos) {
+    if (recordBatch.compression() != null) {
+      return loadCompressed(recordBatch, vectorAccessible, body, decompressionNanos);
+    }
+
     List<Field> fields = vectorAccessible.getSchema().getFields();
     List<FieldVector> fieldVectors = FluentIterable.from(vectorAccessible)
       .transform(new Function<VectorWrapper<?>, FieldVector>() {
@@ -167,6 +185,64 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
     } catch (IOException e) {
       throw new RuntimeException("could not deserialize batch for " + vectorAccessible.getSchema(), e);
     }
+    return body == null ? 0 : body.readableBytes();
+  }
+
+  private static long loadCompressed(RecordBatch recordBatch, VectorAccessible vectorAccessible, ArrowBuf body,
+                                     LongConsumer decompressionNanos) {
+    final List<Field> fields = vectorAccessible.getSchema().getFields();
+    final List<FieldVector> fieldVectors = FluentIterable.from(vectorAccessible)
+      .transform(wrapper -> (FieldVector) wrapper.getValueVector())
+      .toList();
+    final List<ArrowBuf> decompressed = new ArrayList<>(recordBatch.buffersLength());
+    try {
+      final List<ArrowFieldNode> nodes = deserializeNodes(recordBatch);
+      final CompressionCodec codec = CommonsCompressionFactory.INSTANCE.createCodec(
+        CompressionUtil.CodecType.fromCompressionType(recordBatch.compression().codec()));
+      final BufferAllocator allocator = body.getReferenceManager().getAllocator();
+      long uncompressedSize = 0;
+      for (int i = 0; i < recordBatch.buffersLength(); ++i) {
+        Buffer bufferFB = recordBatch.buffers(i);
+        ArrowBuf compressed = body.slice((int) bufferFB.offset(), (int) bufferFB.length());
+        // the codec releases the compressed buffer, the body keeps its own reference
+        compressed.getReferenceManager().retain();
+        final long start = System.nanoTime();
+        ArrowBuf buf = codec.decompress(allocator, compressed);
+        decompressionNanos.accept(System.nanoTime() - start);
+        decompressed.add(buf);
+        uncompressedSize += buf.readableBytes();
+      }
+
+      Iterator<ArrowFieldNode> nodeIterator = nodes.iterator();
+      Iterator<ArrowBuf> buffers = decompressed.iterator();
+      for (int i = 0; i < fields.size(); ++i) {
+        loadBuffers(fieldVectors.get(i), fields.get(i), buffers, nodeIterator);
+      }
+      if (buffers.hasNext()) {
+        throw new IllegalArgumentException("not all buffers were consumed. " + buffers);
+      }
+      return uncompressedSize;
+    } catch (IOException e) {
+      throw new RuntimeException("could not deserialize batch for " + vectorAccessible.getSchema(), e);
+    } finally {
+      // vectors hold their own references to the decompressed buffers
+      AutoCloseables.close(RuntimeException.class, decompressed);
+    }
+  }
+
+  private static List<ArrowFieldNode> deserializeNodes(RecordBatch recordBatchFB) throws IOException {
+    int nodesLength = recordBatchFB.nodesLength();
+    List<ArrowFieldNode> nodes = new ArrayList<>();
+    for (int i = 0; i < nodesLength; ++i) {
+      FieldNode node = recordBatchFB.nodes(i);
+      if ((int)node.length() != node.length() ||
+        (int)node.nullCount() != node.nullCount()) {
+        throw new IOException("Cannot currently deserialize record batches with " +
+          "node length larger than Int.MAX_VALUE");
+      }
+      nodes.add(new ArrowFieldNode((int)node.length(), (int)node.nullCount()));
+    }
+    return nodes;
   }
 
   private static void loadBuffers(FieldVector vector, Field field, Iterator<ArrowBuf> buffers, Iterator<ArrowFieldNode> nodes) {
@@ -235,6 +311,20 @@ public class ArrowRecordBatchLoader implements VectorAccessible, Iterable<Vector
     return schema;
   }
 
+  /**
+   * @return the size of the last loaded batch after decompression
+   */
+  public long getUncompressedSize() {
+    return uncompressedSize;
+  }
+
+  /**
+   * @return the time spent decompressing the last loaded batch, in nanoseconds
+   */
+  public long getDecompressionNanos() {
+    return decompressionNanos;
+  }
+
   public void resetRecordCount() {
     valueCount = 0;
   }
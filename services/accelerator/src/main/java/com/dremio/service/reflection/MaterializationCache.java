@@ -17,7 +17,13 @@ package com.dremio.service.reflection;
 
 import static com.dremio.service.reflection.ExternalReflectionStatus.STATUS.OUT_OF_SYNC;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.calcite.rel.RelNode;
@@ -30,6 +36,9 @@ import com.dremio.exec.catalog.EntityExplorer;
 import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.ExternalQueryDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.TableUsage;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.VersionedPath;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.service.Pointer;
@@ -40,9 +49,11 @@ import com.dremio.service.reflection.proto.Materialization;
 import com.dremio.service.reflection.proto.MaterializationId;
 import com.dremio.service.reflection.proto.ReflectionId;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 
 import io.protostuff.ByteString;
 
@@ -56,6 +67,8 @@ class MaterializationCache {
   private static final Map<String, CachedMaterializationDescriptor> EMPTY_MAP = ImmutableMap.of();
 
   private final AtomicReference<Map<String, CachedMaterializationDescriptor>> cached = new AtomicReference<>(EMPTY_MAP);
+  // index of the cached descriptors by what they use, rebuilt by the thread changing the cache
+  private volatile MaterializationIndex index = new MaterializationIndex(EMPTY_MAP);
 
   /**
    * CacheHelper helps with keeping MaterializationCache up to date and also handles materialization expansion.
@@ -112,6 +125,7 @@ class MaterializationCache {
       Map<String, CachedMaterializationDescriptor> updated = updateCache(old);
       exchanged = cached.compareAndSet(old, updated);
     } while(!exchanged);
+    updateIndex();
   }
 
   void resetCache() {
@@ -120,6 +134,19 @@ class MaterializationCache {
       Map<String, CachedMaterializationDescriptor> old = cached.get();
       exchanged = cached.compareAndSet(old, EMPTY_MAP);
     } while(!exchanged);
+    updateIndex();
+  }
+
+  /**
+   * Rebuilds the index from the current cache, unless it is already up to date. Called after each change of the
+   * cache, so that planning threads only look the index up. Synchronized so that concurrent changes build it once,
+   * from the latest cache.
+   */
+  private synchronized void updateIndex() {
+    final Map<String, CachedMaterializationDescriptor> current = cached.get();
+    if (index.source != current) {
+      index = new MaterializationIndex(current);
+    }
   }
 
   /**
@@ -263,6 +290,7 @@ class MaterializationCache {
       //update the cache.
       exchanged = cached.compareAndSet(old, updated);
     } while(!exchanged);
+    updateIndex();
   }
 
   void update(Materialization m) throws CacheException {
@@ -277,6 +305,7 @@ class MaterializationCache {
         updated.put(m.getId().getId(), descriptor);
         exchanged = cached.compareAndSet(old, updated); //update the cache.
       } while (!exchanged);
+      updateIndex();
     }
   }
 
@@ -284,6 +313,28 @@ class MaterializationCache {
     return Iterables.unmodifiableIterable(cached.get().values());
   }
 
+  /**
+   * Returns the cached descriptors using any of the given tables, views or external queries, the only ones that can
+   * be applicable to a query using them, along with the descriptors whose plans couldn't be indexed.
+   */
+  List<MaterializationDescriptor> getCandidates(Set<VersionedPath> tables, Set<VersionedPath> vdsPaths,
+                                                Set<ExternalQueryDescriptor> externalQueries) {
+    return index.lookup(tables, vdsPaths, externalQueries);
+  }
+
+  /**
+   * Counts the reflections with a cached descriptor that is valid at the given time on the given hosts, that is
+   * that doesn't expire before then and is only partitioned on active hosts. Kept up to date by the index, so that
+   * it doesn't walk the whole cache.
+   */
+  int getNumValidReflections(long currentTime, Set<String> activeHosts) {
+    return index.countValidReflections(currentTime, activeHosts);
+  }
+
+  int size() {
+    return cached.get().size();
+  }
+
   MaterializationDescriptor get(MaterializationId mId) {
     return cached.get().get(mId.getId());
   }
@@ -291,4 +342,100 @@ class MaterializationCache {
   boolean contains(MaterializationId mId) {
     return cached.get().containsKey(mId.getId());
   }
+
+  /**
+   * Cached descriptors by the tables, views and external queries their plans use.
+   */
+  private static final class MaterializationIndex {
+    private final Map<String, CachedMaterializationDescriptor> source;
+    private final Multimap<VersionedPath, CachedMaterializationDescriptor> byTable = ArrayListMultimap.create();
+    private final Multimap<VersionedPath, CachedMaterializationDescriptor> byVds = ArrayListMultimap.create();
+    private final Multimap<ExternalQueryDescriptor, CachedMaterializationDescriptor> byExternalQuery = ArrayListMultimap.create();
+    // descriptors whose table usage couldn't be found, candidates of every query
+    private final List<CachedMaterializationDescriptor> unindexed = new ArrayList<>();
+    // latest expiration of the descriptors of each reflection that are valid on any host, by reflection and sorted
+    private final Map<String, Long> latestExpirations = new HashMap<>();
+    private final long[] sortedExpirations;
+    // descriptors only valid while the hosts of their partitions are active, by reflection
+    private final Multimap<String, CachedMaterializationDescriptor> partitioned = ArrayListMultimap.create();
+
+    MaterializationIndex(Map<String, CachedMaterializationDescriptor> source) {
+      this.source = source;
+      for (CachedMaterializationDescriptor descriptor : source.values()) {
+        if (descriptor.getPartition().isEmpty()) {
+          latestExpirations.merge(descriptor.getLayoutId(), descriptor.getExpirationTimestamp(), Math::max);
+        } else {
+          partitioned.put(descriptor.getLayoutId(), descriptor);
+        }
+        try {
+          final TableUsage usage = descriptor.getTableUsage();
+          usage.getTables().forEach(path -> byTable.put(path, descriptor));
+          usage.getVdsPaths().forEach(path -> byVds.put(path, descriptor));
+          usage.getExternalQueries().forEach(query -> byExternalQuery.put(query, descriptor));
+        } catch (RuntimeException e) {
+          logger.debug("couldn't index materialization {}, it will be considered for every query",
+            descriptor.getMaterializationId(), e);
+          unindexed.add(descriptor);
+        }
+      }
+      this.sortedExpirations = latestExpirations.values().stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    int countValidReflections(long currentTime, Set<String> activeHosts) {
+      // first reflection expiring after the current time
+      int low = 0;
+      int high = sortedExpirations.length;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (sortedExpirations[mid] > currentTime) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      int count = sortedExpirations.length - low;
+
+      for (Map.Entry<String, Collection<CachedMaterializationDescriptor>> entry : partitioned.asMap().entrySet()) {
+        final Long latestExpiration = latestExpirations.get(entry.getKey());
+        if (latestExpiration != null && latestExpiration > currentTime) {
+          // already counted
+          continue;
+        }
+        for (CachedMaterializationDescriptor descriptor : entry.getValue()) {
+          if (descriptor.getExpirationTimestamp() > currentTime && activeHosts.containsAll(descriptor.getPartition())) {
+            count++;
+            break;
+          }
+        }
+      }
+      return count;
+    }
+
+    List<MaterializationDescriptor> lookup(Set<VersionedPath> tables, Set<VersionedPath> vdsPaths,
+                                           Set<ExternalQueryDescriptor> externalQueries) {
+      // a descriptor using several tables of the query is returned once
+      final Map<MaterializationDescriptor, Boolean> found = new IdentityHashMap<>();
+      final List<MaterializationDescriptor> candidates = new ArrayList<>();
+      for (VersionedPath table : tables) {
+        addAll(byTable.get(table), found, candidates);
+      }
+      for (VersionedPath vdsPath : vdsPaths) {
+        addAll(byVds.get(vdsPath), found, candidates);
+      }
+      for (ExternalQueryDescriptor externalQuery : externalQueries) {
+        addAll(byExternalQuery.get(externalQuery), found, candidates);
+      }
+      addAll(unindexed, found, candidates);
+      return candidates;
+    }
+
+    private static void addAll(Iterable<CachedMaterializationDescriptor> descriptors,
+                               Map<MaterializationDescriptor, Boolean> found, List<MaterializationDescriptor> candidates) {
+      for (CachedMaterializationDescriptor descriptor : descriptors) {
+        if (found.put(descriptor, Boolean.TRUE) == null) {
+          candidates.add(descriptor);
+        }
+      }
+    }
+  }
 }
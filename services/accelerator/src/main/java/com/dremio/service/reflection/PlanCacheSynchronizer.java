@@ -31,7 +31,8 @@ import com.dremio.service.reflection.store.ReflectionGoalsStore;
 import com.google.common.collect.Sets;
 
 /**
- * This class is responsible for invalidating entries in the plan cache based on the changes that have been made to reflections.
+ * This class is responsible for invalidating entries in the plan cache based on the changes that have been made to reflections,
+ * and to the branches and tags of versioned sources the cached plans were planned against.
  * It looks both at reflection goals and reflections entries to find those that have been changed
  * since the last time #sync has been executed.
  * NOTE: we need to revisit how our overall cache layer works because it relies on enumerating all the db entries
@@ -90,6 +91,13 @@ class PlanCacheSynchronizer {
           logger.warn(String.format("Error while invalidating plan cache for dataset %s", datasetId), ex);
         }
       }
+
+      // plans over versioned tables are invalidated when a commit lands on the branch or tag they were planned at
+      try {
+        helper.invalidateVersionedTablesPlanCache();
+      } catch (Exception ex) {
+        logger.warn("Error while invalidating plan cache for versioned tables", ex);
+      }
       lastUpdatedOn = now;
     } catch (Exception ex) {
       logger.warn("Error when trying to reconcile plan cache entries. Will retry next time", ex);
@@ -78,6 +78,7 @@ import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
 import com.dremio.exec.planner.acceleration.MaterializationExpander;
 import com.dremio.exec.planner.acceleration.StrippingFactory;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
 import com.dremio.exec.planner.observer.AbstractAttemptObserver;
 import com.dremio.exec.planner.observer.AttemptObservers;
 import com.dremio.exec.planner.serialization.DeserializationException;
@@ -981,6 +982,30 @@ public class ReflectionServiceImpl extends BaseReflectionService {
           .filter(notNull());
       }
 
+      return getLatestByReflection(descriptors);
+    }
+
+    @Override
+    public Candidates getCandidates(Set<SubstitutionUtils.VersionedPath> tables, Set<SubstitutionUtils.VersionedPath> vdsPaths,
+                                    Set<SubstitutionUtils.ExternalQueryDescriptor> externalQueries) {
+      if (!isSubstitutionEnabled() || !isCacheEnabled()) {
+        return MaterializationDescriptorProvider.super.getCandidates(tables, vdsPaths, externalQueries);
+      }
+
+      // only the cached descriptors are indexed by the tables, views and external queries they use
+      final long currentTime = System.currentTimeMillis();
+      final Set<String> activeHosts = getActiveHosts();
+      final Predicate<MaterializationDescriptor> isValid = descriptor ->
+        descriptor.getExpirationTimestamp() > currentTime && activeHosts.containsAll(descriptor.getPartition());
+      final List<MaterializationDescriptor> candidates = getLatestByReflection(
+        FluentIterable.from(materializationCache.getCandidates(tables, vdsPaths, externalQueries)).filter(isValid));
+
+      // the valid reflections the index didn't return, the cache may have changed since the lookup
+      final int numValid = materializationCache.getNumValidReflections(currentTime, activeHosts);
+      return new Candidates(candidates, Math.max(0, numValid - candidates.size()));
+    }
+
+    private List<MaterializationDescriptor> getLatestByReflection(FluentIterable<MaterializationDescriptor> descriptors) {
       if (Iterables.isEmpty(descriptors)) {
         return Collections.emptyList();
       }
@@ -1337,6 +1362,17 @@ public class ReflectionServiceImpl extends BaseReflectionService {
       AutoCloseables.closeNoChecked(context);
     }
 
+    /**
+     * Invalidates the cached plans over datasets of versioned sources which branch or tag got new commits.
+     */
+    public void invalidateVersionedTablesPlanCache() {
+      PlanCache planCache = foremenWorkManager.getPlanCacheHandle();
+      if (!isPlanCacheEnabled() || planCache == null) {
+        return;
+      }
+      planCache.invalidateCacheOnVersionedTableChanges(catalog);
+    }
+
     public void invalidateReflectionAssociatedPlanCache(String datasetId) {
       PlanCache planCache = foremenWorkManager.getPlanCacheHandle();
       if (!isPlanCacheEnabled() || planCache == null) {
@@ -128,6 +128,7 @@ public class PlanCacheSynchronizerTest {
     synchronizer.sync();
 
     verify(invalidationHelper, never()).invalidateReflectionAssociatedPlanCache(anyString());
+    verify(invalidationHelper, never()).invalidateVersionedTablesPlanCache();
     verify(entries, never()).find();
     verify(goals, never()).getModifiedOrCreatedSince(anyLong());
   }
@@ -168,6 +169,45 @@ public class PlanCacheSynchronizerTest {
     verify(invalidationHelper, times(2)).invalidateReflectionAssociatedPlanCache(anyString());
   }
 
+  @Test
+  public void testVersionedTablesInvalidatedOnSync() {
+    when(invalidationHelper.isPlanCacheEnabled())
+        .thenReturn(true);
+
+    when(entries.find())
+        .thenReturn(Collections.emptyList());
+
+    when(goals.getModifiedOrCreatedSince(anyLong()))
+        .thenReturn(Collections.emptyList());
+
+    PlanCacheSynchronizer synchronizer = new PlanCacheSynchronizer(goals, entries, () -> invalidationHelper);
+    synchronizer.sync();
+
+    verify(invalidationHelper, times(1)).invalidateVersionedTablesPlanCache();
+  }
+
+  @Test
+  public void testIgnoreErrorsDuringVersionedTablesInvalidation() {
+    when(invalidationHelper.isPlanCacheEnabled())
+        .thenReturn(true);
+
+    when(entries.find())
+        .thenReturn(asList(
+            createEntry("b", tomorrow)
+        ));
+
+    when(goals.getModifiedOrCreatedSince(anyLong()))
+        .thenReturn(Collections.emptyList());
+
+    doThrow(new RuntimeException()).when(invalidationHelper).invalidateVersionedTablesPlanCache();
+
+    PlanCacheSynchronizer synchronizer = new PlanCacheSynchronizer(goals, entries, () -> invalidationHelper);
+    synchronizer.sync();
+
+    verify(invalidationHelper, times(1)).invalidateReflectionAssociatedPlanCache("b");
+    verify(invalidationHelper, times(1)).invalidateVersionedTablesPlanCache();
+  }
+
   private ReflectionGoal createGoal(String datasetId) {
     ReflectionGoal goal = new ReflectionGoal();
     goal.setDatasetId(datasetId);
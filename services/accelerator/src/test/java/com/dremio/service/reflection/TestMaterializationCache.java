@@ -16,13 +16,21 @@
 package com.dremio.service.reflection;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelShuttle;
+import org.apache.calcite.rel.core.TableScan;
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -33,6 +41,8 @@ import org.mockito.quality.Strictness;
 import org.mockito.stubbing.Answer;
 
 import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.VersionedPath;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.reflection.proto.Materialization;
@@ -91,4 +101,118 @@ public class TestMaterializationCache extends DremioTest {
     materializationCache.update(m2);
     assertThat(materializationCache.get(mId2)).isEqualTo(descriptor);
   }
+
+  @Test
+  public void testCandidatesByTable() throws Exception {
+    MaterializationCache materializationCache = new MaterializationCache(provider, reflectionStatusService, catalogService);
+    Materialization m1 = new Materialization();
+    Materialization m2 = new Materialization();
+    m1.setId(new MaterializationId("abc"));
+    m2.setId(new MaterializationId("def"));
+    CachedMaterializationDescriptor descriptor1 = mock(CachedMaterializationDescriptor.class);
+    CachedMaterializationDescriptor descriptor2 = mock(CachedMaterializationDescriptor.class);
+    SubstitutionUtils.TableUsage usage1 = SubstitutionUtils.findTableUsage(createTableScan(Arrays.asList("schema", "t1")));
+    SubstitutionUtils.TableUsage usage2 = SubstitutionUtils.findTableUsage(createTableScan(Arrays.asList("schema", "t2")));
+    when(descriptor1.getTableUsage()).thenReturn(usage1);
+    when(descriptor2.getTableUsage()).thenReturn(usage2);
+
+    when(provider.expand(m1)).thenReturn(descriptor1);
+    when(provider.expand(m2)).thenReturn(descriptor2);
+    when(provider.getValidMaterializations()).thenReturn(Arrays.asList(m1, m2));
+    when(provider.getExternalReflections()).thenReturn(Collections.emptyList());
+    materializationCache.refresh();
+
+    final VersionedPath t1 = VersionedPath.of(Arrays.asList("schema", "t1"));
+    final VersionedPath t3 = VersionedPath.of(Arrays.asList("schema", "t3"));
+    assertThat(materializationCache.size()).isEqualTo(2);
+    assertThat(materializationCache.getCandidates(Collections.singleton(t1), Collections.emptySet(), Collections.emptySet()))
+      .containsExactly(descriptor1);
+    // a table of the materialization is not a view of the query
+    assertThat(materializationCache.getCandidates(Collections.singleton(t3), Collections.singleton(t1), Collections.emptySet()))
+      .isEmpty();
+  }
+
+  @Test
+  public void testUnindexableDescriptorIsAlwaysCandidate() throws Exception {
+    MaterializationCache materializationCache = new MaterializationCache(provider, reflectionStatusService, catalogService);
+    Materialization m1 = new Materialization();
+    Materialization m2 = new Materialization();
+    m1.setId(new MaterializationId("abc"));
+    m2.setId(new MaterializationId("def"));
+    CachedMaterializationDescriptor descriptor1 = mock(CachedMaterializationDescriptor.class);
+    CachedMaterializationDescriptor descriptor2 = mock(CachedMaterializationDescriptor.class);
+    SubstitutionUtils.TableUsage usage1 = SubstitutionUtils.findTableUsage(createTableScan(Arrays.asList("schema", "t1")));
+    when(descriptor1.getTableUsage()).thenReturn(usage1);
+    when(descriptor2.getTableUsage()).thenThrow(new IllegalStateException("can't walk the plan"));
+
+    when(provider.expand(m1)).thenReturn(descriptor1);
+    when(provider.expand(m2)).thenReturn(descriptor2);
+    when(provider.getValidMaterializations()).thenReturn(Arrays.asList(m1, m2));
+    when(provider.getExternalReflections()).thenReturn(Collections.emptyList());
+    materializationCache.refresh();
+    // the index is built when the cache changes, not on lookups
+    verify(descriptor1, times(1)).getTableUsage();
+    verify(descriptor2, times(1)).getTableUsage();
+
+    final VersionedPath t1 = VersionedPath.of(Arrays.asList("schema", "t1"));
+    final VersionedPath t3 = VersionedPath.of(Arrays.asList("schema", "t3"));
+    assertThat(materializationCache.getCandidates(Collections.singleton(t1), Collections.emptySet(), Collections.emptySet()))
+      .containsExactlyInAnyOrder(descriptor1, descriptor2);
+    assertThat(materializationCache.getCandidates(Collections.singleton(t3), Collections.emptySet(), Collections.emptySet()))
+      .containsExactly(descriptor2);
+    verify(descriptor1, times(1)).getTableUsage();
+    verify(descriptor2, times(1)).getTableUsage();
+  }
+
+  @Test
+  public void testCountsValidReflections() throws Exception {
+    MaterializationCache materializationCache = new MaterializationCache(provider, reflectionStatusService, catalogService);
+    final SubstitutionUtils.TableUsage usage = SubstitutionUtils.findTableUsage(createTableScan(Arrays.asList("schema", "t1")));
+    // r1 has two materializations, r2 is only valid while h1 is active
+    final CachedMaterializationDescriptor r1Old = mockDescriptor("r1", 100, Collections.emptyList(), usage);
+    final CachedMaterializationDescriptor r1New = mockDescriptor("r1", 300, Collections.emptyList(), usage);
+    final CachedMaterializationDescriptor r2 = mockDescriptor("r2", 200, Collections.singletonList("h1"), usage);
+    final CachedMaterializationDescriptor r3 = mockDescriptor("r3", 50, Collections.emptyList(), usage);
+    final List<Materialization> materializations = Arrays.asList(
+      new Materialization().setId(new MaterializationId("m1")),
+      new Materialization().setId(new MaterializationId("m2")),
+      new Materialization().setId(new MaterializationId("m3")),
+      new Materialization().setId(new MaterializationId("m4")));
+    when(provider.expand(materializations.get(0))).thenReturn(r1Old);
+    when(provider.expand(materializations.get(1))).thenReturn(r1New);
+    when(provider.expand(materializations.get(2))).thenReturn(r2);
+    when(provider.expand(materializations.get(3))).thenReturn(r3);
+    when(provider.getValidMaterializations()).thenReturn(materializations);
+    when(provider.getExternalReflections()).thenReturn(Collections.emptyList());
+    materializationCache.refresh();
+
+    assertThat(materializationCache.getNumValidReflections(0, Collections.singleton("h1"))).isEqualTo(3);
+    assertThat(materializationCache.getNumValidReflections(150, Collections.singleton("h1"))).isEqualTo(2);
+    assertThat(materializationCache.getNumValidReflections(150, Collections.emptySet())).isEqualTo(1);
+    assertThat(materializationCache.getNumValidReflections(250, Collections.singleton("h1"))).isEqualTo(1);
+    assertThat(materializationCache.getNumValidReflections(300, Collections.singleton("h1"))).isEqualTo(0);
+
+    materializationCache.invalidate(new MaterializationId("m2"));
+    assertThat(materializationCache.getNumValidReflections(150, Collections.singleton("h1"))).isEqualTo(1);
+  }
+
+  private static CachedMaterializationDescriptor mockDescriptor(String reflectionId, long expiration,
+                                                                List<String> partition,
+                                                                SubstitutionUtils.TableUsage usage) {
+    CachedMaterializationDescriptor descriptor = mock(CachedMaterializationDescriptor.class);
+    when(descriptor.getLayoutId()).thenReturn(reflectionId);
+    when(descriptor.getExpirationTimestamp()).thenReturn(expiration);
+    when(descriptor.getPartition()).thenReturn(partition);
+    when(descriptor.getTableUsage()).thenReturn(usage);
+    return descriptor;
+  }
+
+  private static RelNode createTableScan(List<String> path) {
+    TableScan node = mock(TableScan.class);
+    RelOptTable table = mock(RelOptTable.class);
+    when(node.getTable()).thenReturn(table);
+    when(table.getQualifiedName()).thenReturn(path);
+    when(node.accept(any(RelShuttle.class))).thenCallRealMethod();
+    return node;
+  }
 }
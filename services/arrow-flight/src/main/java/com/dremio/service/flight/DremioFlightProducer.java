@@ -74,6 +74,7 @@ import com.dremio.options.OptionManager;
 import com.dremio.sabot.rpc.user.UserSession;
 import com.dremio.service.flight.error.mapping.DremioFlightErrorMapper;
 import com.dremio.service.flight.impl.FlightPreparedStatement;
+import com.dremio.service.flight.impl.FlightResultStreams;
 import com.dremio.service.flight.impl.FlightWorkManager;
 import com.dremio.service.flight.impl.FlightWorkManager.RunQueryResponseHandlerFactory;
 import com.dremio.service.usersessions.UserSessionService;
@@ -90,6 +91,7 @@ public class DremioFlightProducer implements FlightSqlProducer {
   private static final Logger logger = LoggerFactory.getLogger(DremioFlightProducer.class);
 
   private final FlightWorkManager flightWorkManager;
+  private final Provider<OptionManager> optionManagerProvider;
   private final Location location;
   private final DremioFlightSessionsManager sessionsManager;
   private final BufferAllocator allocator;
@@ -98,13 +100,16 @@ public class DremioFlightProducer implements FlightSqlProducer {
   public DremioFlightProducer(Location location, DremioFlightSessionsManager sessionsManager,
                               Provider<UserWorker> workerProvider, Provider<OptionManager> optionManagerProvider,
                               BufferAllocator allocator, Provider<FlightRequestContextDecorator> requestContextDecorator,
-                              RunQueryResponseHandlerFactory runQueryResponseHandlerFactory) {
+                              RunQueryResponseHandlerFactory runQueryResponseHandlerFactory,
+                              Provider<FlightResultStreams> resultStreamsProvider) {
     this.location = location;
+    this.optionManagerProvider = optionManagerProvider;
     this.sessionsManager = sessionsManager;
     this.allocator = allocator;
     this.requestContextDecorator = requestContextDecorator;
 
-    flightWorkManager = new FlightWorkManager(workerProvider, optionManagerProvider, runQueryResponseHandlerFactory);
+    flightWorkManager = new FlightWorkManager(workerProvider, optionManagerProvider, runQueryResponseHandlerFactory,
+      resultStreamsProvider);
   }
 
   @Override
@@ -127,6 +132,17 @@ public class DremioFlightProducer implements FlightSqlProducer {
         TicketContent.PreparedStatementTicket.parseFrom(ticket.getBytes());
 
       final UserProtos.PreparedStatementHandle preparedStatementHandle = preparedStatementTicket.getHandle();
+      if (preparedStatementTicket.hasQueryId()) {
+        // this node runs the screen fragment of the query, as an executor
+        flightWorkManager.fetchExecutorResults(preparedStatementTicket.getQueryId(),
+          preparedStatementTicket.getEndpointCount(), preparedStatementTicket.getEndpointIndex(), serverStreamListener);
+        return;
+      }
+      if (!preparedStatementTicket.getStreamId().isEmpty()) {
+        runPreparedStatementOnEndpoint(callContext, serverStreamListener, preparedStatementTicket.getStreamId(),
+          preparedStatementTicket.getEndpointIndex());
+        return;
+      }
       runPreparedStatement(callContext, serverStreamListener, preparedStatementHandle);
     } catch (InvalidProtocolBufferException ex) {
       final RuntimeException error =
@@ -201,6 +217,12 @@ public class DremioFlightProducer implements FlightSqlProducer {
       flightWorkManager
       .createPreparedStatement(flightDescriptor, callContext::isCancelled, session);
 
+    final int endpointCount = (int) optionManagerProvider.get().getOption(DremioFlightServiceOptions.PARALLEL_ENDPOINTS);
+    if (endpointCount > 1) {
+      final FlightWorkManager.ParallelResults results = flightWorkManager.runParallelPreparedStatement(
+        flightPreparedStatement.getServerHandle(), endpointCount, session);
+      return flightPreparedStatement.getFlightInfoLegacy(location, flightDescriptor, results);
+    }
     return flightPreparedStatement.getFlightInfoLegacy(location, flightDescriptor);
   }
 
@@ -627,6 +649,21 @@ public class DremioFlightProducer implements FlightSqlProducer {
     );
   }
 
+  private void runPreparedStatementOnEndpoint(CallContext callContext,
+                                              ServerStreamListener serverStreamListener,
+                                              String streamId, int endpointIndex) {
+    final UserSessionService.UserSessionData sessionData = getUserSessionData(callContext);
+    final ChangeTrackingUserSession userSession = new ChangeTrackingUserSession(sessionData.getSession());
+
+    flightWorkManager.runPreparedStatementOnEndpoint(streamId, endpointIndex,
+      serverStreamListener, allocator, userSession, () -> {
+        if (userSession.isUpdated()) {
+          sessionsManager.updateSession(sessionData);
+        }
+      }
+    );
+  }
+
   private RequestContext getRequestContext(String projectId, String orgId) {
     if (!Strings.isNullOrEmpty(projectId) && !Strings.isNullOrEmpty(orgId)) {
       return RequestContext.current()
@@ -48,6 +48,7 @@ import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.work.protector.UserWorker;
 import com.dremio.options.OptionManager;
 import com.dremio.service.Service;
+import com.dremio.service.flight.impl.FlightResultStreams;
 import com.dremio.service.flight.impl.FlightWorkManager.RunQueryResponseHandlerFactory;
 import com.dremio.service.tokens.TokenManager;
 import com.dremio.service.usersessions.UserSessionService;
@@ -87,6 +88,7 @@ public class DremioFlightService implements Service {
   private final Provider<FlightRequestContextDecorator> requestContextDecoratorProvider;
   private final Provider<CredentialsService> credentialsServiceProvider;
   private final RunQueryResponseHandlerFactory runQueryResponseHandlerFactory;
+  private final Provider<FlightResultStreams> resultStreamsProvider;
 
   private DremioFlightSessionsManager dremioFlightSessionsManager;
 
@@ -102,10 +104,11 @@ public class DremioFlightService implements Service {
                              Provider<UserSessionService> userSessionServiceProvider,
                              Provider<DremioFlightAuthProvider> authProvider,
                              Provider<FlightRequestContextDecorator> requestContextDecoratorProvider,
-                             Provider<CredentialsService> credentialsServiceProvider) {
+                             Provider<CredentialsService> credentialsServiceProvider,
+                             Provider<FlightResultStreams> resultStreamsProvider) {
     this(configProvider, bufferAllocator, userWorkerProvider,
       sabotContextProvider, tokenManagerProvider, optionManagerProvider, userSessionServiceProvider,
-      authProvider, requestContextDecoratorProvider, credentialsServiceProvider,
+      authProvider, requestContextDecoratorProvider, credentialsServiceProvider, resultStreamsProvider,
       RunQueryResponseHandlerFactory.DEFAULT);
   }
 
@@ -120,6 +123,7 @@ public class DremioFlightService implements Service {
                       Provider<DremioFlightAuthProvider> authProvider,
                       Provider<FlightRequestContextDecorator> requestContextDecoratorProvider,
                       Provider<CredentialsService> credentialsServiceProvider,
+                      Provider<FlightResultStreams> resultStreamsProvider,
                       RunQueryResponseHandlerFactory runQueryResponseHandlerFactory
   ) {
     this.configProvider = configProvider;
@@ -133,6 +137,7 @@ public class DremioFlightService implements Service {
     this.authProvider = authProvider;
     this.requestContextDecoratorProvider = requestContextDecoratorProvider;
     this.credentialsServiceProvider = credentialsServiceProvider;
+    this.resultStreamsProvider = resultStreamsProvider;
   }
 
   @Override
@@ -166,7 +171,8 @@ public class DremioFlightService implements Service {
       .maxConnectionAgeGrace(Integer.getInteger("dremio.services.arrow-flight.max-connection-age-grace", 0))
       .maxConnectionAge(Integer.getInteger("dremio.services.arrow-flight.max-connection-age", 0))
       .producer(new DremioFlightProducer(location, dremioFlightSessionsManager, userWorkerProvider,
-        optionManagerProvider, allocator, requestContextDecoratorProvider, runQueryResponseHandlerFactory));
+        optionManagerProvider, allocator, requestContextDecoratorProvider, runQueryResponseHandlerFactory,
+        resultStreamsProvider));
 
     builder.middleware(FLIGHT_CLIENT_PROPERTIES_MIDDLEWARE_KEY,
       new ServerCookieMiddleware.Factory());
@@ -218,6 +224,10 @@ public class DremioFlightService implements Service {
    */
   @VisibleForTesting
   protected SSLConfig getSSLConfig(DremioConfig config, SSLConfigurator sslConfigurator)  {
+    return newSSLConfig(config, sslConfigurator);
+  }
+
+  static SSLConfig newSSLConfig(DremioConfig config, SSLConfigurator sslConfigurator) {
     try {
       // Disable peer validation for user-facing services, as we do with the web and client RPC SSL configurations.
       return sslConfigurator.getSSLConfig(true,
@@ -234,7 +244,7 @@ public class DremioFlightService implements Service {
    * @return  The SSL configuration. This is returned to make the SSLConfig accessible by
    * unit tests while avoiding storing the SSLConfig on the service.
    */
-  private void addTlsProperties(DremioFlightServer.Builder builder, SSLConfig sslConfig) {
+  static void addTlsProperties(DremioFlightServer.Builder builder, SSLConfig sslConfig) {
     try {
       final KeyStore keyStore = KeyStore.getInstance(sslConfig.getKeyStoreType());
       try (final InputStream keyStoreStream = Files.newInputStream(Paths.get(sslConfig.getKeyStorePath()))) {
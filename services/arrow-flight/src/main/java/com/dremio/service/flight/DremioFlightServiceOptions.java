@@ -36,4 +36,16 @@ public interface DremioFlightServiceOptions {
     new TypeValidators.PositiveLongValidator(
       "flight.client.readiness.timeout.millis", 900000L, 50000L
     );
+
+  // Number of endpoints the results of a query are spread over, for clients to fetch them in parallel. The endpoints
+  // are served by the executor running the screen fragment of the query, so the results don't go through the
+  // coordinator, or by the coordinator for the queries it runs itself. The endpoints are not ordered, so the order of
+  // the results is only kept when set to 1, the default.
+  TypeValidators.RangeLongValidator PARALLEL_ENDPOINTS =
+    new TypeValidators.RangeLongValidator("flight.parallel_endpoints", 1, 64, 1);
+
+  // How long the results spread over several endpoints wait for their first endpoint to be fetched, and for the
+  // remaining ones once the query completed. Default to 10 minutes.
+  TypeValidators.PositiveLongValidator PARALLEL_ENDPOINTS_EXPIRATION_MILLIS =
+    new TypeValidators.PositiveLongValidator("flight.parallel_endpoints.expiration.millis", Long.MAX_VALUE, 600000L);
 }
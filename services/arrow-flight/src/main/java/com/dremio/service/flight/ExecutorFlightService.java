@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight;
+
+import java.net.InetSocketAddress;
+
+import javax.inject.Provider;
+
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.DremioFlightServer;
+import org.apache.arrow.flight.Location;
+import org.apache.arrow.flight.NoOpFlightProducer;
+import org.apache.arrow.flight.Ticket;
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.rpc.ssl.SSLConfigurator;
+import com.dremio.service.Service;
+import com.dremio.service.flight.impl.FlightResultStreams;
+import com.dremio.services.credentials.CredentialsService;
+import com.google.common.base.Preconditions;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Service which manages the Flight endpoint of an executor, serving the results of the queries whose screen fragment
+ * runs on the executor to the clients of their parallel endpoints. The coordinator running a query authenticates its
+ * client and hands it the tickets of the endpoints, which are only valid for the id of the query.
+ */
+public class ExecutorFlightService implements Service {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ExecutorFlightService.class);
+
+  private final Provider<DremioConfig> configProvider;
+  private final Provider<BufferAllocator> bufferAllocator;
+  private final Provider<FlightResultStreams> resultStreamsProvider;
+  private final Provider<CredentialsService> credentialsServiceProvider;
+
+  private volatile DremioFlightServer server;
+  private BufferAllocator allocator;
+
+  public ExecutorFlightService(Provider<DremioConfig> configProvider,
+                               Provider<BufferAllocator> bufferAllocator,
+                               Provider<FlightResultStreams> resultStreamsProvider,
+                               Provider<CredentialsService> credentialsServiceProvider) {
+    this.configProvider = configProvider;
+    this.bufferAllocator = bufferAllocator;
+    this.resultStreamsProvider = resultStreamsProvider;
+    this.credentialsServiceProvider = credentialsServiceProvider;
+  }
+
+  @Override
+  public void start() throws Exception {
+    Preconditions.checkArgument(server == null, "Executor Flight Service should not be started more than once.");
+    logger.info("Starting Executor Flight Service");
+
+    final DremioConfig config = configProvider.get();
+    allocator = bufferAllocator.get().newChildAllocator("executor-flight-service-allocator", 0, Long.MAX_VALUE);
+
+    final int port = config.getInt(DremioConfig.FLIGHT_SERVICE_PORT_INT);
+    // Get the wildcard address which is usually 0.0.0.0.
+    final String wildcardAddress = new InetSocketAddress(port).getHostName();
+    final boolean sslEnabled = config.getBoolean(DremioFlightService.FLIGHT_SSL_ENABLED);
+    final Location location = sslEnabled
+      ? Location.forGrpcTls(wildcardAddress, port)
+      : Location.forGrpcInsecure(wildcardAddress, port);
+
+    final DremioFlightServer.Builder builder = DremioFlightServer.builder()
+      .location(location)
+      .allocator(allocator)
+      .maxInboundMessageSize(Integer.getInteger("dremio.services.arrow-flight.max-message-size", Integer.MAX_VALUE))
+      .keepAliveTime(Integer.getInteger("dremio.services.arrow-flight.keep-alive-time", 120))
+      .clientKeepAliveInterval(Integer.getInteger("dremio.services.arrow-flight.client-keep-alive-interval", 60))
+      .idleTimeout(Integer.getInteger("dremio.services.arrow-flight.idle-timeout", 15))
+      .producer(new ResultsProducer());
+
+    if (sslEnabled) {
+      DremioFlightService.addTlsProperties(builder, DremioFlightService.newSSLConfig(config,
+        new SSLConfigurator(config, credentialsServiceProvider, DremioFlightService.FLIGHT_SSL_PREFIX, "flight")));
+    }
+
+    server = builder.build();
+    server.start();
+
+    logger.info("Started Executor Flight Service at {} on port {}.", config.getThisNode(), port);
+  }
+
+  @Override
+  public void close() throws Exception {
+    logger.info("Stopping Executor Flight Service");
+    AutoCloseables.close(server, allocator);
+    logger.info("Stopped Executor Flight Service");
+  }
+
+  /**
+   * Streams the endpoints of the tickets handed by the coordinators.
+   */
+  private final class ResultsProducer extends NoOpFlightProducer {
+    @Override
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      try {
+        final TicketContent.PreparedStatementTicket preparedStatementTicket =
+          TicketContent.PreparedStatementTicket.parseFrom(ticket.getBytes());
+        if (!preparedStatementTicket.hasQueryId()) {
+          throw CallStatus.INVALID_ARGUMENT.withDescription("Executors only serve the endpoints of parallel results.")
+            .toRuntimeException();
+        }
+        resultStreamsProvider.get().fetch(preparedStatementTicket.getQueryId(),
+          preparedStatementTicket.getEndpointCount(), preparedStatementTicket.getEndpointIndex(), listener);
+      } catch (InvalidProtocolBufferException e) {
+        listener.error(CallStatus.INVALID_ARGUMENT.withCause(e)
+          .withDescription("Invalid PreparedStatementTicket used in getStream.").toRuntimeException());
+      } catch (RuntimeException e) {
+        listener.error(e);
+      }
+    }
+  }
+}
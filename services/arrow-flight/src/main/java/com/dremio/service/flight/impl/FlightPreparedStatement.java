@@ -19,12 +19,15 @@ import static org.apache.arrow.flight.sql.impl.FlightSql.ActionCreatePreparedSta
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.arrow.flight.CallStatus;
 import org.apache.arrow.flight.FlightDescriptor;
 import org.apache.arrow.flight.FlightEndpoint;
 import org.apache.arrow.flight.FlightInfo;
@@ -38,6 +41,7 @@ import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.FieldType;
 import org.apache.arrow.vector.types.pojo.Schema;
 
+import com.dremio.exec.proto.CoordinationProtos;
 import com.dremio.exec.proto.UserProtos;
 import com.dremio.service.flight.TicketContent;
 import com.dremio.service.flight.protector.CancellableUserResponseHandler;
@@ -100,6 +104,55 @@ public class FlightPreparedStatement {
     return new FlightInfo(schema, flightDescriptor, ImmutableList.of(flightEndpoint), -1, -1);
   }
 
+  /**
+   * Returns a FlightInfo for the PreparedStatement which a given instance manages, with results spread over several
+   * endpoints, for clients to fetch them in parallel. The endpoints are served by the executor running the screen
+   * fragment of the query, at the Flight port of this server, or by this server when the coordinator gets the results
+   * itself. The endpoints are not ordered.
+   *
+   * @param location         The server location.
+   * @param flightDescriptor The descriptor of the query.
+   * @param results          The results the endpoints are spread over, from runParallelPreparedStatement.
+   * @return The FlightInfo.
+   */
+  public FlightInfo getFlightInfoLegacy(Location location, FlightDescriptor flightDescriptor,
+                                        FlightWorkManager.ParallelResults results) {
+    final UserProtos.CreatePreparedStatementArrowResp createPreparedStatementResp = responseHandler.get();
+    final Schema schema = buildSchema(createPreparedStatementResp.getPreparedStatement().getArrowSchema());
+
+    final TicketContent.PreparedStatementTicket.Builder preparedStatementTicketContent =
+      TicketContent.PreparedStatementTicket.newBuilder()
+        .setQuery(FlightWorkManager.getQuery(flightDescriptor))
+        .setHandle(createPreparedStatementResp.getPreparedStatement().getServerHandle());
+    final Location endpointLocation;
+    if (results.getExecutor() != null) {
+      preparedStatementTicketContent
+        .setQueryId(results.getQueryId())
+        .setEndpointCount(results.getEndpointCount());
+      endpointLocation = getExecutorLocation(location, results.getExecutor());
+    } else {
+      preparedStatementTicketContent.setStreamId(results.getStreamId());
+      endpointLocation = location;
+    }
+
+    final List<FlightEndpoint> flightEndpoints = new ArrayList<>(results.getEndpointCount());
+    for (int i = 0; i < results.getEndpointCount(); i++) {
+      final Ticket ticket = new Ticket(preparedStatementTicketContent.setEndpointIndex(i).build().toByteArray());
+      flightEndpoints.add(new FlightEndpoint(ticket, endpointLocation));
+    }
+    return new FlightInfo(schema, flightDescriptor, flightEndpoints, -1, -1);
+  }
+
+  private static Location getExecutorLocation(Location location, CoordinationProtos.NodeEndpoint executor) {
+    final URI uri = location.getUri();
+    try {
+      return new Location(new URI(uri.getScheme(), null, executor.getAddress(), uri.getPort(), null, null, null));
+    } catch (URISyntaxException e) {
+      throw CallStatus.INTERNAL.withCause(e).withDescription("Invalid location of the executor serving the results.")
+        .toRuntimeException();
+    }
+  }
+
   /**
    * Create an action to create a prepared statement.
    *
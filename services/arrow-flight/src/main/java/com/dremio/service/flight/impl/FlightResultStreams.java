@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightProducer;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.concurrent.NamedThreadFactory;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.utils.protos.QueryIdHelper;
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.GeneralRPCProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.rpc.RpcException;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.UserResult;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.rpc.ExecutorResultStreams;
+import com.dremio.sabot.exec.rpc.ExecutorResultsTunnel;
+import com.dremio.service.Service;
+import com.dremio.service.flight.DremioFlightServiceOptions;
+import com.dremio.service.flight.impl.RunQueryResponseHandler.ExecutorResponseHandler;
+import com.google.common.annotations.VisibleForTesting;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.NettyArrowBuf;
+
+/**
+ * The results of the queries whose screen fragment runs on this node, streamed by the screen straight to the clients
+ * of their endpoints through the Flight service of the node, rather than through the coordinator.
+ *
+ * The stream of a query is created by the screen fragment or the first endpoint fetched, whichever comes first, and
+ * dropped once all its endpoints were fetched after the query completed, or after they waited for too long. The
+ * batches of the screen are copied out of the fragment, which can complete before the clients read them, and handed
+ * to the endpoints on threads of their own, as sending to a client can wait for it to be ready for more data.
+ */
+public class FlightResultStreams implements ExecutorResultStreams, Service {
+  private static final Logger logger = LoggerFactory.getLogger(FlightResultStreams.class);
+
+  private static final long EXPIRATION_CHECK_MILLIS = 10_000;
+  // the maximum of flight.parallel_endpoints
+  private static final int MAX_ENDPOINTS = 64;
+
+  private final Provider<BufferAllocator> allocatorProvider;
+  private final Provider<OptionManager> optionManagerProvider;
+  private final ConcurrentMap<QueryId, ParallelResultStream> streams = new ConcurrentHashMap<>();
+
+  private BufferAllocator allocator;
+  private ExecutorService sendExecutor;
+  private ScheduledExecutorService expirationExecutor;
+
+  public FlightResultStreams(Provider<BufferAllocator> allocatorProvider,
+                             Provider<OptionManager> optionManagerProvider) {
+    this.allocatorProvider = allocatorProvider;
+    this.optionManagerProvider = optionManagerProvider;
+  }
+
+  @Override
+  public void start() throws Exception {
+    allocator = allocatorProvider.get().newChildAllocator("flight-result-streams", 0, Long.MAX_VALUE);
+    sendExecutor = Executors.newCachedThreadPool(new NamedThreadFactory("flight-result-send-"));
+    expirationExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("flight-result-expiration-"));
+    expirationExecutor.scheduleWithFixedDelay(this::removeDoneStreams, EXPIRATION_CHECK_MILLIS,
+      EXPIRATION_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (expirationExecutor != null) {
+      expirationExecutor.shutdownNow();
+    }
+    // let the batches handed to the pool reach their streams, so that expiring them releases all the batches
+    if (sendExecutor != null) {
+      sendExecutor.shutdown();
+      sendExecutor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+    for (ParallelResultStream stream : streams.values()) {
+      stream.expire();
+    }
+    streams.clear();
+    AutoCloseables.close(allocator);
+  }
+
+  /**
+   * @return Sends the batches that waited for the first endpoint of the streams of the coordinator.
+   */
+  Executor getSendExecutor() {
+    return sendExecutor;
+  }
+
+  @Override
+  public ExecutorResultsTunnel getTunnel(QueryId queryId, int endpointCount) {
+    return new StreamTunnel(queryId, getStream(queryId, endpointCount));
+  }
+
+  /**
+   * Attaches the client of an endpoint to the results of a query whose screen fragment runs on this node.
+   *
+   * @param queryId       The id of the query, from the ticket of the endpoint.
+   * @param endpointCount The number of endpoints of the query, from the ticket of the endpoint.
+   * @param endpointIndex The index of the endpoint.
+   * @param listener      The client of the endpoint.
+   */
+  public void fetch(QueryId queryId, int endpointCount, int endpointIndex,
+                    FlightProducer.ServerStreamListener listener) {
+    if (endpointCount < 1 || endpointCount > MAX_ENDPOINTS) {
+      throw CallStatus.INVALID_ARGUMENT.withDescription("Invalid endpoint count " + endpointCount + ".")
+        .toRuntimeException();
+    }
+    final ParallelResultStream stream = getStream(queryId, endpointCount);
+    stream.fetch(endpointIndex,
+      new ExecutorResponseHandler(stream.getRunExternalId(), listener, allocator, optionManagerProvider.get()),
+      listener, allocator);
+  }
+
+  private ParallelResultStream getStream(QueryId queryId, int endpointCount) {
+    final ParallelResultStream stream = streams.computeIfAbsent(queryId,
+      id -> new ParallelResultStream(QueryIdHelper.getQueryId(id), null, endpointCount, sendExecutor));
+    if (stream.getEndpointCount() != endpointCount) {
+      throw CallStatus.INVALID_ARGUMENT.withDescription("The results of the query are spread over "
+        + stream.getEndpointCount() + " endpoints, not " + endpointCount + ".").toRuntimeException();
+    }
+    return stream;
+  }
+
+  @VisibleForTesting
+  void removeDoneStreams() {
+    try {
+      final long now = System.currentTimeMillis();
+      final long expirationMillis =
+        optionManagerProvider.get().getOption(DremioFlightServiceOptions.PARALLEL_ENDPOINTS_EXPIRATION_MILLIS);
+      streams.values().removeIf(stream -> {
+        if (!stream.isDone(now, expirationMillis)) {
+          return false;
+        }
+        stream.expire();
+        return true;
+      });
+    } catch (Exception e) {
+      logger.warn("Failure while removing the done result streams.", e);
+    }
+  }
+
+  @VisibleForTesting
+  int getStreamCount() {
+    return streams.size();
+  }
+
+  /**
+   * Copies a batch of the screen in the allocator of the streams, releasing the buffers of the fragment.
+   */
+  private QueryWritableBatch copy(QueryWritableBatch batch) {
+    final ByteBuf[] buffers = batch.getBuffers();
+    if (buffers.length == 0) {
+      return batch;
+    }
+    try {
+      final ArrowBuf copy = allocator.buffer(batch.getByteCount());
+      long index = 0;
+      for (ByteBuf buffer : buffers) {
+        final int readableBytes = buffer.readableBytes();
+        copy.setBytes(index, buffer.nioBuffer());
+        index += readableBytes;
+      }
+      copy.writerIndex(index);
+      return new QueryWritableBatch(batch.getHeader(), NettyArrowBuf.unwrapBuffer(copy));
+    } finally {
+      for (ByteBuf buffer : buffers) {
+        buffer.release();
+      }
+    }
+  }
+
+  /**
+   * The tunnel of a screen fragment, sending its batches to the endpoints of the stream of its query.
+   */
+  private final class StreamTunnel extends ExecutorResultsTunnel {
+    private final QueryId queryId;
+    private final ParallelResultStream stream;
+    private volatile boolean resultsCompleted;
+
+    StreamTunnel(QueryId queryId, ParallelResultStream stream) {
+      this.queryId = queryId;
+      this.stream = stream;
+    }
+
+    @Override
+    public void sendData(RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener, QueryWritableBatch data) {
+      final QueryWritableBatch batch = copy(data);
+      try {
+        sendExecutor.execute(() -> stream.sendData(outcomeListener, batch));
+      } catch (RejectedExecutionException e) {
+        for (ByteBuf buffer : batch.getBuffers()) {
+          buffer.release();
+        }
+        outcomeListener.failed(new RpcException("The results of the query can't be served anymore.", e));
+      }
+    }
+
+    @Override
+    public void resultsCompleted() {
+      resultsCompleted = true;
+    }
+
+    @Override
+    public List<UserBitShared.ResultEndpointProfile> getEndpointProfiles() {
+      return stream.getEndpointProfiles();
+    }
+
+    @Override
+    public void close() {
+      if (resultsCompleted) {
+        stream.completed(new UserResult(null, queryId, UserBitShared.QueryResult.QueryState.COMPLETED, null, null,
+          null, false, false, false));
+      } else {
+        stream.completed(new UserResult(null, queryId, UserBitShared.QueryResult.QueryState.FAILED, null,
+          UserException.systemError(new IllegalStateException("The results were not all sent."))
+            .message("The query failed or was cancelled before all its results were sent.")
+            .buildSilently(),
+          null, false, false, false));
+      }
+    }
+  }
+}
@@ -29,6 +29,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -69,6 +73,8 @@ import org.apache.arrow.vector.util.Text;
 
 import com.dremio.common.expression.CompleteType;
 import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.CoordinationProtos;
 import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.proto.UserProtos;
 import com.dremio.exec.work.foreman.TerminationListenerRegistry;
@@ -76,6 +82,7 @@ import com.dremio.exec.work.protector.UserRequest;
 import com.dremio.exec.work.protector.UserResponseHandler;
 import com.dremio.exec.work.protector.UserWorker;
 import com.dremio.options.OptionManager;
+import com.dremio.options.OptionValue;
 import com.dremio.sabot.rpc.user.UserSession;
 import com.dremio.service.catalog.TableType;
 import com.dremio.service.flight.DremioFlightServiceOptions;
@@ -96,6 +103,9 @@ public class FlightWorkManager {
   private final Provider<UserWorker> workerProvider;
   private final Provider<OptionManager> optionManagerProvider;
   private final RunQueryResponseHandlerFactory runQueryResponseHandlerFactory;
+  private final Provider<FlightResultStreams> resultStreamsProvider;
+  // results spread over several endpoints served by this coordinator, by stream id
+  private final ConcurrentMap<String, ParallelResultStream> parallelStreams = new ConcurrentHashMap<>();
 
   private static final byte[] EMPTY_SERIALIZED_SCHEMA = getSerializedSchema(Collections.emptyList());
 
@@ -142,10 +152,12 @@ public class FlightWorkManager {
 
   public FlightWorkManager(Provider<UserWorker> workerProvider,
                            Provider<OptionManager> optionManagerProvider,
-                           RunQueryResponseHandlerFactory runQueryResponseHandlerFactory) {
+                           RunQueryResponseHandlerFactory runQueryResponseHandlerFactory,
+                           Provider<FlightResultStreams> resultStreamsProvider) {
     this.workerProvider = workerProvider;
     this.optionManagerProvider = optionManagerProvider;
     this.runQueryResponseHandlerFactory = runQueryResponseHandlerFactory;
+    this.resultStreamsProvider = resultStreamsProvider;
   }
 
   /**
@@ -198,22 +210,120 @@ public class FlightWorkManager {
                                    FlightProducer.ServerStreamListener listener, BufferAllocator allocator,
                                    UserSession userSession, Runnable queryCompletionCallback) {
     final UserBitShared.ExternalId runExternalId = ExternalIdHelper.generateExternalId();
-    final UserRequest userRequest =
-      new UserRequest(UserProtos.RpcType.RUN_QUERY,
-        UserProtos.RunQuery.newBuilder()
-          .setType(UserBitShared.QueryType.PREPARED_STATEMENT)
-          .setPriority(UserProtos.QueryPriority.newBuilder()
-            .setWorkloadType(UserBitShared.WorkloadType.FLIGHT)
-            .setWorkloadClass(UserBitShared.WorkloadClass.GENERAL))
-          .setSource(UserProtos.SubmissionSource.FLIGHT)
-          .setPreparedStatementHandle(preparedStatementHandle)
-          .build());
-
     final UserResponseHandler responseHandler = runQueryResponseHandlerFactory.getHandler(runExternalId, userSession,
       workerProvider, optionManagerProvider, listener, allocator, queryCompletionCallback);
 
-    workerProvider.get()
-      .submitWork(runExternalId, userSession, responseHandler, userRequest, TerminationListenerRegistry.NOOP);
+    workerProvider.get().submitWork(runExternalId, userSession, responseHandler,
+      newRunPreparedStatementRequest(preparedStatementHandle), TerminationListenerRegistry.NOOP);
+  }
+
+  /**
+   * Submits a prepared statement whose results are spread over several endpoints, and waits until the node serving
+   * them is known: the executor running the screen fragment of the query, which streams the results to the clients
+   * of the endpoints itself, or this coordinator for the results it gets.
+   *
+   * @param preparedStatementHandle The handle for the prepared statement.
+   * @param endpointCount           The number of endpoints.
+   * @param userSession             The session for the user which made the request.
+   * @return The results, which the tickets of the endpoints refer to.
+   */
+  public ParallelResults runParallelPreparedStatement(UserProtos.PreparedStatementHandle preparedStatementHandle,
+                                                      int endpointCount, UserSession userSession) {
+    removeDoneParallelStreams();
+    final String streamId = UUID.randomUUID().toString();
+    final String userName = userSession.getCredentials().getUserName();
+    final ParallelResultStream stream = new ParallelResultStream(streamId, userName, endpointCount,
+      resultStreamsProvider.get().getSendExecutor());
+    parallelStreams.put(streamId, stream);
+    workerProvider.get().submitWork(stream.getRunExternalId(), userSession, stream,
+      newRunPreparedStatementRequest(preparedStatementHandle), TerminationListenerRegistry.NOOP,
+      options -> options.setOption(OptionValue.createLong(OptionValue.OptionType.QUERY,
+        ExecConstants.EXECUTOR_RESULT_ENDPOINTS.getOptionName(), endpointCount)));
+
+    final CoordinationProtos.NodeEndpoint executor;
+    try {
+      executor = stream.awaitResultsLocation(
+        optionManagerProvider.get().getOption(DremioFlightServiceOptions.PARALLEL_ENDPOINTS_EXPIRATION_MILLIS));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      workerProvider.get().cancelQuery(stream.getRunExternalId(), userName);
+      throw CallStatus.CANCELLED.withCause(e).withDescription("Interrupted while waiting for the query to be planned.")
+        .toRuntimeException();
+    } catch (TimeoutException e) {
+      workerProvider.get().cancelQuery(stream.getRunExternalId(), userName);
+      throw CallStatus.TIMED_OUT.withDescription("Timed out while waiting for the query to be planned.")
+        .toRuntimeException();
+    }
+    if (executor != null) {
+      // the stream only gets the completion of the query, the executor serves the endpoints
+      parallelStreams.remove(streamId);
+    }
+    return new ParallelResults(streamId, ExternalIdHelper.toQueryId(stream.getRunExternalId()), endpointCount,
+      executor);
+  }
+
+  /**
+   * Streams the part of the results of a prepared statement that goes to one of the endpoints of a parallel stream
+   * served by this coordinator.
+   *
+   * @param streamId                The id of the stream, from runParallelPreparedStatement.
+   * @param endpointIndex           The index of the endpoint.
+   * @param listener                The listener of the endpoint.
+   * @param allocator               The allocator for the batches of the endpoint.
+   * @param userSession             The session for the user which made the request.
+   * @param queryCompletionCallback Called when the query completes.
+   */
+  public void runPreparedStatementOnEndpoint(String streamId, int endpointIndex,
+                                             FlightProducer.ServerStreamListener listener, BufferAllocator allocator,
+                                             UserSession userSession, Runnable queryCompletionCallback) {
+    final ParallelResultStream stream = parallelStreams.get(streamId);
+    if (stream == null || !stream.getUserName().equals(userSession.getCredentials().getUserName())) {
+      throw CallStatus.NOT_FOUND.withDescription("Unknown or expired result stream.").toRuntimeException();
+    }
+
+    final UserResponseHandler responseHandler = runQueryResponseHandlerFactory.getHandler(stream.getRunExternalId(),
+      userSession, workerProvider, optionManagerProvider, listener, allocator, queryCompletionCallback);
+    stream.fetch(endpointIndex, responseHandler, listener, allocator);
+    removeDoneParallelStreams();
+  }
+
+  /**
+   * Streams the part of the results of a query whose screen fragment runs on this node that goes to one of the
+   * endpoints of the query.
+   *
+   * @param queryId       The id of the query, from runParallelPreparedStatement.
+   * @param endpointCount The number of endpoints of the query.
+   * @param endpointIndex The index of the endpoint.
+   * @param listener      The listener of the endpoint.
+   */
+  public void fetchExecutorResults(UserBitShared.QueryId queryId, int endpointCount, int endpointIndex,
+                                   FlightProducer.ServerStreamListener listener) {
+    resultStreamsProvider.get().fetch(queryId, endpointCount, endpointIndex, listener);
+  }
+
+  private void removeDoneParallelStreams() {
+    final long now = System.currentTimeMillis();
+    final long expirationMillis =
+      optionManagerProvider.get().getOption(DremioFlightServiceOptions.PARALLEL_ENDPOINTS_EXPIRATION_MILLIS);
+    parallelStreams.values().removeIf(stream -> {
+      if (!stream.isDone(now, expirationMillis)) {
+        return false;
+      }
+      stream.expire();
+      return true;
+    });
+  }
+
+  private static UserRequest newRunPreparedStatementRequest(UserProtos.PreparedStatementHandle preparedStatementHandle) {
+    return new UserRequest(UserProtos.RpcType.RUN_QUERY,
+      UserProtos.RunQuery.newBuilder()
+        .setType(UserBitShared.QueryType.PREPARED_STATEMENT)
+        .setPriority(UserProtos.QueryPriority.newBuilder()
+          .setWorkloadType(UserBitShared.WorkloadType.FLIGHT)
+          .setWorkloadClass(UserBitShared.WorkloadClass.GENERAL))
+        .setSource(UserProtos.SubmissionSource.FLIGHT)
+        .setPreparedStatementHandle(preparedStatementHandle)
+        .build());
   }
 
   /**
@@ -762,6 +872,50 @@ public class FlightWorkManager {
    * A factory to create RunQueryResponseHandlers.
    */
   @VisibleForTesting
+  /**
+   * The results of a prepared statement spread over several endpoints, see runParallelPreparedStatement.
+   */
+  public static final class ParallelResults {
+    private final String streamId;
+    private final UserBitShared.QueryId queryId;
+    private final int endpointCount;
+    private final CoordinationProtos.NodeEndpoint executor;
+
+    ParallelResults(String streamId, UserBitShared.QueryId queryId, int endpointCount,
+                    CoordinationProtos.NodeEndpoint executor) {
+      this.streamId = streamId;
+      this.queryId = queryId;
+      this.endpointCount = endpointCount;
+      this.executor = executor;
+    }
+
+    /**
+     * @return The id of the stream, when the endpoints are served by this coordinator.
+     */
+    public String getStreamId() {
+      return streamId;
+    }
+
+    /**
+     * @return The id of the query, when the endpoints are served by an executor.
+     */
+    public UserBitShared.QueryId getQueryId() {
+      return queryId;
+    }
+
+    public int getEndpointCount() {
+      return endpointCount;
+    }
+
+    /**
+     * @return The executor running the screen fragment of the query, which serves the endpoints, or null when they are
+     * served by this coordinator.
+     */
+    public CoordinationProtos.NodeEndpoint getExecutor() {
+      return executor;
+    }
+  }
+
   public interface RunQueryResponseHandlerFactory {
     RunQueryResponseHandlerFactory DEFAULT = new RunQueryResponseHandlerFactory() {
     };
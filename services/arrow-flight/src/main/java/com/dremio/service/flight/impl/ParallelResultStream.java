@@ -0,0 +1,450 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightProducer;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.SerializedFieldHelper;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.proto.GeneralRPCProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.rpc.RpcException;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.ResultEndpointRecorder;
+import com.dremio.exec.work.protector.UserResponseHandler;
+import com.dremio.exec.work.protector.UserResult;
+import com.google.common.annotations.VisibleForTesting;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Results of a query spread over the endpoints of its FlightInfo, so that clients can fetch them in parallel.
+ *
+ * The endpoints are served by the node the results end up on: the executor running the screen fragment of the query,
+ * which streams them to the clients itself, or the coordinator for the results it gets, such as the ones of the
+ * commands it runs. The coordinator learns which one through {@link #screenAssigned} or the first batch it gets,
+ * see {@link #awaitResultsLocation}. The results are not ordered across endpoints.
+ *
+ * Each batch goes to one of the endpoints fetched so far, preferring the ones whose client is ready for more data,
+ * through the response handler of the endpoint. The batches sent before any endpoint is fetched wait for the first
+ * one, unacknowledged, so that the screen stops sending once it has as many batches in flight as allowed. Endpoints
+ * fetched once the query completed complete right away, so that clients reading the endpoints one after the other
+ * still get all the results, once. Endpoints that get no batch are started with the schema of the results, as Flight
+ * clients expect a schema before the end of a stream.
+ */
+class ParallelResultStream implements UserResponseHandler {
+  private static final Logger logger = LoggerFactory.getLogger(ParallelResultStream.class);
+
+  private final String streamId;
+  private final String userName;
+  private final int endpointCount;
+  private final UserBitShared.ExternalId runExternalId;
+  private final Executor sendExecutor;
+  private final long createdMillis;
+  // the executor serving the endpoints, null once known to be served by the coordinator
+  private final CompletableFuture<NodeEndpoint> resultsLocation = new CompletableFuture<>();
+
+  // guarded by this
+  private final List<Endpoint> endpoints = new ArrayList<>();
+  private final List<PendingBatch> pendingBatches = new ArrayList<>();
+  private final boolean[] fetched;
+  private int numFetched;
+  private int next;
+  private UserResult result;
+  private long completedMillis;
+  // schema of the results, from the first batch
+  private Schema schema;
+
+  /**
+   * @param streamId      The id of the stream, which the tickets of the endpoints refer to.
+   * @param userName      The user running the query, null for the streams served by executors.
+   * @param endpointCount The number of endpoints.
+   * @param sendExecutor  Sends the batches that waited for the first endpoint.
+   */
+  ParallelResultStream(String streamId, String userName, int endpointCount, Executor sendExecutor) {
+    this.streamId = streamId;
+    this.userName = userName;
+    this.endpointCount = endpointCount;
+    this.runExternalId = ExternalIdHelper.generateExternalId();
+    this.sendExecutor = sendExecutor;
+    this.createdMillis = System.currentTimeMillis();
+    this.fetched = new boolean[endpointCount];
+  }
+
+  String getUserName() {
+    return userName;
+  }
+
+  int getEndpointCount() {
+    return endpointCount;
+  }
+
+  UserBitShared.ExternalId getRunExternalId() {
+    return runExternalId;
+  }
+
+  /**
+   * Attaches the client of an endpoint to the results. The batches that waited for an endpoint are sent to the first
+   * one fetched.
+   *
+   * @param endpointIndex The index of the endpoint in the FlightInfo.
+   * @param handler       The handler streaming the batches to the client of the endpoint.
+   * @param listener      The client of the endpoint.
+   * @param allocator     The allocator for the batches of the endpoint.
+   */
+  void fetch(int endpointIndex, UserResponseHandler handler, FlightProducer.ServerStreamListener listener,
+             BufferAllocator allocator) {
+    final Endpoint endpoint = new Endpoint(endpointIndex, handler, listener, allocator);
+    final UserResult completedResult;
+    final Schema completedSchema;
+    synchronized (this) {
+      if (endpointIndex < 0 || endpointIndex >= endpointCount) {
+        throw CallStatus.INVALID_ARGUMENT.withDescription("Invalid endpoint index " + endpointIndex + ".")
+          .toRuntimeException();
+      }
+      if (fetched[endpointIndex]) {
+        throw CallStatus.ALREADY_EXISTS.withDescription("Endpoint " + endpointIndex + " was already fetched.")
+          .toRuntimeException();
+      }
+      fetched[endpointIndex] = true;
+      numFetched++;
+      if (result == null) {
+        endpoints.add(endpoint);
+        if (!pendingBatches.isEmpty()) {
+          endpoint.pendingBatches = new ArrayList<>(pendingBatches);
+          pendingBatches.clear();
+          // not on the thread of the client call, the handler may wait for the client to be ready
+          sendExecutor.execute(endpoint::sendPendingBatches);
+        }
+        return;
+      }
+      completedResult = result;
+      completedSchema = schema;
+    }
+    endpoint.complete(completedResult, completedSchema);
+  }
+
+  @Override
+  public void sendData(RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener, QueryWritableBatch result) {
+    // the results reached the coordinator
+    resultsLocation.complete(null);
+    final Endpoint endpoint;
+    synchronized (this) {
+      if (schema == null) {
+        schema = new Schema(result.getHeader().getDef().getFieldList().stream()
+          .map(SerializedFieldHelper::create)
+          .collect(Collectors.toList()));
+      }
+      if (endpoints.isEmpty()) {
+        pendingBatches.add(new PendingBatch(outcomeListener, result));
+        return;
+      }
+      endpoint = nextEndpoint();
+    }
+    endpoint.sendData(outcomeListener, result);
+  }
+
+  /**
+   * The next endpoint ready for data, or the next one in turn if none is ready.
+   */
+  private Endpoint nextEndpoint() {
+    final int size = endpoints.size();
+    for (int i = 0; i < size; i++) {
+      final int index = (next + i) % size;
+      final Endpoint endpoint = endpoints.get(index);
+      if (endpoint.listener.isReady()) {
+        next = (index + 1) % size;
+        return endpoint;
+      }
+    }
+    final Endpoint endpoint = endpoints.get(next % size);
+    next = (next + 1) % size;
+    return endpoint;
+  }
+
+  @Override
+  public void screenAssigned(NodeEndpoint endpoint) {
+    resultsLocation.complete(endpoint);
+  }
+
+  /**
+   * Waits until the node serving the endpoints is known: the executor running the screen fragment, or the
+   * coordinator once it gets the first batch or the query completes without one.
+   *
+   * @param timeoutMillis How long to wait.
+   * @return The executor serving the endpoints, or null if served by the coordinator.
+   * @throws TimeoutException If it's still unknown after the timeout.
+   */
+  NodeEndpoint awaitResultsLocation(long timeoutMillis) throws InterruptedException, TimeoutException {
+    try {
+      return resultsLocation.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  @Override
+  public void completed(UserResult result) {
+    resultsLocation.complete(null);
+    final List<Endpoint> toComplete;
+    final Schema completedSchema;
+    synchronized (this) {
+      if (this.result != null) {
+        return;
+      }
+      this.result = result;
+      this.completedMillis = System.currentTimeMillis();
+      toComplete = new ArrayList<>(endpoints);
+      completedSchema = schema;
+    }
+    for (Endpoint endpoint : toComplete) {
+      try {
+        endpoint.complete(result, completedSchema);
+      } catch (Exception e) {
+        logger.warn("Failure while completing endpoint {} of result stream {}.", endpoint.index, streamId, e);
+      }
+    }
+  }
+
+  /**
+   * Drops the results once done: fails the batches still waiting for an endpoint, releasing them, and the endpoints
+   * of a query that did not complete yet.
+   */
+  void expire() {
+    final List<PendingBatch> toFail;
+    synchronized (this) {
+      toFail = new ArrayList<>(pendingBatches);
+      pendingBatches.clear();
+    }
+    for (PendingBatch batch : toFail) {
+      for (ByteBuf buffer : batch.result.getBuffers()) {
+        buffer.release();
+      }
+      batch.outcomeListener.failed(new RpcException("No endpoint of the results was fetched in time."));
+    }
+    completed(new UserResult(null, ExternalIdHelper.toQueryId(runExternalId),
+      UserBitShared.QueryResult.QueryState.FAILED, null,
+      UserException.resourceError().message("The results expired before being fetched.").buildSilently(),
+      null, false, false, false));
+  }
+
+  /**
+   * Whether the results can be dropped: all the endpoints were fetched once the query completed, or they waited for
+   * too long to be fetched.
+   */
+  synchronized boolean isDone(long nowMillis, long expirationMillis) {
+    if (result != null) {
+      return numFetched == endpointCount || nowMillis - completedMillis > expirationMillis;
+    }
+    return numFetched == 0 && nowMillis - createdMillis > expirationMillis;
+  }
+
+  /**
+   * @return The results sent to each endpoint fetched so far.
+   */
+  synchronized List<UserBitShared.ResultEndpointProfile> getEndpointProfiles() {
+    final List<UserBitShared.ResultEndpointProfile> profiles = new ArrayList<>();
+    for (Endpoint endpoint : endpoints) {
+      profiles.add(endpoint.getProfile());
+    }
+    return profiles;
+  }
+
+  @VisibleForTesting
+  synchronized List<String> getEndpointStats() {
+    final List<String> stats = new ArrayList<>();
+    for (Endpoint endpoint : endpoints) {
+      stats.add(endpoint.getStats());
+    }
+    return stats;
+  }
+
+  /**
+   * A batch sent before any endpoint was fetched.
+   */
+  private static final class PendingBatch {
+    private final RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener;
+    private final QueryWritableBatch result;
+
+    PendingBatch(RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener, QueryWritableBatch result) {
+      this.outcomeListener = outcomeListener;
+      this.result = result;
+    }
+  }
+
+  /**
+   * An endpoint being fetched, and the batches sent to it.
+   */
+  private static final class Endpoint {
+    private final int index;
+    private final UserResponseHandler handler;
+    private final FlightProducer.ServerStreamListener listener;
+    private final BufferAllocator allocator;
+
+    // guarded by this
+    private long numBatches;
+    private long numRecords;
+    private long numBytes;
+    private long sendNanos;
+    // batches that waited for the endpoint, to send before completing it
+    private List<PendingBatch> pendingBatches;
+    private Runnable pendingCompletion;
+
+    Endpoint(int index, UserResponseHandler handler, FlightProducer.ServerStreamListener listener,
+             BufferAllocator allocator) {
+      this.index = index;
+      this.handler = handler;
+      this.listener = listener;
+      this.allocator = allocator;
+    }
+
+    // a handler streams one batch at a time
+    private synchronized void sendData(RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener,
+                                       QueryWritableBatch result) {
+      final long start = System.nanoTime();
+      final long records = result.getHeader().getRowCount();
+      final long bytes = result.getByteCount();
+      numBatches++;
+      numRecords += records;
+      numBytes += bytes;
+      try {
+        handler.sendData(outcomeListener instanceof ResultEndpointRecorder
+          ? new RecordingOutcomeListener(outcomeListener, index, records, bytes, start)
+          : outcomeListener, result);
+      } finally {
+        sendNanos += System.nanoTime() - start;
+      }
+    }
+
+    private synchronized void sendPendingBatches() {
+      try {
+        for (PendingBatch batch : pendingBatches) {
+          sendData(batch.outcomeListener, batch.result);
+        }
+      } finally {
+        pendingBatches = null;
+        if (pendingCompletion != null) {
+          pendingCompletion.run();
+        }
+      }
+    }
+
+    /**
+     * Completes the endpoint, starting it with an empty batch of the schema of the results if it got no batch, once
+     * the batches that waited for it are sent.
+     */
+    private synchronized void complete(UserResult result, Schema schema) {
+      if (pendingBatches != null) {
+        pendingCompletion = () -> complete(result, schema);
+        return;
+      }
+      if (numBatches == 0 && schema != null && result.getState() == UserBitShared.QueryResult.QueryState.COMPLETED) {
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
+          listener.start(root);
+        }
+      }
+      handler.completed(result);
+    }
+
+    private synchronized UserBitShared.ResultEndpointProfile getProfile() {
+      return UserBitShared.ResultEndpointProfile.newBuilder()
+        .setEndpointIndex(index)
+        .setBatches(numBatches)
+        .setRecords(numRecords)
+        .setBytes(numBytes)
+        .setSendMillis(TimeUnit.NANOSECONDS.toMillis(sendNanos))
+        .build();
+    }
+
+    private synchronized String getStats() {
+      final long sendMillis = TimeUnit.NANOSECONDS.toMillis(sendNanos);
+      final double megabytesPerSecond = sendNanos == 0 ? 0 : (numBytes / (1024.0 * 1024.0)) / (sendNanos / 1e9);
+      return String.format("%d batches, %d records, %d bytes in %d ms (%.2f MB/s)", numBatches, numRecords, numBytes,
+        sendMillis, megabytesPerSecond);
+    }
+  }
+
+  /**
+   * Records the batch in the profile of the query, as sent to its endpoint, before acknowledging it: the query can't
+   * complete, and its profile can't be finalized, before all its batches are acknowledged.
+   */
+  private static final class RecordingOutcomeListener implements RpcOutcomeListener<GeneralRPCProtos.Ack> {
+    private final RpcOutcomeListener<GeneralRPCProtos.Ack> delegate;
+    private final int endpointIndex;
+    private final long records;
+    private final long bytes;
+    private final long startNanos;
+    private final AtomicBoolean recorded = new AtomicBoolean(false);
+
+    RecordingOutcomeListener(RpcOutcomeListener<GeneralRPCProtos.Ack> delegate, int endpointIndex, long records,
+                             long bytes, long startNanos) {
+      this.delegate = delegate;
+      this.endpointIndex = endpointIndex;
+      this.records = records;
+      this.bytes = bytes;
+      this.startNanos = startNanos;
+    }
+
+    private void record() {
+      if (recorded.compareAndSet(false, true)) {
+        ((ResultEndpointRecorder) delegate).recordSent(endpointIndex, records, bytes, System.nanoTime() - startNanos);
+      }
+    }
+
+    @Override
+    public void dataOnWireCallback() {
+      record();
+      delegate.dataOnWireCallback();
+    }
+
+    @Override
+    public void failed(RpcException ex) {
+      record();
+      delegate.failed(ex);
+    }
+
+    @Override
+    public void success(GeneralRPCProtos.Ack value, ByteBuf buffer) {
+      record();
+      delegate.success(value, buffer);
+    }
+
+    @Override
+    public void interrupted(InterruptedException e) {
+      record();
+      delegate.interrupted(e);
+    }
+  }
+}
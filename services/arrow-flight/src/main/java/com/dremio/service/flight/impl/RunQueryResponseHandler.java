@@ -358,6 +358,37 @@ public abstract class RunQueryResponseHandler implements UserResponseHandler {
     }
   }
 
+  /**
+   * Streams the results of a screen fragment running on this executor to the client of one of their endpoints. There
+   * is no query to cancel from the executor: once the client cancels, the batches sent by the screen fail, which fails
+   * the query.
+   */
+  static class ExecutorResponseHandler extends RunQueryResponseHandler {
+
+    private final RunQueryBackpressureStrategy runQueryBackpressureStrategy;
+    private final OptionManager optionManager;
+
+    ExecutorResponseHandler(UserBitShared.ExternalId runExternalId, FlightProducer.ServerStreamListener clientListener,
+                            BufferAllocator allocator, OptionManager optionManager) {
+      super(runExternalId, null, null, clientListener, allocator, () -> {});
+      this.runQueryBackpressureStrategy = new RunQueryBackpressureStrategy(() -> {});
+      runQueryBackpressureStrategy.register(clientListener);
+      this.optionManager = optionManager;
+    }
+
+    @Override
+    protected void serverStreamListenerOnCancelledCallback() {
+    }
+
+    @Override
+    @VisibleForTesting
+    WaitResult clientIsReadyForData() {
+      return runQueryBackpressureStrategy.waitForListener(
+        optionManager.getOption(DremioFlightServiceOptions.CLIENT_READINESS_TIMEOUT_MILLIS)
+      );
+    }
+  }
+
   private static final class RunQueryBackpressureStrategy extends DremioBackpressureStrategy {
     private final Runnable onCancelHandler;
 
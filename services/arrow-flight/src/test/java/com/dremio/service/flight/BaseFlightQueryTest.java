@@ -58,8 +58,10 @@ import com.dremio.exec.rpc.user.security.testing.UserServiceTestImpl;
 import com.dremio.exec.work.protector.UserWorker;
 import com.dremio.options.OptionManager;
 import com.dremio.options.OptionValue;
+import com.dremio.sabot.exec.rpc.ExecutorResultStreams;
 import com.dremio.sabot.rpc.user.UserSession;
 import com.dremio.service.flight.FlightClientUtils.FlightClientWrapper;
+import com.dremio.service.flight.impl.FlightResultStreams;
 import com.dremio.service.flight.impl.FlightWorkManager.RunQueryResponseHandlerFactory;
 import com.dremio.service.tokens.TokenDetails;
 import com.dremio.service.tokens.TokenManager;
@@ -89,6 +91,7 @@ public class BaseFlightQueryTest extends BaseTestQuery {
   private static LegacyKVStoreProvider kvStore;
 
   private static DremioFlightService flightService;
+  private static FlightResultStreams resultStreams;
   private static FlightClientWrapper flightClientWrapper;
   private static int flightServicePort;
   private static SSLConfig sslConfig;
@@ -135,6 +138,9 @@ public class BaseFlightQueryTest extends BaseTestQuery {
     when(tokenManager.createToken(any(), any())).thenReturn(fixedTokenDetails);
     when(tokenManager.validateToken(any())).thenReturn(fixedTokenDetails);
 
+    resultStreams = new FlightResultStreams(() -> getSabotContext().getAllocator(),
+      () -> getSabotContext().getOptionManager());
+
     // Create a user service with a dummy user.
     final UserService userService = new SimpleUserService(() -> kvStore);
     final User user = SimpleUser.newBuilder()
@@ -151,6 +157,7 @@ public class BaseFlightQueryTest extends BaseTestQuery {
       protected void configure() {
         bind(UserService.class).toInstance(userService);
         bind(TokenManager.class).toInstance(tokenManager);
+        bind(ExecutorResultStreams.class).toInstance(resultStreams);
       }
     });
 
@@ -180,9 +187,11 @@ public class BaseFlightQueryTest extends BaseTestQuery {
       () -> new DremioFlightAuthProviderImpl(Providers.of(dremioConfig), getBindingProvider().provider(UserService.class), getBindingProvider().provider(TokenManager.class)),
       Providers.of(FlightRequestContextDecorator.DEFAULT),
       getBindingProvider().provider(CredentialsService.class),
+      Providers.of(resultStreams),
       runQueryResponseHandlerFactory
       );
 
+    resultStreams.start();
     flightService.start();
     final BufferAllocator flightClientAllocator = getSabotContext()
       .getAllocator()
@@ -198,9 +207,10 @@ public class BaseFlightQueryTest extends BaseTestQuery {
 
   @AfterClass
   public static void tearDown() throws Exception {
-    AutoCloseables.close(flightClientWrapper, flightService, kvStore);
+    AutoCloseables.close(flightClientWrapper, flightService, resultStreams, kvStore);
     flightClientWrapper = null;
     flightService = null;
+    resultStreams = null;
     kvStore = null;
     closeClient();
     resetNodeCount();
@@ -305,6 +315,7 @@ public class BaseFlightQueryTest extends BaseTestQuery {
       )),
       Providers.of(FlightRequestContextDecorator.DEFAULT),
       getBindingProvider().provider(CredentialsService.class),
+      Providers.of(resultStreams),
       runQueryResponseHandlerFactory) {
 
       @Override
@@ -320,6 +331,7 @@ public class BaseFlightQueryTest extends BaseTestQuery {
       }
     };
 
+    resultStreams.start();
     flightService.start();
   }
 
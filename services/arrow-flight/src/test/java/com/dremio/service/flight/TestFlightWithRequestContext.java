@@ -52,7 +52,7 @@ public class TestFlightWithRequestContext {
     decorator = new DummyFlightRequestContextDecorator();
     producer = new DremioFlightProducer(
       null, null, null, null, null,
-      Providers.of(decorator), null);
+      Providers.of(decorator), null, null);
   }
 
   @Test
@@ -36,6 +36,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.proto.CoordinationProtos;
+import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.proto.UserProtos;
 import com.dremio.exec.proto.UserProtos.PreparedStatementHandle;
 import com.dremio.service.flight.TicketContent;
@@ -64,6 +66,8 @@ public class TestFlightPreparedStatement {
     .withDescription("Client cancelled.")
     .asRuntimeException();
 
+  private static final UserBitShared.QueryId QUERY_ID =
+    UserBitShared.QueryId.newBuilder().setPart1(1).setPart2(2).build();
   private static final Schema schema = new Schema(Collections.singletonList(Field.nullable("test1", ArrowType.Bool.INSTANCE)));
   private static final PreparedStatementHandle preparedStatementHandle = PreparedStatementHandle
     .newBuilder()
@@ -205,6 +209,65 @@ public class TestFlightPreparedStatement {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void testGetFlightInfoLegacyParallelEndpoints() {
+    // Arrange
+    when(mockHandler.get()).thenReturn(response);
+    final FlightPreparedStatement flightPreparedStatement = new FlightPreparedStatement(mockHandler);
+
+    final String dummyQuery = "select 1";
+    final TicketContent.PreparedStatementTicket.Builder ticketContent = TicketContent.PreparedStatementTicket.newBuilder()
+      .setHandle(response.getPreparedStatement().getServerHandle())
+      .setQuery(dummyQuery)
+      .setStreamId("stream");
+    final FlightDescriptor flightDescriptor = FlightDescriptor.command(dummyQuery.getBytes(StandardCharsets.UTF_8));
+    final FlightEndpoint flightEndpoint0 =
+      new FlightEndpoint(new Ticket(ticketContent.setEndpointIndex(0).build().toByteArray()), mockLocation);
+    final FlightEndpoint flightEndpoint1 =
+      new FlightEndpoint(new Ticket(ticketContent.setEndpointIndex(1).build().toByteArray()), mockLocation);
+
+    final FlightInfo expected =
+      new FlightInfo(schema, flightDescriptor, ImmutableList.of(flightEndpoint0, flightEndpoint1), -1, -1);
+
+    // Act
+    final FlightInfo actual = flightPreparedStatement.getFlightInfoLegacy(mockLocation, flightDescriptor,
+      new FlightWorkManager.ParallelResults("stream", QUERY_ID, 2, null));
+
+    // Assert
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testGetFlightInfoLegacyParallelEndpointsOnExecutor() {
+    // Arrange
+    when(mockHandler.get()).thenReturn(response);
+    final FlightPreparedStatement flightPreparedStatement = new FlightPreparedStatement(mockHandler);
+
+    final String dummyQuery = "select 1";
+    final TicketContent.PreparedStatementTicket.Builder ticketContent = TicketContent.PreparedStatementTicket.newBuilder()
+      .setHandle(response.getPreparedStatement().getServerHandle())
+      .setQuery(dummyQuery)
+      .setQueryId(QUERY_ID)
+      .setEndpointCount(2);
+    final FlightDescriptor flightDescriptor = FlightDescriptor.command(dummyQuery.getBytes(StandardCharsets.UTF_8));
+    final Location executorLocation = Location.forGrpcInsecure("executor", 32010);
+    final FlightEndpoint flightEndpoint0 =
+      new FlightEndpoint(new Ticket(ticketContent.setEndpointIndex(0).build().toByteArray()), executorLocation);
+    final FlightEndpoint flightEndpoint1 =
+      new FlightEndpoint(new Ticket(ticketContent.setEndpointIndex(1).build().toByteArray()), executorLocation);
+
+    final FlightInfo expected =
+      new FlightInfo(schema, flightDescriptor, ImmutableList.of(flightEndpoint0, flightEndpoint1), -1, -1);
+
+    // Act
+    final FlightInfo actual = flightPreparedStatement.getFlightInfoLegacy(Location.forGrpcInsecure("0.0.0.0", 32010),
+      flightDescriptor, new FlightWorkManager.ParallelResults("stream", QUERY_ID, 2,
+        CoordinationProtos.NodeEndpoint.newBuilder().setAddress("executor").build()));
+
+    // Assert
+    assertEquals(expected, actual);
+  }
+
   private static class TestException extends Exception {
     public TestException(String message) {
       super(message);
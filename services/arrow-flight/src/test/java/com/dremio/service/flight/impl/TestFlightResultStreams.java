@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.apache.arrow.flight.FlightProducer;
+import org.apache.arrow.flight.FlightRuntimeException;
+import org.apache.arrow.flight.FlightStatusCode;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.GeneralRPCProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.record.WritableBatch;
+import com.dremio.exec.rpc.RpcException;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.rpc.ExecutorResultsTunnel;
+import com.dremio.service.flight.DremioFlightServiceOptions;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Unit test class for FlightResultStreams.
+ */
+public class TestFlightResultStreams {
+  private static final UserBitShared.QueryId QUERY_ID =
+    UserBitShared.QueryId.newBuilder().setPart1(1).setPart2(2).build();
+
+  private BufferAllocator allocator;
+  private OptionManager optionManager;
+  private FlightResultStreams resultStreams;
+
+  @Before
+  public void setUp() throws Exception {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    optionManager = mock(OptionManager.class);
+    when(optionManager.getOption(DremioFlightServiceOptions.PARALLEL_ENDPOINTS_EXPIRATION_MILLIS)).thenReturn(0L);
+    resultStreams = new FlightResultStreams(() -> allocator, () -> optionManager);
+    resultStreams.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(resultStreams, allocator);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBatchCopiedOutOfTheFragment() throws Exception {
+    // Arrange
+    final ExecutorResultsTunnel tunnel = resultStreams.getTunnel(QUERY_ID, 2);
+    final QueryWritableBatch batch = newBatch(10);
+    final RpcOutcomeListener<GeneralRPCProtos.Ack> ackListener = mock(RpcOutcomeListener.class);
+
+    // Act
+    tunnel.sendData(ackListener, batch);
+
+    // Assert
+    for (ByteBuf buffer : batch.getBuffers()) {
+      assertEquals(0, buffer.refCnt());
+    }
+    // the copy waits for an endpoint, until the stream expires
+    resultStreams.close();
+    verify(ackListener, timeout(10000)).failed(any(RpcException.class));
+  }
+
+  @Test
+  public void testEndpointCountMismatch() {
+    // Arrange
+    resultStreams.getTunnel(QUERY_ID, 2);
+
+    // Act & Assert
+    assertFetchFails(3, 0, FlightStatusCode.INVALID_ARGUMENT);
+    assertFetchFails(0, 0, FlightStatusCode.INVALID_ARGUMENT);
+    assertFetchFails(2, 2, FlightStatusCode.INVALID_ARGUMENT);
+  }
+
+  @Test
+  public void testDoneStreamsRemoved() throws Exception {
+    // Arrange
+    final ExecutorResultsTunnel tunnel = resultStreams.getTunnel(QUERY_ID, 2);
+    tunnel.resultsCompleted();
+    tunnel.close();
+    Thread.sleep(10);
+
+    // Act
+    resultStreams.removeDoneStreams();
+
+    // Assert
+    assertEquals(0, resultStreams.getStreamCount());
+  }
+
+  private void assertFetchFails(int endpointCount, int endpointIndex, FlightStatusCode expectedCode) {
+    try {
+      resultStreams.fetch(QUERY_ID, endpointCount, endpointIndex, mock(FlightProducer.ServerStreamListener.class));
+      fail("Expected fetching endpoint " + endpointIndex + " of " + endpointCount + " to fail.");
+    } catch (FlightRuntimeException e) {
+      assertEquals(expectedCode, e.status().code());
+    }
+  }
+
+  private QueryWritableBatch newBatch(int rowCount) {
+    try (IntVector vector = new IntVector("value", allocator)) {
+      vector.allocateNew(rowCount);
+      for (int i = 0; i < rowCount; i++) {
+        vector.set(i, i);
+      }
+      vector.setValueCount(rowCount);
+      // the buffers of the vector are handed over to the batch
+      final WritableBatch batch =
+        WritableBatch.getBatchNoHV(rowCount, Collections.<ValueVector>singletonList(vector), false);
+      final UserBitShared.QueryData header = UserBitShared.QueryData.newBuilder()
+        .setRowCount(rowCount)
+        .setDef(batch.getDef())
+        .build();
+      return new QueryWritableBatch(header, batch.getBuffers());
+    }
+  }
+}
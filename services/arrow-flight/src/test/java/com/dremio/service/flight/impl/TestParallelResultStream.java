@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.arrow.flight.FlightProducer;
+import org.apache.arrow.flight.FlightRuntimeException;
+import org.apache.arrow.flight.FlightStatusCode;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.CoordinationProtos;
+import com.dremio.exec.proto.GeneralRPCProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.rpc.Acks;
+import com.dremio.exec.rpc.RpcException;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.ResultEndpointRecorder;
+import com.dremio.exec.work.protector.UserResponseHandler;
+import com.dremio.exec.work.protector.UserResult;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Unit test class for ParallelResultStream.
+ */
+public class TestParallelResultStream {
+
+  private ParallelResultStream stream;
+  private UserResponseHandler handler0;
+  private UserResponseHandler handler1;
+  private FlightProducer.ServerStreamListener listener0;
+  private FlightProducer.ServerStreamListener listener1;
+  private BufferAllocator allocator;
+
+  @Before
+  public void setUp() {
+    // sends the batches that waited for an endpoint on the fetching thread
+    stream = new ParallelResultStream("stream", "user", 2, Runnable::run);
+    handler0 = mock(UserResponseHandler.class);
+    handler1 = mock(UserResponseHandler.class);
+    listener0 = mock(FlightProducer.ServerStreamListener.class);
+    listener1 = mock(FlightProducer.ServerStreamListener.class);
+    allocator = mock(BufferAllocator.class);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPendingBatchesSentToFirstEndpoint() {
+    // Arrange
+    final RpcOutcomeListener<GeneralRPCProtos.Ack> ackListener = mock(RpcOutcomeListener.class);
+    stream.sendData(ackListener, newBatch(10));
+    stream.sendData(ackListener, newBatch(20));
+
+    // Act
+    stream.fetch(1, handler1, listener1, allocator);
+    stream.fetch(0, handler0, listener0, allocator);
+
+    // Assert
+    verify(handler1, times(2)).sendData(eq(ackListener), any());
+    verify(handler0, never()).sendData(any(), any());
+  }
+
+  @Test
+  public void testCompletionWaitsForPendingBatches() {
+    // Arrange
+    final List<Runnable> sends = new ArrayList<>();
+    stream = new ParallelResultStream("stream", "user", 2, sends::add);
+    final UserResult result = mock(UserResult.class);
+    stream.sendData(null, newBatch(10));
+    stream.fetch(0, handler0, listener0, allocator);
+
+    // Act
+    stream.completed(result);
+
+    // Assert
+    verify(handler0, never()).completed(any());
+    sends.forEach(Runnable::run);
+    final InOrder inOrder = inOrder(handler0);
+    inOrder.verify(handler0).sendData(any(), any());
+    inOrder.verify(handler0).completed(result);
+  }
+
+  @Test
+  public void testResultsLocation() throws Exception {
+    // Arrange
+    final CoordinationProtos.NodeEndpoint executor =
+      CoordinationProtos.NodeEndpoint.newBuilder().setAddress("executor").build();
+
+    // Act
+    stream.screenAssigned(executor);
+    stream.sendData(null, newBatch(10));
+
+    // Assert
+    assertEquals(executor, stream.awaitResultsLocation(1000));
+  }
+
+  @Test
+  public void testResultsLocationOfCoordinator() throws Exception {
+    // Act
+    stream.completed(mock(UserResult.class));
+
+    // Assert
+    assertNull(stream.awaitResultsLocation(1000));
+  }
+
+  @Test(expected = TimeoutException.class)
+  public void testResultsLocationTimeout() throws Exception {
+    stream.awaitResultsLocation(10);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testExpireReleasesPendingBatches() {
+    // Arrange
+    final RpcOutcomeListener<GeneralRPCProtos.Ack> ackListener = mock(RpcOutcomeListener.class);
+    final ByteBuf buffer = mock(ByteBuf.class);
+    stream.sendData(ackListener, new QueryWritableBatch(UserBitShared.QueryData.newBuilder().setRowCount(1).build(),
+      buffer));
+
+    // Act
+    stream.expire();
+    stream.fetch(0, handler0, listener0, allocator);
+
+    // Assert
+    verify(buffer).release();
+    verify(ackListener).failed(any(RpcException.class));
+    final ArgumentCaptor<UserResult> result = ArgumentCaptor.forClass(UserResult.class);
+    verify(handler0).completed(result.capture());
+    assertEquals(UserBitShared.QueryResult.QueryState.FAILED, result.getValue().getState());
+    verify(handler0, never()).sendData(any(), any());
+  }
+
+  @Test
+  public void testSendDataPrefersReadyEndpoints() {
+    // Arrange
+    stream.fetch(0, handler0, listener0, allocator);
+    stream.fetch(1, handler1, listener1, allocator);
+    when(listener0.isReady()).thenReturn(false);
+    when(listener1.isReady()).thenReturn(true);
+
+    // Act
+    stream.sendData(null, newBatch(10));
+    stream.sendData(null, newBatch(10));
+
+    // Assert
+    verify(handler0, never()).sendData(any(), any());
+    verify(handler1, times(2)).sendData(any(), any());
+  }
+
+  @Test
+  public void testSendDataRoundRobinWhenNoEndpointIsReady() {
+    // Arrange
+    stream.fetch(0, handler0, listener0, allocator);
+    stream.fetch(1, handler1, listener1, allocator);
+
+    // Act
+    stream.sendData(null, newBatch(10));
+    stream.sendData(null, newBatch(20));
+    stream.sendData(null, newBatch(30));
+
+    // Assert
+    verify(handler0, times(2)).sendData(any(), any());
+    verify(handler1, times(1)).sendData(any(), any());
+    assertTrue(stream.getEndpointStats().get(0).startsWith("2 batches, 40 records"));
+    assertTrue(stream.getEndpointStats().get(1).startsWith("1 batches, 20 records"));
+  }
+
+  @Test
+  public void testSentBatchesRecordedBeforeAck() {
+    // Arrange
+    stream.fetch(0, handler0, listener0, allocator);
+    stream.fetch(1, handler1, listener1, allocator);
+    when(listener1.isReady()).thenReturn(true);
+    // the handler acknowledges the batch once sent
+    doAnswer(invocation -> {
+      invocation.<RpcOutcomeListener<GeneralRPCProtos.Ack>>getArgument(0).success(Acks.OK, null);
+      return null;
+    }).when(handler1).sendData(any(), any());
+    final RecordingScreenListener screenListener = mock(RecordingScreenListener.class);
+
+    // Act
+    stream.sendData(screenListener, newBatch(10));
+
+    // Assert
+    final InOrder inOrder = inOrder(screenListener);
+    inOrder.verify(screenListener).recordSent(eq(1), eq(10L), anyLong(), anyLong());
+    inOrder.verify(screenListener).success(Acks.OK, null);
+  }
+
+  @Test
+  public void testFetchAfterCompletion() {
+    // Arrange
+    final UserResult result = mock(UserResult.class);
+    stream.fetch(0, handler0, listener0, allocator);
+
+    // Act
+    stream.completed(result);
+    stream.fetch(1, handler1, listener1, allocator);
+
+    // Assert
+    verify(handler0).completed(result);
+    verify(handler1).completed(result);
+  }
+
+  @Test
+  public void testInvalidFetch() {
+    // Arrange
+    stream.fetch(0, handler0, listener0, allocator);
+
+    // Act & Assert
+    assertFetchFails(0, FlightStatusCode.ALREADY_EXISTS);
+    assertFetchFails(2, FlightStatusCode.INVALID_ARGUMENT);
+    assertFetchFails(-1, FlightStatusCode.INVALID_ARGUMENT);
+  }
+
+  @Test
+  public void testIsDone() {
+    // Act & Assert
+    assertFalse(stream.isDone(System.currentTimeMillis(), 60000));
+    // never fetched
+    assertTrue(stream.isDone(System.currentTimeMillis() + 120000, 60000));
+
+    stream.fetch(0, handler0, listener0, allocator);
+    assertFalse(stream.isDone(System.currentTimeMillis() + 120000, 60000));
+
+    stream.completed(mock(UserResult.class));
+    assertFalse(stream.isDone(System.currentTimeMillis(), 60000));
+    // the second endpoint was never fetched
+    assertTrue(stream.isDone(System.currentTimeMillis() + 120000, 60000));
+
+    stream.fetch(1, handler1, listener1, allocator);
+    assertTrue(stream.isDone(System.currentTimeMillis(), 60000));
+  }
+
+  private void assertFetchFails(int endpointIndex, FlightStatusCode expectedCode) {
+    try {
+      stream.fetch(endpointIndex, handler1, listener1, allocator);
+      fail("Expected fetching endpoint " + endpointIndex + " to fail.");
+    } catch (FlightRuntimeException e) {
+      assertEquals(expectedCode, e.status().code());
+    }
+  }
+
+  private interface RecordingScreenListener extends RpcOutcomeListener<GeneralRPCProtos.Ack>, ResultEndpointRecorder {
+  }
+
+  private static QueryWritableBatch newBatch(int rowCount) {
+    return new QueryWritableBatch(UserBitShared.QueryData.newBuilder().setRowCount(rowCount).build());
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.concurrent.Semaphore;
+
+import javax.inject.Provider;
+
+import org.apache.arrow.flight.FlightClient;
+import org.apache.arrow.flight.FlightServer;
+import org.apache.arrow.flight.FlightStream;
+import org.apache.arrow.flight.Location;
+import org.apache.arrow.flight.NoOpFlightProducer;
+import org.apache.arrow.flight.Ticket;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.GeneralRPCProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.record.WritableBatch;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.UserResult;
+import com.dremio.sabot.rpc.user.UserSession;
+import com.dremio.service.flight.impl.RunQueryResponseHandler.BasicResponseHandler;
+
+/**
+ * Test class for ParallelResultStream, streaming to Flight clients through the response handlers of the endpoints.
+ */
+public class TestParallelResultStreamOverFlight {
+  private static final int ROW_COUNT = 10;
+  private static final Schema SCHEMA =
+    new Schema(Collections.singletonList(Field.nullable("value", new ArrowType.Int(32, true))));
+
+  private BufferAllocator allocator;
+  private ParallelResultStream stream;
+  private FlightServer server;
+  private FlightClient client;
+  private RpcOutcomeListener<GeneralRPCProtos.Ack> ackListener;
+  // released each time an endpoint is fetched by the server
+  private final Semaphore fetches = new Semaphore(0);
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    stream = new ParallelResultStream("stream", "user", 2, Runnable::run);
+    ackListener = mock(RpcOutcomeListener.class);
+    server = FlightServer.builder(allocator, Location.forGrpcInsecure("localhost", 0), new EndpointProducer())
+      .build()
+      .start();
+    client = FlightClient.builder(allocator, Location.forGrpcInsecure("localhost", server.getPort())).build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    AutoCloseables.close(client, server, allocator);
+  }
+
+  @Test
+  public void testEndpointFetchedAfterCompletion() throws Exception {
+    // Arrange
+    final FlightStream endpoint0 = client.getStream(ticket(0));
+    fetches.acquire();
+    stream.sendData(ackListener, newBatch());
+
+    // Act
+    stream.completed(completedResult());
+    final FlightStream endpoint1 = client.getStream(ticket(1));
+
+    // Assert
+    assertEquals(ROW_COUNT, readRows(endpoint0));
+    assertEquals(0, readRows(endpoint1));
+    verify(ackListener).success(any(), any());
+  }
+
+  @Test
+  public void testEndpointWithoutBatch() throws Exception {
+    // Arrange
+    final FlightStream endpoint0 = client.getStream(ticket(0));
+    final FlightStream endpoint1 = client.getStream(ticket(1));
+    fetches.acquire(2);
+
+    // Act
+    stream.sendData(ackListener, newBatch());
+    stream.completed(completedResult());
+
+    // Assert
+    assertEquals(ROW_COUNT, readRows(endpoint0) + readRows(endpoint1));
+    verify(ackListener).success(any(), any());
+  }
+
+  /**
+   * Reads the rows of an endpoint, checking the schema it was started with.
+   */
+  private static int readRows(FlightStream flightStream) throws Exception {
+    try (FlightStream endpoint = flightStream) {
+      assertEquals(SCHEMA.getFields(), endpoint.getSchema().getFields());
+      int rowCount = 0;
+      while (endpoint.next()) {
+        rowCount += endpoint.getRoot().getRowCount();
+      }
+      return rowCount;
+    }
+  }
+
+  private QueryWritableBatch newBatch() {
+    try (IntVector vector = new IntVector("value", allocator)) {
+      vector.allocateNew(ROW_COUNT);
+      for (int i = 0; i < ROW_COUNT; i++) {
+        vector.set(i, i);
+      }
+      vector.setValueCount(ROW_COUNT);
+      // the buffers of the vector are handed over to the batch
+      final WritableBatch batch =
+        WritableBatch.getBatchNoHV(ROW_COUNT, Collections.<ValueVector>singletonList(vector), false);
+      final UserBitShared.QueryData header = UserBitShared.QueryData.newBuilder()
+        .setRowCount(ROW_COUNT)
+        .setDef(batch.getDef())
+        .build();
+      return new QueryWritableBatch(header, batch.getBuffers());
+    }
+  }
+
+  private static UserResult completedResult() {
+    return new UserResult(null, UserBitShared.QueryId.getDefaultInstance(),
+      UserBitShared.QueryResult.QueryState.COMPLETED, null, null, null, false, false, false);
+  }
+
+  private static Ticket ticket(int endpointIndex) {
+    return new Ticket(new byte[] {(byte) endpointIndex});
+  }
+
+  /**
+   * Fetches the endpoint of the ticket from the stream, with the response handler of a query run through Flight.
+   */
+  private final class EndpointProducer extends NoOpFlightProducer {
+    @Override
+    @SuppressWarnings("unchecked")
+    public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+      final BasicResponseHandler handler = new BasicResponseHandler(stream.getRunExternalId(),
+        mock(UserSession.class), mock(Provider.class), listener, allocator, () -> {});
+      stream.fetch(ticket.getBytes()[0], handler, listener, allocator);
+      fetches.release();
+    }
+  }
+}
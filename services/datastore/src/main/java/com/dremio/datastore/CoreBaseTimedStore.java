@@ -100,6 +100,21 @@ abstract class CoreBaseTimedStore<K, V> implements CoreKVStore<K, V> {
     }
   }
 
+  @Override
+  public Iterable<Document<KVStoreTuple<K>, KVStoreTuple<V>>> put(List<KVStoreTuple<K>> keys, List<KVStoreTuple<V>> values,
+                                                               PutOption... options) {
+    try (TimedBlock b = time(name + ".put(List)")) {
+      return kvStore.put(keys, values, options);
+    }
+  }
+
+  @Override
+  public void delete(List<KVStoreTuple<K>> keys, DeleteOption... options) {
+    try (TimedBlock b = time(name + ".delete(List)")) {
+      kvStore.delete(keys, options);
+    }
+  }
+
   /**
    * Basic timed store.
    *
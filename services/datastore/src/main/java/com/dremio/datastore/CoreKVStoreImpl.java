@@ -89,6 +89,28 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
     return fromDocument(result);
   }
 
+  @Override
+  public Iterable<Document<KVStoreTuple<KEY>, KVStoreTuple<VALUE>>> put(List<KVStoreTuple<KEY>> keys,
+                                                                       List<KVStoreTuple<VALUE>> values,
+                                                                       PutOption... options) {
+    if (VersionOption.getTagInfo(options).hasVersionOption()) {
+      // each document is validated against its own version
+      return CoreKVStore.super.put(keys, values, options);
+    }
+    final List<byte[]> convertedKeys = Lists.transform(keys, keyToBytes);
+    final List<byte[]> convertedValues = Lists.transform(values, KVStoreTuple::getSerializedBytes);
+    return Iterables.transform(rawStore.put(convertedKeys, convertedValues, options), this::fromDocument);
+  }
+
+  @Override
+  public void delete(List<KVStoreTuple<KEY>> keys, DeleteOption... options) {
+    if (VersionOption.getTagInfo(options).hasVersionOption()) {
+      CoreKVStore.super.delete(keys, options);
+      return;
+    }
+    rawStore.delete(Lists.transform(keys, keyToBytes), options);
+  }
+
   @Override
   public boolean contains(KVStoreTuple<KEY> key, ContainsOption... options) {
     return rawStore.contains(key.getSerializedBytes(), options);
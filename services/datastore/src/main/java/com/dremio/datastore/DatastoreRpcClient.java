@@ -23,6 +23,8 @@ import java.util.List;
 
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteListRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteListResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DocumentResponse;
@@ -34,6 +36,8 @@ import com.dremio.datastore.RemoteDataStoreProtobuf.GetRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.PutListRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.PutListResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.PutRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.PutResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.SearchRequest;
@@ -250,6 +254,46 @@ public class DatastoreRpcClient {
     }
   }
 
+  /**
+   * Put method to store the provided key value entries to the store in a single batch.
+   *
+   * @param storeId the store ID.
+   * @param keys the keys of the entries to be stored.
+   * @param values the values of the entries to be stored, in the same order as the keys.
+   * @return the new tags of the key-value store entries, in the same order as the keys.
+   * @throws RpcException when RPC related errors are encountered, or the batch failed.
+   */
+  public List<String> put(String storeId, List<ByteString> keys, List<ByteString> values) throws RpcException {
+    final PutListRequest.Builder builder = PutListRequest.newBuilder();
+    builder.setStoreId(storeId);
+    builder.addAllKeys(keys);
+    builder.addAllValues(values);
+
+    ReceivedResponseMessage<PutListResponse> response = rpcService.getPutListEndpoint().send(builder.build());
+    if (response.getBody().hasErrorMessage()) {
+      throw new RpcException(response.getBody().getErrorMessage());
+    }
+    return response.getBody().getTagsList();
+  }
+
+  /**
+   * Delete method to remove the key-value store entries corresponding to the provided keys in a single batch.
+   *
+   * @param storeId the store ID.
+   * @param keys the keys of the key-value store entries to remove.
+   * @throws RpcException when RPC related errors are encountered, or the batch failed.
+   */
+  public void delete(String storeId, List<ByteString> keys) throws RpcException {
+    final DeleteListRequest.Builder builder = DeleteListRequest.newBuilder();
+    builder.setStoreId(storeId);
+    builder.addAllKeys(keys);
+
+    ReceivedResponseMessage<DeleteListResponse> response = rpcService.getDeleteListEndpoint().send(builder.build());
+    if (response.getBody().hasErrorMessage()) {
+      throw new RpcException(response.getBody().getErrorMessage());
+    }
+  }
+
   /**
    * Find method to retrieve documents satisfying provided search conditions.
    *
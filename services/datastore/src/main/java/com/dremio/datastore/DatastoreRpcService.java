@@ -22,6 +22,8 @@ import org.apache.arrow.memory.BufferAllocator;
 
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteListRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteListResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.FindRequest;
@@ -32,6 +34,8 @@ import com.dremio.datastore.RemoteDataStoreProtobuf.GetRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.PutListRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.PutListResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.PutRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.PutResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.SearchRequest;
@@ -58,6 +62,8 @@ public class DatastoreRpcService {
   private static final int TYPE_PUT = 6;
   private static final int TYPE_DELETE = 7;
   private static final int TYPE_GET_STORE = 10;
+  private static final int TYPE_PUT_LIST = 11;
+  private static final int TYPE_DELETE_LIST = 12;
 
   private final Provider<NodeEndpoint> master;
 
@@ -69,6 +75,8 @@ public class DatastoreRpcService {
   private SendEndpointCreator<PutRequest, PutResponse> putEndpointCreator;
   private SendEndpointCreator<DeleteRequest, DeleteResponse> deleteEndpointCreator;
   private SendEndpointCreator<GetStoreRequest, GetStoreResponse> getStoreEndpointCreator;
+  private SendEndpointCreator<PutListRequest, PutListResponse> putListEndpointCreator;
+  private SendEndpointCreator<DeleteListRequest, DeleteListResponse> deleteListEndpointCreator;
 
   public DatastoreRpcService(Provider<NodeEndpoint> masterNode,
                              FabricService fabricService, BufferAllocator allocator,
@@ -142,6 +150,22 @@ public class DatastoreRpcService {
         }
       });
 
+    putListEndpointCreator = builder.register(TYPE_PUT_LIST,
+      new AbstractReceiveHandler<PutListRequest, PutListResponse>(PutListRequest.getDefaultInstance(), PutListResponse.getDefaultInstance()) {
+        @Override
+        public SentResponseMessage<PutListResponse> handle(PutListRequest request, ArrowBuf dBody) throws RpcException {
+          return new SentResponseMessage<>(handler.putList(request));
+        }
+      });
+
+    deleteListEndpointCreator = builder.register(TYPE_DELETE_LIST,
+      new AbstractReceiveHandler<DeleteListRequest, DeleteListResponse>(DeleteListRequest.getDefaultInstance(), DeleteListResponse.getDefaultInstance()) {
+        @Override
+        public SentResponseMessage<DeleteListResponse> handle(DeleteListRequest request, ArrowBuf dBody) throws RpcException {
+          return new SentResponseMessage<>(handler.deleteList(request));
+        }
+      });
+
     builder.register(fabricService);
   }
 
@@ -186,4 +210,12 @@ public class DatastoreRpcService {
     return newEndpoint(getStoreEndpointCreator);
   }
 
+  public SendEndpoint<PutListRequest, PutListResponse> getPutListEndpoint() throws RpcException {
+    return newEndpoint(putListEndpointCreator);
+  }
+
+  public SendEndpoint<DeleteListRequest, DeleteListResponse> getDeleteListEndpoint() throws RpcException {
+    return newEndpoint(deleteListEndpointCreator);
+  }
+
 }
@@ -17,6 +17,8 @@ package com.dremio.datastore;
 
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteListRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteListResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.FindRequest;
@@ -27,6 +29,8 @@ import com.dremio.datastore.RemoteDataStoreProtobuf.GetRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.PutListRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.PutListResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.PutRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.PutResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.SearchRequest;
@@ -71,6 +75,14 @@ public class DefaultDataStoreRpcHandler {
     throw new UnsupportedOperationException("Remote datastore operations are not supported on this host " + hostName);
   }
 
+  public PutListResponse putList(PutListRequest request) {
+    throw new UnsupportedOperationException("Remote datastore operations are not supported on this host " + hostName);
+  }
+
+  public DeleteListResponse deleteList(DeleteListRequest request) {
+    throw new UnsupportedOperationException("Remote datastore operations are not supported on this host " + hostName);
+  }
+
   public GetStoreResponse getStore(GetStoreRequest request) {
     throw new UnsupportedOperationException("Remote datastore operations are not supported on this host " + hostName);
   }
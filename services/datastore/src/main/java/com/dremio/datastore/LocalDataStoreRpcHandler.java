@@ -15,11 +15,14 @@
  */
 package com.dremio.datastore;
 
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.List;
 
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteListRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteListResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DocumentResponse;
@@ -31,6 +34,8 @@ import com.dremio.datastore.RemoteDataStoreProtobuf.GetRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.GetStoreResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.PutListRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.PutListResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.PutRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.PutResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.SearchRequest;
@@ -167,6 +172,46 @@ public class LocalDataStoreRpcHandler extends DefaultDataStoreRpcHandler {
     return DeleteResponse.getDefaultInstance();
   }
 
+  @Override
+  public PutListResponse putList(PutListRequest request) {
+    final CoreKVStore store = coreStoreProvider.getStore(request.getStoreId());
+    final List<KVStoreTuple<?>> keys = toKeys(store, request.getKeysList());
+    final List<KVStoreTuple<?>> values = new ArrayList<>(request.getValuesCount());
+    for (ByteString value : request.getValuesList()) {
+      values.add(store.newValue().setSerializedBytes(value.toByteArray()));
+    }
+
+    final PutListResponse.Builder builder = PutListResponse.newBuilder();
+    try {
+      final Iterable<Document<KVStoreTuple<?>, KVStoreTuple<?>>> results = store.put(keys, values);
+      for (Document<KVStoreTuple<?>, KVStoreTuple<?>> result : results) {
+        builder.addTags(Strings.nullToEmpty(result.getTag()));
+      }
+    } catch (DatastoreException | IllegalArgumentException e) {
+      builder.clearTags().setErrorMessage(String.valueOf(e.getMessage()));
+    }
+    return builder.build();
+  }
+
+  @Override
+  public DeleteListResponse deleteList(DeleteListRequest request) {
+    final CoreKVStore store = coreStoreProvider.getStore(request.getStoreId());
+    try {
+      store.delete(toKeys(store, request.getKeysList()));
+    } catch (DatastoreException e) {
+      return DeleteListResponse.newBuilder().setErrorMessage(String.valueOf(e.getMessage())).build();
+    }
+    return DeleteListResponse.getDefaultInstance();
+  }
+
+  private static List<KVStoreTuple<?>> toKeys(CoreKVStore store, List<ByteString> serializedKeys) {
+    final List<KVStoreTuple<?>> keys = new ArrayList<>(serializedKeys.size());
+    for (ByteString key : serializedKeys) {
+      keys.add(store.newKey().setSerializedBytes(key.toByteArray()));
+    }
+    return keys;
+  }
+
   @Override
   public GetStoreResponse getStore(GetStoreRequest request) {
     String storeId = coreStoreProvider.getStoreID(request.getName());
@@ -57,7 +57,9 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
     CHECK_AND_DELETE,
     DELETE_VERSION,
     FIND_BY_RANGE,
-    FIND_ALL
+    FIND_ALL,
+    PUT_LIST,
+    DELETE_LIST
   }
 
   private final String storeId;
@@ -176,6 +178,42 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
     return createDocument(key, value, tag);
   }
 
+  @Override
+  public Iterable<Document<K, V>> put(List<K> keys, List<V> values, PutOption... options) {
+    KVStoreOptionUtility.checkIndexPutOptionIsNotUsed(options);
+    if (VersionOption.getTagInfo(options).hasVersionOption()) {
+      // each document is validated against its own version
+      return KVStore.super.put(keys, values, options);
+    }
+    Preconditions.checkArgument(keys.size() == values.size(), "Expected as many values as keys");
+
+    final List<String> tags;
+    try (TimerContext timer = time(Stats.PUT_LIST)) {
+      tags = client.put(storeId, Lists.transform(keys, this::convertKey), Lists.transform(values, this::convertValue));
+    } catch (RpcException e) {
+      throw new DatastoreException(format("Failed to put multiple values in store id: %s", getStoreId()), e);
+    }
+
+    final List<Document<K, V>> documents = Lists.newArrayListWithCapacity(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      documents.add(createDocument(keys.get(i), values.get(i), tags.get(i)));
+    }
+    return documents;
+  }
+
+  @Override
+  public void delete(List<K> keys, DeleteOption... options) {
+    if (VersionOption.getTagInfo(options).hasVersionOption()) {
+      KVStore.super.delete(keys, options);
+      return;
+    }
+    try (TimerContext timer = time(Stats.DELETE_LIST)) {
+      client.delete(storeId, Lists.transform(keys, this::convertKey));
+    } catch (RpcException e) {
+      throw new DatastoreException(format("Failed to delete multiple values from store id: %s", getStoreId()), e);
+    }
+  }
+
   @Override
   public boolean contains(K key, ContainsOption... options) {
     try (TimerContext timer = time(Stats.CONTAINS)) {
@@ -27,9 +27,13 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -46,6 +50,8 @@ import org.rocksdb.FlushOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 import org.xerial.snappy.SnappyInputStream;
 import org.xerial.snappy.SnappyOutputStream;
 
@@ -317,22 +323,65 @@ class RocksDBStore implements ByteStore {
 
   }
 
-  private AutoCloseableLock sharedLock(byte[] key) {
+  private int stripe(byte[] key) {
     Preconditions.checkNotNull(key);
     final int hash = Arrays.hashCode(key);
-    AutoCloseableLock lock = sharedLocks[Math.abs(hash % parallel)];
+    return Math.abs(hash % parallel);
+  }
+
+  private AutoCloseableLock sharedLock(byte[] key) {
+    AutoCloseableLock lock = sharedLocks[stripe(key)];
     lock.open();
     return lock;
   }
 
   private AutoCloseableLock exclusiveLock(byte[] key) {
-    Preconditions.checkNotNull(key);
-    final int hash = Arrays.hashCode(key);
-    AutoCloseableLock lock = exclusiveLocks[Math.abs(hash % parallel)];
+    AutoCloseableLock lock = exclusiveLocks[stripe(key)];
     lock.open();
     return lock;
   }
 
+  /**
+   * Acquires the shared locks of the stripes of all the keys. Locks are acquired in stripe order so that concurrent
+   * multiple key operations can't deadlock.
+   */
+  private SharedLocks sharedLocks(List<byte[]> keys) {
+    final BitSet stripes = new BitSet(parallel);
+    for (byte[] key : keys) {
+      stripes.set(stripe(key));
+    }
+    final List<AutoCloseableLock> locks = new ArrayList<>(stripes.cardinality());
+    for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+      locks.add(sharedLocks[i].open());
+    }
+    return new SharedLocks(locks);
+  }
+
+  private static final class SharedLocks implements AutoCloseable {
+    private final List<AutoCloseableLock> locks;
+
+    private SharedLocks(List<AutoCloseableLock> locks) {
+      this.locks = locks;
+    }
+
+    @Override
+    public void close() {
+      for (int i = locks.size() - 1; i >= 0; i--) {
+        locks.get(i).close();
+      }
+    }
+  }
+
+  /**
+   * Reads the raw values of the keys in a single call, by key instance. Keys without a value are not in the map.
+   */
+  private Map<byte[], byte[]> multiGet(List<byte[]> keys) throws RocksDBException {
+    if (keys.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    return db.multiGet(Collections.nCopies(keys.size(), handle), keys);
+  }
+
   /**
    * Delete all values. Deletes only values inside the store, leaving behind any leftover blobs that have been placed
    * directly in the file system.
@@ -499,13 +548,110 @@ class RocksDBStore implements ByteStore {
 
   @Override
   public Iterable<Document<byte[], byte[]>> get(List<byte[]> keys, GetOption... options) {
-    final List<Document<byte[], byte[]>> results = new ArrayList<>();
-    for (byte[] key : keys) {
-      results.add(get(key, options));
+    // values are looked up by key instance, the list may be a view creating new keys on every access
+    final List<byte[]> keyList = new ArrayList<>(keys);
+    final List<Document<byte[], byte[]>> results = new ArrayList<>(keyList.size());
+    try (SharedLocks ac = sharedLocks(keyList)) {
+      throwIfClosed();
+      final Map<byte[], byte[]> valuesOrPtrs = multiGet(keyList);
+      for (byte[] key : keyList) {
+        final RocksEntry result = resolvePtrOrValue(valuesOrPtrs.get(key));
+        if (result == null) {
+          results.add(null);
+          continue;
+        }
+        final byte[] value = result.getData();
+        results.add(toDocument(key, value, toTag(result.getMeta(), value)));
+      }
+    } catch (RocksDBException | BlobNotFoundException e) {
+      throw new RuntimeException(e);
     }
     return results;
   }
 
+  /**
+   * Saves all the values in a single atomic write batch.
+   */
+  @Override
+  public Iterable<Document<byte[], byte[]>> put(List<byte[]> keys, List<byte[]> newValues, PutOption... options) {
+    Preconditions.checkArgument(keys.size() == newValues.size(), "Expected as many values as keys");
+    final List<byte[]> keyList = new ArrayList<>(keys);
+    final Set<byte[]> distinctKeys = new TreeSet<>(UnsignedBytes.lexicographicalComparator());
+    distinctKeys.addAll(keyList);
+    Preconditions.checkArgument(distinctKeys.size() == keyList.size(), "Duplicate keys in batch");
+
+    final List<Document<byte[], byte[]>> documents = new ArrayList<>(keyList.size());
+    final List<BlobHolder> blobs = new ArrayList<>(keyList.size());
+    try (SharedLocks ac = sharedLocks(keyList);
+         WriteBatch batch = new WriteBatch();
+         WriteOptions writeOptions = new WriteOptions()) {
+      throwIfClosed();
+      if (keyList.isEmpty()) {
+        return documents;
+      }
+
+      final Map<byte[], byte[]> oldValuesOrPtrs = multiGet(keyList);
+      for (int i = 0; i < keyList.size(); i++) {
+        final byte[] key = keyList.get(i);
+        final byte[] newValue = newValues.get(i);
+        if (newValue == null) {
+          throw new NullPointerException("null values are not allowed in kvstore");
+        }
+        final String newTag = ByteStore.generateTagFromBytes(newValue);
+        final BlobHolder blob = metaManager.filterPut(newValue, newTag);
+        blobs.add(blob);
+        batch.put(handle, key, blob.ptrOrValue());
+        documents.add(toDocument(key, newValue, newTag));
+      }
+
+      db.write(writeOptions, batch);
+      for (byte[] oldValueOrPtr : oldValuesOrPtrs.values()) {
+        metaManager.deleteTranslation(meta(oldValueOrPtr));
+      }
+      blobs.forEach(BlobHolder::commit);
+    } catch (RocksDBException | IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      // drops the blobs written for a batch that failed
+      blobs.forEach(BlobHolder::close);
+    }
+    return documents;
+  }
+
+  /**
+   * Deletes all the keys in a single atomic write batch.
+   */
+  @Override
+  public void delete(List<byte[]> keys, DeleteOption... options) {
+    final Set<byte[]> distinctKeys = new TreeSet<>(UnsignedBytes.lexicographicalComparator());
+    distinctKeys.addAll(keys);
+    final List<byte[]> keyList = new ArrayList<>(distinctKeys);
+    final boolean skipMeta = KVStoreOptionUtility.canSkipMeta(options);
+
+    try (SharedLocks ac = sharedLocks(keyList);
+         WriteBatch batch = new WriteBatch();
+         WriteOptions writeOptions = new WriteOptions()) {
+      throwIfClosed();
+
+      final Map<byte[], byte[]> oldValuesOrPtrs = skipMeta ? Collections.emptyMap() : multiGet(keyList);
+      for (byte[] key : keyList) {
+        if (skipMeta || oldValuesOrPtrs.containsKey(key)) {
+          batch.delete(handle, key);
+        }
+      }
+      if (batch.count() == 0) {
+        return;
+      }
+
+      db.write(writeOptions, batch);
+      for (byte[] oldValueOrPtr : oldValuesOrPtrs.values()) {
+        metaManager.deleteTranslation(meta(oldValueOrPtr));
+      }
+    } catch (RocksDBException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   @Override
   public Document<byte[], byte[]> validateAndPut(byte[] key, byte[] newValue, VersionOption.TagInfo versionInfo, PutOption... options) {
     Preconditions.checkNotNull(newValue);
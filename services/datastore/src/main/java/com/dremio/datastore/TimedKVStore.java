@@ -16,8 +16,10 @@
 package com.dremio.datastore;
 
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
@@ -56,14 +58,21 @@ public class TimedKVStore<K, V> implements KVStore<K, V> {
     getCounts,
     findForAllTenants,
     reindex,
+    putList,
+    deleteList,
   }
 
+  // operations on multiple keys, for which the number of keys is also recorded
+  private static final Set<Ops> BATCH_OPS = EnumSet.of(Ops.getList, Ops.putList, Ops.deleteList);
+
   private final KVStore<K, V> delegate;
   private final Map<Ops, Histogram> metrics;
+  private final Map<Ops, Histogram> batchSizes;
 
   public TimedKVStore(KVStore<K, V> delegate) {
     this.delegate = delegate;
     this.metrics = registerMetrics();
+    this.batchSizes = registerBatchSizeMetrics();
   }
 
   public static <K, V> TimedKVStore<K, V> of(KVStore<K,V> delegate) {
@@ -80,6 +89,16 @@ public class TimedKVStore<K, V> implements KVStore<K, V> {
     return builder.build();
   }
 
+  private Map<Ops, Histogram> registerBatchSizeMetrics() {
+    final ImmutableMap.Builder<Ops, Histogram> builder = ImmutableMap.builder();
+    for (Ops op : BATCH_OPS) {
+      final Histogram hist = Metrics.newHistogram(Metrics.join(getMetricsPrefix(), op.name(), "batch_size"),
+        Metrics.ResetType.NEVER);
+      builder.put(op, hist);
+    }
+    return builder.build();
+  }
+
   protected String getMetricsPrefix() {
     return Metrics.join("kvstore", delegate.getName());
   }
@@ -94,11 +113,25 @@ public class TimedKVStore<K, V> implements KVStore<K, V> {
 
   @Override
   public Iterable<Document<K, V>> get(List<K> keys, GetOption... options) {
-    try(final OpTimer ctx = time(Ops.getList)) {
+    try(final OpTimer ctx = time(Ops.getList, keys.size())) {
       return delegate.get(keys, options);
     }
   }
 
+  @Override
+  public Iterable<Document<K, V>> put(List<K> keys, List<V> values, PutOption... options) {
+    try(final OpTimer ctx = time(Ops.putList, keys.size())) {
+      return delegate.put(keys, values, options);
+    }
+  }
+
+  @Override
+  public void delete(List<K> keys, DeleteOption... options) {
+    try(final OpTimer ctx = time(Ops.deleteList, keys.size())) {
+      delegate.delete(keys, options);
+    }
+  }
+
   @Override
   public Document<K, V> put(K key, V value, PutOption... options) {
     try(final OpTimer ctx = time(Ops.put)) {
@@ -179,6 +212,11 @@ public class TimedKVStore<K, V> implements KVStore<K, V> {
     return new OpTimer(op);
   }
 
+  protected OpTimer time(final Ops op, int batchSize) {
+    batchSizes.get(op).update(batchSize);
+    return new OpTimer(op);
+  }
+
   /**
    * Traces calls to an underlying indexed store.
    * @param <K> key type K.
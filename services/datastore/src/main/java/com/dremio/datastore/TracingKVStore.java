@@ -39,6 +39,7 @@ class TracingKVStore<K, V> implements KVStore<K, V> {
   public static final String TABLE_TAG = "table";
   public static final String OPERATION_NAME = "kvstore_request";
   public static final String CREATOR_TAG = "creator";
+  public static final String BATCH_SIZE_TAG = "batch_size";
 
   private final Tracer tracer;
   private final KVStore<K, V> delegate;
@@ -66,6 +67,17 @@ class TracingKVStore<K, V> implements KVStore<K, V> {
     );
   }
 
+  protected <R> R trace(String methodName, int batchSize, Supplier<R> method) {
+    return TracingUtils.trace(method,
+      tracer,
+      OPERATION_NAME,
+      METHOD_TAG, methodName,
+      TABLE_TAG, tableName,
+      CREATOR_TAG, creatorName,
+      BATCH_SIZE_TAG, Integer.toString(batchSize)
+    );
+  }
+
   @Override
   public Document<K, V> get(K key, GetOption... options) {
     return trace("get", () -> delegate.get(key, options));
@@ -73,7 +85,7 @@ class TracingKVStore<K, V> implements KVStore<K, V> {
 
   @Override
   public Iterable<Document<K, V>> get(List<K> keys, GetOption... options) {
-    return trace("getList", () -> delegate.get(keys, options));
+    return trace("getList", keys.size(), () -> delegate.get(keys, options));
   }
 
   @Override
@@ -86,6 +98,11 @@ class TracingKVStore<K, V> implements KVStore<K, V> {
     return trace("put", () -> delegate.put(key, value, options));
   }
 
+  @Override
+  public Iterable<Document<K, V>> put(List<K> keys, List<V> values, PutOption... options) {
+    return trace("putList", keys.size(), () -> delegate.put(keys, values, options));
+  }
+
   @Override
   public Iterable<Document<K, V>> find(FindOption... options) {
     return trace("find", () -> delegate.find(options));
@@ -101,6 +118,14 @@ class TracingKVStore<K, V> implements KVStore<K, V> {
     trace("delete", () -> delegate.delete(key, options));
   }
 
+  @Override
+  public void delete(List<K> keys, DeleteOption... options) {
+    trace("deleteList", keys.size(), () -> {
+      delegate.delete(keys, options);
+      return null;
+    });
+  }
+
   @Override
   public KVAdmin getAdmin() {
     return trace("getAdmin", delegate::getAdmin);
@@ -97,6 +97,16 @@ public class LegacyKVStoreAdapter<K, V> implements LegacyKVStore<K, V> {
     }
   }
 
+  @Override
+  public void put(List<K> keys, List<V> values) {
+    if (versionExtractor != null) {
+      // tags are tracked value by value
+      LegacyKVStore.super.put(keys, values);
+    } else {
+      underlyingStore.put(keys, values);
+    }
+  }
+
   @Override
   public boolean contains(K key) {
     return underlyingStore.contains(key);
@@ -107,6 +117,11 @@ public class LegacyKVStoreAdapter<K, V> implements LegacyKVStore<K, V> {
     underlyingStore.delete(key);
   }
 
+  @Override
+  public void delete(List<K> keys) {
+    underlyingStore.delete(keys);
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public Iterable<Map.Entry<K, V>> find(LegacyFindByRange<K> find) {
@@ -15,6 +15,7 @@
  */
 package com.dremio.datastore.api;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
@@ -123,6 +124,42 @@ public interface KVStore<K, V> {
    */
   Document<K, V> put(K key, V value, PutOption ... options);
 
+  /**
+   * Saves the documents with the corresponding keys. Stores backed by RocksDB save all the documents atomically, in a
+   * single write batch, unless a version option is given; other stores save the documents one by one.
+   *
+   * @param keys the keys to save the values.
+   * @param values the values to save, in the same order as the keys.
+   * @param options extra options for PUT operations.
+   * @return the documents that are updated or created, with their latest version tags, in the same order as the keys.
+   * @throws com.dremio.datastore.DatastoreException when one or more runtime failures are encountered.
+   * @throws IllegalArgumentException when there are not as many values as keys, or duplicate keys.
+   */
+  default Iterable<Document<K, V>> put(List<K> keys, List<V> values, PutOption ... options) {
+    if (keys.size() != values.size()) {
+      throw new IllegalArgumentException("Expected as many values as keys");
+    }
+    final List<Document<K, V>> documents = new ArrayList<>(keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      documents.add(put(keys.get(i), values.get(i), options));
+    }
+    return documents;
+  }
+
+  /**
+   * Removes the documents with the provided keys. Stores backed by RocksDB remove all the documents atomically, in a
+   * single write batch, unless a version option is given; other stores remove the documents one by one.
+   *
+   * @param keys the keys of the documents to be removed from the KV Store.
+   * @param options extra options for DELETE operations.
+   * @throws com.dremio.datastore.DatastoreException when one or more runtime failures are encountered.
+   */
+  default void delete(List<K> keys, DeleteOption ... options) {
+    for (K key : keys) {
+      delete(key, options);
+    }
+  }
+
   /**
    * Removes a document with the provided key value.
    *
@@ -61,6 +61,24 @@ public interface LegacyKVStore<K, V> {
    */
   void put(K key, V v);
 
+  /**
+   * Save the provided values under the keys, with parallel indices. Possibly more
+   * efficient than looping over the keys in application code depending on the
+   * underlying storage system.
+   *
+   * @param keys the keys to save the values under
+   * @param values the values to save, can not be null.
+   * @throws IllegalArgumentException when the lists are not of the same size.
+   */
+  default void put(List<K> keys, List<V> values) {
+    if (keys.size() != values.size()) {
+      throw new IllegalArgumentException("Keys and values must be of the same size");
+    }
+    for (int i = 0; i < keys.size(); i++) {
+      put(keys.get(i), values.get(i));
+    }
+  }
+
   /**
    * Indicate if the store contains an entry associated with the key. Return {@code true}
    * if such a key exist, {@code false} otherwise.
@@ -78,6 +96,16 @@ public interface LegacyKVStore<K, V> {
    */
   void delete(K key);
 
+  /**
+   * Remove the keys, and the associated values from the store. Keys that don't
+   * exist are ignored.
+   *
+   * @param keys the keys to remove.
+   */
+  default void delete(List<K> keys) {
+    keys.forEach(this::delete);
+  }
+
 
   /**
    * Return a iterable of keys & values for any key within the provided Range
@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -316,6 +317,39 @@ public abstract class AbstractTestKVStore<K, V> {
     assertNull(kvStore.get(key));
   }
 
+  @Test
+  public void testPutWithKeys() {
+    final List<K> keys = ImmutableList.of(gen.newKey(), gen.newKey(), gen.newKey());
+    final List<V> values = ImmutableList.of(gen.newVal(), gen.newVal(), gen.newVal());
+
+    kvStore.put(keys.get(0), values.get(1));
+    final Iterable<Document<K, V>> puts = kvStore.put(keys, values);
+    assertEquals(3, Iterables.size(puts));
+
+    final Iterable<Document<K, V>> result = kvStore.get(keys);
+    assertEquals(3, Iterables.size(result));
+    for (int i = 0; i < keys.size(); i++) {
+      final Document<K, V> doc = Iterables.get(result, i);
+      gen.assertKeyEquals(keys.get(i), doc.getKey());
+      gen.assertValueEquals(values.get(i), doc.getValue());
+      assertEquals(Iterables.get(puts, i).getTag(), doc.getTag());
+    }
+  }
+
+  @Test
+  public void testDeleteWithKeys() {
+    final DocumentDataset<K, V> data = generateDataAndPopulateKVStore(SAMPLING_SIZE / 2);
+    final K missingKey = gen.newKey();
+    final List<K> keys = new ArrayList<>(data.getKeys().subList(1, data.getKeys().size()));
+    keys.add(missingKey);
+
+    kvStore.delete(keys);
+
+    assertNotNull(kvStore.get(data.getDocument(0).getKey()));
+    final Iterable<Document<K, V>> result = kvStore.get(keys);
+    assertTrue(StreamSupport.stream(result.spliterator(), false).allMatch(Objects::isNull));
+  }
+
   @Test
   public void testFindByExclusiveStartEndRange() {
     ignoreIfFindNotSupported();
@@ -174,6 +174,7 @@ import com.dremio.exec.store.sys.accel.AccelerationManager;
 import com.dremio.exec.testing.ControlsInjector;
 import com.dremio.exec.testing.ControlsInjectorFactory;
 import com.dremio.exec.testing.ExecutionControls;
+import com.dremio.exec.work.QueryWorkUnit;
 import com.dremio.exec.work.foreman.ExecutionPlan;
 import com.dremio.exec.work.protector.ForemenTool;
 import com.dremio.exec.work.protector.UserRequest;
@@ -1876,6 +1877,15 @@ public class LocalJobsService implements Service, JobResultInfoProvider, SimpleJ
       connection.sendData(outcomeListener, ExternalIdHelper.replaceQueryId(result, externalId));
       // TODO: maybe capture and write the first few result batches to the job store so we can view those results?
     }
+
+    @Override
+    public void plansDistributionComplete(QueryWorkUnit unit) {
+      super.plansDistributionComplete(unit);
+      final CoordinationProtos.NodeEndpoint screen = unit.getRootAssignment();
+      if (screen != null) {
+        connection.screenAssigned(screen);
+      }
+    }
   }
 
   /**
@@ -114,6 +114,8 @@ public class NamespaceServiceImpl implements NamespaceService {
   public static final String PARTITION_CHUNKS = "metadata-dataset-splits";
   public static final String MULTI_SPLITS = "metadata-multi-splits";
   private static final int LOG_BATCH = 99;
+  // number of partition chunks a dataset metadata saver saves in a single write
+  private static final int SAVE_BATCH_SIZE = 100;
   public static final int LATEST_VERSION = 1;
   public static final int MAX_ENTITIES_PER_QUERY = 1000;
 
@@ -562,6 +564,10 @@ public class NamespaceServiceImpl implements NamespaceService {
     private long partitionChunkCount;
     private long partitionChunkWithSingleSplitCount;
     private List<PartitionChunkId> createdPartitionChunks;
+    private final List<PartitionChunkId> pendingPartitionChunkIds;
+    private final List<PartitionChunk> pendingPartitionChunks;
+    private final List<PartitionChunkId> pendingMultiSplitIds;
+    private final List<MultiSplit> pendingMultiSplits;
     private long accumulatedSizeInBytes;
     private long accumulatedRecordCount;
     private List<DatasetSplit> accumulatedSplits;
@@ -576,6 +582,10 @@ public class NamespaceServiceImpl implements NamespaceService {
       this.isClosed = false;
       this.partitionChunkCount = -1;  // incremented to 0 below
       this.createdPartitionChunks = new ArrayList<>();
+      this.pendingPartitionChunkIds = new ArrayList<>();
+      this.pendingPartitionChunks = new ArrayList<>();
+      this.pendingMultiSplitIds = new ArrayList<>();
+      this.pendingMultiSplits = new ArrayList<>();
       this.totalNumSplits = 0;
       this.partitionChunkWithSingleSplitCount = 0;
       this.maxSinglePartitionChunks = maxSinglePartitionChunks;
@@ -630,16 +640,37 @@ public class NamespaceServiceImpl implements NamespaceService {
         partitionChunkWithSingleSplitCount++;
       }
       PartitionChunkId chunkId = PartitionChunkId.of(datasetId, nextDatasetVersion, splitKey);
-      NamespaceServiceImpl.this.partitionChunkStore.put(chunkId, builder.build());
+      pendingPartitionChunkIds.add(chunkId);
+      pendingPartitionChunks.add(builder.build());
       createdPartitionChunks.add(chunkId);
-      // Intentionally creating any potential multi-splits after creating the partition chunk.
-      // This makes orphan cleaning simpler, as we can key only on the existing partitionChunk(s), and remove
-      // any matching multi-splits
       if (accumulatedSplits.size() > 1 || !singleSplitPartitionAllowed) {
-        NamespaceServiceImpl.this.multiSplitStore.put(chunkId, createMultiSplitFromAccumulated(splitKey));
+        pendingMultiSplitIds.add(chunkId);
+        pendingMultiSplits.add(createMultiSplitFromAccumulated(splitKey));
       }
       totalNumSplits += accumulatedSplits.size();
       resetSplitAccumulation();
+      if (pendingPartitionChunkIds.size() >= SAVE_BATCH_SIZE) {
+        flushPending();
+      }
+    }
+
+    /**
+     * Saves the pending partition chunks and multi-splits, in batches.
+     */
+    private void flushPending() {
+      // Intentionally creating any potential multi-splits after creating the partition chunks.
+      // This makes orphan cleaning simpler, as we can key only on the existing partitionChunk(s), and remove
+      // any matching multi-splits
+      if (!pendingPartitionChunkIds.isEmpty()) {
+        NamespaceServiceImpl.this.partitionChunkStore.put(pendingPartitionChunkIds, pendingPartitionChunks);
+        pendingPartitionChunkIds.clear();
+        pendingPartitionChunks.clear();
+      }
+      if (!pendingMultiSplitIds.isEmpty()) {
+        NamespaceServiceImpl.this.multiSplitStore.put(pendingMultiSplitIds, pendingMultiSplits);
+        pendingMultiSplitIds.clear();
+        pendingMultiSplits.clear();
+      }
     }
 
     private OutputStream wrapIfNeeded(OutputStream o) throws IOException {
@@ -691,6 +722,7 @@ public class NamespaceServiceImpl implements NamespaceService {
       Objects.requireNonNull(datasetConfig.getReadDefinition(), "read_definition is required");
       datasetConfig.getReadDefinition().setSplitVersion(nextDatasetVersion);
       datasetConfig.setTotalNumSplits(totalNumSplits);
+      flushPending();
       while (true) {
         try {
           NamespaceServiceImpl.this.addOrUpdateDataset(datasetPath, datasetConfig, attributes);
@@ -34,6 +34,8 @@ public class ResourceSchedulingDecisionInfo {
   private UserBitShared.WorkloadClass workloadClass;
   private long schedulingStartTimeMs;  // Time when resource allocation started, in ms
   private long schedulingEndTimeMs;    // Time when resources were fully allocated, in ms
+  private long queueWaitMillis;        // Time spent waiting for admission in the queue, in ms
+  private String rejectionReason;      // Why the query was not admitted, if it was not
   private String queueTag;
   private String engineName;
   private EngineId engineId;
@@ -136,6 +138,22 @@ public class ResourceSchedulingDecisionInfo {
     this.schedulingEndTimeMs = schedulingEndTimeMs;
   }
 
+  public long getQueueWaitMillis() {
+    return queueWaitMillis;
+  }
+
+  public void setQueueWaitMillis(long queueWaitMillis) {
+    this.queueWaitMillis = queueWaitMillis;
+  }
+
+  public String getRejectionReason() {
+    return rejectionReason;
+  }
+
+  public void setRejectionReason(String rejectionReason) {
+    this.rejectionReason = rejectionReason;
+  }
+
   public String getQueueTag() {
     return queueTag;
   }
@@ -81,7 +81,15 @@ public class BasicResourceAllocator implements ResourceAllocator {
     resourceSchedulingObserver.beginQueueWait();
     final Pointer<DistributedSemaphore.DistributedLease> lease = new Pointer();
     ListenableFuture<ResourceSet> futureAllocation = executorService.submit(() -> {
-      lease.value = acquireQuerySemaphoreIfNecessary(queryContext, queueType);
+      final long queueWaitStart = System.currentTimeMillis();
+      try {
+        lease.value = acquireQuerySemaphoreIfNecessary(queryContext, queueType);
+      } catch (ResourceUnavailableException e) {
+        resourceSchedulingDecisionInfo.setRejectionReason(e.getMessage());
+        throw e;
+      } finally {
+        resourceSchedulingDecisionInfo.setQueueWaitMillis(System.currentTimeMillis() - queueWaitStart);
+      }
 
        // update query limit based on the queueType
       final OptionManager options = queryContext.getOptions();
@@ -152,6 +160,10 @@ public class BasicResourceAllocator implements ResourceAllocator {
     return clusterResourceInformationProvider.get();
   }
 
+  protected ClusterCoordinator getClusterCoordinator() {
+    return clusterCoordinator;
+  }
+
   @Override
   public void start() throws Exception {
     this.clusterCoordinator = clusterCoordinatorProvider.get();
@@ -185,41 +197,50 @@ public class BasicResourceAllocator implements ResourceAllocator {
     }
 
     long queueTimeout = optionManager.getOption(BasicResourceConstants.QUEUE_TIMEOUT);
-    String queueName = null;
-    int maxRunningConcurrency = 0;
+    final String semaphoreName;
+    final String queueName;
+    final int maxRunningConcurrency;
+
+    // get the appropriate semaphore
+    switch (adjustedQueueType) {
+      case LARGE:
+        maxRunningConcurrency = (int) optionManager.getOption(BasicResourceConstants.LARGE_QUEUE_SIZE);
+        semaphoreName = "query.large";
+        queueName = "large";
+        break;
+      case SMALL:
+        maxRunningConcurrency = (int) optionManager.getOption(BasicResourceConstants.SMALL_QUEUE_SIZE);
+        semaphoreName = "query.small";
+        queueName = "small";
+        break;
+      case REFLECTION_LARGE:
+        maxRunningConcurrency = (int) optionManager.getOption(BasicResourceConstants.REFLECTION_LARGE_QUEUE_SIZE);
+        semaphoreName = "reflection.query.large";
+        queueName = "reflection_large";
+        queueTimeout = optionManager.getOption(BasicResourceConstants.REFLECTION_QUEUE_TIMEOUT);
+        break;
+      case REFLECTION_SMALL:
+        maxRunningConcurrency = (int) optionManager.getOption(BasicResourceConstants.REFLECTION_SMALL_QUEUE_SIZE);
+        semaphoreName = "reflection.query.small";
+        queueName = "reflection_small";
+        queueTimeout = optionManager.getOption(BasicResourceConstants.REFLECTION_QUEUE_TIMEOUT);
+        break;
+      default:
+        throw new ResourceAllocationException("Unsupported Queue type: " + adjustedQueueType);
+    }
+    return acquireLease(semaphoreName, maxRunningConcurrency, queueTimeout, queueName);
+  }
 
+  /**
+   * Acquires a lease of the named distributed semaphore, waiting at most queueTimeout milliseconds.
+   */
+  protected DistributedSemaphore.DistributedLease acquireLease(String semaphoreName, int maxRunningConcurrency,
+                                                              long queueTimeout, String queueName)
+    throws ResourceUnavailableException {
     DistributedSemaphore.DistributedLease lease;
     try {
       @SuppressWarnings("resource")
-      final DistributedSemaphore distributedSemaphore;
-
-      // get the appropriate semaphore
-      switch (adjustedQueueType) {
-        case LARGE:
-          maxRunningConcurrency = (int) optionManager.getOption(BasicResourceConstants.LARGE_QUEUE_SIZE);
-          distributedSemaphore = clusterCoordinator.getSemaphore("query.large", maxRunningConcurrency);
-          queueName = "large";
-          break;
-        case SMALL:
-          maxRunningConcurrency = (int) optionManager.getOption(BasicResourceConstants.SMALL_QUEUE_SIZE);
-          distributedSemaphore = clusterCoordinator.getSemaphore("query.small", maxRunningConcurrency);
-          queueName = "small";
-          break;
-        case REFLECTION_LARGE:
-          maxRunningConcurrency = (int) optionManager.getOption(BasicResourceConstants.REFLECTION_LARGE_QUEUE_SIZE);
-          distributedSemaphore = clusterCoordinator.getSemaphore("reflection.query.large", maxRunningConcurrency);
-          queueName = "reflection_large";
-          queueTimeout = optionManager.getOption(BasicResourceConstants.REFLECTION_QUEUE_TIMEOUT);
-          break;
-        case REFLECTION_SMALL:
-          maxRunningConcurrency = (int) optionManager.getOption(BasicResourceConstants.REFLECTION_SMALL_QUEUE_SIZE);
-          distributedSemaphore = clusterCoordinator.getSemaphore("reflection.query.small", maxRunningConcurrency);
-          queueName = "reflection_small";
-          queueTimeout = optionManager.getOption(BasicResourceConstants.REFLECTION_QUEUE_TIMEOUT);
-          break;
-        default:
-          throw new ResourceAllocationException("Unsupported Queue type: " + adjustedQueueType);
-      }
+      final DistributedSemaphore distributedSemaphore = clusterCoordinator.getSemaphore(semaphoreName, maxRunningConcurrency);
       lease = distributedSemaphore.acquire(queueTimeout, TimeUnit.MILLISECONDS);
     } catch (final Exception e) {
       final String message = String.format(
@@ -280,7 +301,7 @@ public class BasicResourceAllocator implements ResourceAllocator {
     }
   }
 
-  private static void releaseLease(DistributedSemaphore.DistributedLease lease) {
+  protected static void releaseLease(DistributedSemaphore.DistributedLease lease) {
     while (lease != null) {
       try {
         lease.close();
@@ -39,4 +39,15 @@ public interface BasicResourceConstants {
   TypeValidators.LongValidator REFLECTION_LARGE_QUEUE_SIZE = new TypeValidators.RangeLongValidator("reflection.queue.large", 0, 100, 1);
   TypeValidators.LongValidator REFLECTION_SMALL_QUEUE_SIZE = new TypeValidators.RangeLongValidator("reflection.queue.small", 0, 10000, 10);
   TypeValidators.LongValidator QUEUE_THRESHOLD_SIZE = new TypeValidators.PositiveLongValidator("exec.queue.threshold", Long.MAX_VALUE, 30000000);
+
+  // Local weighted queues, see WeightedQueueResourceAllocator
+  TypeValidators.BooleanValidator WEIGHTED_QUEUE_ENABLE = new TypeValidators.BooleanValidator("exec.queue.weighted.enable", false);
+  // Comma separated queues, each as name:max_cost:concurrency:weight:memory_per_node, with * for no cost limit and 0
+  // for the query memory limit. Queries go to the first queue whose max cost is not lower than their cost.
+  String DEFAULT_WEIGHTED_QUEUES = "small:30000000:100:4:268435456,large:*:10:1:4294967296";
+  TypeValidators.StringValidator WEIGHTED_QUEUES = new TypeValidators.StringValidator("exec.queue.weighted.queues", DEFAULT_WEIGHTED_QUEUES);
+  // Queue of the reflection queries, routed by cost when empty
+  TypeValidators.StringValidator WEIGHTED_QUEUE_REFLECTION = new TypeValidators.StringValidator("exec.queue.weighted.reflection_queue", "");
+  // Fraction of the executor memory the admitted queries may use
+  TypeValidators.DoubleValidator WEIGHTED_QUEUE_MEMORY_FRACTION = new TypeValidators.RangeDoubleValidator("exec.queue.weighted.memory_fraction", 0.1, 1.0, 0.8);
 }
@@ -0,0 +1,495 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javax.inject.Provider;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.concurrent.CloseableSchedulerThreadPool;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.options.OptionManager;
+import com.dremio.resource.GroupResourceInformation;
+import com.dremio.resource.ResourceSchedulingDecisionInfo;
+import com.dremio.resource.ResourceSchedulingObserver;
+import com.dremio.resource.ResourceSchedulingProperties;
+import com.dremio.resource.ResourceSchedulingResult;
+import com.dremio.resource.ResourceSet;
+import com.dremio.resource.common.ResourceSchedulingContext;
+import com.dremio.resource.exception.ResourceAllocationException;
+import com.dremio.resource.exception.ResourceUnavailableException;
+import com.dremio.service.coordinator.ClusterCoordinator;
+import com.dremio.service.coordinator.DistributedSemaphore;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.math.LongMath;
+
+/**
+ * Resource allocator that admits queries through named queues kept in process.
+ *
+ * Queries go to a queue by routing queue or by cost, and the queues share the cluster by weight: whenever a query
+ * completes, the first query of the queue with the fewest running queries for its weight is admitted next. A query
+ * is only admitted when its estimated memory, its per node memory limit on every executor, fits in the executor
+ * memory left by the queries already admitted, unless nothing is running.
+ *
+ * With a single coordinator, admission never leaves the process. With several coordinators the concurrency of each
+ * queue is also enforced across the cluster by a distributed semaphore, while memory is tracked per coordinator.
+ *
+ * Queries are allocated by {@link BasicResourceAllocator} when {@link BasicResourceConstants#WEIGHTED_QUEUE_ENABLE}
+ * is off.
+ */
+public class WeightedQueueResourceAllocator extends BasicResourceAllocator {
+
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WeightedQueueResourceAllocator.class);
+
+  // guarded by this
+  private final Map<String, LocalQueue> queues = new LinkedHashMap<>();
+  private final Map<UserBitShared.QueryId, Waiter> waiters = new HashMap<>();
+  private String queueDefinitions;
+  private int runningQueries;
+  private long admittedMemory;
+  private long memoryCapacity;
+
+  private CloseableSchedulerThreadPool timeoutExecutor;
+
+  public WeightedQueueResourceAllocator(final Provider<ClusterCoordinator> clusterCoordinatorProvider,
+                                       final Provider<GroupResourceInformation> clusterResourceInformationProvider) {
+    super(clusterCoordinatorProvider, clusterResourceInformationProvider);
+  }
+
+  @Override
+  public ResourceSchedulingResult allocate(final ResourceSchedulingContext queryContext,
+                                           final ResourceSchedulingProperties resourceSchedulingProperties,
+                                           final ResourceSchedulingObserver resourceSchedulingObserver,
+                                           final Consumer<ResourceSchedulingDecisionInfo> schedulingDecisionInfoConsumer) {
+    final OptionManager options = queryContext.getOptions();
+    if (!options.getOption(BasicResourceConstants.WEIGHTED_QUEUE_ENABLE)) {
+      return super.allocate(queryContext, resourceSchedulingProperties, resourceSchedulingObserver,
+        schedulingDecisionInfoConsumer);
+    }
+
+    final boolean background = queryContext.getQueryContextInfo().getPriority().getWorkloadClass()
+      .equals(UserBitShared.WorkloadClass.BACKGROUND);
+    final LocalQueue queue;
+    final long queueMemoryPerNode;
+    final int queueConcurrency;
+    synchronized (this) {
+      updateQueues(options.getOption(BasicResourceConstants.WEIGHTED_QUEUES));
+      queue = route(resourceSchedulingProperties, background,
+        options.getOption(BasicResourceConstants.WEIGHTED_QUEUE_REFLECTION));
+      queueMemoryPerNode = queue.memoryPerNode;
+      queueConcurrency = queue.concurrency;
+    }
+
+    final ResourceSchedulingDecisionInfo resourceSchedulingDecisionInfo = new ResourceSchedulingDecisionInfo();
+    resourceSchedulingDecisionInfo.setQueueName(queue.name);
+    resourceSchedulingDecisionInfo.setQueueId(queue.name);
+    resourceSchedulingDecisionInfo.setWorkloadClass(queryContext.getQueryContextInfo().getPriority().getWorkloadClass());
+    schedulingDecisionInfoConsumer.accept(resourceSchedulingDecisionInfo);
+
+    final GroupResourceInformation resourceInformation = getGroupResourceInformation(options, resourceSchedulingProperties);
+    final int executorCount = Math.max(1, resourceInformation.getExecutorNodeCount());
+    final long executorMemory = resourceInformation.getAverageExecutorMemory();
+    final long memoryPerNode = estimateMemoryPerNode(queryContext.getQueryContextInfo().getQueryMaxAllocation(),
+      queueMemoryPerNode, executorMemory);
+    final long capacity = (long) (executorMemory * (double) executorCount
+      * options.getOption(BasicResourceConstants.WEIGHTED_QUEUE_MEMORY_FRACTION));
+    final long queueTimeout = background
+      ? options.getOption(BasicResourceConstants.REFLECTION_QUEUE_TIMEOUT)
+      : options.getOption(BasicResourceConstants.QUEUE_TIMEOUT);
+
+    resourceSchedulingObserver.beginQueueWait();
+    final long queueWaitStart = System.currentTimeMillis();
+    final CompletableFuture<ResourceSet> futureAllocation = new CompletableFuture<>();
+    final ResourceSchedulingResult resourceSchedulingResult =
+      new ResourceSchedulingResult(resourceSchedulingDecisionInfo, futureAllocation);
+
+    DistributedSemaphore.DistributedLease lease = null;
+    if (!isSingleCoordinator()) {
+      try {
+        lease = acquireLease("query.weighted." + queue.name, queueConcurrency, queueTimeout, queue.name);
+      } catch (ResourceUnavailableException e) {
+        resourceSchedulingDecisionInfo.setQueueWaitMillis(System.currentTimeMillis() - queueWaitStart);
+        resourceSchedulingDecisionInfo.setRejectionReason(e.getMessage());
+        futureAllocation.completeExceptionally(e);
+        return resourceSchedulingResult;
+      }
+    }
+
+    final Waiter waiter = new Waiter(queryContext.getQueryId(), queue, memoryPerNode,
+      LongMath.saturatedMultiply(memoryPerNode, executorCount), lease, resourceSchedulingDecisionInfo,
+      queueWaitStart, futureAllocation);
+    final long remainingTimeout = Math.max(0, queueTimeout - (System.currentTimeMillis() - queueWaitStart));
+    final List<Waiter> admitted;
+    synchronized (this) {
+      memoryCapacity = capacity;
+      queue.waiting.add(waiter);
+      waiters.put(waiter.queryId, waiter);
+      admitted = drain();
+      if (!admitted.contains(waiter)) {
+        waiter.timeout = timeoutExecutor.schedule(() -> timeout(waiter, queueTimeout), remainingTimeout,
+          TimeUnit.MILLISECONDS);
+      }
+    }
+    admitted.forEach(Waiter::admit);
+    return resourceSchedulingResult;
+  }
+
+  @Override
+  public void cancel(ResourceSchedulingContext queryContext) {
+    final Waiter waiter;
+    final List<Waiter> admitted;
+    synchronized (this) {
+      waiter = waiters.remove(queryContext.getQueryId());
+      if (waiter == null) {
+        return;
+      }
+      waiter.queue.waiting.remove(waiter);
+      admitted = drain();
+    }
+    admitted.forEach(Waiter::admit);
+    waiter.reject(new ResourceAllocationException(
+      String.format("Query cancelled while waiting in the '%s' queue.", waiter.queue.name)));
+  }
+
+  private void timeout(Waiter waiter, long queueTimeout) {
+    final List<Waiter> admitted;
+    synchronized (this) {
+      if (waiters.get(waiter.queryId) != waiter) {
+        // already admitted or cancelled
+        return;
+      }
+      waiters.remove(waiter.queryId);
+      waiter.queue.waiting.remove(waiter);
+      admitted = drain();
+    }
+    admitted.forEach(Waiter::admit);
+    waiter.reject(new ResourceUnavailableException(String.format(
+      "Query cancelled by Workload Manager. Query enqueued time of %.2f seconds exceeded for '%s' queue.",
+      queueTimeout / 1000.0, waiter.queue.name)));
+  }
+
+  private void release(Waiter waiter) {
+    final List<Waiter> admitted;
+    synchronized (this) {
+      waiter.queue.running--;
+      runningQueries--;
+      admittedMemory -= waiter.estimatedMemory;
+      admitted = drain();
+    }
+    admitted.forEach(Waiter::admit);
+  }
+
+  /**
+   * Takes the waiters that can run out of their queues, fairest queue first. Stops at the first waiter whose memory
+   * does not fit, so that large queries are not starved by the smaller ones behind them.
+   */
+  private List<Waiter> drain() {
+    List<Waiter> admitted = Collections.emptyList();
+    while (true) {
+      LocalQueue next = null;
+      for (LocalQueue queue : queues.values()) {
+        if (queue.waiting.isEmpty() || queue.running >= queue.concurrency) {
+          continue;
+        }
+        // lowest running / weight first
+        if (next == null || (long) queue.running * next.weight < (long) next.running * queue.weight) {
+          next = queue;
+        }
+      }
+      if (next == null) {
+        return admitted;
+      }
+
+      final Waiter head = next.waiting.peekFirst();
+      if (runningQueries > 0 && memoryCapacity > 0 && admittedMemory + head.estimatedMemory > memoryCapacity) {
+        return admitted;
+      }
+      next.waiting.removeFirst();
+      waiters.remove(head.queryId);
+      next.running++;
+      runningQueries++;
+      admittedMemory += head.estimatedMemory;
+      if (admitted.isEmpty()) {
+        admitted = new ArrayList<>();
+      }
+      admitted.add(head);
+    }
+  }
+
+  /**
+   * The memory limit of the query on each executor: the limit of its queue if set, capped by the query limit and the
+   * memory of an executor.
+   */
+  @VisibleForTesting
+  static long estimateMemoryPerNode(long queryMaxAllocation, long queueMemoryPerNode, long executorMemory) {
+    long memoryPerNode = queryMaxAllocation;
+    if (queueMemoryPerNode > 0) {
+      memoryPerNode = Math.min(memoryPerNode, queueMemoryPerNode);
+    }
+    if (executorMemory > 0) {
+      memoryPerNode = Math.min(memoryPerNode, executorMemory);
+    }
+    return memoryPerNode;
+  }
+
+  private LocalQueue route(ResourceSchedulingProperties resourceSchedulingProperties, boolean background,
+                           String reflectionQueue) {
+    final LocalQueue routingQueue = queues.get(resourceSchedulingProperties.getRoutingQueue());
+    if (routingQueue != null && routingQueue.defined) {
+      return routingQueue;
+    }
+    if (background) {
+      final LocalQueue queue = queues.get(reflectionQueue);
+      if (queue != null && queue.defined) {
+        return queue;
+      }
+    }
+
+    final Double cost = resourceSchedulingProperties.getQueryCost();
+    Preconditions.checkNotNull(cost, "Queue Cost is not provided, Unable to determine queue.");
+    LocalQueue last = null;
+    for (LocalQueue queue : queues.values()) {
+      if (!queue.defined) {
+        continue;
+      }
+      if (cost <= queue.maxCost) {
+        return queue;
+      }
+      last = queue;
+    }
+    return last;
+  }
+
+  /**
+   * Applies the queue definitions when they changed. Queues that are no longer defined stop taking new queries, but
+   * still admit the ones waiting in them.
+   */
+  private void updateQueues(String definitions) {
+    if (definitions.equals(queueDefinitions)) {
+      return;
+    }
+    List<QueueDefinition> parsed;
+    try {
+      parsed = parseQueues(definitions);
+    } catch (IllegalArgumentException e) {
+      logger.warn("Invalid queue definitions '{}', {}.", definitions, queueDefinitions == null
+        ? "using the default ones" : "keeping the current ones", e);
+      if (queueDefinitions != null) {
+        queueDefinitions = definitions;
+        return;
+      }
+      parsed = parseQueues(BasicResourceConstants.DEFAULT_WEIGHTED_QUEUES);
+    }
+
+    queues.values().forEach(queue -> queue.defined = false);
+    for (QueueDefinition definition : parsed) {
+      final LocalQueue queue = queues.computeIfAbsent(definition.name, LocalQueue::new);
+      queue.maxCost = definition.maxCost;
+      queue.concurrency = definition.concurrency;
+      queue.weight = definition.weight;
+      queue.memoryPerNode = definition.memoryPerNode;
+      queue.defined = true;
+    }
+    queueDefinitions = definitions;
+  }
+
+  /**
+   * Parses comma separated queues, each as name:max_cost:concurrency:weight:memory_per_node.
+   */
+  @VisibleForTesting
+  static List<QueueDefinition> parseQueues(String definitions) {
+    final List<QueueDefinition> parsed = new ArrayList<>();
+    for (String definition : definitions.split(",")) {
+      final String[] fields = definition.trim().split(":");
+      Preconditions.checkArgument(fields.length == 5 && !fields[0].isEmpty(), "Invalid queue definition: %s", definition);
+      try {
+        final double maxCost = "*".equals(fields[1]) ? Double.POSITIVE_INFINITY : Double.parseDouble(fields[1]);
+        final int concurrency = Integer.parseInt(fields[2]);
+        final int weight = Integer.parseInt(fields[3]);
+        final long memoryPerNode = Long.parseLong(fields[4]);
+        Preconditions.checkArgument(concurrency > 0 && weight > 0 && memoryPerNode >= 0,
+          "Invalid queue definition: %s", definition);
+        parsed.add(new QueueDefinition(fields[0], maxCost, concurrency, weight, memoryPerNode));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid queue definition: " + definition, e);
+      }
+    }
+    return parsed;
+  }
+
+  private boolean isSingleCoordinator() {
+    return getClusterCoordinator().getServiceSet(ClusterCoordinator.Role.COORDINATOR).getAvailableEndpoints().size() <= 1;
+  }
+
+  @Override
+  public void start() throws Exception {
+    super.start();
+    timeoutExecutor = new CloseableSchedulerThreadPool("weighted-queue-timeout", 1);
+    timeoutExecutor.setRemoveOnCancelPolicy(true);
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(timeoutExecutor, super::close);
+  }
+
+  /**
+   * A parsed queue definition.
+   */
+  @VisibleForTesting
+  static final class QueueDefinition {
+    private final String name;
+    private final double maxCost;
+    private final int concurrency;
+    private final int weight;
+    private final long memoryPerNode;
+
+    QueueDefinition(String name, double maxCost, int concurrency, int weight, long memoryPerNode) {
+      this.name = name;
+      this.maxCost = maxCost;
+      this.concurrency = concurrency;
+      this.weight = weight;
+      this.memoryPerNode = memoryPerNode;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    double getMaxCost() {
+      return maxCost;
+    }
+
+    int getConcurrency() {
+      return concurrency;
+    }
+
+    int getWeight() {
+      return weight;
+    }
+
+    long getMemoryPerNode() {
+      return memoryPerNode;
+    }
+  }
+
+  /**
+   * A queue and its queries, guarded by the allocator.
+   */
+  private static final class LocalQueue {
+    private final String name;
+    private double maxCost;
+    private int concurrency;
+    private int weight;
+    private long memoryPerNode;
+    private boolean defined;
+
+    private int running;
+    private final Deque<Waiter> waiting = new ArrayDeque<>();
+
+    LocalQueue(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * A query waiting for admission in a queue.
+   */
+  private final class Waiter {
+    private final UserBitShared.QueryId queryId;
+    private final LocalQueue queue;
+    private final long memoryPerNode;
+    private final long estimatedMemory;
+    private final DistributedSemaphore.DistributedLease lease;
+    private final ResourceSchedulingDecisionInfo decisionInfo;
+    private final long queueWaitStart;
+    private final CompletableFuture<ResourceSet> future;
+    private volatile ScheduledFuture<?> timeout;
+
+    Waiter(UserBitShared.QueryId queryId, LocalQueue queue, long memoryPerNode, long estimatedMemory,
+           DistributedSemaphore.DistributedLease lease, ResourceSchedulingDecisionInfo decisionInfo,
+           long queueWaitStart, CompletableFuture<ResourceSet> future) {
+      this.queryId = queryId;
+      this.queue = queue;
+      this.memoryPerNode = memoryPerNode;
+      this.estimatedMemory = estimatedMemory;
+      this.lease = lease;
+      this.decisionInfo = decisionInfo;
+      this.queueWaitStart = queueWaitStart;
+      this.future = future;
+    }
+
+    private void admit() {
+      cancelTimeout();
+      decisionInfo.setQueueWaitMillis(System.currentTimeMillis() - queueWaitStart);
+      future.complete(new WeightedResourceSet(this));
+    }
+
+    private void reject(ResourceAllocationException e) {
+      cancelTimeout();
+      releaseLease(lease);
+      decisionInfo.setQueueWaitMillis(System.currentTimeMillis() - queueWaitStart);
+      decisionInfo.setRejectionReason(e.getMessage());
+      future.completeExceptionally(e);
+    }
+
+    private void cancelTimeout() {
+      final ScheduledFuture<?> timeout = this.timeout;
+      if (timeout != null) {
+        timeout.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Resources of an admitted query, that give its slot and memory back to its queue when closed.
+   */
+  private final class WeightedResourceSet implements ResourceSet {
+    private final Waiter waiter;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    WeightedResourceSet(Waiter waiter) {
+      this.waiter = waiter;
+    }
+
+    @Override
+    public long getPerNodeQueryMemoryLimit() {
+      return waiter.memoryPerNode;
+    }
+
+    @Override
+    public void close() {
+      if (closed.compareAndSet(false, true)) {
+        releaseLease(waiter.lease);
+        release(waiter);
+      }
+    }
+  }
+}
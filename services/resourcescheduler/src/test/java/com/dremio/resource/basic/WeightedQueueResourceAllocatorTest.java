@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.exec.proto.CoordExecRPC;
+import com.dremio.exec.proto.CoordinationProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.options.OptionManager;
+import com.dremio.resource.GroupResourceInformation;
+import com.dremio.resource.ResourceSchedulingObserver;
+import com.dremio.resource.ResourceSchedulingProperties;
+import com.dremio.resource.ResourceSchedulingResult;
+import com.dremio.resource.ResourceSet;
+import com.dremio.resource.common.ResourceSchedulingContext;
+import com.dremio.resource.exception.ResourceAllocationException;
+import com.dremio.resource.exception.ResourceUnavailableException;
+import com.dremio.service.DirectProvider;
+import com.dremio.service.coordinator.ClusterCoordinator;
+import com.dremio.service.coordinator.local.LocalClusterCoordinator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests for {@link WeightedQueueResourceAllocator}
+ */
+public class WeightedQueueResourceAllocatorTest {
+
+  @Rule
+  public Timeout globalTimeout = new Timeout(30, TimeUnit.SECONDS);
+
+  private final CoordinationProtos.NodeEndpoint nodeEndpoint = CoordinationProtos.NodeEndpoint.newBuilder()
+    .setAddress("host1")
+    .setFabricPort(1234)
+    .setUserPort(2345)
+    .setAvailableCores(3)
+    .setMaxDirectMemory(8 * 1024)
+    .setRoles(ClusterCoordinator.Role.toEndpointRoles(Sets.newHashSet(ClusterCoordinator.Role.EXECUTOR)))
+    .build();
+
+  private OptionManager optionManager;
+  private ClusterCoordinator clusterCoordinator;
+  private WeightedQueueResourceAllocator resourceAllocator;
+
+  @Before
+  public void setup() throws Exception {
+    optionManager = mock(OptionManager.class);
+    when(optionManager.getOption(BasicResourceConstants.WEIGHTED_QUEUE_ENABLE)).thenReturn(true);
+    when(optionManager.getOption(BasicResourceConstants.WEIGHTED_QUEUES)).thenReturn("small:10:5:2:100,large:*:5:1:100");
+    when(optionManager.getOption(BasicResourceConstants.WEIGHTED_QUEUE_REFLECTION)).thenReturn("");
+    when(optionManager.getOption(BasicResourceConstants.WEIGHTED_QUEUE_MEMORY_FRACTION)).thenReturn(1.0);
+    when(optionManager.getOption(BasicResourceConstants.QUEUE_TIMEOUT)).thenReturn(10000L);
+
+    // room for 3 queries of 100 bytes
+    final GroupResourceInformation resourceInformation = mock(GroupResourceInformation.class);
+    when(resourceInformation.getExecutorNodeCount()).thenReturn(1);
+    when(resourceInformation.getAverageExecutorMemory()).thenReturn(300L);
+
+    clusterCoordinator = LocalClusterCoordinator.newRunningCoordinator();
+    resourceAllocator = new WeightedQueueResourceAllocator(DirectProvider.wrap(clusterCoordinator),
+      DirectProvider.wrap(resourceInformation));
+    resourceAllocator.start();
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    resourceAllocator.close();
+    clusterCoordinator.close();
+  }
+
+  @Test
+  public void testParseQueues() {
+    final List<WeightedQueueResourceAllocator.QueueDefinition> queues =
+      WeightedQueueResourceAllocator.parseQueues(BasicResourceConstants.DEFAULT_WEIGHTED_QUEUES);
+    assertEquals(2, queues.size());
+    assertEquals("small", queues.get(0).getName());
+    assertEquals(30000000D, queues.get(0).getMaxCost(), 10E-6);
+    assertEquals(100, queues.get(0).getConcurrency());
+    assertEquals(4, queues.get(0).getWeight());
+    assertEquals("large", queues.get(1).getName());
+    assertEquals(Double.POSITIVE_INFINITY, queues.get(1).getMaxCost(), 10E-6);
+
+    for (String invalid : new String[]{"", "a:1:1:1", "a:1:0:1:0", "a:x:1:1:0"}) {
+      try {
+        WeightedQueueResourceAllocator.parseQueues(invalid);
+        fail("Expected an invalid definition: " + invalid);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testEstimateMemoryPerNode() {
+    assertEquals(100, WeightedQueueResourceAllocator.estimateMemoryPerNode(Long.MAX_VALUE, 100, 1000));
+    assertEquals(50, WeightedQueueResourceAllocator.estimateMemoryPerNode(50, 100, 1000));
+    assertEquals(1000, WeightedQueueResourceAllocator.estimateMemoryPerNode(Long.MAX_VALUE, 0, 1000));
+    assertEquals(Long.MAX_VALUE, WeightedQueueResourceAllocator.estimateMemoryPerNode(Long.MAX_VALUE, 0, 0));
+  }
+
+  @Test
+  public void testWeightedAdmission() throws Exception {
+    final ResourceSet small1 = allocate(1).getResourceSetFuture().get();
+    final ResourceSet small2 = allocate(1).getResourceSetFuture().get();
+    final ResourceSet small3 = allocate(1).getResourceSetFuture().get();
+    assertEquals(100, small1.getPerNodeQueryMemoryLimit());
+
+    // the memory of the executors is taken
+    final ResourceSchedulingResult small4 = allocate(1);
+    final ResourceSchedulingResult large1 = allocate(100);
+    final ResourceSchedulingResult large2 = allocate(100);
+    assertFalse(small4.getResourceSetFuture().isDone());
+    assertFalse(large1.getResourceSetFuture().isDone());
+    assertEquals("large", large1.getResourceSchedulingDecisionInfo().getQueueName());
+
+    // 2 small queries of weight 2 against no large query
+    small1.close();
+    assertTrue(large1.getResourceSetFuture().isDone());
+    assertFalse(small4.getResourceSetFuture().isDone());
+
+    // 1 small query of weight 2 against 1 large query of weight 1
+    small2.close();
+    assertTrue(small4.getResourceSetFuture().isDone());
+    assertFalse(large2.getResourceSetFuture().isDone());
+
+    // closing twice gives the slot back once
+    small2.close();
+    assertFalse(large2.getResourceSetFuture().isDone());
+
+    small3.close();
+    assertTrue(large2.getResourceSetFuture().isDone());
+    assertNull(large2.getResourceSchedulingDecisionInfo().getRejectionReason());
+    assertTrue(large2.getResourceSchedulingDecisionInfo().getQueueWaitMillis() >= 0);
+
+    small4.getResourceSetFuture().get().close();
+    large1.getResourceSetFuture().get().close();
+    large2.getResourceSetFuture().get().close();
+  }
+
+  @Test
+  public void testAdmitAloneWhenTooLarge() throws Exception {
+    when(optionManager.getOption(BasicResourceConstants.WEIGHTED_QUEUES)).thenReturn("all:*:5:1:1000");
+    final ResourceSet first = allocate(1).getResourceSetFuture().get();
+    // capped by the memory of an executor
+    assertEquals(300, first.getPerNodeQueryMemoryLimit());
+
+    final ResourceSchedulingResult second = allocate(1);
+    assertFalse(second.getResourceSetFuture().isDone());
+    first.close();
+    second.getResourceSetFuture().get().close();
+  }
+
+  @Test
+  public void testTimeout() throws Exception {
+    when(optionManager.getOption(BasicResourceConstants.QUEUE_TIMEOUT)).thenReturn(100L);
+    when(optionManager.getOption(BasicResourceConstants.WEIGHTED_QUEUES)).thenReturn("one:*:1:1:0");
+    final ResourceSet first = allocate(1).getResourceSetFuture().get();
+
+    final ResourceSchedulingResult second = allocate(1);
+    try {
+      second.getResourceSetFuture().get();
+      fail("Expected the query to time out in the queue");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof ResourceUnavailableException);
+    }
+    assertTrue(second.getResourceSchedulingDecisionInfo().getRejectionReason().contains("'one' queue"));
+    assertTrue(second.getResourceSchedulingDecisionInfo().getQueueWaitMillis() >= 100);
+
+    first.close();
+    allocate(1).getResourceSetFuture().get().close();
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    when(optionManager.getOption(BasicResourceConstants.WEIGHTED_QUEUES)).thenReturn("one:*:1:1:0");
+    final ResourceSet first = allocate(1).getResourceSetFuture().get();
+
+    final UserBitShared.QueryId queryId = ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId());
+    final ResourceSchedulingContext context = createQueryContext(queryId);
+    final ResourceSchedulingResult second = allocate(context, 1);
+    final ResourceSchedulingResult third = allocate(1);
+    resourceAllocator.cancel(context);
+    try {
+      second.getResourceSetFuture().get();
+      fail("Expected the query to be cancelled");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof ResourceAllocationException);
+    }
+    assertTrue(second.getResourceSchedulingDecisionInfo().getRejectionReason() != null);
+
+    // the next query takes the slot
+    first.close();
+    third.getResourceSetFuture().get().close();
+  }
+
+  private ResourceSchedulingResult allocate(double cost) {
+    return allocate(createQueryContext(ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId())), cost);
+  }
+
+  private ResourceSchedulingResult allocate(ResourceSchedulingContext context, double cost) {
+    final ResourceSchedulingProperties properties = new ResourceSchedulingProperties();
+    properties.setQueryCost(cost);
+    return resourceAllocator.allocate(context, properties, ResourceSchedulingObserver.NO_OP, x -> {});
+  }
+
+  private ResourceSchedulingContext createQueryContext(final UserBitShared.QueryId queryId) {
+    return new ResourceSchedulingContext() {
+
+      @Override
+      public CoordExecRPC.QueryContextInformation getQueryContextInfo() {
+        return CoordExecRPC.QueryContextInformation.newBuilder()
+          .setQueryMaxAllocation(Long.MAX_VALUE)
+          .setPriority(CoordExecRPC.FragmentPriority.newBuilder().setWorkloadClass(UserBitShared.WorkloadClass.GENERAL).build())
+          .build();
+      }
+
+      @Override
+      public UserBitShared.QueryId getQueryId() {
+        return queryId;
+      }
+
+      @Override
+      public String getQueryUserName() {
+        return "foo";
+      }
+
+      @Override
+      public CoordinationProtos.NodeEndpoint getCurrentEndpoint() {
+        return nodeEndpoint;
+      }
+
+      @Override
+      public Collection<CoordinationProtos.NodeEndpoint> getActiveEndpoints() {
+        return ImmutableList.of(nodeEndpoint);
+      }
+
+      @Override
+      public OptionManager getOptions() {
+        return optionManager;
+      }
+    };
+  }
+}